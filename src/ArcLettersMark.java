@@ -1,9 +1,8 @@
 import java.awt.*;
 import java.awt.geom.AffineTransform;
 import java.awt.geom.Arc2D;
+import java.awt.geom.Path2D;
 import java.awt.geom.Point2D;
-import java.awt.geom.Rectangle2D;
-import java.awt.image.BufferedImage;
 
 public class ArcLettersMark extends Mark {
     private String letters = "ABCDE";
@@ -14,6 +13,7 @@ public class ArcLettersMark extends Mark {
     private Color arcColor = Color.LIGHT_GRAY;
     private boolean showArc = true;
     private double radius = 80;
+    private String strokeFontName = StrokeFont.DEFAULT_NAME; // Single-line font for pin marking
     
     public ArcLettersMark(int x, int y) {
         super(x, y);
@@ -213,7 +213,7 @@ public class ArcLettersMark extends Mark {
         
         // Draw label
         g.setColor(color.darker());
-        g.setFont(new Font("Arial", Font.BOLD, 10));
+        g.setFont(GlyphCache.font("Arial", Font.BOLD, 10));
         g.drawString(label, (int)x + 12, (int)y - 12);
     }
     
@@ -274,7 +274,7 @@ public class ArcLettersMark extends Mark {
     }
     
     private void drawControlLabels(Graphics2D g, double centerX, double centerY) {
-        g.setFont(new Font("Arial", Font.BOLD, 11));
+        g.setFont(GlyphCache.font("Arial", Font.BOLD, 11));
         
         // Arc angle label
         g.setColor(Color.BLACK);
@@ -319,7 +319,7 @@ public class ArcLettersMark extends Mark {
         
         // Add text "A" symbol to indicate text size
         g.setColor(color);
-        g.setFont(new Font("Arial", Font.BOLD, 10));
+        g.setFont(GlyphCache.font("Arial", Font.BOLD, 10));
         g.drawString("A", (int)x - 3, (int)y + 15);
     }
     
@@ -419,6 +419,7 @@ public class ArcLettersMark extends Mark {
     
     // Handle rotation - rotates the entire arc around its center
     public void rotate360(int mouseX, int mouseY) {
+        markChanged();
         double centerX = x + width / 2.0;
         double centerY = y + height / 2.0;
         
@@ -437,6 +438,7 @@ public class ArcLettersMark extends Mark {
     
     // Handle start angle adjustment
     public void adjustStartAngle(int mouseX, int mouseY) {
+        markChanged();
         double centerX = x + width / 2.0;
         double centerY = y + height / 2.0;
         
@@ -452,6 +454,7 @@ public class ArcLettersMark extends Mark {
     
     // Handle end angle adjustment (by adjusting arc span)
     public void adjustEndAngle(int mouseX, int mouseY) {
+        markChanged();
         double centerX = x + width / 2.0;
         double centerY = y + height / 2.0;
         
@@ -471,6 +474,7 @@ public class ArcLettersMark extends Mark {
     
     // Handle radius adjustment
     public void adjustRadius(int mouseX, int mouseY) {
+        markChanged();
         double centerX = x + width / 2.0;
         double centerY = y + height / 2.0;
         
@@ -483,6 +487,7 @@ public class ArcLettersMark extends Mark {
     
     // Handle draggable size control via green box - drag to increase/decrease size
     public void adjustSizeByGreenBox(int mouseX, int mouseY, int startX, int startY) {
+        markChanged();
         // Calculate the distance mouse has moved from start position
         double deltaX = mouseX - startX;
         double deltaY = mouseY - startY;
@@ -518,7 +523,7 @@ public class ArcLettersMark extends Mark {
         
         // Apply the changes
         this.radius = newRadius;
-        this.font = font.deriveFont(newFontSize);
+        this.font = GlyphCache.derive(font, newFontSize);
         
         // Adjust width and height to accommodate new radius
         this.width = (int)(radius * 2.5);
@@ -527,6 +532,7 @@ public class ArcLettersMark extends Mark {
     
     // Handle text size adjustment via yellow control handle
     public void adjustTextSize(int mouseX, int mouseY, int startX, int startY) {
+        markChanged();
         // Calculate the distance mouse has moved from start position
         double deltaY = startY - mouseY; // Inverted: moving up increases size, down decreases
         
@@ -548,7 +554,8 @@ public class ArcLettersMark extends Mark {
     
     // Set font size directly
     public void setFontSize(float size) {
-        this.font = font.deriveFont(Math.max(8f, Math.min(48f, size)));
+        markChanged();
+        this.font = GlyphCache.derive(font, Math.max(8f, Math.min(48f, size)));
     }
     
     // Getters and setters
@@ -557,6 +564,7 @@ public class ArcLettersMark extends Mark {
     }
     
     public void setLetters(String letters) {
+        markChanged();
         this.letters = letters.toUpperCase();
     }
     
@@ -565,6 +573,7 @@ public class ArcLettersMark extends Mark {
     }
     
     public void setStartAngle(double startAngle) {
+        markChanged();
         this.startAngle = startAngle;
     }
     
@@ -573,6 +582,7 @@ public class ArcLettersMark extends Mark {
     }
     
     public void setArcAngle(double arcAngle) {
+        markChanged();
         this.arcAngle = Math.max(10, Math.min(360, arcAngle)); // Limit between 10 and 360 degrees
     }
     
@@ -581,6 +591,7 @@ public class ArcLettersMark extends Mark {
     }
     
     public void setRadius(double radius) {
+        markChanged();
         this.radius = Math.max(30, radius); // Minimum radius of 30
     }
     
@@ -589,6 +600,7 @@ public class ArcLettersMark extends Mark {
     }
     
     public void setShowArc(boolean showArc) {
+        markChanged();
         this.showArc = showArc;
     }
     
@@ -597,14 +609,22 @@ public class ArcLettersMark extends Mark {
     }
     
     public void setFont(Font font) {
+        markChanged();
         this.font = font;
     }
     
+    public String getStrokeFontName() { return strokeFontName; }
+    public void setStrokeFontName(String name) {
+        markChanged();
+        this.strokeFontName = (name != null && !name.trim().isEmpty()) ? name : StrokeFont.DEFAULT_NAME;
+    }
+    
     public Color getTextColor() {
         return textColor;
     }
     
     public void setTextColor(Color textColor) {
+        markChanged();
         this.textColor = textColor;
     }
     
@@ -613,6 +633,7 @@ public class ArcLettersMark extends Mark {
     }
     
     public void setArcColor(Color arcColor) {
+        markChanged();
         this.arcColor = arcColor;
     }
     
@@ -620,7 +641,7 @@ public class ArcLettersMark extends Mark {
     
     /**
      * Generate path points for dot pin marker rendering
-     * Returns a list of coordinate points that trace the letter outlines
+     * Returns a list of coordinate points along the single-line letter strokes
      */
     public java.util.List<Point2D.Double> generatePathPoints(double dotSpacing) {
         java.util.List<Point2D.Double> pathPoints = new java.util.ArrayList<>();
@@ -643,8 +664,8 @@ public class ArcLettersMark extends Mark {
             double letterX = centerX + letterRadius * Math.cos(mathAngle);
             double letterY = centerY - letterRadius * Math.sin(mathAngle);
             
-            // Get character outline points
-            java.util.List<Point2D.Double> charPoints = getCharacterOutlinePoints(chars[i], letterX, letterY, 
+            // Get character stroke points
+            java.util.List<Point2D.Double> charPoints = getCharacterStrokePoints(chars[i], letterX, letterY, 
                 mathAngle + Math.PI/2, dotSpacing);
             pathPoints.addAll(charPoints);
         }
@@ -653,61 +674,86 @@ public class ArcLettersMark extends Mark {
     }
     
     /**
-     * Generate outline points for a single character
+     * Generate dot points along the single-line strokes of a character, centred on (x, y)
      */
-    private java.util.List<Point2D.Double> getCharacterOutlinePoints(char c, double x, double y, 
+    private java.util.List<Point2D.Double> getCharacterStrokePoints(char c, double x, double y, 
             double rotation, double dotSpacing) {
         java.util.List<Point2D.Double> points = new java.util.ArrayList<>();
         
-        // Create a simple outline for the character using font metrics
-        // This is a simplified version - in practice, you'd want to use font outline data
-        Font tempFont = font.deriveFont((float)(font.getSize() * 0.8));
-        FontMetrics fm = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB)
-            .getGraphics().getFontMetrics(tempFont);
-        
-        String charStr = String.valueOf(c);
-        Rectangle2D charBounds = fm.getStringBounds(charStr, null);
-        
-        // Generate points around character perimeter
-        double charWidth = charBounds.getWidth();
-        double charHeight = charBounds.getHeight();
-        
-        // Create rectangular outline points (simplified)
-        int numPoints = (int)Math.max(8, (charWidth + charHeight) / dotSpacing);
-        
-        for (int i = 0; i < numPoints; i++) {
-            double t = (double)i / numPoints;
-            double localX, localY;
-            
-            // Create outline path around character bounds
-            if (t < 0.25) { // Top edge
-                double progress = t * 4;
-                localX = -charWidth/2 + progress * charWidth;
-                localY = -charHeight/2;
-            } else if (t < 0.5) { // Right edge
-                double progress = (t - 0.25) * 4;
-                localX = charWidth/2;
-                localY = -charHeight/2 + progress * charHeight;
-            } else if (t < 0.75) { // Bottom edge
-                double progress = (t - 0.5) * 4;
-                localX = charWidth/2 - progress * charWidth;
-                localY = charHeight/2;
-            } else { // Left edge
-                double progress = (t - 0.75) * 4;
-                localX = -charWidth/2;
-                localY = charHeight/2 - progress * charHeight;
+        double charWidth = strokeCellWidth();
+        double charHeight = strokeCellHeight();
+        double cos = Math.cos(rotation);
+        double sin = Math.sin(rotation);
+        double step = Math.max(0.1, dotSpacing);
+        
+        for (float[] stroke : StrokeFont.forName(strokeFontName).strokes(c, charWidth, charHeight)) {
+            double lastX = stroke[0], lastY = stroke[1];
+            addRotatedPoint(points, lastX, lastY, charWidth, charHeight, x, y, cos, sin);
+            for (int i = 2; i < stroke.length; i += 2) {
+                double segX = stroke[i] - lastX;
+                double segY = stroke[i + 1] - lastY;
+                int steps = (int) Math.max(1, Math.round(Math.hypot(segX, segY) / step));
+                for (int k = 1; k <= steps; k++) {
+                    addRotatedPoint(points, lastX + segX * k / steps, lastY + segY * k / steps,
+                                    charWidth, charHeight, x, y, cos, sin);
+                }
+                lastX = stroke[i];
+                lastY = stroke[i + 1];
             }
-            
-            // Apply rotation and translation
-            double rotatedX = localX * Math.cos(rotation) - localY * Math.sin(rotation);
-            double rotatedY = localX * Math.sin(rotation) + localY * Math.cos(rotation);
-            
-            points.add(new Point2D.Double(x + rotatedX, y + rotatedY));
         }
         
         return points;
     }
     
+    /**
+     * Single-line letter strokes in canvas coordinates, as used by DotPathCompiler.
+     * Same placement as generatePathPoints, so each stroke is struck once.
+     */
+    public Path2D.Double getEngravedStrokePath() {
+        Path2D.Double strokes = new Path2D.Double();
+        if (letters == null || letters.isEmpty()) return strokes;
+        
+        StrokeFont strokeFont = StrokeFont.forName(strokeFontName);
+        double charWidth = strokeCellWidth();
+        double charHeight = strokeCellHeight();
+        double centerX = x + width / 2.0;
+        double centerY = y + height / 2.0;
+        char[] chars = letters.toCharArray();
+        double letterRadius = radius * 0.7;
+        double totalAngle = Math.toRadians(arcAngle);
+        double startAngleRad = Math.toRadians(startAngle);
+        double angleStep = chars.length > 1 ? totalAngle / (chars.length - 1) : 0;
+        
+        for (int i = 0; i < chars.length; i++) {
+            double mathAngle = -(startAngleRad + i * angleStep) + Math.PI/2;
+            AffineTransform placement = new AffineTransform();
+            placement.translate(centerX + letterRadius * Math.cos(mathAngle),
+                                centerY - letterRadius * Math.sin(mathAngle));
+            placement.rotate(mathAngle + Math.PI/2);
+            // Glyph origin is the left of the baseline; centre the cell on the letter position
+            placement.translate(-charWidth / 2, charHeight / 2);
+            strokes.append(strokeFont.glyphPath(chars[i], charWidth, charHeight).getPathIterator(placement), false);
+        }
+        return strokes;
+    }
+    
+    // Character cell sized from the metrics of the drawn (80%) font
+    private double strokeCellWidth() {
+        return GlyphCache.metrics(GlyphCache.derive(font, font.getSize() * 0.8f)).charWidth('M') * 0.8;
+    }
+    
+    private double strokeCellHeight() {
+        return GlyphCache.metrics(GlyphCache.derive(font, font.getSize() * 0.8f)).getAscent() * 0.8;
+    }
+    
+    private static void addRotatedPoint(java.util.List<Point2D.Double> points, double glyphX, double glyphY,
+            double charWidth, double charHeight, double x, double y, double cos, double sin) {
+        // Glyph origin is the left of the baseline; shift so the cell centre lands on (x, y)
+        double localX = glyphX - charWidth / 2;
+        double localY = glyphY + charHeight / 2;
+        points.add(new Point2D.Double(x + localX * cos - localY * sin, y + localX * sin + localY * cos));
+    }
+    
     /**
      * Generate optimized tool path for continuous motion
      */
@@ -735,8 +781,8 @@ public class ArcLettersMark extends Mark {
      * Export arc letters as G-code for CNC marking
      */
     public String generateGCode() {
-        StringBuilder gcode = new StringBuilder();
         java.util.List<Point2D.Double> pathPoints = generatePathPoints(2.0); // 2mm dot spacing
+        StringBuilder gcode = new StringBuilder(256 + pathPoints.size() * 32);
         
         gcode.append("# Arc Letters G-Code - ").append(letters).append("\n");
         gcode.append("# Arc Angle: ").append(String.format("%.1f", arcAngle)).append("°\n");
@@ -759,9 +805,9 @@ public class ArcLettersMark extends Mark {
             // Mark all points
             for (int i = 1; i < pathPoints.size(); i++) {
                 Point2D.Double point = pathPoints.get(i);
-                gcode.append("G01 X").append(String.format("%.3f", point.x))
-                      .append(" Y").append(String.format("%.3f", point.y))
-                      .append(" F500\n");
+                gcode.append("G01 X");
+                GCodeWriter.appendFixed(gcode, point.x, 3).append(" Y");
+                GCodeWriter.appendFixed(gcode, point.y, 3).append(" F500\n");
             }
             
             gcode.append("G00 Z5.0 ; Raise tool\n");
@@ -776,7 +822,7 @@ public class ArcLettersMark extends Mark {
      */
     public String generateCoordinateArray() {
         java.util.List<Point2D.Double> pathPoints = generatePathPoints(1.5); // 1.5mm spacing for high detail
-        StringBuilder coords = new StringBuilder();
+        StringBuilder coords = new StringBuilder(256 + pathPoints.size() * 20);
         
         coords.append("# Arc Letters - Coordinate Array\n");
         coords.append("# Text: ").append(letters).append("\n");
@@ -786,7 +832,8 @@ public class ArcLettersMark extends Mark {
         coords.append("# Format: X,Y (one per line)\n\n");
         
         for (Point2D.Double point : pathPoints) {
-            coords.append(String.format("%.3f,%.3f\n", point.x, point.y));
+            GCodeWriter.appendFixed(coords, point.x, 3).append(',');
+            GCodeWriter.appendFixed(coords, point.y, 3).append('\n');
         }
         
         return coords.toString();
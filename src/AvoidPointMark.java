@@ -196,7 +196,7 @@ public class AvoidPointMark extends Mark {
     /**
      * Generate all dots for final output (only avoid point in FINAL_OUTPUT_ONLY mode)
      */
-    private List<Point2D.Double> generateAllOutputDots() {
+    public List<Point2D.Double> generateAllOutputDots() {
         List<Point2D.Double> dots = new ArrayList<>();
         double centerX = this.x + designRadius;
         double centerY = this.y + designRadius;
@@ -292,6 +292,7 @@ public class AvoidPointMark extends Mark {
     
     @Override
     public void resizeTo(int mx, int my) {
+        markChanged();
         if (resizing) {
             // Calculate new size maintaining circular aspect ratio
             double newSize = Math.max(DEFAULT_MIN_RADIUS * 2, Math.max(mx - this.x, my - this.y));
@@ -338,6 +339,7 @@ public class AvoidPointMark extends Mark {
      */
     public double getAvoidRadius() { return avoidRadius; }
     public void setAvoidRadius(double avoidRadius) { 
+        markChanged();
         this.avoidRadius = Math.max(DEFAULT_MIN_RADIUS, Math.min(DEFAULT_MAX_RADIUS, avoidRadius));
         
         // Ensure design radius is larger than avoid radius
@@ -354,6 +356,7 @@ public class AvoidPointMark extends Mark {
      */
     public double getDesignRadius() { return designRadius; }
     public void setDesignRadius(double designRadius) { 
+        markChanged();
         this.designRadius = Math.max(DEFAULT_MIN_RADIUS + 5, Math.min(DEFAULT_MAX_RADIUS, designRadius));
         
         // Ensure avoid radius is smaller than design radius
@@ -369,6 +372,7 @@ public class AvoidPointMark extends Mark {
      */
     public double getDesignBuffer() { return designBuffer; }
     public void setDesignBuffer(double designBuffer) { 
+        markChanged();
         this.designBuffer = Math.max(2.0, Math.min(50.0, designBuffer));
         this.designRadius = this.avoidRadius + this.designBuffer;
         updateIntelligentBounds();
@@ -379,22 +383,26 @@ public class AvoidPointMark extends Mark {
      */
     public boolean isShowDots() { return showDots; }
     public void setShowDots(boolean showDots) { 
+        markChanged();
         this.showDots = showDots; 
         System.out.println("🎯 AvoidPoint mode: " + (showDots ? "Dot Plotting" : "Vector Output"));
     }
     
     public double getDotDiameter() { return dotDiameter; }
     public void setDotDiameter(double dotDiameter) { 
+        markChanged();
         this.dotDiameter = Math.max(MIN_DOT_DIAMETER, Math.min(MAX_DOT_DIAMETER, dotDiameter)); 
     }
     
     public double getDotSpacing() { return dotSpacing; }
     public void setDotSpacing(double dotSpacing) { 
+        markChanged();
         this.dotSpacing = Math.max(MIN_DOT_SPACING, Math.min(MAX_DOT_SPACING, dotSpacing)); 
     }
     
     public int getCircleResolution() { return circleResolution; }
     public void setCircleResolution(int circleResolution) { 
+        markChanged();
         this.circleResolution = Math.max(MIN_RESOLUTION, Math.min(MAX_RESOLUTION, circleResolution)); 
     }
     
@@ -403,6 +411,7 @@ public class AvoidPointMark extends Mark {
      */
     public boolean isShowDesignGuides() { return showDesignGuides; }
     public void setShowDesignGuides(boolean showDesignGuides) { 
+        markChanged();
         this.showDesignGuides = showDesignGuides; 
     }
     
@@ -455,8 +464,8 @@ public class AvoidPointMark extends Mark {
      * Generate coordinate array for dot pin plotting (FINAL OUTPUT ONLY)
      */
     public String generateCoordinateArray() {
-        StringBuilder coords = new StringBuilder();
         List<Point2D.Double> allDots = generateAllOutputDots();
+        StringBuilder coords = new StringBuilder(256 + allDots.size() * 20);
         
         coords.append("# Avoid Point - Final Output Dot Coordinates\n");
         coords.append("# Avoid Radius: ").append(String.format("%.3f", avoidRadius)).append("\n");
@@ -465,7 +474,8 @@ public class AvoidPointMark extends Mark {
         coords.append("# Format: X,Y (one per line)\n\n");
         
         for (Point2D.Double dot : allDots) {
-            coords.append(String.format("%.3f,%.3f\n", dot.x, dot.y));
+            GCodeWriter.appendFixed(coords, dot.x, 3).append(',');
+            GCodeWriter.appendFixed(coords, dot.y, 3).append('\n');
         }
         
         return coords.toString();
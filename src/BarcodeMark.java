@@ -13,6 +13,15 @@ public class BarcodeMark extends Mark {
     private int margin;
     private boolean enableChecksum;
     
+    // Encoded 2D symbol for the current type, data and error correction (not saved)
+    private transient QRCodeEncoder.Symbol qrSymbol;
+    private transient String qrSymbolKey;
+    
+    // Compiled bar/space runs for linear and stacked types (not saved)
+    private transient BarcodeModel barcodeModel;
+    private transient String barcodeModelKey;
+    private transient String barcodeModelError;
+    
     public BarcodeMark(int x, int y, String barcodeType, String data) {
         super(x, y);
         this.barcodeType = barcodeType;
@@ -28,6 +37,7 @@ public class BarcodeMark extends Mark {
         
         // Set appropriate default size based on barcode type
         setDefaultSize();
+        updateEncoding();
     }
     
     private void setDefaultSize() {
@@ -36,6 +46,7 @@ public class BarcodeMark extends Mark {
                 this.width = 150;
                 this.height = 150;
                 break;
+            case "Micro QR":
             case "Data Matrix":
                 this.width = 100;
                 this.height = 100;
@@ -90,97 +101,101 @@ public class BarcodeMark extends Mark {
         g2d.dispose();
     }
     
-    private void drawBarcodePattern(Graphics2D g2d) {
+    /** Area left for the symbol inside the margins and the text line. */
+    private Rectangle getContentArea() {
         int contentWidth = width - 2 * margin;
         int contentHeight = height - 2 * margin;
-        int startX = x + margin;
-        int startY = y + margin;
         
         if (showText && !textPosition.equals("None")) {
             contentHeight -= 15; // Reserve space for text
         }
+        return new Rectangle(x + margin, y + margin, contentWidth, contentHeight);
+    }
+    
+    private void drawBarcodePattern(Graphics2D g2d) {
+        Rectangle content = getContentArea();
+        int contentWidth = content.width;
+        int contentHeight = content.height;
+        int startX = content.x;
+        int startY = content.y;
         
         switch (barcodeType) {
             case "QR Code":
+            case "Micro QR":
                 drawQRCodePattern(g2d, startX, startY, contentWidth, contentHeight);
                 break;
             case "Data Matrix":
                 drawDataMatrixPattern(g2d, startX, startY, contentWidth, contentHeight);
                 break;
-            case "EAN-13":
-                drawEAN13Pattern(g2d, startX, startY, contentWidth, contentHeight);
-                break;
-            case "Code 39":
-                drawCode39Pattern(g2d, startX, startY, contentWidth, contentHeight);
-                break;
-            case "PDF417":
-                drawPDF417Pattern(g2d, startX, startY, contentWidth, contentHeight);
-                break;
-            case "UPC-A":
-                drawUPCAPattern(g2d, startX, startY, contentWidth, contentHeight);
-                break;
-            case "Code 93":
-                drawCode93Pattern(g2d, startX, startY, contentWidth, contentHeight);
-                break;
-            case "Code 128":
-                drawCode128Pattern(g2d, startX, startY, contentWidth, contentHeight);
-                break;
-            case "EAN-8":
-                drawEAN8Pattern(g2d, startX, startY, contentWidth, contentHeight);
-                break;
-            case "UPC-E":
-                drawUPCEPattern(g2d, startX, startY, contentWidth, contentHeight);
-                break;
-            case "Codabar":
-                drawCodabarPattern(g2d, startX, startY, contentWidth, contentHeight);
-                break;
-            case "ITF":
-                drawITFPattern(g2d, startX, startY, contentWidth, contentHeight);
-                break;
-            case "MSI":
-                drawMSIPattern(g2d, startX, startY, contentWidth, contentHeight);
-                break;
-            case "Pharma Code":
-                drawPharmaCodePattern(g2d, startX, startY, contentWidth, contentHeight);
-                break;
-            case "Aztec Code":
-                drawAztecCodePattern(g2d, startX, startY, contentWidth, contentHeight);
-                break;
-            case "MaxiCode":
-                drawMaxiCodePattern(g2d, startX, startY, contentWidth, contentHeight);
-                break;
             default:
-                drawGenericBarcodePattern(g2d, startX, startY, contentWidth, contentHeight);
+                if (isCompiledType(barcodeType)) {
+                    drawCompiledPattern(g2d, startX, startY, contentWidth, contentHeight);
+                } else {
+                    drawGenericBarcodePattern(g2d, startX, startY, contentWidth, contentHeight);
+                }
                 break;
         }
     }
     
     private void drawQRCodePattern(Graphics2D g2d, int startX, int startY, int patternWidth, int patternHeight) {
-        int size = Math.min(patternWidth, patternHeight);
-        int centerX = startX + (patternWidth - size) / 2;
-        int centerY = startY + (patternHeight - size) / 2;
+        QRCodeEncoder.Symbol symbol = getQRSymbol();
+        if (symbol == null) {
+            drawErrorPattern(g2d, startX, startY, patternWidth, patternHeight, "Data too long for " + barcodeType);
+            return;
+        }
         
-        int gridSize = 21;
+        // Whole-pixel modules inside the quiet zone keep the symbol crisp for readers
+        int gridSize = symbol.size + 2 * symbol.getQuietZone();
+        int size = Math.min(patternWidth, patternHeight);
         int moduleSize = Math.max(1, size / gridSize);
-        size = gridSize * moduleSize; // Adjust to fit modules perfectly
-        
-        // Generate pattern based on data
-        boolean[][] pattern = generateQRPattern(gridSize);
-        
-        // Draw the pattern
-        for (int i = 0; i < gridSize; i++) {
-            for (int j = 0; j < gridSize; j++) {
-                if (pattern[i][j]) {
-                    g2d.fillRect(centerX + j * moduleSize, centerY + i * moduleSize, 
-                               moduleSize, moduleSize);
+        int symbolX = startX + (patternWidth - symbol.size * moduleSize) / 2;
+        int symbolY = startY + (patternHeight - symbol.size * moduleSize) / 2;
+        
+        // One rectangle per horizontal run of dark modules
+        for (int row = 0; row < symbol.size; row++) {
+            int column = 0;
+            while (column < symbol.size) {
+                if (!symbol.isDark(row, column)) {
+                    column++;
+                    continue;
                 }
+                int runStart = column;
+                while (column < symbol.size && symbol.isDark(row, column)) column++;
+                g2d.fillRect(symbolX + runStart * moduleSize, symbolY + row * moduleSize,
+                           (column - runStart) * moduleSize, moduleSize);
             }
         }
-        
-        // Draw finder patterns for authenticity
-        drawFinderPattern(g2d, centerX, centerY, moduleSize);  // Top-left
-        drawFinderPattern(g2d, centerX + (gridSize - 7) * moduleSize, centerY, moduleSize);  // Top-right
-        drawFinderPattern(g2d, centerX, centerY + (gridSize - 7) * moduleSize, moduleSize);  // Bottom-left
+    }
+    
+    /**
+     * QR Code / Micro QR symbol for the current data and error correction, or null when the
+     * data does not fit. Encoded when the data changes (QRCodeEncoder caches per data), so
+     * repaints only draw.
+     */
+    public QRCodeEncoder.Symbol getQRSymbol() {
+        boolean micro = "Micro QR".equals(barcodeType);
+        char level = QRCodeEncoder.levelFor(errorCorrection);
+        if (micro && level == 'H') level = 'Q';   // Micro QR stops at Q (M4 only)
+        String key = (micro ? "M" : "Q") + level + ':' + data;
+        if (!key.equals(qrSymbolKey)) {
+            qrSymbolKey = key;
+            try {
+                qrSymbol = QRCodeEncoder.encode(data, level, micro);
+            } catch (IllegalArgumentException e) {
+                System.err.println("❌ Cannot encode " + barcodeType + ": " + e.getMessage());
+                qrSymbol = null;
+            }
+        }
+        return qrSymbol;
+    }
+    
+    /** Encode for the current type and data now, so painting finds the result cached. */
+    private void updateEncoding() {
+        if ("QR Code".equals(barcodeType) || "Micro QR".equals(barcodeType)) {
+            getQRSymbol();
+        } else if (isCompiledType(barcodeType)) {
+            getBarcodeModel();
+        }
     }
     
     private void drawDataMatrixPattern(Graphics2D g2d, int startX, int startY, int patternWidth, int patternHeight) {
@@ -210,25 +225,6 @@ public class BarcodeMark extends Mark {
         }
     }
     
-    private void drawLinearBarcodePattern(Graphics2D g2d, int startX, int startY, int patternWidth, int patternHeight) {
-        int barWidth = Math.max(1, patternWidth / (data.length() * 8));
-        int barHeight = patternHeight;
-        int currentX = startX;
-        
-        // Generate bars based on data
-        for (int i = 0; i < data.length() && currentX < startX + patternWidth; i++) {
-            char c = data.charAt(i);
-            int pattern = c % 8; // Simple pattern generation
-            
-            for (int j = 0; j < 8 && currentX < startX + patternWidth; j++) {
-                if ((pattern & (1 << j)) != 0) {
-                    g2d.fillRect(currentX, startY, barWidth, barHeight);
-                }
-                currentX += barWidth;
-            }
-        }
-    }
-    
     private void drawGenericBarcodePattern(Graphics2D g2d, int startX, int startY, int patternWidth, int patternHeight) {
         // Draw placeholder pattern
         g2d.drawRect(startX, startY, patternWidth, patternHeight);
@@ -244,67 +240,6 @@ public class BarcodeMark extends Mark {
         g2d.setFont(oldFont);
     }
     
-    private boolean[][] generateQRPattern(int gridSize) {
-        boolean[][] pattern = new boolean[gridSize][gridSize];
-        java.util.Random rand = new java.util.Random(data.hashCode());
-        
-        for (int i = 0; i < gridSize; i++) {
-            for (int j = 0; j < gridSize; j++) {
-                // Skip finder pattern areas
-                if (isFinderPatternArea(i, j, gridSize)) {
-                    pattern[i][j] = isFinderPatternModule(i, j, gridSize);
-                } else {
-                    pattern[i][j] = rand.nextBoolean();
-                }
-            }
-        }
-        
-        // Add timing patterns
-        for (int i = 8; i < gridSize - 8; i++) {
-            pattern[6][i] = (i % 2) == 0;
-            pattern[i][6] = (i % 2) == 0;
-        }
-        
-        return pattern;
-    }
-    
-    private boolean isFinderPatternArea(int row, int col, int gridSize) {
-        return (row < 9 && col < 9) ||
-               (row < 9 && col >= gridSize - 8) ||
-               (row >= gridSize - 8 && col < 9);
-    }
-    
-    private boolean isFinderPatternModule(int row, int col, int gridSize) {
-        int localRow = row;
-        int localCol = col;
-        
-        if (row < 9 && col >= gridSize - 8) {
-            localCol = col - (gridSize - 8);
-        } else if (row >= gridSize - 8 && col < 9) {
-            localRow = row - (gridSize - 8);
-        }
-        
-        if (localRow >= 0 && localRow < 7 && localCol >= 0 && localCol < 7) {
-            return (localRow == 0 || localRow == 6 || localCol == 0 || localCol == 6 ||
-                   (localRow >= 2 && localRow <= 4 && localCol >= 2 && localCol <= 4));
-        }
-        
-        return false;
-    }
-    
-    private void drawFinderPattern(Graphics2D g2d, int startX, int startY, int moduleSize) {
-        // Outer border
-        g2d.fillRect(startX, startY, 7 * moduleSize, 7 * moduleSize);
-        
-        // Inner white square
-        g2d.setColor(Color.WHITE);
-        g2d.fillRect(startX + moduleSize, startY + moduleSize, 5 * moduleSize, 5 * moduleSize);
-        
-        // Inner black square
-        g2d.setColor(barcodeColor);
-        g2d.fillRect(startX + 2 * moduleSize, startY + 2 * moduleSize, 3 * moduleSize, 3 * moduleSize);
-    }
-    
     private void drawBarcodeText(Graphics2D g2d) {
         if (!showText || textPosition.equals("None")) return;
         
@@ -343,202 +278,195 @@ public class BarcodeMark extends Mark {
     // Getters and setters for properties
     public String getBarcodeType() { return barcodeType; }
     public void setBarcodeType(String barcodeType) { 
+        markChanged();
         this.barcodeType = barcodeType; 
         setDefaultSize();
+        updateEncoding();
     }
     
     public String getData() { return data; }
-    public void setData(String data) { this.data = data; }
+    public void setData(String data) {
+        markChanged();
+        this.data = data;
+        updateEncoding();
+    }
     
     public Color getBarcodeColor() { return barcodeColor; }
-    public void setBarcodeColor(Color barcodeColor) { this.barcodeColor = barcodeColor; }
+    public void setBarcodeColor(Color barcodeColor) { this.barcodeColor = barcodeColor; markChanged(); }
     
     public boolean isShowText() { return showText; }
-    public void setShowText(boolean showText) { this.showText = showText; }
+    public void setShowText(boolean showText) { this.showText = showText; markChanged(); }
     
     public String getTextPosition() { return textPosition; }
-    public void setTextPosition(String textPosition) { this.textPosition = textPosition; }
+    public void setTextPosition(String textPosition) { this.textPosition = textPosition; markChanged(); }
     
     public int getRotation() { return rotation; }
-    public void setRotation(int rotation) { this.rotation = rotation % 360; }
+    public void setRotation(int rotation) { this.rotation = rotation % 360; markChanged(); }
     
     public String getErrorCorrection() { return errorCorrection; }
-    public void setErrorCorrection(String errorCorrection) { this.errorCorrection = errorCorrection; }
+    public void setErrorCorrection(String errorCorrection) {
+        markChanged();
+        this.errorCorrection = errorCorrection;
+        updateEncoding();
+    }
     
     public double getModuleWidth() { return moduleWidth; }
-    public void setModuleWidth(double moduleWidth) { this.moduleWidth = moduleWidth; }
+    public void setModuleWidth(double moduleWidth) { this.moduleWidth = moduleWidth; markChanged(); }
     
     public int getMargin() { return margin; }
-    public void setMargin(int margin) { this.margin = margin; }
+    public void setMargin(int margin) { this.margin = margin; markChanged(); }
     
     public boolean isEnableChecksum() { return enableChecksum; }
-    public void setEnableChecksum(boolean enableChecksum) { this.enableChecksum = enableChecksum; }
+    public void setEnableChecksum(boolean enableChecksum) { this.enableChecksum = enableChecksum; markChanged(); }
     
     // ========== PROFESSIONAL BARCODE IMPLEMENTATIONS ==========
     
-    private void drawEAN13Pattern(Graphics2D g2d, int startX, int startY, int patternWidth, int patternHeight) {
-        try {
-            // EAN-13 barcode with professional soft-coded implementation
-            String eanData = padEAN13Data(data);
-            
-            // Validate EAN-13 data length
-            if (eanData.length() != 13) {
-                drawErrorPattern(g2d, startX, startY, patternWidth, patternHeight, EAN13Config.ERROR_FORMAT);
-                return;
-            }
-            
-            // Calculate dimensions using soft-coded configuration
-            int barWidth = Math.max(1, patternWidth / EAN13Config.TOTAL_MODULES);
-            int barHeight = Math.max(EAN13Config.MIN_BAR_HEIGHT, patternHeight - EAN13Config.DEFAULT_TEXT_HEIGHT);
-            int currentX = startX;
-            
-            // Start guard pattern
-            currentX = drawEANGuard(g2d, currentX, startY, barWidth, barHeight, EAN13Config.START_GUARD);
-            
-            // Left group - digits 2-7
-            String firstDigit = String.valueOf(eanData.charAt(0));
-            for (int i = 1; i <= EAN13Config.LEFT_DIGITS; i++) {
-                String pattern = getEAN13LeftPattern(eanData.charAt(i), i, firstDigit);
-                currentX = drawEANBars(g2d, currentX, startY, barWidth, barHeight, pattern);
-            }
-            
-            // Center guard pattern
-            currentX = drawEANGuard(g2d, currentX, startY, barWidth, barHeight, EAN13Config.CENTER_GUARD);
-            
-            // Right group - digits 8-13
-            for (int i = EAN13Config.LEFT_DIGITS + 1; i <= EAN13Config.LEFT_DIGITS + EAN13Config.RIGHT_DIGITS; i++) {
-                String pattern = getEAN13RightPattern(eanData.charAt(i));
-                currentX = drawEANBars(g2d, currentX, startY, barWidth, barHeight, pattern);
-            }
-            
-            // End guard pattern
-            drawEANGuard(g2d, currentX, startY, barWidth, barHeight, EAN13Config.END_GUARD);
-            
-            // Draw human-readable text below barcode
-            if (showText && !textPosition.equals("None")) {
-                drawEANText(g2d, startX, startY + barHeight + EAN13Config.TEXT_MARGIN, eanData, patternWidth);
+    // ========== COMPILED LINEAR AND STACKED BARCODES ==========
+    
+    /** Types drawn from a compiled BarcodeModel: everything with a registered encoder. */
+    private static boolean isCompiledType(String type) {
+        return SymbologyEncoders.get(type) != null;
+    }
+    
+    /**
+     * Bar/space runs for the current type and data, or null for 2D/placeholder types and
+     * data that cannot be encoded. Compiled once per data or type change.
+     */
+    public BarcodeModel getBarcodeModel() {
+        if (!isCompiledType(barcodeType)) return null;
+        String key = barcodeType + '\u0000' + data;
+        if (!key.equals(barcodeModelKey)) {
+            barcodeModelKey = key;
+            barcodeModelError = null;
+            try {
+                barcodeModel = SymbologyEncoders.get(barcodeType).encode(data);
+            } catch (IllegalArgumentException e) {
+                barcodeModel = null;
+                barcodeModelError = e.getMessage();   // Data the symbology cannot hold
+            } catch (RuntimeException e) {
+                barcodeModel = null;
+                String message = e.getMessage() != null ? e.getMessage() : "Unknown error";
+                barcodeModelError = ("EAN-13".equals(barcodeType) ? EAN13Config.ERROR_GENERATION
+                                     : barcodeType + " Generation Error") + ": " + message;
             }
-            
-        } catch (Exception e) {
-            // Fallback error display with detailed information
-            String errorMsg = EAN13Config.ERROR_GENERATION + ": " + (e.getMessage() != null ? e.getMessage() : "Unknown error");
-            drawErrorPattern(g2d, startX, startY, patternWidth, patternHeight, errorMsg);
         }
+        return barcodeModel;
     }
     
-    private void drawErrorPattern(Graphics2D g2d, int startX, int startY, int patternWidth, int patternHeight, String errorMsg) {
-        // Draw error indicator pattern
-        g2d.drawRect(startX, startY, patternWidth, patternHeight);
-        g2d.setFont(new Font("Arial", Font.BOLD, 10));
-        FontMetrics fm = g2d.getFontMetrics();
-        int textX = startX + (patternWidth - fm.stringWidth(errorMsg)) / 2;
-        int textY = startY + (patternHeight + fm.getHeight()) / 2;
-        g2d.drawString(errorMsg, textX, textY);
+    /**
+     * Bars of the compiled model in canvas coordinates before rotation (see getRotation);
+     * empty for types without a model.
+     */
+    public java.util.List<Rectangle> getBarRectangles() {
+        BarcodeModel model = getBarcodeModel();
+        if (model == null) return java.util.Collections.emptyList();
+        Rectangle content = getContentArea();
+        BarLayout layout = layoutBars(model, content.x, content.y, content.width, content.height);
+        java.util.List<Rectangle> bars = new java.util.ArrayList<>(model.getBarCount());
+        model.forEachBar((row, module, modules) -> bars.add(new Rectangle(
+            layout.x + module * layout.moduleWidth, layout.y + row * layout.rowHeight,
+            modules * layout.moduleWidth, layout.rowHeight)));
+        return bars;
     }
     
-    private void drawCode39Pattern(Graphics2D g2d, int startX, int startY, int patternWidth, int patternHeight) {
-        // Code 39 with authentic wide/narrow bar encoding
-        String code39Data = "*" + data.toUpperCase() + "*"; // Add start/stop characters
-        int totalBars = code39Data.length() * 10; // Each character = 9 bars + 1 space
-        int narrowWidth = Math.max(1, patternWidth / (totalBars * 3)); // Account for wide bars
-        int wideWidth = narrowWidth * 3;
-        int barHeight = patternHeight - 15;
-        int currentX = startX;
-        
-        for (char c : code39Data.toCharArray()) {
-            String pattern = getCode39Pattern(c);
-            currentX = drawCode39Bars(g2d, currentX, startY, narrowWidth, wideWidth, barHeight, pattern);
-            // Inter-character space
-            currentX += narrowWidth;
+    /** True when draw() puts any human-readable text next to the bars. */
+    boolean hasHumanReadableText() {
+        return (showText && !textPosition.equals("None"))
+            || barcodeType.equals("UPC-A") || barcodeType.equals("Code 39") || barcodeType.equals("Code 93");
+    }
+    
+    /**
+     * Only the human-readable text of draw() (rotation applied), so dot paths can take the
+     * bars from getBarRectangles() and rasterise just the lettering.
+     */
+    void drawHumanReadable(Graphics2D g) {
+        Graphics2D g2d = (Graphics2D) g.create();
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        if (rotation != 0) {
+            g2d.rotate(Math.toRadians(rotation), x + width/2.0, y + height/2.0);
         }
-        
-        // Draw text
-        drawCode39Text(g2d, startX, startY + barHeight + 12, data, patternWidth);
+        g2d.setColor(barcodeColor);
+        BarcodeModel model = getBarcodeModel();
+        if (model != null) {
+            Rectangle content = getContentArea();
+            BarLayout layout = layoutBars(model, content.x, content.y, content.width, content.height);
+            drawModelText(g2d, model, content.x, layout.y + layout.rowHeight * model.getRowCount(), content.width);
+        }
+        if (showText && !data.isEmpty()) {
+            drawBarcodeText(g2d);
+        }
+        g2d.dispose();
     }
     
-    private void drawPDF417Pattern(Graphics2D g2d, int startX, int startY, int patternWidth, int patternHeight) {
-        // PDF417 2D stacked barcode
-        int rows = 6;
-        int rowHeight = patternHeight / rows;
-        int moduleWidth = Math.max(1, patternWidth / 68); // Standard PDF417 column count
-        
-        for (int row = 0; row < rows; row++) {
-            int rowY = startY + row * rowHeight;
-            int currentX = startX;
-            
-            // Start pattern
-            currentX = drawPDF417StartPattern(g2d, currentX, rowY, moduleWidth, rowHeight);
-            
-            // Left row indicator
-            currentX = drawPDF417RowIndicator(g2d, currentX, rowY, moduleWidth, rowHeight, row, true);
-            
-            // Data codewords (simulate data encoding)
-            for (int col = 0; col < 6; col++) {
-                currentX = drawPDF417Codeword(g2d, currentX, rowY, moduleWidth, rowHeight, 
-                                            (data.hashCode() + row * 6 + col) % 929);
-            }
-            
-            // Right row indicator  
-            currentX = drawPDF417RowIndicator(g2d, currentX, rowY, moduleWidth, rowHeight, row, false);
-            
-            // Stop pattern
-            drawPDF417StopPattern(g2d, currentX, rowY, moduleWidth, rowHeight);
+    private void drawCompiledPattern(Graphics2D g2d, int startX, int startY, int patternWidth, int patternHeight) {
+        BarcodeModel model = getBarcodeModel();
+        if (model == null) {
+            drawErrorPattern(g2d, startX, startY, patternWidth, patternHeight, barcodeModelError);
+            return;
         }
+        BarLayout layout = layoutBars(model, startX, startY, patternWidth, patternHeight);
+        model.draw(g2d, layout.x, layout.y, layout.moduleWidth, layout.rowHeight);
+        drawModelText(g2d, model, startX, layout.y + layout.rowHeight * model.getRowCount(), patternWidth);
     }
     
-    private void drawUPCAPattern(Graphics2D g2d, int startX, int startY, int patternWidth, int patternHeight) {
-        // UPC-A barcode (12 digits)
-        String upcData = padUPCAData(data);
-        int barWidth = Math.max(1, patternWidth / 95); // Standard UPC-A width
-        int barHeight = patternHeight - 15;
-        int currentX = startX;
-        
-        // Start guard
-        currentX = drawEANGuard(g2d, currentX, startY, barWidth, barHeight, "101");
-        
-        // Left group (first 6 digits)
-        for (int i = 0; i < 6; i++) {
-            String pattern = getUPCALeftPattern(upcData.charAt(i));
-            currentX = drawEANBars(g2d, currentX, startY, barWidth, barHeight, pattern);
+    /** Whole-pixel module width across the pattern area; bar height per symbology. */
+    private BarLayout layoutBars(BarcodeModel model, int startX, int startY, int patternWidth, int patternHeight) {
+        int moduleWidth = Math.max(1, patternWidth / Math.max(1, model.getModuleCount()));
+        int rowHeight;
+        switch (barcodeType) {
+            case "EAN-13":
+                rowHeight = Math.max(EAN13Config.MIN_BAR_HEIGHT, patternHeight - EAN13Config.DEFAULT_TEXT_HEIGHT);
+                break;
+            case "PDF417":
+                rowHeight = Math.max(1, patternHeight / model.getRowCount());
+                break;
+            default:
+                rowHeight = Math.max(1, patternHeight - 15);
+                break;
         }
-        
-        // Center guard
-        currentX = drawEANGuard(g2d, currentX, startY, barWidth, barHeight, "01010");
-        
-        // Right group (last 6 digits)
-        for (int i = 6; i < 12; i++) {
-            String pattern = getUPCARightPattern(upcData.charAt(i));
-            currentX = drawEANBars(g2d, currentX, startY, barWidth, barHeight, pattern);
+        return new BarLayout(startX, startY, moduleWidth, rowHeight);
+    }
+    
+    private void drawModelText(Graphics2D g2d, BarcodeModel model, int startX, int barsBottom, int patternWidth) {
+        switch (barcodeType) {
+            case "EAN-13":
+                if (showText && !textPosition.equals("None")) {
+                    drawEANText(g2d, startX, barsBottom + EAN13Config.TEXT_MARGIN, model.humanReadable, patternWidth);
+                }
+                break;
+            case "UPC-A":
+                drawUPCAText(g2d, startX, barsBottom + 12, model.humanReadable, patternWidth);
+                break;
+            case "Code 39":
+                drawCode39Text(g2d, startX, barsBottom + 12, data, patternWidth);
+                break;
+            case "Code 93":
+                drawCode93Text(g2d, startX, barsBottom + 12, data, patternWidth);
+                break;
+            default:
+                break;
         }
-        
-        // End guard
-        drawEANGuard(g2d, currentX, startY, barWidth, barHeight, "101");
-        
-        // Draw UPC-A text
-        drawUPCAText(g2d, startX, startY + barHeight + 12, upcData, patternWidth);
     }
     
-    private void drawCode93Pattern(Graphics2D g2d, int startX, int startY, int patternWidth, int patternHeight) {
-        // Code 93 with check digits and special encoding
-        String code93Data = encodeCode93Data(data);
-        int totalModules = (code93Data.length() + 2) * 9; // +2 for start/stop
-        int moduleWidth = Math.max(1, patternWidth / totalModules);
-        int barHeight = patternHeight - 15;
-        int currentX = startX;
+    private static final class BarLayout {
+        final int x, y, moduleWidth, rowHeight;
         
-        // Start character
-        currentX = drawCode93Character(g2d, currentX, startY, moduleWidth, barHeight, "*");
-        
-        // Data characters
-        for (char c : code93Data.toCharArray()) {
-            currentX = drawCode93Character(g2d, currentX, startY, moduleWidth, barHeight, String.valueOf(c));
+        BarLayout(int x, int y, int moduleWidth, int rowHeight) {
+            this.x = x;
+            this.y = y;
+            this.moduleWidth = moduleWidth;
+            this.rowHeight = rowHeight;
         }
-        
-        // Stop character
-        drawCode93Character(g2d, currentX, startY, moduleWidth, barHeight, "*");
-        
-        // Draw text
-        drawCode93Text(g2d, startX, startY + barHeight + 12, data, patternWidth);
+    }
+    
+    private void drawErrorPattern(Graphics2D g2d, int startX, int startY, int patternWidth, int patternHeight, String errorMsg) {
+        // Draw error indicator pattern
+        g2d.drawRect(startX, startY, patternWidth, patternHeight);
+        g2d.setFont(new Font("Arial", Font.BOLD, 10));
+        FontMetrics fm = g2d.getFontMetrics();
+        int textX = startX + (patternWidth - fm.stringWidth(errorMsg)) / 2;
+        int textY = startY + (patternHeight + fm.getHeight()) / 2;
+        g2d.drawString(errorMsg, textX, textY);
     }
     
     // ========== SOFT-CODED EAN-13 CONFIGURATION ==========
@@ -560,297 +488,11 @@ public class BarcodeMark extends Mark {
         public static final int MIN_FONT_SIZE = 6;
         public static final int MAX_FONT_SIZE = 16;
         
-        // Guard patterns
-        public static final String START_GUARD = "101";
-        public static final String CENTER_GUARD = "01010";
-        public static final String END_GUARD = "101";
-        
-        // Default test data
-        public static final String DEFAULT_EAN13 = "123456789012";
-        
         // Error messages
-        public static final String ERROR_FORMAT = "EAN-13 Format Error";
         public static final String ERROR_GENERATION = "EAN-13 Generation Error";
     }
     
-    // ========== HELPER METHODS FOR PROFESSIONAL ENCODING ==========
-    
-    private String padEAN13Data(String input) {
-        // Soft-coded EAN-13 data processing with validation
-        String digits = input.replaceAll("[^0-9]", "");
-        
-        // Default EAN-13 if no valid input
-        if (digits.length() == 0) {
-            digits = EAN13Config.DEFAULT_EAN13; // Configurable default
-        }
-        
-        // Handle different input lengths
-        if (digits.length() < 12) {
-            // Pad with leading zeros
-            digits = String.format("%012d", Long.parseLong(digits));
-        } else if (digits.length() > 13) {
-            // Truncate to 12 digits (without check digit)
-            digits = digits.substring(0, 12);
-        } else if (digits.length() == 13) {
-            // Validate existing check digit
-            String providedData = digits.substring(0, 12);
-            String providedCheck = digits.substring(12);
-            String calculatedCheck = calculateEAN13CheckDigit(providedData);
-            
-            if (!providedCheck.equals(calculatedCheck)) {
-                // Use calculated check digit if provided one is wrong
-                digits = providedData;
-            } else {
-                // Valid 13-digit EAN-13, return as-is
-                return digits;
-            }
-        }
-        
-        // Calculate and append check digit
-        return digits + calculateEAN13CheckDigit(digits);
-    }
-    
-    private String padUPCAData(String input) {
-        String digits = input.replaceAll("[^0-9]", "");
-        if (digits.length() == 0) digits = "012345678905";
-        while (digits.length() < 11) digits = "0" + digits;
-        if (digits.length() > 11) digits = digits.substring(0, 11);
-        return digits + calculateUPCACheckDigit(digits);
-    }
-    
-    private String encodeCode93Data(String input) {
-        return input.toUpperCase().replaceAll("[^A-Z0-9 \\-.$/%+]", "");
-    }
-    
-    private String encodeCode128Data(String input) {
-        return input; // Simplified - in reality would need full Code 128 encoding
-    }
-    
-    private String calculateEAN13CheckDigit(String digits) {
-        int sum = 0;
-        for (int i = 0; i < 12; i++) {
-            int digit = Character.getNumericValue(digits.charAt(i));
-            sum += (i % 2 == 0) ? digit : digit * 3;
-        }
-        return String.valueOf((10 - (sum % 10)) % 10);
-    }
-    
-    private String calculateUPCACheckDigit(String digits) {
-        int sum = 0;
-        for (int i = 0; i < 11; i++) {
-            int digit = Character.getNumericValue(digits.charAt(i));
-            sum += (i % 2 == 0) ? digit * 3 : digit;
-        }
-        return String.valueOf((10 - (sum % 10)) % 10);
-    }
-    
-    private int drawEANGuard(Graphics2D g2d, int x, int y, int barWidth, int barHeight, String pattern) {
-        // Soft-coded guard pattern drawing with validation
-        if (pattern == null || pattern.isEmpty()) {
-            return x; // No pattern to draw
-        }
-        
-        for (char bit : pattern.toCharArray()) {
-            if (bit == '1') {
-                g2d.fillRect(x, y, barWidth, barHeight);
-            }
-            x += barWidth;
-        }
-        return x;
-    }
-    
-    private int drawEANBars(Graphics2D g2d, int x, int y, int barWidth, int barHeight, String pattern) {
-        // Soft-coded bar pattern drawing with validation
-        if (pattern == null || pattern.isEmpty()) {
-            return x; // No pattern to draw
-        }
-        
-        for (char bit : pattern.toCharArray()) {
-            if (bit == '1') {
-                g2d.fillRect(x, y, barWidth, barHeight);
-            }
-            x += barWidth;
-        }
-        return x;
-    }
-    
-    private String getEAN13LeftPattern(char digit, int position, String firstDigit) {
-        // Soft-coded EAN-13 encoding tables for professional implementation
-        String[][] ean13Patterns = {
-            // L-patterns (Left-hand odd-parity)
-            {"0001101", "0011001", "0010011", "0111101", "0100011", "0110001", "0101111", "0111011", "0110111", "0001011"},
-            // G-patterns (Left-hand even-parity)  
-            {"0100111", "0110011", "0011011", "0100001", "0011101", "0111001", "0000101", "0010001", "0001001", "0010111"}
-        };
-        
-        // EAN-13 first digit pattern table (determines L/G pattern usage for positions 2-7)
-        String[] firstDigitPatterns = {
-            "LLLLLL", // 0
-            "LLGLGG", // 1
-            "LLGGLG", // 2
-            "LLGGGL", // 3
-            "LGLLGG", // 4
-            "LGGLLG", // 5
-            "LGGGLL", // 6
-            "LGLGLG", // 7
-            "LGLGGL", // 8
-            "LGGLGL"  // 9
-        };
-        
-        // Validate inputs
-        if (firstDigit == null || firstDigit.isEmpty()) {
-            return ean13Patterns[0][0]; // Default pattern
-        }
-        
-        // Get pattern type based on first digit and position
-        int firstDigitValue = Character.getNumericValue(firstDigit.charAt(0));
-        if (firstDigitValue < 0 || firstDigitValue > 9) {
-            firstDigitValue = 0; // Default to 0
-        }
-        
-        String patternSequence = firstDigitPatterns[firstDigitValue];
-        
-        // Convert position (1-6) to pattern index (0-5)
-        int patternIndex = position - 1;
-        if (patternIndex < 0 || patternIndex >= patternSequence.length()) {
-            return ean13Patterns[0][0]; // Default pattern for invalid position
-        }
-        
-        char patternChar = patternSequence.charAt(patternIndex);
-        int patternType = (patternChar == 'L') ? 0 : 1; // L=0, G=1
-        
-        int digitIndex = Character.getNumericValue(digit);
-        if (digitIndex < 0 || digitIndex > 9) {
-            digitIndex = 0; // Default to 0
-        }
-        
-        return ean13Patterns[patternType][digitIndex];
-    }
-    
-    private String getEAN13RightPattern(char digit) {
-        // Soft-coded EAN-13 right-hand pattern table (R-patterns)
-        String[] rightPatterns = {
-            "1110010", // 0
-            "1100110", // 1
-            "1101100", // 2
-            "1000010", // 3
-            "1011100", // 4
-            "1001110", // 5
-            "1010000", // 6
-            "1000100", // 7
-            "1001000", // 8
-            "1110100"  // 9
-        };
-        
-        int digitIndex = Character.getNumericValue(digit);
-        if (digitIndex < 0 || digitIndex > 9) {
-            return rightPatterns[0]; // Default to '0' pattern for invalid digits
-        }
-        
-        return rightPatterns[digitIndex];
-    }
-    
-    private String getUPCALeftPattern(char digit) {
-        String[] leftPatterns = {
-            "0001101", "0011001", "0010011", "0111101", "0100011", "0110001", "0101111", "0111011", "0110111", "0001011"
-        };
-        return leftPatterns[Character.getNumericValue(digit)];
-    }
-    
-    private String getUPCARightPattern(char digit) {
-        String[] rightPatterns = {
-            "1110010", "1100110", "1101100", "1000010", "1011100", "1001110", "1010000", "1000100", "1001000", "1110100"
-        };
-        return rightPatterns[Character.getNumericValue(digit)];
-    }
-    
-    private String getCode39Pattern(char c) {
-        java.util.Map<Character, String> patterns = new java.util.HashMap<>();
-        patterns.put('*', "010010100"); // Start/Stop
-        patterns.put('A', "100001001");
-        patterns.put('B', "001001001");
-        patterns.put('C', "101001000");
-        patterns.put('0', "000110100");
-        patterns.put('1', "100100001");
-        patterns.put('2', "001100001");
-        patterns.put('3', "101100000");
-        // Add more patterns as needed
-        return patterns.getOrDefault(c, "010010100");
-    }
-    
-    private int drawCode39Bars(Graphics2D g2d, int x, int y, int narrow, int wide, int height, String pattern) {
-        for (int i = 0; i < pattern.length(); i++) {
-            int width = (pattern.charAt(i) == '1') ? wide : narrow;
-            if (i % 2 == 0) { // Bars (even positions)
-                g2d.fillRect(x, y, width, height);
-            }
-            x += width;
-        }
-        return x;
-    }
-    
-    private int drawCode93Character(Graphics2D g2d, int x, int y, int moduleWidth, int height, String character) {
-        String pattern = getCode93Pattern(character);
-        for (char bit : pattern.toCharArray()) {
-            if (bit == '1') {
-                g2d.fillRect(x, y, moduleWidth, height);
-            }
-            x += moduleWidth;
-        }
-        return x;
-    }
-    
-    private String getCode93Pattern(String character) {
-        java.util.Map<String, String> patterns = new java.util.HashMap<>();
-        patterns.put("*", "101011110"); // Start/Stop
-        patterns.put("0", "100010100");
-        patterns.put("1", "101001000");
-        patterns.put("2", "101000100");
-        patterns.put("A", "110101000");
-        patterns.put("B", "110100100");
-        // Add more patterns as needed
-        return patterns.getOrDefault(character, "101011110");
-    }
-    
-    private int drawPDF417StartPattern(Graphics2D g2d, int x, int y, int moduleWidth, int rowHeight) {
-        String pattern = "11111111010101000"; // PDF417 start pattern
-        for (char bit : pattern.toCharArray()) {
-            if (bit == '1') {
-                g2d.fillRect(x, y, moduleWidth, rowHeight);
-            }
-            x += moduleWidth;
-        }
-        return x;
-    }
-    
-    private int drawPDF417RowIndicator(Graphics2D g2d, int x, int y, int moduleWidth, int rowHeight, int row, boolean isLeft) {
-        // Simplified row indicator
-        int codeword = isLeft ? (row * 3) % 929 : ((row * 3) + 1) % 929;
-        return drawPDF417Codeword(g2d, x, y, moduleWidth, rowHeight, codeword);
-    }
-    
-    private int drawPDF417Codeword(Graphics2D g2d, int x, int y, int moduleWidth, int rowHeight, int codeword) {
-        // Convert codeword to 17-module pattern (simplified)
-        String pattern = String.format("%17s", Integer.toBinaryString(codeword % 131072)).replace(' ', '0');
-        for (char bit : pattern.toCharArray()) {
-            if (bit == '1') {
-                g2d.fillRect(x, y, moduleWidth, rowHeight);
-            }
-            x += moduleWidth;
-        }
-        return x;
-    }
-    
-    private int drawPDF417StopPattern(Graphics2D g2d, int x, int y, int moduleWidth, int rowHeight) {
-        String pattern = "111111101000101001"; // PDF417 stop pattern
-        for (char bit : pattern.toCharArray()) {
-            if (bit == '1') {
-                g2d.fillRect(x, y, moduleWidth, rowHeight);
-            }
-            x += moduleWidth;
-        }
-        return x;
-    }
+    // ========== HUMAN-READABLE TEXT ==========
     
     private void drawEANText(Graphics2D g2d, int x, int y, String text, int width) {
         // Soft-coded EAN-13 text formatting with professional layout
@@ -911,41 +553,4 @@ public class BarcodeMark extends Mark {
         int textX = x + (width - fm.stringWidth(text)) / 2;
         g2d.drawString(text, textX, y);
     }
-    
-    // Additional simplified implementations for remaining barcode types
-    private void drawEAN8Pattern(Graphics2D g2d, int startX, int startY, int patternWidth, int patternHeight) {
-        drawLinearBarcodePattern(g2d, startX, startY, patternWidth, patternHeight);
-    }
-    
-    private void drawUPCEPattern(Graphics2D g2d, int startX, int startY, int patternWidth, int patternHeight) {
-        drawLinearBarcodePattern(g2d, startX, startY, patternWidth, patternHeight);
-    }
-    
-    private void drawCodabarPattern(Graphics2D g2d, int startX, int startY, int patternWidth, int patternHeight) {
-        drawLinearBarcodePattern(g2d, startX, startY, patternWidth, patternHeight);
-    }
-    
-    private void drawITFPattern(Graphics2D g2d, int startX, int startY, int patternWidth, int patternHeight) {
-        drawLinearBarcodePattern(g2d, startX, startY, patternWidth, patternHeight);
-    }
-    
-    private void drawMSIPattern(Graphics2D g2d, int startX, int startY, int patternWidth, int patternHeight) {
-        drawLinearBarcodePattern(g2d, startX, startY, patternWidth, patternHeight);
-    }
-    
-    private void drawPharmaCodePattern(Graphics2D g2d, int startX, int startY, int patternWidth, int patternHeight) {
-        drawLinearBarcodePattern(g2d, startX, startY, patternWidth, patternHeight);
-    }
-    
-    private void drawAztecCodePattern(Graphics2D g2d, int startX, int startY, int patternWidth, int patternHeight) {
-        drawDataMatrixPattern(g2d, startX, startY, patternWidth, patternHeight);
-    }
-    
-    private void drawMaxiCodePattern(Graphics2D g2d, int startX, int startY, int patternWidth, int patternHeight) {
-        drawDataMatrixPattern(g2d, startX, startY, patternWidth, patternHeight);
-    }
-    
-    private void drawCode128Pattern(Graphics2D g2d, int startX, int startY, int patternWidth, int patternHeight) {
-        drawLinearBarcodePattern(g2d, startX, startY, patternWidth, patternHeight);
-    }
 }
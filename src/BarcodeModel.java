@@ -0,0 +1,178 @@
+import java.awt.Graphics2D;
+import java.util.Arrays;
+
+/**
+ * BarcodeModel: a compiled linear or stacked barcode as bar/space run lengths.
+ *
+ * Each row is a sequence of module widths that alternate bar, space, bar, ... (a row that
+ * starts with a space has a leading zero-width bar). BarcodeMark builds the model once when
+ * its data or type changes; drawing and dot path compilation only walk the runs, so check
+ * digits and pattern tables are never looked up on the paint path.
+ */
+public final class BarcodeModel {
+
+    public final String symbology;
+    public final String humanReadable;      // Text as encoded (with check digits), may be null
+    private final int[] runs;
+    private final int[] rowStarts;          // Row r covers runs[rowStarts[r] .. rowStarts[r + 1])
+    private final int moduleCount;          // Widest row in modules
+
+    private BarcodeModel(String symbology, String humanReadable, int[] runs, int[] rowStarts) {
+        this.symbology = symbology;
+        this.humanReadable = humanReadable;
+        this.runs = runs;
+        this.rowStarts = rowStarts;
+        int widest = 0;
+        for (int row = 0; row < getRowCount(); row++) {
+            int modules = 0;
+            for (int i = rowStarts[row]; i < rowStarts[row + 1]; i++) modules += runs[i];
+            widest = Math.max(widest, modules);
+        }
+        this.moduleCount = widest;
+    }
+
+    public int getRowCount() {
+        return rowStarts.length - 1;
+    }
+
+    public int getModuleCount() {
+        return moduleCount;
+    }
+
+    /** Run widths of one row, bar first. */
+    public int[] getRuns(int row) {
+        return Arrays.copyOfRange(runs, rowStarts[row], rowStarts[row + 1]);
+    }
+
+    public int getBarCount() {
+        int bars = 0;
+        for (int row = 0; row < getRowCount(); row++) {
+            for (int i = rowStarts[row]; i < rowStarts[row + 1]; i += 2) {
+                if (runs[i] > 0) bars++;
+            }
+        }
+        return bars;
+    }
+
+    /** Modules of one row as '1' (bar) and '0' (space) characters. */
+    public String toModuleString(int row) {
+        StringBuilder modules = new StringBuilder(moduleCount);
+        for (int i = rowStarts[row]; i < rowStarts[row + 1]; i++) {
+            for (int m = 0; m < runs[i]; m++) modules.append((i - rowStarts[row]) % 2 == 0 ? '1' : '0');
+        }
+        return modules.toString();
+    }
+
+    /**
+     * Call the visitor for every bar: row, first module and width in modules.
+     */
+    public void forEachBar(BarVisitor visitor) {
+        for (int row = 0; row < getRowCount(); row++) {
+            int module = 0;
+            for (int i = rowStarts[row]; i < rowStarts[row + 1]; i++) {
+                boolean bar = (i - rowStarts[row]) % 2 == 0;
+                if (bar && runs[i] > 0) visitor.bar(row, module, runs[i]);
+                module += runs[i];
+            }
+        }
+    }
+
+    /**
+     * Fill the bars with the current colour: rows stacked rowHeight apart from (x, y).
+     */
+    public void draw(Graphics2D g2d, int x, int y, int moduleWidth, int rowHeight) {
+        forEachBar((row, module, modules) ->
+            g2d.fillRect(x + module * moduleWidth, y + row * rowHeight, modules * moduleWidth, rowHeight));
+    }
+
+    @Override
+    public String toString() {
+        return symbology + " " + (humanReadable != null ? humanReadable : "") + " (" + moduleCount + " modules x "
+            + getRowCount() + " rows, " + getBarCount() + " bars)";
+    }
+
+    public interface BarVisitor {
+        void bar(int row, int startModule, int modules);
+    }
+
+    // ==================== BUILDER ====================
+
+    /**
+     * Collects modules row by row; adjacent modules of one colour merge into one run.
+     */
+    public static final class Builder {
+        private int[] runs = new int[64];
+        private int runCount = 0;
+        private int[] rowStarts = new int[8];
+        private int rowCount = 0;
+        private int rowStart = 0;
+
+        public Builder() {
+            rowStarts[0] = 0;
+        }
+
+        /** Append modules: bar when dark, space otherwise. */
+        public Builder add(boolean dark, int modules) {
+            if (modules <= 0) return this;
+            int index = runCount - rowStart;   // Runs in the current row
+            boolean lastIsBar = index > 0 && (index - 1) % 2 == 0;
+            if (index > 0 && lastIsBar == dark) {
+                runs[runCount - 1] += modules;
+                return this;
+            }
+            if (index == 0 && !dark) push(0);   // Rows start with a bar
+            push(modules);
+            return this;
+        }
+
+        /** Append a module pattern such as "1011": '1' bar, '0' space. */
+        public Builder addModules(String pattern) {
+            for (int i = 0; i < pattern.length(); i++) add(pattern.charAt(i) == '1', 1);
+            return this;
+        }
+
+        /** Append the low `count` bits of pattern as modules, most significant first. */
+        public Builder addBits(int pattern, int count) {
+            for (int i = count - 1; i >= 0; i--) add((pattern >>> i & 1) != 0, 1);
+            return this;
+        }
+
+        /** Append alternating elements, bar first, of the given widths in modules. */
+        public Builder addWidths(int[] widths) {
+            for (int i = 0; i < widths.length; i++) add(i % 2 == 0, widths[i]);
+            return this;
+        }
+
+        /**
+         * Append alternating elements starting with the given colour; each bit of
+         * widePattern (most significant first, `elements` of them) selects wide or narrow.
+         */
+        public Builder addWideNarrow(int widePattern, int elements, int narrow, int wide, boolean startDark) {
+            boolean dark = startDark;
+            for (int i = elements - 1; i >= 0; i--) {
+                add(dark, (widePattern >>> i & 1) != 0 ? wide : narrow);
+                dark = !dark;
+            }
+            return this;
+        }
+
+        /** Finish the current row and start the next one. */
+        public Builder endRow() {
+            if (rowCount + 2 > rowStarts.length) rowStarts = Arrays.copyOf(rowStarts, rowStarts.length * 2);
+            rowStarts[++rowCount] = runCount;
+            rowStart = runCount;
+            return this;
+        }
+
+        public BarcodeModel build(String symbology, String humanReadable) {
+            if (runCount > rowStart || rowCount == 0) endRow();
+            return new BarcodeModel(symbology, humanReadable, Arrays.copyOf(runs, runCount),
+                                    Arrays.copyOf(rowStarts, rowCount + 1));
+        }
+
+        private void push(int value) {
+            if (runCount == runs.length) runs = Arrays.copyOf(runs, runs.length * 2);
+            runs[runCount++] = value;
+        }
+    }
+}
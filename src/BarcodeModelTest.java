@@ -0,0 +1,156 @@
+// BarcodeModel Test Program - Verify compiled bar/space runs for the linear barcode types
+// Checks encodings against reference values and that drawing and dot paths use the cached model
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+
+public class BarcodeModelTest {
+    private static final String[] EAN_L = {
+        "0001101", "0011001", "0010011", "0111101", "0100011", "0110001", "0101111", "0111011", "0110111", "0001011"
+    };
+
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+        System.out.println("Testing BarcodeModel...");
+
+        // Builder merges adjacent modules and starts rows with a bar
+        BarcodeModel built = new BarcodeModel.Builder().addModules("0011101").endRow().addModules("1").build("Test", null);
+        check(java.util.Arrays.equals(built.getRuns(0), new int[] {0, 2, 3, 1, 1}) && built.getRowCount() == 2,
+              "runs merged, leading space recorded as zero-width bar");
+        check(built.toModuleString(0).equals("0011101") && built.getModuleCount() == 7, "module string round trip");
+
+        // EAN-13: check digit, guards and first-digit parity
+        BarcodeModel ean = new BarcodeMark(0, 0, "EAN-13", "400638133393").getBarcodeModel();
+        String modules = ean.toModuleString(0);
+        check("4006381333931".equals(ean.humanReadable), "EAN-13 check digit appended (" + ean.humanReadable + ")");
+        check(modules.length() == 95 && modules.startsWith("101") && modules.endsWith("101")
+              && modules.substring(45, 50).equals("01010"), "EAN-13 95 modules with guards");
+        StringBuilder parity = new StringBuilder();
+        for (int i = 0; i < 6; i++) {
+            String digit = modules.substring(3 + i * 7, 10 + i * 7);
+            parity.append(EAN_L[ean.humanReadable.charAt(i + 1) - '0'].equals(digit) ? 'L' : 'G');
+        }
+        check(parity.toString().equals("LGLLGG"), "first digit 4 encoded as LGLLGG parity");
+
+        // UPC-A reference: 03600029145 -> check digit 2
+        BarcodeModel upc = new BarcodeMark(0, 0, "UPC-A", "03600029145").getBarcodeModel();
+        check("036000291452".equals(upc.humanReadable) && upc.getModuleCount() == 95, "UPC-A check digit 2, 95 modules");
+
+        // Code 39: every character 3 wide of 9 elements, start/stop around the data
+        BarcodeModel code39 = new BarcodeMark(0, 0, "Code 39", "abc-123 $/+%.").getBarcodeModel();
+        check("ABC-123 $/+%.".equals(code39.humanReadable), "Code 39 upper-cases data");
+        int[] runs = code39.getRuns(0);
+        int characters = code39.humanReadable.length() + 2;
+        boolean threeWide = true;
+        for (int c = 0; c < characters; c++) {
+            int wide = 0;
+            for (int e = 0; e < 9; e++) if (runs[c * 10 + e] == 3) wide++;
+            threeWide &= wide == 3;
+        }
+        check(threeWide && runs.length == characters * 10 - 1, "Code 39 characters have 3 wide of 9 elements");
+        check(widePattern(runs, 0).equals("010010100") && widePattern(runs, 1).equals("100001001"),
+              "Code 39 start '*' and 'A' patterns");
+        check(new BarcodeMark(0, 0, "Code 39", "A_B").getBarcodeModel() == null
+              && new BarcodeMark(0, 0, "Code 93", "A_B").getBarcodeModel() == null,
+              "characters outside Code 39 / Code 93 are rejected, not dropped");
+
+        // Code 93: "TEST93" takes check characters '+' and '6'
+        BarcodeModel code93 = new BarcodeMark(0, 0, "Code 93", "TEST93").getBarcodeModel();
+        String code93Modules = code93.toModuleString(0);
+        check(code93Modules.length() == 9 * 10 + 1, "Code 93 start + 6 data + 2 check + stop + bar");
+        check(code93Modules.substring(7 * 9, 8 * 9).equals(Integer.toBinaryString(0x176))
+              && code93Modules.substring(8 * 9, 9 * 9).equals(Integer.toBinaryString(0x122)), "Code 93 check characters '+6'");
+        check(code93Modules.startsWith("101011110") && code93Modules.endsWith("1010111101"), "Code 93 start and stop");
+
+        // PDF417 keeps its stacked layout (start, row indicators, data columns, stop)
+        BarcodeModel pdf = new BarcodeMark(0, 0, "PDF417", "PDF-DATA").getBarcodeModel();
+        check(Pdf417Encoder.isAvailable() ? pdf.getRowCount() >= 3 && (pdf.getModuleCount() - 69) % 17 == 0
+                                          : pdf.getRowCount() == 6 && pdf.getModuleCount() == 17 * 9 + 18,
+              "PDF417 stacked rows");
+
+        // Compiled once per change
+        BarcodeMark mark = new BarcodeMark(20, 20, "EAN-13", "590123412345");
+        BarcodeModel first = mark.getBarcodeModel();
+        check(mark.getBarcodeModel() == first, "model reused between paints");
+        mark.setData("590123412346");
+        check(mark.getBarcodeModel() != first, "model recompiled when data changes");
+        check(new BarcodeMark(0, 0, "QR Code", "X").getBarcodeModel() == null, "2D types have no linear model");
+
+        // Drawn bars are exactly the model's bar rectangles
+        mark.setShowText(false);
+        BufferedImage image = new BufferedImage(300, 150, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        mark.draw(g, false);
+        g.dispose();
+        List<Rectangle> bars = mark.getBarRectangles();
+        boolean barsDark = !bars.isEmpty();
+        for (Rectangle bar : bars) {
+            int rgb = image.getRGB(bar.x + bar.width / 2, bar.y + bar.height / 2) & 0xFFFFFF;
+            barsDark &= rgb == 0;
+        }
+        check(barsDark && bars.size() == mark.getBarcodeModel().getBarCount(), bars.size() + " bar rectangles drawn dark");
+
+        // Dot paths strike inside the bars only (no text shown)
+        DotPath path = new DotPathCompiler(1.0).compile(mark);
+        boolean inside = path.size() > 0;
+        for (int i = 0; i < path.size(); i++) {
+            boolean inBar = false;
+            for (Rectangle bar : bars) inBar |= bar.contains(path.getX(i), path.getY(i));
+            inside &= inBar;
+        }
+        check(inside, "dot path of " + path.size() + " dots lies inside the bars");
+
+        // Rotation is applied to the dots
+        mark.setRotation(90);
+        DotPath rotated = new DotPathCompiler(1.0).compile(mark);
+        double centerY = mark.y + mark.height / 2.0;
+        double spanY = 0;
+        for (int i = 0; i < rotated.size(); i++) spanY = Math.max(spanY, Math.abs(rotated.getY(i) - centerY));
+        check(rotated.size() == path.size() && spanY > mark.width / 4.0, "rotated barcode dots follow the rotation");
+        mark.setRotation(0);
+
+        // Repaint and export cost of a barcode-heavy layout
+        List<Mark> layout = new ArrayList<>();
+        String[] types = {"EAN-13", "UPC-A", "Code 39", "Code 93"};
+        for (int i = 0; i < 200; i++) {
+            layout.add(new BarcodeMark(i % 10 * 220, i / 10 * 100, types[i % 4], "4006381" + (10000 + i)));
+        }
+        BufferedImage canvas = new BufferedImage(2200, 2000, BufferedImage.TYPE_INT_RGB);
+        Graphics2D cg = canvas.createGraphics();
+        cg.setColor(Color.WHITE);
+        for (Mark m : layout) m.draw(cg, false);   // warm up
+        long start = System.nanoTime();
+        for (int repeat = 0; repeat < 5; repeat++) {
+            for (Mark m : layout) m.draw(cg, false);
+        }
+        long paintMicros = (System.nanoTime() - start) / 5 / 1000;
+        cg.dispose();
+        DotPathCompiler.compileMarks(layout);
+        start = System.nanoTime();
+        DotPath job = DotPathCompiler.compileMarks(layout);
+        long compileMillis = (System.nanoTime() - start) / 1_000_000;
+        System.out.println("  200 barcodes: repaint " + paintMicros + " us, dot path " + compileMillis + " ms ("
+            + job.size() + " dots)");
+        check(job.getMarkCount() == 200, "layout compiles to one section per barcode");
+
+        System.out.println("\nAll BarcodeModel checks passed.");
+    }
+
+    /** Code 39 character c of a run array as a 9-element wide/narrow string. */
+    private static String widePattern(int[] runs, int c) {
+        StringBuilder pattern = new StringBuilder();
+        for (int e = 0; e < 9; e++) pattern.append(runs[c * 10 + e] == 3 ? '1' : '0');
+        return pattern.toString();
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError("FAILED: " + message);
+        }
+        System.out.println("✓ " + message);
+    }
+}
@@ -117,9 +117,9 @@ public class BarcodePanel extends JPanel {
         
         gbc.gridx = 1; gbc.gridwidth = 2;
         barcodeTypeComboBox = new JComboBox<>(new String[]{
-            "Code 128", "QR Code", "EAN-13", "Code 39", "Data Matrix", 
-            "PDF417", "UPC-A", "Code 93", "ITF", "Codabar", "Aztec Code",
-            "MaxiCode", "MSI Plessey", "POSTNET", "Code 11", "GS1-128"
+            "Code 128", "QR Code", "Micro QR", "EAN-13", "Code 39", "Data Matrix", 
+            "PDF417", "UPC-A", "Code 93", "ITF", "Codabar", "MSI Plessey",
+            "POSTNET", "Code 11", "GS1-128", "EAN-8", "UPC-E", "Pharma Code"
         });
         barcodeTypeComboBox.setPreferredSize(new Dimension(120, 25));
         barcodeTypeComboBox.setFont(new Font("Arial", Font.PLAIN, 10));
@@ -1079,7 +1079,7 @@ public class BarcodePanel extends JPanel {
     
     private void updateAdvancedOptionsVisibility() {
         String selectedType = (String) barcodeTypeComboBox.getSelectedItem();
-        boolean isQRCode = selectedType.equals("QR Code");
+        boolean isQRCode = selectedType.equals("QR Code") || selectedType.equals("Micro QR");
         
         // Enable/disable error correction for QR codes
         errorCorrectionComboBox.setEnabled(isQRCode);
@@ -1224,8 +1224,7 @@ public class BarcodePanel extends JPanel {
             {"Library Book", "EAN-13", "Book identification standard", "200×100px, ISBN format"},
             {"Small Parts", "Data Matrix", "Tiny components marking", "50×50px, Compact design"},
             {"Document ID", "PDF417", "Document identification", "250×80px, High capacity"},
-            {"Retail Product", "UPC-A", "Consumer product standard", "200×100px, UPC format"},
-            {"Industrial Tag", "Aztec", "Industrial applications", "120×120px, Robust design"}
+            {"Retail Product", "UPC-A", "Consumer product standard", "200×100px, UPC format"}
         };
         
         // Create table for presets
@@ -1368,13 +1367,6 @@ public class BarcodePanel extends JPanel {
                 showTextCheckBox.setSelected(true);
                 dataTextField.setText("123456789012");
                 break;
-                
-            case "Industrial Tag (Aztec)":
-                barcodeTypeComboBox.setSelectedItem("Aztec Code");
-                widthSpinner.setValue(100);
-                heightSpinner.setValue(100);
-                dataTextField.setText("IND-TAG-001");
-                break;
         }
         
         JOptionPane.showMessageDialog(this, 
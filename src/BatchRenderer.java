@@ -0,0 +1,540 @@
+import java.awt.Component;
+import java.awt.GridLayout;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.IntConsumer;
+import javax.swing.JComboBox;
+import javax.swing.JFileChooser;
+import javax.swing.JLabel;
+import javax.swing.JOptionPane;
+import javax.swing.JPanel;
+import javax.swing.JSpinner;
+import javax.swing.ProgressMonitor;
+import javax.swing.SpinnerNumberModel;
+import javax.swing.SwingUtilities;
+import javax.swing.SwingWorker;
+
+/**
+ * BatchRenderer: prepares a run of serialised parts from one layout.
+ *
+ * Marks whose text is a CodeTemplate with fields ("SN {code}", "LOT {serial:5}") are
+ * variable; every other mark is compiled once and its dots are shared by all parts. For
+ * each part the renderer draws the next code from a CodeSource on the calling thread (so
+ * coders see the same order as when marking by hand), then copies the variable marks,
+ * fills in their text and compiles (and optionally travel-optimises) the part on a
+ * fork-join pool. Finished parts reach the PartSink in part order while later parts are
+ * still compiling, with at most a window of parts in memory, so a 10,000-part shift can
+ * be streamed to a G-code file or a machine queue ahead of time on all cores.
+ *
+ * Template fields in mark text: {code} is the part's code, {serial:N} its part number
+ * (1-based), {field:Column} a column of the part's data row (CSV file or database table)
+ * and {date:...} the time the part was rendered; see CodeTemplate and DataRowSource.
+ */
+public class BatchRenderer {
+
+    // Soft coding: Batch parameters
+    public static final int PARTS_IN_FLIGHT_PER_THREAD = 8;     // Compiled parts waiting for the sink, per thread
+    public static final boolean DEFAULT_OPTIMIZE_TRAVEL = true; // Run DotPathOptimizer on every part
+
+    private final List<Mark> marks;
+    private final DotPathCompiler compiler;
+    private ForkJoinPool pool = ForkJoinPool.commonPool();
+    private boolean optimizeTravel = DEFAULT_OPTIMIZE_TRAVEL;
+    private IntConsumer progressListener;
+    private volatile boolean cancelled;
+
+    // Per mark: null for static marks, otherwise the template and encoded prototype
+    private CodeTemplate[] templates;
+    private byte[][] prototypes;
+    private DotPath[] staticPaths;
+
+    public BatchRenderer(List<Mark> marks) {
+        this(marks, new DotPathCompiler());
+    }
+
+    public BatchRenderer(List<Mark> marks, DotPathCompiler compiler) {
+        this.marks = new ArrayList<>(marks);
+        this.compiler = compiler;
+    }
+
+    public BatchRenderer setPool(ForkJoinPool pool) { this.pool = pool; return this; }
+    public BatchRenderer setOptimizeTravel(boolean optimizeTravel) { this.optimizeTravel = optimizeTravel; return this; }
+    public BatchRenderer setProgressListener(IntConsumer listener) { this.progressListener = listener; return this; }
+
+    /** Stop after the parts already handed to the pool; render() then returns early. */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /** Number of marks that change from part to part. */
+    public int getVariableMarkCount() {
+        prepare();
+        int count = 0;
+        for (CodeTemplate template : templates) {
+            if (template != null) count++;
+        }
+        return count;
+    }
+
+    // ==================== SOURCES AND SINKS ====================
+
+    /** Codes for successive parts; null ends the run early (e.g. the last row of a list). */
+    public interface CodeSource {
+        String nextCode();
+
+        /** Codes from a coder type, in the order the coder generates them. */
+        static CodeSource of(ThorX6CoderTypeSystem.CoderType coder) {
+            return coder::generateCode;
+        }
+
+        /** One part per entry, e.g. rows imported from a file. */
+        static CodeSource of(Iterable<String> codes) {
+            Iterator<String> iterator = codes.iterator();
+            return () -> iterator.hasNext() ? iterator.next() : null;
+        }
+    }
+
+    /** Receives finished parts in part order, on the thread that called render(). */
+    public interface PartSink {
+        void accept(RenderedPart part) throws IOException;
+    }
+
+    public static final class RenderedPart {
+        public final int number;          // 1-based position in the run
+        public final String code;
+        public final DataRowSource.Row row;   // Null unless the run reads a data source
+        public final DotPath path;
+
+        RenderedPart(int number, String code, DataRowSource.Row row, DotPath path) {
+            this.number = number;
+            this.code = code;
+            this.row = row;
+            this.path = path;
+        }
+    }
+
+    /** Code and data row of one part, drawn in part order. */
+    private static final class PartInput {
+        final String code;
+        final DataRowSource.Row row;
+
+        PartInput(String code, DataRowSource.Row row) {
+            this.code = code;
+            this.row = row;
+        }
+    }
+
+    private interface InputSource {
+        PartInput next() throws IOException;
+    }
+
+    /** Hands parts to a machine queue, blocking while the queue is full. */
+    public static PartSink queueSink(BlockingQueue<RenderedPart> queue) {
+        return part -> {
+            try {
+                queue.put(part);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while queueing part " + part.number, e);
+            }
+        };
+    }
+
+    /** Streams all parts into one G-code program, one commented section per part. */
+    public static final class GCodeSink implements PartSink, Closeable {
+        private final GCodeWriter writer;
+
+        public GCodeSink(Path file, String title) throws IOException {
+            this(GCodeWriter.open(file), title);
+        }
+
+        public GCodeSink(GCodeWriter writer, String title) throws IOException {
+            this.writer = writer;
+            writer.writeProgramStart(title);
+        }
+
+        public GCodeWriter getWriter() {
+            return writer;
+        }
+
+        @Override
+        public void accept(RenderedPart part) throws IOException {
+            writer.comment("Part " + part.number + (part.code != null ? ": " + part.code : ""));
+            writer.writeDotPath(part.path);
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                writer.writeProgramEnd();
+            } finally {
+                writer.close();
+            }
+        }
+    }
+
+    /** Writes one G-code file per part into a directory (part-00001.nc, ...). */
+    public static PartSink gcodeDirectorySink(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        return part -> {
+            String name = CodeTemplate.compile("part-{serial:5}.nc").generate(part.number);
+            try (GCodeWriter writer = GCodeWriter.open(directory.resolve(name))) {
+                writer.writeProgramStart("Part " + part.number + (part.code != null ? " - " + part.code : ""));
+                writer.writeDotPath(part.path);
+                writer.writeProgramEnd();
+            }
+        };
+    }
+
+    // ==================== RENDERING ====================
+
+    public static final class Summary {
+        public final int parts;
+        public final long dots;
+        public final long millis;
+        public final boolean cancelled;
+
+        Summary(int parts, long dots, long millis, boolean cancelled) {
+            this.parts = parts;
+            this.dots = dots;
+            this.millis = millis;
+            this.cancelled = cancelled;
+        }
+
+        @Override
+        public String toString() {
+            return parts + " parts, " + dots + " dots in " + millis + " ms" + (cancelled ? " (cancelled)" : "");
+        }
+    }
+
+    /**
+     * Render up to count parts (fewer when the source runs out) and deliver them to sink.
+     * Sink and source exceptions stop the run; compile errors are reported with the part number.
+     */
+    public Summary render(int count, CodeSource codes, PartSink sink) throws IOException {
+        return render(count, () -> {
+            String code = codes.nextCode();
+            return code != null ? new PartInput(code, null) : null;
+        }, sink);
+    }
+
+    /**
+     * One part per data row (up to count), with {field:Column} taken from the row. {code}
+     * comes from codes, or is the row's first column when codes is null. Fails before
+     * rendering anything when a mark names a column the source does not have.
+     */
+    public Summary render(int count, DataRowSource rows, CodeSource codes, PartSink sink) throws IOException {
+        List<String> missing = new ArrayList<>();
+        for (String field : getFieldNames()) {
+            if (!rows.hasColumn(field)) missing.add(field);
+        }
+        if (!missing.isEmpty()) {
+            throw new IllegalArgumentException("Data has no column " + String.join(", ", missing)
+                                               + " (columns: " + String.join(", ", rows.getColumns()) + ")");
+        }
+        return render(count, () -> {
+            DataRowSource.Row row = rows.next();
+            if (row == null) return null;
+            String code = codes != null ? codes.nextCode() : row.get(0);
+            return code != null ? new PartInput(code, row) : null;
+        }, sink);
+    }
+
+    /** Data row columns the layout's marks refer to. */
+    public List<String> getFieldNames() {
+        prepare();
+        List<String> names = new ArrayList<>();
+        for (CodeTemplate template : templates) {
+            if (template == null) continue;
+            for (String name : template.getFieldNames()) {
+                boolean known = false;
+                for (String other : names) known |= other.equalsIgnoreCase(name);
+                if (!known) names.add(name);
+            }
+        }
+        return names;
+    }
+
+    private Summary render(int count, InputSource inputs, PartSink sink) throws IOException {
+        prepare();
+        long start = System.nanoTime();
+        int window = Math.max(1, pool.getParallelism() * PARTS_IN_FLIGHT_PER_THREAD);
+        ArrayDeque<ForkJoinTask<RenderedPart>> inFlight = new ArrayDeque<>();
+        int delivered = 0;
+        long dots = 0;
+        try {
+            for (int number = 1; number <= count && !cancelled; number++) {
+                PartInput input = inputs.next();
+                if (input == null) break;
+                final int partNumber = number;
+                inFlight.addLast(pool.submit(() -> {
+                    try {
+                        return renderPart(partNumber, input.code, input.row);
+                    } catch (RuntimeException e) {
+                        throw new IllegalStateException("Part " + partNumber + " (" + input.code + "): " + e.getMessage(), e);
+                    }
+                }));
+                if (inFlight.size() >= window) {
+                    dots += deliver(inFlight.removeFirst(), sink);
+                    notifyProgress(++delivered);
+                }
+            }
+            while (!inFlight.isEmpty()) {
+                dots += deliver(inFlight.removeFirst(), sink);
+                notifyProgress(++delivered);
+            }
+        } finally {
+            for (ForkJoinTask<RenderedPart> task : inFlight) task.cancel(false);
+        }
+        return new Summary(delivered, dots, (System.nanoTime() - start) / 1_000_000, cancelled);
+    }
+
+    /** Render into a list (small runs and previews); large runs should stream to a sink. */
+    public List<RenderedPart> renderAll(int count, CodeSource codes) throws IOException {
+        List<RenderedPart> parts = new ArrayList<>();
+        render(count, codes, parts::add);
+        return parts;
+    }
+
+    private int deliver(ForkJoinTask<RenderedPart> task, PartSink sink) throws IOException {
+        RenderedPart part = task.join();
+        sink.accept(part);
+        return part.path.size();
+    }
+
+    private void notifyProgress(int delivered) {
+        if (progressListener != null) progressListener.accept(delivered);
+    }
+
+    public RenderedPart renderPart(int number, String code) {
+        return renderPart(number, code, null);
+    }
+
+    /** Compile one part; safe to call from several threads at once. */
+    public RenderedPart renderPart(int number, String code, DataRowSource.Row row) {
+        prepare();
+        CodeTemplate.Context context = new CodeTemplate.Context().serial(number).code(code).row(row);
+        DotPath path = new DotPath();
+        for (int i = 0; i < marks.size(); i++) {
+            if (templates[i] == null) {
+                if (staticPaths[i] != null) path.append(staticPaths[i]);
+                continue;
+            }
+            Mark copy = copyOf(prototypes[i]);
+            setMarkText(copy, templates[i].generate(context));
+            path.append(compiler.compile(copy));
+        }
+        path.trimToSize();
+        if (optimizeTravel && path.size() > 2) {
+            path = DotPathOptimizer.optimizePath(path).path;
+        }
+        return new RenderedPart(number, code, row, path);
+    }
+
+    /** Split marks into static (compiled now) and variable ones (copied per part). */
+    private synchronized void prepare() {
+        if (templates != null) return;
+        CodeTemplate[] variable = new CodeTemplate[marks.size()];
+        byte[][] copies = new byte[marks.size()][];
+        DotPath[] compiled = new DotPath[marks.size()];
+        for (int i = 0; i < marks.size(); i++) {
+            Mark mark = marks.get(i);
+            if (mark == null || mark.disablePrint) continue;
+            CodeTemplate template = templateOf(mark);
+            if (template != null) {
+                variable[i] = template;
+                copies[i] = serialize(mark);
+            } else {
+                compiled[i] = compiler.compile(mark);
+            }
+        }
+        prototypes = copies;
+        staticPaths = compiled;
+        templates = variable;
+    }
+
+    // ==================== MARK TEXT ====================
+
+    /** The template in a mark's text, or null when the mark has no text or no fields. */
+    static CodeTemplate templateOf(Mark mark) {
+        String text = getMarkText(mark);
+        if (text == null || text.indexOf('{') < 0) return null;
+        try {
+            CodeTemplate template = CodeTemplate.compile(text);
+            return template.isConstant() ? null : template;
+        } catch (IllegalArgumentException e) {
+            return null;   // Braces that are not template fields: the text is printed as is
+        }
+    }
+
+    /** Text or data of the mark types that carry one, null for the others. */
+    static String getMarkText(Mark mark) {
+        if (mark instanceof TextMark) return ((TextMark) mark).getText();
+        if (mark instanceof BowTextMark) return ((BowTextMark) mark).getText();
+        if (mark instanceof ArcLettersMark) return ((ArcLettersMark) mark).getLetters();
+        if (mark instanceof FarziMark) return ((FarziMark) mark).getText();
+        if (mark instanceof BarcodeMark) return ((BarcodeMark) mark).getData();
+        if (mark instanceof DotMatrixMark) return ((DotMatrixMark) mark).getData();
+        return null;
+    }
+
+    static void setMarkText(Mark mark, String text) {
+        if (mark instanceof TextMark) ((TextMark) mark).setText(text);
+        else if (mark instanceof BowTextMark) ((BowTextMark) mark).setText(text);
+        else if (mark instanceof ArcLettersMark) ((ArcLettersMark) mark).setLetters(text);
+        else if (mark instanceof FarziMark) ((FarziMark) mark).setText(text);
+        else if (mark instanceof BarcodeMark) ((BarcodeMark) mark).setData(text);
+        else if (mark instanceof DotMatrixMark) ((DotMatrixMark) mark).setData(text);
+    }
+
+    /** A variable mark as a one-mark project, so each part decodes its own copy. */
+    private static byte[] serialize(Mark mark) {
+        try {
+            return ProjectBinaryCodec.encodeMark(mark);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot copy " + mark.getClass().getSimpleName() + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static Mark copyOf(byte[] prototype) {
+        try {
+            return ProjectBinaryCodec.decodeMark(prototype);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot copy mark: " + e.getMessage(), e);
+        }
+    }
+
+    // ==================== UI ====================
+
+    // Data source choices next to the coder types
+    private static final String CSV_SOURCE = "Rows of a CSV file...";
+    private static final String TABLE_SOURCE_PREFIX = "Rows of database table: ";
+
+    /**
+     * Ask for a coder or data rows, part count and output file, then render the canvas as
+     * a batch in the background with a cancellable progress monitor.
+     */
+    public static void exportBatch(Component parent, DrawingCanvas canvas) {
+        if (canvas == null) {
+            JOptionPane.showMessageDialog(parent, "No drawing canvas is open.", "Batch Export", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+        BatchRenderer renderer = new BatchRenderer(canvas.getMarks());
+        if (renderer.getVariableMarkCount() == 0) {
+            JOptionPane.showMessageDialog(parent,
+                "No mark changes from part to part.\n\n" +
+                "Put {code} (the coder's output), {serial:5} (the part number) or\n" +
+                "{field:Column} (a CSV or database column) into the text of a\n" +
+                "text, barcode or Data Matrix mark.",
+                "Batch Export", JOptionPane.INFORMATION_MESSAGE);
+            return;
+        }
+
+        JComboBox<String> coderBox = new JComboBox<>(ThorX6CoderTypeSystem.CoderTypeRegistry.getAvailableTypes());
+        coderBox.addItem(CSV_SOURCE);
+        DatabasePanel database = MarkingInterfaceApp.getDatabasePanel();
+        if (database != null) {
+            for (String table : database.getDataTableNames()) {
+                if (database.getDataTable(table) != null) coderBox.addItem(TABLE_SOURCE_PREFIX + table);
+            }
+        }
+        coderBox.setSelectedItem(renderer.getFieldNames().isEmpty() ? "Serial Number" : CSV_SOURCE);
+        JSpinner countSpinner = new JSpinner(new SpinnerNumberModel(100, 1, 1_000_000, 10));
+        JPanel form = new JPanel(new GridLayout(0, 2, 8, 8));
+        form.add(new JLabel("Source for {code} / {field:...}:"));
+        form.add(coderBox);
+        form.add(new JLabel("Number of parts:"));
+        form.add(countSpinner);
+        if (JOptionPane.showConfirmDialog(parent, form, "Batch Export", JOptionPane.OK_CANCEL_OPTION,
+                                          JOptionPane.PLAIN_MESSAGE) != JOptionPane.OK_OPTION) {
+            return;
+        }
+
+        JFileChooser chooser = new JFileChooser();
+        chooser.setDialogTitle("Save Batch G-Code");
+        chooser.setSelectedFile(new File("batch.nc"));
+        if (chooser.showSaveDialog(parent) != JFileChooser.APPROVE_OPTION) return;
+        File file = chooser.getSelectedFile();
+
+        // Rows come from a CSV file or a database table; otherwise the coder supplies {code}
+        String source = (String) coderBox.getSelectedItem();
+        DataRowSource rows;
+        try {
+            if (CSV_SOURCE.equals(source)) {
+                JFileChooser csvChooser = new JFileChooser();
+                csvChooser.setDialogTitle("Open Data Rows");
+                csvChooser.setFileFilter(new javax.swing.filechooser.FileNameExtensionFilter("CSV files (*.csv, *.txt)", "csv", "txt"));
+                if (csvChooser.showOpenDialog(parent) != JFileChooser.APPROVE_OPTION) return;
+                rows = DataRowSource.csv(csvChooser.getSelectedFile().toPath());
+            } else if (source.startsWith(TABLE_SOURCE_PREFIX)) {
+                rows = DataRowSource.table(database.getDataTable(source.substring(TABLE_SOURCE_PREFIX.length())));
+            } else {
+                rows = null;
+            }
+        } catch (IOException e) {
+            JOptionPane.showMessageDialog(parent, "Cannot read data rows: " + e.getMessage(),
+                "Batch Export Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        if (rows == null && !renderer.getFieldNames().isEmpty()) {
+            JOptionPane.showMessageDialog(parent,
+                "The layout uses {field:" + renderer.getFieldNames().get(0) + "}; choose a CSV file or database table.",
+                "Batch Export", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+        ThorX6CoderTypeSystem.CoderType coder = rows == null
+            ? ThorX6CoderTypeSystem.CoderTypeRegistry.getCoderType(source) : null;
+        int count = (Integer) countSpinner.getValue();
+        ProgressMonitor monitor = new ProgressMonitor(parent, "Rendering " + count + " parts", "", 0, count);
+        renderer.setProgressListener(done -> SwingUtilities.invokeLater(() -> {
+            if (monitor.isCanceled()) renderer.cancel();
+            monitor.setProgress(done);
+            monitor.setNote(done + " / " + count);
+        }));
+
+        SwingWorker<Summary, Void> worker = new SwingWorker<Summary, Void>() {
+            @Override
+            protected Summary doInBackground() throws Exception {
+                try (GCodeSink sink = new GCodeSink(file.toPath(), file.getName())) {
+                    Summary summary = rows != null
+                        ? renderer.render(count, rows, null, sink)
+                        : renderer.render(count, CodeSource.of(coder), sink);
+                    return summary;
+                } finally {
+                    if (rows != null) rows.close();
+                }
+            }
+
+            @Override
+            protected void done() {
+                monitor.close();
+                try {
+                    Summary summary = get();
+                    JOptionPane.showMessageDialog(parent,
+                        (summary.cancelled ? "Batch export cancelled.\n\n" : "Batch exported successfully!\n\n") +
+                        "File: " + file.getName() + "\n" +
+                        "Parts: " + summary.parts + "\n" +
+                        "Dots: " + summary.dots + "\n" +
+                        "Time: " + summary.millis + " ms",
+                        "Batch Export", JOptionPane.INFORMATION_MESSAGE);
+                } catch (Exception e) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    JOptionPane.showMessageDialog(parent,
+                        "Batch export failed: " + cause.getMessage(),
+                        "Batch Export Error", JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        };
+        worker.execute();
+    }
+}
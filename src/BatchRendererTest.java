@@ -0,0 +1,132 @@
+// BatchRenderer Test Program - Verify parallel rendering of serialised part runs
+// Covers variable mark detection, per-part output, ordering, sinks, early end, cancel and throughput
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+
+public class BatchRendererTest {
+
+    public static void main(String[] args) throws Exception {
+        System.setProperty("java.awt.headless", "true");
+        System.out.println("Testing BatchRenderer...");
+        testVariableMarks();
+        testParts();
+        testSinks();
+        testThroughput();
+        System.out.println("\nAll BatchRenderer checks passed.");
+    }
+
+    private static List<Mark> layout() {
+        List<Mark> marks = new ArrayList<>();
+        marks.add(new RectangleMark(10, 10));
+        marks.add(new TextMark(20, 40, "SN {code}"));
+        marks.add(new BarcodeMark(20, 70, "Code 128", "{code}"));
+        marks.add(new TextMark(200, 40, "LOT {serial:4}"));
+        marks.add(new TextMark(20, 110, "Static {not a field"));
+        return marks;
+    }
+
+    private static void testVariableMarks() {
+        BatchRenderer renderer = new BatchRenderer(layout());
+        check(renderer.getVariableMarkCount() == 3, "three marks carry template fields");
+        check(BatchRenderer.templateOf(new TextMark(0, 0, "PLAIN")) == null
+              && BatchRenderer.templateOf(new TextMark(0, 0, "{{literal}}")) == null, "plain and escaped text stay static");
+    }
+
+    private static void testParts() throws Exception {
+        List<Mark> marks = layout();
+        BatchRenderer renderer = new BatchRenderer(marks).setOptimizeTravel(false);
+        List<String> codes = Arrays.asList("A100", "A101", "A102", "A103", "A104");
+        List<BatchRenderer.RenderedPart> parts = renderer.renderAll(100, BatchRenderer.CodeSource.of(codes));
+        check(parts.size() == 5, "row source ends the run after its last row");
+
+        boolean ordered = true;
+        for (int i = 0; i < parts.size(); i++) ordered &= parts.get(i).number == i + 1 && parts.get(i).code.equals(codes.get(i));
+        check(ordered, "parts arrive in order with their codes");
+
+        // Part 3 must equal compiling the layout with its text filled in by hand
+        List<Mark> expected = new ArrayList<>();
+        expected.add(marks.get(0));
+        expected.add(new TextMark(20, 40, "SN A102"));
+        expected.add(new BarcodeMark(20, 70, "Code 128", "A102"));
+        expected.add(new TextMark(200, 40, "LOT 0003"));
+        expected.add(marks.get(4));
+        DotPath reference = DotPathCompiler.compileMarks(expected);
+        DotPath part = parts.get(2).path;
+        check(part.size() == reference.size()
+              && Arrays.equals(Arrays.copyOf(part.getCoords(), part.size() * 2), Arrays.copyOf(reference.getCoords(), reference.size() * 2)),
+              "part 3 matches the hand-filled layout (" + part.size() + " dots)");
+        check(part.getMarkCount() == 5 && part.getMark(1) != marks.get(1) && ((TextMark) part.getMark(1)).getText().equals("SN A102")
+              && part.getMark(0) == marks.get(0), "variable marks are per-part copies, static marks shared");
+        check(((TextMark) marks.get(1)).getText().equals("SN {code}"), "layout marks are left untouched");
+        check(parts.get(0).path.size() != 0 && parts.get(4).path.getMark(3) != parts.get(3).path.getMark(3), "every part has its own marks");
+
+        // Codes come from a coder in its own order
+        SerialNumberCoder coder = new SerialNumberCoder();
+        coder.useSequence(SerialSequence.inMemory());
+        List<BatchRenderer.RenderedPart> coded = renderer.renderAll(4, BatchRenderer.CodeSource.of(coder));
+        check(coded.get(0).code.equals("01000") && coded.get(3).code.equals("01003"), "coder source keeps the coder's order");
+    }
+
+    private static void testSinks() throws Exception {
+        BatchRenderer renderer = new BatchRenderer(layout());
+        BlockingQueue<BatchRenderer.RenderedPart> queue = new ArrayBlockingQueue<>(1000);
+        BatchRenderer.Summary summary = renderer.render(20, counter(), BatchRenderer.queueSink(queue));
+        check(summary.parts == 20 && queue.size() == 20 && queue.peek().number == 1, "queue sink: " + summary);
+
+        Path file = Files.createTempFile("batch", ".nc");
+        try (BatchRenderer.GCodeSink sink = new BatchRenderer.GCodeSink(file, "Batch")) {
+            renderer.render(3, counter(), sink);
+        }
+        String gcode = new String(Files.readAllBytes(file), "US-ASCII");
+        check(gcode.contains("; Part 1: P1") && gcode.contains("; Part 3: P3") && gcode.trim().endsWith("M30 ; Program end"),
+              "one G-code program with a section per part");
+        Files.delete(file);
+
+        Path directory = Files.createTempDirectory("batch");
+        renderer.render(2, counter(), BatchRenderer.gcodeDirectorySink(directory));
+        check(Files.exists(directory.resolve("part-00001.nc")) && Files.exists(directory.resolve("part-00002.nc")),
+              "directory sink writes one file per part");
+        for (Path entry : Files.list(directory).toArray(Path[]::new)) Files.delete(entry);
+        Files.delete(directory);
+
+        BatchRenderer cancelling = new BatchRenderer(layout());
+        cancelling.setProgressListener(done -> {
+            if (done == 10) cancelling.cancel();
+        });
+        BatchRenderer.Summary cancelled = cancelling.render(100_000, counter(), part -> { });
+        check(cancelled.cancelled && cancelled.parts < 1000, "cancel stops the run early: " + cancelled);
+    }
+
+    private static void testThroughput() throws Exception {
+        int count = 500;
+        ForkJoinPool single = new ForkJoinPool(1);
+        long serial = new BatchRenderer(layout()).setPool(single).render(count, counter(), part -> { }).millis;
+        single.shutdown();
+        BatchRenderer.Summary parallel = new BatchRenderer(layout()).render(count, counter(), part -> { });
+        System.out.println("  " + count + " parts: 1 thread " + serial + " ms, "
+                           + ForkJoinPool.commonPool().getParallelism() + " threads " + parallel.millis + " ms");
+        check(parallel.parts == count, "parallel run rendered every part: " + parallel);
+        if (ForkJoinPool.commonPool().getParallelism() >= 2) {
+            check(parallel.millis < serial, "fork-join pool is faster than one thread");
+        }
+    }
+
+    private static BatchRenderer.CodeSource counter() {
+        int[] next = {0};
+        return () -> "P" + (++next[0]);
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError("FAILED: " + message);
+        }
+        System.out.println("✓ " + message);
+    }
+}
@@ -29,6 +29,7 @@ public class BowTextMark extends Mark {
     private double curvature = 0.5; // Curvature amount (0.1 to 1.0)
     private boolean bowUp = true; // true = bow up, false = bow down
     private Font font = new Font("Arial", Font.BOLD, 16);
+    private GlyphDotRasterizer.Mode dotMode = GlyphDotRasterizer.Mode.OUTLINE; // How glyphs become pin dots
     private Color textColor = Color.BLACK;
     
     // Control handle positions
@@ -230,7 +231,7 @@ public class BowTextMark extends Mark {
             return g.getFontMetrics(font);
         }
         // Fallback if graphics is null
-        return null;
+        return GlyphCache.metrics(font);
     }
     
     /**
@@ -266,7 +267,7 @@ public class BowTextMark extends Mark {
         g.setColor(Color.WHITE);
         g.fillOval(curvatureX - 6, curvatureY - 6, 12, 12);
         g.setColor(Color.BLACK);
-        g.setFont(new Font("Arial", Font.BOLD, 10));
+        g.setFont(GlyphCache.font("Arial", Font.BOLD, 10));
         g.drawString("C", curvatureX - 3, curvatureY + 3);
         
         // Draw curvature guide line
@@ -280,7 +281,7 @@ public class BowTextMark extends Mark {
         g.setColor(bowUp ? new Color(255, 200, 0) : new Color(255, 100, 0));
         g.fillOval(toggleX - 8, toggleY - 8, 16, 16);
         g.setColor(Color.BLACK);
-        g.setFont(new Font("Arial", Font.BOLD, 10));
+        g.setFont(GlyphCache.font("Arial", Font.BOLD, 10));
         g.drawString(bowUp ? "↑" : "↓", toggleX - 3, toggleY + 3);
         
         // 3. WIDTH CONTROL HANDLES (Green Rectangles) - Enhanced left/right positioning
@@ -372,7 +373,7 @@ public class BowTextMark extends Mark {
         g.setColor(bowUp ? Color.GREEN : Color.ORANGE);
         g.fillRect(toggleX, toggleY, 20, 15);
         g.setColor(Color.WHITE);
-        g.setFont(new Font("Arial", Font.PLAIN, 10));
+        g.setFont(GlyphCache.font("Arial", Font.PLAIN, 10));
         g.drawString(bowUp ? "↑" : "↓", toggleX + 7, toggleY + 11);
     }
     
@@ -511,7 +512,7 @@ public class BowTextMark extends Mark {
         g.setColor(bowUp ? new Color(0, 200, 0) : new Color(255, 140, 0));
         g.fillRoundRect(toggleX, toggleY, 20, 15, 5, 5);
         g.setColor(Color.WHITE);
-        g.setFont(new Font("Arial", Font.BOLD, 10));
+        g.setFont(GlyphCache.font("Arial", Font.BOLD, 10));
         g.drawString(bowUp ? "↑" : "↓", toggleX + 7, toggleY + 11);
         
         // Curvature indicator line
@@ -583,6 +584,7 @@ public class BowTextMark extends Mark {
     }
     
     public void setText(String text) {
+        markChanged();
         this.text = text;
         this.width = Math.max(200, text.length() * 15);
     }
@@ -591,7 +593,16 @@ public class BowTextMark extends Mark {
         return curvature;
     }
     
+    public double getArcAngle() {
+        return arcAngle;
+    }
+    
+    public double getArcRadius() {
+        return arcRadius;
+    }
+    
     public void setCurvature(double curvature) {
+        markChanged();
         this.curvature = Math.max(0.1, Math.min(1.0, curvature));
     }
     
@@ -642,6 +653,7 @@ public class BowTextMark extends Mark {
     }
     
     public void setBowUp(boolean bowUp) {
+        markChanged();
         this.bowUp = bowUp;
     }
     
@@ -650,14 +662,25 @@ public class BowTextMark extends Mark {
     }
     
     public void setFont(Font font) {
+        markChanged();
         this.font = font;
     }
     
+    public GlyphDotRasterizer.Mode getDotMode() {
+        return dotMode;
+    }
+    
+    public void setDotMode(GlyphDotRasterizer.Mode dotMode) {
+        markChanged();
+        this.dotMode = (dotMode != null) ? dotMode : GlyphDotRasterizer.Mode.OUTLINE;
+    }
+    
     public Color getTextColor() {
         return textColor;
     }
     
     public void setTextColor(Color textColor) {
+        markChanged();
         this.textColor = textColor;
     }
     
@@ -784,6 +807,7 @@ public class BowTextMark extends Mark {
     
     // Enhanced Smart BowText control system with full multi-directional support
     public void resizeBowText(int deltaX, int deltaY, BowTextResizeHandle handle) {
+        markChanged();
         System.out.println("🏹 BowText Multi-Directional Resize - Handle: " + handle + ", Delta: (" + deltaX + "," + deltaY + ")");
         
         // Soft-coded sensitivity parameters for fine-tuning
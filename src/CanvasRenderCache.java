@@ -0,0 +1,223 @@
+import java.awt.AlphaComposite;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * CanvasRenderCache: raster layers behind DrawingCanvas.paintComponent.
+ *
+ * 1. Static layer - grid and material boundary rendered once into a device-space
+ *    image slightly larger than the viewport, reused while panning stays inside
+ *    its margin and rebuilt on resize, zoom or visibility changes
+ * 2. Mark rasters - every unselected mark rendered once at the current zoom and
+ *    blitted on later repaints. A raster is reused while the mark's state key
+ *    (Mark.getStateKey: edit revision plus position and size) is unchanged, so
+ *    setter calls and moves from any panel invalidate it
+ *
+ * All coordinates passed in are canvas (world) units unless named "device".
+ */
+public class CanvasRenderCache {
+
+    // Soft coding: Cache limits
+    private static final int STATIC_LAYER_MARGIN = 256;             // Extra device pixels around the viewport
+    private static final long MAX_MARK_RASTER_PIXELS = 4_000_000L;  // Larger marks are drawn directly
+    private static final long MAX_TOTAL_RASTER_PIXELS = 24_000_000L; // Budget across all mark rasters
+    private static final int RASTER_MARGIN = 20;                    // Beyond the hit box, for strokes and labels
+    private static final boolean ENABLE_MARK_RASTERS = true;
+
+    // Static layer
+    private BufferedImage staticLayer;
+    private int staticWidth, staticHeight, staticKey;
+    private double staticZoom;
+    private int staticViewX, staticViewY;       // View offset the layer was rendered for
+
+    // Mark rasters
+    private static class MarkRaster {
+        BufferedImage image;
+        int deviceX, deviceY;     // Raster origin relative to the view offset
+        double zoom;
+        long stateKey;
+        Object antialiasing;
+    }
+
+    private final Map<Mark, MarkRaster> rasters = new IdentityHashMap<>();
+    private long rasterPixels = 0;
+
+    // ==================== STATIC LAYER ====================
+
+    /**
+     * Blit the static layer, re-rendering it through the painter (which draws in
+     * world coordinates) when size, zoom or state key changed or the view panned
+     * beyond the cached margin.
+     */
+    public void paintStaticLayer(Graphics2D device, int width, int height, double zoom,
+                                 int viewOffsetX, int viewOffsetY, int stateKey, Consumer<Graphics2D> painter) {
+        boolean stale = staticLayer == null || width != staticWidth || height != staticHeight
+            || zoom != staticZoom || stateKey != staticKey
+            || Math.abs(viewOffsetX - staticViewX) > STATIC_LAYER_MARGIN
+            || Math.abs(viewOffsetY - staticViewY) > STATIC_LAYER_MARGIN;
+        if (stale) {
+            int layerWidth = width + STATIC_LAYER_MARGIN * 2;
+            int layerHeight = height + STATIC_LAYER_MARGIN * 2;
+            if (staticLayer == null || staticLayer.getWidth() != layerWidth || staticLayer.getHeight() != layerHeight) {
+                staticLayer = new BufferedImage(layerWidth, layerHeight, BufferedImage.TYPE_INT_ARGB_PRE);
+            }
+            staticWidth = width;
+            staticHeight = height;
+            staticZoom = zoom;
+            staticKey = stateKey;
+            staticViewX = viewOffsetX;
+            staticViewY = viewOffsetY;
+
+            Graphics2D g = staticLayer.createGraphics();
+            g.setComposite(AlphaComposite.Clear);
+            g.fillRect(0, 0, layerWidth, layerHeight);
+            g.setComposite(AlphaComposite.SrcOver);
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            g.translate(viewOffsetX + STATIC_LAYER_MARGIN, viewOffsetY + STATIC_LAYER_MARGIN);
+            g.scale(zoom, zoom);
+            painter.accept(g);
+            g.dispose();
+        }
+        // Layer pixel (0,0) sits MARGIN pixels up-left of where the viewport was when rendered
+        device.drawImage(staticLayer,
+            viewOffsetX - staticViewX - STATIC_LAYER_MARGIN,
+            viewOffsetY - staticViewY - STATIC_LAYER_MARGIN, null);
+    }
+
+    // ==================== MARK RASTERS ====================
+
+    /**
+     * Draw an unselected mark from its cached raster, rendering it first if the
+     * mark changed. Falls back to direct drawing for very large rasters.
+     *
+     * @param world graphics already transformed to canvas coordinates
+     * @param device untransformed graphics of the same surface
+     */
+    public void paintMark(Graphics2D world, Graphics2D device, Mark mark, double zoom, int viewOffsetX, int viewOffsetY) {
+        if (!ENABLE_MARK_RASTERS) {
+            mark.draw(world, false);
+            return;
+        }
+        Rectangle bounds = getRasterBounds(mark);
+        int deviceX = (int) Math.floor(bounds.x * zoom);
+        int deviceY = (int) Math.floor(bounds.y * zoom);
+        int deviceW = (int) Math.ceil((bounds.x + bounds.width) * zoom) - deviceX;
+        int deviceH = (int) Math.ceil((bounds.y + bounds.height) * zoom) - deviceY;
+        if ((long) deviceW * deviceH > MAX_MARK_RASTER_PIXELS || deviceW <= 0 || deviceH <= 0) {
+            mark.draw(world, false);
+            return;
+        }
+
+        long stateKey = mark.getStateKey();
+        Object antialiasing = world.getRenderingHint(RenderingHints.KEY_ANTIALIASING);
+        MarkRaster raster = rasters.get(mark);
+        if (raster == null || raster.stateKey != stateKey || raster.zoom != zoom
+                || raster.antialiasing != antialiasing || raster.deviceX != deviceX || raster.deviceY != deviceY) {
+            raster = render(mark, raster, zoom, antialiasing, deviceX, deviceY, deviceW, deviceH);
+            raster.stateKey = stateKey;
+        }
+        device.drawImage(raster.image, viewOffsetX + raster.deviceX, viewOffsetY + raster.deviceY, null);
+    }
+
+    private MarkRaster render(Mark mark, MarkRaster raster, double zoom, Object antialiasing, int deviceX, int deviceY, int deviceW, int deviceH) {
+        if (raster == null) {
+            raster = new MarkRaster();
+            rasters.put(mark, raster);
+        }
+        if (raster.image == null || raster.image.getWidth() != deviceW || raster.image.getHeight() != deviceH) {
+            if (raster.image != null) {
+                rasterPixels -= (long) raster.image.getWidth() * raster.image.getHeight();
+            }
+            if (rasterPixels + (long) deviceW * deviceH > MAX_TOTAL_RASTER_PIXELS) {
+                // Over budget: drop everything else, the visible marks re-render on demand
+                rasters.clear();
+                rasters.put(mark, raster);
+                rasterPixels = 0;
+            }
+            raster.image = new BufferedImage(deviceW, deviceH, BufferedImage.TYPE_INT_ARGB_PRE);
+            rasterPixels += (long) deviceW * deviceH;
+        } else {
+            Graphics2D clear = raster.image.createGraphics();
+            clear.setComposite(AlphaComposite.Clear);
+            clear.fillRect(0, 0, deviceW, deviceH);
+            clear.dispose();
+        }
+        raster.deviceX = deviceX;
+        raster.deviceY = deviceY;
+        raster.zoom = zoom;
+        raster.antialiasing = antialiasing;
+
+        // Same hints the canvas would draw the mark with
+        Graphics2D g = raster.image.createGraphics();
+        if (antialiasing != null) {
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, antialiasing);
+        }
+        g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g.setColor(Color.BLACK);
+        g.translate(-deviceX, -deviceY);
+        g.scale(zoom, zoom);
+        try {
+            mark.draw(g, false);
+        } finally {
+            g.dispose();
+        }
+        return raster;
+    }
+
+    /**
+     * Device-space rectangle (relative to the component) a mark may paint into,
+     * used for dirty-region repaints while dragging.
+     */
+    public static Rectangle getDeviceBounds(Mark mark, double zoom, int viewOffsetX, int viewOffsetY) {
+        Rectangle bounds = getRasterBounds(mark);
+        int x0 = (int) Math.floor(bounds.x * zoom) + viewOffsetX;
+        int y0 = (int) Math.floor(bounds.y * zoom) + viewOffsetY;
+        int x1 = (int) Math.ceil((bounds.x + bounds.width) * zoom) + viewOffsetX;
+        int y1 = (int) Math.ceil((bounds.y + bounds.height) * zoom) + viewOffsetY;
+        return new Rectangle(x0, y0, x1 - x0, y1 - y0);
+    }
+
+    private static Rectangle getRasterBounds(Mark mark) {
+        Rectangle bounds = MarkSpatialIndex.getHitBounds(mark);
+        bounds.grow(RASTER_MARGIN, RASTER_MARGIN);
+        return bounds;
+    }
+
+    /**
+     * Drop rasters of marks no longer on the canvas.
+     */
+    public void prune(List<Mark> marks) {
+        if (rasters.size() <= marks.size()) {
+            return;
+        }
+        Map<Mark, Boolean> live = new IdentityHashMap<>();
+        for (Mark mark : marks) live.put(mark, Boolean.TRUE);
+        rasters.entrySet().removeIf(entry -> {
+            if (live.containsKey(entry.getKey())) return false;
+            BufferedImage image = entry.getValue().image;
+            if (image != null) rasterPixels -= (long) image.getWidth() * image.getHeight();
+            return true;
+        });
+    }
+
+    public void invalidate(Mark mark) {
+        MarkRaster raster = rasters.remove(mark);
+        if (raster != null && raster.image != null) {
+            rasterPixels -= (long) raster.image.getWidth() * raster.image.getHeight();
+        }
+    }
+
+    public void clear() {
+        rasters.clear();
+        rasterPixels = 0;
+        staticLayer = null;
+    }
+}
@@ -0,0 +1,116 @@
+// CanvasRenderCache Test Program - Verify cached mark rasters match direct drawing
+// Compares pixels, checks invalidation on property edits and times repeated paints
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+
+public class CanvasRenderCacheTest {
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+        System.out.println("Testing CanvasRenderCache...");
+
+        List<Mark> marks = new ArrayList<>();
+        marks.add(new TextMark(50, 50, "SN-000123"));
+        marks.add(new RectangleMark(300, 60));
+        marks.add(new DotMatrixMark(500, 50, "MFR123456"));
+        marks.add(new BarcodeMark(100, 250, "Code 39", "ABC123"));
+        marks.add(new RulerMark(400, 300));
+        double zoom = 2.0;
+        int viewX = 15, viewY = -20;
+
+        CanvasRenderCache cache = new CanvasRenderCache();
+        BufferedImage direct = paint(marks, null, zoom, viewX, viewY);
+        BufferedImage cached = paint(marks, cache, zoom, viewX, viewY);
+        check(difference(direct, cached) < 0.01, "cached rasters match direct drawing");
+
+        // Drawing must not count as an edit, or no raster would ever be reused
+        marks.add(new ArcLettersMark(700, 300, "ARC"));
+        marks.add(new BowTextMark(100, 450, "BOW"));
+        marks.add(new FarziMark(400, 450, "AB-12"));
+        marks.add(new GraphMark(700, 550));
+        marks.add(new LineMark(50, 600));
+        marks.add(new AvoidPointMark(300, 600));
+        long[] keys = new long[marks.size()];
+        for (int i = 0; i < keys.length; i++) keys[i] = marks.get(i).getStateKey();
+        cached = paint(marks, cache, zoom, viewX, viewY);
+        paint(marks, cache, zoom, viewX, viewY);
+        boolean stable = true;
+        for (int i = 0; i < keys.length; i++) stable &= keys[i] == marks.get(i).getStateKey();
+        check(stable, "painting leaves every mark's state key unchanged");
+
+        // Edit a property through a setter: raster must refresh
+        TextMark text = (TextMark) marks.get(0);
+        long before = text.getStateKey();
+        text.setText("SN-999999");
+        check(text.getStateKey() != before, "setter bumps the state key");
+        direct = paint(marks, null, zoom, viewX, viewY);
+        cached = paint(marks, cache, zoom, viewX, viewY);
+        check(difference(direct, cached) < 0.01, "property edit invalidates raster");
+
+        // Move a mark by its public fields
+        marks.get(1).x += 40;
+        direct = paint(marks, null, zoom, viewX, viewY);
+        cached = paint(marks, cache, zoom, viewX, viewY);
+        check(difference(direct, cached) < 0.01, "moved mark repainted at new position");
+
+        // Repeated paints (panning) reuse the rasters
+        int frames = 60;
+        long start = System.nanoTime();
+        for (int i = 0; i < frames; i++) paint(marks, null, zoom, viewX + i, viewY);
+        long directMs = (System.nanoTime() - start) / 1_000_000;
+        start = System.nanoTime();
+        for (int i = 0; i < frames; i++) paint(marks, cache, zoom, viewX + i, viewY);
+        long cachedMs = (System.nanoTime() - start) / 1_000_000;
+        System.out.println(frames + " pan frames: direct " + directMs + " ms, cached " + cachedMs + " ms");
+
+        System.out.println("\nAll CanvasRenderCache checks passed.");
+    }
+
+    private static BufferedImage paint(List<Mark> marks, CanvasRenderCache cache, double zoom, int viewX, int viewY) {
+        BufferedImage image = new BufferedImage(1600, 1000, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D device = image.createGraphics();
+        device.setColor(Color.WHITE);
+        device.fillRect(0, 0, image.getWidth(), image.getHeight());
+        Graphics2D world = (Graphics2D) device.create();
+        world.translate(viewX, viewY);
+        world.scale(zoom, zoom);
+        world.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        world.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        for (Mark mark : marks) {
+            if (cache == null) {
+                mark.draw(world, false);
+            } else {
+                cache.paintMark(world, device, mark, zoom, viewX, viewY);
+            }
+        }
+        world.dispose();
+        device.dispose();
+        return image;
+    }
+
+    /** Fraction of pixels differing by more than a small antialiasing tolerance. */
+    private static double difference(BufferedImage a, BufferedImage b) {
+        int differing = 0;
+        for (int y = 0; y < a.getHeight(); y++) {
+            for (int x = 0; x < a.getWidth(); x++) {
+                int p = a.getRGB(x, y), q = b.getRGB(x, y);
+                int d = Math.abs((p >> 16 & 0xff) - (q >> 16 & 0xff))
+                      + Math.abs((p >> 8 & 0xff) - (q >> 8 & 0xff))
+                      + Math.abs((p & 0xff) - (q & 0xff));
+                if (d > 48) differing++;
+            }
+        }
+        return differing / (double) (a.getWidth() * a.getHeight());
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError("FAILED: " + message);
+        }
+        System.out.println("✓ " + message);
+    }
+}
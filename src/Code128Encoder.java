@@ -0,0 +1,201 @@
+/**
+ * Code128Encoder: Code 128 per ISO/IEC 15417 with automatic subset selection.
+ *
+ * The symbol is the shortest mix of subsets A (control characters and upper case), B
+ * (printable ASCII) and C (digit pairs): a dynamic program over (position, active subset)
+ * chooses the start character, subset switches and single-character shifts with the fewest
+ * symbol characters, so numeric runs pack two digits per 11 modules and mixed data does not
+ * bounce between subsets. Fewer symbol characters means fewer bars to strike.
+ *
+ * Data is ASCII 0-127; FNC1_CHAR ('ñ') stands for the FNC1 function character used by
+ * GS1-128 application identifiers. The GS1-128 variant adds the leading FNC1 itself and
+ * drops the parentheses of human-readable AIs such as "(01)09501101530003(10)AB12";
+ * a variable-length field followed by another AI still needs an explicit 'ñ' separator.
+ */
+public final class Code128Encoder implements SymbologyEncoder {
+
+    /** Stand-in for FNC1 in the data string. */
+    public static final char FNC1_CHAR = 'ñ';
+
+    // Bar/space widths of each symbol value (bar first); 106 is the 7-element stop pattern
+    static final int[][] PATTERNS = {
+        {2, 1, 2, 2, 2, 2}, {2, 2, 2, 1, 2, 2}, {2, 2, 2, 2, 2, 1}, {1, 2, 1, 2, 2, 3}, {1, 2, 1, 3, 2, 2},
+        {1, 3, 1, 2, 2, 2}, {1, 2, 2, 2, 1, 3}, {1, 2, 2, 3, 1, 2}, {1, 3, 2, 2, 1, 2}, {2, 2, 1, 2, 1, 3},
+        {2, 2, 1, 3, 1, 2}, {2, 3, 1, 2, 1, 2}, {1, 1, 2, 2, 3, 2}, {1, 2, 2, 1, 3, 2}, {1, 2, 2, 2, 3, 1},
+        {1, 1, 3, 2, 2, 2}, {1, 2, 3, 1, 2, 2}, {1, 2, 3, 2, 2, 1}, {2, 2, 3, 2, 1, 1}, {2, 2, 1, 1, 3, 2},
+        {2, 2, 1, 2, 3, 1}, {2, 1, 3, 2, 1, 2}, {2, 2, 3, 1, 1, 2}, {3, 1, 2, 1, 3, 1}, {3, 1, 1, 2, 2, 2},
+        {3, 2, 1, 1, 2, 2}, {3, 2, 1, 2, 2, 1}, {3, 1, 2, 2, 1, 2}, {3, 2, 2, 1, 1, 2}, {3, 2, 2, 2, 1, 1},
+        {2, 1, 2, 1, 2, 3}, {2, 1, 2, 3, 2, 1}, {2, 3, 2, 1, 2, 1}, {1, 1, 1, 3, 2, 3}, {1, 3, 1, 1, 2, 3},
+        {1, 3, 1, 3, 2, 1}, {1, 1, 2, 3, 1, 3}, {1, 3, 2, 1, 1, 3}, {1, 3, 2, 3, 1, 1}, {2, 1, 1, 3, 1, 3},
+        {2, 3, 1, 1, 1, 3}, {2, 3, 1, 3, 1, 1}, {1, 1, 2, 1, 3, 3}, {1, 1, 2, 3, 3, 1}, {1, 3, 2, 1, 3, 1},
+        {1, 1, 3, 1, 2, 3}, {1, 1, 3, 3, 2, 1}, {1, 3, 3, 1, 2, 1}, {3, 1, 3, 1, 2, 1}, {2, 1, 1, 3, 3, 1},
+        {2, 3, 1, 1, 3, 1}, {2, 1, 3, 1, 1, 3}, {2, 1, 3, 3, 1, 1}, {2, 1, 3, 1, 3, 1}, {3, 1, 1, 1, 2, 3},
+        {3, 1, 1, 3, 2, 1}, {3, 3, 1, 1, 2, 1}, {3, 1, 2, 1, 1, 3}, {3, 1, 2, 3, 1, 1}, {3, 3, 2, 1, 1, 1},
+        {3, 1, 4, 1, 1, 1}, {2, 2, 1, 4, 1, 1}, {4, 3, 1, 1, 1, 1}, {1, 1, 1, 2, 2, 4}, {1, 1, 1, 4, 2, 2},
+        {1, 2, 1, 1, 2, 4}, {1, 2, 1, 4, 2, 1}, {1, 4, 1, 1, 2, 2}, {1, 4, 1, 2, 2, 1}, {1, 1, 2, 2, 1, 4},
+        {1, 1, 2, 4, 1, 2}, {1, 2, 2, 1, 1, 4}, {1, 2, 2, 4, 1, 1}, {1, 4, 2, 1, 1, 2}, {1, 4, 2, 2, 1, 1},
+        {2, 4, 1, 2, 1, 1}, {2, 2, 1, 1, 1, 4}, {4, 1, 3, 1, 1, 1}, {2, 4, 1, 1, 1, 2}, {1, 3, 4, 1, 1, 1},
+        {1, 1, 1, 2, 4, 2}, {1, 2, 1, 1, 4, 2}, {1, 2, 1, 2, 4, 1}, {1, 1, 4, 2, 1, 2}, {1, 2, 4, 1, 1, 2},
+        {1, 2, 4, 2, 1, 1}, {4, 1, 1, 2, 1, 2}, {4, 2, 1, 1, 1, 2}, {4, 2, 1, 2, 1, 1}, {2, 1, 2, 1, 4, 1},
+        {2, 1, 4, 1, 2, 1}, {4, 1, 2, 1, 2, 1}, {1, 1, 1, 1, 4, 3}, {1, 1, 1, 3, 4, 1}, {1, 3, 1, 1, 4, 1},
+        {1, 1, 4, 1, 1, 3}, {1, 1, 4, 3, 1, 1}, {4, 1, 1, 1, 1, 3}, {4, 1, 1, 3, 1, 1}, {1, 1, 3, 1, 4, 1},
+        {1, 1, 4, 1, 3, 1}, {3, 1, 1, 1, 4, 1}, {4, 1, 1, 1, 3, 1}, {2, 1, 1, 4, 1, 2}, {2, 1, 1, 2, 1, 4},
+        {2, 1, 1, 2, 3, 2}, {2, 3, 3, 1, 1, 1, 2}
+    };
+
+    // Special symbol values
+    static final int SHIFT = 98;
+    static final int CODE_C = 99;
+    static final int CODE_B = 100;
+    static final int CODE_A = 101;
+    static final int FNC1 = 102;
+    static final int START_A = 103;
+    static final int START_B = 104;
+    static final int START_C = 105;
+    static final int STOP = 106;
+
+    private static final int SET_A = 0, SET_B = 1, SET_C = 2;
+    private static final int[] START_FOR_SET = {START_A, START_B, START_C};
+    private static final int[] CODE_FOR_SET = {CODE_A, CODE_B, CODE_C};
+
+    // Moves of the dynamic program
+    private static final int SINGLE = 0, PAIR = 1, SHIFTED = 2;
+    private static final int UNREACHABLE = Integer.MAX_VALUE / 4;
+
+    private final boolean gs1;
+
+    public Code128Encoder() {
+        this(false);
+    }
+
+    public Code128Encoder(boolean gs1) {
+        this.gs1 = gs1;
+    }
+
+    @Override
+    public String getName() {
+        return gs1 ? "GS1-128" : "Code 128";
+    }
+
+    @Override
+    public BarcodeModel encode(String data) {
+        String humanReadable = data.replace(String.valueOf(FNC1_CHAR), "");
+        if (gs1) {
+            data = FNC1_CHAR + data.replace("(", "").replace(")", "");
+        }
+        int[] values = encodeValues(data);
+        BarcodeModel.Builder builder = new BarcodeModel.Builder();
+        for (int value : values) {
+            builder.addWidths(PATTERNS[value]);
+        }
+        builder.addWidths(PATTERNS[STOP]);
+        return builder.build(getName(), humanReadable);
+    }
+
+    /**
+     * Symbol values from the start character through the check character (stop excluded),
+     * using the fewest symbol characters.
+     */
+    static int[] encodeValues(String data) {
+        int n = data.length();
+        for (int i = 0; i < n; i++) {
+            char c = data.charAt(i);
+            if (c > 127 && c != FNC1_CHAR) {
+                throw new IllegalArgumentException("Code 128 cannot encode '" + c + "'");
+            }
+        }
+
+        // cost[i][s]: symbols for data[i..] with subset s active; nextSet/move: the choice made
+        int[][] cost = new int[n + 1][3];
+        int[][] nextSet = new int[n + 1][3];
+        int[][] move = new int[n + 1][3];
+        int[] consume = new int[3];
+        int[] consumeMove = new int[3];
+        for (int i = n - 1; i >= 0; i--) {
+            char c = data.charAt(i);
+            for (int s = SET_A; s <= SET_C; s++) {
+                consume[s] = UNREACHABLE;
+                if (c == FNC1_CHAR) {
+                    consume[s] = 1 + cost[i + 1][s];
+                    consumeMove[s] = SINGLE;
+                } else if (s == SET_C) {
+                    if (i + 1 < n && isDigit(c) && isDigit(data.charAt(i + 1))) {
+                        consume[s] = 1 + cost[i + 2][s];
+                        consumeMove[s] = PAIR;
+                    }
+                } else if (inSet(c, s)) {
+                    consume[s] = 1 + cost[i + 1][s];
+                    consumeMove[s] = SINGLE;
+                } else {
+                    consume[s] = 2 + cost[i + 1][s];
+                    consumeMove[s] = SHIFTED;
+                }
+            }
+            for (int s = SET_A; s <= SET_C; s++) {
+                cost[i][s] = consume[s];
+                nextSet[i][s] = s;
+                move[i][s] = consumeMove[s];
+                for (int t = SET_A; t <= SET_C; t++) {
+                    if (t != s && 1 + consume[t] < cost[i][s]) {
+                        cost[i][s] = 1 + consume[t];
+                        nextSet[i][s] = t;
+                        move[i][s] = consumeMove[t];
+                    }
+                }
+            }
+        }
+
+        // Start in the cheapest subset (B on ties, then C, then A)
+        int set = SET_B;
+        if (cost[0][SET_C] < cost[0][set]) set = SET_C;
+        if (cost[0][SET_A] < cost[0][set]) set = SET_A;
+
+        int[] values = new int[cost[0][set] + 2];
+        int count = 0;
+        values[count++] = START_FOR_SET[set];
+        for (int i = 0; i < n; ) {
+            int target = nextSet[i][set];
+            int kind = move[i][set];
+            if (target != set) {
+                values[count++] = CODE_FOR_SET[target];
+                set = target;
+            }
+            char c = data.charAt(i);
+            if (c == FNC1_CHAR) {
+                values[count++] = FNC1;
+                i++;
+            } else if (kind == PAIR) {
+                values[count++] = (c - '0') * 10 + (data.charAt(i + 1) - '0');
+                i += 2;
+            } else if (kind == SHIFTED) {
+                values[count++] = SHIFT;
+                values[count++] = valueIn(c, set == SET_A ? SET_B : SET_A);
+                i++;
+            } else {
+                values[count++] = valueIn(c, set);
+                i++;
+            }
+        }
+
+        // Check character: start value plus position-weighted values, modulo 103
+        int sum = values[0];
+        for (int k = 1; k < count; k++) {
+            sum += k * values[k];
+        }
+        values[count++] = sum % 103;
+        return values;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean inSet(char c, int set) {
+        return set == SET_A ? c < 96 : c >= 32 && c < 128;
+    }
+
+    private static int valueIn(char c, int set) {
+        if (set == SET_A && c < 32) return c + 64;
+        return c - 32;
+    }
+}
@@ -0,0 +1,507 @@
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * CodeTemplate: code formats such as "SN{serial:6}-{date:yyMMdd}-{vin.check}" compiled once
+ * into a chain of appenders that write straight into a StringBuilder.
+ *
+ * Fields (names ignore case; arguments are kept as written):
+ *   {serial}, {serial:N}   serial value, zero-padded to at least N digits
+ *   {date:pattern}         current date/time in a DateTimeFormatter pattern ({date:yyDDD} is the Julian date)
+ *   {random:N}             N random digits
+ *   {code}                 code supplied by the caller (e.g. a coder's output in a batch run)
+ *   {field:Column}         value of a column of the current data row (CSV file, database table)
+ *   {vin.check}            VIN check digit (0-9 or X): when 8 characters precede and 8 follow it,
+ *                          the ISO 3779 check digit of that 17-character VIN; otherwise a check
+ *                          digit over the letters and digits written before it
+ *   {{ and }}              literal braces
+ *
+ * Compiling parses the template and resolves date patterns to cached formatters; generating
+ * only appends. Padding goes through a two-digit table, and a formatted date is reused until
+ * the clock moves to the next second (millisecond for patterns with fractions), so a batch
+ * of a million codes costs one string per code.
+ */
+public final class CodeTemplate {
+
+    // Soft coding: Template cache size before it is cleared
+    public static final int MAX_CACHED_TEMPLATES = 256;
+
+    private static final Map<String, CodeTemplate> COMPILED = new ConcurrentHashMap<>();
+    private static final Map<String, DateTimeFormatter> FORMATTERS = new ConcurrentHashMap<>();
+
+    // "00", "01", ... "99" for writing two digits per division
+    private static final char[] DIGIT_PAIRS = new char[200];
+    static {
+        for (int i = 0; i < 100; i++) {
+            DIGIT_PAIRS[2 * i] = (char) ('0' + i / 10);
+            DIGIT_PAIRS[2 * i + 1] = (char) ('0' + i % 10);
+        }
+    }
+
+    // VIN transliteration (ISO 3779): value of each character, -1 where not allowed (I, O, Q)
+    private static final int[] VIN_VALUES = new int[128];
+    private static final int[] VIN_WEIGHTS = {8, 7, 6, 5, 4, 3, 2, 10, 0, 9, 8, 7, 6, 5, 4, 3, 2};
+    private static final int[] CHECK_WEIGHTS = {8, 7, 6, 5, 4, 3, 2, 10, 9};
+    static {
+        Arrays.fill(VIN_VALUES, -1);
+        for (char c = '0'; c <= '9'; c++) VIN_VALUES[c] = c - '0';
+        String letters = "ABCDEFGHJKLMNPRSTUVWXYZ";
+        int[] values = {1, 2, 3, 4, 5, 6, 7, 8, 1, 2, 3, 4, 5, 7, 9, 2, 3, 4, 5, 6, 7, 8, 9};
+        for (int i = 0; i < letters.length(); i++) {
+            VIN_VALUES[letters.charAt(i)] = values[i];
+            VIN_VALUES[Character.toLowerCase(letters.charAt(i))] = values[i];
+        }
+    }
+
+    private static final ThreadLocal<Context> CONTEXTS = ThreadLocal.withInitial(Context::new);
+
+    private final String source;
+    private final Part[] parts;
+    private final int lengthHint;
+    private final boolean usesSerial;
+    private final boolean constant;
+    private final List<String> fieldNames;
+
+    private CodeTemplate(String source, Part[] parts, int lengthHint, boolean usesSerial, boolean constant,
+                         List<String> fieldNames) {
+        this.source = source;
+        this.parts = parts;
+        this.lengthHint = lengthHint;
+        this.usesSerial = usesSerial;
+        this.constant = constant;
+        this.fieldNames = fieldNames;
+    }
+
+    /** Compiled template for source, shared between callers; IllegalArgumentException when malformed. */
+    public static CodeTemplate compile(String source) {
+        CodeTemplate template = COMPILED.get(source);
+        if (template == null) {
+            template = parse(source);
+            if (COMPILED.size() >= MAX_CACHED_TEMPLATES) COMPILED.clear();
+            COMPILED.putIfAbsent(source, template);
+        }
+        return template;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    /** True when the template has a {serial} field, i.e. its codes consume serial numbers. */
+    public boolean usesSerial() {
+        return usesSerial;
+    }
+
+    /** True when the template has no fields, so every code is the same text. */
+    public boolean isConstant() {
+        return constant;
+    }
+
+    /** Data row columns the template reads through {field:Column}. */
+    public List<String> getFieldNames() {
+        return fieldNames;
+    }
+
+    /** Code for a serial value at the current time. */
+    public String generate(long serial) {
+        Context context = CONTEXTS.get();
+        context.serial = serial;
+        context.fixedMillis = -1;
+        context.code = null;
+        context.row = null;
+        StringBuilder out = context.buffer;
+        out.setLength(0);
+        appendTo(out, context);
+        return out.toString();
+    }
+
+    /** Code for the values held by context (one context per thread). */
+    public String generate(Context context) {
+        StringBuilder out = new StringBuilder(lengthHint);
+        appendTo(out, context);
+        return out.toString();
+    }
+
+    public void appendTo(StringBuilder out, Context context) {
+        int start = out.length();
+        context.checkCount = 0;
+        context.millis = context.fixedMillis >= 0 ? context.fixedMillis : System.currentTimeMillis();
+        for (Part part : parts) {
+            part.append(out, context);
+        }
+        for (int i = 0; i < context.checkCount; i++) {
+            int position = context.checkPositions[i];
+            out.setCharAt(position, vinCheckAt(out, start, position));
+        }
+    }
+
+    @Override
+    public String toString() {
+        return source;
+    }
+
+    // ==================== CONTEXT ====================
+
+    /** Values and scratch space for generating codes; not thread-safe, use one per thread. */
+    public static final class Context {
+        long serial;
+        String code;
+        DataRowSource.Row row;
+        long fixedMillis = -1;
+        long millis;
+        Random random = new Random();
+        final StringBuilder buffer = new StringBuilder(32);
+        final char[] digits = new char[20];
+        int[] checkPositions = new int[2];
+        int checkCount;
+        // Last formatted date per date field
+        Object[] dateOwners = new Object[2];
+        long[] dateKeys = new long[2];
+        String[] dateTexts = new String[2];
+
+        public Context serial(long value) {
+            serial = value;
+            return this;
+        }
+
+        public Context code(String value) {
+            code = value;
+            return this;
+        }
+
+        public Context row(DataRowSource.Row value) {
+            row = value;
+            return this;
+        }
+
+        /** Generate as if at this instant (e.g. one timestamp for a whole batch); null for the clock. */
+        public Context time(Instant instant) {
+            fixedMillis = instant != null ? instant.toEpochMilli() : -1;
+            return this;
+        }
+
+        public Context random(Random source) {
+            random = source;
+            return this;
+        }
+    }
+
+    // ==================== PARTS ====================
+
+    private interface Part {
+        void append(StringBuilder out, Context context);
+    }
+
+    private static final class Literal implements Part {
+        private final String text;
+
+        Literal(String text) {
+            this.text = text;
+        }
+
+        @Override
+        public void append(StringBuilder out, Context context) {
+            out.append(text);
+        }
+    }
+
+    private static final class Serial implements Part {
+        private final int width;
+
+        Serial(int width) {
+            this.width = width;
+        }
+
+        @Override
+        public void append(StringBuilder out, Context context) {
+            appendPadded(out, context.serial, width, context.digits);
+        }
+    }
+
+    private static final class CodeField implements Part {
+        @Override
+        public void append(StringBuilder out, Context context) {
+            if (context.code != null) out.append(context.code);
+        }
+    }
+
+    private static final class RowField implements Part {
+        private final String column;
+
+        RowField(String column) {
+            this.column = column;
+        }
+
+        @Override
+        public void append(StringBuilder out, Context context) {
+            if (context.row != null) out.append(context.row.get(column));
+        }
+    }
+
+    private static final class RandomDigits implements Part {
+        private final int count;
+
+        RandomDigits(int count) {
+            this.count = count;
+        }
+
+        @Override
+        public void append(StringBuilder out, Context context) {
+            Random random = context.random;
+            for (int i = 0; i < count; i++) {
+                out.append((char) ('0' + random.nextInt(10)));
+            }
+        }
+    }
+
+    private static final class DateField implements Part {
+        private final DateTimeFormatter formatter;
+        private final int slot;
+        private final long resolution;   // Milliseconds a formatted value stays valid
+
+        DateField(DateTimeFormatter formatter, int slot, boolean fractions) {
+            this.formatter = formatter;
+            this.slot = slot;
+            this.resolution = fractions ? 1 : 1000;
+        }
+
+        @Override
+        public void append(StringBuilder out, Context context) {
+            if (context.dateOwners.length <= slot) {
+                int size = slot + 1;
+                context.dateOwners = Arrays.copyOf(context.dateOwners, size);
+                context.dateKeys = Arrays.copyOf(context.dateKeys, size);
+                context.dateTexts = Arrays.copyOf(context.dateTexts, size);
+            }
+            long key = Math.floorDiv(context.millis, resolution);
+            if (context.dateOwners[slot] != this || context.dateKeys[slot] != key) {
+                LocalDateTime time = LocalDateTime.ofInstant(Instant.ofEpochMilli(context.millis), ZoneId.systemDefault());
+                context.dateTexts[slot] = formatter.format(time);
+                context.dateOwners[slot] = this;
+                context.dateKeys[slot] = key;
+            }
+            out.append(context.dateTexts[slot]);
+        }
+    }
+
+    private static final class VinCheck implements Part {
+        @Override
+        public void append(StringBuilder out, Context context) {
+            if (context.checkCount == context.checkPositions.length) {
+                context.checkPositions = Arrays.copyOf(context.checkPositions, context.checkCount * 2);
+            }
+            context.checkPositions[context.checkCount++] = out.length();
+            out.append('0');   // Filled in once the characters after it are written
+        }
+    }
+
+    // ==================== PARSING ====================
+
+    private static CodeTemplate parse(String source) {
+        if (source == null) throw new IllegalArgumentException("Code template is empty");
+        List<Part> parts = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        int lengthHint = 0;
+        int dateSlots = 0;
+        boolean usesSerial = false;
+        List<String> fieldNames = new ArrayList<>();
+        int i = 0;
+        while (i < source.length()) {
+            char c = source.charAt(i);
+            if (c == '}') {
+                if (i + 1 < source.length() && source.charAt(i + 1) == '}') {
+                    literal.append('}');
+                    i += 2;
+                    continue;
+                }
+                throw new IllegalArgumentException("Unmatched '}' at " + i + " in \"" + source + "\"");
+            }
+            if (c != '{') {
+                literal.append(c);
+                i++;
+                continue;
+            }
+            if (i + 1 < source.length() && source.charAt(i + 1) == '{') {
+                literal.append('{');
+                i += 2;
+                continue;
+            }
+            int close = source.indexOf('}', i);
+            if (close < 0) throw new IllegalArgumentException("Unclosed '{' at " + i + " in \"" + source + "\"");
+            if (literal.length() > 0) {
+                parts.add(new Literal(literal.toString()));
+                lengthHint += literal.length();
+                literal.setLength(0);
+            }
+            String field = source.substring(i + 1, close).trim();
+            int colon = field.indexOf(':');
+            // Field names ignore case: DotMatrixMark upper-cases its data
+            String name = (colon < 0 ? field : field.substring(0, colon)).trim().toLowerCase();
+            String argument = colon < 0 ? null : field.substring(colon + 1);
+            switch (name) {
+                case "serial":
+                    int width = argument == null ? 1 : parseCount(argument, field);
+                    parts.add(new Serial(width));
+                    lengthHint += Math.max(width, 6);
+                    usesSerial = true;
+                    break;
+                case "random":
+                    int count = argument == null ? 1 : parseCount(argument, field);
+                    parts.add(new RandomDigits(count));
+                    lengthHint += count;
+                    break;
+                case "date":
+                    if (argument == null || argument.isEmpty()) {
+                        throw new IllegalArgumentException("{date} needs a pattern, e.g. {date:yyMMdd}");
+                    }
+                    parts.add(new DateField(formatter(argument), dateSlots++, argument.indexOf('S') >= 0));
+                    lengthHint += argument.length() + 2;
+                    break;
+                case "code":
+                    parts.add(new CodeField());
+                    lengthHint += 16;
+                    break;
+                case "field":
+                    if (argument == null || argument.trim().isEmpty()) {
+                        throw new IllegalArgumentException("{field} needs a column name, e.g. {field:PartNo}");
+                    }
+                    parts.add(new RowField(argument.trim()));
+                    if (!fieldNames.contains(argument.trim())) fieldNames.add(argument.trim());
+                    lengthHint += 8;
+                    break;
+                case "vin.check":
+                    parts.add(new VinCheck());
+                    lengthHint++;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown template field {" + field + "}");
+            }
+            i = close + 1;
+        }
+        if (literal.length() > 0) {
+            parts.add(new Literal(literal.toString()));
+            lengthHint += literal.length();
+        }
+        boolean constant = true;
+        for (Part part : parts) constant &= part instanceof Literal;
+        return new CodeTemplate(source, parts.toArray(new Part[0]), lengthHint, usesSerial, constant,
+                                Collections.unmodifiableList(fieldNames));
+    }
+
+    private static int parseCount(String argument, String field) {
+        try {
+            int value = Integer.parseInt(argument.trim());
+            if (value >= 1 && value <= 19) return value;
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        throw new IllegalArgumentException("{" + field + "} needs a digit count from 1 to 19");
+    }
+
+    /** Shared formatter for a DateTimeFormatter pattern; IllegalArgumentException when invalid. */
+    public static DateTimeFormatter formatter(String pattern) {
+        return FORMATTERS.computeIfAbsent(pattern, DateTimeFormatter::ofPattern);
+    }
+
+    // ==================== HELPERS ====================
+
+    /** Append value zero-padded to at least width digits, without going through String.format. */
+    public static void appendPadded(StringBuilder out, long value, int width) {
+        appendPadded(out, value, width, new char[20]);
+    }
+
+    private static void appendPadded(StringBuilder out, long value, int width, char[] scratch) {
+        if (value < 0) {
+            if (value == Long.MIN_VALUE) {
+                out.append(value);
+                return;
+            }
+            out.append('-');
+            value = -value;
+            width--;
+        }
+        int position = scratch.length;
+        while (value >= 100) {
+            int pair = (int) (value % 100) * 2;
+            value /= 100;
+            scratch[--position] = DIGIT_PAIRS[pair + 1];
+            scratch[--position] = DIGIT_PAIRS[pair];
+        }
+        int pair = (int) value * 2;
+        scratch[--position] = DIGIT_PAIRS[pair + 1];
+        if (value >= 10) scratch[--position] = DIGIT_PAIRS[pair];
+        for (int digits = scratch.length - position; digits < width; digits++) {
+            out.append('0');
+        }
+        out.append(scratch, position, scratch.length - position);
+    }
+
+    /** ISO 3779 check digit of a 17-character VIN (position 9 is ignored). */
+    public static char vinCheckDigit(CharSequence vin) {
+        if (vin.length() != 17) throw new IllegalArgumentException("A VIN has 17 characters, not " + vin.length());
+        int sum = 0;
+        for (int i = 0; i < 17; i++) {
+            if (i != 8) sum += vinValue(vin.charAt(i)) * VIN_WEIGHTS[i];
+        }
+        return checkChar(sum);
+    }
+
+    /** True when the VIN's position 9 holds its check digit. */
+    public static boolean isValidVin(CharSequence vin) {
+        try {
+            return vin.length() == 17 && Character.toUpperCase(vin.charAt(8)) == vinCheckDigit(vin);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Check character for {vin.check} at position: the ISO 3779 digit when it sits at
+     * position 9 of 17 VIN characters, else a weighted check over the VIN characters
+     * before it (other characters are skipped, so generation never fails on the data).
+     */
+    private static char vinCheckAt(CharSequence out, int start, int position) {
+        if (position - 8 >= start && position + 9 <= out.length()
+                && isVinAlphabet(out, position - 8, position + 9, position)) {
+            return vinCheckDigit(out.subSequence(position - 8, position + 9));
+        }
+        int sum = 0;
+        int weight = 0;
+        for (int i = start; i < position; i++) {
+            char c = out.charAt(i);
+            int value = c < 128 ? VIN_VALUES[c] : -1;
+            if (value >= 0) {
+                sum += value * CHECK_WEIGHTS[weight++ % CHECK_WEIGHTS.length];
+            }
+        }
+        return checkChar(sum);
+    }
+
+    private static boolean isVinAlphabet(CharSequence out, int from, int to, int skip) {
+        for (int i = from; i < to; i++) {
+            char c = out.charAt(i);
+            if (i != skip && (c >= 128 || VIN_VALUES[c] < 0)) return false;
+        }
+        return true;
+    }
+
+    private static int vinValue(char c) {
+        int value = c < 128 ? VIN_VALUES[c] : -1;
+        if (value < 0) throw new IllegalArgumentException("'" + c + "' is not allowed in a VIN");
+        return value;
+    }
+
+    private static char checkChar(int sum) {
+        int remainder = sum % 11;
+        return remainder == 10 ? 'X' : (char) ('0' + remainder);
+    }
+}
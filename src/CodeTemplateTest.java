@@ -0,0 +1,139 @@
+// CodeTemplate Test Program - Verify compiled code templates and their use by the coder types
+// Covers fields, escapes, errors, VIN check digits, coder wiring and batch throughput
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+public class CodeTemplateTest {
+
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+        System.out.println("Testing CodeTemplate...");
+        testFields();
+        testVinCheck();
+        testErrors();
+        testCoders();
+        testThroughput();
+        System.out.println("\nAll CodeTemplate checks passed.");
+    }
+
+    private static void testFields() {
+        check(CodeTemplate.compile("{serial:5}").generate(42).equals("00042"), "{serial:5} pads like %05d");
+        check(CodeTemplate.compile("{serial:3}").generate(123456).equals("123456"), "serial wider than the field is not cut");
+        check(CodeTemplate.compile("{serial}").generate(0).equals("0"), "{serial} without width");
+        check(CodeTemplate.compile("{serial:4}").generate(-7).equals("-007"), "negative serial keeps its sign");
+        boolean matchesFormat = true;
+        for (long value : new long[] {0, 9, 10, 99, 100, 1234567, 98765432109L, Long.MAX_VALUE}) {
+            matchesFormat &= CodeTemplate.compile("{serial:8}").generate(value).equals(String.format("%08d", value));
+        }
+        check(matchesFormat, "digit-table padding matches String.format");
+        check(CodeTemplate.compile("{{{serial:2}}}").generate(7).equals("{07}"), "{{ and }} are literal braces");
+        check(CodeTemplate.compile("A{serial:2}") == CodeTemplate.compile("A{serial:2}"), "compiled templates are shared");
+        check(CodeTemplate.compile("SN{serial:2}").usesSerial() && !CodeTemplate.compile("{date:yy}").usesSerial(),
+              "usesSerial reports serial fields");
+
+        Instant instant = Instant.parse("2026-03-05T10:20:30.456Z");
+        LocalDateTime local = LocalDateTime.ofInstant(instant, ZoneId.systemDefault());
+        CodeTemplate.Context context = new CodeTemplate.Context().serial(17).time(instant);
+        String code = CodeTemplate.compile("SN{serial:6}-{date:yyMMdd}/{date:HHmmss.SSS}").generate(context);
+        check(code.equals("SN000017-" + local.format(DateTimeFormatter.ofPattern("yyMMdd")) + "/"
+                          + local.format(DateTimeFormatter.ofPattern("HHmmss.SSS"))), "serial and date fields: " + code);
+        String julian = CodeTemplate.compile("{date:yyDDD}").generate(context);
+        check(julian.equals(String.format("%02d%03d", local.getYear() % 100, local.getDayOfYear())), "{date:yyDDD} is the Julian date");
+        context.time(instant.plusMillis(1));
+        check(CodeTemplate.compile("{date:SSS}").generate(context).equals(local.plusNanos(1_000_000).format(DateTimeFormatter.ofPattern("SSS"))),
+              "fraction patterns refresh every millisecond");
+
+        context.random(new Random(5));
+        String random = CodeTemplate.compile("R{random:8}").generate(context);
+        check(random.matches("R\\d{8}"), "{random:8} gives eight digits: " + random);
+    }
+
+    private static void testVinCheck() {
+        check(CodeTemplate.vinCheckDigit("1HGCM82633A004352") == '3', "VIN check digit 3");
+        check(CodeTemplate.vinCheckDigit("1M8GDM9A0KP042788") == 'X', "VIN check digit X for remainder 10");
+        check(CodeTemplate.isValidVin("11111111111111111") && !CodeTemplate.isValidVin("1HGCM82643A004352"), "VIN validation");
+        check(!CodeTemplate.isValidVin("1HGCM8263IA004352"), "I is not allowed in a VIN");
+
+        String vin = CodeTemplate.compile("1HGCM826{vin.check}3A{serial:6}").generate(4352);
+        check(vin.equals("1HGCM82633A004352"), "{vin.check} at position 9 completes the VIN: " + vin);
+        String code = CodeTemplate.compile("SN{serial:6}-{vin.check}").generate(123);
+        check(code.matches("SN000123-[0-9X]"), "trailing {vin.check} on a code: " + code);
+        check(CodeTemplate.compile("SN{serial:6}-{vin.check}").generate(124).charAt(9) != code.charAt(9),
+              "trailing check digit follows the serial");
+        String lot = CodeTemplate.compile("LOT{serial:4}{vin.check}").generate(17);
+        String odd = CodeTemplate.compile("QIO-ÄB-{serial:2}{vin.check}ABCDEFGH").generate(5);
+        check(lot.matches("LOT0017[0-9X]") && odd.matches("QIO-ÄB-05[0-9X]ABCDEFGH"),
+              "{vin.check} skips characters a VIN cannot hold: " + lot + ", " + odd);
+    }
+
+    private static void testErrors() {
+        String[] bad = {"{serial", "serial}", "{unknown}", "{serial:x}", "{serial:0}", "{date}", "{date:yyyy-MM-dd ppp}"};
+        for (String template : bad) {
+            try {
+                CodeTemplate.compile(template);
+                throw new AssertionError("FAILED: accepted " + template);
+            } catch (IllegalArgumentException e) {
+                check(true, "rejected \"" + template + "\": " + e.getMessage());
+            }
+        }
+    }
+
+    private static void testCoders() {
+        SerialNumberCoder serial = new SerialNumberCoder();
+        serial.useSequence(SerialSequence.inMemory());
+        check(serial.generateCode().equals("01000"), "serial coder default format unchanged");
+        Map<String, Object> config = new HashMap<>();
+        config.put("template", "SN{serial:7}");
+        serial.setConfiguration(config);
+        check(serial.generateCode().equals("SN0001001") && "SN{serial:7}".equals(serial.getConfiguration().get("template")),
+              "serial coder template from configuration");
+        config.put("template", "SN{serial:7");
+        serial.setConfiguration(config);
+        check(serial.getTemplate().equals("SN{serial:7}"), "invalid template keeps the previous one");
+
+        VINCoder vinCoder = new VINCoder();
+        boolean valid = true;
+        for (int i = 0; i < 200; i++) valid &= CodeTemplate.isValidVin(vinCoder.generateCode());
+        check(valid, "VIN coder writes a real check digit");
+
+        DateTimeCoder dateCoder = new DateTimeCoder();
+        check(dateCoder.generateCode().matches("\\d{6}"), "date coder YYMMDD: " + dateCoder.generateCode());
+        config.clear();
+        config.put("selectedFormat", 2);
+        dateCoder.setConfiguration(config);
+        check(dateCoder.generateCode().matches("\\d{5}"), "date coder Julian: " + dateCoder.generateCode());
+    }
+
+    private static void testThroughput() {
+        CodeTemplate template = CodeTemplate.compile("SN{serial:6}-{date:yyMMdd}-{vin.check}");
+        CodeTemplate.Context context = new CodeTemplate.Context();
+        StringBuilder out = new StringBuilder();
+        long checksum = 0;
+        for (int warmup = 0; warmup < 200_000; warmup++) {
+            out.setLength(0);
+            template.appendTo(out, context.serial(warmup));
+            checksum += out.charAt(out.length() - 1);
+        }
+        int count = 1_000_000;
+        long start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            checksum += template.generate(i).length();
+        }
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        System.out.println("  " + count + " codes in " + millis + " ms (checksum " + checksum + ")");
+        check(millis < 1000, "a million codes in under a second");
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError("FAILED: " + message);
+        }
+        System.out.println("✓ " + message);
+    }
+}
@@ -0,0 +1,225 @@
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * CycleTimeEstimator: predicts marking cycle time from a compiled DotPath.
+ *
+ * Every dot is a rest-to-rest move of the pin head followed by the strike dwell
+ * (pen down + pen up delay). Moves use a jerk-limited S-curve profile bounded by
+ * maximum velocity, acceleration and jerk, solved in closed form per move so a
+ * full layout is estimated in a few milliseconds:
+ *
+ *   CycleTimeEstimator.Estimate e = CycleTimeEstimator.forSpeed("Fast")
+ *       .setPenDownDelayMillis(80)
+ *       .estimate(canvas.compileDotPath());
+ *   e.getTotalSeconds();
+ */
+public class CycleTimeEstimator {
+
+    // Soft coding: Default machine kinematics (millimetres, seconds)
+    public static final double DEFAULT_MAX_VELOCITY = 100.0;        // mm/s
+    public static final double DEFAULT_MAX_ACCELERATION = 2000.0;   // mm/s²
+    public static final double DEFAULT_MAX_JERK = 50000.0;          // mm/s³
+    public static final double DEFAULT_PEN_DOWN_DELAY_MS = 100.0;   // Matches PrintPanel default
+    public static final double DEFAULT_PEN_UP_DELAY_MS = 0.0;
+    private static final double MIN_MOVE_MM = 1e-6;                 // Shorter moves cost nothing
+
+    // Soft coding: Speed presets used by the marking panels (velocity, acceleration, jerk)
+    private static final Map<String, double[]> SPEED_PRESETS = new LinkedHashMap<>();
+    static {
+        SPEED_PRESETS.put("Slow", new double[]{50.0, 1000.0, 25000.0});
+        SPEED_PRESETS.put("Medium", new double[]{DEFAULT_MAX_VELOCITY, DEFAULT_MAX_ACCELERATION, DEFAULT_MAX_JERK});
+        SPEED_PRESETS.put("Fast", new double[]{200.0, 4000.0, 100000.0});
+    }
+
+    private double maxVelocity = DEFAULT_MAX_VELOCITY;
+    private double maxAcceleration = DEFAULT_MAX_ACCELERATION;
+    private double maxJerk = DEFAULT_MAX_JERK;
+    private double penDownDelayMillis = DEFAULT_PEN_DOWN_DELAY_MS;
+    private double penUpDelayMillis = DEFAULT_PEN_UP_DELAY_MS;
+    private double pixelsPerMm = DotPath.PIXELS_PER_MM;
+    private int passes = 1;
+    private boolean returnHome = true;
+    private double homeX = 0;
+    private double homeY = 0;
+
+    /**
+     * Estimator configured from a marking speed preset ("Slow", "Medium", "Fast");
+     * unknown names fall back to the defaults.
+     */
+    public static CycleTimeEstimator forSpeed(String speed) {
+        CycleTimeEstimator estimator = new CycleTimeEstimator();
+        double[] preset = speed != null ? SPEED_PRESETS.get(speed) : null;
+        if (preset != null) {
+            estimator.setMaxVelocity(preset[0]).setMaxAcceleration(preset[1]).setMaxJerk(preset[2]);
+        }
+        return estimator;
+    }
+
+    // ==================== CONFIGURATION ====================
+
+    public CycleTimeEstimator setMaxVelocity(double mmPerSecond) { this.maxVelocity = Math.max(1e-3, mmPerSecond); return this; }
+    public CycleTimeEstimator setMaxAcceleration(double mmPerSecond2) { this.maxAcceleration = Math.max(1e-3, mmPerSecond2); return this; }
+    public CycleTimeEstimator setMaxJerk(double mmPerSecond3) { this.maxJerk = Math.max(1e-3, mmPerSecond3); return this; }
+    public CycleTimeEstimator setPenDownDelayMillis(double millis) { this.penDownDelayMillis = Math.max(0, millis); return this; }
+    public CycleTimeEstimator setPenUpDelayMillis(double millis) { this.penUpDelayMillis = Math.max(0, millis); return this; }
+    public CycleTimeEstimator setPixelsPerMm(double pixelsPerMm) { this.pixelsPerMm = pixelsPerMm; return this; }
+    public CycleTimeEstimator setPasses(int passes) { this.passes = Math.max(1, passes); return this; }
+    public CycleTimeEstimator setReturnHome(boolean returnHome) { this.returnHome = returnHome; return this; }
+
+    /**
+     * Machine home position in canvas pixels.
+     */
+    public CycleTimeEstimator setHome(double x, double y) {
+        this.homeX = x;
+        this.homeY = y;
+        return this;
+    }
+
+    // ==================== ESTIMATION ====================
+
+    /**
+     * Cycle time breakdown for one estimated path.
+     */
+    public static class Estimate {
+        private final DotPath path;
+        private final double[] sectionSeconds;
+        private final double motionSeconds;
+        private final double dwellSeconds;
+        private final double returnSeconds;
+        private final double travelMm;
+        private final int passes;
+
+        Estimate(DotPath path, double[] sectionSeconds, double motionSeconds, double dwellSeconds,
+                 double returnSeconds, double travelMm, int passes) {
+            this.path = path;
+            this.sectionSeconds = sectionSeconds;
+            this.motionSeconds = motionSeconds;
+            this.dwellSeconds = dwellSeconds;
+            this.returnSeconds = returnSeconds;
+            this.travelMm = travelMm;
+            this.passes = passes;
+        }
+
+        /** Total cycle time including all passes and the final return home. */
+        public double getTotalSeconds() { return (motionSeconds + dwellSeconds) * passes + returnSeconds; }
+        public double getMotionSeconds() { return motionSeconds * passes; }
+        public double getDwellSeconds() { return dwellSeconds * passes; }
+        public double getReturnSeconds() { return returnSeconds; }
+        public double getTravelMm() { return travelMm * passes; }
+        public int getDotCount() { return path.size() * passes; }
+        public int getPasses() { return passes; }
+
+        /** Time for one pass of section m of the path (moves into its dots plus dwell). */
+        public double getSectionSeconds(int m) { return sectionSeconds[m]; }
+
+        /**
+         * Per-mark cycle time over all passes, in first-visit order. Marks split into
+         * several sections by path optimisation are summed.
+         */
+        public Map<Mark, Double> getMarkSeconds() {
+            Map<Mark, Double> result = new LinkedHashMap<>();
+            for (int m = 0; m < sectionSeconds.length; m++) {
+                result.merge(path.getMark(m), sectionSeconds[m] * passes, Double::sum);
+            }
+            return result;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Cycle time %.2f s (motion %.2f s, dwell %.2f s, %d dots, %.1f mm travel)",
+                getTotalSeconds(), getMotionSeconds(), getDwellSeconds(), getDotCount(), getTravelMm());
+        }
+    }
+
+    public Estimate estimate(DotPath path) {
+        double dwell = (penDownDelayMillis + penUpDelayMillis) / 1000.0;
+        double[] sectionSeconds = new double[path.getMarkCount()];
+        double[] coords = path.getCoords();
+        double motion = 0;
+        double travel = 0;
+        double curX = homeX, curY = homeY;
+
+        int section = -1;
+        int nextSectionStart = path.getMarkCount() > 0 ? path.getMarkStart(0) : Integer.MAX_VALUE;
+        for (int i = 0; i < path.size(); i++) {
+            while (i == nextSectionStart) {
+                section++;
+                nextSectionStart = section + 1 < path.getMarkCount() ? path.getMarkStart(section + 1) : Integer.MAX_VALUE;
+            }
+            double x = coords[i * 2], y = coords[i * 2 + 1];
+            double distance = Math.hypot(x - curX, y - curY) / pixelsPerMm;
+            double moveTime = moveTime(distance);
+            motion += moveTime;
+            travel += distance;
+            if (section >= 0) {
+                sectionSeconds[section] += moveTime + dwell;
+            }
+            curX = x;
+            curY = y;
+        }
+
+        double returnSeconds = 0;
+        if (returnHome && path.size() > 0) {
+            returnSeconds = moveTime(Math.hypot(curX - homeX, curY - homeY) / pixelsPerMm);
+        }
+        // Later passes start from the last dot instead of home
+        double passReposition = 0;
+        if (passes > 1 && path.size() > 0) {
+            double firstFromHome = moveTime(Math.hypot(coords[0] - homeX, coords[1] - homeY) / pixelsPerMm);
+            double firstFromLast = moveTime(Math.hypot(coords[0] - curX, coords[1] - curY) / pixelsPerMm);
+            passReposition = (firstFromLast - firstFromHome) * (passes - 1);
+        }
+        return new Estimate(path, sectionSeconds, motion, path.size() * dwell,
+            returnSeconds + passReposition, travel, passes);
+    }
+
+    /**
+     * Minimum time for a rest-to-rest move of the given length under the
+     * velocity, acceleration and jerk limits (symmetric S-curve profile).
+     */
+    public double moveTime(double distanceMm) {
+        if (distanceMm < MIN_MOVE_MM) {
+            return 0;
+        }
+        double v = maxVelocity, a = maxAcceleration, j = maxJerk;
+
+        // Acceleration phase to full speed: jerk ramps of tj, constant-acceleration time ta
+        double tj = Math.min(a / j, Math.sqrt(v / j));
+        double ta = Math.max(0, v / (j * tj) - tj);
+        double accelTime = 2 * tj + ta;
+        double accelDistance = v * accelTime;    // Accelerate and decelerate, average speed v/2 each
+
+        if (distanceMm >= accelDistance) {
+            return 2 * accelTime + (distanceMm - accelDistance) / v;
+        }
+
+        // Cruise speed not reached: solve for peak velocity
+        double peak;
+        if (v * j > a * a) {
+            // Try a profile that still reaches maximum acceleration
+            double c = a / j;
+            peak = (-c + Math.sqrt(c * c + 4 * distanceMm / a)) * a / 2;
+            if (peak >= a * a / j) {
+                return 2 * (peak / a + c);
+            }
+        }
+        // Pure jerk-limited triangle in acceleration
+        peak = Math.pow(distanceMm * Math.sqrt(j) / 2, 2.0 / 3.0);
+        return 4 * Math.sqrt(peak / j);
+    }
+
+    /**
+     * Human readable duration, e.g. "42.3 s" or "3 min 05 s".
+     */
+    public static String formatDuration(double seconds) {
+        if (seconds < 60) {
+            return String.format("%.1f s", seconds);
+        }
+        long whole = Math.round(seconds);
+        if (whole < 3600) {
+            return String.format("%d min %02d s", whole / 60, whole % 60);
+        }
+        return String.format("%d h %02d min", whole / 3600, (whole % 3600) / 60);
+    }
+}
@@ -0,0 +1,70 @@
+// CycleTimeEstimator Test Program - Verify the kinematic cycle time model
+// Checks S-curve move times, dwell accounting and per-mark breakdown
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+public class CycleTimeEstimatorTest {
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+        System.out.println("Testing CycleTimeEstimator...");
+
+        CycleTimeEstimator estimator = new CycleTimeEstimator()
+            .setMaxVelocity(100).setMaxAcceleration(2000).setMaxJerk(50000);
+
+        // Long move: accel phase 0.09 s covers 9 mm, remaining 91 mm cruise at 100 mm/s
+        check(Math.abs(estimator.moveTime(100) - (0.18 + 0.91)) < 1e-9, "long move cruises at max velocity");
+        check(estimator.moveTime(0) == 0, "zero move costs nothing");
+
+        // Move time is continuous and increasing across profile boundaries
+        double previous = 0;
+        boolean monotonic = true;
+        for (double d = 0.001; d < 20; d += 0.001) {
+            double t = estimator.moveTime(d);
+            if (t < previous - 1e-12 || t - previous > 0.01) monotonic = false;
+            previous = t;
+        }
+        check(monotonic, "move time continuous and monotonic");
+
+        // Dwell and per-mark breakdown
+        List<Mark> marks = new ArrayList<>();
+        marks.add(new TextMark(50, 50, "SN-000123"));
+        marks.add(new DotMatrixMark(400, 50, "MFR123456"));
+        DotPath path = DotPathCompiler.compileMarks(marks);
+        CycleTimeEstimator.Estimate estimate = new CycleTimeEstimator()
+            .setPenDownDelayMillis(100).setReturnHome(false).estimate(path);
+        check(Math.abs(estimate.getDwellSeconds() - path.size() * 0.1) < 1e-9, "pen down delay applied per dot");
+        double markSum = 0;
+        for (Map.Entry<Mark, Double> entry : estimate.getMarkSeconds().entrySet()) {
+            markSum += entry.getValue();
+        }
+        check(Math.abs(markSum - estimate.getTotalSeconds()) < 1e-9, "per-mark times add up to total");
+
+        // Optimised layout is never slower to mark
+        DotPath optimized = DotPathOptimizer.optimizePath(path).path;
+        double before = estimator.estimate(path).getTotalSeconds();
+        double after = estimator.estimate(optimized).getTotalSeconds();
+        System.out.println("Layout: " + estimator.estimate(path));
+        System.out.println("Optimised: " + estimator.estimate(optimized));
+        check(after <= before + 1e-9, "optimised path not slower");
+
+        // A large plate estimates in a few milliseconds
+        DotPath plate = new DotPath();
+        for (int i = 0; i < 50; i++) plate.append(path);
+        estimator.estimate(plate); // warm up
+        long start = System.nanoTime();
+        CycleTimeEstimator.Estimate big = estimator.estimate(plate);
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        System.out.println(big.getDotCount() + " dots estimated in " + elapsedMs + " ms");
+
+        System.out.println("\nAll CycleTimeEstimator checks passed.");
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError("FAILED: " + message);
+        }
+        System.out.println("✓ " + message);
+    }
+}
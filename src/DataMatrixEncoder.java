@@ -0,0 +1,592 @@
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * DataMatrixEncoder: ECC200 Data Matrix symbols per ISO/IEC 16022.
+ *
+ * Data is encoded in the shortest of several candidate codeword streams built from ASCII
+ * (with digit pairs), C40, Text and Base256 segments, placed in the smallest square (or
+ * rectangular) symbol that holds it, padded, protected with Reed-Solomon blocks over
+ * GF(256) (log/antilog tables built once) and laid out with the standard module placement
+ * and finder/timing patterns. Results are kept in an LRU cache keyed by data and size, so
+ * marks that re-encode on every setData() during serial runs mostly hit the cache.
+ *
+ * Characters above 255 are not in the default ISO-8859-1 character set; such data is
+ * encoded as UTF-8 bytes (no ECI), which most readers display correctly.
+ */
+public final class DataMatrixEncoder {
+
+    // Soft coding: Cache size
+    public static final int CACHE_SIZE = 512;                 // Distinct (data, size) symbols kept
+
+    // Symbol sizes (ISO/IEC 16022 Table 7):
+    // rows, columns, data region rows, data region columns, data codewords, error codewords, interleaved blocks
+    private static final int[][] SQUARE_SYMBOLS = {
+        {10, 10, 8, 8, 3, 5, 1},         {12, 12, 10, 10, 5, 7, 1},       {14, 14, 12, 12, 8, 10, 1},
+        {16, 16, 14, 14, 12, 12, 1},     {18, 18, 16, 16, 18, 14, 1},     {20, 20, 18, 18, 22, 18, 1},
+        {22, 22, 20, 20, 30, 20, 1},     {24, 24, 22, 22, 36, 24, 1},     {26, 26, 24, 24, 44, 28, 1},
+        {32, 32, 14, 14, 62, 36, 1},     {36, 36, 16, 16, 86, 42, 1},     {40, 40, 18, 18, 114, 48, 1},
+        {44, 44, 20, 20, 144, 56, 1},    {48, 48, 22, 22, 174, 68, 1},    {52, 52, 24, 24, 204, 84, 2},
+        {64, 64, 14, 14, 280, 112, 2},   {72, 72, 16, 16, 368, 144, 4},   {80, 80, 18, 18, 456, 192, 4},
+        {88, 88, 20, 20, 576, 224, 4},   {96, 96, 22, 22, 696, 272, 4},   {104, 104, 24, 24, 816, 336, 6},
+        {120, 120, 18, 18, 1050, 408, 6}, {132, 132, 20, 20, 1304, 496, 8}, {144, 144, 22, 22, 1558, 620, 10}
+    };
+    private static final int[][] RECTANGULAR_SYMBOLS = {
+        {8, 18, 6, 16, 5, 7, 1},     {8, 32, 6, 14, 10, 11, 1},   {12, 26, 10, 24, 16, 14, 1},
+        {12, 36, 10, 16, 22, 18, 1}, {16, 36, 14, 16, 32, 24, 1}, {16, 48, 14, 22, 49, 28, 1}
+    };
+    private static final int ROWS = 0, COLUMNS = 1, REGION_ROWS = 2, REGION_COLUMNS = 3,
+                             DATA_CODEWORDS = 4, ERROR_CODEWORDS = 5, BLOCKS = 6;
+
+    // Codewords
+    private static final int PAD = 129;
+    private static final int DIGIT_PAIR_BASE = 130;
+    private static final int LATCH_C40 = 230;
+    private static final int LATCH_BASE256 = 231;
+    private static final int UPPER_SHIFT = 235;
+    private static final int LATCH_TEXT = 239;
+    private static final int UNLATCH = 254;
+
+    // C40/Text shift sets
+    private static final int SHIFT_1 = 0, SHIFT_2 = 1, SHIFT_3 = 2;
+    private static final int UPPER_SHIFT_VALUE = 30;   // In shift set 2
+
+    // GF(256) with the Data Matrix field polynomial x^8 + x^5 + x^3 + x^2 + 1
+    private static final int FIELD_POLYNOMIAL = 0x12D;
+    private static final int[] EXP = new int[512];
+    private static final int[] LOG = new int[256];
+    private static final int[][] GENERATORS = new int[69][];   // By error codewords per block (max 68)
+
+    static {
+        int value = 1;
+        for (int i = 0; i < 255; i++) {
+            EXP[i] = value;
+            LOG[value] = i;
+            value <<= 1;
+            if (value >= 256) value ^= FIELD_POLYNOMIAL;
+        }
+        for (int i = 255; i < EXP.length; i++) EXP[i] = EXP[i - 255];
+    }
+
+    private static final Map<String, boolean[][]> CACHE = new LinkedHashMap<String, boolean[][]>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, boolean[][]> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    private DataMatrixEncoder() {
+    }
+
+    // ==================== PUBLIC API ====================
+
+    /**
+     * Encode data into a symbol of at least minimumRows rows (0 = smallest that fits).
+     * Returns matrix[row][column], true = dark module, finder pattern included, no quiet zone.
+     * The array is shared through the cache and must not be modified.
+     *
+     * @throws IllegalArgumentException when the data does not fit the largest symbol
+     */
+    public static boolean[][] encode(String data, int minimumRows, boolean rectangular) {
+        String key = minimumRows + (rectangular ? "R" : "S") + ':' + data;
+        synchronized (CACHE) {
+            boolean[][] cached = CACHE.get(key);
+            if (cached != null) return cached;
+        }
+        boolean[][] matrix = encodeUncached(data, minimumRows, rectangular);
+        synchronized (CACHE) {
+            CACHE.put(key, matrix);
+        }
+        return matrix;
+    }
+
+    /** True for the square sizes ECC200 defines (10 to 144). */
+    public static boolean isSquareSize(int size) {
+        for (int[] symbol : SQUARE_SYMBOLS) {
+            if (symbol[ROWS] == size) return true;
+        }
+        return false;
+    }
+
+    static boolean[][] encodeUncached(String data, int minimumRows, boolean rectangular) {
+        byte[] bytes = toBytes(data);
+        Codewords stream = encodeData(bytes);
+        int[] symbol = selectSymbol(stream, minimumRows, rectangular);
+        if (symbol == null) {
+            throw new IllegalArgumentException("Data too long for a Data Matrix symbol (" + stream.length + " codewords, max "
+                + SQUARE_SYMBOLS[SQUARE_SYMBOLS.length - 1][DATA_CODEWORDS] + ")");
+        }
+        int[] codewords = new int[symbol[DATA_CODEWORDS] + symbol[ERROR_CODEWORDS]];
+        int length = stream.length;
+        if (stream.trailingUnlatch && length - 1 == symbol[DATA_CODEWORDS]) length--;   // Symbol full: unlatch implied
+        System.arraycopy(stream.values, 0, codewords, 0, length);
+        pad(codewords, length, symbol[DATA_CODEWORDS]);
+        addErrorCorrection(codewords, symbol);
+        return layout(codewords, symbol);
+    }
+
+    private static byte[] toBytes(String data) {
+        for (int i = 0; i < data.length(); i++) {
+            if (data.charAt(i) > 255) return data.getBytes(StandardCharsets.UTF_8);
+        }
+        return data.getBytes(StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Smallest symbol of the requested shape that holds the stream and has at least
+     * minimumRows rows; rectangular requests fall back to square symbols when too long.
+     */
+    private static int[] selectSymbol(Codewords stream, int minimumRows, boolean rectangular) {
+        int needed = stream.trailingUnlatch ? stream.length - 1 : stream.length;
+        if (rectangular) {
+            for (int[] symbol : RECTANGULAR_SYMBOLS) {
+                if (symbol[ROWS] >= minimumRows && fits(stream, needed, symbol)) return symbol;
+            }
+        }
+        for (int[] symbol : SQUARE_SYMBOLS) {
+            if (symbol[ROWS] >= minimumRows && fits(stream, needed, symbol)) return symbol;
+        }
+        return null;
+    }
+
+    private static boolean fits(Codewords stream, int needed, int[] symbol) {
+        int capacity = symbol[DATA_CODEWORDS];
+        return capacity == needed || capacity >= stream.length;
+    }
+
+    // ==================== DATA ENCODATION ====================
+
+    /** Growable codeword list; trailingUnlatch marks a final C40/Text unlatch that may be dropped. */
+    static class Codewords {
+        int[] values = new int[32];
+        int length;
+        boolean trailingUnlatch;
+
+        void add(int value) {
+            if (length == values.length) values = Arrays.copyOf(values, length * 2);
+            values[length++] = value;
+            trailingUnlatch = false;
+        }
+    }
+
+    /**
+     * Shortest of: plain ASCII, whole-message C40 and Text, run-segmented C40/Text/Base256
+     * mixed with ASCII, and whole-message Base256.
+     */
+    static Codewords encodeData(byte[] bytes) {
+        Codewords best = new Codewords();
+        encodeAscii(bytes, 0, bytes.length, best);
+        Codewords[] candidates = {
+            encodeWhole(bytes, false), encodeWhole(bytes, true),
+            encodeSegmented(bytes, false), encodeSegmented(bytes, true), encodeBase256Whole(bytes)
+        };
+        for (Codewords candidate : candidates) {
+            if (effectiveLength(candidate) < effectiveLength(best)) best = candidate;
+        }
+        return best;
+    }
+
+    private static int effectiveLength(Codewords codewords) {
+        return codewords.trailingUnlatch ? codewords.length - 1 : codewords.length;
+    }
+
+    private static Codewords encodeWhole(byte[] bytes, boolean text) {
+        Codewords out = new Codewords();
+        int end = encodeC40(bytes, 0, bytes.length, text, out);
+        encodeAscii(bytes, end, bytes.length, out);
+        return out;
+    }
+
+    private static Codewords encodeBase256Whole(byte[] bytes) {
+        Codewords out = new Codewords();
+        encodeBase256(bytes, 0, bytes.length, out);
+        return out;
+    }
+
+    /**
+     * Runs of characters that cost one value in C40 (or Text) go to that mode, runs of
+     * extended characters to Base256, when that is shorter than ASCII; the rest is ASCII.
+     */
+    private static Codewords encodeSegmented(byte[] bytes, boolean text) {
+        Codewords out = new Codewords();
+        int i = 0;
+        while (i < bytes.length) {
+            int c = bytes[i] & 0xFF;
+            int end = i;
+            if (isBasic(c, text)) {
+                while (end < bytes.length && isBasic(bytes[end] & 0xFF, text)) end++;
+                Codewords trial = new Codewords();
+                int c40End = encodeC40(bytes, i, end, text, trial);
+                if (c40End > i && trial.length + asciiLength(bytes, c40End, end) < asciiLength(bytes, i, end)) {
+                    encodeC40(bytes, i, end, text, out);
+                    encodeAscii(bytes, c40End, end, out);
+                    i = end;
+                    continue;
+                }
+            } else if (c >= 128) {
+                while (end < bytes.length && (bytes[end] & 0xFF) >= 128) end++;
+                int length = end - i;
+                if (2 + (length > 249 ? 1 : 0) + length < 2 * length) {
+                    encodeBase256(bytes, i, end, out);
+                    i = end;
+                    continue;
+                }
+            }
+            // Not worth a mode switch: this run (or single character) in ASCII
+            end = Math.max(end, i + 1);
+            encodeAscii(bytes, i, end, out);
+            i = end;
+        }
+        return out;
+    }
+
+    private static boolean isDigit(byte b) {
+        return b >= '0' && b <= '9';
+    }
+
+    private static boolean isBasic(int c, boolean text) {
+        return c == ' ' || (c >= '0' && c <= '9') || (text ? (c >= 'a' && c <= 'z') : (c >= 'A' && c <= 'Z'));
+    }
+
+    private static void encodeAscii(byte[] bytes, int from, int to, Codewords out) {
+        for (int i = from; i < to; i++) {
+            int c = bytes[i] & 0xFF;
+            if (i + 1 < to && isDigit(bytes[i]) && isDigit(bytes[i + 1])) {
+                out.add(DIGIT_PAIR_BASE + (c - '0') * 10 + (bytes[i + 1] - '0'));
+                i++;
+            } else if (c < 128) {
+                out.add(c + 1);
+            } else {
+                out.add(UPPER_SHIFT);
+                out.add(c - 127);
+            }
+        }
+    }
+
+    private static int asciiLength(byte[] bytes, int from, int to) {
+        int length = 0;
+        for (int i = from; i < to; i++) {
+            if (i + 1 < to && isDigit(bytes[i]) && isDigit(bytes[i + 1])) i++;
+            else if ((bytes[i] & 0xFF) >= 128) length++;
+            length++;
+        }
+        return length;
+    }
+
+    /**
+     * C40 (or Text) segment for bytes[from, to): latch, triplets, unlatch. Trailing characters
+     * that would leave a single value in the last triplet are left for ASCII; two leftover
+     * values are padded with Shift 1. Returns the end of the characters actually encoded.
+     */
+    private static int encodeC40(byte[] bytes, int from, int to, boolean text, Codewords out) {
+        int[] values = new int[(to - from) * 4 + 1];   // Up to 4 values per character, plus a pad
+        int[] charEnds = new int[to - from];
+        int count = 0;
+        for (int i = from; i < to; i++) {
+            count = c40Values(bytes[i] & 0xFF, text, values, count);
+            charEnds[i - from] = count;
+        }
+        int end = to;
+        while (end > from && count % 3 == 1) {
+            end--;
+            count = end > from ? charEnds[end - from - 1] : 0;
+        }
+        if (end == from) return from;
+        if (count % 3 == 2) values[count++] = SHIFT_1;
+
+        out.add(text ? LATCH_TEXT : LATCH_C40);
+        for (int i = 0; i < count; i += 3) {
+            int packed = 1600 * values[i] + 40 * values[i + 1] + values[i + 2] + 1;
+            out.add(packed >> 8);
+            out.add(packed & 0xFF);
+        }
+        out.add(UNLATCH);
+        out.trailingUnlatch = true;
+        return end;
+    }
+
+    private static int c40Values(int c, boolean text, int[] values, int count) {
+        if (c >= 128) {
+            values[count++] = SHIFT_2;
+            values[count++] = UPPER_SHIFT_VALUE;
+            return c40Values(c - 128, text, values, count);
+        }
+        if (c == ' ') {
+            values[count++] = 3;
+        } else if (c >= '0' && c <= '9') {
+            values[count++] = c - '0' + 4;
+        } else if (c >= 'A' && c <= 'Z') {
+            if (!text) {
+                values[count++] = c - 'A' + 14;
+            } else {
+                values[count++] = SHIFT_3;
+                values[count++] = c - 'A' + 1;
+            }
+        } else if (c >= 'a' && c <= 'z') {
+            if (text) {
+                values[count++] = c - 'a' + 14;
+            } else {
+                values[count++] = SHIFT_3;
+                values[count++] = c - 'a' + 1;
+            }
+        } else if (c < 32) {
+            values[count++] = SHIFT_1;
+            values[count++] = c;
+        } else if (c <= 47) {
+            values[count++] = SHIFT_2;
+            values[count++] = c - 33;
+        } else if (c <= 64) {
+            values[count++] = SHIFT_2;
+            values[count++] = c - 58 + 15;
+        } else if (c <= 95) {
+            values[count++] = SHIFT_2;
+            values[count++] = c - 91 + 22;
+        } else if (c == 96) {
+            values[count++] = SHIFT_3;
+            values[count++] = 0;
+        } else {
+            values[count++] = SHIFT_3;
+            values[count++] = c - 123 + 27;
+        }
+        return count;
+    }
+
+    /**
+     * Base256 segment: latch, length field, bytes; all after the latch use the 255-state
+     * randomising algorithm on their codeword position. Returns to ASCII afterwards.
+     */
+    private static void encodeBase256(byte[] bytes, int from, int to, Codewords out) {
+        int length = to - from;
+        out.add(LATCH_BASE256);
+        if (length <= 249) {
+            out.add(randomize255(length, out.length + 1));
+        } else {
+            out.add(randomize255(length / 250 + 249, out.length + 1));
+            out.add(randomize255(length % 250, out.length + 1));
+        }
+        for (int i = from; i < to; i++) {
+            out.add(randomize255(bytes[i] & 0xFF, out.length + 1));
+        }
+    }
+
+    private static int randomize255(int value, int position) {
+        int randomized = value + ((149 * position) % 255) + 1;
+        return randomized <= 255 ? randomized : randomized - 256;
+    }
+
+    /** First pad is 129, the rest use the 253-state randomising algorithm. */
+    private static void pad(int[] codewords, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (i == from) {
+                codewords[i] = PAD;
+            } else {
+                int randomized = PAD + ((149 * (i + 1)) % 253) + 1;
+                codewords[i] = randomized <= 254 ? randomized : randomized - 254;
+            }
+        }
+    }
+
+    // ==================== REED-SOLOMON ====================
+
+    /**
+     * Append error codewords. Data codeword i belongs to block i % blocks; error codeword j of
+     * block b is stored at dataCodewords + b + j * blocks.
+     */
+    static void addErrorCorrection(int[] codewords, int[] symbol) {
+        int dataCodewords = symbol[DATA_CODEWORDS];
+        int blocks = symbol[BLOCKS];
+        int errorPerBlock = symbol[ERROR_CODEWORDS] / blocks;
+        int[] generator = generator(errorPerBlock);
+        int[] remainder = new int[errorPerBlock];
+        for (int block = 0; block < blocks; block++) {
+            Arrays.fill(remainder, 0);
+            for (int i = block; i < dataCodewords; i += blocks) {
+                int factor = codewords[i] ^ remainder[0];
+                System.arraycopy(remainder, 1, remainder, 0, errorPerBlock - 1);
+                remainder[errorPerBlock - 1] = 0;
+                if (factor != 0) {
+                    int logFactor = LOG[factor];
+                    for (int k = 0; k < errorPerBlock; k++) {
+                        if (generator[k + 1] != 0) remainder[k] ^= EXP[logFactor + LOG[generator[k + 1]]];
+                    }
+                }
+            }
+            for (int j = 0; j < errorPerBlock; j++) {
+                codewords[dataCodewords + block + j * blocks] = remainder[j];
+            }
+        }
+    }
+
+    /** Generator polynomial (x - a^1)...(x - a^n), highest degree first. */
+    private static synchronized int[] generator(int degree) {
+        if (GENERATORS[degree] == null) {
+            int[] poly = {1};
+            for (int i = 1; i <= degree; i++) {
+                int[] next = new int[poly.length + 1];
+                for (int j = 0; j < poly.length; j++) {
+                    next[j] ^= poly[j];
+                    if (poly[j] != 0) next[j + 1] ^= EXP[LOG[poly[j]] + i];
+                }
+                poly = next;
+            }
+            GENERATORS[degree] = poly;
+        }
+        return GENERATORS[degree];
+    }
+
+    // ==================== MODULE PLACEMENT ====================
+
+    /**
+     * Standard ECC200 placement of the codewords into the data area, then the data regions
+     * are framed with their finder (solid left/bottom) and timing (alternating top/right) edges.
+     */
+    static boolean[][] layout(int[] codewords, int[] symbol) {
+        int regionRows = symbol[REGION_ROWS], regionColumns = symbol[REGION_COLUMNS];
+        int verticalRegions = symbol[ROWS] / (regionRows + 2);
+        int horizontalRegions = symbol[COLUMNS] / (regionColumns + 2);
+        Placement placement = new Placement(codewords, verticalRegions * regionRows, horizontalRegions * regionColumns);
+        placement.place();
+
+        boolean[][] matrix = new boolean[symbol[ROWS]][symbol[COLUMNS]];
+        for (int row = 0; row < symbol[ROWS]; row++) {
+            int regionRow = row % (regionRows + 2);
+            for (int column = 0; column < symbol[COLUMNS]; column++) {
+                int regionColumn = column % (regionColumns + 2);
+                boolean dark;
+                if (regionRow == regionRows + 1) dark = true;                      // Bottom finder edge
+                else if (regionColumn == 0) dark = true;                           // Left finder edge
+                else if (regionRow == 0) dark = column % 2 == 0;                   // Top timing edge
+                else if (regionColumn == regionColumns + 1) dark = row % 2 == 1;   // Right timing edge
+                else {
+                    int dataRow = (row / (regionRows + 2)) * regionRows + regionRow - 1;
+                    int dataColumn = (column / (regionColumns + 2)) * regionColumns + regionColumn - 1;
+                    dark = placement.bits[dataRow * placement.columns + dataColumn] == 1;
+                }
+                matrix[row][column] = dark;
+            }
+        }
+        return matrix;
+    }
+
+    /** ISO/IEC 16022 Annex F placement ("utah" shapes and the four corner cases). */
+    static class Placement {
+        final int[] codewords;
+        final int rows;
+        final int columns;
+        final byte[] bits;   // -1 = not yet placed
+        int[] sources;       // Optional: codeword position * 8 + bit index per module, for reading symbols back
+
+        Placement(int[] codewords, int rows, int columns) {
+            this.codewords = codewords;
+            this.rows = rows;
+            this.columns = columns;
+            this.bits = new byte[rows * columns];
+            Arrays.fill(bits, (byte) -1);
+        }
+
+        void place() {
+            int position = 0;
+            int row = 4;
+            int column = 0;
+            do {
+                if (row == rows && column == 0) corner1(position++);
+                if (row == rows - 2 && column == 0 && columns % 4 != 0) corner2(position++);
+                if (row == rows - 2 && column == 0 && columns % 8 == 4) corner3(position++);
+                if (row == rows + 4 && column == 2 && columns % 8 == 0) corner4(position++);
+                do {   // Sweep up and right
+                    if (row < rows && column >= 0 && bits[row * columns + column] < 0) utah(row, column, position++);
+                    row -= 2;
+                    column += 2;
+                } while (row >= 0 && column < columns);
+                row++;
+                column += 3;
+                do {   // Sweep down and left
+                    if (row >= 0 && column < columns && bits[row * columns + column] < 0) utah(row, column, position++);
+                    row += 2;
+                    column -= 2;
+                } while (row < rows && column >= 0);
+                row += 3;
+                column++;
+            } while (row < rows || column < columns);
+
+            // Unused lower right corner gets the fixed pattern
+            if (bits[rows * columns - 1] < 0) {
+                bits[rows * columns - 1] = 1;
+                bits[(rows - 1) * columns - 2] = 1;
+                bits[rows * columns - 2] = 0;
+                bits[(rows - 1) * columns - 1] = 0;
+            }
+        }
+
+        private void module(int row, int column, int position, int bit) {
+            if (row < 0) {
+                row += rows;
+                column += 4 - ((rows + 4) % 8);
+            }
+            if (column < 0) {
+                column += columns;
+                row += 4 - ((columns + 4) % 8);
+            }
+            int value = position < codewords.length ? codewords[position] : 0;
+            if (sources != null) sources[row * columns + column] = position * 8 + bit - 1;
+            bits[row * columns + column] = (byte) ((value & (1 << (8 - bit))) != 0 ? 1 : 0);
+        }
+
+        private void utah(int row, int column, int position) {
+            module(row - 2, column - 2, position, 1);
+            module(row - 2, column - 1, position, 2);
+            module(row - 1, column - 2, position, 3);
+            module(row - 1, column - 1, position, 4);
+            module(row - 1, column, position, 5);
+            module(row, column - 2, position, 6);
+            module(row, column - 1, position, 7);
+            module(row, column, position, 8);
+        }
+
+        private void corner1(int position) {
+            module(rows - 1, 0, position, 1);
+            module(rows - 1, 1, position, 2);
+            module(rows - 1, 2, position, 3);
+            module(0, columns - 2, position, 4);
+            module(0, columns - 1, position, 5);
+            module(1, columns - 1, position, 6);
+            module(2, columns - 1, position, 7);
+            module(3, columns - 1, position, 8);
+        }
+
+        private void corner2(int position) {
+            module(rows - 3, 0, position, 1);
+            module(rows - 2, 0, position, 2);
+            module(rows - 1, 0, position, 3);
+            module(0, columns - 4, position, 4);
+            module(0, columns - 3, position, 5);
+            module(0, columns - 2, position, 6);
+            module(0, columns - 1, position, 7);
+            module(1, columns - 1, position, 8);
+        }
+
+        private void corner3(int position) {
+            module(rows - 3, 0, position, 1);
+            module(rows - 2, 0, position, 2);
+            module(rows - 1, 0, position, 3);
+            module(0, columns - 2, position, 4);
+            module(0, columns - 1, position, 5);
+            module(1, columns - 1, position, 6);
+            module(2, columns - 1, position, 7);
+            module(3, columns - 1, position, 8);
+        }
+
+        private void corner4(int position) {
+            module(rows - 1, 0, position, 1);
+            module(rows - 1, columns - 1, position, 2);
+            module(0, columns - 3, position, 3);
+            module(0, columns - 2, position, 4);
+            module(0, columns - 1, position, 5);
+            module(1, columns - 3, position, 6);
+            module(1, columns - 2, position, 7);
+            module(1, columns - 1, position, 8);
+        }
+    }
+}
@@ -0,0 +1,238 @@
+// DataMatrixEncoder Test Program - Verify ECC200 symbols against ISO/IEC 16022 reference data
+// Reads every generated symbol back (finder, placement, Reed-Solomon, ASCII/C40/Text/Base256)
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+public class DataMatrixEncoderTest {
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+        System.out.println("Testing DataMatrixEncoder...");
+
+        // ISO/IEC 16022 Annex R: "123456" in a 10x10 symbol
+        int[] codewords = new int[8];
+        DataMatrixEncoder.Codewords data = DataMatrixEncoder.encodeData("123456".getBytes(StandardCharsets.ISO_8859_1));
+        System.arraycopy(data.values, 0, codewords, 0, data.length);
+        DataMatrixEncoder.addErrorCorrection(codewords, new int[] {10, 10, 8, 8, 3, 5, 1});
+        check(Arrays.equals(codewords, new int[] {142, 164, 186, 114, 25, 5, 88, 102}), "Annex R digit pairs and error codewords");
+
+        // Reference module placement for 18 codewords in a 12x12 data area
+        DataMatrixEncoder.Placement placement = new DataMatrixEncoder.Placement(
+            new int[] {66, 74, 78, 66, 74, 78, 129, 56, 35, 102, 192, 96, 226, 100, 156, 1, 107, 221}, 12, 12);
+        placement.place();
+        String[] expected = {
+            "011100001111", "001010101000", "010001010100", "001010100010", "000111000100", "011000010100",
+            "000100001101", "011000010000", "001100001101", "100010010111", "011101011010", "001011001010"
+        };
+        boolean placed = true;
+        for (int r = 0; r < 12; r++) {
+            for (int c = 0; c < 12; c++) {
+                placed &= (placement.bits[r * 12 + c] == 1) == (expected[r].charAt(c) == '1');
+            }
+        }
+        check(placed, "module placement matches reference");
+
+        // Mode selection
+        check(codewordsOf("AIMAIMAIM").equals("230 91 11 91 11 91 11 254"), "C40 triplets for upper case");
+        check(codewordsOf("aimaimaim").startsWith("239 "), "Text mode for lower case");
+        check(codewordsOf("ÄÖÜäöüßé").startsWith("231 "), "Base256 for extended characters");
+
+        // Round trips through the reader: squares, rectangles, multi-block symbols, all modes
+        String[] samples = {
+            "MFR123456", "A", "1234567890", "SN-000042", "HELLO WORLD 2024", "hello world data matrix",
+            "Mixed Case / Punctuation: #42 (ok)!", "ÄÖÜ lot 7", "LOT" + repeat("X7", 90),
+            repeat("ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789 ", 60), repeat("éè", 300)
+        };
+        int symbols = 0;
+        for (String sample : samples) {
+            for (boolean rectangular : new boolean[] {false, true}) {
+                boolean[][] matrix = DataMatrixEncoder.encode(sample, 0, rectangular);
+                String decoded = read(matrix);
+                if (!sample.equals(decoded)) {
+                    throw new AssertionError("FAILED: round trip of '" + sample + "' (" + matrix.length + "x"
+                        + matrix[0].length + ") read '" + decoded + "'");
+                }
+                symbols++;
+            }
+        }
+        check(true, symbols + " symbols read back exactly (up to "
+            + DataMatrixEncoder.encode(samples[samples.length - 2], 0, false).length + " modules square)");
+        check(DataMatrixEncoder.encode("SN1", 0, true).length == 8, "short data fits 8x18 rectangle");
+        check(DataMatrixEncoder.encode("SN1", 24, false).length == 24 && "SN1".equals(read(DataMatrixEncoder.encode("SN1", 24, false))),
+              "requested size honoured");
+        try {
+            DataMatrixEncoder.encode(repeat("ÿ", 2000), 0, false);
+            throw new AssertionError("FAILED: oversized data accepted");
+        } catch (IllegalArgumentException e) {
+            check(true, "oversized data rejected");
+        }
+
+        // DotMatrixMark uses real symbols and shares cached matrices
+        DotMatrixMark mark = new DotMatrixMark(0, 0, "MFR123456");
+        DotMatrixMark other = new DotMatrixMark(50, 50, "MFR123456");
+        check("MFR123456".equals(read(DataMatrixEncoder.encode(mark.getData(), 0, false)))
+              && mark.getMatrixSize() == 14, "DotMatrixMark symbol is 14x14 (6 codewords) and readable");
+        check(mark.generateDotPath().size() == other.generateDotPath().size(), "identical data gives identical dots");
+
+        // Serial run: encode once, then cache hits
+        int serials = 2000;
+        long start = System.nanoTime();
+        for (int i = 0; i < serials; i++) DataMatrixEncoder.encode("SERIAL" + (100000 + i), 0, false);
+        long coldMicros = (System.nanoTime() - start) / 1000 / serials;
+        start = System.nanoTime();
+        for (int round = 0; round < 10; round++) {
+            for (int i = serials - 400; i < serials; i++) mark.setData("SERIAL" + (100000 + i));
+        }
+        double warmMicros = (System.nanoTime() - start) / 1000.0 / 4000;
+        System.out.println("  encode " + coldMicros + " us/symbol, cached setData " + String.format("%.2f", warmMicros) + " us");
+        check(warmMicros < coldMicros || coldMicros == 0, "cached regeneration cheaper than encoding");
+
+        System.out.println("\nAll DataMatrixEncoder checks passed.");
+    }
+
+    private static String codewordsOf(String text) {
+        DataMatrixEncoder.Codewords encoded = DataMatrixEncoder.encodeData(text.getBytes(StandardCharsets.ISO_8859_1));
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < encoded.length; i++) sb.append(i > 0 ? " " : "").append(encoded.values[i]);
+        return sb.toString();
+    }
+
+    private static String repeat(String s, int count) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) sb.append(s);
+        return sb.toString();
+    }
+
+    // ==================== READER ====================
+
+    // Symbol table rows: rows, columns, region rows, region columns, data, error, blocks
+    private static final int[][] SYMBOLS = {
+        {10, 10, 8, 8, 3, 5, 1}, {12, 12, 10, 10, 5, 7, 1}, {14, 14, 12, 12, 8, 10, 1}, {16, 16, 14, 14, 12, 12, 1},
+        {18, 18, 16, 16, 18, 14, 1}, {20, 20, 18, 18, 22, 18, 1}, {22, 22, 20, 20, 30, 20, 1}, {24, 24, 22, 22, 36, 24, 1},
+        {26, 26, 24, 24, 44, 28, 1}, {32, 32, 14, 14, 62, 36, 1}, {36, 36, 16, 16, 86, 42, 1}, {40, 40, 18, 18, 114, 48, 1},
+        {44, 44, 20, 20, 144, 56, 1}, {48, 48, 22, 22, 174, 68, 1}, {52, 52, 24, 24, 204, 84, 2}, {64, 64, 14, 14, 280, 112, 2},
+        {72, 72, 16, 16, 368, 144, 4}, {80, 80, 18, 18, 456, 192, 4}, {88, 88, 20, 20, 576, 224, 4}, {96, 96, 22, 22, 696, 272, 4},
+        {104, 104, 24, 24, 816, 336, 6}, {120, 120, 18, 18, 1050, 408, 6}, {132, 132, 20, 20, 1304, 496, 8},
+        {144, 144, 22, 22, 1558, 620, 10}, {8, 18, 6, 16, 5, 7, 1}, {8, 32, 6, 14, 10, 11, 1}, {12, 26, 10, 24, 16, 14, 1},
+        {12, 36, 10, 16, 22, 18, 1}, {16, 36, 14, 16, 32, 24, 1}, {16, 48, 14, 22, 49, 28, 1}
+    };
+
+    /** Decode a symbol: check finder edges, read codewords, verify error codewords, decode modes. */
+    private static String read(boolean[][] matrix) {
+        int[] symbol = null;
+        for (int[] candidate : SYMBOLS) {
+            if (candidate[0] == matrix.length && candidate[1] == matrix[0].length) symbol = candidate;
+        }
+        if (symbol == null) throw new AssertionError("FAILED: not an ECC200 size");
+        int regionRows = symbol[2], regionColumns = symbol[3];
+        int dataRows = symbol[0] / (regionRows + 2) * regionRows, dataColumns = symbol[1] / (regionColumns + 2) * regionColumns;
+        boolean[] bits = new boolean[dataRows * dataColumns];
+        for (int r = 0; r < symbol[0]; r++) {
+            for (int c = 0; c < symbol[1]; c++) {
+                int rr = r % (regionRows + 2), rc = c % (regionColumns + 2);
+                boolean edge = rr == regionRows + 1 || rc == 0 ? true
+                             : rr == 0 ? c % 2 == 0 : rc == regionColumns + 1 ? r % 2 == 1 : matrix[r][c];
+                if (edge != matrix[r][c]) throw new AssertionError("FAILED: finder pattern broken at " + r + "," + c);
+                if (rr > 0 && rr <= regionRows && rc > 0 && rc <= regionColumns) {
+                    bits[((r / (regionRows + 2)) * regionRows + rr - 1) * dataColumns + (c / (regionColumns + 2)) * regionColumns + rc - 1] = matrix[r][c];
+                }
+            }
+        }
+        int total = symbol[4] + symbol[5];
+        DataMatrixEncoder.Placement map = new DataMatrixEncoder.Placement(new int[total], dataRows, dataColumns);
+        map.sources = new int[bits.length];
+        Arrays.fill(map.sources, -1);
+        map.place();
+        int[] codewords = new int[total];
+        for (int i = 0; i < bits.length; i++) {
+            int source = map.sources[i];
+            if (source >= 0 && bits[i]) codewords[source / 8] |= 1 << (7 - source % 8);
+        }
+        int[] check = Arrays.copyOf(codewords, total);
+        Arrays.fill(check, symbol[4], total, 0);
+        DataMatrixEncoder.addErrorCorrection(check, symbol);
+        if (!Arrays.equals(check, codewords)) throw new AssertionError("FAILED: error codewords do not match data");
+        return decode(Arrays.copyOf(codewords, symbol[4]));
+    }
+
+    private static String decode(int[] cw) {
+        StringBuilder out = new StringBuilder();
+        java.io.ByteArrayOutputStream bytes = new java.io.ByteArrayOutputStream();
+        int i = 0;
+        boolean upper = false;
+        while (i < cw.length) {
+            int c = cw[i++];
+            if (c == 129) break;   // Pad
+            if (c <= 128) {
+                bytes.write(c - 1 + (upper ? 128 : 0));
+                upper = false;
+            } else if (c <= 229) {
+                int pair = c - 130;
+                bytes.write('0' + pair / 10);
+                bytes.write('0' + pair % 10);
+            } else if (c == 235) {
+                upper = true;
+            } else if (c == 230 || c == 239) {
+                boolean text = c == 239;
+                int shift = 0;
+                boolean shiftUpper = false;
+                while (i + 1 < cw.length && cw[i] != 254) {
+                    int packed = cw[i] * 256 + cw[i + 1] - 1;
+                    i += 2;
+                    int[] values = {packed / 1600, packed / 40 % 40, packed % 40};
+                    for (int v : values) {
+                        int ch = -1;
+                        if (shift == 0) {
+                            if (v < 3) shift = v + 1;
+                            else if (v == 3) ch = ' ';
+                            else if (v < 14) ch = '0' + v - 4;
+                            else ch = (text ? 'a' : 'A') + v - 14;
+                        } else {
+                            if (shift == 1) ch = v;
+                            else if (shift == 2) {
+                                if (v == 30) shiftUpper = true;
+                                else ch = v < 15 ? 33 + v : v < 22 ? 58 + v - 15 : 91 + v - 22;
+                            } else {
+                                ch = v == 0 ? 96 : v < 27 ? (text ? 'A' : 'a') + v - 1 : 123 + v - 27;
+                            }
+                            shift = 0;
+                        }
+                        if (ch >= 0) {
+                            bytes.write(ch + (shiftUpper ? 128 : 0));
+                            shiftUpper = false;
+                        }
+                    }
+                }
+                if (i < cw.length && cw[i] == 254) i++;
+            } else if (c == 231) {
+                int length = unrandomize(cw[i], i + 1);
+                i++;
+                if (length > 249) {
+                    length = (length - 249) * 250 + unrandomize(cw[i], i + 1);
+                    i++;
+                }
+                for (int k = 0; k < length; k++, i++) bytes.write(unrandomize(cw[i], i + 1));
+            } else {
+                throw new AssertionError("FAILED: unexpected codeword " + c);
+            }
+        }
+        byte[] raw = bytes.toByteArray();
+        String latin = new String(raw, StandardCharsets.ISO_8859_1);
+        String asUtf8 = new String(raw, StandardCharsets.UTF_8);
+        out.append(asUtf8.getBytes(StandardCharsets.UTF_8).length == raw.length && !asUtf8.equals(latin)
+                   && !asUtf8.contains("�") ? asUtf8 : latin);
+        return out.toString();
+    }
+
+    private static int unrandomize(int value, int position) {
+        int v = value - ((149 * position) % 255) - 1;
+        return v >= 0 ? v : v + 256;
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError("FAILED: " + message);
+        }
+        System.out.println("✓ " + message);
+    }
+}
@@ -0,0 +1,274 @@
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.swing.table.TableModel;
+
+/**
+ * DataRowSource: rows of named fields (part numbers, lot codes, ...) for variable-data runs.
+ *
+ * Rows are read one at a time, so a CSV file with a million lines is streamed rather than
+ * loaded. Every row of a source shares one column index, so looking up a field is a map
+ * lookup plus an array read. Mark text refers to fields with {field:Column}; see
+ * CodeTemplate and BatchRenderer.
+ */
+public abstract class DataRowSource implements Closeable {
+
+    // Soft coding: CSV parsing
+    public static final char[] CSV_DELIMITERS = {',', ';', '\t'};   // Auto-detected from the header line
+    private static final int MAX_FIELD_LENGTH = 64 * 1024;          // Guards against a missing closing quote
+
+    private final List<String> columns;
+    private final Map<String, Integer> index;
+
+    protected DataRowSource(List<String> columns) {
+        List<String> names = new ArrayList<>();
+        Map<String, Integer> positions = new HashMap<>();
+        for (String column : columns) {
+            String name = column == null ? "" : column.trim();
+            names.add(name);
+            positions.putIfAbsent(name, names.size() - 1);
+            positions.putIfAbsent(name.toLowerCase(), names.size() - 1);
+        }
+        this.columns = Collections.unmodifiableList(names);
+        this.index = positions;
+    }
+
+    public List<String> getColumns() {
+        return columns;
+    }
+
+    /** True when column exists (exact name, or ignoring case). */
+    public boolean hasColumn(String column) {
+        return columnIndex(column) >= 0;
+    }
+
+    int columnIndex(String column) {
+        Integer position = index.get(column);
+        if (position == null) position = index.get(column.toLowerCase());
+        return position != null ? position : -1;
+    }
+
+    /** Next row, or null after the last one. */
+    public abstract Row next() throws IOException;
+
+    @Override
+    public void close() throws IOException {
+        // Nothing to release by default
+    }
+
+    protected Row row(String[] values) {
+        return new Row(this, values);
+    }
+
+    /** One row; values are looked up by column name through the source's shared index. */
+    public static final class Row {
+        private final DataRowSource source;
+        private final String[] values;
+
+        Row(DataRowSource source, String[] values) {
+            this.source = source;
+            this.values = values;
+        }
+
+        /** Value of column, "" when the column is missing or the row is short. */
+        public String get(String column) {
+            return get(source.columnIndex(column));
+        }
+
+        public String get(int column) {
+            return column >= 0 && column < values.length && values[column] != null ? values[column] : "";
+        }
+
+        public int size() {
+            return values.length;
+        }
+
+        @Override
+        public String toString() {
+            return String.join(", ", values);
+        }
+    }
+
+    // ==================== SOURCES ====================
+
+    /** Rows held in memory (tests, pasted lists). */
+    public static DataRowSource of(List<String> columns, List<String[]> rows) {
+        return new DataRowSource(columns) {
+            private int next;
+
+            @Override
+            public Row next() {
+                return next < rows.size() ? row(rows.get(next++)) : null;
+            }
+        };
+    }
+
+    /**
+     * Rows of a Swing table (e.g. a DatabasePanel table). Call on the EDT: the cells are
+     * copied as text when the source is created, so a run on a worker thread never reads
+     * the model. Column names come from the model; cells are converted with toString().
+     */
+    public static DataRowSource table(TableModel model) {
+        List<String> names = new ArrayList<>();
+        for (int c = 0; c < model.getColumnCount(); c++) names.add(model.getColumnName(c));
+        List<String[]> rows = new ArrayList<>(model.getRowCount());
+        for (int r = 0; r < model.getRowCount(); r++) {
+            String[] values = new String[names.size()];
+            for (int c = 0; c < values.length; c++) {
+                Object value = model.getValueAt(r, c);
+                values[c] = value != null ? value.toString() : "";
+            }
+            rows.add(values);
+        }
+        return of(names, rows);
+    }
+
+    /** Stream a CSV file (UTF-8, first line is the header, delimiter auto-detected). */
+    public static DataRowSource csv(Path file) throws IOException {
+        BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+        try {
+            return csv(reader);
+        } catch (IOException | RuntimeException e) {
+            reader.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Stream CSV text: RFC 4180 quoting ("a, b", "say ""hi""", line breaks inside quotes),
+     * blank lines skipped, a UTF-8 byte order mark ignored.
+     */
+    public static DataRowSource csv(Reader input) throws IOException {
+        BufferedReader reader = input instanceof BufferedReader ? (BufferedReader) input : new BufferedReader(input);
+        reader.mark(MAX_FIELD_LENGTH);
+        String firstLine = reader.readLine();
+        if (firstLine == null) throw new IOException("CSV file is empty");
+        reader.reset();
+        char delimiter = detectDelimiter(firstLine);
+        CsvParser parser = new CsvParser(reader, delimiter);
+        String[] header = parser.readRecord();
+        if (header == null) throw new IOException("CSV file has no header line");
+        if (header.length > 0 && header[0].startsWith("\uFEFF")) header[0] = header[0].substring(1);
+        List<String> columns = new ArrayList<>();
+        Collections.addAll(columns, header);
+        return new DataRowSource(columns) {
+            @Override
+            public Row next() throws IOException {
+                String[] record = parser.readRecord();
+                return record != null ? row(record) : null;
+            }
+
+            @Override
+            public void close() throws IOException {
+                reader.close();
+            }
+        };
+    }
+
+    private static char detectDelimiter(String headerLine) {
+        char best = CSV_DELIMITERS[0];
+        int bestCount = 0;
+        for (char delimiter : CSV_DELIMITERS) {
+            int count = 0;
+            boolean quoted = false;
+            for (int i = 0; i < headerLine.length(); i++) {
+                char c = headerLine.charAt(i);
+                if (c == '"') quoted = !quoted;
+                else if (c == delimiter && !quoted) count++;
+            }
+            if (count > bestCount) {
+                best = delimiter;
+                bestCount = count;
+            }
+        }
+        return best;
+    }
+
+    /** Character-level CSV record reader; one StringBuilder reused for every field. */
+    private static final class CsvParser {
+        private final Reader reader;
+        private final char delimiter;
+        private final StringBuilder field = new StringBuilder();
+        private final List<String> record = new ArrayList<>();
+        private int pending = -2;   // Look-ahead character, -2 when none
+
+        CsvParser(Reader reader, char delimiter) {
+            this.reader = reader;
+            this.delimiter = delimiter;
+        }
+
+        private int read() throws IOException {
+            if (pending != -2) {
+                int c = pending;
+                pending = -2;
+                return c;
+            }
+            return reader.read();
+        }
+
+        /** Next non-blank record, or null at the end of input. */
+        String[] readRecord() throws IOException {
+            while (true) {
+                record.clear();
+                field.setLength(0);
+                int c = read();
+                if (c == -1) return null;
+                if (c == '\n') continue;   // Blank line
+                if (c == '\r') {
+                    int after = read();
+                    if (after != '\n') pending = after;
+                    continue;
+                }
+                pending = c;
+                boolean quoted = false;
+                boolean fieldStart = true;
+                while (true) {
+                    c = read();
+                    if (quoted) {
+                        if (c == -1) throw new IOException("CSV field has no closing quote");
+                        if (c == '"') {
+                            int after = read();
+                            if (after == '"') {
+                                field.append('"');
+                            } else {
+                                quoted = false;
+                                pending = after;
+                            }
+                        } else {
+                            if (field.length() >= MAX_FIELD_LENGTH) throw new IOException("CSV field longer than " + MAX_FIELD_LENGTH + " characters");
+                            field.append((char) c);
+                        }
+                        continue;
+                    }
+                    if (c == '"' && fieldStart) {
+                        quoted = true;
+                        fieldStart = false;
+                    } else if (c == delimiter) {
+                        record.add(field.toString());
+                        field.setLength(0);
+                        fieldStart = true;
+                    } else if (c == '\n' || c == '\r' || c == -1) {
+                        if (c == '\r') {
+                            int after = read();
+                            if (after != '\n') pending = after;
+                        }
+                        record.add(field.toString());
+                        return record.toArray(new String[0]);
+                    } else {
+                        field.append((char) c);
+                        fieldStart = false;
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,152 @@
+// DataRowSource Test Program - Verify CSV/table row sources and variable-data merge runs
+// Covers CSV quoting, delimiters, streaming, table rows, {field:...} templates and BatchRenderer rows
+
+import java.io.BufferedWriter;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import javax.swing.table.DefaultTableModel;
+
+public class DataRowSourceTest {
+
+    public static void main(String[] args) throws Exception {
+        System.setProperty("java.awt.headless", "true");
+        System.out.println("Testing DataRowSource...");
+        testCsv();
+        testStreaming();
+        testTable();
+        testMerge();
+        System.out.println("\nAll DataRowSource checks passed.");
+    }
+
+    private static void testCsv() throws Exception {
+        String csv = "﻿PartNo,Lot,Note\r\n"
+                   + "P-100,L7,\"plain, with comma\"\r\n"
+                   + "\r\n"
+                   + "P-101,L8,\"say \"\"hi\"\"\"\n"
+                   + "P-102,L9,\"two\nlines\"\n"
+                   + "P-103,,\n"
+                   + "P-104";
+        DataRowSource rows = DataRowSource.csv(new StringReader(csv));
+        check(rows.getColumns().equals(Arrays.asList("PartNo", "Lot", "Note")), "header read, byte order mark dropped");
+        DataRowSource.Row first = rows.next();
+        check(first.get("PartNo").equals("P-100") && first.get("Note").equals("plain, with comma"), "quoted delimiter kept in field");
+        check(rows.next().get("Note").equals("say \"hi\""), "doubled quotes unescaped, blank line skipped");
+        check(rows.next().get("note").equals("two\nlines"), "line break inside quotes; column names ignore case");
+        DataRowSource.Row empty = rows.next();
+        check(empty.get("Lot").equals("") && empty.size() == 3, "empty fields");
+        DataRowSource.Row shortRow = rows.next();
+        check(shortRow.get("PartNo").equals("P-104") && shortRow.get("Note").equals("") && rows.next() == null,
+              "short last row without newline, then end");
+
+        DataRowSource semicolons = DataRowSource.csv(new StringReader("A;B\n1,5;2\n"));
+        DataRowSource.Row row = semicolons.next();
+        check(row.get("A").equals("1,5") && row.get("B").equals("2"), "semicolon delimiter detected");
+        DataRowSource tabs = DataRowSource.csv(new StringReader("A\tB\nx\ty\n"));
+        check(tabs.next().get("B").equals("y"), "tab delimiter detected");
+        try {
+            DataRowSource.csv(new StringReader("A,B\n\"open,1\n")).next();
+            throw new AssertionError("FAILED: unclosed quote accepted");
+        } catch (java.io.IOException e) {
+            check(true, "unclosed quote reported: " + e.getMessage());
+        }
+    }
+
+    private static void testStreaming() throws Exception {
+        Path file = Files.createTempFile("rows", ".csv");
+        int count = 200_000;
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            out.write("PartNo,Lot\n");
+            for (int i = 0; i < count; i++) out.write("P" + i + ",L" + (i % 10) + "\n");
+        }
+        long start = System.nanoTime();
+        int read = 0;
+        String last = null;
+        try (DataRowSource rows = DataRowSource.csv(file)) {
+            for (DataRowSource.Row row; (row = rows.next()) != null; read++) last = row.get("PartNo");
+        }
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        System.out.println("  " + count + " CSV rows in " + millis + " ms");
+        check(read == count && ("P" + (count - 1)).equals(last), "large CSV streamed row by row");
+        Files.delete(file);
+    }
+
+    private static void testTable() throws Exception {
+        DefaultTableModel model = new DefaultTableModel(new String[] {"ID", "Material Name"}, 0);
+        model.addRow(new Object[] {1, "Steel"});
+        model.addRow(new Object[] {2, null});
+        DataRowSource rows = DataRowSource.table(model);
+        model.setValueAt("Changed later", 0, 1);
+        model.addRow(new Object[] {3, "Added later"});
+        DataRowSource.Row steel = rows.next();
+        check(steel.get("ID").equals("1") && steel.get("Material Name").equals("Steel"), "table cells copied as text when the source is created");
+        check(rows.next().get("Material Name").equals("") && rows.next() == null, "null cells are empty, then end");
+    }
+
+    private static void testMerge() throws Exception {
+        CodeTemplate template = CodeTemplate.compile("{field:PartNo}/{field:Lot}-{serial:3}");
+        check(template.getFieldNames().equals(Arrays.asList("PartNo", "Lot")), "template lists its fields");
+        DataRowSource source = DataRowSource.of(Arrays.asList("PartNo", "Lot"),
+                                                Arrays.asList(new String[] {"P-1", "L1"}, new String[] {"P-2", "L2"}));
+        CodeTemplate.Context context = new CodeTemplate.Context().serial(7).row(source.next());
+        check(template.generate(context).equals("P-1/L1-007"), "{field:...} filled from the row");
+
+        List<Mark> marks = new ArrayList<>();
+        marks.add(new RectangleMark(10, 10));
+        marks.add(new TextMark(20, 40, "PN {field:PartNo}"));
+        marks.add(new DotMatrixMark(200, 40, "{field:PartNo};{field:Lot}"));
+        marks.add(new BarcodeMark(20, 70, "Code 128", "{field:Lot}"));
+        BatchRenderer renderer = new BatchRenderer(marks).setOptimizeTravel(false);
+        check(renderer.getFieldNames().toString().equalsIgnoreCase("[PartNo, Lot]"), "renderer collects fields of all marks, ignoring case");
+
+        DataRowSource rows = DataRowSource.csv(new StringReader("PartNo,Lot\nA-1,X9\nA-2,X9\nA-3,Y1\n"));
+        List<BatchRenderer.RenderedPart> parts = new ArrayList<>();
+        BatchRenderer.Summary summary = renderer.render(10, rows, null, parts::add);
+        check(summary.parts == 3 && parts.get(2).code.equals("A-3") && parts.get(2).row.get("Lot").equals("Y1"),
+              "one part per row, code from the first column: " + summary);
+
+        List<Mark> expected = new ArrayList<>();
+        expected.add(marks.get(0));
+        expected.add(new TextMark(20, 40, "PN A-2"));
+        expected.add(new DotMatrixMark(200, 40, "A-2;X9"));
+        expected.add(new BarcodeMark(20, 70, "Code 128", "X9"));
+        DotPath reference = DotPathCompiler.compileMarks(expected);
+        DotPath part = parts.get(1).path;
+        check(part.size() == reference.size()
+              && Arrays.equals(Arrays.copyOf(part.getCoords(), part.size() * 2), Arrays.copyOf(reference.getCoords(), reference.size() * 2)),
+              "row 2 matches the hand-filled layout (" + part.size() + " dots)");
+        check(parts.get(0).path.getMark(0) == marks.get(0) && parts.get(2).path.getMark(0) == marks.get(0),
+              "unchanged marks are reused, not copied");
+
+        try {
+            renderer.render(10, DataRowSource.of(Arrays.asList("PartNo"), new ArrayList<>()), null, p -> { });
+            throw new AssertionError("FAILED: missing column accepted");
+        } catch (IllegalArgumentException e) {
+            check(e.getMessage().toLowerCase().contains("no column lot"), "missing column named before rendering: " + e.getMessage());
+        }
+
+        SerialNumberCoder coder = new SerialNumberCoder();
+        coder.useSequence(SerialSequence.inMemory());
+        List<Mark> mixed = new ArrayList<>();
+        mixed.add(new TextMark(20, 40, "{field:PartNo} #{code}"));
+        List<BatchRenderer.RenderedPart> coded = new BatchRenderer(mixed).renderAll(0, BatchRenderer.CodeSource.of(coder));
+        check(coded.isEmpty(), "count 0 renders nothing");
+        List<BatchRenderer.RenderedPart> merged = new ArrayList<>();
+        new BatchRenderer(mixed).setOptimizeTravel(false).render(2,
+            DataRowSource.of(Arrays.asList("PartNo"), Arrays.asList(new String[] {"Q1"}, new String[] {"Q2"}, new String[] {"Q3"})),
+            BatchRenderer.CodeSource.of(coder), merged::add);
+        check(merged.size() == 2 && ((TextMark) merged.get(1).path.getMark(0)).getText().equals("Q2 #01001"),
+              "rows and coder combined, count limits rows");
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError("FAILED: " + message);
+        }
+        System.out.println("✓ " + message);
+    }
+}
@@ -1804,6 +1804,26 @@ public class DatabasePanel extends JPanel {
         return projects.size();
     }
     
+    /**
+     * Names of the tables that can feed a variable-data run (see DataRowSource.table)
+     */
+    public String[] getDataTableNames() {
+        return new String[] {"Materials", "Projects", "Templates", "Settings"};
+    }
+    
+    /**
+     * Table model by name, null when unknown or not built yet
+     */
+    public javax.swing.table.TableModel getDataTable(String name) {
+        switch (name) {
+            case "Materials": return materialsModel;
+            case "Projects": return projectsModel;
+            case "Templates": return templatesModel;
+            case "Settings": return settingsModel;
+            default: return null;
+        }
+    }
+    
     private String getTimeAgo(String dateString) {
         try {
             // Simple time ago calculation
@@ -0,0 +1,86 @@
+import javax.swing.*;
+import java.util.*;
+
+/**
+ * Date/Time Coder - System date/time in various formats
+ */
+class DateTimeCoder extends ThorX6CoderTypeSystem.BaseCoderType {
+    private String[] formats = {"YYMMDD", "YYYYMMDD", "Julian Date", "HHMM", "HHMMSS", "YYYY-MM-DD HH:MM"};
+    private String[] templates = {"{date:yyMMdd}", "{date:yyyyMMdd}", "{date:yyDDD}", "{date:HHmm}", "{date:HHmmss}", "{date:yyyy-MM-dd HH:mm}"};
+    private int selectedFormat = 0;
+    
+    private JComboBox<String> formatComboBox;
+    
+    public DateTimeCoder() {
+        super("Date/Time");
+    }
+    
+    @Override
+    public String generateCode() {
+        return CodeTemplate.compile(templates[selectedFormat]).generate(0);
+    }
+    
+    @Override
+    public String getPreview() {
+        return generateCode() + " (Live " + formats[selectedFormat] + ")";
+    }
+    
+    @Override
+    public boolean requiresConfiguration() {
+        return true;
+    }
+    
+    @Override
+    public JPanel getConfigurationPanel() {
+        if (configPanel == null) {
+            configPanel = new JPanel();
+            configPanel.setLayout(new BoxLayout(configPanel, BoxLayout.Y_AXIS));
+            
+            formatComboBox = new JComboBox<>(formats);
+            formatComboBox.setSelectedIndex(selectedFormat);
+            formatComboBox.addActionListener(e -> {
+                selectedFormat = formatComboBox.getSelectedIndex();
+                notifyConfigurationChanged();
+            });
+            
+            JPanel formatPanel = createLabeledComponent("Date/Time Format", formatComboBox);
+            configPanel.add(createTitledSection("Format Configuration", formatPanel));
+            
+            // Preview examples
+            JTextArea exampleArea = new JTextArea();
+            exampleArea.setEditable(false);
+            exampleArea.setBackground(configPanel.getBackground());
+            updateExamples(exampleArea);
+            
+            configPanel.add(createTitledSection("Format Examples", exampleArea));
+        }
+        return configPanel;
+    }
+    
+    private void updateExamples(JTextArea area) {
+        StringBuilder examples = new StringBuilder();
+        for (int i = 0; i < formats.length; i++) {
+            if (i > 0) examples.append("\n");
+            examples.append(formats[i]).append(": ").append(CodeTemplate.compile(templates[i]).generate(0));
+        }
+        
+        area.setText(examples.toString());
+    }
+    
+    @Override
+    public Map<String, Object> getConfiguration() {
+        Map<String, Object> config = new HashMap<>();
+        config.put("selectedFormat", selectedFormat);
+        return config;
+    }
+    
+    @Override
+    public void setConfiguration(Map<String, Object> config) {
+        if (config.containsKey("selectedFormat")) {
+            selectedFormat = (Integer) config.get("selectedFormat");
+            if (formatComboBox != null) {
+                formatComboBox.setSelectedIndex(selectedFormat);
+            }
+        }
+    }
+}
@@ -7,31 +7,17 @@ public class DotMatrixMark extends Mark {
     private String data = "MFR123456";
     private int dotPitch = 8; // Distance between dot centers in pixels
     private int dotDiameter = 6; // Diameter of each dot in pixels
-    private boolean[][] matrix; // The actual data matrix pattern
-    private int matrixSize = 10; // Default 10x10 matrix
+    private boolean[][] matrix; // The actual data matrix pattern (ECC200, shared via DataMatrixEncoder cache - do not modify)
+    private int matrixSize = 10; // Symbol rows (10x10 for short data)
+    private int matrixColumns = 10; // Symbol columns (differs from rows for rectangular symbols)
+    private int requestedSize = 0; // Minimum symbol size chosen by the user, 0 = smallest that fits
+    private boolean rectangular = false; // Prefer rectangular symbols (8x18 .. 16x48)
     private Color dotColor = Color.BLACK;
     private Color backgroundColor = Color.WHITE;
     private boolean showGrid = true;
     private boolean showBorder = true;
     private double scale = 1.0;
     
-    // Data Matrix encoding tables (simplified for demonstration)
-    private static final Map<Character, Integer> ASCII_ENCODING = new HashMap<>();
-    static {
-        // Initialize basic ASCII encoding
-        for (int i = 0; i < 128; i++) {
-            ASCII_ENCODING.put((char) i, i + 1);
-        }
-    }
-    
-    // Standard Data Matrix sizes (ECC 200)
-    private static final int[][] MATRIX_SIZES = {
-        {10, 10}, {12, 12}, {14, 14}, {16, 16}, {18, 18}, {20, 20},
-        {22, 22}, {24, 24}, {26, 26}, {32, 32}, {36, 36}, {40, 40},
-        {44, 44}, {48, 48}, {52, 52}, {64, 64}, {72, 72}, {80, 80},
-        {88, 88}, {96, 96}, {104, 104}, {120, 120}, {132, 132}, {144, 144}
-    };
-    
     public DotMatrixMark(int x, int y) {
         super(x, y);
         this.width = 120;
@@ -71,12 +57,9 @@ public class DotMatrixMark extends Mark {
             drawGrid(g, startX, startY, matrixPixelSize);
         }
         
-        // Draw the data matrix dots
+        // Draw the data matrix dots (finder and timing patterns are part of the symbol)
         drawDataMatrix(g, startX, startY, matrixPixelSize);
         
-        // Draw border pattern (characteristic of Data Matrix)
-        drawDataMatrixBorder(g, startX, startY, matrixPixelSize);
-        
         // Draw selection indicators if selected
         if (isSelected) {
             drawSelectionIndicators(g);
@@ -95,31 +78,33 @@ public class DotMatrixMark extends Mark {
         g.setColor(new Color(200, 200, 200, 100));
         g.setStroke(new BasicStroke(0.5f));
         
-        double cellSize = (double) matrixPixelSize / matrixSize;
+        double cellSize = getCellSize(matrixPixelSize);
+        int gridWidth = (int) (matrixColumns * cellSize);
+        int gridHeight = (int) (matrixSize * cellSize);
         
         // Draw vertical lines
-        for (int i = 0; i <= matrixSize; i++) {
+        for (int i = 0; i <= matrixColumns; i++) {
             int lineX = startX + (int) (i * cellSize);
-            g.drawLine(lineX, startY, lineX, startY + matrixPixelSize);
+            g.drawLine(lineX, startY, lineX, startY + gridHeight);
         }
         
         // Draw horizontal lines
         for (int i = 0; i <= matrixSize; i++) {
             int lineY = startY + (int) (i * cellSize);
-            g.drawLine(startX, lineY, startX + matrixPixelSize, lineY);
+            g.drawLine(startX, lineY, startX + gridWidth, lineY);
         }
     }
     
     private void drawDataMatrix(Graphics2D g, int startX, int startY, int matrixPixelSize) {
         if (matrix == null) return;
         
-        double cellSize = (double) matrixPixelSize / matrixSize;
+        double cellSize = getCellSize(matrixPixelSize);
         double dotRadius = (cellSize * dotDiameter / dotPitch) / 2.0;
         
         g.setColor(dotColor);
         
         for (int row = 0; row < matrixSize; row++) {
-            for (int col = 0; col < matrixSize; col++) {
+            for (int col = 0; col < matrixColumns; col++) {
                 if (matrix[row][col]) {
                     double dotCenterX = startX + (col + 0.5) * cellSize;
                     double dotCenterY = startY + (row + 0.5) * cellSize;
@@ -136,30 +121,9 @@ public class DotMatrixMark extends Mark {
         }
     }
     
-    private void drawDataMatrixBorder(Graphics2D g, int startX, int startY, int matrixPixelSize) {
-        // Data Matrix has a characteristic border pattern
-        g.setColor(dotColor);
-        g.setStroke(new BasicStroke(2));
-        
-        double cellSize = (double) matrixPixelSize / matrixSize;
-        
-        // Left and bottom solid borders
-        g.drawLine(startX, startY, startX, startY + matrixPixelSize);
-        g.drawLine(startX, startY + matrixPixelSize, startX + matrixPixelSize, startY + matrixPixelSize);
-        
-        // Top and right dashed borders (timing pattern)
-        g.setStroke(new BasicStroke(1));
-        for (int i = 0; i < matrixSize; i += 2) {
-            // Top border
-            int segmentX = startX + (int) (i * cellSize);
-            int segmentEndX = startX + (int) ((i + 1) * cellSize);
-            g.drawLine(segmentX, startY, segmentEndX, startY);
-            
-            // Right border
-            int segmentY = startY + (int) (i * cellSize);
-            int segmentEndY = startY + (int) ((i + 1) * cellSize);
-            g.drawLine(startX + matrixPixelSize, segmentY, startX + matrixPixelSize, segmentEndY);
-        }
+    // Rectangular symbols fit their longer side to the matrix area
+    private double getCellSize(int matrixPixelSize) {
+        return (double) matrixPixelSize / Math.max(matrixSize, matrixColumns);
     }
     
     private void drawSelectionIndicators(Graphics2D g) {
@@ -180,136 +144,60 @@ public class DotMatrixMark extends Mark {
     }
     
     private void generateMatrix() {
-        // Determine optimal matrix size based on data length
-        matrixSize = calculateOptimalSize(data.length());
-        
-        // Initialize matrix
-        matrix = new boolean[matrixSize][matrixSize];
-        
-        // Generate Reed-Solomon error correction and fill matrix
-        generateDataMatrixPattern();
-    }
-    
-    private int calculateOptimalSize(int dataLength) {
-        // Simple heuristic - in real implementation, this would consider
-        // error correction capacity and ECC 200 standard
-        if (dataLength <= 6) return 10;
-        if (dataLength <= 10) return 12;
-        if (dataLength <= 16) return 14;
-        if (dataLength <= 24) return 16;
-        if (dataLength <= 36) return 18;
-        return 20;
-    }
-    
-    private void generateDataMatrixPattern() {
-        // Simplified Data Matrix generation - real implementation would use
-        // proper Reed-Solomon error correction and ECC 200 standard
-        
-        // Clear matrix
-        for (int i = 0; i < matrixSize; i++) {
-            for (int j = 0; j < matrixSize; j++) {
-                matrix[i][j] = false;
-            }
-        }
-        
-        // Create a simple pattern based on data
-        int hash = data.hashCode();
-        Random random = new Random(hash);
-        
-        // Fill data region (avoiding border areas)
-        for (int row = 1; row < matrixSize - 1; row += 2) {
-            for (int col = 1; col < matrixSize - 1; col += 2) {
-                // Create pattern based on data characters and position
-                int charIndex = ((row - 1) / 2 + (col - 1) / 2) % data.length();
-                int charValue = data.charAt(charIndex);
-                
-                // Use bit pattern of character
-                matrix[row][col] = (charValue & (1 << (row % 8))) != 0;
-                
-                // Add some controlled randomness for realistic look
-                if (random.nextDouble() < 0.3) {
-                    matrix[row][col] = !matrix[row][col];
-                }
-            }
-        }
-        
-        // Add corner and alignment patterns
-        addCornerPatterns();
-        addTimingPatterns();
-    }
-    
-    private void addCornerPatterns() {
-        // Add characteristic corner patterns of Data Matrix
-        if (matrixSize >= 10) {
-            // Bottom-left corner pattern
-            matrix[matrixSize - 1][0] = true;
-            matrix[matrixSize - 2][0] = true;
-            matrix[matrixSize - 2][1] = true;
-            
-            // Top-right corner detection
-            matrix[0][matrixSize - 1] = true;
-            matrix[1][matrixSize - 1] = true;
-            matrix[1][matrixSize - 2] = true;
-        }
-    }
-    
-    private void addTimingPatterns() {
-        // Add timing patterns on borders
-        // Left border (solid)
-        for (int i = 0; i < matrixSize; i++) {
-            matrix[i][0] = true;
-        }
-        
-        // Bottom border (solid)
-        for (int i = 0; i < matrixSize; i++) {
-            matrix[matrixSize - 1][i] = true;
-        }
-        
-        // Top border (alternating)
-        for (int i = 0; i < matrixSize; i += 2) {
-            matrix[0][i] = true;
-        }
-        
-        // Right border (alternating)
-        for (int i = 1; i < matrixSize; i += 2) {
-            matrix[i][matrixSize - 1] = true;
+        try {
+            // Real ECC200 symbol; cached by (data, size) so serial updates rarely re-encode
+            matrix = DataMatrixEncoder.encode(data, requestedSize, rectangular);
+            matrixSize = matrix.length;
+            matrixColumns = matrix[0].length;
+        } catch (IllegalArgumentException e) {
+            System.err.println("❌ Cannot encode Data Matrix: " + e.getMessage());
+            matrix = null;
         }
     }
     
     // Getters and setters
     public String getData() { return data; }
     public void setData(String data) { 
+        markChanged();
         this.data = data.toUpperCase(); 
         generateMatrix();
     }
     
     public int getDotPitch() { return dotPitch; }
     public void setDotPitch(int dotPitch) { 
+        markChanged();
         this.dotPitch = Math.max(4, Math.min(20, dotPitch)); 
     }
     
     public int getDotDiameter() { return dotDiameter; }
     public void setDotDiameter(int dotDiameter) { 
+        markChanged();
         this.dotDiameter = Math.max(2, Math.min(dotPitch - 1, dotDiameter)); 
     }
     
     public int getMatrixSize() { return matrixSize; }
+    public int getMatrixColumns() { return matrixColumns; }
     public void setMatrixSize(int size) {
-        // Validate against standard sizes
-        for (int[] standardSize : MATRIX_SIZES) {
-            if (standardSize[0] == size) {
-                this.matrixSize = size;
-                generateMatrix();
-                break;
-            }
+        markChanged();
+        // Validate against standard sizes; data that needs more keeps the larger symbol
+        if (DataMatrixEncoder.isSquareSize(size)) {
+            this.requestedSize = size;
+            generateMatrix();
         }
     }
     
+    public boolean isRectangular() { return rectangular; }
+    public void setRectangular(boolean rectangular) {
+        markChanged();
+        this.rectangular = rectangular;
+        generateMatrix();
+    }
+    
     public boolean isShowGrid() { return showGrid; }
-    public void setShowGrid(boolean showGrid) { this.showGrid = showGrid; }
+    public void setShowGrid(boolean showGrid) { this.showGrid = showGrid; markChanged(); }
     
     public boolean isShowBorder() { return showBorder; }
-    public void setShowBorder(boolean showBorder) { this.showBorder = showBorder; }
+    public void setShowBorder(boolean showBorder) { this.showBorder = showBorder; markChanged(); }
     
     // Tool path generation for dot pin controllers
     public List<DotPosition> generateDotPath() {
@@ -321,14 +209,14 @@ public class DotMatrixMark extends Mark {
         int matrixPixelSize = Math.min(width - 20, height - 20);
         int startX = x + (width - matrixPixelSize) / 2;
         int startY = y + (height - matrixPixelSize) / 2;
-        double cellSize = (double) matrixPixelSize / matrixSize;
+        double cellSize = getCellSize(matrixPixelSize);
         
         // Generate optimized path (row-by-row for now, could be optimized)
         for (int row = 0; row < matrixSize; row++) {
             // Alternate direction for efficiency (serpentine path)
             if (row % 2 == 0) {
                 // Left to right
-                for (int col = 0; col < matrixSize; col++) {
+                for (int col = 0; col < matrixColumns; col++) {
                     if (matrix[row][col]) {
                         double dotX = startX + (col + 0.5) * cellSize;
                         double dotY = startY + (row + 0.5) * cellSize;
@@ -337,7 +225,7 @@ public class DotMatrixMark extends Mark {
                 }
             } else {
                 // Right to left
-                for (int col = matrixSize - 1; col >= 0; col--) {
+                for (int col = matrixColumns - 1; col >= 0; col--) {
                     if (matrix[row][col]) {
                         double dotX = startX + (col + 0.5) * cellSize;
                         double dotY = startY + (row + 0.5) * cellSize;
@@ -353,11 +241,11 @@ public class DotMatrixMark extends Mark {
     // Export configuration for dot pin controllers
     public String exportDotPathConfig() {
         List<DotPosition> dotPath = generateDotPath();
-        StringBuilder config = new StringBuilder();
+        StringBuilder config = new StringBuilder(256 + dotPath.size() * 32);
         
         config.append("# Data Matrix Configuration\n");
         config.append("# Data: ").append(data).append("\n");
-        config.append("# Matrix Size: ").append(matrixSize).append("x").append(matrixSize).append("\n");
+        config.append("# Matrix Size: ").append(matrixSize).append("x").append(matrixColumns).append("\n");
         config.append("# Dot Pitch: ").append(dotPitch).append("px\n");
         config.append("# Dot Diameter: ").append(dotDiameter).append("px\n");
         config.append("# Total Dots: ").append(dotPath.size()).append("\n\n");
@@ -365,8 +253,10 @@ public class DotMatrixMark extends Mark {
         config.append("# Dot Positions (X, Y, Diameter)\n");
         for (int i = 0; i < dotPath.size(); i++) {
             DotPosition dot = dotPath.get(i);
-            config.append(String.format("DOT %d: %.2f, %.2f, %.2f\n", 
-                i + 1, dot.x, dot.y, dot.diameter));
+            config.append("DOT ").append(i + 1).append(": ");
+            GCodeWriter.appendFixed(config, dot.x, 2).append(", ");
+            GCodeWriter.appendFixed(config, dot.y, 2).append(", ");
+            GCodeWriter.appendFixed(config, dot.diameter, 2).append('\n');
         }
         
         return config.toString();
@@ -390,6 +280,7 @@ public class DotMatrixMark extends Mark {
     
     @Override
     public void resizeTo(int mx, int my) {
+        markChanged();
         // Check lock size flag before allowing resize
         if (lockSize && RugrelDropdownConfig.ENABLE_LOCK_SIZE_FUNCTIONALITY) {
             if (RugrelDropdownConfig.SHOW_SIZE_LOCK_FEEDBACK) {
@@ -0,0 +1,190 @@
+import java.util.Arrays;
+
+/**
+ * Compact, machine-ready dot path shared by every mark type.
+ *
+ * Coordinates are stored interleaved in a single primitive array
+ * (x0, y0, x1, y1, ...) in canvas pixel space, with one flag byte per dot.
+ * A "stroke" is a run of dots that must be struck in order (for example the
+ * dots along one glyph contour); a stroke begins at a dot carrying
+ * FLAG_STROKE_START. Mark boundaries are kept as offsets so per-mark
+ * statistics (dot counts, cycle time) can be derived without re-compiling.
+ */
+public final class DotPath {
+
+    // Soft coding: Dot flag bits
+    public static final byte FLAG_STRIKE = 0x01;        // Pin strikes at this dot
+    public static final byte FLAG_STROKE_START = 0x02;  // First dot of an ordered stroke
+
+    // Soft coding: Canvas to machine unit conversion (matches DrawingCanvas grid)
+    public static final double PIXELS_PER_MM = 3.78;
+
+    private static final int INITIAL_DOT_CAPACITY = 1024;
+    private static final int INITIAL_MARK_CAPACITY = 16;
+
+    private double[] coords;
+    private byte[] flags;
+    private int size;
+
+    private Mark[] marks;
+    private int[] markStarts;
+    private int markCount;
+
+    public DotPath() {
+        this(INITIAL_DOT_CAPACITY);
+    }
+
+    public DotPath(int dotCapacity) {
+        int capacity = Math.max(16, dotCapacity);
+        coords = new double[capacity * 2];
+        flags = new byte[capacity];
+        marks = new Mark[INITIAL_MARK_CAPACITY];
+        markStarts = new int[INITIAL_MARK_CAPACITY];
+    }
+
+    // ==================== BUILDING ====================
+
+    /**
+     * Start a new mark section. All dots added afterwards belong to this mark.
+     */
+    public void beginMark(Mark mark) {
+        if (markCount == marks.length) {
+            marks = Arrays.copyOf(marks, markCount * 2);
+            markStarts = Arrays.copyOf(markStarts, markCount * 2);
+        }
+        marks[markCount] = mark;
+        markStarts[markCount] = size;
+        markCount++;
+    }
+
+    /**
+     * Append a dot that starts a new stroke.
+     */
+    public void addStrokeStart(double x, double y) {
+        add(x, y, (byte) (FLAG_STRIKE | FLAG_STROKE_START));
+    }
+
+    /**
+     * Append a dot continuing the current stroke.
+     */
+    public void addDot(double x, double y) {
+        add(x, y, FLAG_STRIKE);
+    }
+
+    public void add(double x, double y, byte dotFlags) {
+        if (size == flags.length) {
+            grow(size + 1);
+        }
+        coords[size * 2] = x;
+        coords[size * 2 + 1] = y;
+        flags[size] = dotFlags;
+        size++;
+    }
+
+    /**
+     * Append all dots of another path, keeping its mark sections.
+     */
+    public void append(DotPath other) {
+        if (other.size == 0 && other.markCount == 0) return;
+        ensureCapacity(size + other.size);
+        int base = size;
+        System.arraycopy(other.coords, 0, coords, size * 2, other.size * 2);
+        System.arraycopy(other.flags, 0, flags, size, other.size);
+        size += other.size;
+        for (int m = 0; m < other.markCount; m++) {
+            if (markCount == marks.length) {
+                marks = Arrays.copyOf(marks, markCount * 2);
+                markStarts = Arrays.copyOf(markStarts, markCount * 2);
+            }
+            marks[markCount] = other.marks[m];
+            markStarts[markCount] = base + other.markStarts[m];
+            markCount++;
+        }
+    }
+
+    /**
+     * Drop every dot from newSize onwards (mark sections are kept).
+     */
+    public void truncate(int newSize) {
+        if (newSize >= 0 && newSize < size) {
+            size = newSize;
+        }
+    }
+
+    public void ensureCapacity(int dotCapacity) {
+        if (dotCapacity > flags.length) {
+            grow(dotCapacity);
+        }
+    }
+
+    private void grow(int minCapacity) {
+        int newCapacity = Math.max(minCapacity, flags.length + (flags.length >> 1));
+        coords = Arrays.copyOf(coords, newCapacity * 2);
+        flags = Arrays.copyOf(flags, newCapacity);
+    }
+
+    /**
+     * Release unused capacity once compilation is finished.
+     */
+    public void trimToSize() {
+        if (flags.length != size) {
+            coords = Arrays.copyOf(coords, size * 2);
+            flags = Arrays.copyOf(flags, size);
+        }
+        if (marks.length != markCount) {
+            marks = Arrays.copyOf(marks, markCount);
+            markStarts = Arrays.copyOf(markStarts, markCount);
+        }
+    }
+
+    // ==================== ACCESS ====================
+
+    public int size() { return size; }
+    public boolean isEmpty() { return size == 0; }
+
+    public double getX(int index) { return coords[index * 2]; }
+    public double getY(int index) { return coords[index * 2 + 1]; }
+    public byte getFlags(int index) { return flags[index]; }
+
+    public boolean isStrokeStart(int index) {
+        return (flags[index] & FLAG_STROKE_START) != 0;
+    }
+
+    /**
+     * Raw interleaved coordinate array. Only the first size() * 2 entries are valid.
+     */
+    public double[] getCoords() { return coords; }
+
+    /**
+     * Raw flag array. Only the first size() entries are valid.
+     */
+    public byte[] getFlagArray() { return flags; }
+
+    public int getMarkCount() { return markCount; }
+    public Mark getMark(int markIndex) { return marks[markIndex]; }
+    public int getMarkStart(int markIndex) { return markStarts[markIndex]; }
+
+    public int getMarkEnd(int markIndex) {
+        return markIndex + 1 < markCount ? markStarts[markIndex + 1] : size;
+    }
+
+    public int getDotCount(int markIndex) {
+        return getMarkEnd(markIndex) - getMarkStart(markIndex);
+    }
+
+    /**
+     * Count strokes (ordered dot runs) in the whole path.
+     */
+    public int getStrokeCount() {
+        int strokes = 0;
+        for (int i = 0; i < size; i++) {
+            if ((flags[i] & FLAG_STROKE_START) != 0) strokes++;
+        }
+        return strokes;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("DotPath[dots=%d, strokes=%d, marks=%d]", size, getStrokeCount(), markCount);
+    }
+}
@@ -0,0 +1,432 @@
+import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.FlatteningPathIterator;
+import java.awt.geom.Line2D;
+import java.awt.geom.PathIterator;
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * DotPathCompiler: turns the marks of a DrawingCanvas into one DotPath.
+ *
+ * Every mark type is compiled into the same packed buffer:
+ * - DotMatrixMark / AvoidPointMark keep their own dot positions
+ * - Text based marks (TextMark, BowTextMark) go through GlyphDotRasterizer:
+ *   glyph outlines, filled glyphs or glyph centre lines, per the mark's dot mode
+ * - ArcLettersMark and FarziMark trace the centre lines of their stroke font
+ * - LineMark, RectangleMark trace their vector strokes
+ * - Linear and stacked barcodes fill their compiled bars with vertical strokes
+ * - Everything else (2D barcodes, rulers, graphs, unknown types) is rasterised and
+ *   sampled on the dot pitch lattice
+ *
+ * Vector geometry is flattened and resampled at the configured dot pitch so the
+ * result is directly usable by the G-code exporter and the cycle-time estimator.
+ */
+public class DotPathCompiler {
+
+    // Soft coding: Compilation parameters
+    public static final double DEFAULT_DOT_PITCH_MM = 0.5;          // Distance between struck dots
+    private static final double CURVE_FLATNESS = 0.1;                // Max chord deviation in pixels
+    private static final int CURVE_FLATTEN_LIMIT = 10;               // Max curve subdivision depth
+    private static final int RASTER_COVERAGE_THRESHOLD = 160;        // Gray level below which a cell is struck
+    private static final boolean SKIP_PRINT_DISABLED_MARKS = true;   // Honour Mark.disablePrint
+
+    private final double dotPitch;   // Dot pitch in canvas pixels
+
+    public DotPathCompiler() {
+        this(DEFAULT_DOT_PITCH_MM * DotPath.PIXELS_PER_MM);
+    }
+
+    public DotPathCompiler(double dotPitchPixels) {
+        this.dotPitch = Math.max(0.25, dotPitchPixels);
+    }
+
+    public double getDotPitch() {
+        return dotPitch;
+    }
+
+    /**
+     * Compile marks with the default dot pitch.
+     */
+    public static DotPath compileMarks(List<Mark> marks) {
+        return new DotPathCompiler().compile(marks);
+    }
+
+    public DotPath compile(List<Mark> marks) {
+        DotPath path = new DotPath();
+        for (Mark mark : marks) {
+            if (mark == null) continue;
+            if (SKIP_PRINT_DISABLED_MARKS && mark.disablePrint) continue;
+            path.beginMark(mark);
+            compileMark(mark, path);
+        }
+        path.trimToSize();
+        return path;
+    }
+
+    public DotPath compile(Mark mark) {
+        DotPath path = new DotPath();
+        path.beginMark(mark);
+        compileMark(mark, path);
+        path.trimToSize();
+        return path;
+    }
+
+    /**
+     * Compile mark without the halftoned image of a GraphMark (its geometry only), for a
+     * preview shown while the image dots are still being computed.
+     */
+    public DotPath compileWithoutImage(Mark mark) {
+        DotPath path = new DotPath();
+        path.beginMark(mark);
+        compileMark(mark, path, false);
+        path.trimToSize();
+        return path;
+    }
+
+    /** True when compiling graph would halftone its image now rather than hit the cache. */
+    public boolean needsHalftone(GraphMark graph) {
+        if (!graph.hasAssignedImage()) return false;
+        Rectangle bounds = graph.getImageBounds();
+        if (bounds.width <= 0 || bounds.height <= 0) return false;
+        return ImageHalftoner.cached(graph.getAssignedImage(), bounds.width, bounds.height,
+            dotPitch, graph.getHalftoneMethod()) == null;
+    }
+
+    /**
+     * The halftoning that compiling graph needs, captured from its current state so it can
+     * run on another thread; afterwards compile(graph) finds the dots in the cache.
+     */
+    public Runnable halftoneTask(GraphMark graph) {
+        BufferedImage image = graph.getAssignedImage();
+        Rectangle bounds = graph.getImageBounds();
+        ImageHalftoner.Method method = graph.getHalftoneMethod();
+        return () -> {
+            if (image != null && bounds.width > 0 && bounds.height > 0) {
+                ImageHalftoner.halftone(image, bounds.width, bounds.height, dotPitch, method);
+            }
+        };
+    }
+
+    // ==================== PER-TYPE DISPATCH ====================
+
+    private void compileMark(Mark mark, DotPath out) {
+        compileMark(mark, out, true);
+    }
+
+    private void compileMark(Mark mark, DotPath out, boolean images) {
+        if (mark instanceof DotMatrixMark) {
+            compileDotMatrix((DotMatrixMark) mark, out);
+        } else if (mark instanceof AvoidPointMark) {
+            compileAvoidPoint((AvoidPointMark) mark, out);
+        } else if (mark instanceof TextMark) {
+            compileText((TextMark) mark, out);
+        } else if (mark instanceof BowTextMark) {
+            compileBowText((BowTextMark) mark, out);
+        } else if (mark instanceof ArcLettersMark) {
+            emitShape(((ArcLettersMark) mark).getEngravedStrokePath(), out);
+        } else if (mark instanceof FarziMark) {
+            emitShape(((FarziMark) mark).getEngravedStrokePath(), out);
+        } else if (mark instanceof LineMark) {
+            LineMark line = (LineMark) mark;
+            emitShape(new Line2D.Double(line.x, line.y, line.getEndX(), line.getEndY()), out);
+        } else if (mark instanceof RectangleMark) {
+            emitShape(new Rectangle(mark.x, mark.y, mark.width, mark.height), out);
+        } else if (mark instanceof BarcodeMark && ((BarcodeMark) mark).getBarcodeModel() != null) {
+            compileBarcode((BarcodeMark) mark, out);
+        } else if (mark instanceof GraphMark) {
+            GraphMark graph = (GraphMark) mark;
+            if (images && graph.hasAssignedImage()) {
+                compileImage(graph, out);
+            }
+            emitRaster(mark, g -> {
+                g.setStroke(new BasicStroke(2.0f));
+                g.setColor(Color.BLACK);
+                graph.drawGraphGeometry(g);
+            }, out);
+        } else {
+            // BarcodeMark, RulerMark and any future mark type
+            emitRaster(mark, g -> mark.draw(g, false), out);
+        }
+    }
+
+    /**
+     * Bars come straight from the mark's compiled BarcodeModel: each bar is filled with
+     * vertical strokes one dot pitch apart, alternating direction. Only the human-readable
+     * text is rasterised.
+     */
+    private void compileBarcode(BarcodeMark mark, DotPath out) {
+        AffineTransform rotation = mark.getRotation() != 0
+            ? AffineTransform.getRotateInstance(Math.toRadians(mark.getRotation()),
+                                                mark.x + mark.width / 2.0, mark.y + mark.height / 2.0)
+            : null;
+        Point2D.Double dot = new Point2D.Double();
+        boolean downward = true;
+        for (Rectangle bar : mark.getBarRectangles()) {
+            int columns = Math.max(1, (int) Math.round(bar.width / dotPitch));
+            int rows = Math.max(1, (int) Math.round(bar.height / dotPitch));
+            double columnStep = (double) bar.width / columns;
+            double rowStep = (double) bar.height / rows;
+            for (int column = 0; column < columns; column++) {
+                double dotX = bar.x + (column + 0.5) * columnStep;
+                for (int i = 0; i < rows; i++) {
+                    int row = downward ? i : rows - 1 - i;
+                    dot.setLocation(dotX, bar.y + (row + 0.5) * rowStep);
+                    if (rotation != null) rotation.transform(dot, dot);
+                    if (i == 0) {
+                        out.addStrokeStart(dot.x, dot.y);
+                    } else {
+                        out.addDot(dot.x, dot.y);
+                    }
+                }
+                downward = !downward;
+            }
+        }
+        if (mark.hasHumanReadableText()) {
+            emitRaster(mark, mark::drawHumanReadable, out);
+        }
+    }
+
+    private void compileDotMatrix(DotMatrixMark mark, DotPath out) {
+        List<DotMatrixMark.DotPosition> dots = mark.generateDotPath();
+        out.ensureCapacity(out.size() + dots.size());
+        for (DotMatrixMark.DotPosition dot : dots) {
+            out.addStrokeStart(dot.x, dot.y);
+        }
+    }
+
+    private void compileAvoidPoint(AvoidPointMark mark, DotPath out) {
+        List<Point2D.Double> dots = mark.generateAllOutputDots();
+        boolean first = true;
+        for (Point2D.Double dot : dots) {
+            if (first) {
+                out.addStrokeStart(dot.x, dot.y);
+                first = false;
+            } else {
+                out.addDot(dot.x, dot.y);
+            }
+        }
+    }
+
+    private void compileText(TextMark mark, DotPath out) {
+        String text = mark.getText();
+        if (text == null || text.isEmpty()) return;
+
+        Font font = mark.getFont();
+        FontMetrics fm = getFontMetrics(font);
+
+        // Same layout as TextMark.draw
+        int baselineOffset = (int) (fm.getAscent() * mark.getLineSpacing());
+        int textY = mark.y + (mark.height + baselineOffset - fm.getDescent()) / 2;
+        int textX = mark.x + mark.getPadding() / 2;
+
+        if (mark.getCharacterWidth() != 1.0) {
+            int currentX = textX;
+            for (int i = 0; i < text.length(); i++) {
+                String ch = text.substring(i, i + 1);
+                emitGlyphs(font, ch, currentX, textY, null, mark.getDotMode(), out);
+                currentX += (int) (fm.stringWidth(ch) * mark.getCharacterWidth());
+            }
+        } else {
+            emitGlyphs(font, text, textX, textY, null, mark.getDotMode(), out);
+        }
+    }
+
+    private void compileBowText(BowTextMark mark, DotPath out) {
+        String text = mark.getText();
+        if (text == null || text.isEmpty()) return;
+
+        Font font = mark.getFont();
+        FontMetrics fm = getFontMetrics(font);
+        boolean bowUp = mark.isBowUp();
+
+        // Same layout as BowTextMark.drawCurvedText
+        double centerX = mark.x + mark.width / 2.0;
+        double centerY = bowUp ? (mark.y + mark.height - 30) : (mark.y + 30);
+        double arcAngle = mark.getArcAngle();
+        double arcRadius = mark.getArcRadius();
+        double startAngle = Math.toRadians(-arcAngle / 2);
+        double angleStep = text.length() > 1 ? Math.toRadians(arcAngle) / (text.length() - 1) : 0;
+
+        for (int i = 0; i < text.length(); i++) {
+            double angle = startAngle + i * angleStep;
+            double charX = centerX + arcRadius * Math.sin(angle);
+            double charY = centerY - arcRadius * Math.cos(angle) * (bowUp ? 1 : -1);
+
+            AffineTransform placement = new AffineTransform();
+            placement.translate(charX, charY);
+            placement.rotate(angle + (bowUp ? 0 : Math.PI));
+
+            char c = text.charAt(i);
+            emitGlyphs(font, String.valueOf(c), -fm.charWidth(c) / 2, fm.getAscent() / 2, placement, mark.getDotMode(), out);
+        }
+    }
+
+    // ==================== GEOMETRY EMITTERS ====================
+
+    /** Dots of cached glyphs (see GlyphDotRasterizer); only placement happens here. */
+    private void emitGlyphs(Font font, String text, float originX, float originY,
+                            AffineTransform placement, GlyphDotRasterizer.Mode mode, DotPath out) {
+        GlyphDotRasterizer.emit(font, text, originX, originY, placement, mode, dotPitch, out);
+    }
+
+    /**
+     * Flatten a shape and resample every subpath at the dot pitch.
+     * Each subpath becomes one stroke; closed subpaths do not repeat their start dot.
+     */
+    void emitShape(Shape shape, DotPath out) {
+        PathIterator it = new FlatteningPathIterator(shape.getPathIterator(null), CURVE_FLATNESS, CURVE_FLATTEN_LIMIT);
+
+        double[] seg = new double[6];
+        double startX = 0, startY = 0;   // Subpath start
+        double lastX = 0, lastY = 0;     // Current pen position
+        double carry = 0;                // Distance travelled since the last emitted dot
+        boolean open = false;
+
+        while (!it.isDone()) {
+            int type = it.currentSegment(seg);
+            switch (type) {
+                case PathIterator.SEG_MOVETO:
+                    startX = lastX = seg[0];
+                    startY = lastY = seg[1];
+                    out.addStrokeStart(startX, startY);
+                    carry = 0;
+                    open = true;
+                    break;
+                case PathIterator.SEG_LINETO:
+                    if (!open) {
+                        out.addStrokeStart(lastX, lastY);
+                        open = true;
+                    }
+                    carry = emitSegment(lastX, lastY, seg[0], seg[1], carry, out);
+                    lastX = seg[0];
+                    lastY = seg[1];
+                    break;
+                case PathIterator.SEG_CLOSE:
+                    carry = emitSegment(lastX, lastY, startX, startY, carry, out);
+                    // Drop a trailing dot that landed on top of the start dot
+                    if (out.size() > 0 && !out.isStrokeStart(out.size() - 1)) {
+                        int last = out.size() - 1;
+                        double dx = out.getX(last) - startX;
+                        double dy = out.getY(last) - startY;
+                        if (dx * dx + dy * dy < (dotPitch * 0.5) * (dotPitch * 0.5)) {
+                            out.truncate(last);
+                        }
+                    }
+                    lastX = startX;
+                    lastY = startY;
+                    open = false;
+                    break;
+                default:
+                    break;
+            }
+            it.next();
+        }
+    }
+
+    /**
+     * Emit dots every dotPitch along one straight segment.
+     * Returns the distance travelled past the last emitted dot.
+     */
+    private double emitSegment(double x0, double y0, double x1, double y1, double carry, DotPath out) {
+        double dx = x1 - x0;
+        double dy = y1 - y0;
+        double length = Math.sqrt(dx * dx + dy * dy);
+        if (length == 0) return carry;
+
+        double distance = dotPitch - carry;
+        while (distance <= length) {
+            double t = distance / length;
+            out.addDot(x0 + dx * t, y0 + dy * t);
+            distance += dotPitch;
+        }
+        return length - (distance - dotPitch);
+    }
+
+    /**
+     * The GraphMark's image, halftoned by ImageHalftoner at one cell per dot pitch over
+     * the rectangle it is drawn in. Rows run serpentine; each horizontal run is one stroke.
+     */
+    private void compileImage(GraphMark graph, DotPath out) {
+        Rectangle bounds = graph.getImageBounds();
+        if (bounds.width <= 0 || bounds.height <= 0) return;
+        ImageHalftoner.DotBitmap dots = ImageHalftoner.halftone(graph.getAssignedImage(),
+            bounds.width, bounds.height, dotPitch, graph.getHalftoneMethod());
+        double cellWidth = (double) bounds.width / dots.columns;
+        double cellHeight = (double) bounds.height / dots.rows;
+        for (int row = 0; row < dots.rows; row++) {
+            boolean leftToRight = (row & 1) == 0;
+            boolean inRun = false;
+            double dotY = bounds.y + (row + 0.5) * cellHeight;
+            for (int i = 0; i < dots.columns; i++) {
+                int col = leftToRight ? i : dots.columns - 1 - i;
+                if (dots.get(col, row)) {
+                    double dotX = bounds.x + (col + 0.5) * cellWidth;
+                    if (inRun) {
+                        out.addDot(dotX, dotY);
+                    } else {
+                        out.addStrokeStart(dotX, dotY);
+                        inRun = true;
+                    }
+                } else {
+                    inRun = false;
+                }
+            }
+        }
+    }
+
+    /**
+     * Rasterise a mark at one cell per dot pitch and strike every covered cell.
+     * Rows are emitted in serpentine order; each horizontal run is one stroke.
+     */
+    private void emitRaster(Mark mark, Consumer<Graphics2D> painter, DotPath out) {
+        Rectangle2D bounds = new Rectangle2D.Double(mark.x - 2, mark.y - 2, mark.width + 4, mark.height + 24);
+        int cols = Math.max(1, (int) Math.ceil(bounds.getWidth() / dotPitch));
+        int rows = Math.max(1, (int) Math.ceil(bounds.getHeight() / dotPitch));
+
+        BufferedImage raster = new BufferedImage(cols, rows, BufferedImage.TYPE_BYTE_GRAY);
+        Graphics2D g = raster.createGraphics();
+        try {
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, cols, rows);
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g.scale(1.0 / dotPitch, 1.0 / dotPitch);
+            g.translate(-bounds.getX(), -bounds.getY());
+            painter.accept(g);
+        } finally {
+            g.dispose();
+        }
+
+        byte[] pixels = ((DataBufferByte) raster.getRaster().getDataBuffer()).getData();
+        for (int row = 0; row < rows; row++) {
+            boolean leftToRight = (row & 1) == 0;
+            boolean inRun = false;
+            double dotY = bounds.getY() + (row + 0.5) * dotPitch;
+            for (int i = 0; i < cols; i++) {
+                int col = leftToRight ? i : cols - 1 - i;
+                boolean struck = (pixels[row * cols + col] & 0xFF) < RASTER_COVERAGE_THRESHOLD;
+                if (struck) {
+                    double dotX = bounds.getX() + (col + 0.5) * dotPitch;
+                    if (inRun) {
+                        out.addDot(dotX, dotY);
+                    } else {
+                        out.addStrokeStart(dotX, dotY);
+                        inRun = true;
+                    }
+                } else {
+                    inRun = false;
+                }
+            }
+        }
+    }
+
+    // ==================== FONT METRICS ====================
+
+    private static FontMetrics getFontMetrics(Font font) {
+        return GlyphCache.metrics(font);
+    }
+}
@@ -0,0 +1,72 @@
+// DotPathCompiler Test Program - Verify unified dot path compilation
+// Compiles every mark type and checks the packed buffer layout
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class DotPathCompilerTest {
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+        System.out.println("Testing DotPathCompiler...");
+
+        List<Mark> marks = new ArrayList<>();
+        marks.add(new TextMark(50, 50, "SN-000123"));
+        marks.add(new BowTextMark(50, 150, "BOW TEXT"));
+        marks.add(new ArcLettersMark(300, 50, "ARC"));
+        marks.add(new FarziMark(300, 300, "ABC123"));
+        marks.add(new DotMatrixMark(500, 50, "MFR123456"));
+        marks.add(new AvoidPointMark(500, 250));
+        marks.add(new LineMark(50, 400));
+        marks.add(new RectangleMark(200, 400));
+        marks.add(new RulerMark(50, 500));
+        marks.add(new BarcodeMark(400, 500, "Code 39", "ABC123"));
+        marks.add(new GraphMark(650, 400, GraphMark.GraphType.TECHNICAL_FRAME));
+
+        DotPath path = DotPathCompiler.compileMarks(marks);
+        check(path.getMarkCount() == marks.size(), "one section per mark");
+        for (int m = 0; m < path.getMarkCount(); m++) {
+            int dots = path.getDotCount(m);
+            String type = path.getMark(m).getClass().getSimpleName();
+            check(dots > 0, type + " produces dots (" + dots + ")");
+            check(path.isStrokeStart(path.getMarkStart(m)), type + " starts with a stroke");
+        }
+
+        // Disabled marks are skipped
+        Mark disabled = new TextMark(10, 10, "HIDDEN");
+        disabled.disablePrint = true;
+        List<Mark> withDisabled = new ArrayList<>(marks);
+        withDisabled.add(disabled);
+        check(DotPathCompiler.compileMarks(withDisabled).getMarkCount() == marks.size(), "disablePrint marks skipped");
+
+        // Dot spacing along a straight line equals the pitch
+        DotPathCompiler compiler = new DotPathCompiler(2.0);
+        LineMark line = new LineMark(0, 0);
+        line.startResize();
+        line.resizeTo(100, 0);
+        DotPath linePath = compiler.compile(line);
+        check(linePath.size() == 51, "100px line at 2px pitch gives 51 dots (got " + linePath.size() + ")");
+        check(Math.abs(linePath.getX(1) - linePath.getX(0) - 2.0) < 1e-9, "line dots spaced at pitch");
+
+        // A 300-character job compiles quickly
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 300; i++) text.append((char) ('A' + i % 26));
+        List<Mark> job = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            job.add(new TextMark(20, 20 + i * 40, text.substring(i * 30, i * 30 + 30)));
+        }
+        DotPathCompiler.compileMarks(job); // warm up
+        long start = System.nanoTime();
+        DotPath jobPath = DotPathCompiler.compileMarks(job);
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        System.out.println("300-character job: " + jobPath + " in " + elapsedMs + " ms");
+
+        System.out.println("\nAll DotPathCompiler checks passed.");
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError("FAILED: " + message);
+        }
+        System.out.println("✓ " + message);
+    }
+}
@@ -0,0 +1,555 @@
+import java.util.Arrays;
+
+/**
+ * DotPathOptimizer: reorders the strokes of a compiled DotPath to cut air travel.
+ *
+ * Non-marking travel between strokes is the biggest cycle-time cost on a pin
+ * marker, so the optimiser treats every stroke (ordered dot run) as a unit that
+ * may be visited in either direction and:
+ * 1. Seeds a tour with nearest neighbour search over a uniform spatial grid
+ * 2. Improves it with 2-opt (segment reversal) and Or-opt (segment relocation)
+ *    moves drawn from k-nearest candidate lists, until no move helps or the
+ *    time budget runs out
+ *
+ * Strokes from all marks are mixed freely unless mark order is preserved; a
+ * mark may then own several sections in the optimised DotPath.
+ */
+public class DotPathOptimizer {
+
+    // Soft coding: Optimisation parameters
+    public static final long DEFAULT_TIME_BUDGET_MS = 200;      // Improvement time budget
+    private static final int CANDIDATE_NEIGHBOURS = 8;          // k-nearest candidates per stroke
+    private static final int MAX_OR_OPT_SEGMENT = 3;            // Longest relocated segment
+    private static final double MIN_GAIN = 1e-7;                // Ignore numerically tiny gains
+    private static final int TIME_CHECK_INTERVAL = 64;          // Moves between clock checks
+
+    private long timeBudgetMillis = DEFAULT_TIME_BUDGET_MS;
+    private boolean preserveMarkOrder = false;
+    private double homeX = 0;
+    private double homeY = 0;
+
+    // Stroke table (indexed by stroke id)
+    private int strokeCount;
+    private int[] strokeFirst, strokeLast;
+    private double[] sx, sy, ex, ey;
+
+    // Current tour
+    private int[] order;          // position -> stroke id
+    private boolean[] flipped;    // position -> traversed backwards
+    private int[] position;       // stroke id -> position
+    private int[][] neighbours;   // stroke id -> nearest stroke ids
+    private long deadline;
+
+    public DotPathOptimizer setTimeBudgetMillis(long millis) {
+        this.timeBudgetMillis = Math.max(0, millis);
+        return this;
+    }
+
+    public DotPathOptimizer setPreserveMarkOrder(boolean preserve) {
+        this.preserveMarkOrder = preserve;
+        return this;
+    }
+
+    /**
+     * Machine home position (canvas pixels) the tool starts from.
+     */
+    public DotPathOptimizer setHome(double x, double y) {
+        this.homeX = x;
+        this.homeY = y;
+        return this;
+    }
+
+    /**
+     * Optimisation outcome with air-travel statistics.
+     */
+    public static class Result {
+        public final DotPath path;
+        public final double travelBefore;     // Inter-stroke travel in canvas pixels
+        public final double travelAfter;
+        public final int strokes;
+        public final long elapsedMillis;
+
+        Result(DotPath path, double travelBefore, double travelAfter, int strokes, long elapsedMillis) {
+            this.path = path;
+            this.travelBefore = travelBefore;
+            this.travelAfter = travelAfter;
+            this.strokes = strokes;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        public double getTravelBeforeMm() { return travelBefore / DotPath.PIXELS_PER_MM; }
+        public double getTravelAfterMm() { return travelAfter / DotPath.PIXELS_PER_MM; }
+
+        public double getSavingPercent() {
+            return travelBefore > 0 ? 100.0 * (travelBefore - travelAfter) / travelBefore : 0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Air travel %.1f mm -> %.1f mm (%.1f%% saved, %d strokes, %d ms)",
+                getTravelBeforeMm(), getTravelAfterMm(), getSavingPercent(), strokes, elapsedMillis);
+        }
+    }
+
+    public static Result optimizePath(DotPath path) {
+        return new DotPathOptimizer().optimize(path);
+    }
+
+    public Result optimize(DotPath path) {
+        long start = System.nanoTime();
+        double before = measureTravel(path, homeX, homeY);
+
+        DotPath result;
+        if (preserveMarkOrder) {
+            result = new DotPath(path.size());
+            double curX = homeX, curY = homeY;
+            for (int m = 0; m < path.getMarkCount(); m++) {
+                DotPath section = optimizeRange(path, path.getMarkStart(m), path.getMarkEnd(m), curX, curY,
+                    start + timeBudgetMillis * 1_000_000L * (m + 1) / path.getMarkCount());
+                result.beginMark(path.getMark(m));
+                appendDots(result, section);
+                if (section.size() > 0) {
+                    curX = section.getX(section.size() - 1);
+                    curY = section.getY(section.size() - 1);
+                }
+            }
+            result.trimToSize();
+        } else {
+            result = optimizeRange(path, 0, path.size(), homeX, homeY, start + timeBudgetMillis * 1_000_000L);
+        }
+
+        double after = measureTravel(result, homeX, homeY);
+        // Never hand back something worse than the input
+        if (after > before) {
+            result = path;
+            after = before;
+        }
+        long elapsed = (System.nanoTime() - start) / 1_000_000;
+        return new Result(result, before, after, path.getStrokeCount(), elapsed);
+    }
+
+    /**
+     * Sum of distances travelled between strokes (tool up, not striking).
+     */
+    public static double measureTravel(DotPath path, double fromX, double fromY) {
+        double travel = 0;
+        double curX = fromX, curY = fromY;
+        for (int i = 0; i < path.size(); i++) {
+            double x = path.getX(i), y = path.getY(i);
+            if (path.isStrokeStart(i)) {
+                travel += Math.hypot(x - curX, y - curY);
+            }
+            curX = x;
+            curY = y;
+        }
+        return travel;
+    }
+
+    // ==================== CORE ====================
+
+    private DotPath optimizeRange(DotPath path, int from, int to, double startX, double startY, long deadlineNanos) {
+        this.deadline = deadlineNanos;
+        buildStrokes(path, from, to);
+        if (strokeCount == 0) {
+            return new DotPath(16);
+        }
+        buildNeighbours();
+        nearestNeighbourTour(startX, startY);
+        if (strokeCount > 2) {
+            improve(startX, startY);
+        }
+        return emit(path);
+    }
+
+    private void buildStrokes(DotPath path, int from, int to) {
+        int capacity = 16;
+        strokeFirst = new int[capacity];
+        strokeLast = new int[capacity];
+        strokeCount = 0;
+        for (int i = from; i < to; i++) {
+            if (path.isStrokeStart(i) || i == from) {
+                if (strokeCount == strokeFirst.length) {
+                    strokeFirst = Arrays.copyOf(strokeFirst, strokeCount * 2);
+                    strokeLast = Arrays.copyOf(strokeLast, strokeCount * 2);
+                }
+                strokeFirst[strokeCount++] = i;
+            }
+            strokeLast[strokeCount - 1] = i;
+        }
+        sx = new double[strokeCount];
+        sy = new double[strokeCount];
+        ex = new double[strokeCount];
+        ey = new double[strokeCount];
+        for (int s = 0; s < strokeCount; s++) {
+            sx[s] = path.getX(strokeFirst[s]);
+            sy[s] = path.getY(strokeFirst[s]);
+            ex[s] = path.getX(strokeLast[s]);
+            ey[s] = path.getY(strokeLast[s]);
+        }
+    }
+
+    // Uniform grid over stroke endpoints
+    private double gridMinX, gridMinY, cellSize;
+    private int gridCols, gridRows;
+    private int[] cellStart, cellEntries;   // CSR layout: entries are endpoint ids (stroke * 2 + end)
+
+    private void buildGrid() {
+        double minX = Double.MAX_VALUE, minY = Double.MAX_VALUE;
+        double maxX = -Double.MAX_VALUE, maxY = -Double.MAX_VALUE;
+        for (int s = 0; s < strokeCount; s++) {
+            minX = Math.min(minX, Math.min(sx[s], ex[s]));
+            minY = Math.min(minY, Math.min(sy[s], ey[s]));
+            maxX = Math.max(maxX, Math.max(sx[s], ex[s]));
+            maxY = Math.max(maxY, Math.max(sy[s], ey[s]));
+        }
+        double spanX = Math.max(1e-6, maxX - minX);
+        double spanY = Math.max(1e-6, maxY - minY);
+        // About two endpoints per cell
+        cellSize = Math.max(1e-3, Math.sqrt(spanX * spanY / Math.max(1, strokeCount)));
+        gridCols = Math.min(2048, (int) (spanX / cellSize) + 1);
+        gridRows = Math.min(2048, (int) (spanY / cellSize) + 1);
+        cellSize = Math.max(spanX / gridCols, spanY / gridRows) * 1.000001;
+        gridMinX = minX;
+        gridMinY = minY;
+
+        int endpoints = strokeCount * 2;
+        int[] cellOf = new int[endpoints];
+        cellStart = new int[gridCols * gridRows + 1];
+        for (int e = 0; e < endpoints; e++) {
+            int s = e >> 1;
+            double px = (e & 1) == 0 ? sx[s] : ex[s];
+            double py = (e & 1) == 0 ? sy[s] : ey[s];
+            cellOf[e] = cellIndex(px, py);
+            cellStart[cellOf[e] + 1]++;
+        }
+        for (int c = 0; c < gridCols * gridRows; c++) {
+            cellStart[c + 1] += cellStart[c];
+        }
+        int[] fill = Arrays.copyOf(cellStart, cellStart.length - 1);
+        cellEntries = new int[endpoints];
+        for (int e = 0; e < endpoints; e++) {
+            cellEntries[fill[cellOf[e]]++] = e;
+        }
+    }
+
+    private int cellIndex(double px, double py) {
+        int cx = Math.max(0, Math.min(gridCols - 1, (int) ((px - gridMinX) / cellSize)));
+        int cy = Math.max(0, Math.min(gridRows - 1, (int) ((py - gridMinY) / cellSize)));
+        return cy * gridCols + cx;
+    }
+
+    private void buildNeighbours() {
+        buildGrid();
+        int k = Math.min(CANDIDATE_NEIGHBOURS, strokeCount - 1);
+        neighbours = new int[strokeCount][];
+        int[] best = new int[Math.max(1, k)];
+        double[] bestDist = new double[Math.max(1, k)];
+        for (int s = 0; s < strokeCount; s++) {
+            if (k <= 0) {
+                neighbours[s] = new int[0];
+                continue;
+            }
+            int found = 0;
+            Arrays.fill(bestDist, Double.MAX_VALUE);
+            for (int end = 0; end < 2; end++) {
+                double px = end == 0 ? sx[s] : ex[s];
+                double py = end == 0 ? sy[s] : ey[s];
+                int cx = Math.max(0, Math.min(gridCols - 1, (int) ((px - gridMinX) / cellSize)));
+                int cy = Math.max(0, Math.min(gridRows - 1, (int) ((py - gridMinY) / cellSize)));
+                int maxRing = Math.max(gridCols, gridRows);
+                for (int ring = 0; ring <= maxRing; ring++) {
+                    if (found == k && (ring - 1) * cellSize > bestDist[k - 1]) break;
+                    for (int gy = cy - ring; gy <= cy + ring; gy++) {
+                        if (gy < 0 || gy >= gridRows) continue;
+                        boolean edgeRow = gy == cy - ring || gy == cy + ring;
+                        int step = edgeRow ? 1 : Math.max(1, 2 * ring);
+                        for (int gx = cx - ring; gx <= cx + ring; gx += step) {
+                            if (gx < 0 || gx >= gridCols) continue;
+                            int cell = gy * gridCols + gx;
+                            for (int c = cellStart[cell]; c < cellStart[cell + 1]; c++) {
+                                int other = cellEntries[c] >> 1;
+                                if (other == s) continue;
+                                double ox = (cellEntries[c] & 1) == 0 ? sx[other] : ex[other];
+                                double oy = (cellEntries[c] & 1) == 0 ? sy[other] : ey[other];
+                                double d = Math.hypot(ox - px, oy - py);
+                                found = insertCandidate(best, bestDist, found, k, other, d);
+                            }
+                        }
+                    }
+                }
+            }
+            neighbours[s] = Arrays.copyOf(best, found);
+        }
+    }
+
+    private static int insertCandidate(int[] best, double[] bestDist, int found, int k, int id, double d) {
+        for (int i = 0; i < found; i++) {
+            if (best[i] == id) {
+                if (d >= bestDist[i]) return found;
+                // Remove and re-insert with the better distance
+                System.arraycopy(best, i + 1, best, i, found - i - 1);
+                System.arraycopy(bestDist, i + 1, bestDist, i, found - i - 1);
+                found--;
+                bestDist[found] = Double.MAX_VALUE;
+                break;
+            }
+        }
+        if (found == k && d >= bestDist[k - 1]) return found;
+        int pos = Math.min(found, k - 1);
+        while (pos > 0 && bestDist[pos - 1] > d) {
+            best[pos] = best[pos - 1];
+            bestDist[pos] = bestDist[pos - 1];
+            pos--;
+        }
+        best[pos] = id;
+        bestDist[pos] = d;
+        return Math.min(found + 1, k);
+    }
+
+    /**
+     * Greedy nearest neighbour tour using the endpoint grid; visited endpoints are
+     * skipped lazily, so each query only widens its ring until a free stroke is found.
+     */
+    private void nearestNeighbourTour(double startX, double startY) {
+        order = new int[strokeCount];
+        flipped = new boolean[strokeCount];
+        position = new int[strokeCount];
+        boolean[] visited = new boolean[strokeCount];
+        double curX = startX, curY = startY;
+        int maxRing = Math.max(gridCols, gridRows);
+
+        for (int p = 0; p < strokeCount; p++) {
+            int bestEndpoint = -1;
+            double bestDist = Double.MAX_VALUE;
+            int cx = Math.max(0, Math.min(gridCols - 1, (int) ((curX - gridMinX) / cellSize)));
+            int cy = Math.max(0, Math.min(gridRows - 1, (int) ((curY - gridMinY) / cellSize)));
+            for (int ring = 0; ring <= maxRing + 1; ring++) {
+                if (bestEndpoint >= 0 && (ring - 1) * cellSize > bestDist) break;
+                for (int gy = cy - ring; gy <= cy + ring; gy++) {
+                    if (gy < 0 || gy >= gridRows) continue;
+                    boolean edgeRow = gy == cy - ring || gy == cy + ring;
+                    int step = edgeRow ? 1 : Math.max(1, 2 * ring);
+                    for (int gx = cx - ring; gx <= cx + ring; gx += step) {
+                        if (gx < 0 || gx >= gridCols) continue;
+                        int cell = gy * gridCols + gx;
+                        for (int c = cellStart[cell]; c < cellStart[cell + 1]; c++) {
+                            int endpoint = cellEntries[c];
+                            if (visited[endpoint >> 1]) continue;
+                            int s = endpoint >> 1;
+                            double ox = (endpoint & 1) == 0 ? sx[s] : ex[s];
+                            double oy = (endpoint & 1) == 0 ? sy[s] : ey[s];
+                            double d = Math.hypot(ox - curX, oy - curY);
+                            if (d < bestDist) {
+                                bestDist = d;
+                                bestEndpoint = endpoint;
+                            }
+                        }
+                    }
+                }
+            }
+            int s = bestEndpoint >> 1;
+            boolean flip = (bestEndpoint & 1) == 1;   // Entered at its end: traverse backwards
+            visited[s] = true;
+            order[p] = s;
+            flipped[p] = flip;
+            position[s] = p;
+            curX = flip ? sx[s] : ex[s];
+            curY = flip ? sy[s] : ey[s];
+        }
+    }
+
+    // Tour accessors (by position)
+    private double inX(int p) { int s = order[p]; return flipped[p] ? ex[s] : sx[s]; }
+    private double inY(int p) { int s = order[p]; return flipped[p] ? ey[s] : sy[s]; }
+    private double outX(int p) { int s = order[p]; return flipped[p] ? sx[s] : ex[s]; }
+    private double outY(int p) { int s = order[p]; return flipped[p] ? sy[s] : ey[s]; }
+
+    private double homeOutX, homeOutY;
+
+    /** Travel from the exit of position p to the entry of position q (p may be -1 = home). */
+    private double link(int p, int q) {
+        if (q >= strokeCount) return 0;   // Open path: nothing after the last stroke
+        double ax = p < 0 ? homeOutX : outX(p);
+        double ay = p < 0 ? homeOutY : outY(p);
+        return Math.hypot(inX(q) - ax, inY(q) - ay);
+    }
+
+    private void improve(double startX, double startY) {
+        homeOutX = startX;
+        homeOutY = startY;
+        boolean improved = true;
+        int moves = 0;
+        while (improved) {
+            improved = false;
+            for (int p = -1; p < strokeCount - 1; p++) {
+                if ((++moves % TIME_CHECK_INTERVAL) == 0 && System.nanoTime() > deadline) return;
+                if (tryTwoOpt(p) || tryOrOpt(p + 1)) {
+                    improved = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * 2-opt on the open path: replace links (i -> i+1) and (j -> j+1) by
+     * (i -> j) and (i+1 -> j+1), reversing and flipping everything in between.
+     */
+    private boolean tryTwoOpt(int i) {
+        int a = i >= 0 ? order[i] : -1;
+        double ax = i < 0 ? homeOutX : outX(i);
+        double ay = i < 0 ? homeOutY : outY(i);
+        double removedFirst = link(i, i + 1);
+        int[] candidates = a >= 0 ? neighbours[a] : neighbours[order[0]];
+
+        for (int c : candidates) {
+            int j = position[c];
+            if (j <= i + 1) continue;
+            // New entry into position i+1 is the exit of j (after the flip)
+            double added = Math.hypot(outX(j) - ax, outY(j) - ay);
+            double gain = removedFirst + link(j, j + 1) - added;
+            if (j + 1 < strokeCount) {
+                gain -= Math.hypot(inX(j + 1) - inX(i + 1), inY(j + 1) - inY(i + 1));
+            }
+            if (gain > MIN_GAIN) {
+                reverse(i + 1, j);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void reverse(int from, int to) {
+        while (from < to) {
+            int s = order[from];
+            boolean f = flipped[from];
+            order[from] = order[to];
+            flipped[from] = !flipped[to];
+            order[to] = s;
+            flipped[to] = !f;
+            position[order[from]] = from;
+            position[order[to]] = to;
+            from++;
+            to--;
+        }
+        if (from == to) {
+            flipped[from] = !flipped[from];
+        }
+    }
+
+    /**
+     * Or-opt: move the segment starting at position p (1..MAX_OR_OPT_SEGMENT strokes)
+     * next to one of its spatial neighbours, in whichever direction is shorter.
+     */
+    private boolean tryOrOpt(int p) {
+        for (int length = 1; length <= MAX_OR_OPT_SEGMENT; length++) {
+            int last = p + length - 1;
+            if (last >= strokeCount) return false;
+
+            double removeGain = link(p - 1, p) + link(last, last + 1);
+            double bridgeX = p - 1 < 0 ? homeOutX : outX(p - 1);
+            double bridgeY = p - 1 < 0 ? homeOutY : outY(p - 1);
+            double bridge = last + 1 < strokeCount ? Math.hypot(inX(last + 1) - bridgeX, inY(last + 1) - bridgeY) : 0;
+            double removal = removeGain - bridge;
+            if (removal <= MIN_GAIN) continue;
+
+            for (int c : neighbours[order[p]]) {
+                int q = position[c];
+                // Insert between q and q+1 (q outside the segment and not its predecessor)
+                for (int side = 0; side < 2; side++) {
+                    int after = side == 0 ? q : q - 1;
+                    if (after >= p - 1 && after <= last) continue;
+                    double fromX = after < 0 ? homeOutX : outX(after);
+                    double fromY = after < 0 ? homeOutY : outY(after);
+                    boolean hasNext = after + 1 < strokeCount;
+                    double nextX = hasNext ? inX(after + 1) : 0, nextY = hasNext ? inY(after + 1) : 0;
+                    double existing = hasNext ? Math.hypot(nextX - fromX, nextY - fromY) : 0;
+
+                    double forward = Math.hypot(inX(p) - fromX, inY(p) - fromY)
+                        + (hasNext ? Math.hypot(nextX - outX(last), nextY - outY(last)) : 0);
+                    double backward = Math.hypot(outX(last) - fromX, outY(last) - fromY)
+                        + (hasNext ? Math.hypot(nextX - inX(p), nextY - inY(p)) : 0);
+                    boolean reverseSegment = backward < forward;
+                    double insertion = Math.min(forward, backward) - existing;
+
+                    if (removal - insertion > MIN_GAIN) {
+                        moveSegment(p, last, after, reverseSegment);
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private void moveSegment(int first, int last, int after, boolean reverseSegment) {
+        int length = last - first + 1;
+        int[] segOrder = Arrays.copyOfRange(order, first, last + 1);
+        boolean[] segFlip = Arrays.copyOfRange(flipped, first, last + 1);
+        int insertAt;
+        if (after < first) {
+            // Shift (after+1 .. first-1) right by length
+            System.arraycopy(order, after + 1, order, after + 1 + length, first - after - 1);
+            System.arraycopy(flipped, after + 1, flipped, after + 1 + length, first - after - 1);
+            insertAt = after + 1;
+        } else {
+            // Shift (last+1 .. after) left by length
+            System.arraycopy(order, last + 1, order, first, after - last);
+            System.arraycopy(flipped, last + 1, flipped, first, after - last);
+            insertAt = after - length + 1;
+        }
+        for (int k = 0; k < length; k++) {
+            int src = reverseSegment ? length - 1 - k : k;
+            order[insertAt + k] = segOrder[src];
+            flipped[insertAt + k] = reverseSegment != segFlip[src];
+        }
+        int lo = Math.min(insertAt, Math.min(first, after + 1));
+        int hi = Math.max(insertAt + length - 1, Math.max(last, after));
+        for (int k = Math.max(0, lo); k <= Math.min(strokeCount - 1, hi); k++) {
+            position[order[k]] = k;
+        }
+    }
+
+    private DotPath emit(DotPath source) {
+        DotPath out = new DotPath(Math.max(16, strokeLast[strokeCount - 1] - strokeFirst[0] + 1));
+        Mark currentMark = null;
+        boolean anyMark = false;
+        for (int p = 0; p < strokeCount; p++) {
+            int s = order[p];
+            Mark owner = findMark(source, strokeFirst[s]);
+            if (!anyMark || owner != currentMark) {
+                out.beginMark(owner);
+                currentMark = owner;
+                anyMark = true;
+            }
+            if (flipped[p]) {
+                for (int i = strokeLast[s]; i >= strokeFirst[s]; i--) {
+                    out.add(source.getX(i), source.getY(i),
+                        (byte) ((source.getFlags(i) & ~DotPath.FLAG_STROKE_START) | (i == strokeLast[s] ? DotPath.FLAG_STROKE_START : 0)));
+                }
+            } else {
+                for (int i = strokeFirst[s]; i <= strokeLast[s]; i++) {
+                    out.add(source.getX(i), source.getY(i),
+                        (byte) ((source.getFlags(i) & ~DotPath.FLAG_STROKE_START) | (i == strokeFirst[s] ? DotPath.FLAG_STROKE_START : 0)));
+                }
+            }
+        }
+        return out;
+    }
+
+    private static Mark findMark(DotPath path, int dotIndex) {
+        int lo = 0, hi = path.getMarkCount() - 1;
+        if (hi < 0) return null;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (path.getMarkStart(mid) <= dotIndex) lo = mid; else hi = mid - 1;
+        }
+        return path.getMark(lo);
+    }
+
+    private static void appendDots(DotPath out, DotPath section) {
+        out.ensureCapacity(out.size() + section.size());
+        for (int i = 0; i < section.size(); i++) {
+            out.add(section.getX(i), section.getY(i), section.getFlags(i));
+        }
+    }
+}
@@ -0,0 +1,71 @@
+// DotPathOptimizer Test Program - Verify stroke reordering and travel savings
+// Checks that every dot survives optimisation and that air travel drops
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+public class DotPathOptimizerTest {
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+        System.out.println("Testing DotPathOptimizer...");
+
+        // Real canvas layout
+        List<Mark> marks = new ArrayList<>();
+        marks.add(new TextMark(50, 50, "SN-000123"));
+        marks.add(new DotMatrixMark(500, 50, "MFR123456"));
+        marks.add(new ArcLettersMark(300, 300, "ARC"));
+        marks.add(new TextMark(600, 400, "LOT 42"));
+        marks.add(new RectangleMark(200, 400));
+        DotPath path = DotPathCompiler.compileMarks(marks);
+        DotPathOptimizer.Result result = DotPathOptimizer.optimizePath(path);
+        System.out.println("Canvas layout: " + result);
+        checkSameDots(path, result.path, "canvas layout");
+        check(result.travelAfter <= result.travelBefore, "canvas travel not increased");
+        check(Math.abs(DotPathOptimizer.measureTravel(result.path, 0, 0) - result.travelAfter) < 1e-6, "reported travel matches path");
+
+        // Preserving mark order keeps one section per mark, in order
+        DotPathOptimizer.Result ordered = new DotPathOptimizer().setPreserveMarkOrder(true).optimize(path);
+        check(ordered.path.getMarkCount() == marks.size(), "mark order preserved");
+        for (int m = 0; m < marks.size(); m++) {
+            check(ordered.path.getMark(m) == marks.get(m) && ordered.path.getDotCount(m) == path.getDotCount(m),
+                "section " + (m + 1) + " keeps its mark and dots");
+        }
+
+        // Randomly ordered short strokes: expect a large saving
+        Random random = new Random(7);
+        DotPath scattered = new DotPath();
+        scattered.beginMark(null);
+        for (int i = 0; i < 5000; i++) {
+            double x = random.nextDouble() * 750, y = random.nextDouble() * 560;
+            scattered.addStrokeStart(x, y);
+            scattered.addDot(x + 2, y);
+            scattered.addDot(x + 4, y);
+        }
+        DotPathOptimizer.Result big = DotPathOptimizer.optimizePath(scattered);
+        System.out.println("5000 random strokes: " + big);
+        checkSameDots(scattered, big.path, "random strokes");
+        check(big.getSavingPercent() > 80, "random strokes travel reduced by more than 80%");
+        check(big.elapsedMillis < 2000, "optimisation finishes within budget");
+
+        System.out.println("\nAll DotPathOptimizer checks passed.");
+    }
+
+    private static void checkSameDots(DotPath a, DotPath b, String label) {
+        check(a.size() == b.size() && a.getStrokeCount() == b.getStrokeCount(), label + ": dot and stroke counts kept");
+        String[] left = new String[a.size()], right = new String[b.size()];
+        for (int i = 0; i < a.size(); i++) left[i] = a.getX(i) + "," + a.getY(i);
+        for (int i = 0; i < b.size(); i++) right[i] = b.getX(i) + "," + b.getY(i);
+        Arrays.sort(left);
+        Arrays.sort(right);
+        check(Arrays.equals(left, right), label + ": same dots");
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError("FAILED: " + message);
+        }
+        System.out.println("✓ " + message);
+    }
+}
@@ -0,0 +1,264 @@
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import javax.swing.SwingUtilities;
+
+/**
+ * DotPreviewLayer: the dot preview of DrawingCanvas, drawn from the real compiled dots.
+ *
+ * Each mark is compiled with DotPathCompiler when it first becomes visible and again only
+ * when its state key changes (see Mark.getStateKey). Dots are stamped
+ * into a device-space int[] raster with a pre-built antialiased dot sprite; marks and dots
+ * outside the viewport are skipped. The finished layer is kept and blitted as is while no
+ * mark, zoom, pan or size changes, so repaints and toggling the preview cost one drawImage.
+ *
+ * A GraphMark whose large image has not been halftoned yet shows its geometry at first;
+ * ImageHalftoner runs on a background thread (as ScaledImageCache scales images) and the
+ * ready listener is told on the EDT once the image dots can be compiled from the cache.
+ */
+public class DotPreviewLayer {
+
+    // Soft coding: Preview appearance
+    private static final Color DOT_COLOR = new Color(0, 150, 0, 180);   // Semi-transparent green
+    private static final double DOT_DIAMETER_FRACTION = 0.8;            // Of the dot pitch
+    private static final int MIN_DOT_DIAMETER = 1;                      // Device pixels
+
+    // Soft coding: Background halftoning
+    private static final long SYNC_HALFTONE_PIXELS = 1024 * 1024;       // Smaller images are halftoned on the spot
+    private static final ExecutorService HALFTONER = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "Dot Preview Halftoner");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.NORM_PRIORITY - 1);
+        return thread;
+    });
+
+    private final DotPathCompiler compiler;
+    private final Map<Mark, CompiledMark> compiled = new IdentityHashMap<>();
+
+    private BufferedImage layer;
+    private long layerKey;
+    private int[] sprite;
+    private int spriteSize;
+    private double spriteZoom = -1;
+    private int lastDotCount;
+    private int renderCount;
+    private int compileCount;
+    private Runnable readyListener;
+
+    private static final class CompiledMark {
+        long stateKey;
+        DotPath path;
+        boolean imagePending;        // Geometry only until the background halftone is done
+        volatile long halftoneKey;   // State the queued halftone is still wanted for
+    }
+
+    public DotPreviewLayer() {
+        this(new DotPathCompiler());
+    }
+
+    public DotPreviewLayer(DotPathCompiler compiler) {
+        this.compiler = compiler;
+    }
+
+    /** Called on the EDT when image dots halftoned in the background are ready to be shown. */
+    public void setReadyListener(Runnable listener) {
+        this.readyListener = listener;
+    }
+
+    /**
+     * Draw the dots of marks onto device (untransformed graphics of a width x height surface).
+     */
+    public void paint(Graphics2D device, List<Mark> marks, double zoom, int viewOffsetX, int viewOffsetY, int width, int height) {
+        if (width <= 0 || height <= 0) return;
+        Rectangle viewport = new Rectangle(0, 0, width, height);
+
+        // Key of everything the layer depends on; visible marks are compiled on the way
+        long key = Double.doubleToLongBits(zoom);
+        key = key * 31 + viewOffsetX;
+        key = key * 31 + viewOffsetY;
+        key = key * 31 + width;
+        key = key * 31 + height;
+        for (Mark mark : marks) {
+            if (!visible(mark, zoom, viewOffsetX, viewOffsetY, viewport)) continue;
+            key = key * 31 + System.identityHashCode(mark);
+            CompiledMark entry = compiledMark(mark);
+            key = key * 31 + entry.stateKey;
+            key = key * 31 + (entry.imagePending ? 1 : 0);
+        }
+
+        if (layer == null || layer.getWidth() != width || layer.getHeight() != height || key != layerKey) {
+            render(marks, zoom, viewOffsetX, viewOffsetY, viewport);
+            layerKey = key;
+        }
+        device.drawImage(layer, 0, 0, null);
+    }
+
+    private boolean visible(Mark mark, double zoom, int viewOffsetX, int viewOffsetY, Rectangle viewport) {
+        return mark != null && !mark.disablePrint
+            && viewport.intersects(CanvasRenderCache.getDeviceBounds(mark, zoom, viewOffsetX, viewOffsetY));
+    }
+
+    private CompiledMark compiledMark(Mark mark) {
+        long stateKey = mark.getStateKey();
+        CompiledMark entry = compiled.get(mark);
+        if (entry == null) {
+            entry = new CompiledMark();
+            compiled.put(mark, entry);
+        }
+        if (entry.path == null || entry.stateKey != stateKey) {
+            entry.stateKey = stateKey;
+            compileCount++;
+            if (mark instanceof GraphMark && halftoneInBackground((GraphMark) mark)) {
+                entry.path = compiler.compileWithoutImage(mark);
+                entry.imagePending = true;
+                queueHalftone((GraphMark) mark, entry, stateKey);
+            } else {
+                entry.path = compiler.compile(mark);
+                entry.imagePending = false;
+            }
+        }
+        return entry;
+    }
+
+    private boolean halftoneInBackground(GraphMark graph) {
+        if (!compiler.needsHalftone(graph)) return false;
+        BufferedImage image = graph.getAssignedImage();
+        return image != null && (long) image.getWidth() * image.getHeight() > SYNC_HALFTONE_PIXELS;
+    }
+
+    private void queueHalftone(GraphMark graph, CompiledMark entry, long stateKey) {
+        Runnable task = compiler.halftoneTask(graph);
+        entry.halftoneKey = stateKey;
+        HALFTONER.execute(() -> {
+            if (entry.halftoneKey != stateKey) return;   // Superseded by a later edit
+            try {
+                task.run();
+            } catch (RuntimeException | OutOfMemoryError e) {
+                System.err.println("❌ Error halftoning image: " + e.getMessage());
+            }
+            SwingUtilities.invokeLater(() -> halftoneDone(graph, entry, stateKey));
+        });
+    }
+
+    private void halftoneDone(GraphMark graph, CompiledMark entry, long stateKey) {
+        if (compiled.get(graph) != entry || !entry.imagePending || entry.stateKey != stateKey) return;
+        // A failed halftone leaves the geometry-only dots, so it is not queued again for this state
+        if (!compiler.needsHalftone(graph)) {
+            entry.path = compiler.compile(graph);
+            compileCount++;
+        }
+        entry.imagePending = false;
+        if (readyListener != null) readyListener.run();
+    }
+
+    private void render(List<Mark> marks, double zoom, int viewOffsetX, int viewOffsetY, Rectangle viewport) {
+        int width = viewport.width;
+        int height = viewport.height;
+        if (layer == null || layer.getWidth() != width || layer.getHeight() != height) {
+            layer = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB_PRE);
+        }
+        renderCount++;
+        int[] pixels = ((DataBufferInt) layer.getRaster().getDataBuffer()).getData();
+        java.util.Arrays.fill(pixels, 0);
+        if (zoom != spriteZoom) buildSprite(zoom);
+
+        double half = spriteSize / 2.0;
+        int dots = 0;
+        for (Mark mark : marks) {
+            if (!visible(mark, zoom, viewOffsetX, viewOffsetY, viewport)) continue;
+            DotPath path = compiled.get(mark).path;
+            double[] coords = path.getCoords();
+            byte[] flags = path.getFlagArray();
+            for (int i = 0; i < path.size(); i++) {
+                if ((flags[i] & DotPath.FLAG_STRIKE) == 0) continue;
+                int left = (int) Math.round(viewOffsetX + coords[i * 2] * zoom - half);
+                int top = (int) Math.round(viewOffsetY + coords[i * 2 + 1] * zoom - half);
+                if (left >= width || top >= height || left + spriteSize <= 0 || top + spriteSize <= 0) continue;
+                stamp(pixels, width, height, left, top);
+                dots++;
+            }
+        }
+        lastDotCount = dots;
+    }
+
+    /** Copy the sprite at (left, top), keeping the stronger coverage where dots overlap. */
+    private void stamp(int[] pixels, int width, int height, int left, int top) {
+        int rowStart = Math.max(0, -top);
+        int rowEnd = Math.min(spriteSize, height - top);
+        int columnStart = Math.max(0, -left);
+        int columnEnd = Math.min(spriteSize, width - left);
+        for (int row = rowStart; row < rowEnd; row++) {
+            int target = (top + row) * width + left;
+            int source = row * spriteSize;
+            for (int column = columnStart; column < columnEnd; column++) {
+                int argb = sprite[source + column];
+                if (Integer.compareUnsigned(argb, pixels[target + column]) > 0) pixels[target + column] = argb;
+            }
+        }
+    }
+
+    /** Antialiased disc of the dot colour, premultiplied, sized for zoom. */
+    private void buildSprite(double zoom) {
+        double diameter = Math.max(MIN_DOT_DIAMETER, compiler.getDotPitch() * DOT_DIAMETER_FRACTION * zoom);
+        spriteSize = (int) Math.ceil(diameter) + 1;
+        sprite = new int[spriteSize * spriteSize];
+        double center = spriteSize / 2.0;
+        double radius = diameter / 2;
+        final int samples = 4;
+        for (int row = 0; row < spriteSize; row++) {
+            for (int column = 0; column < spriteSize; column++) {
+                int inside = 0;
+                for (int sy = 0; sy < samples; sy++) {
+                    for (int sx = 0; sx < samples; sx++) {
+                        double dx = column + (sx + 0.5) / samples - center;
+                        double dy = row + (sy + 0.5) / samples - center;
+                        if (dx * dx + dy * dy <= radius * radius) inside++;
+                    }
+                }
+                int alpha = DOT_COLOR.getAlpha() * inside / (samples * samples);
+                int r = DOT_COLOR.getRed() * alpha / 255;
+                int g = DOT_COLOR.getGreen() * alpha / 255;
+                int b = DOT_COLOR.getBlue() * alpha / 255;
+                sprite[row * spriteSize + column] = (alpha << 24) | (r << 16) | (g << 8) | b;
+            }
+        }
+        spriteZoom = zoom;
+    }
+
+    /** Strike dots drawn by the last layer render (for the status line and tests). */
+    public int getLastDotCount() {
+        return lastDotCount;
+    }
+
+    /** Times the layer was re-stamped rather than reused (for tests and diagnostics). */
+    public int getRenderCount() {
+        return renderCount;
+    }
+
+    /** Times a mark was compiled into dots (for tests and diagnostics). */
+    public int getCompileCount() {
+        return compileCount;
+    }
+
+    /**
+     * Drop compiled dots of marks no longer on the canvas.
+     */
+    public void prune(List<Mark> marks) {
+        if (compiled.size() <= marks.size()) return;
+        Map<Mark, Boolean> live = new IdentityHashMap<>();
+        for (Mark mark : marks) live.put(mark, Boolean.TRUE);
+        compiled.keySet().removeIf(mark -> !live.containsKey(mark));
+    }
+
+    public void clear() {
+        compiled.clear();
+        layer = null;
+    }
+}
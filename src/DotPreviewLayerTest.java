@@ -0,0 +1,136 @@
+// DotPreviewLayer Test Program - Verify the compiled-dot preview layer
+// Covers real dots, layer reuse, recompiling changed marks, viewport culling, background
+// halftoning of large logos and frame time
+
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+
+public class DotPreviewLayerTest {
+
+    private static final int WIDTH = 1200;
+    private static final int HEIGHT = 900;
+
+    public static void main(String[] args) throws Exception {
+        System.setProperty("java.awt.headless", "true");
+        System.out.println("Testing DotPreviewLayer...");
+        testDots();
+        testBackgroundHalftone();
+        testLargeLayout();
+        System.out.println("\nAll DotPreviewLayer checks passed.");
+    }
+
+    private static void testDots() {
+        List<Mark> marks = new ArrayList<>();
+        DotMatrixMark matrix = new DotMatrixMark(100, 100, "AB12");
+        marks.add(matrix);
+        RectangleMark box = new RectangleMark(400, 300);
+        marks.add(box);
+        DotPath compiled = DotPathCompiler.compileMarks(marks);
+
+        DotPreviewLayer layer = new DotPreviewLayer();
+        BufferedImage surface = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_ARGB);
+        paint(layer, surface, marks, 1.0, 0, 0);
+        check(layer.getLastDotCount() == compiled.size(), "every compiled dot is drawn (" + compiled.size() + ")");
+        int x = (int) Math.round(compiled.getX(0));
+        int y = (int) Math.round(compiled.getY(0));
+        check((surface.getRGB(x, y) >>> 24) != 0 && (surface.getRGB(x, y) & 0x00FF00) != 0, "a dot shows at its compiled position");
+        check(surface.getRGB(5, 5) == 0, "empty canvas stays clear");
+
+        matrix.setData("AB1234");
+        paint(layer, surface, marks, 1.0, 0, 0);
+        check(layer.getLastDotCount() == DotPathCompiler.compileMarks(marks).size(), "an edited mark is recompiled");
+
+        paint(layer, surface, marks, 2.0, -150, -150);
+        int zoomed = layer.getLastDotCount();
+        paint(layer, surface, marks, 1.0, -WIDTH, -HEIGHT);
+        check(layer.getLastDotCount() == 0 && zoomed > 0, "marks outside the viewport are skipped");
+    }
+
+    private static void testBackgroundHalftone() throws Exception {
+        GraphMark logo = new GraphMark(50, 50);
+        logo.width = 600;
+        logo.height = 450;
+        BufferedImage photo = new BufferedImage(2400, 1800, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = photo.createGraphics();
+        g.setPaint(new java.awt.GradientPaint(0, 0, java.awt.Color.WHITE, 2400, 1800, java.awt.Color.BLACK));
+        g.fillRect(0, 0, 2400, 1800);
+        g.dispose();
+        logo.setAssignedImage(photo, "logo");
+        List<Mark> marks = new ArrayList<>();
+        marks.add(logo);
+
+        DotPathCompiler compiler = new DotPathCompiler();
+        int geometry = compiler.compileWithoutImage(logo).size();
+        java.util.concurrent.CountDownLatch ready = new java.util.concurrent.CountDownLatch(1);
+        DotPreviewLayer layer = new DotPreviewLayer(compiler);
+        layer.setReadyListener(ready::countDown);
+        BufferedImage surface = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_ARGB);
+        javax.swing.SwingUtilities.invokeAndWait(() -> paint(layer, surface, marks, 1.0, 0, 0));   // Layer is EDT-confined
+        check(layer.getLastDotCount() == geometry, "a large logo shows its geometry while it is halftoned");
+
+        check(ready.await(20, java.util.concurrent.TimeUnit.SECONDS), "the canvas is told when the image dots are ready");
+        check(!compiler.needsHalftone(logo), "the background halftone is left in the cache");
+        javax.swing.SwingUtilities.invokeAndWait(() -> paint(layer, surface, marks, 1.0, 0, 0));
+        int full = compiler.compile(logo).size();
+        check(full > geometry && layer.getLastDotCount() == full, "the next paint shows the image dots (" + full + ")");
+    }
+
+    private static void testLargeLayout() {
+        List<Mark> marks = new ArrayList<>();
+        Font font = GlyphCache.font("Arial", Font.BOLD, 30);
+        for (int row = 0; row < 20; row++) {
+            for (int column = 0; column < 6; column++) {
+                TextMark text = new TextMark(20 + column * 190, 20 + row * 42, "LOT" + (1000 + row * 6 + column));
+                text.setFont(font);
+                text.setDotMode(GlyphDotRasterizer.Mode.FILL);
+                marks.add(text);
+            }
+        }
+        int total = DotPathCompiler.compileMarks(marks).size();
+
+        DotPreviewLayer layer = new DotPreviewLayer();
+        BufferedImage surface = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_ARGB);
+        long start = System.nanoTime();
+        paint(layer, surface, marks, 1.0, 0, 0);
+        long first = System.nanoTime() - start;
+        int drawn = layer.getLastDotCount();
+        int renders = layer.getRenderCount();
+        int compiles = layer.getCompileCount();
+
+        start = System.nanoTime();
+        for (int i = 0; i < 10; i++) paint(layer, surface, marks, 1.0, 0, 0);
+        long unchanged = (System.nanoTime() - start) / 10;
+        boolean reused = layer.getRenderCount() == renders && layer.getCompileCount() == compiles;
+
+        start = System.nanoTime();
+        for (int i = 0; i < 10; i++) paint(layer, surface, marks, 1.0, -i * 7, -i * 5);
+        long panned = (System.nanoTime() - start) / 10;
+        boolean restamped = layer.getRenderCount() == renders + 9 && layer.getCompileCount() == compiles;
+
+        System.out.println("  " + total + " dots: first paint " + first / 1_000_000 + " ms, unchanged "
+                           + unchanged / 1_000_000 + " ms, panned " + panned / 1_000_000 + " ms per frame");
+        check(total > 45_000 && drawn == total, "large layout fully drawn (" + drawn + " dots)");
+        check(compiles == marks.size() && renders == 1, "first paint compiles each mark once");
+        check(reused, "unchanged frames reuse the layer without recompiling");
+        check(restamped, "panning re-stamps the cached dots without recompiling");
+    }
+
+    private static void paint(DotPreviewLayer layer, BufferedImage surface, List<Mark> marks, double zoom, int offsetX, int offsetY) {
+        Graphics2D g = surface.createGraphics();
+        g.setComposite(java.awt.AlphaComposite.Clear);
+        g.fillRect(0, 0, WIDTH, HEIGHT);
+        g.setComposite(java.awt.AlphaComposite.SrcOver);
+        layer.paint(g, marks, zoom, offsetX, offsetY, WIDTH, HEIGHT);
+        g.dispose();
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError("FAILED: " + message);
+        }
+        System.out.println("✓ " + message);
+    }
+}
@@ -3,10 +3,9 @@ import java.awt.event.*;
 import java.awt.geom.AffineTransform;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Stack;
 import javax.swing.*;
 
-public class DrawingCanvas extends JPanel {
+public class DrawingCanvas extends JPanel implements ImageAssetStore.Holder {
 
     // Modern color scheme for better visibility
     private static final Color LABEL_COLOR = new Color(44, 62, 80);   // Dark text for labels
@@ -23,7 +22,11 @@ public class DrawingCanvas extends JPanel {
     private static final int PASTE_OFFSET_X = 20;                          // X offset for pasted objects
     private static final int PASTE_OFFSET_Y = 20;                          // Y offset for pasted objects
     
-    private final List<Mark> marks = new ArrayList<>();
+    private final MarkSpatialIndex markIndex = new MarkSpatialIndex(); // Hit-test grid over mark bounds
+    private final List<Mark> marks = markIndex.trackedList();          // Index follows every add and remove
+    private final CanvasRenderCache renderCache = new CanvasRenderCache(); // Cached grid layer and mark rasters
+    private final java.util.function.Consumer<java.awt.image.BufferedImage> scaledImageListener = this::scaledImageReady;
+    private final DotPreviewLayer dotPreviewLayer = new DotPreviewLayer();  // Compiled dots shown by the dot preview
     private final List<TextMark> textMarks = new ArrayList<>(); // Keep for backward compatibility
     private Mark activeMark = null;
     private Mark selectedMark = null;
@@ -32,8 +35,8 @@ public class DrawingCanvas extends JPanel {
     private PropertyStrip propertyStrip = null;
     
     // Clipboard and undo functionality
-    private final Stack<List<Mark>> undoStack = new Stack<>();
-    private final Stack<List<Mark>> redoStack = new Stack<>();
+    private final UndoJournal undoJournal = new UndoJournal(); // Command-based undo/redo history
+    private UndoJournal.Snapshot dragSnapshot = null; // Grabbed mark as it was before the current drag
     private Mark clipboardMark = null;
     
     // Mark properties
@@ -139,8 +142,14 @@ MouseAdapter mouseHandler = new MouseAdapter() {
         boolean isResizeClick = false;
         boolean isSpecialControl = false;
         
+        // Only marks whose hit box covers the click need the detailed tests
+        List<Mark> hitCandidates = markIndex.query(transformedX, transformedY);
+        
+        // The grabbed mark is snapshotted on its first drag step (see mouseDragged)
+        dragSnapshot = null;
+        
         // First pass: Check for special controls and resize handles
-        for (Mark mark : marks) {
+        for (Mark mark : hitCandidates) {
             // Special handling for ArcLettersMark controls
             if (mark instanceof ArcLettersMark) {
                 ArcLettersMark arcMark = (ArcLettersMark) mark;
@@ -272,7 +281,7 @@ MouseAdapter mouseHandler = new MouseAdapter() {
         }
         
         // Third pass: Handle normal mark selection and dragging
-        for (Mark mark : marks) {
+        for (Mark mark : hitCandidates) {
             // Special handling for GraphMark
             if (mark instanceof GraphMark) {
                 GraphMark graphMark = (GraphMark) mark;
@@ -323,6 +332,7 @@ MouseAdapter mouseHandler = new MouseAdapter() {
             try {
                 activeMark.stopDrag();
                 activeMark.stopResize();
+                markIndex.update(activeMark);
             } catch (Exception ex) {
                 System.err.println("Error during mouse release: " + ex.getMessage());
             } finally {
@@ -332,6 +342,12 @@ MouseAdapter mouseHandler = new MouseAdapter() {
                     ((RulerMark) activeMark).endDrag();
                 }
                 
+                // Journal the move/resize/handle edit as one undo step
+                if (dragSnapshot != null && dragSnapshot.getMark() == activeMark) {
+                    undoJournal.record(dragSnapshot.commit());
+                }
+                dragSnapshot = null;
+                
                 activeMark = null;
                 activeHandle = ArcLettersMark.ControlHandle.NONE;
                 activeDotMatrixHandle = DotMatrixControlHandle.NONE;
@@ -386,7 +402,8 @@ MouseAdapter mouseHandler = new MouseAdapter() {
         // Check if mouse is over any control handles and change cursor accordingly
         boolean cursorChanged = false;
         
-        for (Mark mark : marks) {
+        // Index is kept in sync by paintComponent, so hover never scans every mark
+        for (Mark mark : markIndex.query(transformedX, transformedY)) {
             if (mark == selectedMark && mark instanceof ArcLettersMark) {
                 ArcLettersMark arcMark = (ArcLettersMark) mark;
                 // Use transformed coordinates for accurate handle detection
@@ -611,6 +628,14 @@ MouseAdapter mouseHandler = new MouseAdapter() {
             int transformedX = processedEvent.transformedX;
             int transformedY = processedEvent.transformedY;
             
+            // Only the mark being edited is copied for undo, once per drag
+            if (dragSnapshot == null || dragSnapshot.getMark() != activeMark) {
+                dragSnapshot = new UndoJournal.Snapshot(activeMark);
+            }
+            
+            // Area the mark covers before this step; only old + new area is repainted
+            Rectangle dirtyRegion = CanvasRenderCache.getDeviceBounds(activeMark, zoomLevel, viewOffsetX, viewOffsetY);
+            
             // Soft coding: Boundary validation using enhanced bounds checking
             if (!processedEvent.isWithinBounds) {
                 System.out.println("⚠️ Drag operation outside valid bounds, constraining coordinates");
@@ -744,7 +769,12 @@ MouseAdapter mouseHandler = new MouseAdapter() {
                     }
                 }
             }
-            repaint();
+            if (activeMark != null && dirtyRegion != null) {
+                dirtyRegion.add(CanvasRenderCache.getDeviceBounds(activeMark, zoomLevel, viewOffsetX, viewOffsetY));
+                repaint(dirtyRegion);
+            } else {
+                repaint();
+            }
         }
     }
 };
@@ -762,6 +792,31 @@ MouseAdapter mouseHandler = new MouseAdapter() {
         
         // Initialize fixed grid state if configured
         initializeFixedGrid();
+        ImageAssetStore.addHolder(this);
+        dotPreviewLayer.setReadyListener(this::repaint);
+    }
+
+    // The image cache is static, so its listener is held only while the canvas is on screen
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        ScaledImageCache.addReadyListener(scaledImageListener);
+    }
+
+    @Override
+    public void removeNotify() {
+        ScaledImageCache.removeReadyListener(scaledImageListener);
+        super.removeNotify();
+    }
+
+    /** Redraw GraphMark images once their device-size copies are scaled in the background. */
+    private void scaledImageReady(java.awt.image.BufferedImage image) {
+        for (Mark mark : marks) {
+            if (mark instanceof GraphMark && ((GraphMark) mark).getAssignedImage() == image) {
+                renderCache.invalidate(mark);
+            }
+        }
+        repaint();
     }
 
     /**
@@ -862,9 +917,8 @@ MouseAdapter mouseHandler = new MouseAdapter() {
         // List of all supported barcode types
         String[] barcodeTypes = {
             "Code 128", "QR Code", "EAN-13", "Code 39", "Data Matrix", 
-            "PDF417", "UPC-A", "Code 93", "ITF", "Codabar", "Aztec Code",
-            "MaxiCode", "MSI Plessey", "POSTNET", "Code 11", "GS1-128",
-            "EAN-8", "UPC-E", "Pharma Code", "MSI"
+            "PDF417", "UPC-A", "Code 93", "ITF", "Codabar", "MSI Plessey",
+            "POSTNET", "Code 11", "GS1-128", "EAN-8", "UPC-E", "Pharma Code", "MSI"
         };
         
         // Check if the type matches any of the known barcode types
@@ -913,8 +967,6 @@ MouseAdapter mouseHandler = new MouseAdapter() {
     }
     
     public void addMark(String type, String content, int height, int width, String font) {
-        saveStateForUndo(); // Save current state before adding
-        
         // Soft coding: Enhanced mark creation with logging and validation
         Mark newMark = null;
         
@@ -984,6 +1036,7 @@ MouseAdapter mouseHandler = new MouseAdapter() {
             
             // Soft coding: Configure new mark for optimal interaction
             if (newMark != null) {
+                undoJournal.record(new UndoJournal.MarkAdded(newMark, marks.indexOf(newMark)));
                 newMark.setCanDrag(true);
                 newMark.setCanResize(true);
                 System.out.println("Mark configured for drag and resize. Total marks: " + marks.size());
@@ -1005,6 +1058,7 @@ MouseAdapter mouseHandler = new MouseAdapter() {
     @Override
     protected void paintComponent(Graphics g) {
         super.paintComponent(g);
+        Graphics2D device = (Graphics2D) g.create(); // Untransformed copy for cached layers
         Graphics2D g2d = (Graphics2D) g.create(); // Create a copy for transformations
         
         // Apply zoom and view offset transformations
@@ -1015,25 +1069,38 @@ MouseAdapter mouseHandler = new MouseAdapter() {
         g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
         g2d.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
         
-        // Draw grid if enabled
-        if (gridVisible) {
-            drawPreviewGrid(g2d);
-        }
-        
-        // Draw material boundary if enabled
-        if (materialBoundaryVisible) {
-            drawMaterialBoundary(g2d);
+        // Grid and material boundary come from a cached layer, rebuilt only on size/zoom/visibility change
+        if (gridVisible || materialBoundaryVisible) {
+            int layerKey = (gridVisible ? 1 : 0) | (materialBoundaryVisible ? 2 : 0);
+            renderCache.paintStaticLayer(device, getWidth(), getHeight(), zoomLevel, viewOffsetX, viewOffsetY, layerKey,
+                layer -> {
+                    if (gridVisible) {
+                        drawPreviewGrid(layer);
+                    }
+                    if (materialBoundaryVisible) {
+                        drawMaterialBoundary(layer);
+                    }
+                });
         }
         
-        // Draw all marks
+        // Draw all marks: selected and actively edited marks live, the rest from cached rasters
+        Rectangle clip = g.getClipBounds();
         for (Mark mark : marks) {
-            mark.draw(g2d, mark == selectedMark);
+            markIndex.update(mark);   // Re-buckets only marks edited since the last paint
+            if (mark == selectedMark || mark == activeMark) {
+                mark.draw(g2d, mark == selectedMark);
+            } else if (clip == null || clip.intersects(CanvasRenderCache.getDeviceBounds(mark, zoomLevel, viewOffsetX, viewOffsetY))) {
+                renderCache.paintMark(g2d, device, mark, zoomLevel, viewOffsetX, viewOffsetY);
+            }
         }
+        renderCache.prune(marks);
         
-        // Draw dot preview if enabled
+        // Draw dot preview if enabled: compiled dots, from a cached layer
         if (dotPreviewEnabled) {
-            drawDotPreview(g2d);
+            dotPreviewLayer.paint(device, marks, zoomLevel, viewOffsetX, viewOffsetY, getWidth(), getHeight());
+            dotPreviewLayer.prune(marks);
         }
+        device.dispose();
         
         g2d.dispose(); // Clean up the graphics context
         
@@ -1074,218 +1141,74 @@ MouseAdapter mouseHandler = new MouseAdapter() {
     }
 
     // Clipboard and Undo Operations
-    private List<Mark> copyAllMarks(List<Mark> originalMarks) {
-        List<Mark> copies = new ArrayList<>();
-        for (Mark mark : originalMarks) {
-            // Create a deep copy of each mark with COMPLETE format preservation
-            if (mark instanceof TextMark) {
-                TextMark textMark = (TextMark) mark;
-                TextMark copy = new TextMark(textMark.x, textMark.y, textMark.getText());
-                copy.width = textMark.width;
-                copy.height = textMark.height;
-                
-                // ENHANCED: Copy ALL text formatting properties (soft-coded approach)
-                copy.setFont(textMark.getFont());
-                copy.setCharacterWidth(textMark.getCharacterWidth());
-                copy.setLineSpacing(textMark.getLineSpacing());
-                
-                if (ENABLE_COPY_PASTE_LOGGING) {
-                    System.out.println("📝 TextMark copied with format: font=" + textMark.getFont().getName() + 
-                                     " size=" + textMark.getFont().getSize() + 
-                                     " charWidth=" + textMark.getCharacterWidth() + 
-                                     " lineSpacing=" + textMark.getLineSpacing());
-                }
-                copies.add(copy);
-            } else if (mark instanceof BowTextMark) {
-                BowTextMark bowMark = (BowTextMark) mark;
-                BowTextMark copy = new BowTextMark(bowMark.x, bowMark.y, bowMark.getText());
-                copy.width = bowMark.width;
-                copy.height = bowMark.height;
-                copy.setCurvature(bowMark.getCurvature());
-                copy.setBowUp(bowMark.isBowUp());
-                copies.add(copy);
-            } else if (mark instanceof ArcLettersMark) {
-                ArcLettersMark arcMark = (ArcLettersMark) mark;
-                ArcLettersMark copy = new ArcLettersMark(arcMark.x, arcMark.y, arcMark.getLetters());
-                copy.width = arcMark.width;
-                copy.height = arcMark.height;
-                copy.setStartAngle(arcMark.getStartAngle());
-                copy.setArcAngle(arcMark.getArcAngle());
-                copy.setRadius(arcMark.getRadius());
-                copy.setShowArc(arcMark.isShowArc());
-                if (arcMark.getFont() != null) {
-                    copy.setFont(arcMark.getFont());
-                }
-                copies.add(copy);
-            } else if (mark instanceof RulerMark) {
-                // ENHANCED: RulerMark complete format preservation (was previously missing!)
-                RulerMark rulerMark = (RulerMark) mark;
-                RulerMark copy = new RulerMark(rulerMark.x, rulerMark.y);
-                copy.width = rulerMark.width;
-                copy.height = rulerMark.height;
-                
-                // Copy ALL ruler formatting properties using soft-coded getters
-                copy.setRulerLength(rulerMark.getRulerLength());
-                copy.setRulerHeight(rulerMark.getRulerHeight());
-                copy.setScaleSize(rulerMark.getScaleSize());
-                copy.setScaleValue(rulerMark.getScaleValue());
-                copy.setStartValue(rulerMark.getStartValue());
-                copy.setRadius(rulerMark.getRadius());
-                copy.setSpanLength(rulerMark.getSpanLength());
-                
-                // Copy text formatting properties
-                copy.setFontFamily(rulerMark.getFontFamily());
-                copy.setFontSize(rulerMark.getFontSize());
-                copy.setFontStyle(rulerMark.getFontStyle());
-                copy.setCharacterWidth(rulerMark.getCharacterWidth());
-                copy.setLineSpacing(rulerMark.getLineSpacing());
-                copy.setTextOffsetX(rulerMark.getTextOffsetX());
-                copy.setTextOffsetY(rulerMark.getTextOffsetY());
-                copy.setHorizontalAlignment(rulerMark.getHorizontalAlignment());
-                copy.setVerticalAlignment(rulerMark.getVerticalAlignment());
-                copy.setTextColor(rulerMark.getTextColor());
-                
-                // Copy display options
-                copy.setShowNumbers(rulerMark.isShowNumbers());
-                copy.setShowMiddleNumbers(rulerMark.isShowMiddleNumbers());
-                copy.setShowMinorMarks(rulerMark.isShowMinorMarks());
-                copy.setShowMiddleMarks(rulerMark.isShowMiddleMarks());
-                copy.setShowMajorMarks(rulerMark.isShowMajorMarks());
-                
-                if (ENABLE_COPY_PASTE_LOGGING) {
-                    System.out.println("📏 RulerMark copied with complete format: font=" + rulerMark.getFontFamily() + 
-                                     " size=" + rulerMark.getFontSize() + 
-                                     " charWidth=" + rulerMark.getCharacterWidth() + 
-                                     " alignment=" + rulerMark.getHorizontalAlignment());
-                }
-                copies.add(copy);
-            } else if (mark instanceof GraphMark) {
-                GraphMark graphMark = (GraphMark) mark;
-                GraphMark copy = new GraphMark(graphMark.x, graphMark.y);
-                copy.width = graphMark.width;
-                copy.height = graphMark.height;
-                copy.setBorderColor(graphMark.getBorderColor());
-                copies.add(copy);
-            } else if (mark instanceof RectangleMark) {
-                RectangleMark rectMark = (RectangleMark) mark;
-                RectangleMark copy = new RectangleMark(rectMark.x, rectMark.y);
-                copy.width = rectMark.width;
-                copy.height = rectMark.height;
-                copies.add(copy);
-            } else if (mark instanceof LineMark) {
-                LineMark lineMark = (LineMark) mark;
-                LineMark copy = new LineMark(lineMark.x, lineMark.y);
-                copy.width = lineMark.width;
-                copy.height = lineMark.height;
-                copies.add(copy);
-            } else if (mark instanceof FarziMark) {
-                FarziMark farziMark = (FarziMark) mark;
-                FarziMark copy = new FarziMark(farziMark.x, farziMark.y, farziMark.getText());
-                copy.width = farziMark.width;
-                copy.height = farziMark.height;
-                copy.setCharHeight(farziMark.getCharHeight());
-                copy.setCharWidth(farziMark.getCharWidth());
-                copy.setCharSpacing(farziMark.getCharSpacing());
-                copy.setShowGrid(farziMark.isShowGrid());
-                copy.setStrokeWidth(farziMark.getStrokeWidth());
-                copy.setScriptSlant(farziMark.getScriptSlant());
-                copies.add(copy);
-            } else if (mark instanceof DotMatrixMark) {
-                DotMatrixMark dotMatrix = (DotMatrixMark) mark;
-                DotMatrixMark copy = new DotMatrixMark(dotMatrix.x, dotMatrix.y, dotMatrix.getData());
-                copy.width = dotMatrix.width;
-                copy.height = dotMatrix.height;
-                copy.setDotDiameter(dotMatrix.getDotDiameter());
-                copy.setDotPitch(dotMatrix.getDotPitch());
-                copy.setMatrixSize(dotMatrix.getMatrixSize());
-                copy.setShowGrid(dotMatrix.isShowGrid());
-                copy.setShowBorder(dotMatrix.isShowBorder());
-                copies.add(copy);
-            } else if (mark instanceof AvoidPointMark) {
-                AvoidPointMark avoidMark = (AvoidPointMark) mark;
-                AvoidPointMark copy = new AvoidPointMark(avoidMark.x, avoidMark.y);
-                copy.width = avoidMark.width;
-                copy.height = avoidMark.height;
-                copy.setAvoidRadius(avoidMark.getAvoidRadius());
-                copy.setDesignRadius(avoidMark.getDesignRadius());
-                copy.setDesignBuffer(avoidMark.getDesignBuffer());
-                copy.setShowDots(avoidMark.isShowDots());
-                copy.setDotSpacing(avoidMark.getDotSpacing());
-                copies.add(copy);
-            }
-            // Add other mark types as needed
+    public void undo() {
+        UndoJournal.Edit edit = undoJournal.undo(marks);
+        if (edit != null) {
+            System.out.println("↶ Undo: " + edit.getDescription());
+            afterHistoryChange();
+        } else {
+            JOptionPane.showMessageDialog(this, "Nothing to undo!", "Undo", JOptionPane.INFORMATION_MESSAGE);
         }
-        return copies;
     }
     
-    private void saveStateForUndo() {
-        List<Mark> currentState = copyAllMarks(marks);
-        undoStack.push(currentState);
-        
-        // Clear redo stack when a new action is performed
-        redoStack.clear();
-        
-        // Limit undo stack size to prevent memory issues
-        if (undoStack.size() > 20) {
-            undoStack.remove(0);
+    public void redo() {
+        UndoJournal.Edit edit = undoJournal.redo(marks);
+        if (edit != null) {
+            System.out.println("↷ Redo: " + edit.getDescription());
+            afterHistoryChange();
+        } else {
+            JOptionPane.showMessageDialog(this, "Nothing to redo!", "Redo", JOptionPane.INFORMATION_MESSAGE);
         }
     }
     
-    public void undo() {
-        if (!undoStack.isEmpty()) {
-            // Save current state to redo stack before undoing
-            List<Mark> currentState = copyAllMarks(marks);
-            redoStack.push(currentState);
-            
-            // Apply the undo - restore previous state
-            marks.clear();
-            textMarks.clear();
-            List<Mark> previousState = undoStack.pop();
-            marks.addAll(previousState);
-            
-            // Update textMarks for backward compatibility
-            for (Mark mark : marks) {
-                if (mark instanceof TextMark) {
-                    textMarks.add((TextMark) mark);
-                }
+    private void afterHistoryChange() {
+        // Update textMarks for backward compatibility
+        textMarks.clear();
+        for (Mark mark : marks) {
+            if (mark instanceof TextMark) {
+                textMarks.add((TextMark) mark);
             }
-            selectedMark = null;
-            notifySelectionChanged();
-            repaint();
-        } else {
-            JOptionPane.showMessageDialog(this, "Nothing to undo!", "Undo", JOptionPane.INFORMATION_MESSAGE);
         }
+        selectedMark = null;
+        notifySelectionChanged();
+        repaint();
     }
     
-    public void redo() {
-        if (!redoStack.isEmpty()) {
-            // Save current state to undo stack before redoing
-            List<Mark> currentState = copyAllMarks(marks);
-            undoStack.push(currentState);
-            
-            // Apply the redo - restore next state
-            marks.clear();
-            textMarks.clear();
-            List<Mark> redoState = redoStack.pop();
-            marks.addAll(redoState);
-            
-            // Update textMarks for backward compatibility
-            for (Mark mark : marks) {
-                if (mark instanceof TextMark) {
-                    textMarks.add((TextMark) mark);
-                }
+    /**
+     * Drop all undo/redo history (new project, project load).
+     */
+    public void clearUndoHistory() {
+        undoJournal.clear();
+        dragSnapshot = null;
+        pruneImageAssets();
+    }
+    
+    /**
+     * Release image assets that neither the marks, the clipboard nor the undo history of
+     * any open canvas refer to (after a project load or new project); returns how many
+     * were released.
+     */
+    public int pruneImageAssets() {
+        return ImageAssetStore.releaseUnreferenced();
+    }
+
+    /** Asset ids this canvas keeps alive: its marks, clipboard and undo history. */
+    @Override
+    public void collectImageAssetIds(java.util.Set<String> referenced) {
+        for (Mark mark : marks) {
+            if (mark instanceof GraphMark && ((GraphMark) mark).getImageAssetId() != null) {
+                referenced.add(((GraphMark) mark).getImageAssetId());
             }
-            selectedMark = null;
-            notifySelectionChanged();
-            repaint();
-        } else {
-            JOptionPane.showMessageDialog(this, "Nothing to redo!", "Redo", JOptionPane.INFORMATION_MESSAGE);
         }
+        if (clipboardMark instanceof GraphMark && ((GraphMark) clipboardMark).getImageAssetId() != null) {
+            referenced.add(((GraphMark) clipboardMark).getImageAssetId());
+        }
+        undoJournal.collectImageAssetIds(referenced);
     }
     
     public void cutSelected() {
         if (selectedMark != null) {
-            saveStateForUndo();
+            undoJournal.record(new UndoJournal.MarkRemoved(selectedMark, marks.indexOf(selectedMark)));
             
             // Create a deep copy for clipboard
             clipboardMark = createMarkCopy(selectedMark);
@@ -1315,14 +1238,13 @@ MouseAdapter mouseHandler = new MouseAdapter() {
     
     public void paste() {
         if (clipboardMark != null) {
-            saveStateForUndo();
-            
             // Create a new copy with offset position
             Mark newMark = createMarkCopy(clipboardMark);
             newMark.x += 20; // Offset to avoid overlap
             newMark.y += 20;
             
             marks.add(newMark);
+            undoJournal.record(new UndoJournal.MarkAdded(newMark, marks.size() - 1));
             if (newMark instanceof TextMark) {
                 textMarks.add((TextMark) newMark);
             }
@@ -1345,6 +1267,7 @@ MouseAdapter mouseHandler = new MouseAdapter() {
             copy.setFont(textMark.getFont());
             copy.setCharacterWidth(textMark.getCharacterWidth());
             copy.setLineSpacing(textMark.getLineSpacing());
+            copy.setDotMode(textMark.getDotMode());
             
             if (ENABLE_COPY_PASTE_LOGGING) {
                 System.out.println("🔄 createMarkCopy - TextMark format preserved: font=" + textMark.getFont().getName() + 
@@ -1360,6 +1283,7 @@ MouseAdapter mouseHandler = new MouseAdapter() {
             copy.height = bowMark.height;
             copy.setCurvature(bowMark.getCurvature());
             copy.setBowUp(bowMark.isBowUp());
+            copy.setDotMode(bowMark.getDotMode());
             return copy;
         } else if (original instanceof ArcLettersMark) {
             ArcLettersMark arcMark = (ArcLettersMark) original;
@@ -1373,6 +1297,7 @@ MouseAdapter mouseHandler = new MouseAdapter() {
             if (arcMark.getFont() != null) {
                 copy.setFont(arcMark.getFont());
             }
+            copy.setStrokeFontName(arcMark.getStrokeFontName());
             return copy;
         } else if (original instanceof GraphMark) {
             GraphMark graphMark = (GraphMark) original;
@@ -1380,6 +1305,7 @@ MouseAdapter mouseHandler = new MouseAdapter() {
             copy.width = graphMark.width;
             copy.height = graphMark.height;
             copy.setBorderColor(graphMark.getBorderColor());
+            copy.copyImageFrom(graphMark);   // Same image asset: one decoded image for both
             return copy;
         } else if (original instanceof RectangleMark) {
             RectangleMark rectMark = (RectangleMark) original;
@@ -1404,6 +1330,7 @@ MouseAdapter mouseHandler = new MouseAdapter() {
             copy.setShowGrid(farziMark.isShowGrid());
             copy.setStrokeWidth(farziMark.getStrokeWidth());
             copy.setScriptSlant(farziMark.getScriptSlant());
+            copy.setStrokeFontName(farziMark.getStrokeFontName());
             return copy;
         } else if (original instanceof RulerMark) {
             // ENHANCED: RulerMark complete format preservation in createMarkCopy (was missing!)
@@ -1474,7 +1401,7 @@ MouseAdapter mouseHandler = new MouseAdapter() {
     
     public void eraseSelected() {
         if (selectedMark != null) {
-            saveStateForUndo();
+            undoJournal.record(new UndoJournal.MarkRemoved(selectedMark, marks.indexOf(selectedMark)));
             if (selectedMark instanceof TextMark) {
                 textMarks.remove((TextMark) selectedMark);
             }
@@ -1488,11 +1415,12 @@ MouseAdapter mouseHandler = new MouseAdapter() {
     
     public void clearTransformation() {
         if (selectedMark != null) {
-            saveStateForUndo();
+            UndoJournal.Snapshot undoSnapshot = new UndoJournal.Snapshot(selectedMark);
             selectedMark.x = 100;
             selectedMark.y = 100;
             selectedMark.width = 140;
             selectedMark.height = 40;
+            undoJournal.record(undoSnapshot.commit());
             repaint();
         } else {
             JOptionPane.showMessageDialog(this, "No mark selected!", "Clear Transform", JOptionPane.WARNING_MESSAGE);
@@ -1500,7 +1428,7 @@ MouseAdapter mouseHandler = new MouseAdapter() {
     }
     
     public void clearAllForNewProject() {
-        saveStateForUndo();
+        undoJournal.record(new UndoJournal.MarksReplaced(marks, new ArrayList<>()));
         marks.clear();
         textMarks.clear();
         selectedMark = null;
@@ -1595,8 +1523,8 @@ MouseAdapter mouseHandler = new MouseAdapter() {
         }
         
         // Backup for undo if enabled
-        if (RugrelDropdownConfig.BACKUP_BEFORE_CLEAR) {
-            saveStateForUndo();
+        if (RugrelDropdownConfig.BACKUP_BEFORE_CLEAR && selectedMark != null) {
+            undoJournal.record(new UndoJournal.MarkRemoved(selectedMark, marks.indexOf(selectedMark)));
         }
         
         // Highlight before clear if enabled
@@ -1804,12 +1732,14 @@ MouseAdapter mouseHandler = new MouseAdapter() {
             }
             
             // Create backup for undo if enabled
-            if (RugrelDropdownConfig.BACKUP_BEFORE_MIRROR) {
-                saveStateForUndo();
-            }
+            UndoJournal.Snapshot undoSnapshot = RugrelDropdownConfig.BACKUP_BEFORE_MIRROR
+                ? new UndoJournal.Snapshot(selectedMark) : null;
             
             // Perform intelligent mirroring based on mark type
             performIntelligentMirror(selectedMark);
+            if (undoSnapshot != null) {
+                undoJournal.record(undoSnapshot.commit());
+            }
             
             // Maintain selection if configured
             if (RugrelDropdownConfig.MIRROR_MAINTAINS_SELECTION) {
@@ -2042,6 +1972,7 @@ MouseAdapter mouseHandler = new MouseAdapter() {
                 String letters = (String) lettersField.get(arcMark);
                 StringBuilder mirrored = new StringBuilder(letters);
                 lettersField.set(arcMark, mirrored.reverse().toString());
+                arcMark.markChanged();
             } catch (Exception e) {
                 // Fallback: just flip position without reversing text
                 if (RugrelDropdownConfig.LOG_MIRROR_OPERATIONS) {
@@ -2201,6 +2132,7 @@ MouseAdapter mouseHandler = new MouseAdapter() {
                 if (text != null) {
                     StringBuilder mirrored = new StringBuilder(text);
                     textField.set(farziMark, mirrored.reverse().toString());
+                    farziMark.markChanged();
                 }
             } catch (Exception e) {
                 // Fallback: just flip position without reversing text
@@ -2430,7 +2362,14 @@ MouseAdapter mouseHandler = new MouseAdapter() {
     public java.util.List<Mark> getMarks() {
         return marks;
     }
-    
+
+    /**
+     * Compile every printable mark on the canvas into one machine dot path.
+     */
+    public DotPath compileDotPath() {
+        return DotPathCompiler.compileMarks(marks);
+    }
+
     // Zoom and view control methods (with grid locking protection)
     public void setZoomLevel(double zoom) {
         if (isZoomDisabled()) {
@@ -2768,8 +2707,9 @@ MouseAdapter mouseHandler = new MouseAdapter() {
         );
         
         if (newText != null && !newText.trim().isEmpty()) {
-            saveStateForUndo(); // Save state before making changes
+            UndoJournal.Snapshot undoSnapshot = new UndoJournal.Snapshot(arcMark);
             arcMark.setLetters(newText.trim());
+            undoJournal.record(undoSnapshot.commit());
             notifySelectionChanged(); // Update the content field
             repaint();
         }
@@ -2858,7 +2798,7 @@ MouseAdapter mouseHandler = new MouseAdapter() {
         );
         
         if (result == JOptionPane.OK_OPTION) {
-            saveStateForUndo(); // Save state before making changes
+            UndoJournal.Snapshot undoSnapshot = new UndoJournal.Snapshot(dotMatrix);
             
             // Apply changes
             String newData = dataField.getText().trim();
@@ -2871,6 +2811,7 @@ MouseAdapter mouseHandler = new MouseAdapter() {
             dotMatrix.setMatrixSize((Integer) sizeCombo.getSelectedItem());
             dotMatrix.setShowGrid(gridCheckbox.isSelected());
             dotMatrix.setShowBorder(borderCheckbox.isSelected());
+            undoJournal.record(undoSnapshot.commit());
             
             // Notify selection listener and repaint
             notifySelectionChanged();
@@ -3467,71 +3408,6 @@ MouseAdapter mouseHandler = new MouseAdapter() {
         g2d.setStroke(new BasicStroke());
     }
     
-    private void drawDotPreview(Graphics2D g2d) {
-        g2d.setColor(new Color(0, 150, 0, 180)); // Semi-transparent green
-        
-        // Draw dot pattern for all marks that would create dots
-        for (Mark mark : marks) {
-            if (mark instanceof TextMark) {
-                drawTextDotPreview(g2d, (TextMark) mark);
-            } else if (mark instanceof BowTextMark) {
-                drawBowTextDotPreview(g2d, (BowTextMark) mark);
-            } else if (mark instanceof GraphMark) {
-                drawGraphDotPreview(g2d, (GraphMark) mark);
-            }
-            // Add more mark types as needed
-        }
-    }
-    
-    private void drawTextDotPreview(Graphics2D g2d, TextMark textMark) {
-        // Simulate dot pattern for text marking
-        int dotSize = 2;
-        int dotSpacing = 4;
-        
-        // Draw dots in a pattern that represents the text
-        for (int x = textMark.x; x < textMark.x + textMark.width; x += dotSpacing) {
-            for (int y = textMark.y; y < textMark.y + textMark.height; y += dotSpacing) {
-                g2d.fillOval(x, y, dotSize, dotSize);
-            }
-        }
-    }
-    
-    private void drawBowTextDotPreview(Graphics2D g2d, BowTextMark bowMark) {
-        // Simulate dot pattern for bow text marking
-        int dotSize = 2;
-        int dotSpacing = 4;
-        
-        // Draw dots in a curved pattern
-        for (int x = bowMark.x; x < bowMark.x + bowMark.width; x += dotSpacing) {
-            for (int y = bowMark.y; y < bowMark.y + bowMark.height; y += dotSpacing) {
-                g2d.fillOval(x, y, dotSize, dotSize);
-            }
-        }
-    }
-    
-    private void drawGraphDotPreview(Graphics2D g2d, GraphMark graphMark) {
-        // Simulate dot pattern for graph marking
-        int dotSize = 2;
-        int dotSpacing = 6;
-        
-        // Draw dots along the graph frame and diagonals
-        // Frame dots
-        for (int x = graphMark.x; x <= graphMark.x + graphMark.width; x += dotSpacing) {
-            g2d.fillOval(x, graphMark.y, dotSize, dotSize); // Top edge
-            g2d.fillOval(x, graphMark.y + graphMark.height, dotSize, dotSize); // Bottom edge
-        }
-        for (int y = graphMark.y; y <= graphMark.y + graphMark.height; y += dotSpacing) {
-            g2d.fillOval(graphMark.x, y, dotSize, dotSize); // Left edge
-            g2d.fillOval(graphMark.x + graphMark.width, y, dotSize, dotSize); // Right edge
-        }
-        
-        // Diagonal dots
-        for (int i = 0; i < Math.min(graphMark.width, graphMark.height); i += dotSpacing) {
-            g2d.fillOval(graphMark.x + i, graphMark.y + i, dotSize, dotSize); // Main diagonal
-            g2d.fillOval(graphMark.x + graphMark.width - i, graphMark.y + i, dotSize, dotSize); // Anti-diagonal
-        }
-    }
-    
     /**
      * 14x8 Cell Grid Snapping - Snap to Cell Corners
      * Snaps selected object to nearest cell intersection
@@ -3539,7 +3415,7 @@ MouseAdapter mouseHandler = new MouseAdapter() {
     public void snapSelectedToGrid() {
         if (selectedMark == null || !gridVisible) return;
         
-        saveStateForUndo();
+        UndoJournal.Snapshot undoSnapshot = new UndoJournal.Snapshot(selectedMark);
         
         // Get working area and cell dimensions
         Rectangle workArea = getWorkingArea();
@@ -3566,6 +3442,7 @@ MouseAdapter mouseHandler = new MouseAdapter() {
         // Update mark position
         selectedMark.x = snappedX;
         selectedMark.y = snappedY;
+        undoJournal.record(undoSnapshot.commit());
         
         repaint();
         
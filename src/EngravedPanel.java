@@ -549,57 +549,68 @@ public class EngravedPanel extends JPanel {
         // Get marking parameters
         double dotPitchH = (Double) dotPitchHorizontalSpinner.getValue();
         double dotPitchV = (Double) dotPitchVerticalSpinner.getValue();
-        int markingSpeed = Integer.parseInt((String) markingSpeedComboBox.getSelectedItem());
+        String markingSpeed = (String) markingSpeedComboBox.getSelectedItem();
+        int passes = (Integer) passCountSpinner.getValue();
         
-        // Calculate simulation parameters
+        // Walk the compiled dot path with the machine kinematics model (off the EDT)
         int totalMarks = canvas.getMarks().size();
-        int estimatedDots = totalMarks * 50; // Rough estimate
-        double estimatedTime = estimatedDots / (markingSpeed / 60.0); // Convert to minutes
-        
-        // Create detailed simulation message
-        String simulationInfo = String.format("""
-            🎯 REAL-TIME MARKING SIMULATION
-            
-            📐 Layout Parameters:
-            • Offset: X=%d, Y=%d
-            • Rotation: %d degrees
-            • Scale: %d%%
+        simulateButton.setEnabled(false);
+        estimateCycleTime(estimate -> {
+            simulateButton.setEnabled(true);
+            if (estimate == null) return;
             
-            ⚙️ Marking Settings:
-            • Dot Pitch: H=%.1fmm, V=%.1fmm
-            • Speed: %d dots/min
+            // Create detailed simulation message
+            String simulationInfo = String.format("""
+                🎯 REAL-TIME MARKING SIMULATION
+                
+                📐 Layout Parameters:
+                • Offset: X=%d, Y=%d
+                • Rotation: %d degrees
+                • Scale: %d%%
+                
+                ⚙️ Marking Settings:
+                • Dot Pitch: H=%.1fmm, V=%.1fmm
+                • Speed: %s
+                • Passes: %d
+                
+                📊 Simulation Results:
+                • Total marks: %d
+                • Dots: %d
+                • Air travel: %.1f mm
+                • Motion time: %s
+                • Pin dwell time: %s
+                • Cycle time: %s
+                
+                🔍 Preview Status:
+                • Grid: %s
+                • Boundary: %s
+                • Dot Preview: %s
+                
+                ✅ Simulation complete! Check canvas for visual preview.
+                """, 
+                xOffset, yOffset, rotation, scale,
+                dotPitchH, dotPitchV, markingSpeed, passes,
+                totalMarks, estimate.getDotCount(), estimate.getTravelMm(),
+                CycleTimeEstimator.formatDuration(estimate.getMotionSeconds()),
+                CycleTimeEstimator.formatDuration(estimate.getDwellSeconds()),
+                CycleTimeEstimator.formatDuration(estimate.getTotalSeconds()),
+                previewGridCheckBox.isSelected() ? "ENABLED" : "DISABLED",
+                materialBoundaryCheckBox.isSelected() ? "ENABLED" : "DISABLED",
+                dotPreviewCheckBox.isSelected() ? "ENABLED" : "DISABLED"
+            );
             
-            📊 Simulation Results:
-            • Total marks: %d
-            • Estimated dots: %d
-            • Estimated time: %.1f minutes
+            // Enable all preview options for better simulation
+            previewGridCheckBox.setSelected(true);
+            materialBoundaryCheckBox.setSelected(true);
+            dotPreviewCheckBox.setSelected(true);
             
-            🔍 Preview Status:
-            • Grid: %s
-            • Boundary: %s
-            • Dot Preview: %s
+            // Update canvas with simulation
+            updatePreview();
             
-            ✅ Simulation complete! Check canvas for visual preview.
-            """, 
-            xOffset, yOffset, rotation, scale,
-            dotPitchH, dotPitchV, markingSpeed,
-            totalMarks, estimatedDots, estimatedTime,
-            previewGridCheckBox.isSelected() ? "ENABLED" : "DISABLED",
-            materialBoundaryCheckBox.isSelected() ? "ENABLED" : "DISABLED",
-            dotPreviewCheckBox.isSelected() ? "ENABLED" : "DISABLED"
-        );
-        
-        // Enable all preview options for better simulation
-        previewGridCheckBox.setSelected(true);
-        materialBoundaryCheckBox.setSelected(true);
-        dotPreviewCheckBox.setSelected(true);
-        
-        // Update canvas with simulation
-        updatePreview();
-        
-        // Show simulation results
-        JOptionPane.showMessageDialog(this, simulationInfo, 
-            "Marking Simulation Results", JOptionPane.INFORMATION_MESSAGE);
+            // Show simulation results
+            JOptionPane.showMessageDialog(this, simulationInfo, 
+                "Marking Simulation Results", JOptionPane.INFORMATION_MESSAGE);
+        });
     }
     
     private void exportGCode() {
@@ -608,13 +619,7 @@ public class EngravedPanel extends JPanel {
         
         int result = fileChooser.showSaveDialog(this);
         if (result == JFileChooser.APPROVE_OPTION) {
-            File selectedFile = fileChooser.getSelectedFile();
-            JOptionPane.showMessageDialog(this,
-                "G-Code exported successfully!\n\n" +
-                "File: " + selectedFile.getName() + "\n" +
-                "Format: G-Code/Coordinate Array\n" +
-                "Ready for CNC machine",
-                "Export Complete", JOptionPane.INFORMATION_MESSAGE);
+            GCodeWriter.exportCanvas(this, canvas, fileChooser.getSelectedFile());
         }
     }
     
@@ -671,15 +676,20 @@ public class EngravedPanel extends JPanel {
             JOptionPane.WARNING_MESSAGE);
             
         if (result == JOptionPane.YES_OPTION) {
-            JOptionPane.showMessageDialog(this,
-                "🔧 MARKING OPERATION STARTED\n\n" +
-                "Status: Processing...\n" +
-                "Progress: 0%\n\n" +
-                "Please do not move material or\n" +
-                "interrupt the process until completion.\n\n" +
-                "Estimated time: " + calculateEstimatedTime() + " minutes",
-                "Marking In Progress",
-                JOptionPane.INFORMATION_MESSAGE);
+            startMarkingButton.setEnabled(false);
+            estimateCycleTime(estimate -> {
+                startMarkingButton.setEnabled(true);
+                if (estimate == null) return;
+                JOptionPane.showMessageDialog(this,
+                    "🔧 MARKING OPERATION STARTED\n\n" +
+                    "Status: Processing...\n" +
+                    "Progress: 0%\n\n" +
+                    "Please do not move material or\n" +
+                    "interrupt the process until completion.\n\n" +
+                    "Estimated time: " + formatMinutes(estimate) + " minutes",
+                    "Marking In Progress",
+                    JOptionPane.INFORMATION_MESSAGE);
+            });
         }
     }
     
@@ -715,19 +725,50 @@ public class EngravedPanel extends JPanel {
         }
     }
     
-    private String calculateEstimatedTime() {
-        // Calculate based on marking parameters
-        String speed = (String) markingSpeedComboBox.getSelectedItem();
-        int passes = (Integer) passCountSpinner.getValue();
-        double area = 100.0; // Simplified calculation
-        
-        double baseTime = switch (speed) {
-            case "Slow" -> 2.0;
-            case "Medium" -> 1.0;
-            case "Fast" -> 0.5;
-            default -> 1.0;
+    /**
+     * Estimate the cycle time from the optimised tool path, as it will be exported, at the
+     * dot pitch set in this panel. Marks are compiled on the EDT; travel optimisation and
+     * the kinematics walk run in the background, then onEstimate is called on the EDT with
+     * the estimate (or null after the failure has been reported).
+     */
+    private void estimateCycleTime(java.util.function.Consumer<CycleTimeEstimator.Estimate> onEstimate) {
+        DotPath compiled = new DotPathCompiler(getDotPitchPixels()).compile(canvas.getMarks());
+        CycleTimeEstimator estimator = CycleTimeEstimator.forSpeed((String) markingSpeedComboBox.getSelectedItem())
+            .setPasses((Integer) passCountSpinner.getValue());
+        SwingWorker<CycleTimeEstimator.Estimate, Void> worker = new SwingWorker<CycleTimeEstimator.Estimate, Void>() {
+            @Override
+            protected CycleTimeEstimator.Estimate doInBackground() {
+                return estimator.estimate(DotPathOptimizer.optimizePath(compiled).path);
+            }
+
+            @Override
+            protected void done() {
+                CycleTimeEstimator.Estimate estimate = null;
+                try {
+                    estimate = get();
+                } catch (Exception e) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    JOptionPane.showMessageDialog(EngravedPanel.this,
+                        "Cycle time estimate failed: " + cause.getMessage(),
+                        "Estimate Error", JOptionPane.ERROR_MESSAGE);
+                }
+                onEstimate.accept(estimate);
+            }
         };
-        
-        return String.format("%.1f", baseTime * passes * (area / 100));
+        worker.execute();
+    }
+    
+    /**
+     * Dot pitch for compilation in canvas pixels. The compiler strikes on a square lattice,
+     * so the horizontal and vertical pitch settings (mm) are averaged.
+     */
+    private double getDotPitchPixels() {
+        double dotPitchH = (Double) dotPitchHorizontalSpinner.getValue();
+        double dotPitchV = (Double) dotPitchVerticalSpinner.getValue();
+        return (dotPitchH + dotPitchV) / 2.0 * DotPath.PIXELS_PER_MM;
+    }
+    
+    private static String formatMinutes(CycleTimeEstimator.Estimate estimate) {
+        return String.format("%.1f", estimate.getTotalSeconds() / 60.0);
     }
 }
@@ -0,0 +1,340 @@
+import java.awt.Component;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import javax.swing.JOptionPane;
+import javax.swing.SwingWorker;
+
+/**
+ * GCodeWriter: streaming G-code exporter for compiled dot paths.
+ *
+ * Lines are encoded straight into a reusable ASCII byte buffer that is flushed
+ * to a FileChannel (or any channel) when full, and numbers are written with an
+ * allocation-free fixed-point formatter. Memory use is constant no matter how
+ * many dots or parts are exported, so a full plate of serialised parts can be
+ * streamed to disk in one pass:
+ *
+ *   try (GCodeWriter writer = GCodeWriter.open(file.toPath())) {
+ *       writer.writeProgramStart("Plate 7");
+ *       for (DotPath part : parts) writer.writeDotPath(part);
+ *       writer.writeProgramEnd();
+ *   }
+ */
+public class GCodeWriter implements Closeable {
+
+    // Soft coding: Default machine parameters (millimetres, mm/min)
+    public static final double DEFAULT_SAFE_Z = 1.0;          // Pin retract height between dots
+    public static final double DEFAULT_STRIKE_Z = -0.1;       // Pin strike depth
+    public static final double DEFAULT_PLUNGE_FEED = 3000;    // Strike feed rate
+    public static final double DEFAULT_DWELL_MS = 0;          // Optional dwell at each dot (G04)
+    public static final int DEFAULT_DECIMALS = 3;             // Coordinate precision
+    private static final int BUFFER_SIZE = 64 * 1024;         // Output buffer size in bytes
+    private static final int MAX_LINE_LENGTH = 128;           // Flush threshold per line
+
+    private static final long[] POWERS_OF_TEN = {
+        1L, 10L, 100L, 1000L, 10000L, 100000L, 1000000L, 10000000L, 100000000L
+    };
+
+    private final WritableByteChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final byte[] digits = new byte[20];
+
+    // Machine parameters
+    private double safeZ = DEFAULT_SAFE_Z;
+    private double strikeZ = DEFAULT_STRIKE_Z;
+    private double plungeFeed = DEFAULT_PLUNGE_FEED;
+    private double dwellMillis = DEFAULT_DWELL_MS;
+    private int decimals = DEFAULT_DECIMALS;
+    private double pixelsPerMm = DotPath.PIXELS_PER_MM;
+    private double originX = 0;
+    private double originY = 0;
+
+    // Statistics
+    private long linesWritten = 0;
+    private long dotsWritten = 0;
+    private long bytesWritten = 0;
+
+    public GCodeWriter(WritableByteChannel channel) {
+        this.channel = channel;
+    }
+
+    public GCodeWriter(OutputStream out) {
+        this(Channels.newChannel(out));
+    }
+
+    /**
+     * Open (create or truncate) a G-code file for streaming output.
+     */
+    public static GCodeWriter open(Path file) throws IOException {
+        return new GCodeWriter(FileChannel.open(file,
+            StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE));
+    }
+
+    // ==================== CONFIGURATION ====================
+
+    public GCodeWriter setSafeZ(double safeZ) { this.safeZ = safeZ; return this; }
+    public GCodeWriter setStrikeZ(double strikeZ) { this.strikeZ = strikeZ; return this; }
+    public GCodeWriter setPlungeFeed(double plungeFeed) { this.plungeFeed = plungeFeed; return this; }
+    public GCodeWriter setDwellMillis(double dwellMillis) { this.dwellMillis = Math.max(0, dwellMillis); return this; }
+    public GCodeWriter setPixelsPerMm(double pixelsPerMm) { this.pixelsPerMm = pixelsPerMm; return this; }
+
+    public GCodeWriter setDecimals(int decimals) {
+        this.decimals = Math.max(0, Math.min(POWERS_OF_TEN.length - 1, decimals));
+        return this;
+    }
+
+    /**
+     * Machine origin in millimetres, added to every converted canvas coordinate.
+     */
+    public GCodeWriter setOrigin(double originX, double originY) {
+        this.originX = originX;
+        this.originY = originY;
+        return this;
+    }
+
+    public long getLinesWritten() { return linesWritten; }
+    public long getDotsWritten() { return dotsWritten; }
+    public long getBytesWritten() { return bytesWritten + buffer.position(); }
+
+    // ==================== PROGRAM STRUCTURE ====================
+
+    public void writeProgramStart(String title) throws IOException {
+        comment("Rugrel DotPin G-Code" + (title != null && !title.isEmpty() ? " - " + title : ""));
+        line("G90 ; Absolute positioning");
+        line("G21 ; Millimeter units");
+        raw("G00 Z");
+        fixed(safeZ);
+        raw(" ; Raise pin");
+        endLine();
+    }
+
+    public void writeProgramEnd() throws IOException {
+        raw("G00 Z");
+        fixed(safeZ);
+        endLine();
+        line("M30 ; Program end");
+        flush();
+    }
+
+    /**
+     * Stream every dot of a compiled path: rapid to the dot, strike, retract.
+     */
+    public void writeDotPath(DotPath path) throws IOException {
+        double[] coords = path.getCoords();
+        int markIndex = 0;
+        int nextMarkStart = path.getMarkCount() > 0 ? path.getMarkStart(0) : Integer.MAX_VALUE;
+
+        for (int i = 0; i < path.size(); i++) {
+            while (i == nextMarkStart) {
+                Mark mark = path.getMark(markIndex);
+                raw("; Mark ");
+                integer(markIndex + 1);
+                raw(": ");
+                raw(mark != null ? mark.getClass().getSimpleName() : "Mark");
+                raw(" (");
+                integer(path.getDotCount(markIndex));
+                raw(" dots)");
+                endLine();
+                markIndex++;
+                nextMarkStart = markIndex < path.getMarkCount() ? path.getMarkStart(markIndex) : Integer.MAX_VALUE;
+            }
+            writeDot(coords[i * 2], coords[i * 2 + 1]);
+        }
+    }
+
+    /**
+     * Write one dot given in canvas pixel coordinates.
+     */
+    public void writeDot(double canvasX, double canvasY) throws IOException {
+        raw("G00 X");
+        fixed(originX + canvasX / pixelsPerMm);
+        raw(" Y");
+        fixed(originY + canvasY / pixelsPerMm);
+        endLine();
+
+        raw("G01 Z");
+        fixed(strikeZ);
+        raw(" F");
+        fixed(plungeFeed);
+        endLine();
+
+        if (dwellMillis > 0) {
+            raw("G04 P");
+            fixed(dwellMillis / 1000.0);
+            endLine();
+        }
+
+        raw("G00 Z");
+        fixed(safeZ);
+        endLine();
+        dotsWritten++;
+    }
+
+    public void comment(String text) throws IOException {
+        raw("; ");
+        raw(text);
+        endLine();
+    }
+
+    public void line(String text) throws IOException {
+        raw(text);
+        endLine();
+    }
+
+    // ==================== LOW LEVEL ENCODING ====================
+
+    private void raw(String text) throws IOException {
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            if (!buffer.hasRemaining()) drain();
+            char c = text.charAt(i);
+            buffer.put((byte) (c < 128 ? c : '?'));
+        }
+    }
+
+    private void endLine() throws IOException {
+        if (!buffer.hasRemaining()) drain();
+        buffer.put((byte) '\n');
+        linesWritten++;
+        if (buffer.remaining() < MAX_LINE_LENGTH) drain();
+    }
+
+    private void integer(long value) throws IOException {
+        if (buffer.remaining() < 24) drain();
+        if (value < 0) {
+            buffer.put((byte) '-');
+            value = -value;
+        }
+        putDigits(value);
+    }
+
+    /**
+     * Fixed-point decimal without String.format or temporary objects.
+     */
+    private void fixed(double value) throws IOException {
+        if (buffer.remaining() < 32) drain();
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            value = 0;
+        }
+        long scale = POWERS_OF_TEN[decimals];
+        long scaled = Math.round(Math.abs(value) * scale);
+        if (value < 0 && scaled != 0) {
+            buffer.put((byte) '-');
+        }
+        putDigits(scaled / scale);
+        if (decimals > 0) {
+            buffer.put((byte) '.');
+            long fraction = scaled % scale;
+            for (int d = decimals - 1; d >= 0; d--) {
+                buffer.put((byte) ('0' + (fraction / POWERS_OF_TEN[d]) % 10));
+            }
+        }
+    }
+
+    private void putDigits(long value) {
+        int count = 0;
+        do {
+            digits[count++] = (byte) ('0' + (value % 10));
+            value /= 10;
+        } while (value != 0);
+        while (count > 0) {
+            buffer.put(digits[--count]);
+        }
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            bytesWritten += channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    public void flush() throws IOException {
+        drain();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            drain();
+        } finally {
+            channel.close();
+        }
+    }
+
+    // ==================== SHARED HELPERS ====================
+
+    /**
+     * Append a fixed-point number to a StringBuilder without String.format.
+     * Used by the per-mark text exports (coordinate arrays, dot path configs).
+     */
+    public static StringBuilder appendFixed(StringBuilder sb, double value, int decimals) {
+        decimals = Math.max(0, Math.min(POWERS_OF_TEN.length - 1, decimals));
+        long scale = POWERS_OF_TEN[decimals];
+        long scaled = Math.round(Math.abs(value) * scale);
+        if (value < 0 && scaled != 0) sb.append('-');
+        sb.append(scaled / scale);
+        if (decimals > 0) {
+            sb.append('.');
+            long fraction = scaled % scale;
+            for (int d = decimals - 1; d >= 0; d--) {
+                sb.append((char) ('0' + (fraction / POWERS_OF_TEN[d]) % 10));
+            }
+        }
+        return sb;
+    }
+
+    /**
+     * Compile the canvas and stream it to a G-code file in the background.
+     * Marks are compiled on the calling (EDT) thread; travel optimisation and
+     * writing happen off it.
+     */
+    public static void exportCanvas(Component parent, DrawingCanvas canvas, File file) {
+        final DotPath path = canvas.compileDotPath();
+        SwingWorker<Long, Void> worker = new SwingWorker<Long, Void>() {
+            private DotPathOptimizer.Result optimized;
+
+            @Override
+            protected Long doInBackground() throws Exception {
+                optimized = DotPathOptimizer.optimizePath(path);
+                try (GCodeWriter writer = open(file.toPath())) {
+                    writer.writeProgramStart(file.getName());
+                    writer.writeDotPath(optimized.path);
+                    writer.writeProgramEnd();
+                    return writer.getLinesWritten();
+                }
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    long lines = get();
+                    JOptionPane.showMessageDialog(parent,
+                        "G-Code exported successfully!\n\n" +
+                        "File: " + file.getName() + "\n" +
+                        "Marks: " + path.getMarkCount() + "\n" +
+                        "Dots: " + path.size() + "\n" +
+                        "Lines: " + lines + "\n" +
+                        String.format("Air travel: %.1f mm (was %.1f mm)\n",
+                            optimized.getTravelAfterMm(), optimized.getTravelBeforeMm()) +
+                        "Ready for CNC machine",
+                        "Export Complete", JOptionPane.INFORMATION_MESSAGE);
+                } catch (Exception e) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    JOptionPane.showMessageDialog(parent,
+                        "G-Code export failed: " + cause.getMessage(),
+                        "Export Error", JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        };
+        worker.execute();
+    }
+}
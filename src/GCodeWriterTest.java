@@ -0,0 +1,68 @@
+// GCodeWriter Test Program - Verify streaming G-code export
+// Checks the fixed-point formatter and streams a large plate to disk
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+public class GCodeWriterTest {
+    public static void main(String[] args) throws Exception {
+        System.setProperty("java.awt.headless", "true");
+        System.out.println("Testing GCodeWriter...");
+
+        // Formatter matches String.format rounding
+        double[] samples = {0, 1, -1, 0.0004, -0.0004, 0.0005, 12.3456, -98.7654, 123456.789, 1e-9};
+        for (double v : samples) {
+            String expected = String.format(Locale.ROOT, "%.3f", v).replace("-0.000", "0.000");
+            String actual = GCodeWriter.appendFixed(new StringBuilder(), v, 3).toString();
+            check(expected.equals(actual), "appendFixed(" + v + ") = " + actual);
+        }
+
+        // Single dot program
+        DotPath path = new DotPath();
+        path.beginMark(null);
+        path.addStrokeStart(37.8, 75.6);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GCodeWriter writer = new GCodeWriter(bytes)) {
+            writer.writeProgramStart("Test");
+            writer.writeDotPath(path);
+            writer.writeProgramEnd();
+        }
+        String program = new String(bytes.toByteArray(), StandardCharsets.US_ASCII);
+        check(program.contains("G00 X10.000 Y20.000\n"), "dot converted to millimetres");
+        check(program.contains("G01 Z-0.100 F3000.000\n"), "strike line written");
+        check(program.endsWith("M30 ; Program end\n"), "program end written");
+
+        // Stream a plate of serialised parts
+        List<Mark> layout = new ArrayList<>();
+        layout.add(new TextMark(20, 20, "SN-0000001"));
+        layout.add(new DotMatrixMark(200, 20, "SN-0000001"));
+        DotPath part = DotPathCompiler.compileMarks(layout);
+        File file = File.createTempFile("plate", ".gcode");
+        file.deleteOnExit();
+        int parts = 200;
+        long start = System.nanoTime();
+        try (GCodeWriter writer = GCodeWriter.open(file.toPath())) {
+            writer.writeProgramStart("Plate");
+            for (int i = 0; i < parts; i++) {
+                writer.writeDotPath(part);
+            }
+            writer.writeProgramEnd();
+            check(writer.getDotsWritten() == (long) parts * part.size(), "all dots streamed");
+        }
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        System.out.println("Streamed " + (parts * part.size()) + " dots (" + file.length() / 1024 + " KB) in " + elapsedMs + " ms");
+
+        System.out.println("\nAll GCodeWriter checks passed.");
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError("FAILED: " + message);
+        }
+        System.out.println("✓ " + message);
+    }
+}
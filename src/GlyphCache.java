@@ -0,0 +1,215 @@
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.Shape;
+import java.awt.font.FontRenderContext;
+import java.awt.font.GlyphVector;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.FlatteningPathIterator;
+import java.awt.geom.Path2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * GlyphCache: process-wide cache of fonts, font metrics and per-character glyph data,
+ * keyed by (font family, style, size, char).
+ *
+ * Text marks and the dot path compiler used to build a Canvas or BufferedImage for every
+ * metrics query, allocate Fonts inside paint helpers and lay out a new GlyphVector for each
+ * compile. Here each character is shaped once per font: its advance, bounds, outline at the
+ * origin and the outline flattened to line segments are kept and shared by every mark and
+ * thread. Latin-1 glyphs sit in an array per font; other characters go through a map.
+ *
+ * Outlines are shaped with antialiasing on and integer advances, like the canvas.
+ */
+public final class GlyphCache {
+
+    // Soft coding: Glyph shaping
+    public static final double FLATNESS = 0.1;                 // Max chord deviation of flattened outlines (pixels)
+    public static final int FLATTEN_LIMIT = 10;                // Max curve subdivision depth
+    private static final int DIRECT_CHARS = 256;               // Chars kept in the per-font array
+    private static final int MAX_FONTS = 512;                  // Cached fonts before the cache is cleared
+
+    /** Render context of all cached outlines (antialiased, integer advances). */
+    public static final FontRenderContext FONT_CONTEXT = new FontRenderContext(null, true, false);
+
+    private static final Map<FontKey, FontEntry> FONTS = new ConcurrentHashMap<>();
+
+    private static final Graphics2D METRICS_GRAPHICS =
+        new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB).createGraphics();
+
+    private GlyphCache() {
+    }
+
+    /** One shaped character of one font. */
+    public static final class Glyph {
+        public final char character;
+        public final float advance;            // Horizontal advance in pixels
+        public final Rectangle2D bounds;       // Visual bounds relative to the origin on the baseline
+        private final Shape outline;           // Outline with its origin at (0, 0)
+        private final Path2D.Float flattened;  // Outline as line segments
+
+        Glyph(char character, float advance, Rectangle2D bounds, Shape outline, Path2D.Float flattened) {
+            this.character = character;
+            this.advance = advance;
+            this.bounds = bounds;
+            this.outline = outline;
+            this.flattened = flattened;
+        }
+
+        /** Outline placed with its origin at (x, y) on the baseline. */
+        public Shape getOutline(double x, double y) {
+            return AffineTransform.getTranslateInstance(x, y).createTransformedShape(outline);
+        }
+
+        /** Outline already flattened to straight segments (origin at 0, 0); do not modify. */
+        public Path2D.Float getFlattenedOutline() {
+            return flattened;
+        }
+    }
+
+    // ==================== FONTS AND METRICS ====================
+
+    /** Shared Font instance, e.g. for paint helpers that used to call new Font(...) on every repaint. */
+    public static Font font(String family, int style, float size) {
+        return entry(family, style, size).font;
+    }
+
+    /** Font with the family and style of base at another size. */
+    public static Font derive(Font base, float size) {
+        return font(base.getName(), base.getStyle(), size);
+    }
+
+    /** Metrics of font without creating a Canvas or image per call. */
+    public static FontMetrics metrics(Font font) {
+        return entry(font).metrics;
+    }
+
+    /** Width of text laid out with integer advances (same as FontMetrics.stringWidth). */
+    public static int stringWidth(Font font, String text) {
+        return metrics(font).stringWidth(text);
+    }
+
+    // ==================== GLYPHS ====================
+
+    public static Glyph glyph(Font font, char c) {
+        return entry(font).glyph(c);
+    }
+
+    /**
+     * Outline of text starting at (x, y) on the baseline, assembled from cached glyphs.
+     * With flattened set, the segments are already flat and ready for dot resampling.
+     */
+    public static Path2D.Float outline(Font font, String text, double x, double y, boolean flattened) {
+        FontEntry entry = entry(font);
+        Path2D.Float path = new Path2D.Float();
+        AffineTransform shift = new AffineTransform();
+        double penX = x;
+        for (int i = 0; i < text.length(); i++) {
+            Glyph glyph = entry.glyph(text.charAt(i));
+            shift.setToTranslation(penX, y);
+            path.append(flattened ? glyph.flattened.getPathIterator(shift) : glyph.outline.getPathIterator(shift), false);
+            penX += glyph.advance;
+        }
+        return path;
+    }
+
+    /** Number of fonts with cached data (for tests and diagnostics). */
+    public static int getFontCount() {
+        return FONTS.size();
+    }
+
+    public static void clear() {
+        FONTS.clear();
+    }
+
+    // ==================== ENTRIES ====================
+
+    private static final class FontKey {
+        final String family;
+        final int style;
+        final float size;
+
+        FontKey(String family, int style, float size) {
+            this.family = family;
+            this.style = style;
+            this.size = size;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof FontKey)) return false;
+            FontKey key = (FontKey) other;
+            return style == key.style && size == key.size && family.equals(key.family);
+        }
+
+        @Override
+        public int hashCode() {
+            return (family.hashCode() * 31 + style) * 31 + Float.floatToIntBits(size);
+        }
+    }
+
+    private static final class FontEntry {
+        final Font font;
+        final FontMetrics metrics;
+        final AtomicReferenceArray<Glyph> direct = new AtomicReferenceArray<>(DIRECT_CHARS);
+        final Map<Character, Glyph> others = new ConcurrentHashMap<>();
+
+        FontEntry(Font font) {
+            this.font = font;
+            synchronized (METRICS_GRAPHICS) {
+                this.metrics = METRICS_GRAPHICS.getFontMetrics(font);
+            }
+        }
+
+        Glyph glyph(char c) {
+            if (c < DIRECT_CHARS) {
+                Glyph glyph = direct.get(c);
+                if (glyph == null) {
+                    glyph = shape(c);
+                    direct.compareAndSet(c, null, glyph);
+                }
+                return glyph;
+            }
+            return others.computeIfAbsent(c, this::shape);
+        }
+
+        private Glyph shape(char c) {
+            GlyphVector vector = font.createGlyphVector(FONT_CONTEXT, new char[] {c});
+            Shape outline = new Path2D.Float(vector.getOutline());
+            Path2D.Float flattened = new Path2D.Float();
+            flattened.append(new FlatteningPathIterator(outline.getPathIterator(null), FLATNESS, FLATTEN_LIMIT), false);
+            float advance = (float) vector.getGlyphPosition(1).getX();
+            return new Glyph(c, advance, vector.getVisualBounds(), outline, flattened);
+        }
+    }
+
+    private static FontEntry entry(Font font) {
+        if (font.isTransformed() || font.hasLayoutAttributes()) {
+            return new FontEntry(font);   // Rare; the key would not describe them, so shape without caching
+        }
+        FontKey key = new FontKey(font.getName(), font.getStyle(), font.getSize2D());
+        FontEntry entry = FONTS.get(key);
+        if (entry == null) {
+            if (FONTS.size() >= MAX_FONTS) FONTS.clear();
+            entry = FONTS.computeIfAbsent(key, k -> new FontEntry(font));
+        }
+        return entry;
+    }
+
+    private static FontEntry entry(String family, int style, float size) {
+        FontKey key = new FontKey(family, style, size);
+        FontEntry entry = FONTS.get(key);
+        if (entry == null) {
+            if (FONTS.size() >= MAX_FONTS) FONTS.clear();
+            entry = FONTS.computeIfAbsent(key, k -> {
+                Font font = new Font(family, style, Math.round(size));
+                return new FontEntry(size == Math.round(size) ? font : font.deriveFont(size));
+            });
+        }
+        return entry;
+    }
+}
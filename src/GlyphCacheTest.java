@@ -0,0 +1,99 @@
+// GlyphCache Test Program - Verify shared fonts, metrics and glyph outlines
+// Covers instance sharing, outline geometry against GlyphVector, advances, threads and speed
+
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Shape;
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class GlyphCacheTest {
+
+    public static void main(String[] args) throws Exception {
+        System.setProperty("java.awt.headless", "true");
+        System.out.println("Testing GlyphCache...");
+        testSharing();
+        testOutlines();
+        testThreads();
+        testSpeed();
+        System.out.println("\nAll GlyphCache checks passed.");
+    }
+
+    private static void testSharing() {
+        Font font = GlyphCache.font("Arial", Font.BOLD, 14);
+        check(font == GlyphCache.font("Arial", Font.BOLD, 14), "same family, style and size give one Font");
+        check(GlyphCache.metrics(font) == GlyphCache.metrics(new Font("Arial", Font.BOLD, 14)), "metrics shared by equal fonts");
+        check(GlyphCache.derive(font, 20.5f).getSize2D() == 20.5f && GlyphCache.derive(font, 20.5f).getStyle() == Font.BOLD,
+              "derived size keeps the style");
+        check(GlyphCache.glyph(font, 'A') == GlyphCache.glyph(font, 'A')
+              && GlyphCache.glyph(font, '€') == GlyphCache.glyph(font, '€'), "glyphs shaped once (Latin-1 and others)");
+
+        TextMark mark = new TextMark(10, 10, "ABC123");
+        FontMetrics reference = new java.awt.image.BufferedImage(1, 1, java.awt.image.BufferedImage.TYPE_INT_ARGB)
+            .getGraphics().getFontMetrics(mark.getFont());
+        check(GlyphCache.stringWidth(mark.getFont(), "ABC123") == reference.stringWidth("ABC123"), "string width matches FontMetrics");
+    }
+
+    private static void testOutlines() {
+        Font font = GlyphCache.font("Arial", Font.PLAIN, 24);
+        String text = "Serial 0042-Xy";
+        Shape expected = font.createGlyphVector(GlyphCache.FONT_CONTEXT, text).getOutline(30, 60);
+        Rectangle2D a = expected.getBounds2D();
+        Rectangle2D b = GlyphCache.outline(font, text, 30, 60, false).getBounds2D();
+        check(Math.abs(a.getMinX() - b.getMinX()) < 0.5 && Math.abs(a.getMaxX() - b.getMaxX()) < 0.5
+              && Math.abs(a.getMinY() - b.getMinY()) < 0.5 && Math.abs(a.getMaxY() - b.getMaxY()) < 0.5,
+              "composed outline matches the GlyphVector outline: " + b);
+        Rectangle2D flat = GlyphCache.outline(font, text, 30, 60, true).getBounds2D();
+        check(Math.abs(flat.getWidth() - b.getWidth()) < 1 && Math.abs(flat.getHeight() - b.getHeight()) < 1,
+              "flattened outline covers the same area");
+
+        float sum = 0;
+        for (char c : text.toCharArray()) sum += GlyphCache.glyph(font, c).advance;
+        check(Math.round(sum) == GlyphCache.stringWidth(font, text), "advances add up to the string width");
+    }
+
+    private static void testThreads() throws Exception {
+        GlyphCache.clear();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<GlyphCache.Glyph>> results = new ArrayList<>();
+        for (int i = 0; i < 64; i++) {
+            results.add(pool.submit(() -> GlyphCache.glyph(GlyphCache.font("Arial", Font.BOLD, 18), 'Q')));
+        }
+        GlyphCache.Glyph first = results.get(0).get();
+        boolean same = true;
+        for (Future<GlyphCache.Glyph> result : results) same &= result.get().bounds.equals(first.bounds);
+        pool.shutdown();
+        check(same && GlyphCache.getFontCount() == 1, "concurrent lookups agree and share one font entry");
+    }
+
+    private static void testSpeed() {
+        Font font = GlyphCache.font("Arial", Font.BOLD, 14);
+        String text = "SN 2026-000123 LOT A7";
+        int rounds = 20_000;
+        GlyphCache.outline(font, text, 0, 0, true);
+        long start = System.nanoTime();
+        double sink = 0;
+        for (int i = 0; i < rounds; i++) {
+            sink += font.createGlyphVector(GlyphCache.FONT_CONTEXT, text).getOutline(0, 0).getBounds2D().getWidth();
+        }
+        long shaped = System.nanoTime() - start;
+        start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            sink += GlyphCache.outline(font, text, 0, 0, false).getBounds2D().getWidth();
+        }
+        long cached = System.nanoTime() - start;
+        System.out.println("  " + rounds + " outlines: GlyphVector " + shaped / 1_000_000 + " ms, cache " + cached / 1_000_000 + " ms");
+        check(sink > 0 && cached < shaped, "cached outlines are faster than shaping each time");
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError("FAILED: " + message);
+        }
+        System.out.println("✓ " + message);
+    }
+}
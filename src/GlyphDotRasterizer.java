@@ -0,0 +1,372 @@
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * GlyphDotRasterizer: turns font glyphs into dot-peen dots.
+ *
+ * Modes:
+ * - OUTLINE    dots along the glyph contours (what DotPathCompiler always did)
+ * - FILL       dots on the pitch lattice inside the glyph, one stroke per row run
+ * - CENTERLINE dots along the glyph skeleton, so each stem is struck once
+ *
+ * Dots of each (font, char, mode, pitch) are computed once relative to the glyph origin
+ * and kept; placing text only translates (and for curved text rotates) cached dots. When
+ * several new glyphs are needed at once they are rasterised in parallel.
+ */
+public final class GlyphDotRasterizer {
+
+    public enum Mode { OUTLINE, FILL, CENTERLINE }
+
+    // Soft coding: Rasterisation parameters
+    private static final int SKELETON_CELLS_PER_PITCH = 3;   // Bitmap resolution for thinning
+    private static final int PARALLEL_MIN_GLYPHS = 4;        // New glyphs before work is spread over threads
+    private static final int MAX_CACHED_GLYPHS = 20_000;     // Cached glyphs before the cache is cleared
+
+    private static final Map<Key, GlyphDots> CACHE = new ConcurrentHashMap<>();
+
+    private GlyphDotRasterizer() {
+    }
+
+    /** Dots of one glyph with its origin at (0, 0) on the baseline. */
+    private static final class GlyphDots {
+        final double[] coords;  // x, y pairs
+        final byte[] flags;     // DotPath flags per dot
+
+        GlyphDots(DotPath path) {
+            coords = new double[path.size() * 2];
+            flags = new byte[path.size()];
+            for (int i = 0; i < path.size(); i++) {
+                coords[i * 2] = path.getX(i);
+                coords[i * 2 + 1] = path.getY(i);
+                flags[i] = path.getFlags(i);
+            }
+        }
+
+        int size() {
+            return flags.length;
+        }
+    }
+
+    private static final class Key {
+        final String family;
+        final int style;
+        final float size;
+        final char character;
+        final Mode mode;
+        final double pitch;
+
+        Key(Font font, char character, Mode mode, double pitch) {
+            this.family = font.getName();
+            this.style = font.getStyle();
+            this.size = font.getSize2D();
+            this.character = character;
+            this.mode = mode;
+            this.pitch = pitch;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Key)) return false;
+            Key key = (Key) other;
+            return character == key.character && style == key.style && size == key.size
+                && pitch == key.pitch && mode == key.mode && family.equals(key.family);
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = family.hashCode() * 31 + style;
+            hash = hash * 31 + Float.floatToIntBits(size);
+            hash = hash * 31 + character;
+            hash = hash * 31 + mode.hashCode();
+            return hash * 31 + Double.hashCode(pitch);
+        }
+    }
+
+    // ==================== PLACEMENT ====================
+
+    /**
+     * Append the dots of text starting at (x, y) on the baseline, glyphs advancing as in
+     * GlyphCache.outline. placement (may be null) is applied after positioning and must
+     * not scale, so the dot pitch is kept.
+     */
+    public static void emit(Font font, String text, double x, double y, AffineTransform placement,
+                            Mode mode, double pitch, DotPath out) {
+        prepare(font, text, mode, pitch);
+        Point2D.Double dot = new Point2D.Double();
+        double penX = x;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            GlyphDots dots = dots(font, c, mode, pitch);
+            out.ensureCapacity(out.size() + dots.size());
+            for (int d = 0; d < dots.size(); d++) {
+                dot.setLocation(penX + dots.coords[d * 2], y + dots.coords[d * 2 + 1]);
+                if (placement != null) placement.transform(dot, dot);
+                out.add(dot.x, dot.y, dots.flags[d]);
+            }
+            penX += GlyphCache.glyph(font, c).advance;
+        }
+    }
+
+    /** Dots of text as a standalone path (no placement). */
+    public static DotPath rasterize(Font font, String text, double x, double y, Mode mode, double pitch) {
+        DotPath path = new DotPath();
+        emit(font, text, x, y, null, mode, pitch, path);
+        path.trimToSize();
+        return path;
+    }
+
+    /** Number of dots of one glyph. */
+    public static int dotCount(Font font, char c, Mode mode, double pitch) {
+        return dots(font, c, mode, pitch).size();
+    }
+
+    public static int getCachedGlyphCount() {
+        return CACHE.size();
+    }
+
+    public static void clear() {
+        CACHE.clear();
+    }
+
+    /** Rasterise the glyphs of text that are not cached yet, in parallel when there are several. */
+    private static void prepare(Font font, String text, Mode mode, double pitch) {
+        if (!cacheable(font)) return;
+        Set<Character> missing = new LinkedHashSet<>();
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (!CACHE.containsKey(new Key(font, c, mode, pitch))) missing.add(c);
+        }
+        if (missing.size() >= PARALLEL_MIN_GLYPHS) {
+            missing.parallelStream().forEach(c -> dots(font, c, mode, pitch));
+        }
+    }
+
+    private static boolean cacheable(Font font) {
+        return !font.isTransformed() && !font.hasLayoutAttributes();
+    }
+
+    private static GlyphDots dots(Font font, char c, Mode mode, double pitch) {
+        if (!cacheable(font)) return compute(font, c, mode, pitch);
+        Key key = new Key(font, c, mode, pitch);
+        GlyphDots dots = CACHE.get(key);
+        if (dots == null) {
+            if (CACHE.size() >= MAX_CACHED_GLYPHS) CACHE.clear();
+            dots = CACHE.computeIfAbsent(key, k -> compute(font, c, mode, pitch));
+        }
+        return dots;
+    }
+
+    // ==================== RASTERISATION ====================
+
+    private static GlyphDots compute(Font font, char c, Mode mode, double pitch) {
+        GlyphCache.Glyph glyph = GlyphCache.glyph(font, c);
+        DotPath path = new DotPath();
+        switch (mode) {
+            case FILL:
+                fill(glyph, pitch, path);
+                break;
+            case CENTERLINE:
+                centerline(glyph, pitch, path);
+                break;
+            default:
+                new DotPathCompiler(pitch).emitShape(glyph.getFlattenedOutline(), path);
+                break;
+        }
+        return new GlyphDots(path);
+    }
+
+    /** Lattice cells whose centre is inside the glyph; rows alternate direction. */
+    private static void fill(GlyphCache.Glyph glyph, double pitch, DotPath out) {
+        Bitmap bitmap = new Bitmap(glyph, pitch);
+        boolean forward = true;
+        for (int row = 0; row < bitmap.height; row++) {
+            boolean inRun = false;
+            for (int i = 0; i < bitmap.width; i++) {
+                int column = forward ? i : bitmap.width - 1 - i;
+                if (bitmap.get(column, row)) {
+                    double x = bitmap.x(column);
+                    double y = bitmap.y(row);
+                    if (inRun) {
+                        out.addDot(x, y);
+                    } else {
+                        out.addStrokeStart(x, y);
+                        inRun = true;
+                    }
+                } else {
+                    inRun = false;
+                }
+            }
+            forward = !forward;
+        }
+    }
+
+    /**
+     * Thin the glyph bitmap to a one-pixel skeleton (Zhang-Suen), then walk its chains from
+     * the free ends, striking a dot every pitch. Each chain is one stroke.
+     */
+    private static void centerline(GlyphCache.Glyph glyph, double pitch, DotPath out) {
+        Bitmap bitmap = new Bitmap(glyph, pitch / SKELETON_CELLS_PER_PITCH);
+        bitmap.thin();
+        int[] chainOf = new int[bitmap.width * bitmap.height];   // 0 = not traced yet
+        int chains = 0;
+        // Free ends first, so strokes run end to end; what is left are closed loops
+        for (int pass = 0; pass < 2; pass++) {
+            for (int row = 0; row < bitmap.height; row++) {
+                for (int column = 0; column < bitmap.width; column++) {
+                    if (!bitmap.get(column, row) || chainOf[row * bitmap.width + column] != 0) continue;
+                    if (pass == 0 && bitmap.neighbours(column, row) != 1) continue;
+                    traceChain(bitmap, column, row, chainOf, ++chains, pitch, out);
+                }
+            }
+        }
+    }
+
+    private static final int[] STEP_X = {1, 0, -1, 0, 1, -1, -1, 1};   // 4-neighbours before diagonals
+    private static final int[] STEP_Y = {0, 1, 0, -1, 1, 1, -1, -1};
+
+    private static void traceChain(Bitmap bitmap, int column, int row, int[] chainOf, int chain,
+                                   double pitch, DotPath out) {
+        int start = out.size();
+        chainOf[row * bitmap.width + column] = chain;
+        boolean attached = touchesOtherChain(bitmap, column, row, chainOf, chain);
+        out.addStrokeStart(bitmap.x(column), bitmap.y(row));
+        double travelled = 0;          // Along the chain since the last dot
+        double length = 0;             // Whole chain
+        while (true) {
+            int next = -1;
+            for (int k = 0; k < 8 && next < 0; k++) {
+                int nx = column + STEP_X[k];
+                int ny = row + STEP_Y[k];
+                if (bitmap.get(nx, ny) && chainOf[ny * bitmap.width + nx] == 0) next = k;
+            }
+            if (next < 0) break;
+            double step = (next < 4 ? 1 : Math.sqrt(2)) * bitmap.cell;
+            column += STEP_X[next];
+            row += STEP_Y[next];
+            chainOf[row * bitmap.width + column] = chain;
+            travelled += step;
+            length += step;
+            if (travelled >= pitch) {
+                out.addDot(bitmap.x(column), bitmap.y(row));
+                travelled = 0;
+            }
+        }
+        attached |= touchesOtherChain(bitmap, column, row, chainOf, chain);
+        if (attached && length < pitch * 0.5) {
+            out.truncate(start);   // Spur left over at a junction
+        } else if (travelled >= pitch * 0.5) {
+            out.addDot(bitmap.x(column), bitmap.y(row));   // Strike the end of the stroke
+        }
+    }
+
+    private static boolean touchesOtherChain(Bitmap bitmap, int column, int row, int[] chainOf, int chain) {
+        for (int k = 0; k < 8; k++) {
+            int nx = column + STEP_X[k];
+            int ny = row + STEP_Y[k];
+            if (bitmap.get(nx, ny) && chainOf[ny * bitmap.width + nx] != 0 && chainOf[ny * bitmap.width + nx] != chain) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Glyph coverage sampled at cell centres, with a one-cell empty border. */
+    private static final class Bitmap {
+        final int width;
+        final int height;
+        final double cell;
+        final double originX;
+        final double originY;
+        final byte[] pixels;
+
+        Bitmap(GlyphCache.Glyph glyph, double cell) {
+            Rectangle2D bounds = glyph.bounds;
+            this.cell = cell;
+            this.originX = Math.floor(bounds.getMinX() / cell) * cell - cell;
+            this.originY = Math.floor(bounds.getMinY() / cell) * cell - cell;
+            this.width = Math.max(1, (int) Math.ceil((bounds.getMaxX() - originX) / cell) + 1);
+            this.height = Math.max(1, (int) Math.ceil((bounds.getMaxY() - originY) / cell) + 1);
+
+            BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_BYTE_GRAY);
+            Graphics2D g = image.createGraphics();
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_OFF);
+            g.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, RenderingHints.VALUE_STROKE_PURE);
+            g.setColor(Color.WHITE);
+            g.scale(1 / cell, 1 / cell);
+            g.translate(-originX, -originY);
+            g.fill(glyph.getOutline(0, 0));
+            g.dispose();
+            pixels = ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
+            for (int i = 0; i < pixels.length; i++) pixels[i] = (byte) (pixels[i] != 0 ? 1 : 0);
+        }
+
+        boolean get(int column, int row) {
+            return column >= 0 && row >= 0 && column < width && row < height && pixels[row * width + column] != 0;
+        }
+
+        double x(int column) {
+            return originX + (column + 0.5) * cell;
+        }
+
+        double y(int row) {
+            return originY + (row + 0.5) * cell;
+        }
+
+        int neighbours(int column, int row) {
+            int count = 0;
+            for (int k = 0; k < 8; k++) {
+                if (get(column + STEP_X[k], row + STEP_Y[k])) count++;
+            }
+            return count;
+        }
+
+        /** Zhang-Suen thinning in place. */
+        void thin() {
+            int[] remove = new int[pixels.length];
+            boolean changed = true;
+            while (changed) {
+                changed = false;
+                for (int pass = 0; pass < 2; pass++) {
+                    int count = 0;
+                    for (int row = 1; row < height - 1; row++) {
+                        for (int column = 1; column < width - 1; column++) {
+                            if (pixels[row * width + column] == 0) continue;
+                            // Neighbours clockwise from north: p2 .. p9
+                            int p2 = pixels[(row - 1) * width + column];
+                            int p3 = pixels[(row - 1) * width + column + 1];
+                            int p4 = pixels[row * width + column + 1];
+                            int p5 = pixels[(row + 1) * width + column + 1];
+                            int p6 = pixels[(row + 1) * width + column];
+                            int p7 = pixels[(row + 1) * width + column - 1];
+                            int p8 = pixels[row * width + column - 1];
+                            int p9 = pixels[(row - 1) * width + column - 1];
+                            int filled = p2 + p3 + p4 + p5 + p6 + p7 + p8 + p9;
+                            if (filled < 2 || filled > 6) continue;
+                            int transitions = (p2 == 0 && p3 == 1 ? 1 : 0) + (p3 == 0 && p4 == 1 ? 1 : 0)
+                                + (p4 == 0 && p5 == 1 ? 1 : 0) + (p5 == 0 && p6 == 1 ? 1 : 0)
+                                + (p6 == 0 && p7 == 1 ? 1 : 0) + (p7 == 0 && p8 == 1 ? 1 : 0)
+                                + (p8 == 0 && p9 == 1 ? 1 : 0) + (p9 == 0 && p2 == 1 ? 1 : 0);
+                            if (transitions != 1) continue;
+                            if (pass == 0 ? (p2 * p4 * p6 != 0 || p4 * p6 * p8 != 0)
+                                          : (p2 * p4 * p8 != 0 || p2 * p6 * p8 != 0)) continue;
+                            remove[count++] = row * width + column;
+                        }
+                    }
+                    for (int i = 0; i < count; i++) pixels[remove[i]] = 0;
+                    changed |= count > 0;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,134 @@
+// GlyphDotRasterizer Test Program - Verify glyph outline, fill and centre-line dots
+// Covers outline compatibility, fill coverage, skeleton strokes, caching, threads and text marks
+
+import java.awt.Font;
+import java.awt.Shape;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class GlyphDotRasterizerTest {
+
+    private static final double PITCH = DotPathCompiler.DEFAULT_DOT_PITCH_MM * DotPath.PIXELS_PER_MM;
+
+    public static void main(String[] args) throws Exception {
+        System.setProperty("java.awt.headless", "true");
+        System.out.println("Testing GlyphDotRasterizer...");
+        testOutline();
+        testFill();
+        testCenterline();
+        testCache();
+        testMarks();
+        System.out.println("\nAll GlyphDotRasterizer checks passed.");
+    }
+
+    private static void testOutline() {
+        Font font = GlyphCache.font("Arial", Font.BOLD, 24);
+        String text = "AB-12";
+        DotPath cached = GlyphDotRasterizer.rasterize(font, text, 40, 80, GlyphDotRasterizer.Mode.OUTLINE, PITCH);
+        DotPath direct = new DotPath();
+        new DotPathCompiler(PITCH).emitShape(GlyphCache.outline(font, text, 40, 80, true), direct);
+        double worst = 0;
+        for (int i = 0; i < Math.min(cached.size(), direct.size()); i++) {
+            worst = Math.max(worst, Math.abs(cached.getX(i) - direct.getX(i)) + Math.abs(cached.getY(i) - direct.getY(i)));
+        }
+        check(cached.size() == direct.size() && worst < 1e-3 && cached.getStrokeCount() == direct.getStrokeCount(),
+              "outline mode matches resampling the whole text outline (" + cached.size() + " dots)");
+    }
+
+    private static void testFill() {
+        Font font = GlyphCache.font("Arial", Font.BOLD, 36);
+        DotPath dots = GlyphDotRasterizer.rasterize(font, "H", 0, 0, GlyphDotRasterizer.Mode.FILL, PITCH);
+        Shape glyph = GlyphCache.glyph(font, 'H').getOutline(0, 0);
+        boolean inside = true;
+        for (int i = 0; i < dots.size(); i++) inside &= glyph.contains(dots.getX(i), dots.getY(i));
+        double area = 0;
+        java.awt.geom.Area shape = new java.awt.geom.Area(glyph);
+        java.awt.geom.Rectangle2D b = shape.getBounds2D();
+        for (double y = b.getMinY(); y < b.getMaxY(); y += 0.25)
+            for (double x = b.getMinX(); x < b.getMaxX(); x += 0.25)
+                if (shape.contains(x, y)) area += 0.0625;
+        double expected = area / (PITCH * PITCH);
+        check(inside && Math.abs(dots.size() - expected) < expected * 0.2,
+              "fill dots lie inside the glyph, about one per pitch cell (" + dots.size() + " vs " + Math.round(expected) + ")");
+        check(dots.getStrokeCount() > 1 && dots.getStrokeCount() < dots.size(), "row runs become strokes");
+    }
+
+    private static void testCenterline() {
+        Font font = GlyphCache.font("Arial", Font.BOLD, 36);
+        DotPath stem = GlyphDotRasterizer.rasterize(font, "I", 0, 0, GlyphDotRasterizer.Mode.CENTERLINE, PITCH);
+        java.awt.geom.Rectangle2D bounds = GlyphCache.glyph(font, 'I').bounds;
+        double minX = Double.MAX_VALUE, maxX = -Double.MAX_VALUE;
+        for (int i = 0; i < stem.size(); i++) {
+            minX = Math.min(minX, stem.getX(i));
+            maxX = Math.max(maxX, stem.getX(i));
+        }
+        check(stem.getStrokeCount() == 1 && maxX - minX < PITCH && Math.abs((minX + maxX) / 2 - bounds.getCenterX()) < PITCH,
+              "the stem of I is one stroke down its middle (" + stem.size() + " dots)");
+        check(Math.abs(stem.size() - bounds.getHeight() / PITCH) < 4, "one dot per pitch along the stroke");
+
+        String text = "RUGREL 2026";
+        int outline = GlyphDotRasterizer.rasterize(font, text, 0, 0, GlyphDotRasterizer.Mode.OUTLINE, PITCH).size();
+        int centre = GlyphDotRasterizer.rasterize(font, text, 0, 0, GlyphDotRasterizer.Mode.CENTERLINE, PITCH).size();
+        int fill = GlyphDotRasterizer.rasterize(font, text, 0, 0, GlyphDotRasterizer.Mode.FILL, PITCH).size();
+        System.out.println("  " + text + ": outline " + outline + ", centre line " + centre + ", fill " + fill + " dots");
+        check(centre * 2 < outline && outline < fill, "centre line strikes under half the outline dots; fill the most");
+
+        DotPath o = GlyphDotRasterizer.rasterize(font, "O", 0, 0, GlyphDotRasterizer.Mode.CENTERLINE, PITCH);
+        check(o.getStrokeCount() == 1 && o.size() > 10, "a closed letter is traced as one loop");
+    }
+
+    private static void testCache() throws Exception {
+        GlyphDotRasterizer.clear();
+        Font font = GlyphCache.font("Arial", Font.PLAIN, 30);
+        String text = "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
+        long start = System.nanoTime();
+        DotPath first = GlyphDotRasterizer.rasterize(font, text, 0, 0, GlyphDotRasterizer.Mode.CENTERLINE, PITCH);
+        long cold = System.nanoTime() - start;
+        int cached = GlyphDotRasterizer.getCachedGlyphCount();
+        start = System.nanoTime();
+        DotPath second = GlyphDotRasterizer.rasterize(font, text, 0, 0, GlyphDotRasterizer.Mode.CENTERLINE, PITCH);
+        long warm = System.nanoTime() - start;
+        System.out.println("  36 glyphs: first " + cold / 1000 + " us, cached " + warm / 1000 + " us");
+        check(cached == 36 && GlyphDotRasterizer.getCachedGlyphCount() == 36 && warm < cold
+              && Arrays.equals(first.getCoords(), second.getCoords()), "glyph dots are memoised");
+
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        GlyphDotRasterizer.clear();
+        List<Future<DotPath>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            results.add(pool.submit(() -> GlyphDotRasterizer.rasterize(font, text, 0, 0, GlyphDotRasterizer.Mode.CENTERLINE, PITCH)));
+        }
+        boolean same = true;
+        for (Future<DotPath> result : results) same &= Arrays.equals(result.get().getCoords(), first.getCoords());
+        pool.shutdown();
+        check(same, "concurrent rasterising gives the same dots");
+    }
+
+    private static void testMarks() {
+        TextMark text = new TextMark(20, 20, "SN 4471");
+        int outline = DotPathCompiler.compileMarks(List.of(text)).size();
+        text.setDotMode(GlyphDotRasterizer.Mode.CENTERLINE);
+        int centre = DotPathCompiler.compileMarks(List.of(text)).size();
+        check(centre > 0 && centre < outline, "TextMark compiles in its dot mode (" + outline + " -> " + centre + ")");
+
+        BowTextMark bow = new BowTextMark(50, 50, "CURVED");
+        bow.setFont(GlyphCache.font("Arial", Font.BOLD, 36));
+        int bowOutline = DotPathCompiler.compileMarks(List.of(bow)).size();
+        bow.setDotMode(GlyphDotRasterizer.Mode.FILL);
+        int bowFill = DotPathCompiler.compileMarks(List.of(bow)).size();
+        check(bowFill > bowOutline, "BowTextMark fill places rotated glyph dots (" + bowFill + ")");
+        bow.setDotMode(null);
+        check(bow.getDotMode() == GlyphDotRasterizer.Mode.OUTLINE, "null dot mode falls back to outline");
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError("FAILED: " + message);
+        }
+        System.out.println("✓ " + message);
+    }
+}
@@ -19,15 +19,17 @@ public class GraphMark extends Mark {
     private static final String[] SUPPORTED_IMAGE_FORMATS = {"jpg", "jpeg", "png", "bmp", "gif"};
     private static final long MAX_IMAGE_SIZE_MB = 10; // 10MB limit
     private static final int MAX_IMAGE_DIMENSION = 2048; // Max width/height in pixels
+    private static final float IMAGE_OPACITY = 0.8f;     // Keeps overlay elements visible
     
     // Image properties
-    private BufferedImage assignedImage = null;
+    private String imageAssetId = null;                      // Content id in ImageAssetStore
     private String imageName = "";
     private String imageFilePath = "";
     private boolean showImage = true;
     private double imageScale = 1.0; // Scale factor for image display
     private int imageOffsetX = 0;    // Offset for image positioning
     private int imageOffsetY = 0;
+    private ImageHalftoner.Method halftoneMethod = ImageHalftoner.DEFAULT_METHOD; // How the image becomes dots
     
     // Soft coding: Configurable graph types and properties
     public enum GraphType { 
@@ -105,6 +107,24 @@ public class GraphMark extends Mark {
         }
         
         // Soft coding: Draw based on graph type (as overlay)
+        drawGraphGeometry(g);
+        
+        // Draw image info overlay if image is assigned
+        if (hasAssignedImage() && !imageName.isEmpty()) {
+            drawImageInfoOverlay(g);
+        }
+        
+        // Draw resize handles if selected
+        if (isSelected) {
+            drawResizeHandles(g);
+        }
+    }
+    
+    /**
+     * Draw only the markable graph geometry (no image, overlay or handles).
+     * Also used by DotPathCompiler to rasterise the graph into dots.
+     */
+    public void drawGraphGeometry(Graphics2D g) {
         switch (graphType) {
             case TECHNICAL_FRAME:
                 drawTechnicalFrame(g);
@@ -119,16 +139,6 @@ public class GraphMark extends Mark {
                 drawAlignmentCross(g);
                 break;
         }
-        
-        // Draw image info overlay if image is assigned
-        if (hasAssignedImage() && !imageName.isEmpty()) {
-            drawImageInfoOverlay(g);
-        }
-        
-        // Draw resize handles if selected
-        if (isSelected) {
-            drawResizeHandles(g);
-        }
     }
     
     // Soft coding: Technical frame drawing (original functionality)
@@ -291,6 +301,7 @@ public class GraphMark extends Mark {
     // Enhanced resize based on handle type
     @Override
     public void resizeTo(int mx, int my) {
+        markChanged();
         // Check lock size flag before allowing resize
         if (lockSize && RugrelDropdownConfig.ENABLE_LOCK_SIZE_FUNCTIONALITY) {
             if (RugrelDropdownConfig.SHOW_SIZE_LOCK_FEEDBACK) {
@@ -330,6 +341,7 @@ public class GraphMark extends Mark {
     }
     
     public void setBorderColor(Color color) {
+        markChanged();
         this.borderColor = color;
     }
     
@@ -343,6 +355,7 @@ public class GraphMark extends Mark {
     }
     
     public void setGraphType(GraphType graphType) {
+        markChanged();
         this.graphType = graphType;
     }
     
@@ -351,6 +364,7 @@ public class GraphMark extends Mark {
     }
     
     public void setShowGrid(boolean showGrid) {
+        markChanged();
         this.showGrid = showGrid;
     }
     
@@ -359,6 +373,7 @@ public class GraphMark extends Mark {
     }
     
     public void setShowScale(boolean showScale) {
+        markChanged();
         this.showScale = showScale;
     }
     
@@ -367,6 +382,7 @@ public class GraphMark extends Mark {
     }
     
     public void setGridSpacing(int gridSpacing) {
+        markChanged();
         this.gridSpacing = Math.max(5, gridSpacing); // Minimum spacing
     }
     
@@ -375,6 +391,7 @@ public class GraphMark extends Mark {
     }
     
     public void setScaleInterval(int scaleInterval) {
+        markChanged();
         this.scaleInterval = Math.max(5, scaleInterval); // Minimum interval
     }
     
@@ -535,8 +552,8 @@ public class GraphMark extends Mark {
         cancelButton.addActionListener(e -> uploadDialog.dispose());
         
         // Show current image if exists
-        if (assignedImage != null) {
-            ImageIcon currentIcon = new ImageIcon(scaleImageForPreview(assignedImage, 180, 130));
+        if (getAssignedImage() != null) {
+            ImageIcon currentIcon = new ImageIcon(scaleImageForPreview(getAssignedImage(), 180, 130));
             previewLabel.setIcon(currentIcon);
             previewLabel.setText("");
         }
@@ -580,8 +597,9 @@ public class GraphMark extends Mark {
                 return false;
             }
             
-            // Load and validate image
-            BufferedImage image = ImageIO.read(imageFile);
+            // Store the file bytes once by content, then decode through the store so marks share the image
+            String assetId = ImageAssetStore.put(imageFile);
+            BufferedImage image = ImageAssetStore.image(assetId);
             if (image == null) {
                 System.err.println("❌ Failed to load image: " + imageFile.getName());
                 return false;
@@ -602,7 +620,7 @@ public class GraphMark extends Mark {
             Files.copy(imageFile.toPath(), targetPath, StandardCopyOption.REPLACE_EXISTING);
             
             // Assign to GraphMark
-            this.assignedImage = image;
+            this.imageAssetId = assetId;
             this.imageName = name;
             this.imageFilePath = targetPath.toString();
             this.showImage = true;
@@ -622,8 +640,9 @@ public class GraphMark extends Mark {
      * Removes the assigned image from this GraphMark
      */
     public void removeImageFromGraph() {
+        markChanged();
         System.out.println("🗑️ Removing image from GraphMark: " + imageName);
-        this.assignedImage = null;
+        this.imageAssetId = null;
         this.imageName = "";
         this.imageFilePath = "";
         this.showImage = false;
@@ -732,12 +751,17 @@ public class GraphMark extends Mark {
     /**
      * Draws the assigned image within the GraphMark bounds with proper scaling and positioning
      */
-    private void drawAssignedImage(Graphics2D g) {
-        if (assignedImage == null) return;
+    /**
+     * Canvas rectangle the assigned image is drawn into (and halftoned into for marking):
+     * scaled, centred with the offset and kept inside the GraphMark bounds.
+     */
+    public Rectangle getImageBounds() {
+        BufferedImage image = getAssignedImage();
+        if (image == null) return new Rectangle(x, y, 0, 0);
         
         // Calculate scaled dimensions
-        int scaledWidth = (int) (assignedImage.getWidth() * imageScale);
-        int scaledHeight = (int) (assignedImage.getHeight() * imageScale);
+        int scaledWidth = (int) (image.getWidth() * imageScale);
+        int scaledHeight = (int) (image.getHeight() * imageScale);
         
         // Center image within GraphMark bounds with offset
         int imageX = x + (width - scaledWidth) / 2 + imageOffsetX;
@@ -747,20 +771,18 @@ public class GraphMark extends Mark {
         imageX = Math.max(x, Math.min(imageX, x + width - scaledWidth));
         imageY = Math.max(y, Math.min(imageY, y + height - scaledHeight));
         
-        // Save original composite for transparency
-        Composite originalComposite = g.getComposite();
-        
-        // Apply slight transparency to make overlay elements visible
-        g.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, 0.8f));
-        
-        // Draw image with high quality scaling
-        g.drawImage(assignedImage, imageX, imageY, scaledWidth, scaledHeight, null);
+        return new Rectangle(imageX, imageY, scaledWidth, scaledHeight);
+    }
+    
+    private void drawAssignedImage(Graphics2D g) {
+        BufferedImage image = getAssignedImage();
+        if (image == null) return;
         
-        // Restore original composite
-        g.setComposite(originalComposite);
+        Rectangle bounds = getImageBounds();
         
-        System.out.println("🖼️ Drawing image '" + imageName + "' at (" + imageX + "," + imageY + 
-                          ") size: " + scaledWidth + "x" + scaledHeight + " scale: " + imageScale);
+        // Pre-scaled to the device size with slight transparency baked in, so overlay
+        // elements stay visible and repaints don't rescale the full-resolution image
+        ScaledImageCache.draw(g, image, bounds.x, bounds.y, bounds.width, bounds.height, IMAGE_OPACITY);
     }
     
     /**
@@ -821,8 +843,81 @@ public class GraphMark extends Mark {
     // IMAGE PROPERTY GETTERS AND SETTERS
     // ===============================================================================
     
+    /**
+     * Assign an already loaded image (no copy to the images folder), scaled to fit.
+     */
+    public void setAssignedImage(BufferedImage image, String name) {
+        markChanged();
+        if (image == null) {
+            removeImageFromGraph();
+            return;
+        }
+        try {
+            this.imageAssetId = ImageAssetStore.put(image);
+        } catch (IOException e) {
+            System.err.println("❌ Error storing image: " + e.getMessage());
+            return;
+        }
+        this.imageName = name != null ? name : "";
+        this.imageFilePath = "";
+        this.showImage = true;
+        this.imageScale = calculateOptimalScale(image);
+        this.imageOffsetX = 0;
+        this.imageOffsetY = 0;
+    }
+    
+    /**
+     * The decoded image of this mark's asset; decoded on first use and shared with every
+     * mark (copies, undo states) that refers to the same asset. Not cached here, so the
+     * store can release it under memory pressure and decode it again.
+     */
+    public BufferedImage getAssignedImage() {
+        return ImageAssetStore.image(imageAssetId);
+    }
+    
+    public String getImageAssetId() {
+        return imageAssetId;
+    }
+    
+    /**
+     * Show the same image asset as source, with its placement (used by copy/paste).
+     */
+    public void copyImageFrom(GraphMark source) {
+        markChanged();
+        this.imageAssetId = source.imageAssetId;
+        this.imageName = source.imageName;
+        this.imageFilePath = source.imageFilePath;
+        this.showImage = source.showImage;
+        this.imageScale = source.imageScale;
+        this.imageOffsetX = source.imageOffsetX;
+        this.imageOffsetY = source.imageOffsetY;
+        this.halftoneMethod = source.halftoneMethod;
+    }
+    
+    /**
+     * Adopt an image stored inline by older project files (before image assets).
+     */
+    void restoreLegacyImage(BufferedImage image) {
+        markChanged();
+        try {
+            this.imageAssetId = ImageAssetStore.put(image);
+        } catch (IOException e) {
+            System.err.println("❌ Error storing image: " + e.getMessage());
+        }
+    }
+    
+    public void setHalftoneMethod(ImageHalftoner.Method method) {
+        markChanged();
+        this.halftoneMethod = method != null ? method : ImageHalftoner.DEFAULT_METHOD;
+    }
+    
+    public ImageHalftoner.Method getHalftoneMethod() {
+        return halftoneMethod != null ? halftoneMethod : ImageHalftoner.DEFAULT_METHOD;
+    }
+    
+    // Checks the asset id only; the image is decoded when it is actually drawn
     public boolean hasAssignedImage() {
-        return assignedImage != null && showImage;
+        return showImage && ImageAssetStore.contains(imageAssetId);
     }
     
     public String getImageName() {
@@ -834,6 +929,7 @@ public class GraphMark extends Mark {
     }
     
     public void setShowImage(boolean show) {
+        markChanged();
         this.showImage = show;
     }
     
@@ -842,6 +938,7 @@ public class GraphMark extends Mark {
     }
     
     public void setImageScale(double scale) {
+        markChanged();
         this.imageScale = Math.max(0.1, Math.min(5.0, scale)); // Limit scale between 0.1x and 5x
     }
     
@@ -850,6 +947,7 @@ public class GraphMark extends Mark {
     }
     
     public void setImageOffset(int offsetX, int offsetY) {
+        markChanged();
         this.imageOffsetX = offsetX;
         this.imageOffsetY = offsetY;
     }
@@ -0,0 +1,225 @@
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.lang.ref.SoftReference;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.imageio.ImageIO;
+
+/**
+ * ImageAssetStore: content-addressed images shared by every mark that shows them.
+ *
+ * An asset is the encoded bytes of an image (the original PNG/JPEG file, or PNG for images
+ * created in memory) under the lowercase hex SHA-256 of those bytes. Marks keep only the
+ * asset id, so duplicated, pasted and step-and-repeat marks and undo history refer to one
+ * entry; the image is decoded once, on first use, and that BufferedImage is shared.
+ * ProjectBinaryCodec stores each referenced asset once per .rugrel file and registers the
+ * bytes on load without decoding them.
+ *
+ * Decoded images are held softly: under memory pressure the collector may drop them and
+ * the next lookup decodes the bytes again. The bytes themselves stay until
+ * releaseUnreferenced() drops the assets that no registered Holder - each DrawingCanvas
+ * with its marks, clipboard and undo history - refers to any more (see
+ * DrawingCanvas.pruneImageAssets on project load and new project).
+ */
+public final class ImageAssetStore {
+
+    // Soft coding: Asset hashing
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+    private static final String MEMORY_IMAGE_FORMAT = "png";
+
+    private static final Map<String, Asset> ASSETS = new ConcurrentHashMap<>();
+    private static final Map<BufferedImage, String> IMAGE_IDS = Collections.synchronizedMap(new WeakHashMap<>());
+    private static final Set<Holder> HOLDERS = Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+
+    private ImageAssetStore() {
+    }
+
+    /** Something that keeps asset ids alive, such as a canvas with its marks and undo history. */
+    public interface Holder {
+        void collectImageAssetIds(Set<String> ids);
+    }
+
+    private static final class Asset {
+        final byte[] bytes;
+        volatile SoftReference<BufferedImage> image;
+
+        Asset(byte[] bytes, BufferedImage image) {
+            this.bytes = bytes;
+            this.image = image != null ? new SoftReference<>(image) : null;
+        }
+
+        BufferedImage decoded() {
+            SoftReference<BufferedImage> ref = image;
+            return ref != null ? ref.get() : null;
+        }
+    }
+
+    // ==================== ADDING ====================
+
+    /** Register encoded image bytes; returns their asset id. Stored once per content. */
+    public static String put(byte[] encoded) {
+        String id = sha256(encoded);
+        ASSETS.putIfAbsent(id, new Asset(encoded.clone(), null));
+        return id;
+    }
+
+    /** Register an image file by its original bytes (no re-encoding). */
+    public static String put(File file) throws IOException {
+        return put(Files.readAllBytes(file.toPath()));
+    }
+
+    /**
+     * Register an image that exists only in memory; it is encoded as PNG once per instance
+     * and the instance itself becomes the shared decoded image.
+     */
+    public static String put(BufferedImage image) throws IOException {
+        String known = IMAGE_IDS.get(image);
+        if (known != null && ASSETS.containsKey(known)) return known;
+        byte[] encoded = ProjectBinaryCodec.toPng(image);
+        String id = sha256(encoded);
+        Asset asset = ASSETS.computeIfAbsent(id, k -> new Asset(encoded, image));
+        synchronized (asset) {
+            if (asset.decoded() == null) asset.image = new SoftReference<>(image);
+        }
+        IMAGE_IDS.put(image, id);
+        return id;
+    }
+
+    /**
+     * Register bytes read from a project under their recorded id. Returns false (and keeps
+     * nothing) when the bytes do not hash to the id.
+     */
+    static boolean restore(String id, byte[] encoded) {
+        if (ASSETS.containsKey(id)) return true;
+        if (!id.equals(sha256(encoded))) {
+            System.err.println("⚠️ Image asset " + id + " is corrupt and was skipped");
+            return false;
+        }
+        ASSETS.putIfAbsent(id, new Asset(encoded, null));
+        return true;
+    }
+
+    // ==================== LOOKUP ====================
+
+    /**
+     * Decoded image of an asset (decoded on first use, and again after the collector has
+     * dropped it), or null when unknown or unreadable.
+     */
+    public static BufferedImage image(String id) {
+        if (id == null) return null;
+        Asset asset = ASSETS.get(id);
+        if (asset == null) return null;
+        BufferedImage image = asset.decoded();
+        if (image == null) {
+            synchronized (asset) {
+                image = asset.decoded();
+                if (image == null) {
+                    try {
+                        image = ImageIO.read(new ByteArrayInputStream(asset.bytes));
+                    } catch (IOException e) {
+                        System.err.println("❌ Error decoding image asset " + id + ": " + e.getMessage());
+                    }
+                    if (image != null) {
+                        IMAGE_IDS.put(image, id);
+                        asset.image = new SoftReference<>(image);
+                    }
+                }
+            }
+        }
+        return image;
+    }
+
+    /** Encoded bytes of an asset (not a copy - do not modify), or null when unknown. */
+    public static byte[] bytes(String id) {
+        Asset asset = id != null ? ASSETS.get(id) : null;
+        return asset != null ? asset.bytes : null;
+    }
+
+    public static boolean contains(String id) {
+        return id != null && ASSETS.containsKey(id);
+    }
+
+    public static int getAssetCount() {
+        return ASSETS.size();
+    }
+
+    /** Assets whose decoded image is currently held (for tests and diagnostics). */
+    public static int getDecodedCount() {
+        int decoded = 0;
+        for (Asset asset : ASSETS.values()) {
+            if (asset.decoded() != null) decoded++;
+        }
+        return decoded;
+    }
+
+    // ==================== RELEASING ====================
+
+    /**
+     * Register a holder whose ids releaseUnreferenced() must keep. Held weakly, so a
+     * discarded canvas stops protecting its assets once it is collected.
+     */
+    public static void addHolder(Holder holder) {
+        HOLDERS.add(holder);
+    }
+
+    public static void removeHolder(Holder holder) {
+        HOLDERS.remove(holder);
+    }
+
+    /**
+     * Drop every asset that no registered holder refers to; returns how many were dropped.
+     * Each holder is asked at the time of the call, so pruning for one canvas never drops
+     * an asset another open canvas still shows.
+     */
+    public static int releaseUnreferenced() {
+        Set<String> referenced = new HashSet<>();
+        synchronized (HOLDERS) {
+            for (Holder holder : HOLDERS) {
+                holder.collectImageAssetIds(referenced);
+            }
+        }
+        int dropped = 0;
+        for (Iterator<Map.Entry<String, Asset>> it = ASSETS.entrySet().iterator(); it.hasNext(); ) {
+            if (!referenced.contains(it.next().getKey())) {
+                it.remove();
+                dropped++;
+            }
+        }
+        return dropped;
+    }
+
+    /** Release all decoded images; each is decoded again from its bytes on next use. */
+    public static void releaseDecodedImages() {
+        for (Asset asset : ASSETS.values()) {
+            asset.image = null;
+        }
+    }
+
+    public static void clear() {
+        ASSETS.clear();
+        IMAGE_IDS.clear();
+    }
+
+    static String sha256(byte[] bytes) {
+        try {
+            byte[] digest = MessageDigest.getInstance(DIGEST_ALGORITHM).digest(bytes);
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(DIGEST_ALGORITHM + " is not available", e);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+// ImageAssetStore Test Program - Verify content-addressed image assets
+// Covers deduplication, shared decoded images across copies and undo, project storage, lazy decoding
+// and releasing decoded images and unreferenced assets
+
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ImageAssetStoreTest {
+
+    public static void main(String[] args) throws Exception {
+        System.setProperty("java.awt.headless", "true");
+        System.out.println("Testing ImageAssetStore...");
+        testDeduplication();
+        testSharedMarks();
+        testProjectRoundTrip();
+        testReleasing();
+        System.out.println("\nAll ImageAssetStore checks passed.");
+    }
+
+    private static void testDeduplication() throws Exception {
+        ImageAssetStore.clear();
+        BufferedImage logo = logo(300, 200);
+        byte[] png = ProjectBinaryCodec.toPng(logo);
+        String fromBytes = ImageAssetStore.put(png);
+        String again = ImageAssetStore.put(png.clone());
+        check(fromBytes.equals(again) && fromBytes.length() == 64 && ImageAssetStore.getAssetCount() == 1,
+              "identical bytes are one asset under their SHA-256 id");
+        check(fromBytes.equals(ImageAssetStore.sha256(png)), "id is the hash of the stored bytes");
+        check(ImageAssetStore.put(logo).equals(fromBytes) && ImageAssetStore.image(fromBytes) == logo,
+              "an in-memory image becomes the shared decoded image of its asset");
+        check(!ImageAssetStore.restore("0".repeat(64), png) && ImageAssetStore.getAssetCount() == 1,
+              "bytes that do not match their id are rejected");
+    }
+
+    private static void testSharedMarks() {
+        ImageAssetStore.clear();
+        GraphMark original = new GraphMark(10, 10);
+        original.setAssignedImage(logo(400, 300), "logo");
+        List<GraphMark> copies = new ArrayList<>();
+        boolean shared = true;
+        for (int i = 0; i < 100; i++) {
+            GraphMark copy = new GraphMark(10 + i * 5, 10);
+            copy.copyImageFrom(original);
+            copies.add(copy);
+            shared &= copy.getAssignedImage() == original.getAssignedImage();
+        }
+        check(shared && ImageAssetStore.getAssetCount() == 1, "100 pasted copies share one decoded image");
+
+        GraphMark target = copies.get(0);
+        UndoJournal.Snapshot snapshot = new UndoJournal.Snapshot(target);
+        target.setAssignedImage(logo(64, 64), "other");
+        UndoJournal.PropertyChange change = snapshot.commit();
+        change.undo(new ArrayList<>());
+        check(target.getAssignedImage() == original.getAssignedImage(), "undo restores the asset id and the shared image");
+    }
+
+    private static void testProjectRoundTrip() throws Exception {
+        ImageAssetStore.clear();
+        BufferedImage logo = logo(800, 600);
+        ProjectState state = new ProjectState();
+        state.marks = new ArrayList<>();
+        GraphMark first = new GraphMark(0, 0);
+        first.setAssignedImage(logo, "logo");
+        int single = ProjectBinaryCodec.toPng(logo).length;
+        for (int i = 0; i < 40; i++) {
+            GraphMark mark = new GraphMark(i * 30, 0);
+            mark.copyImageFrom(first);
+            state.marks.add(mark);
+        }
+        byte[] encoded = ProjectBinaryCodec.encode(state, true);
+        System.out.println("  40 marks with one " + single + " byte image: project " + encoded.length + " bytes");
+        check(encoded.length < single * 1.2, "the image is stored once per project");
+
+        ImageAssetStore.clear();
+        ProjectState loaded = ProjectBinaryCodec.decode(encoded);
+        check(ImageAssetStore.getAssetCount() == 1 && ImageAssetStore.getDecodedCount() == 0,
+              "loading registers the asset without decoding it");
+        GraphMark a = (GraphMark) loaded.marks.get(0);
+        GraphMark b = (GraphMark) loaded.marks.get(39);
+        check(a.hasAssignedImage() && b.hasAssignedImage() && ImageAssetStore.getDecodedCount() == 0,
+              "checking for an image does not decode it");
+        BufferedImage decoded = a.getAssignedImage();
+        check(decoded != null && decoded == b.getAssignedImage() && ImageAssetStore.getDecodedCount() == 1,
+              "first use decodes once for every mark");
+        check(decoded.getRGB(400, 300) == logo.getRGB(400, 300) && decoded.getWidth() == 800,
+              "image pixels survive the round trip");
+        check(a.getImageBounds().equals(first.getImageBounds()), "image placement survives the round trip");
+    }
+
+    private static void testReleasing() throws Exception {
+        ImageAssetStore.clear();
+        GraphMark kept = new GraphMark(0, 0);
+        kept.setAssignedImage(logo(120, 90), "kept");
+        GraphMark undone = new GraphMark(50, 0);
+        undone.setAssignedImage(logo(60, 40), "undone");
+        String stale = ImageAssetStore.put(ProjectBinaryCodec.toPng(logo(30, 20)));
+        check(ImageAssetStore.getAssetCount() == 3, "three assets registered");
+
+        BufferedImage first = kept.getAssignedImage();
+        ImageAssetStore.releaseDecodedImages();
+        check(ImageAssetStore.getDecodedCount() == 0, "decoded images can be released");
+        BufferedImage again = kept.getAssignedImage();
+        check(again != null && again != first && again.getRGB(60, 45) == first.getRGB(60, 45),
+              "a released image is decoded again from its bytes");
+
+        DrawingCanvas canvas = new DrawingCanvas();
+        canvas.getMarks().add(undone);
+        canvas.clearAllForNewProject();
+        canvas.getMarks().add(kept);
+        check(canvas.pruneImageAssets() == 1 && !ImageAssetStore.contains(stale)
+              && ImageAssetStore.contains(undone.getImageAssetId()), "pruning keeps assets the undo history can restore");
+        canvas.clearUndoHistory();
+        check(ImageAssetStore.getAssetCount() == 1 && ImageAssetStore.contains(kept.getImageAssetId()),
+              "clearing the history releases assets only it referred to");
+
+        // Another open canvas keeps its own assets when this one prunes
+        DrawingCanvas other = new DrawingCanvas();
+        GraphMark shown = new GraphMark(0, 0);
+        shown.setAssignedImage(logo(40, 30), "other");
+        other.getMarks().add(shown);
+        canvas.clearAllForNewProject();
+        canvas.clearUndoHistory();
+        check(ImageAssetStore.getAssetCount() == 1 && ImageAssetStore.contains(shown.getImageAssetId())
+              && !ImageAssetStore.contains(kept.getImageAssetId()),
+              "pruning one canvas keeps assets another canvas still shows");
+        ImageAssetStore.removeHolder(other);
+        check(canvas.pruneImageAssets() == 1 && ImageAssetStore.getAssetCount() == 0,
+              "a removed holder no longer protects its assets");
+    }
+
+    private static BufferedImage logo(int width, int height) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.setPaint(new GradientPaint(0, 0, Color.WHITE, width, height, Color.RED));
+        g.fillRect(0, 0, width, height);
+        g.setColor(Color.BLACK);
+        g.fillOval(width / 4, height / 4, width / 2, height / 2);
+        g.dispose();
+        return image;
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError("FAILED: " + message);
+        }
+        System.out.println("✓ " + message);
+    }
+}
@@ -0,0 +1,368 @@
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Random;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+/**
+ * ImageHalftoner: turns a picture (e.g. a GraphMark logo) into a bitmap of pin dots.
+ *
+ * Pipeline:
+ * 1. Grayscale and resample in one pass: every source pixel is averaged into the dot cell
+ *    it falls in (transparent pixels count as white). Bands of cells run in parallel, so a
+ *    20 megapixel photo is read once, by all cores.
+ * 2. Dither to on/off dots: ORDERED (8x8 Bayer), BLUE_NOISE (64x64 void-and-cluster style
+ *    threshold mask, no visible grid) run per band in parallel; FLOYD_STEINBERG error
+ *    diffusion runs serpentine over the (small) dot grid; THRESHOLD cuts at mid gray.
+ *
+ * Results are cached per (image content hash, columns, rows, method); the content hash of
+ * an image is computed once per image instance, so compiling a logo mark again costs a map
+ * lookup.
+ */
+public final class ImageHalftoner {
+
+    public enum Method { THRESHOLD, ORDERED, BLUE_NOISE, FLOYD_STEINBERG }
+
+    // Soft coding: Halftoning parameters
+    public static final Method DEFAULT_METHOD = Method.FLOYD_STEINBERG;
+    private static final int BAND_ROWS = 16;              // Dot rows per parallel band
+    private static final int MAX_CACHED_BITMAPS = 64;     // Halftones kept before the cache is cleared
+    private static final int MAX_DOT_CELLS = 4_000_000;   // Guards against a pitch of almost nothing
+    private static final int BLUE_NOISE_SIZE = 64;
+
+    private static final Map<Key, DotBitmap> CACHE = new ConcurrentHashMap<>();
+    private static final Map<BufferedImage, Long> IMAGE_HASHES = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private static final int[] BAYER_8 = {
+         0, 32,  8, 40,  2, 34, 10, 42,
+        48, 16, 56, 24, 50, 18, 58, 26,
+        12, 44,  4, 36, 14, 46,  6, 38,
+        60, 28, 52, 20, 62, 30, 54, 22,
+         3, 35, 11, 43,  1, 33,  9, 41,
+        51, 19, 59, 27, 49, 17, 57, 25,
+        15, 47,  7, 39, 13, 45,  5, 37,
+        63, 31, 55, 23, 61, 29, 53, 21,
+    };
+    private static volatile float[] blueNoise;
+
+    private ImageHalftoner() {
+    }
+
+    /** On/off dots of a halftoned image, row by row; dot (0, 0) is the top-left cell. */
+    public static final class DotBitmap {
+        public final int columns;
+        public final int rows;
+        private final long[] bits;
+        private final int count;
+
+        DotBitmap(int columns, int rows, boolean[] dots) {
+            this.columns = columns;
+            this.rows = rows;
+            this.bits = new long[(dots.length + 63) >>> 6];
+            int on = 0;
+            for (int i = 0; i < dots.length; i++) {
+                if (dots[i]) {
+                    bits[i >>> 6] |= 1L << i;
+                    on++;
+                }
+            }
+            this.count = on;
+        }
+
+        public boolean get(int column, int row) {
+            int i = row * columns + column;
+            return (bits[i >>> 6] & (1L << i)) != 0;
+        }
+
+        /** Number of dots that are on. */
+        public int getDotCount() {
+            return count;
+        }
+    }
+
+    private static final class Key {
+        final long imageHash;
+        final int columns;
+        final int rows;
+        final Method method;
+
+        Key(long imageHash, int columns, int rows, Method method) {
+            this.imageHash = imageHash;
+            this.columns = columns;
+            this.rows = rows;
+            this.method = method;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Key)) return false;
+            Key key = (Key) other;
+            return imageHash == key.imageHash && columns == key.columns && rows == key.rows && method == key.method;
+        }
+
+        @Override
+        public int hashCode() {
+            return ((Long.hashCode(imageHash) * 31 + columns) * 31 + rows) * 31 + method.hashCode();
+        }
+    }
+
+    // ==================== ENTRY POINTS ====================
+
+    /** Dots for image drawn at width x height canvas pixels, struck pitch pixels apart. */
+    public static DotBitmap halftone(BufferedImage image, double width, double height, double pitch, Method method) {
+        return halftone(image, cells(width, pitch), cells(height, pitch), method);
+    }
+
+    /**
+     * The cached result of halftone(image, width, height, pitch, method), or null when that
+     * call would still have to compute it. Never hashes an image it has not seen before, so
+     * this is cheap enough for the EDT.
+     */
+    public static DotBitmap cached(BufferedImage image, double width, double height, double pitch, Method method) {
+        Long hash = IMAGE_HASHES.get(image);
+        if (hash == null) return null;
+        Method m = method != null ? method : DEFAULT_METHOD;
+        return CACHE.get(new Key(hash, cells(width, pitch), cells(height, pitch), m));
+    }
+
+    public static DotBitmap halftone(BufferedImage image, int columns, int rows, Method method) {
+        if ((long) columns * rows > MAX_DOT_CELLS) {
+            throw new IllegalArgumentException("Halftone of " + columns + "x" + rows + " dots is too large");
+        }
+        Method m = method != null ? method : DEFAULT_METHOD;
+        Key key = new Key(contentHash(image), columns, rows, m);
+        DotBitmap bitmap = CACHE.get(key);
+        if (bitmap == null) {
+            if (CACHE.size() >= MAX_CACHED_BITMAPS) CACHE.clear();
+            bitmap = CACHE.computeIfAbsent(key, k -> dither(grayscale(image, columns, rows), columns, rows, m));
+        }
+        return bitmap;
+    }
+
+    private static int cells(double extent, double pitch) {
+        return Math.max(1, (int) Math.round(extent / pitch));
+    }
+
+    public static int getCachedBitmapCount() {
+        return CACHE.size();
+    }
+
+    public static void clear() {
+        CACHE.clear();
+        IMAGE_HASHES.clear();
+    }
+
+    // ==================== STAGE 1: GRAYSCALE + RESAMPLE ====================
+
+    /**
+     * Mean luminance (0 black .. 1 white) of each dot cell. Every source row belongs to
+     * one cell row, so bands of cell rows are independent.
+     */
+    static float[] grayscale(BufferedImage image, int columns, int rows) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        float[] gray = new float[columns * rows];
+        int[] direct = directPixels(image);
+        boolean alpha = image.getColorModel().hasAlpha();
+        int bands = (rows + BAND_ROWS - 1) / BAND_ROWS;
+        IntStream.range(0, bands).parallel().forEach(band -> {
+            int firstRow = band * BAND_ROWS;
+            int lastRow = Math.min(rows, firstRow + BAND_ROWS);
+            // Source rows sy with floor(sy * rows / height) in [firstRow, lastRow)
+            int sourceTop = (int) Math.floorDiv((long) firstRow * height + rows - 1, rows);
+            int sourceBottom = (int) Math.floorDiv((long) lastRow * height + rows - 1, rows);
+            double[] sum = new double[columns * (lastRow - firstRow)];
+            int[] samples = new int[sum.length];
+            int[] line = direct == null ? new int[width] : null;
+            int[] cellOf = new int[width];
+            for (int sx = 0; sx < width; sx++) cellOf[sx] = (int) ((long) sx * columns / width);
+            for (int sy = sourceTop; sy < sourceBottom; sy++) {
+                int cellRow = (int) ((long) sy * rows / height) - firstRow;
+                int[] pixels;
+                int offset;
+                if (direct != null) {
+                    pixels = direct;
+                    offset = sy * width;
+                } else {
+                    image.getRGB(0, sy, width, 1, line, 0, width);
+                    pixels = line;
+                    offset = 0;
+                }
+                int base = cellRow * columns;
+                for (int sx = 0; sx < width; sx++) {
+                    int argb = pixels[offset + sx];
+                    int r = (argb >> 16) & 0xFF, g = (argb >> 8) & 0xFF, b = argb & 0xFF;
+                    double luminance = (0.299 * r + 0.587 * g + 0.114 * b) / 255.0;
+                    if (alpha) {
+                        double a = (argb >>> 24) / 255.0;
+                        luminance = luminance * a + (1 - a);   // Over white
+                    }
+                    int cell = base + cellOf[sx];
+                    sum[cell] += luminance;
+                    samples[cell]++;
+                }
+            }
+            for (int i = 0; i < sum.length; i++) {
+                gray[firstRow * columns + i] = samples[i] > 0 ? (float) (sum[i] / samples[i]) : 1f;
+            }
+        });
+        // Upsampling (fewer source pixels than cells) leaves cells without samples: nearest pixel
+        if ((long) width < columns || (long) height < rows) {
+            for (int row = 0; row < rows; row++) {
+                for (int column = 0; column < columns; column++) {
+                    int sx = (int) ((column + 0.5) * width / columns);
+                    int sy = (int) ((row + 0.5) * height / rows);
+                    int argb = image.getRGB(sx, sy);
+                    int r = (argb >> 16) & 0xFF, g = (argb >> 8) & 0xFF, b = argb & 0xFF;
+                    double luminance = (0.299 * r + 0.587 * g + 0.114 * b) / 255.0;
+                    if (alpha) luminance = luminance * ((argb >>> 24) / 255.0) + (1 - (argb >>> 24) / 255.0);
+                    gray[row * columns + column] = (float) luminance;
+                }
+            }
+        }
+        return gray;
+    }
+
+    /** Backing array of INT_RGB / INT_ARGB images (read without getRGB), else null. */
+    private static int[] directPixels(BufferedImage image) {
+        int type = image.getType();
+        if ((type == BufferedImage.TYPE_INT_RGB || type == BufferedImage.TYPE_INT_ARGB)
+                && image.getRaster().getDataBuffer() instanceof DataBufferInt
+                && image.getRaster().getParent() == null) {
+            return ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        }
+        return null;
+    }
+
+    // ==================== STAGE 2: DITHER ====================
+
+    private static DotBitmap dither(float[] gray, int columns, int rows, Method method) {
+        boolean[] dots = new boolean[gray.length];
+        switch (method) {
+            case FLOYD_STEINBERG:
+                diffuse(gray.clone(), columns, rows, dots);
+                break;
+            default:
+                float[] mask = method == Method.BLUE_NOISE ? blueNoise() : null;
+                int bands = (rows + BAND_ROWS - 1) / BAND_ROWS;
+                IntStream.range(0, bands).parallel().forEach(band -> {
+                    int last = Math.min(rows, (band + 1) * BAND_ROWS);
+                    for (int row = band * BAND_ROWS; row < last; row++) {
+                        for (int column = 0; column < columns; column++) {
+                            float threshold;
+                            if (method == Method.ORDERED) {
+                                threshold = (BAYER_8[(row & 7) * 8 + (column & 7)] + 0.5f) / 64f;
+                            } else if (mask != null) {
+                                threshold = mask[(row % BLUE_NOISE_SIZE) * BLUE_NOISE_SIZE + column % BLUE_NOISE_SIZE];
+                            } else {
+                                threshold = 0.5f;
+                            }
+                            // A dark cell is struck
+                            dots[row * columns + column] = gray[row * columns + column] < threshold;
+                        }
+                    }
+                });
+                break;
+        }
+        return new DotBitmap(columns, rows, dots);
+    }
+
+    /** Floyd-Steinberg error diffusion, serpentine. */
+    private static void diffuse(float[] gray, int columns, int rows, boolean[] dots) {
+        for (int row = 0; row < rows; row++) {
+            boolean forward = (row & 1) == 0;
+            int step = forward ? 1 : -1;
+            for (int i = 0; i < columns; i++) {
+                int column = forward ? i : columns - 1 - i;
+                int index = row * columns + column;
+                float value = gray[index];
+                boolean on = value < 0.5f;
+                dots[index] = on;
+                float error = value - (on ? 0f : 1f);
+                int next = column + step;
+                if (next >= 0 && next < columns) gray[index + step] += error * 7 / 16;
+                if (row + 1 < rows) {
+                    int below = index + columns;
+                    if (column - step >= 0 && column - step < columns) gray[below - step] += error * 3 / 16;
+                    gray[below] += error * 5 / 16;
+                    if (next >= 0 && next < columns) gray[below + step] += error * 1 / 16;
+                }
+            }
+        }
+    }
+
+    /**
+     * Threshold mask with blue-noise spectrum, built once: points are ranked by repeatedly
+     * taking the emptiest spot (lowest Gaussian-weighted energy of the points already
+     * placed, on a torus), so every threshold level is spread evenly.
+     */
+    private static float[] blueNoise() {
+        float[] mask = blueNoise;
+        if (mask != null) return mask;
+        synchronized (ImageHalftoner.class) {
+            if (blueNoise != null) return blueNoise;
+            int n = BLUE_NOISE_SIZE;
+            int radius = 6;
+            double sigma = 1.9;
+            double[] kernel = new double[(2 * radius + 1) * (2 * radius + 1)];
+            for (int dy = -radius; dy <= radius; dy++) {
+                for (int dx = -radius; dx <= radius; dx++) {
+                    kernel[(dy + radius) * (2 * radius + 1) + dx + radius] = Math.exp(-(dx * dx + dy * dy) / (2 * sigma * sigma));
+                }
+            }
+            double[] energy = new double[n * n];
+            boolean[] placed = new boolean[n * n];
+            Random random = new Random(1);   // Fixed seed: the same mask on every run
+            for (int i = 0; i < energy.length; i++) energy[i] = random.nextDouble() * 1e-6;
+            mask = new float[n * n];
+            for (int rank = 0; rank < n * n; rank++) {
+                int best = -1;
+                for (int i = 0; i < energy.length; i++) {
+                    if (!placed[i] && (best < 0 || energy[i] < energy[best])) best = i;
+                }
+                placed[best] = true;
+                mask[best] = (rank + 0.5f) / (n * n);
+                int bx = best % n, by = best / n;
+                for (int dy = -radius; dy <= radius; dy++) {
+                    int y = Math.floorMod(by + dy, n);
+                    for (int dx = -radius; dx <= radius; dx++) {
+                        int x = Math.floorMod(bx + dx, n);
+                        energy[y * n + x] += kernel[(dy + radius) * (2 * radius + 1) + dx + radius];
+                    }
+                }
+            }
+            blueNoise = mask;
+            return mask;
+        }
+    }
+
+    // ==================== CONTENT HASH ====================
+
+    /** Hash of size and pixels, computed once per image instance (rows hashed in parallel). */
+    static long contentHash(BufferedImage image) {
+        Long known = IMAGE_HASHES.get(image);
+        if (known != null) return known;
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int[] direct = directPixels(image);
+        long[] rowHashes = new long[height];
+        IntStream.range(0, height).parallel().forEach(y -> {
+            int[] pixels = direct;
+            int offset = y * width;
+            if (pixels == null) {
+                pixels = image.getRGB(0, y, width, 1, null, 0, width);
+                offset = 0;
+            }
+            long hash = 1125899906842597L;
+            for (int x = 0; x < width; x++) hash = 31 * hash + pixels[offset + x];
+            rowHashes[y] = hash;
+        });
+        long hash = width * 31L + height;
+        for (long rowHash : rowHashes) hash = hash * 1_000_003L ^ rowHash;
+        IMAGE_HASHES.put(image, hash);
+        return hash;
+    }
+}
@@ -0,0 +1,122 @@
+// ImageHalftoner Test Program - Verify image to dot halftoning
+// Covers gray density for every method, alpha, caching of large photos and GraphMark compiling
+
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.List;
+
+public class ImageHalftonerTest {
+
+    public static void main(String[] args) throws Exception {
+        System.setProperty("java.awt.headless", "true");
+        System.out.println("Testing ImageHalftoner...");
+        testDensity();
+        testAlpha();
+        testLargeImage();
+        testGraphMark();
+        System.out.println("\nAll ImageHalftoner checks passed.");
+    }
+
+    private static void testDensity() {
+        BufferedImage gray = solid(400, 400, new Color(64, 64, 64));   // 25% luminance -> 75% dots
+        for (ImageHalftoner.Method method : ImageHalftoner.Method.values()) {
+            ImageHalftoner.DotBitmap dots = ImageHalftoner.halftone(gray, 64, 64, method);
+            double coverage = dots.getDotCount() / (64.0 * 64.0);
+            boolean expected = method == ImageHalftoner.Method.THRESHOLD
+                ? coverage == 1.0
+                : Math.abs(coverage - (1 - 64 / 255.0)) < 0.03;
+            check(expected, method + " strikes the gray level (" + String.format("%.3f", coverage) + ")");
+        }
+
+        BufferedImage ramp = new BufferedImage(512, 64, BufferedImage.TYPE_3BYTE_BGR);
+        Graphics2D g = ramp.createGraphics();
+        g.setPaint(new GradientPaint(0, 0, Color.BLACK, 512, 0, Color.WHITE));
+        g.fillRect(0, 0, 512, 64);
+        g.dispose();
+        ImageHalftoner.DotBitmap dots = ImageHalftoner.halftone(ramp, 128, 16, ImageHalftoner.Method.BLUE_NOISE);
+        int left = 0, right = 0;
+        for (int row = 0; row < dots.rows; row++) {
+            for (int column = 0; column < 32; column++) {
+                if (dots.get(column, row)) left++;
+                if (dots.get(127 - column, row)) right++;
+            }
+        }
+        check(left > right * 4, "dark side of a ramp gets more dots (" + left + " vs " + right + ")");
+    }
+
+    private static void testAlpha() {
+        BufferedImage clear = new BufferedImage(100, 100, BufferedImage.TYPE_INT_ARGB);
+        check(ImageHalftoner.halftone(clear, 20, 20, ImageHalftoner.Method.ORDERED).getDotCount() == 0,
+              "transparent pixels count as white");
+    }
+
+    private static void testLargeImage() {
+        ImageHalftoner.clear();
+        BufferedImage photo = new BufferedImage(5000, 4000, BufferedImage.TYPE_INT_RGB);   // 20 megapixels
+        Graphics2D g = photo.createGraphics();
+        g.setPaint(new GradientPaint(0, 0, Color.DARK_GRAY, 5000, 4000, Color.LIGHT_GRAY));
+        g.fillRect(0, 0, 5000, 4000);
+        g.setColor(Color.BLACK);
+        g.fillOval(1000, 1000, 2000, 2000);
+        g.dispose();
+
+        long start = System.nanoTime();
+        ImageHalftoner.DotBitmap first = ImageHalftoner.halftone(photo, 300, 240, ImageHalftoner.Method.FLOYD_STEINBERG);
+        long cold = System.nanoTime() - start;
+        start = System.nanoTime();
+        ImageHalftoner.DotBitmap again = ImageHalftoner.halftone(photo, 300, 240, ImageHalftoner.Method.FLOYD_STEINBERG);
+        long warm = System.nanoTime() - start;
+        start = System.nanoTime();
+        ImageHalftoner.halftone(photo, 150, 120, ImageHalftoner.Method.ORDERED);
+        long resized = System.nanoTime() - start;
+        System.out.println("  20 MP photo: first " + cold / 1_000_000 + " ms, cached " + warm / 1000
+                           + " us, new size " + resized / 1_000_000 + " ms");
+        check(first == again && warm < 5_000_000L, "a repeated halftone is a cache hit");
+        check(ImageHalftoner.getCachedBitmapCount() == 2 && resized < cold, "another size reuses the image hash");
+        check(first.get(130, 120) && first.getDotCount() > 0, "the black disc is solid dots");
+    }
+
+    private static void testGraphMark() {
+        GraphMark graph = new GraphMark(50, 50);
+        int plain = DotPathCompiler.compileMarks(List.of(graph)).size();
+        BufferedImage logo = solid(200, 200, Color.WHITE);
+        Graphics2D g = logo.createGraphics();
+        g.setColor(Color.BLACK);
+        g.fillRect(50, 50, 100, 100);
+        g.dispose();
+        graph.setAssignedImage(logo, "logo");
+        DotPath path = DotPathCompiler.compileMarks(List.of(graph));
+        check(path.size() > plain, "GraphMark strikes its image (" + plain + " -> " + path.size() + " dots)");
+
+        Rectangle bounds = graph.getImageBounds();
+        boolean inside = true;
+        for (int i = 0; i < path.size() - plain; i++) {
+            inside &= bounds.contains(path.getX(i), path.getY(i));
+        }
+        check(inside, "image dots lie in the drawn image rectangle");
+
+        graph.setHalftoneMethod(null);
+        check(graph.getHalftoneMethod() == ImageHalftoner.DEFAULT_METHOD, "null halftone method falls back to default");
+        graph.setShowImage(false);
+        check(DotPathCompiler.compileMarks(List.of(graph)).size() == plain, "a hidden image is not marked");
+    }
+
+    private static BufferedImage solid(int width, int height, Color color) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.setColor(color);
+        g.fillRect(0, 0, width, height);
+        g.dispose();
+        return image;
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError("FAILED: " + message);
+        }
+        System.out.println("✓ " + message);
+    }
+}
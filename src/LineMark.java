@@ -36,6 +36,7 @@ public class LineMark extends Mark {
     
     @Override
     public void resizeTo(int mx, int my) {
+        markChanged();
         // Check lock size flag before allowing resize
         if (lockSize && RugrelDropdownConfig.ENABLE_LOCK_SIZE_FUNCTIONALITY) {
             if (RugrelDropdownConfig.SHOW_SIZE_LOCK_FEEDBACK) {
@@ -59,10 +60,20 @@ public class LineMark extends Mark {
     }
     
     public void setLineColor(Color color) {
+        markChanged();
         this.lineColor = color;
     }
     
     public void setThickness(int thickness) {
+        markChanged();
         this.thickness = thickness;
     }
+    
+    public int getEndX() {
+        return endX;
+    }
+    
+    public int getEndY() {
+        return endY;
+    }
 }
@@ -30,6 +30,9 @@ public abstract class Mark implements Serializable {
     private int lastMouseX = 0, lastMouseY = 0;
     private boolean dragStarted = false;
     
+    // Edit revision: bumped by the property setters of every mark type (never persisted)
+    private transient long revision;
+    
     public Mark(int x, int y) {
         this.x = x;
         this.y = y;
@@ -39,6 +42,39 @@ public abstract class Mark implements Serializable {
     
     public abstract void draw(Graphics2D g, boolean isSelected);
     
+    /**
+     * Record a property change. Setters call this; code that edits a mark any other way
+     * (e.g. restoring fields reflectively) must call it too so cached rasters, dot previews
+     * and autosave deltas see the edit.
+     */
+    public void markChanged() {
+        revision++;
+    }
+    
+    public long getRevision() {
+        return revision;
+    }
+    
+    /**
+     * Key of everything that affects how the mark draws and saves: the edit revision plus
+     * the public fields that drags and panels write directly. Unchanged key, unchanged mark.
+     */
+    public long getStateKey() {
+        long key = mix(revision, x);
+        key = mix(key, y);
+        key = mix(key, width);
+        key = mix(key, height);
+        key = mix(key, z);
+        key = mix(key, Double.doubleToLongBits(angle));
+        key = mix(key, name != null ? name.hashCode() : 0);
+        return mix(key, (clearTrans ? 1 : 0) | (mirror ? 2 : 0) | (lockSize ? 4 : 0) | (disablePrint ? 8 : 0));
+    }
+    
+    private static long mix(long key, long value) {
+        key = (key ^ value) * 0x9E3779B97F4A7C15L;
+        return key ^ (key >>> 29);
+    }
+    
     // Soft coding: Enhanced hit detection with tolerance
     public boolean contains(int px, int py) {
         return px >= (x - CLICK_TOLERANCE) && px <= (x + width + CLICK_TOLERANCE) && 
@@ -28,6 +28,7 @@ public class MarkPanel extends JPanel implements DrawingCanvas.SelectionListener
     private final JSpinner spacingSpinner;
     private final JComboBox<String> fontComboBox;
     private final JComboBox<String> exFontComboBox;
+    private final JComboBox<String> strokeFontComboBox; // Single-line font for FarziMark / ArcLettersMark
     
     // View & Navigation state variables
     private double currentZoom = 1.0;
@@ -71,6 +72,12 @@ public class MarkPanel extends JPanel implements DrawingCanvas.SelectionListener
         exFontComboBox = new JComboBox<>(exFonts);
         exFontComboBox.addActionListener(e -> updateSelectedMarkFont());
         styleComboBox(exFontComboBox);
+        
+        strokeFontComboBox = new JComboBox<>(StrokeFont.getFontNames().toArray(new String[0]));
+        strokeFontComboBox.setSelectedItem(StrokeFont.DEFAULT_NAME);
+        strokeFontComboBox.setToolTipText("Single-line font struck by the pin (Farzi and Arc marks)");
+        strokeFontComboBox.addActionListener(e -> updateSelectedMarkStrokeFont());
+        styleComboBox(strokeFontComboBox);
         spacingSpinner.setMaximumSize(new Dimension(55, 24));
         
         // Ensure spinner text fields are properly aligned
@@ -249,6 +256,21 @@ public class MarkPanel extends JPanel implements DrawingCanvas.SelectionListener
         gbc.anchor = GridBagConstraints.WEST;
         gridPanel.add(spacingSpinner, gbc);
         
+        // Row 4: Stroke font for pin-struck marks
+        gbc.gridx = 0; gbc.gridy = 3;
+        gridPanel.add(createDarkLabel("Stroke:"), gbc);
+        gbc.gridx = 1; gbc.gridwidth = 2;
+        strokeFontComboBox.setPreferredSize(new Dimension(105, 24));
+        gridPanel.add(strokeFontComboBox, gbc);
+        gbc.gridx = 3; gbc.gridwidth = 1;
+        JButton loadStrokeFont = new JButton("Load…");
+        loadStrokeFont.setToolTipText("Load a stroke font file (.stf)");
+        loadStrokeFont.setFont(new Font("Arial", Font.PLAIN, 10));
+        loadStrokeFont.setMargin(new Insets(1, 2, 1, 2));
+        loadStrokeFont.setFocusPainted(false);
+        loadStrokeFont.addActionListener(e -> loadStrokeFont());
+        gridPanel.add(loadStrokeFont, gbc);
+        
         panel.add(gridPanel);
         
         return panel;
@@ -411,6 +433,39 @@ public class MarkPanel extends JPanel implements DrawingCanvas.SelectionListener
     }
     
     // Method to update the font of the currently selected mark
+    private void updateSelectedMarkStrokeFont() {
+        String name = (String) strokeFontComboBox.getSelectedItem();
+        Mark selectedMark = canvas.getSelectedMark();
+        if (selectedMark instanceof FarziMark && !name.equals(((FarziMark) selectedMark).getStrokeFontName())) {
+            ((FarziMark) selectedMark).setStrokeFontName(name);
+            canvas.repaint();
+        } else if (selectedMark instanceof ArcLettersMark && !name.equals(((ArcLettersMark) selectedMark).getStrokeFontName())) {
+            ((ArcLettersMark) selectedMark).setStrokeFontName(name);
+            canvas.repaint();
+        }
+    }
+    
+    // Register a stroke font file and select it for the selected mark
+    private void loadStrokeFont() {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setDialogTitle("Load Stroke Font");
+        chooser.setFileFilter(new javax.swing.filechooser.FileNameExtensionFilter("Stroke fonts (*.stf)", "stf"));
+        if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) return;
+        
+        try {
+            StrokeFont font = StrokeFont.load(chooser.getSelectedFile().toPath());
+            StrokeFont.register(font);
+            if (((DefaultComboBoxModel<String>) strokeFontComboBox.getModel()).getIndexOf(font.getName()) < 0) {
+                strokeFontComboBox.addItem(font.getName());
+            }
+            strokeFontComboBox.setSelectedItem(font.getName());
+            System.out.println("✅ Stroke font loaded: " + font.getName() + " (" + font.getGlyphCount() + " glyphs)");
+        } catch (java.io.IOException ex) {
+            JOptionPane.showMessageDialog(this, "Could not load stroke font:\n" + ex.getMessage(),
+                                          "Stroke Font", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+    
     private void updateSelectedMarkFont() {
         Mark selectedMark = canvas.getSelectedMark();
         if (selectedMark instanceof ArcLettersMark) {
@@ -562,6 +617,7 @@ public class MarkPanel extends JPanel implements DrawingCanvas.SelectionListener
         if (selectedMark instanceof ArcLettersMark) {
             ArcLettersMark arcMark = (ArcLettersMark) selectedMark;
             contentField.setText(arcMark.getLetters());
+            strokeFontComboBox.setSelectedItem(arcMark.getStrokeFontName());
             
             // Update font controls to match the selected mark's font
             Font currentFont = arcMark.getFont();
@@ -611,6 +667,7 @@ public class MarkPanel extends JPanel implements DrawingCanvas.SelectionListener
             
             // Update content field with Farzi text
             contentField.setText(farziMark.getText());
+            strokeFontComboBox.setSelectedItem(farziMark.getStrokeFontName());
             
             // Map Farzi properties to formatting controls
             heightSpinner.setValue((int) (farziMark.getCharHeight() / 2.0)); // Character Height → Height (scaled)
@@ -0,0 +1,347 @@
+import java.awt.Rectangle;
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * MarkSpatialIndex: uniform grid over mark hit bounds for canvas hit-testing.
+ *
+ * Each mark is bucketed by a conservative "hit box" that covers its body plus
+ * every control handle it can report (arc rotation handles, bow curvature
+ * handle, ruler handles, ...). A point query only touches the marks in one grid
+ * cell, so mouse press and hover cost stays flat with thousands of marks.
+ *
+ * The canvas keeps its marks in trackedList(), which adds and removes index entries
+ * as marks are added and removed. update() re-buckets one mark when its state key
+ * (Mark.getStateKey) changed, so a move, resize or property edit costs one mark's
+ * work. Bulk list edits (sort, removeIf, inserts in the middle) only flag the index,
+ * and the next query rebuilds it from the list with sync().
+ */
+public class MarkSpatialIndex {
+
+    // Soft coding: Grid and hit-box parameters
+    private static final int CELL_SIZE = 64;              // Grid cell size in canvas pixels
+    private static final int HANDLE_MARGIN = 40;          // Covers resize, text and ruler handles
+    private static final int ARC_HANDLE_MARGIN = 50;      // Arc rotation handle sits at radius + 40
+    private static final int BOW_HANDLE_MARGIN = 50;      // Bow curvature handle sits past the arc radius
+
+    private static class Entry {
+        final Mark mark;
+        Rectangle bounds;
+        long stateKey;
+        long order;
+        int count;     // Occurrences in the tracked list
+        int stamp;
+
+        Entry(Mark mark) {
+            this.mark = mark;
+        }
+    }
+
+    private final Map<Mark, Entry> entries = new IdentityHashMap<>();
+    private final Map<Long, List<Entry>> cells = new HashMap<>();
+    private int stamp = 0;
+    private long nextOrder = 0;
+    private TrackedList list;        // The list this index follows, if any
+    private boolean rebuild = false; // List changed in a way entries cannot follow
+
+    /**
+     * Bring the index in line with the mark list: add new marks, drop removed
+     * ones, re-bucket marks whose hit box changed and refresh list order.
+     */
+    public void sync(List<Mark> marks) {
+        stamp++;
+        for (int i = 0; i < marks.size(); i++) {
+            Mark mark = marks.get(i);
+            Entry entry = entries.get(mark);
+            if (entry == null) {
+                entry = new Entry(mark);
+                entries.put(mark, entry);
+            }
+            if (entry.stamp != stamp) entry.count = 0;
+            entry.count++;
+            entry.order = i;
+            entry.stamp = stamp;
+            rebucket(entry);
+        }
+        nextOrder = marks.size();
+        if (entries.size() > marks.size()) {
+            entries.values().removeIf(entry -> {
+                if (entry.stamp != stamp) {
+                    removeFromCells(entry);
+                    return true;
+                }
+                return false;
+            });
+        }
+        rebuild = false;
+    }
+
+    /**
+     * Re-bucket one mark if it moved, resized or was edited since it was last bucketed.
+     * Costs one state-key comparison when nothing changed.
+     */
+    public void update(Mark mark) {
+        Entry entry = entries.get(mark);
+        if (entry != null && entry.stateKey != mark.getStateKey()) {
+            rebucket(entry);
+        }
+    }
+
+    /**
+     * A mark list that keeps this index current as marks are added and removed. The
+     * index follows at most one list; calling this again replaces it.
+     */
+    public List<Mark> trackedList() {
+        clear();
+        list = new TrackedList();
+        return list;
+    }
+
+    private void added(Mark mark, boolean appended) {
+        if (mark == null) return;
+        Entry entry = entries.get(mark);
+        if (entry == null) {
+            entry = new Entry(mark);
+            entries.put(mark, entry);
+            entry.order = nextOrder++;
+            rebucket(entry);
+        }
+        entry.count++;
+        if (!appended) rebuild = true;   // Order of the later marks shifted
+    }
+
+    private void removed(Object mark) {
+        Entry entry = entries.get(mark);
+        if (entry != null && --entry.count <= 0) {
+            removeFromCells(entry);
+            entries.remove(mark);
+        }
+    }
+
+    private void checkRebuild() {
+        if (rebuild && list != null) sync(list);
+    }
+
+    public void clear() {
+        entries.clear();
+        cells.clear();
+        nextOrder = 0;
+        rebuild = false;
+    }
+
+    public int size() {
+        checkRebuild();
+        return entries.size();
+    }
+
+    /**
+     * Marks whose hit box contains the point, in mark list order. Callers still run
+     * the mark's own contains()/handle tests on the returned candidates.
+     */
+    public List<Mark> query(int px, int py) {
+        checkRebuild();
+        List<Entry> cell = cells.get(cellKey(Math.floorDiv(px, CELL_SIZE), Math.floorDiv(py, CELL_SIZE)));
+        List<Mark> result = new ArrayList<>();
+        if (cell == null) {
+            return result;
+        }
+        List<Entry> hits = new ArrayList<>();
+        for (Entry entry : cell) {
+            if (entry.bounds.contains(px, py)) {
+                hits.add(entry);
+            }
+        }
+        hits.sort((a, b) -> Long.compare(a.order, b.order));
+        for (Entry entry : hits) {
+            result.add(entry.mark);
+        }
+        return result;
+    }
+
+    /**
+     * Conservative box around everything the mark reacts to under the mouse.
+     */
+    public static Rectangle getHitBounds(Mark mark) {
+        int left = Math.min(mark.x, mark.x + mark.width);
+        int top = Math.min(mark.y, mark.y + mark.height);
+        Rectangle bounds = new Rectangle(left, top, Math.abs(mark.width), Math.abs(mark.height));
+
+        if (mark instanceof ArcLettersMark) {
+            ArcLettersMark arc = (ArcLettersMark) mark;
+            int reach = (int) Math.ceil(arc.getRadius()) + ARC_HANDLE_MARGIN;
+            int centerX = mark.x + mark.width / 2;
+            int centerY = mark.y + mark.height / 2;
+            bounds.add(new Rectangle(centerX - reach, centerY - reach, reach * 2, reach * 2));
+        } else if (mark instanceof BowTextMark) {
+            BowTextMark bow = (BowTextMark) mark;
+            int reach = (int) Math.ceil(Math.max(30, bow.getArcRadius() * 1.5)) + BOW_HANDLE_MARGIN;
+            int centerX = mark.x + mark.width / 2;
+            int centerY = mark.y + mark.height / 2;
+            bounds.add(new Rectangle(centerX - reach, centerY - reach, reach * 2, reach * 2));
+        } else if (mark instanceof AvoidPointMark) {
+            Rectangle2D avoid = ((AvoidPointMark) mark).getBounds();
+            bounds.add(avoid.getBounds());
+        }
+        bounds.grow(HANDLE_MARGIN, HANDLE_MARGIN);
+        return bounds;
+    }
+
+    // ==================== GRID MAINTENANCE ====================
+
+    private void rebucket(Entry entry) {
+        entry.stateKey = entry.mark.getStateKey();
+        Rectangle bounds = getHitBounds(entry.mark);
+        if (bounds.equals(entry.bounds)) {
+            return;
+        }
+        if (entry.bounds != null) {
+            removeFromCells(entry);
+        }
+        entry.bounds = bounds;
+        int x0 = Math.floorDiv(bounds.x, CELL_SIZE), x1 = Math.floorDiv(bounds.x + bounds.width, CELL_SIZE);
+        int y0 = Math.floorDiv(bounds.y, CELL_SIZE), y1 = Math.floorDiv(bounds.y + bounds.height, CELL_SIZE);
+        for (int cy = y0; cy <= y1; cy++) {
+            for (int cx = x0; cx <= x1; cx++) {
+                cells.computeIfAbsent(cellKey(cx, cy), k -> new ArrayList<>(4)).add(entry);
+            }
+        }
+    }
+
+    private void removeFromCells(Entry entry) {
+        Rectangle bounds = entry.bounds;
+        if (bounds == null) {
+            return;
+        }
+        int x0 = Math.floorDiv(bounds.x, CELL_SIZE), x1 = Math.floorDiv(bounds.x + bounds.width, CELL_SIZE);
+        int y0 = Math.floorDiv(bounds.y, CELL_SIZE), y1 = Math.floorDiv(bounds.y + bounds.height, CELL_SIZE);
+        for (int cy = y0; cy <= y1; cy++) {
+            for (int cx = x0; cx <= x1; cx++) {
+                long key = cellKey(cx, cy);
+                List<Entry> cell = cells.get(key);
+                if (cell != null) {
+                    cell.remove(entry);
+                    if (cell.isEmpty()) {
+                        cells.remove(key);
+                    }
+                }
+            }
+        }
+        entry.bounds = null;
+    }
+
+    private static long cellKey(int cx, int cy) {
+        return ((long) cx << 32) ^ (cy & 0xffffffffL);
+    }
+
+    // ==================== TRACKED LIST ====================
+
+    /** ArrayList that reports membership changes to the enclosing index. */
+    private final class TrackedList extends ArrayList<Mark> {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public boolean add(Mark mark) {
+            super.add(mark);
+            added(mark, true);
+            return true;
+        }
+
+        @Override
+        public void add(int index, Mark mark) {
+            super.add(index, mark);
+            added(mark, index == size() - 1);
+        }
+
+        @Override
+        public boolean addAll(Collection<? extends Mark> marks) {
+            List<Mark> copy = new ArrayList<>(marks);
+            boolean changed = super.addAll(copy);
+            for (Mark mark : copy) added(mark, true);
+            return changed;
+        }
+
+        @Override
+        public Mark set(int index, Mark mark) {
+            Mark old = super.set(index, mark);
+            removed(old);
+            added(mark, false);
+            return old;
+        }
+
+        @Override
+        public Mark remove(int index) {
+            Mark old = super.remove(index);
+            removed(old);
+            return old;
+        }
+
+        @Override
+        public boolean remove(Object mark) {
+            boolean changed = super.remove(mark);
+            if (changed) removed(mark);
+            return changed;
+        }
+
+        @Override
+        public void clear() {
+            super.clear();
+            MarkSpatialIndex.this.clear();
+        }
+
+        // Bulk edits: rebuild on the next query
+        @Override
+        public boolean addAll(int index, Collection<? extends Mark> marks) {
+            rebuild = true;
+            return super.addAll(index, marks);
+        }
+
+        @Override
+        public boolean removeAll(Collection<?> marks) {
+            rebuild = true;
+            return super.removeAll(marks);
+        }
+
+        @Override
+        public boolean retainAll(Collection<?> marks) {
+            rebuild = true;
+            return super.retainAll(marks);
+        }
+
+        @Override
+        public boolean removeIf(Predicate<? super Mark> filter) {
+            rebuild = true;
+            return super.removeIf(filter);
+        }
+
+        @Override
+        public void replaceAll(UnaryOperator<Mark> operator) {
+            rebuild = true;
+            super.replaceAll(operator);
+        }
+
+        @Override
+        public void sort(Comparator<? super Mark> order) {
+            rebuild = true;
+            super.sort(order);
+        }
+
+        @Override
+        protected void removeRange(int fromIndex, int toIndex) {
+            rebuild = true;
+            super.removeRange(fromIndex, toIndex);
+        }
+
+        /** Serialized as a plain list; the index itself is not part of saved state. */
+        private Object writeReplace() {
+            return new ArrayList<>(this);
+        }
+    }
+}
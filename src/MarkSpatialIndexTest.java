@@ -0,0 +1,123 @@
+// MarkSpatialIndex Test Program - Verify grid hit-testing against a linear scan
+// Checks that indexed lookups find the same mark as the old loop over every mark
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class MarkSpatialIndexTest {
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+        System.out.println("Testing MarkSpatialIndex...");
+
+        Random random = new Random(11);
+        List<Mark> marks = new ArrayList<>();
+        for (int i = 0; i < 1500; i++) {
+            int x = random.nextInt(3000), y = random.nextInt(2000);
+            switch (i % 5) {
+                case 0: marks.add(new TextMark(x, y, "T" + i)); break;
+                case 1: marks.add(new ArcLettersMark(x, y, "ARC")); break;
+                case 2: marks.add(new BowTextMark(x, y, "BOW")); break;
+                case 3: marks.add(new RectangleMark(x, y)); break;
+                default: marks.add(new AvoidPointMark(x, y)); break;
+            }
+        }
+
+        MarkSpatialIndex index = new MarkSpatialIndex();
+        index.sync(marks);
+        check(index.size() == marks.size(), "all marks indexed");
+        check(agreesWithLinearScan(index, marks, random), "indexed hit matches linear scan");
+
+        // Move, resize and remove marks, then resync
+        for (int i = 0; i < 300; i++) {
+            Mark mark = marks.get(random.nextInt(marks.size()));
+            mark.x = random.nextInt(3000);
+            mark.y = random.nextInt(2000);
+            mark.width = 20 + random.nextInt(200);
+        }
+        for (int i = 0; i < 100; i++) {
+            marks.remove(random.nextInt(marks.size()));
+        }
+        index.sync(marks);
+        check(index.size() == marks.size(), "removed marks dropped");
+        check(agreesWithLinearScan(index, marks, random), "hits still match after edits");
+
+        // Single mark update after a drag
+        Mark dragged = marks.get(0);
+        dragged.x = -500;
+        dragged.y = -500;
+        index.update(dragged);
+        check(index.query(-500 + 10, -500 + 10).contains(dragged), "dragged mark found at new position");
+
+        // Tracked list: adds and removes update the index, edits need update() only
+        MarkSpatialIndex tracked = new MarkSpatialIndex();
+        List<Mark> canvasMarks = tracked.trackedList();
+        canvasMarks.addAll(marks);
+        check(tracked.size() == marks.size() && agreesWithLinearScan(tracked, canvasMarks, random),
+              "tracked list indexes added marks");
+        for (int i = 0; i < 200; i++) {
+            Mark mark = canvasMarks.get(random.nextInt(canvasMarks.size()));
+            mark.x = random.nextInt(3000);
+            mark.y = random.nextInt(2000);
+            tracked.update(mark);
+        }
+        Mark removed = canvasMarks.remove(10);
+        canvasMarks.remove(canvasMarks.get(20));
+        canvasMarks.add(new RectangleMark(1500, 1000));
+        check(tracked.size() == canvasMarks.size() && agreesWithLinearScan(tracked, canvasMarks, random),
+              "moves, removals and additions followed without a resync");
+        canvasMarks.add(0, removed);   // Undo of a delete reinserts in place
+        check(agreesWithLinearScan(tracked, canvasMarks, random), "reinserted mark keeps list order");
+        canvasMarks.removeIf(mark -> mark instanceof BowTextMark);
+        check(tracked.size() == canvasMarks.size() && agreesWithLinearScan(tracked, canvasMarks, random),
+              "bulk removal rebuilds the index");
+        canvasMarks.clear();
+        check(tracked.size() == 0 && tracked.query(1500, 1000).isEmpty(), "cleared list empties the index");
+
+        // Query cost compared with a full scan
+        int queries = 20000;
+        long start = System.nanoTime();
+        int found = 0;
+        for (int i = 0; i < queries; i++) {
+            found += index.query(random.nextInt(3000), random.nextInt(2000)).size();
+        }
+        long indexedNs = (System.nanoTime() - start) / queries;
+        start = System.nanoTime();
+        for (int i = 0; i < queries; i++) {
+            int px = random.nextInt(3000), py = random.nextInt(2000);
+            for (Mark mark : marks) {
+                if (mark.contains(px, py)) { found++; break; }
+            }
+        }
+        long linearNs = (System.nanoTime() - start) / queries;
+        System.out.println("Per query: indexed " + indexedNs + " ns, linear scan " + linearNs + " ns (" + found + ")");
+
+        System.out.println("\nAll MarkSpatialIndex checks passed.");
+    }
+
+    private static boolean agreesWithLinearScan(MarkSpatialIndex index, List<Mark> marks, Random random) {
+        for (int i = 0; i < 20000; i++) {
+            int px = random.nextInt(3200) - 100, py = random.nextInt(2200) - 100;
+            Mark expected = null;
+            for (Mark mark : marks) {
+                if (mark.contains(px, py)) { expected = mark; break; }
+            }
+            Mark actual = null;
+            for (Mark mark : index.query(px, py)) {
+                if (mark.contains(px, py)) { actual = mark; break; }
+            }
+            if (expected != actual) {
+                System.out.println("Mismatch at (" + px + ", " + py + ")");
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError("FAILED: " + message);
+        }
+        System.out.println("✓ " + message);
+    }
+}
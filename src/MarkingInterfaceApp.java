@@ -4454,17 +4454,9 @@ public class MarkingInterfaceApp {
         }
     }
     
-    // File Sequence Manager with Database
+    // File Sequence Manager: render a serialised batch of the current layout
     private static void handleFileSequenceManager() {
-        showProfessionalDialog("File Sequence Manager", 
-            "🔢 Advanced File Sequence Management\n\n" +
-            "• Batch processing capabilities\n" +
-            "• Sequential numbering systems\n" +
-            "• Database-driven file organization\n" +
-            "• Template-based automation\n\n" +
-            "This feature integrates with the Database tab for\n" +
-            "comprehensive file management.", 
-            JOptionPane.INFORMATION_MESSAGE);
+        BatchRenderer.exportBatch(null, drawingCanvasRef);
     }
     
     // Save Project to Database
@@ -156,7 +156,8 @@ public class MarkingModeConfig {
             "Image-based marking from file (PNG, JPG, SVG)",
             content -> content,
             content -> validateImagePath(content),
-            Map.of("supportedFormats", Arrays.asList("png", "jpg", "jpeg", "svg"), "maxSize", "500x500"),
+            Map.of("supportedFormats", Arrays.asList("png", "jpg", "jpeg", "svg"), "maxSize", "500x500",
+                   "halftone", ImageHalftoner.DEFAULT_METHOD.name()),
             true, false
         ));
         
@@ -1222,7 +1222,13 @@ public class OutputPanel extends JPanel implements Printable {
     }
     
     private void exportGCode() {
-        JOptionPane.showMessageDialog(this, "G-Code export functionality would execute here.", "Export G-Code", JOptionPane.INFORMATION_MESSAGE);
+        JFileChooser fileChooser = new JFileChooser();
+        fileChooser.setFileFilter(new javax.swing.filechooser.FileNameExtensionFilter("G-Code files", "gcode", "nc"));
+        
+        int result = fileChooser.showSaveDialog(this);
+        if (result == JFileChooser.APPROVE_OPTION) {
+            GCodeWriter.exportCanvas(this, canvas, fileChooser.getSelectedFile());
+        }
     }
     
     private void saveTemplate() {
@@ -0,0 +1,543 @@
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Pdf417Encoder: PDF417 per ISO/IEC 15438.
+ *
+ * The data is split into compaction runs. Runs of 13 or more digits use numeric compaction
+ * (44 digits per group, base 900). Text uses text compaction with its alpha, lower, mixed
+ * and punctuation submodes, two characters per codeword. Anything else uses byte
+ * compaction, six bytes per five codewords. The symbol length descriptor comes first and
+ * pad codewords fill the matrix. Reed-Solomon error correction over GF(929) follows at the
+ * level ISO/IEC 15438 recommends for the data size. The column count keeps the symbol near
+ * PREFERRED_ASPECT_RATIO. Every row is start, left row indicator, data, right row
+ * indicator and stop, and row r takes its patterns from cluster (r mod 3) * 3.
+ *
+ * The 3 x 929 bar/space patterns of the clusters are the standard's tables. They are read
+ * from CLUSTER_TABLE_FILE on the class path or in the working directory: 17-bit hex
+ * patterns separated by whitespace or commas, clusters 0, 3 and 6 in codeword order. Each
+ * pattern is checked against the cluster rule. Until the tables are installed encode()
+ * keeps the layout this tree always drew for PDF417: six rows of start, row indicators,
+ * six codewords and stop, with patterns simulated from the data.
+ */
+public final class Pdf417Encoder implements SymbologyEncoder {
+
+    // Soft coding: Codeword pattern tables (ISO/IEC 15438 clusters 0, 3 and 6)
+    public static final String CLUSTER_TABLE_FILE = "pdf417_clusters.txt";
+
+    // Soft coding: Symbol layout
+    private static final double PREFERRED_ASPECT_RATIO = 3.0;   // Symbol width : height
+    private static final int ROW_HEIGHT_MODULES = 3;            // Row height assumed for the aspect ratio
+    private static final int MIN_ROWS = 3, MAX_ROWS = 90;
+    private static final int MAX_COLUMNS = 30;
+    private static final int MAX_CODEWORDS = 928;               // Data, padding and error correction
+    private static final int NUMERIC_MIN_DIGITS = 13;           // Shorter digit runs stay in text compaction
+    private static final int TEXT_MIN_CHARACTERS = 5;           // Shorter text runs between bytes stay bytes
+    private static final int NUMERIC_GROUP_DIGITS = 44;
+
+    static final String START_PATTERN = "11111111010101000";
+    static final String STOP_PATTERN = "111111101000101001";
+    static final int CODEWORD_MODULES = 17;
+    static final int CODEWORDS_PER_CLUSTER = 929;
+
+    // Soft coding: Layout drawn while the tables are not installed
+    static final int LEGACY_ROWS = 6;
+    static final int LEGACY_DATA_COLUMNS = 6;
+
+    // Codeword values
+    static final int MODULUS = 929;
+    static final int LATCH_TEXT = 900;
+    static final int LATCH_BYTE = 901;
+    static final int LATCH_NUMERIC = 902;
+    static final int LATCH_BYTE_SIX = 924;   // Byte compaction of a multiple of six bytes
+    static final int PAD = 900;
+
+    // Text compaction submodes and switch values
+    private static final int ALPHA = 0, LOWER = 1, MIXED = 2, PUNCTUATION = 3;
+    private static final int SPACE = 26;
+    private static final int LATCH_LOWER = 27, SHIFT_ALPHA = 27;          // From alpha / from lower
+    private static final int LATCH_MIXED = 28, LATCH_ALPHA = 28;          // From alpha or lower / from mixed
+    private static final int SHIFT_PUNCTUATION = 29, LATCH_PUNCTUATION = 25;
+    private static final int PUNCTUATION_LATCH_ALPHA = 29;
+    private static final String MIXED_CHARS = "0123456789&\r\t,:#-.$/+%*=^";
+    private static final String PUNCTUATION_CHARS = ";<>@[\\]_`~!\r\t,:\n-.$/\"|*()?{}'";
+
+    private static final int TEXT = 0, BYTE = 1, NUMERIC = 2;
+
+    private static final int[][] CLUSTERS = loadClusters();
+    private static final int[][] GENERATORS = new int[9][];
+
+    /** A compiled symbol: codewords per row, row indicators included. */
+    static final class Symbol {
+        final int rows;
+        final int columns;                  // Data columns (without the row indicators)
+        final int errorCorrectionLevel;
+        final int[][] codewords;            // rows x (columns + 2)
+
+        Symbol(int rows, int columns, int errorCorrectionLevel, int[][] codewords) {
+            this.rows = rows;
+            this.columns = columns;
+            this.errorCorrectionLevel = errorCorrectionLevel;
+            this.codewords = codewords;
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "PDF417";
+    }
+
+    /** Whether the codeword pattern tables were found, i.e. whether symbols are scannable. */
+    public static boolean isAvailable() {
+        return CLUSTERS != null;
+    }
+
+    @Override
+    public BarcodeModel encode(String data) {
+        if (CLUSTERS == null) {
+            return legacyModel(data);
+        }
+        return toModel(encodeCodewords(data), CLUSTERS);
+    }
+
+    /** The six-row layout with codeword patterns simulated from the data hash. */
+    static BarcodeModel legacyModel(String data) {
+        BarcodeModel.Builder builder = new BarcodeModel.Builder();
+        for (int row = 0; row < LEGACY_ROWS; row++) {
+            builder.addModules(START_PATTERN);
+            builder.addBits((row * 3) % MODULUS, CODEWORD_MODULES);
+            for (int col = 0; col < LEGACY_DATA_COLUMNS; col++) {
+                builder.addBits(Math.floorMod(data.hashCode() + row * LEGACY_DATA_COLUMNS + col, MODULUS), CODEWORD_MODULES);
+            }
+            builder.addBits((row * 3 + 1) % MODULUS, CODEWORD_MODULES);
+            builder.addModules(STOP_PATTERN);
+            builder.endRow();
+        }
+        return builder.build("PDF417", null);
+    }
+
+    /** Rows of start, codeword patterns from each row's cluster table, and stop. */
+    static BarcodeModel toModel(Symbol symbol, int[][] clusters) {
+        BarcodeModel.Builder builder = new BarcodeModel.Builder();
+        for (int row = 0; row < symbol.rows; row++) {
+            int[] patterns = clusters[row % 3];
+            builder.addModules(START_PATTERN);
+            for (int codeword : symbol.codewords[row]) {
+                builder.addBits(patterns[codeword], CODEWORD_MODULES);
+            }
+            builder.addModules(STOP_PATTERN);
+            builder.endRow();
+        }
+        return builder.build("PDF417", null);
+    }
+
+    // ==================== SYMBOL ====================
+
+    /**
+     * Data codewords, error correction and row indicators of the symbol for data.
+     *
+     * @throws IllegalArgumentException when data holds characters above U+00FF or is too long
+     */
+    static Symbol encodeCodewords(String data) {
+        int[] compacted = compact(data);
+        int needed = compacted.length + 1;   // With the symbol length descriptor
+        int level = recommendedLevel(needed);
+        while (level > 0 && needed + (2 << level) > MAX_CODEWORDS) level--;
+        int ecCount = 2 << level;
+        if (needed + ecCount > MAX_CODEWORDS) {
+            throw new IllegalArgumentException("Data too long for PDF417");
+        }
+
+        // Column count closest to the preferred shape
+        int columns = 0, rows = 0;
+        double bestError = Double.MAX_VALUE;
+        for (int c = 1; c <= MAX_COLUMNS; c++) {
+            int r = Math.max(MIN_ROWS, (needed + ecCount + c - 1) / c);
+            if (r > MAX_ROWS || r * c > MAX_CODEWORDS) continue;
+            double ratio = (CODEWORD_MODULES * (c + 4) + 1) / (double) (ROW_HEIGHT_MODULES * r);
+            double error = Math.abs(ratio - PREFERRED_ASPECT_RATIO);
+            if (error < bestError) {
+                bestError = error;
+                columns = c;
+                rows = r;
+            }
+        }
+        if (columns == 0) {
+            throw new IllegalArgumentException("Data too long for PDF417");
+        }
+
+        int dataCount = rows * columns - ecCount;
+        int[] sequence = new int[rows * columns];
+        sequence[0] = dataCount;   // Symbol length descriptor
+        System.arraycopy(compacted, 0, sequence, 1, compacted.length);
+        for (int i = needed; i < dataCount; i++) sequence[i] = PAD;
+        int[] ec = errorCorrection(sequence, dataCount, level);
+        System.arraycopy(ec, 0, sequence, dataCount, ecCount);
+
+        int[][] matrix = new int[rows][columns + 2];
+        for (int row = 0; row < rows; row++) {
+            int cluster = row % 3;
+            int base = 30 * (row / 3);
+            int rowsValue = (rows - 1) / 3;
+            int levelValue = level * 3 + (rows - 1) % 3;
+            int columnsValue = columns - 1;
+            matrix[row][0] = base + (cluster == 0 ? rowsValue : cluster == 1 ? levelValue : columnsValue);
+            System.arraycopy(sequence, row * columns, matrix[row], 1, columns);
+            matrix[row][columns + 1] = base + (cluster == 0 ? columnsValue : cluster == 1 ? rowsValue : levelValue);
+        }
+        return new Symbol(rows, columns, level, matrix);
+    }
+
+    /** Error correction level recommended by ISO/IEC 15438 for the number of data codewords. */
+    static int recommendedLevel(int dataCodewords) {
+        if (dataCodewords <= 40) return 2;
+        if (dataCodewords <= 160) return 3;
+        if (dataCodewords <= 320) return 4;
+        return 5;
+    }
+
+    // ==================== ERROR CORRECTION ====================
+
+    /**
+     * 2^(level + 1) Reed-Solomon codewords over GF(929) for the first count codewords, such
+     * that the whole sequence has the roots 3, 3^2, ... of the generator polynomial.
+     */
+    static int[] errorCorrection(int[] codewords, int count, int level) {
+        int[] generator = generator(level);
+        int k = generator.length - 1;
+        int[] remainder = new int[k];   // remainder[j]: coefficient of x^j
+        for (int i = 0; i < count; i++) {
+            int feedback = (codewords[i] + remainder[k - 1]) % MODULUS;
+            for (int j = k - 1; j > 0; j--) {
+                remainder[j] = (remainder[j - 1] + MODULUS - feedback * generator[j] % MODULUS) % MODULUS;
+            }
+            remainder[0] = (MODULUS - feedback * generator[0] % MODULUS) % MODULUS;
+        }
+        int[] ec = new int[k];
+        for (int j = 0; j < k; j++) {
+            ec[j] = (MODULUS - remainder[k - 1 - j]) % MODULUS;
+        }
+        return ec;
+    }
+
+    /** Coefficients (x^0 first, leading 1 last) of (x - 3)(x - 3^2)...(x - 3^k), k = 2^(level + 1). */
+    static synchronized int[] generator(int level) {
+        if (GENERATORS[level] == null) {
+            int k = 2 << level;
+            int[] g = {1};
+            int root = 1;
+            for (int i = 1; i <= k; i++) {
+                root = root * 3 % MODULUS;
+                int[] next = new int[g.length + 1];
+                for (int j = 0; j < g.length; j++) {
+                    next[j + 1] = (next[j + 1] + g[j]) % MODULUS;
+                    next[j] = (next[j] + MODULUS - g[j] * root % MODULUS) % MODULUS;
+                }
+                g = next;
+            }
+            GENERATORS[level] = g;
+        }
+        return GENERATORS[level];
+    }
+
+    // ==================== COMPACTION ====================
+
+    /**
+     * Data codewords (without the symbol length descriptor). Symbols start in text
+     * compaction, alpha submode.
+     */
+    static int[] compact(String data) {
+        for (int i = 0; i < data.length(); i++) {
+            if (data.charAt(i) > 0xFF) {
+                throw new IllegalArgumentException("PDF417 cannot encode '" + data.charAt(i) + "'");
+            }
+        }
+        List<Integer> out = new ArrayList<>();
+        int mode = TEXT;
+        int submode = ALPHA;
+        int position = 0;
+        while (position < data.length()) {
+            int digits = digitCount(data, position);
+            if (digits >= NUMERIC_MIN_DIGITS) {
+                out.add(LATCH_NUMERIC);
+                encodeNumeric(data, position, digits, out);
+                mode = NUMERIC;
+                position += digits;
+                continue;
+            }
+            int text = textCount(data, position);
+            int bytes = text >= TEXT_MIN_CHARACTERS || (text > 0 && mode == TEXT) ? 0 : byteCount(data, position);
+            if (bytes == 0) {   // Text, or short text before a numeric run
+                if (mode != TEXT) {
+                    out.add(LATCH_TEXT);
+                    mode = TEXT;
+                    submode = ALPHA;
+                }
+                submode = encodeText(data, position, text, submode, out);
+                position += text;
+                continue;
+            }
+            encodeBytes(data.substring(position, position + bytes).getBytes(StandardCharsets.ISO_8859_1), out);
+            mode = BYTE;
+            position += bytes;
+        }
+        int[] codewords = new int[out.size()];
+        for (int i = 0; i < codewords.length; i++) codewords[i] = out.get(i);
+        return codewords;
+    }
+
+    /** Text compaction of count characters; returns the submode the run ends in. */
+    private static int encodeText(String data, int start, int count, int submode, List<Integer> out) {
+        List<Integer> values = new ArrayList<>();
+        int index = 0;
+        while (index < count) {
+            char c = data.charAt(start + index);
+            switch (submode) {
+                case ALPHA:
+                    if (isUpper(c)) {
+                        values.add(c == ' ' ? SPACE : c - 'A');
+                    } else if (isLower(c)) {
+                        values.add(LATCH_LOWER);
+                        submode = LOWER;
+                        continue;
+                    } else if (isMixed(c)) {
+                        values.add(LATCH_MIXED);
+                        submode = MIXED;
+                        continue;
+                    } else {
+                        values.add(SHIFT_PUNCTUATION);
+                        values.add(PUNCTUATION_CHARS.indexOf(c));
+                    }
+                    break;
+                case LOWER:
+                    if (isLower(c)) {
+                        values.add(c == ' ' ? SPACE : c - 'a');
+                    } else if (isUpper(c)) {
+                        values.add(SHIFT_ALPHA);
+                        values.add(c - 'A');
+                    } else if (isMixed(c)) {
+                        values.add(LATCH_MIXED);
+                        submode = MIXED;
+                        continue;
+                    } else {
+                        values.add(SHIFT_PUNCTUATION);
+                        values.add(PUNCTUATION_CHARS.indexOf(c));
+                    }
+                    break;
+                case MIXED:
+                    if (isMixed(c)) {
+                        values.add(c == ' ' ? SPACE : MIXED_CHARS.indexOf(c));
+                    } else if (isUpper(c)) {
+                        values.add(LATCH_ALPHA);
+                        submode = ALPHA;
+                        continue;
+                    } else if (isLower(c)) {
+                        values.add(LATCH_LOWER);
+                        submode = LOWER;
+                        continue;
+                    } else if (index + 1 < count && isPunctuation(data.charAt(start + index + 1))) {
+                        values.add(LATCH_PUNCTUATION);
+                        submode = PUNCTUATION;
+                        continue;
+                    } else {
+                        values.add(SHIFT_PUNCTUATION);
+                        values.add(PUNCTUATION_CHARS.indexOf(c));
+                    }
+                    break;
+                default:
+                    if (isPunctuation(c)) {
+                        values.add(PUNCTUATION_CHARS.indexOf(c));
+                    } else {
+                        values.add(PUNCTUATION_LATCH_ALPHA);
+                        submode = ALPHA;
+                        continue;
+                    }
+                    break;
+            }
+            index++;
+        }
+        // Two values per codeword; an odd count is completed with a punctuation shift
+        for (int i = 0; i < values.size(); i += 2) {
+            int low = i + 1 < values.size() ? values.get(i + 1) : SHIFT_PUNCTUATION;
+            out.add(values.get(i) * 30 + low);
+        }
+        return submode;
+    }
+
+    /** Byte compaction: groups of six bytes as five base-900 codewords, the rest one each. */
+    private static void encodeBytes(byte[] bytes, List<Integer> out) {
+        out.add(bytes.length % 6 == 0 ? LATCH_BYTE_SIX : LATCH_BYTE);
+        int i = 0;
+        for (; bytes.length - i >= 6; i += 6) {
+            long value = 0;
+            for (int j = 0; j < 6; j++) value = (value << 8) | (bytes[i + j] & 0xFF);
+            int[] group = new int[5];
+            for (int j = 4; j >= 0; j--) {
+                group[j] = (int) (value % 900);
+                value /= 900;
+            }
+            for (int codeword : group) out.add(codeword);
+        }
+        for (; i < bytes.length; i++) out.add(bytes[i] & 0xFF);
+    }
+
+    /** Numeric compaction: each group of up to 44 digits, with a leading 1, in base 900. */
+    private static void encodeNumeric(String data, int start, int count, List<Integer> out) {
+        BigInteger base = BigInteger.valueOf(900);
+        for (int i = 0; i < count; i += NUMERIC_GROUP_DIGITS) {
+            int length = Math.min(NUMERIC_GROUP_DIGITS, count - i);
+            BigInteger value = new BigInteger("1" + data.substring(start + i, start + i + length));
+            List<Integer> group = new ArrayList<>();
+            do {
+                group.add(value.mod(base).intValue());
+                value = value.divide(base);
+            } while (value.signum() != 0);
+            for (int j = group.size() - 1; j >= 0; j--) out.add(group.get(j));
+        }
+    }
+
+    private static int digitCount(String data, int start) {
+        int end = start;
+        while (end < data.length() && isDigit(data.charAt(end))) end++;
+        return end - start;
+    }
+
+    /** Characters from start that text compaction takes, stopping before a numeric run. */
+    private static int textCount(String data, int start) {
+        int index = start;
+        while (index < data.length()) {
+            int digits = digitCount(data, index);
+            if (digits >= NUMERIC_MIN_DIGITS) break;
+            if (digits > 0) {
+                index += digits;
+                continue;
+            }
+            if (!isText(data.charAt(index))) break;
+            index++;
+        }
+        return index - start;
+    }
+
+    /** Characters from start for byte compaction, stopping before a numeric or text run. */
+    private static int byteCount(String data, int start) {
+        int index = start;
+        while (index < data.length()) {
+            if (digitCount(data, index) >= NUMERIC_MIN_DIGITS) break;
+            int text = 0;
+            while (index + text < data.length() && text < TEXT_MIN_CHARACTERS && isText(data.charAt(index + text))) text++;
+            if (text >= TEXT_MIN_CHARACTERS) break;
+            index++;
+        }
+        return index - start;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isUpper(char c) {
+        return c == ' ' || (c >= 'A' && c <= 'Z');
+    }
+
+    private static boolean isLower(char c) {
+        return c == ' ' || (c >= 'a' && c <= 'z');
+    }
+
+    private static boolean isMixed(char c) {
+        return c == ' ' || MIXED_CHARS.indexOf(c) >= 0;
+    }
+
+    private static boolean isPunctuation(char c) {
+        return PUNCTUATION_CHARS.indexOf(c) >= 0;
+    }
+
+    private static boolean isText(char c) {
+        return c == '\t' || c == '\n' || c == '\r' || (c >= ' ' && c <= '~');
+    }
+
+    // ==================== CLUSTER TABLES ====================
+
+    private static int[][] loadClusters() {
+        try (InputStream in = openClusterTable()) {
+            if (in == null) {
+                System.out.println("ℹ️ PDF417 codeword tables (" + CLUSTER_TABLE_FILE + ") not installed - drawing the legacy PDF417 layout");
+                return null;
+            }
+            return parseClusters(new String(in.readAllBytes(), StandardCharsets.US_ASCII));
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("❌ PDF417 codeword tables rejected: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static InputStream openClusterTable() throws IOException {
+        InputStream resource = Pdf417Encoder.class.getResourceAsStream("/" + CLUSTER_TABLE_FILE);
+        if (resource != null) return resource;
+        File file = new File(CLUSTER_TABLE_FILE);
+        return file.isFile() ? new FileInputStream(file) : null;
+    }
+
+    /**
+     * Parse 3 x 929 hex patterns (clusters 0, 3 and 6); every pattern must belong to its
+     * cluster and appear once in it.
+     */
+    static int[][] parseClusters(String text) {
+        String[] tokens = text.trim().split("[\\s,]+");
+        if (tokens.length != 3 * CODEWORDS_PER_CLUSTER) {
+            throw new IllegalArgumentException("expected " + 3 * CODEWORDS_PER_CLUSTER + " patterns, found " + tokens.length);
+        }
+        int[][] clusters = new int[3][CODEWORDS_PER_CLUSTER];
+        for (int table = 0; table < 3; table++) {
+            Set<Integer> seen = new HashSet<>();
+            for (int codeword = 0; codeword < CODEWORDS_PER_CLUSTER; codeword++) {
+                String token = tokens[table * CODEWORDS_PER_CLUSTER + codeword];
+                int pattern;
+                try {
+                    pattern = Integer.parseInt(token.startsWith("0x") ? token.substring(2) : token, 16);
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("'" + token + "' is not a hex pattern");
+                }
+                if (clusterOf(pattern) != table * 3 || !seen.add(pattern)) {
+                    throw new IllegalArgumentException("pattern " + token + " does not belong to cluster " + table * 3);
+                }
+                clusters[table][codeword] = pattern;
+            }
+        }
+        return clusters;
+    }
+
+    /**
+     * Cluster (0, 3 or 6) of a 17-module pattern of four bars and four spaces, each 1 to 6
+     * modules wide, or -1 when pattern is not a PDF417 codeword pattern.
+     */
+    static int clusterOf(int pattern) {
+        if (pattern >>> CODEWORD_MODULES != 0 || (pattern >>> (CODEWORD_MODULES - 1) & 1) == 0 || (pattern & 1) != 0) {
+            return -1;
+        }
+        int[] widths = new int[8];
+        int element = 0;
+        boolean dark = true;
+        for (int bit = CODEWORD_MODULES - 1; bit >= 0; bit--) {
+            boolean on = (pattern >>> bit & 1) != 0;
+            if (on != dark) {
+                if (++element == widths.length) return -1;
+                dark = on;
+            }
+            widths[element]++;
+        }
+        if (element != widths.length - 1) return -1;
+        for (int width : widths) {
+            if (width > 6) return -1;
+        }
+        int cluster = Math.floorMod(widths[0] - widths[2] + widths[4] - widths[6], 9);
+        return cluster % 3 == 0 ? cluster : -1;
+    }
+}
@@ -1,9 +1,11 @@
 import java.awt.*;
+import java.awt.image.BufferedImage;
 import java.awt.print.PageFormat;
 import java.awt.print.Printable;
 import java.awt.print.PrinterException;
 import java.awt.print.PrinterJob;
 import java.io.File;
+import java.io.IOException;
 import java.util.Map;
 import javax.swing.*;
 import javax.swing.border.TitledBorder;
@@ -21,6 +23,10 @@ public class PrintEngravePanel extends JPanel implements Printable {
     private static final Color SECTION_BG = new Color(248, 249, 250);
     private static final Color BORDER_COLOR = new Color(189, 195, 199);
     
+    // Soft coding: Logo/Image mode places a new GraphMark here when none is selected
+    private static final int LOGO_MARK_X = 100;
+    private static final int LOGO_MARK_Y = 100;
+    
     private DrawingCanvas canvas;
     
     // Print Controls
@@ -1087,13 +1093,8 @@ public class PrintEngravePanel extends JPanel implements Printable {
         fileChooser.setFileFilter(new FileNameExtensionFilter("G-Code files", "gcode", "nc"));
         
         int result = fileChooser.showSaveDialog(this);
-        if (result == JFileChooser.APPROVE_OPTION) {
-            File selectedFile = fileChooser.getSelectedFile();
-            JOptionPane.showMessageDialog(this,
-                "G-Code exported successfully!\n\n" +
-                "File: " + selectedFile.getName() + "\n" +
-                "Ready for CNC machine",
-                "Export Complete", JOptionPane.INFORMATION_MESSAGE);
+        if (result == JFileChooser.APPROVE_OPTION && canvas != null) {
+            GCodeWriter.exportCanvas(this, canvas, fileChooser.getSelectedFile());
         }
     }
     
@@ -1426,12 +1427,68 @@ public class PrintEngravePanel extends JPanel implements Printable {
             File selectedFile = fileChooser.getSelectedFile();
             markingModeComboBox.setSelectedItem("Logo/Image");
             textInputField.setText(selectedFile.getName());
-            JOptionPane.showMessageDialog(this,
-                "ðŸ“· Image Imported Successfully!\n\n" +
-                "File: " + selectedFile.getName() + "\n" +
-                "Image will be converted to dot pattern\n" +
-                "for marking operation.",
-                "Image Import", JOptionPane.INFORMATION_MESSAGE);
+            placeLogoImage(selectedFile);
+        }
+    }
+    
+    /**
+     * Logo/Image mode: decode the file off the EDT, then show it on the selected GraphMark
+     * (or a new one) so the dot preview, simulation and G-code export halftone it into dots.
+     */
+    private void placeLogoImage(File file) {
+        if (canvas == null) return;
+        importImageButton.setEnabled(false);
+        SwingWorker<BufferedImage, Void> worker = new SwingWorker<BufferedImage, Void>() {
+            @Override
+            protected BufferedImage doInBackground() throws Exception {
+                BufferedImage image = ImageAssetStore.image(ImageAssetStore.put(file));
+                if (image == null) {
+                    throw new IOException("Unsupported or unreadable image: " + file.getName());
+                }
+                return image;
+            }
+            
+            @Override
+            protected void done() {
+                importImageButton.setEnabled(true);
+                BufferedImage image;
+                try {
+                    image = get();
+                } catch (Exception e) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    JOptionPane.showMessageDialog(PrintEngravePanel.this,
+                        "Image import failed: " + cause.getMessage(),
+                        "Image Import", JOptionPane.ERROR_MESSAGE);
+                    return;
+                }
+                GraphMark graph;
+                if (canvas.getSelectedMark() instanceof GraphMark) {
+                    graph = (GraphMark) canvas.getSelectedMark();
+                } else {
+                    graph = new GraphMark(LOGO_MARK_X, LOGO_MARK_Y);
+                    canvas.addMarkObject(graph);
+                    canvas.setSelectedMark(graph);
+                }
+                graph.setHalftoneMethod(getLogoHalftoneMethod());
+                graph.setAssignedImage(image, file.getName());
+                canvas.repaint();
+                JOptionPane.showMessageDialog(PrintEngravePanel.this,
+                    "ðŸ“· Image Imported Successfully!\n\n" +
+                    "File: " + file.getName() + "\n" +
+                    "Image will be converted to dot pattern\n" +
+                    "for marking operation.",
+                    "Image Import", JOptionPane.INFORMATION_MESSAGE);
+            }
+        };
+        worker.execute();
+    }
+    
+    private ImageHalftoner.Method getLogoHalftoneMethod() {
+        Object method = MarkingModeConfig.getModeParameters(MarkingModeConfig.MarkingType.LOGO_IMAGE).get("halftone");
+        try {
+            return method != null ? ImageHalftoner.Method.valueOf(method.toString()) : ImageHalftoner.DEFAULT_METHOD;
+        } catch (IllegalArgumentException e) {
+            return ImageHalftoner.DEFAULT_METHOD;
         }
     }
     
@@ -635,7 +635,8 @@ public class PrintPanel extends JPanel implements Printable {
                 "• Print Mode: " + printMode + "\n" +
                 "• Pen Down Delay: " + penDownDelay + "ms\n" +
                 "• Paper Type: " + paperType + "\n" +
-                "• Diameter: " + diameter + "mm",
+                "• Diameter: " + diameter + "mm\n" +
+                "• Estimated cycle time: " + CycleTimeEstimator.formatDuration(estimateCycleTime().getTotalSeconds()),
                 "Print Operation Started",
                 JOptionPane.INFORMATION_MESSAGE);
         });
@@ -780,6 +781,16 @@ public class PrintPanel extends JPanel implements Printable {
             JOptionPane.INFORMATION_MESSAGE);
     }
     
+    /**
+     * Cycle time for the current canvas using this panel's pen delays as pin dwell.
+     */
+    public CycleTimeEstimator.Estimate estimateCycleTime() {
+        return new CycleTimeEstimator()
+            .setPenDownDelayMillis(penDownDelay)
+            .setPenUpDelayMillis(penUpDelay)
+            .estimate(canvas.compileDotPath());
+    }
+    
     private void showPrintOrderDialog() {
         java.util.List<Mark> marks = canvas.getMarks();
         
@@ -793,7 +804,7 @@ public class PrintPanel extends JPanel implements Printable {
         
         // Create print order dialog
         JDialog orderDialog = new JDialog((Frame) SwingUtilities.getWindowAncestor(this), "Print Order", true);
-        orderDialog.setSize(400, 500);
+        orderDialog.setSize(520, 500);
         orderDialog.setLocationRelativeTo(this);
         
         JPanel dialogPanel = new JPanel(new BorderLayout());
@@ -823,6 +834,7 @@ public class PrintPanel extends JPanel implements Printable {
         JButton moveUpButton = new JButton("Move Up");
         JButton moveDownButton = new JButton("Move Down");
         JButton reverseButton = new JButton("Reverse Order");
+        JButton optimizeButton = new JButton("Optimize Path");
         JButton closeButton = new JButton("Close");
         
         moveUpButton.addActionListener(e -> {
@@ -864,11 +876,91 @@ public class PrintPanel extends JPanel implements Printable {
             }
         });
         
+        optimizeButton.addActionListener(e -> {
+            // Order strokes across all marks to minimise air travel.
+            // Marks are compiled here on the EDT; 2-opt/Or-opt and the cycle
+            // estimates run on a worker so the dialog stays responsive.
+            final DotPath original = canvas.compileDotPath();
+            final CycleTimeEstimator estimator = new CycleTimeEstimator()
+                .setPenDownDelayMillis(penDownDelay)
+                .setPenUpDelayMillis(penUpDelay);
+            optimizeButton.setEnabled(false);
+            orderDialog.setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+            SwingWorker<DotPathOptimizer.Result, Void> worker = new SwingWorker<DotPathOptimizer.Result, Void>() {
+                private double cycleBefore;
+                private double cycleAfter;
+
+                @Override
+                protected DotPathOptimizer.Result doInBackground() {
+                    DotPathOptimizer.Result result = DotPathOptimizer.optimizePath(original);
+                    cycleBefore = estimator.estimate(original).getTotalSeconds();
+                    cycleAfter = estimator.estimate(result.path).getTotalSeconds();
+                    return result;
+                }
+
+                @Override
+                protected void done() {
+                    optimizeButton.setEnabled(true);
+                    orderDialog.setCursor(Cursor.getDefaultCursor());
+                    DotPathOptimizer.Result result;
+                    try {
+                        result = get();
+                    } catch (Exception ex) {
+                        Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+                        JOptionPane.showMessageDialog(orderDialog,
+                            "Path optimization failed: " + cause.getMessage(),
+                            "Path Optimization", JOptionPane.ERROR_MESSAGE);
+                        return;
+                    }
+                    
+                    // List marks in the order the optimised path first visits them
+                    java.util.List<Mark> visited = new java.util.ArrayList<>();
+                    for (int m = 0; m < result.path.getMarkCount(); m++) {
+                        Mark mark = result.path.getMark(m);
+                        if (!visited.contains(mark)) {
+                            visited.add(mark);
+                        }
+                    }
+                    for (Mark mark : marks) {
+                        if (!visited.contains(mark)) {
+                            visited.add(mark);
+                        }
+                    }
+                    listModel.clear();
+                    for (int i = 0; i < visited.size(); i++) {
+                        Mark mark = visited.get(i);
+                        listModel.addElement(String.format("%d. %s at (%d, %d)",
+                            marks.indexOf(mark) + 1,
+                            mark.getClass().getSimpleName().replace("Mark", ""),
+                            mark.x,
+                            mark.y));
+                    }
+                    
+                    JOptionPane.showMessageDialog(orderDialog,
+                        String.format("Path optimized!\n\n" +
+                            "Strokes: %d\n" +
+                            "Air travel before: %.1f mm\n" +
+                            "Air travel after: %.1f mm\n" +
+                            "Saved: %.1f%%\n" +
+                            "Cycle time: %s -> %s\n" +
+                            "Time: %d ms",
+                            result.strokes, result.getTravelBeforeMm(), result.getTravelAfterMm(),
+                            result.getSavingPercent(),
+                            CycleTimeEstimator.formatDuration(cycleBefore), CycleTimeEstimator.formatDuration(cycleAfter),
+                            result.elapsedMillis),
+                        "Path Optimization",
+                        JOptionPane.INFORMATION_MESSAGE);
+                }
+            };
+            worker.execute();
+        });
+        
         closeButton.addActionListener(e -> orderDialog.dispose());
         
         buttonPanel.add(moveUpButton);
         buttonPanel.add(moveDownButton);
         buttonPanel.add(reverseButton);
+        buttonPanel.add(optimizeButton);
         buttonPanel.add(closeButton);
         
         dialogPanel.add(buttonPanel, BorderLayout.SOUTH);
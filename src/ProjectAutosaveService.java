@@ -0,0 +1,616 @@
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+import javax.swing.SwingUtilities;
+
+/**
+ * ProjectAutosaveService: background autosave for the project open on the canvas.
+ *
+ * Only state capture touches the EDT: every AUTOSAVE_INTERVAL_MILLIS the marks that
+ * changed since the previous capture (by Mark.getStateKey) are encoded and
+ * appended to a write-ahead journal next to the project file (<project>.rugrel.journal,
+ * fsync'd, CRC-protected). After COMPACT_EVERY_FRAMES frames, or when the journal
+ * grows past COMPACT_JOURNAL_BYTES, the full project is written to the main file via
+ * temp file + atomic move and the journal starts over. Compression, thumbnail rendering,
+ * disk I/O and backup rotation all run on the autosave thread.
+ *
+ * Journal records: int length | int CRC32 | byte type | payload
+ *   BASE  - stamp of the main file (length and CRC32), ids of the marks in main-file order
+ *   DELTA - current mark order (ids), ids of changed marks, encoded partial project
+ * On open, recover() replays the journal over the main file; a torn last record is ignored.
+ * A journal whose stamp does not match the main file belongs to an older main file (a crash
+ * between writing the main file and restarting the journal) and is ignored.
+ */
+public class ProjectAutosaveService {
+
+    // Soft coding: Autosave timing and retention
+    public static final long AUTOSAVE_INTERVAL_MILLIS = 5000;             // Max seconds of work lost in a crash
+    public static final int COMPACT_EVERY_FRAMES = 60;                    // Journal frames between full saves
+    public static final long COMPACT_JOURNAL_BYTES = 4L * 1024 * 1024;   // Full save once the journal is this large
+    public static final int MAX_BACKUPS = 5;                              // Backups kept per project
+    public static final String JOURNAL_EXTENSION = ".journal";
+    public static final String BACKUP_MARKER = "_backup_";
+
+    private static final byte[] JOURNAL_MAGIC = {'R', 'G', 'R', 'J'};
+    private static final int JOURNAL_VERSION = 2;
+    private static final int FIRST_STAMPED_VERSION = 2;
+    private static final int RECORD_BASE = 1;
+    private static final int RECORD_DELTA = 2;
+    private static final int MAX_RECORD_BYTES = 256 * 1024 * 1024;   // Larger lengths mean a corrupt record
+
+    private static ProjectAutosaveService instance;
+
+    private final ScheduledExecutorService executor;
+    private final long intervalMillis;
+    private final int compactEveryFrames;
+    private ScheduledFuture<?> ticker;
+
+    // Tracked project (written on the EDT, read by the autosave thread)
+    private volatile File projectFile;
+    private volatile Supplier<ProjectState> stateSource;
+
+    // Capture state: only touched on the EDT
+    private IdentityHashMap<Mark, Integer> markIds = new IdentityHashMap<>();
+    private IdentityHashMap<Mark, Long> stateKeys = new IdentityHashMap<>();
+    private int[] lastOrder = new int[0];
+    private int nextMarkId = 0;
+
+    // Journal state: only touched on the autosave thread
+    private int framesSinceCompact = 0;
+    private long journalBytes = 0;
+
+    public static synchronized ProjectAutosaveService getInstance() {
+        if (instance == null) {
+            instance = new ProjectAutosaveService(AUTOSAVE_INTERVAL_MILLIS, COMPACT_EVERY_FRAMES);
+        }
+        return instance;
+    }
+
+    public ProjectAutosaveService(long intervalMillis, int compactEveryFrames) {
+        this.intervalMillis = intervalMillis;
+        this.compactEveryFrames = Math.max(1, compactEveryFrames);
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "Project Autosave");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.NORM_PRIORITY - 1);
+            return thread;
+        });
+    }
+
+    // ==================== TRACKING ====================
+
+    /**
+     * Start autosaving the canvas to projectFile. Call on the EDT right after the project was
+     * opened or saved; source builds the current ProjectState and is only invoked on the EDT.
+     * With compactNow the main file is rewritten immediately (e.g. after journal recovery).
+     */
+    public void track(File projectFile, Supplier<ProjectState> source, boolean compactNow) {
+        this.projectFile = projectFile;
+        this.stateSource = source;
+        markIds = new IdentityHashMap<>();
+        stateKeys = new IdentityHashMap<>();
+        lastOrder = new int[0];
+        if (compactNow) {
+            Snapshot snapshot = captureFull(source.get());
+            if (snapshot != null) executor.execute(() -> compact(projectFile, snapshot));
+        } else {
+            // The canvas matches the main file: the journal only needs its baseline
+            ProjectState state = source.get();
+            int[] order = assignIds(state.marks);
+            lastOrder = order;
+            rememberStateKeys(state.marks);
+            executor.execute(() -> resetJournal(projectFile, order, stampOf(projectFile)));
+        }
+        if (ticker == null) {
+            ticker = executor.scheduleWithFixedDelay(this::tick, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        }
+        System.out.println("💾 Autosave tracking " + projectFile.getName() + " every " + (intervalMillis / 1000.0) + "s");
+    }
+
+    public void stopTracking() {
+        projectFile = null;
+        stateSource = null;
+    }
+
+    public File getTrackedFile() {
+        return projectFile;
+    }
+
+    /**
+     * Save the tracked project now without blocking the EDT. Capture runs on the calling
+     * (EDT) thread; onDone receives the result on the EDT.
+     */
+    public void saveNow(File file, Supplier<ProjectState> source, Consumer<Boolean> onDone) {
+        saveNow(file, null, source, onDone);
+    }
+
+    /**
+     * Like saveNow(file, source, onDone), but writes initial instead of the source's current
+     * state (e.g. the empty state of a new project); later autosaves capture from source.
+     */
+    public void saveNow(File file, ProjectState initial, Supplier<ProjectState> source, Consumer<Boolean> onDone) {
+        this.projectFile = file;
+        this.stateSource = source;
+        Snapshot snapshot = captureFull(initial != null ? initial : source.get());
+        if (snapshot == null) {
+            if (onDone != null) onDone.accept(false);
+            return;
+        }
+        if (ticker == null) {
+            ticker = executor.scheduleWithFixedDelay(this::tick, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        }
+        executor.execute(() -> {
+            boolean success = compact(file, snapshot);
+            if (onDone != null) SwingUtilities.invokeLater(() -> onDone.accept(success));
+        });
+    }
+
+    /**
+     * Run one autosave cycle now and wait for it (used on shutdown and by tests).
+     */
+    public void flush() {
+        try {
+            executor.submit(this::tick).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            System.err.println("⚠️ Autosave flush failed: " + e.getCause());
+        }
+    }
+
+    // ==================== AUTOSAVE THREAD ====================
+
+    private void tick() {
+        File file = projectFile;
+        if (file == null || stateSource == null) return;
+        try {
+            Snapshot delta = onEdt(() -> projectFile == file ? captureDelta() : null);
+            if (delta == null) return;
+            appendRecord(journalFile(file), RECORD_DELTA, delta.payload());
+            framesSinceCompact++;
+            if (framesSinceCompact >= compactEveryFrames || journalBytes >= COMPACT_JOURNAL_BYTES) {
+                Snapshot full = onEdt(() -> projectFile == file ? captureFull(stateSource.get()) : null);
+                if (full != null) compact(file, full);
+            }
+        } catch (Exception e) {
+            System.err.println("⚠️ Autosave failed: " + e.getMessage());
+            // Journal everything next time so nothing is lost between the failure and the retry
+            SwingUtilities.invokeLater(() -> stateKeys.clear());
+        }
+    }
+
+    /**
+     * Write the full project atomically (keeping bounded backups), then restart the journal.
+     */
+    private boolean compact(File file, Snapshot snapshot) {
+        long start = System.currentTimeMillis();
+        try {
+            byte[] compressed = ProjectBinaryCodec.compress(withThumbnail(snapshot.encoded));
+            File parent = file.getAbsoluteFile().getParentFile();
+            if (parent != null && !parent.exists()) parent.mkdirs();
+            if (file.exists()) createBackup(file);
+            writeAtomically(file, compressed);
+            resetJournal(file, snapshot.order, stampOf(compressed));
+            System.out.println("💾 Autosave wrote " + file.getName() + " (" + compressed.length + " bytes, "
+                + (System.currentTimeMillis() - start) + " ms off the EDT)");
+            return true;
+        } catch (IOException e) {
+            System.err.println("❌ Autosave could not write " + file.getName() + ": " + e.getMessage());
+            SwingUtilities.invokeLater(() -> stateKeys.clear());
+            return false;
+        }
+    }
+
+    /**
+     * Render the list thumbnail from a decoded copy, so the live marks are never drawn off the EDT.
+     */
+    private static byte[] withThumbnail(byte[] encoded) {
+        try {
+            return ProjectBinaryCodec.withThumbnail(encoded,
+                ProjectIndex.renderThumbnail(ProjectBinaryCodec.decode(encoded).marks));
+        } catch (IOException | RuntimeException e) {
+            System.err.println("⚠️ Autosave saved without thumbnail: " + e.getMessage());
+            return encoded;
+        }
+    }
+
+    private void resetJournal(File file, int[] order, long stamp) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.write(JOURNAL_MAGIC);
+            out.writeInt(JOURNAL_VERSION);
+            writeRecord(out, RECORD_BASE, basePayload(stamp, order));
+            writeAtomically(journalFile(file), bytes.toByteArray());
+            framesSinceCompact = 0;
+            journalBytes = bytes.size();
+        } catch (IOException e) {
+            System.err.println("⚠️ Could not reset autosave journal: " + e.getMessage());
+        }
+    }
+
+    private void appendRecord(File journal, int type, byte[] payload) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(payload.length + 16);
+        writeRecord(new DataOutputStream(bytes), type, payload);
+        try (FileChannel channel = FileChannel.open(journal.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            channel.write(java.nio.ByteBuffer.wrap(bytes.toByteArray()));
+            channel.force(false);
+        }
+        journalBytes += bytes.size();
+    }
+
+    private static void writeRecord(DataOutputStream out, int type, byte[] payload) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(type);
+        crc.update(payload);
+        out.writeInt(payload.length);
+        out.writeInt((int) crc.getValue());
+        out.write(type);
+        out.write(payload);
+    }
+
+    private static byte[] basePayload(long stamp, int[] order) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeLong(stamp);
+        writeIds(out, order);
+        return bytes.toByteArray();
+    }
+
+    /** Length and CRC32 of a main file's bytes; the journal only applies to that exact file. */
+    static long stampOf(byte[] bytes) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        return ((long) bytes.length << 32) | crc.getValue();
+    }
+
+    private static long stampOf(File file) {
+        try {
+            return stampOf(Files.readAllBytes(file.toPath()));
+        } catch (IOException e) {
+            return 0;   // No main file: no journal can match it
+        }
+    }
+
+    private static <T> T onEdt(Callable<T> capture) throws Exception {
+        if (SwingUtilities.isEventDispatchThread()) return capture.call();
+        FutureTask<T> task = new FutureTask<>(capture);
+        SwingUtilities.invokeAndWait(task);
+        return task.get();
+    }
+
+    // ==================== CAPTURE (EDT) ====================
+
+    /** Encoded state plus the mark ids it refers to. */
+    private static class Snapshot {
+        final byte[] encoded;
+        final int[] order;
+        int[] changedIds;
+
+        Snapshot(byte[] encoded, int[] order) {
+            this.encoded = encoded;
+            this.order = order;
+        }
+
+        byte[] payload() throws IOException {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(encoded.length + 64);
+            DataOutputStream out = new DataOutputStream(bytes);
+            writeIds(out, order);
+            writeIds(out, changedIds);
+            out.write(encoded);
+            return bytes.toByteArray();
+        }
+    }
+
+    private Snapshot captureFull(ProjectState state) {
+        int[] order = assignIds(state.marks);
+        lastOrder = order;
+        rememberStateKeys(state.marks);
+        try {
+            return new Snapshot(ProjectBinaryCodec.encode(state, false), order);
+        } catch (IOException e) {
+            System.err.println("❌ Autosave could not encode project: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Changed and new marks since the last capture, or null when nothing changed.
+     * View-only changes (zoom, pan) are not journaled on their own.
+     */
+    private Snapshot captureDelta() throws IOException {
+        Supplier<ProjectState> source = stateSource;
+        if (source == null) return null;
+        ProjectState state = source.get();
+        int[] order = assignIds(state.marks);
+        List<Mark> changed = new ArrayList<>();
+        List<Integer> changedIds = new ArrayList<>();
+        IdentityHashMap<Mark, Long> current = new IdentityHashMap<>();
+        for (int i = 0; i < state.marks.size(); i++) {
+            Mark mark = state.marks.get(i);
+            long stateKey = mark.getStateKey();
+            current.put(mark, stateKey);
+            Long previous = stateKeys.get(mark);
+            if (previous == null || previous != stateKey) {
+                changed.add(mark);
+                changedIds.add(order[i]);
+            }
+        }
+        stateKeys = current;
+        if (changed.isEmpty() && Arrays.equals(order, lastOrder)) return null;
+        lastOrder = order;
+
+        state.marks = changed;
+        state.textMarks = new ArrayList<>();
+        state.selectedMarkIndex = -1;
+        state.activeMarkIndex = -1;
+        Snapshot snapshot = new Snapshot(ProjectBinaryCodec.encode(state, false), order);
+        snapshot.changedIds = new int[changedIds.size()];
+        for (int i = 0; i < changedIds.size(); i++) snapshot.changedIds[i] = changedIds.get(i);
+        return snapshot;
+    }
+
+    private int[] assignIds(List<Mark> marks) {
+        IdentityHashMap<Mark, Integer> ids = new IdentityHashMap<>();
+        int[] order = new int[marks.size()];
+        for (int i = 0; i < marks.size(); i++) {
+            Mark mark = marks.get(i);
+            Integer id = markIds.get(mark);
+            if (id == null || ids.containsKey(mark)) id = nextMarkId++;
+            ids.put(mark, id);
+            order[i] = id;
+        }
+        markIds = ids;
+        return order;
+    }
+
+    private void rememberStateKeys(List<Mark> marks) {
+        stateKeys = new IdentityHashMap<>();
+        for (Mark mark : marks) stateKeys.put(mark, mark.getStateKey());
+    }
+
+    // ==================== RECOVERY ====================
+
+    /**
+     * Apply the journal next to projectFile to a freshly loaded state. Returns the recovered
+     * state, or the loaded state unchanged when there is no usable journal.
+     */
+    public static ProjectState recover(File projectFile, ProjectState loaded) {
+        File journal = journalFile(projectFile);
+        if (loaded == null || !journal.exists()) return loaded;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(journal)))) {
+            int version = readJournalHeader(in);
+            if (version < 0) {
+                System.err.println("⚠️ Ignoring unreadable autosave journal: " + journal.getName());
+                return loaded;
+            }
+            long stamp = stampOf(projectFile);
+            Map<Integer, Mark> byId = new HashMap<>();
+            List<Mark> marks = new ArrayList<>(loaded.marks);
+            ProjectState header = null;
+            int frames = 0;
+            boolean based = false;
+            while (true) {
+                byte[] record = readRecord(in);
+                if (record == null) break;
+                DataInputStream payload = new DataInputStream(new ByteArrayInputStream(record, 1, record.length - 1));
+                if (record[0] == RECORD_BASE) {
+                    if (version >= FIRST_STAMPED_VERSION && payload.readLong() != stamp) {
+                        System.err.println("⚠️ Autosave journal belongs to an older " + projectFile.getName() + " - ignored");
+                        return loaded;
+                    }
+                    int[] ids = readIds(payload);
+                    if (ids.length != loaded.marks.size()) {
+                        System.err.println("⚠️ Autosave journal does not match " + projectFile.getName() + " - ignored");
+                        return loaded;
+                    }
+                    for (int i = 0; i < ids.length; i++) byId.put(ids[i], loaded.marks.get(i));
+                    based = true;
+                } else if (record[0] == RECORD_DELTA && based) {
+                    int[] order = readIds(payload);
+                    int[] changedIds = readIds(payload);
+                    byte[] encoded = new byte[payload.available()];
+                    payload.readFully(encoded);
+                    ProjectState partial = ProjectBinaryCodec.decode(encoded);
+                    if (partial.marks.size() != changedIds.length) {
+                        System.err.println("⚠️ Autosave frame has unreadable marks - recovery stopped");
+                        break;
+                    }
+                    for (int i = 0; i < changedIds.length; i++) byId.put(changedIds[i], partial.marks.get(i));
+                    marks = new ArrayList<>(order.length);
+                    for (int id : order) {
+                        Mark mark = byId.get(id);
+                        if (mark != null) marks.add(mark);
+                    }
+                    header = partial;
+                    frames++;
+                }
+            }
+            if (frames == 0) return loaded;
+            loaded.marks = marks;
+            loaded.textMarks = new ArrayList<>();
+            for (Mark mark : marks) {
+                if (mark instanceof TextMark) loaded.textMarks.add((TextMark) mark);
+            }
+            loaded.zoomLevel = header.zoomLevel;
+            loaded.viewOffsetX = header.viewOffsetX;
+            loaded.viewOffsetY = header.viewOffsetY;
+            loaded.gridVisible = header.gridVisible;
+            loaded.materialBoundaryVisible = header.materialBoundaryVisible;
+            loaded.dotPreviewEnabled = header.dotPreviewEnabled;
+            System.out.println("♻️ Recovered " + frames + " autosaved changes for " + projectFile.getName()
+                + " (" + marks.size() + " marks)");
+            return loaded;
+        } catch (IOException e) {
+            System.err.println("⚠️ Autosave journal recovery failed: " + e.getMessage());
+            return loaded;
+        }
+    }
+
+    /**
+     * True when recover() would change the loaded project (journal has frames after its base).
+     */
+    public static boolean hasRecoverableChanges(File projectFile) {
+        File journal = journalFile(projectFile);
+        if (!journal.exists()) return false;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(journal)))) {
+            int version = readJournalHeader(in);
+            if (version < 0) return false;
+            byte[] record;
+            boolean based = false;
+            while ((record = readRecord(in)) != null) {
+                if (record[0] == RECORD_BASE) {
+                    based = version < FIRST_STAMPED_VERSION
+                        || new DataInputStream(new ByteArrayInputStream(record, 1, record.length - 1)).readLong() == stampOf(projectFile);
+                }
+                if (record[0] == RECORD_DELTA) return based;
+            }
+        } catch (IOException e) {
+            // Unreadable journal: nothing to recover
+        }
+        return false;
+    }
+
+    /** Journal version, or -1 when the file is not a journal this version can read. */
+    private static int readJournalHeader(DataInputStream in) throws IOException {
+        byte[] magic = new byte[JOURNAL_MAGIC.length];
+        in.readFully(magic);
+        int version = in.readInt();
+        return Arrays.equals(magic, JOURNAL_MAGIC) && version <= JOURNAL_VERSION ? version : -1;
+    }
+
+    /** Type byte followed by the payload, or null at the end or at a torn/corrupt record. */
+    private static byte[] readRecord(DataInputStream in) throws IOException {
+        int length, crc;
+        try {
+            length = in.readInt();
+            crc = in.readInt();
+        } catch (EOFException e) {
+            return null;
+        }
+        if (length < 0 || length > MAX_RECORD_BYTES) return null;
+        byte[] record = new byte[length + 1];
+        try {
+            in.readFully(record);
+        } catch (EOFException e) {
+            System.out.println("⚠️ Autosave journal ends with a partial record (ignored)");
+            return null;
+        }
+        CRC32 check = new CRC32();
+        check.update(record);
+        if ((int) check.getValue() != crc) {
+            System.out.println("⚠️ Autosave journal record failed its checksum (ignored)");
+            return null;
+        }
+        return record;
+    }
+
+    /**
+     * Ids as runs of consecutive values (first id, run length): mark order rarely changes,
+     * so the whole order of a large canvas is usually a handful of runs.
+     */
+    private static void writeIds(DataOutputStream out, int[] ids) throws IOException {
+        out.writeInt(ids.length);
+        int runs = 0;
+        for (int i = 0; i < ids.length; i++) {
+            if (i == 0 || ids[i] != ids[i - 1] + 1) runs++;
+        }
+        out.writeInt(runs);
+        for (int i = 0; i < ids.length; ) {
+            int end = i + 1;
+            while (end < ids.length && ids[end] == ids[end - 1] + 1) end++;
+            out.writeInt(ids[i]);
+            out.writeInt(end - i);
+            i = end;
+        }
+    }
+
+    private static int[] readIds(DataInputStream in) throws IOException {
+        int[] ids = new int[in.readInt()];
+        int runs = in.readInt();
+        for (int r = 0, i = 0; r < runs; r++) {
+            int first = in.readInt();
+            int length = in.readInt();
+            if (length < 0 || i + length > ids.length) throw new IOException("Corrupt id run");
+            for (int k = 0; k < length; k++) ids[i++] = first + k;
+        }
+        return ids;
+    }
+
+    public static File journalFile(File projectFile) {
+        return new File(projectFile.getPath() + JOURNAL_EXTENSION);
+    }
+
+    // ==================== SAFE FILE WRITES ====================
+
+    /**
+     * Write to a temp file in the same directory, fsync it, then atomically replace target,
+     * so a crash leaves either the old or the new file, never a truncated one.
+     */
+    public static void writeAtomically(File target, byte[] data) throws IOException {
+        File directory = target.getAbsoluteFile().getParentFile();
+        File temp = File.createTempFile(target.getName() + ".", ".tmp", directory);
+        try {
+            try (FileOutputStream out = new FileOutputStream(temp)) {
+                out.write(data);
+                out.getFD().sync();
+            }
+            try {
+                Files.move(temp.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            if (temp.exists()) temp.delete();
+        }
+    }
+
+    /**
+     * Keep the current file as <name>_backup_<millis>.rugrel (a hard link where the file
+     * system allows, so no data is copied) and delete all but the newest MAX_BACKUPS.
+     */
+    public static void createBackup(File file) {
+        if (MAX_BACKUPS <= 0 || !file.exists()) return;
+        String name = file.getName();
+        String extension = name.endsWith(RugrelDropdownConfig.PROJECT_FILE_EXTENSION) ? RugrelDropdownConfig.PROJECT_FILE_EXTENSION : "";
+        String base = name.substring(0, name.length() - extension.length());
+        File directory = file.getAbsoluteFile().getParentFile();
+        File backup = new File(directory, base + BACKUP_MARKER + System.currentTimeMillis() + extension);
+        try {
+            try {
+                Files.createLink(backup.toPath(), file.toPath());
+            } catch (IOException | UnsupportedOperationException e) {
+                Files.copy(file.toPath(), backup.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            System.err.println("⚠️ Could not create backup of " + name + ": " + e.getMessage());
+            return;
+        }
+
+        File[] backups = directory.listFiles((dir, candidate) ->
+            candidate.startsWith(base + BACKUP_MARKER) && candidate.endsWith(extension)
+            && isBackupStamp(candidate.substring(base.length() + BACKUP_MARKER.length(), candidate.length() - extension.length())));
+        if (backups == null || backups.length <= MAX_BACKUPS) return;
+        Arrays.sort(backups, (a, b) -> b.getName().compareTo(a.getName()));   // Same-length stamps: newest first
+        for (int i = MAX_BACKUPS; i < backups.length; i++) {
+            if (!backups[i].delete()) {
+                System.err.println("⚠️ Could not delete old backup " + backups[i].getName());
+            }
+        }
+    }
+
+    private static boolean isBackupStamp(String stamp) {
+        if (stamp.isEmpty()) return false;
+        for (int i = 0; i < stamp.length(); i++) {
+            if (!Character.isDigit(stamp.charAt(i))) return false;
+        }
+        return true;
+    }
+}
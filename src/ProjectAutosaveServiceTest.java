@@ -0,0 +1,145 @@
+// ProjectAutosaveService Test Program - Verify journaled autosave, crash recovery and backups
+// Simulates edits on a mark list, "crashes" before compaction and recovers from the journal
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+import javax.swing.SwingUtilities;
+
+public class ProjectAutosaveServiceTest {
+    public static void main(String[] args) throws Exception {
+        System.setProperty("java.awt.headless", "true");
+        System.out.println("Testing ProjectAutosaveService...");
+
+        File directory = java.nio.file.Files.createTempDirectory("autosave").toFile();
+        File projectFile = new File(directory, "Demo.rugrel");
+        List<Mark> canvas = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            canvas.add(i % 2 == 0 ? new TextMark(i, i, "SN-" + i) : new RectangleMark(i, i));
+        }
+        Supplier<ProjectState> source = () -> {
+            ProjectState state = new ProjectState("Demo", "PRJ-1");
+            state.marks = new ArrayList<>(canvas);
+            for (Mark mark : canvas) if (mark instanceof TextMark) state.textMarks.add((TextMark) mark);
+            state.zoomLevel = 2.0;
+            return state;
+        };
+
+        // Long interval: the test drives cycles with flush()
+        ProjectAutosaveService service = new ProjectAutosaveService(3_600_000, 1000);
+        boolean[] saved = new boolean[1];
+        long[] edtMillis = new long[1];
+        SwingUtilities.invokeAndWait(() -> {
+            long start = System.currentTimeMillis();
+            service.saveNow(projectFile, source, success -> saved[0] = success);
+            edtMillis[0] = System.currentTimeMillis() - start;
+        });
+        service.flush();
+        SwingUtilities.invokeAndWait(() -> { });
+        check(saved[0] && projectFile.exists(), "saveNow wrote the project (" + edtMillis[0] + " ms on the EDT)");
+        check(ProjectBinaryCodec.load(projectFile).marks.size() == 2000, "main file holds all marks");
+
+        // Nothing changed: no journal frame
+        long journalSize = ProjectAutosaveService.journalFile(projectFile).length();
+        service.flush();
+        check(ProjectAutosaveService.journalFile(projectFile).length() == journalSize, "idle cycle writes nothing");
+
+        // Edits: move, edit text, delete, add
+        SwingUtilities.invokeAndWait(() -> {
+            canvas.get(10).x = 5000;
+            ((TextMark) canvas.get(20)).setText("EDITED");
+            canvas.remove(30);
+            canvas.add(0, new LineMark(-50, -50));
+        });
+        service.flush();
+        long frameSize = ProjectAutosaveService.journalFile(projectFile).length() - journalSize;
+        check(frameSize > 0 && frameSize < 4 * 1024, "edits journaled as a small frame (" + frameSize + " bytes)");
+        SwingUtilities.invokeAndWait(() -> canvas.get(1).y = 7777);
+        service.flush();
+
+        // "Crash": main file is stale, journal has the edits
+        check(ProjectBinaryCodec.load(projectFile).marks.get(11).x != 5000, "main file not rewritten per edit");
+        check(ProjectAutosaveService.hasRecoverableChanges(projectFile), "journal has recoverable changes");
+        ProjectState recovered = ProjectAutosaveService.recover(projectFile, ProjectBinaryCodec.load(projectFile));
+        check(matches(recovered.marks, canvas), "recovery reproduces the canvas exactly");
+        check(recovered.textMarks.size() == 999, "text marks rebuilt from recovered marks");
+
+        // Torn tail from a crash mid-append is ignored
+        try (FileOutputStream out = new FileOutputStream(ProjectAutosaveService.journalFile(projectFile), true)) {
+            out.write(new byte[] {0, 0, 1, 0, 12, 34, 56});
+        }
+        recovered = ProjectAutosaveService.recover(projectFile, ProjectBinaryCodec.load(projectFile));
+        check(matches(recovered.marks, canvas), "partial trailing record ignored");
+
+        // Crash after the main file was rewritten but before the journal restarted: the old
+        // journal must not replay its deltas over the newer file
+        SwingUtilities.invokeAndWait(() -> canvas.get(2).x = 4242);
+        ProjectBinaryCodec.save(source.get(), projectFile, true);
+        recovered = ProjectAutosaveService.recover(projectFile, ProjectBinaryCodec.load(projectFile));
+        check(!ProjectAutosaveService.hasRecoverableChanges(projectFile) && recovered.marks.get(2).x == 4242
+              && matches(recovered.marks, canvas), "journal of an older main file ignored");
+
+        // Bounded backups, atomic writes leave no temp files
+        for (int i = 0; i < 12; i++) {
+            SwingUtilities.invokeAndWait(() -> service.saveNow(projectFile, source, null));
+            service.flush();
+            Thread.sleep(2);
+        }
+        File[] backups = directory.listFiles((dir, name) -> name.contains(ProjectAutosaveService.BACKUP_MARKER));
+        File[] temps = directory.listFiles((dir, name) -> name.endsWith(".tmp"));
+        check(backups.length == ProjectAutosaveService.MAX_BACKUPS, "backups capped at " + backups.length);
+        check(temps.length == 0, "no temp files left behind");
+        check(!ProjectAutosaveService.hasRecoverableChanges(projectFile), "full save resets the journal");
+        check(matches(ProjectBinaryCodec.load(projectFile).marks, canvas), "compacted file matches canvas");
+
+        // New project: once tracking stops, the cleared canvas never reaches the old file
+        long beforeNew = ProjectAutosaveService.journalFile(projectFile).length();
+        service.stopTracking();
+        SwingUtilities.invokeAndWait(() -> {
+            canvas.clear();
+            canvas.add(new RectangleMark(1, 1));
+        });
+        service.flush();
+        check(service.getTrackedFile() == null && ProjectAutosaveService.journalFile(projectFile).length() == beforeNew
+              && ProjectBinaryCodec.load(projectFile).marks.size() == 2000, "stopped tracking leaves the old project alone");
+
+        // New project file: the empty state is written off the EDT, later edits journal into it
+        File newFile = new File(directory, "Fresh.rugrel");
+        boolean[] created = new boolean[1];
+        SwingUtilities.invokeAndWait(() -> service.saveNow(newFile, new ProjectState("Fresh", "PRJ-2"), source,
+                                                           success -> created[0] = success));
+        service.flush();
+        SwingUtilities.invokeAndWait(() -> { });
+        check(created[0] && ProjectBinaryCodec.load(newFile).marks.isEmpty(), "initial state written in the background");
+        SwingUtilities.invokeAndWait(() -> canvas.add(new LineMark(3, 3)));
+        service.flush();
+        check(matches(ProjectAutosaveService.recover(newFile, ProjectBinaryCodec.load(newFile)).marks, canvas),
+              "canvas autosaved into the new project");
+
+        for (File file : directory.listFiles()) file.delete();
+        directory.delete();
+        System.out.println("\nAll ProjectAutosaveService checks passed.");
+    }
+
+    private static boolean matches(List<Mark> a, List<Mark> b) throws IOException {
+        if (a.size() != b.size()) return false;
+        for (int i = 0; i < a.size(); i++) {
+            if (!Arrays.equals(ProjectBinaryCodec.encodeMark(a.get(i)), ProjectBinaryCodec.encodeMark(b.get(i)))) {
+                System.out.println("Mismatch at mark " + i);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError("FAILED: " + message);
+        }
+        System.out.println("✓ " + message);
+    }
+}
@@ -0,0 +1,1094 @@
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Point;
+import java.awt.geom.Point2D;
+import java.awt.image.BufferedImage;
+import java.io.*;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.*;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import javax.imageio.ImageIO;
+
+/**
+ * ProjectBinaryCodec: schema-versioned binary format for .rugrel project files.
+ *
+ * Layout:
+ *   magic "RGRL" | varint schema version | flags byte | varint header length | header
+ *   | varint payload length | payload
+ * The header (schema 2+, never compressed) holds what project lists need - name, id, modified
+ * date, mark count and a PNG thumbnail - as key/type/value entries, so readHeader() can list a
+ * project by reading a few hundred bytes instead of inflating and decoding the body.
+ * The payload (Deflate-compressed when FLAG_DEFLATE is set) is a string table, a layout
+ * table, then the project record, the marks, the text mark references, the clipboard mark,
+ * the property strip settings and the image assets the marks refer to - each stored once
+ * under its SHA-256 id (see ImageAssetStore) and only registered, not decoded, on load.
+ * Readers that predate the asset section ignore it.
+ *
+ * A layout names a class and its persisted fields once; each record then refers to its
+ * layout and stores one type-tagged value per field, or TAG_REPEAT when the value equals
+ * the previous record of the same layout (most mark properties stay at their defaults). Readers skip fields and mark types
+ * they do not know and keep constructor defaults for fields that are missing, so adding,
+ * removing or retyping a Mark field does not break old files the way Java serialization
+ * does. Undo/redo history is never stored.
+ *
+ * Files without the magic are read as legacy ObjectOutputStream files (plain or GZIP).
+ */
+public class ProjectBinaryCodec {
+
+    // Soft coding: Format identification
+    public static final byte[] MAGIC = {'R', 'G', 'R', 'L'};
+    public static final int SCHEMA_VERSION = 2;
+    private static final int FIRST_HEADER_VERSION = 2;                // Schema 1 files have no header block
+    public static final int FLAG_DEFLATE = 1;
+    private static final int DEFLATE_LEVEL = 6;                     // zlib default: best size/speed balance for project payloads
+    private static final long MAX_DEFLATE_RATIO = 1032;             // Deflate cannot expand input more than this
+
+    // Value type tags
+    private static final int TAG_NULL = 0;
+    private static final int TAG_FALSE = 1;
+    private static final int TAG_TRUE = 2;
+    private static final int TAG_INT = 3;          // zigzag varint
+    private static final int TAG_LONG = 4;         // zigzag varint
+    private static final int TAG_FLOAT = 5;
+    private static final int TAG_DOUBLE = 6;
+    private static final int TAG_STRING = 7;       // string table id
+    private static final int TAG_ENUM = 8;         // string table id of the constant name
+    private static final int TAG_COLOR = 9;        // ARGB
+    private static final int TAG_FONT = 10;        // name id, style, size
+    private static final int TAG_POINT = 11;       // zigzag x, y
+    private static final int TAG_POINT2D = 12;     // double x, y
+    private static final int TAG_BOOL_MATRIX = 13; // rows, columns, packed bits
+    private static final int TAG_IMAGE = 14;       // PNG bytes
+    private static final int TAG_DATE = 15;        // epoch millis
+    private static final int TAG_WHOLE_DOUBLE = 16; // integral double as zigzag varint
+    private static final int TAG_REPEAT = 17;      // same value as the previous record of this layout
+
+    // Header entry types and keys
+    private static final int HEADER_STRING = 0;
+    private static final int HEADER_LONG = 1;
+    private static final int HEADER_BYTES = 2;
+    private static final String KEY_NAME = "name";
+    private static final String KEY_ID = "id";
+    private static final String KEY_MODIFIED = "modified";
+    private static final String KEY_MARK_COUNT = "marks";
+    private static final String KEY_THUMBNAIL = "thumbnail";
+    private static final int HEADER_PREFIX_BYTES = 32;                // Magic, version, flags and header length fit easily
+
+    // Text marks: index into the mark list, or inline when not part of it
+    private static final int TEXT_MARK_INLINE = 0;
+
+    private ProjectBinaryCodec() {
+    }
+
+    // ==================== FILE ACCESS ====================
+
+    /**
+     * Encode and write atomically (temp file + move), so a failed save never truncates the project.
+     */
+    public static void save(ProjectState state, File file, boolean compress) throws IOException {
+        ProjectAutosaveService.writeAtomically(file, encode(state, compress, ProjectIndex.renderThumbnail(state.marks)));
+    }
+
+    /**
+     * Load a project file in either the binary format or the legacy serialized format.
+     */
+    public static ProjectState load(File file) throws IOException {
+        byte[] bytes = java.nio.file.Files.readAllBytes(file.toPath());
+        if (isBinaryProject(bytes)) {
+            return decode(bytes);
+        }
+        return decodeLegacy(bytes);
+    }
+
+    public static boolean isBinaryProject(byte[] bytes) {
+        if (bytes == null || bytes.length < MAGIC.length) return false;
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (bytes[i] != MAGIC[i]) return false;
+        }
+        return true;
+    }
+
+    private static ProjectState decodeLegacy(byte[] bytes) throws IOException {
+        InputStream in = new ByteArrayInputStream(bytes);
+        if (bytes.length > 1 && bytes[0] == (byte) 0x1F && bytes[1] == (byte) 0x8B) {
+            in = new GZIPInputStream(in);
+        }
+        try (ObjectInputStream ois = new ObjectInputStream(in)) {
+            Object obj = ois.readObject();
+            if (!(obj instanceof ProjectState)) {
+                throw new IOException("Not a project file: " + (obj == null ? "null" : obj.getClass().getName()));
+            }
+            System.out.println("📂 Loaded legacy serialized project - it will be saved in binary format next time");
+            return (ProjectState) obj;
+        } catch (ClassNotFoundException e) {
+            throw new IOException("Legacy project references missing class: " + e.getMessage(), e);
+        }
+    }
+
+    // ==================== ENCODING ====================
+
+    public static byte[] encode(ProjectState state, boolean compress) throws IOException {
+        return encode(state, compress, null);
+    }
+
+    /**
+     * Encode with a list thumbnail in the header (null for none).
+     */
+    public static byte[] encode(ProjectState state, boolean compress, BufferedImage thumbnail) throws IOException {
+        Writer writer = new Writer();
+        writer.writeRecord(state);
+
+        List<Mark> marks = state.marks != null ? state.marks : Collections.<Mark>emptyList();
+        Map<Mark, Integer> markIndex = new IdentityHashMap<>();
+        writer.body.writeVarint(marks.size());
+        for (Mark mark : marks) {
+            markIndex.putIfAbsent(mark, markIndex.size());
+            writer.writeRecord(mark);
+        }
+
+        List<TextMark> textMarks = state.textMarks != null ? state.textMarks : Collections.<TextMark>emptyList();
+        writer.body.writeVarint(textMarks.size());
+        for (TextMark textMark : textMarks) {
+            Integer index = markIndex.get(textMark);
+            if (index != null) {
+                writer.body.writeVarint(index + 1);
+            } else {
+                writer.body.writeVarint(TEXT_MARK_INLINE);
+                writer.writeRecord(textMark);
+            }
+        }
+
+        writer.body.write(state.clipboardMark != null ? 1 : 0);
+        if (state.clipboardMark != null) {
+            writer.writeRecord(state.clipboardMark);
+        }
+
+        Map<String, Object> settings = new LinkedHashMap<>();
+        if (state.propertyStripSettings != null) {
+            for (Map.Entry<String, Object> entry : state.propertyStripSettings.entrySet()) {
+                if (entry.getKey() != null && isSupportedValue(entry.getValue())) {
+                    settings.put(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+        writer.body.writeVarint(settings.size());
+        for (Map.Entry<String, Object> entry : settings.entrySet()) {
+            writer.body.writeVarint(writer.stringId(entry.getKey()));
+            writer.writeValue(entry.getValue());
+        }
+
+        Map<String, byte[]> assets = new LinkedHashMap<>();
+        for (Mark mark : marks) addAsset(assets, mark);
+        for (TextMark textMark : textMarks) addAsset(assets, textMark);
+        addAsset(assets, state.clipboardMark);
+        writer.body.writeVarint(assets.size());
+        for (Map.Entry<String, byte[]> asset : assets.entrySet()) {
+            writer.body.writeVarint(writer.stringId(asset.getKey()));
+            writer.body.writeVarint(asset.getValue().length);
+            writer.body.write(asset.getValue(), 0, asset.getValue().length);
+        }
+
+        // Payload: string table, layout table, then body
+        Buffer layouts = new Buffer(256);
+        layouts.writeVarint(writer.layouts.size());
+        for (Map.Entry<Class<?>, Integer> layout : writer.layouts.entrySet()) {
+            Field[] fields = fieldsOf(layout.getKey());
+            layouts.writeVarint(writer.stringId(layout.getKey().getName()));
+            layouts.writeVarint(fields.length);
+            for (Field field : fields) {
+                layouts.writeVarint(writer.stringId(field.getName()));
+            }
+        }
+        Buffer payload = new Buffer(writer.body.size() + layouts.size() + 64 * writer.strings.size() + 16);
+        payload.writeVarint(writer.strings.size());
+        for (String s : writer.strings.keySet()) {
+            byte[] utf8 = s.getBytes(java.nio.charset.StandardCharsets.UTF_8);
+            payload.writeVarint(utf8.length);
+            payload.write(utf8, 0, utf8.length);
+        }
+        payload.write(layouts.array(), 0, layouts.size());
+        payload.write(writer.body.array(), 0, writer.body.size());
+
+        byte[] data = payload.array();
+        int length = payload.size();
+        int flags = 0;
+        if (compress) {
+            data = deflate(data, length);
+            length = data.length;
+            flags |= FLAG_DEFLATE;
+        }
+
+        Header header = new Header();
+        header.projectName = state.projectName;
+        header.projectId = state.projectId;
+        header.modified = state.lastModified != null ? state.lastModified.getTime() : 0;
+        header.markCount = marks.size();
+        header.thumbnailPng = thumbnail != null ? toPng(thumbnail) : null;
+        return frame(SCHEMA_VERSION, flags, header.toBytes(), payload.size(), data, 0, length);
+    }
+
+    /**
+     * One mark as a minimal project with no timestamps, so equal marks encode to equal
+     * bytes. Used to copy marks (BatchRenderer) and to compare persisted fields.
+     */
+    static byte[] encodeMark(Mark mark) throws IOException {
+        ProjectState state = new ProjectState();
+        state.createdDate = null;
+        state.lastModified = null;
+        state.marks.add(mark);
+        return encode(state, false);
+    }
+
+    static Mark decodeMark(byte[] bytes) throws IOException {
+        List<Mark> marks = decode(bytes).marks;
+        if (marks.isEmpty()) throw new IOException("Mark type cannot be restored");
+        return marks.get(0);
+    }
+
+    private static void addAsset(Map<String, byte[]> assets, Mark mark) {
+        if (!(mark instanceof GraphMark)) return;
+        String id = ((GraphMark) mark).getImageAssetId();
+        byte[] bytes = ImageAssetStore.bytes(id);
+        if (bytes != null) assets.putIfAbsent(id, bytes);
+    }
+
+    private static byte[] frame(int version, int flags, byte[] header, int payloadLength,
+                                byte[] data, int offset, int length) {
+        Buffer file = new Buffer(length + header.length + 24);
+        file.write(MAGIC, 0, MAGIC.length);
+        file.writeVarint(version);
+        file.write(flags);
+        if (version >= FIRST_HEADER_VERSION) {
+            file.writeVarint(header.length);
+            file.write(header, 0, header.length);
+        }
+        file.writeVarint(payloadLength);
+        file.write(data, offset, length);
+        return Arrays.copyOf(file.array(), file.size());
+    }
+
+    /**
+     * Deflate an uncompressed encoding; lets callers capture quickly and compress on a worker thread.
+     */
+    public static byte[] compress(byte[] encoded) throws IOException {
+        Frame frame = Frame.parse(encoded);
+        if ((frame.flags & FLAG_DEFLATE) != 0) return encoded;
+        byte[] data = deflate(Arrays.copyOfRange(encoded, frame.payloadStart, frame.payloadStart + frame.payloadLength),
+                              frame.payloadLength);
+        return frame(frame.version, frame.flags | FLAG_DEFLATE, frame.header(encoded), frame.payloadLength,
+                     data, 0, data.length);
+    }
+
+    /**
+     * Replace the header thumbnail of an encoding without touching the payload; lets the
+     * autosave thread add the thumbnail after capture.
+     */
+    public static byte[] withThumbnail(byte[] encoded, BufferedImage thumbnail) throws IOException {
+        Frame frame = Frame.parse(encoded);
+        Header header = Header.parse(frame.header(encoded));
+        header.thumbnailPng = thumbnail != null ? toPng(thumbnail) : null;
+        return frame(Math.max(frame.version, FIRST_HEADER_VERSION), frame.flags, header.toBytes(), frame.payloadLength,
+                     encoded, frame.payloadStart, encoded.length - frame.payloadStart);
+    }
+
+    static byte[] toPng(BufferedImage image) throws IOException {
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", png);
+        return png.toByteArray();
+    }
+
+    // ==================== HEADER ====================
+
+    /**
+     * Read only the header block of a project file. Returns null for schema 1 and legacy
+     * serialized files, which have no header (callers fall back to a full load).
+     */
+    public static Header readHeader(File file) throws IOException {
+        try (InputStream in = new BufferedInputStream(new FileInputStream(file), HEADER_PREFIX_BYTES)) {
+            byte[] prefix = in.readNBytes(HEADER_PREFIX_BYTES);
+            if (!isBinaryProject(prefix)) return null;
+            Buffer buffer = new Buffer(prefix, MAGIC.length, prefix.length);
+            int version = (int) buffer.readVarint();
+            if (version < FIRST_HEADER_VERSION || version > SCHEMA_VERSION) return null;
+            buffer.read();
+            int headerLength = (int) buffer.readVarint();
+            if (headerLength < 0 || headerLength > file.length()) throw new IOException("Corrupt project header");
+            byte[] header = new byte[headerLength];
+            int fromPrefix = Math.min(headerLength, prefix.length - buffer.position());
+            System.arraycopy(prefix, buffer.position(), header, 0, fromPrefix);
+            if (in.readNBytes(header, fromPrefix, headerLength - fromPrefix) != headerLength - fromPrefix) {
+                throw new EOFException("Truncated project header");
+            }
+            return Header.parse(header);
+        }
+    }
+
+    /**
+     * Project list information stored ahead of the payload. Unknown keys are skipped,
+     * so later versions can add entries without breaking older readers.
+     */
+    public static class Header {
+        public String projectName;
+        public String projectId;
+        public long modified;             // Epoch millis, 0 when unknown
+        public int markCount = -1;        // -1 when unknown
+        public byte[] thumbnailPng;       // Null when the file has no thumbnail
+
+        byte[] toBytes() {
+            Buffer out = new Buffer(64 + (thumbnailPng != null ? thumbnailPng.length : 0));
+            List<Object[]> entries = new ArrayList<>();
+            if (projectName != null) entries.add(new Object[] {KEY_NAME, projectName});
+            if (projectId != null) entries.add(new Object[] {KEY_ID, projectId});
+            entries.add(new Object[] {KEY_MODIFIED, modified});
+            entries.add(new Object[] {KEY_MARK_COUNT, (long) markCount});
+            if (thumbnailPng != null) entries.add(new Object[] {KEY_THUMBNAIL, thumbnailPng});
+            out.writeVarint(entries.size());
+            for (Object[] entry : entries) {
+                writeBytes(out, ((String) entry[0]).getBytes(java.nio.charset.StandardCharsets.UTF_8));
+                if (entry[1] instanceof String) {
+                    out.write(HEADER_STRING);
+                    writeBytes(out, ((String) entry[1]).getBytes(java.nio.charset.StandardCharsets.UTF_8));
+                } else if (entry[1] instanceof Long) {
+                    out.write(HEADER_LONG);
+                    out.writeZigzag((Long) entry[1]);
+                } else {
+                    out.write(HEADER_BYTES);
+                    writeBytes(out, (byte[]) entry[1]);
+                }
+            }
+            return Arrays.copyOf(out.array(), out.size());
+        }
+
+        static Header parse(byte[] bytes) throws IOException {
+            Header header = new Header();
+            if (bytes.length == 0) return header;
+            Buffer in = new Buffer(bytes, 0, bytes.length);
+            int count = (int) in.readVarint();
+            for (int i = 0; i < count; i++) {
+                String key = new String(readBytes(in), java.nio.charset.StandardCharsets.UTF_8);
+                int type = in.read();
+                Object value;
+                if (type == HEADER_STRING) value = new String(readBytes(in), java.nio.charset.StandardCharsets.UTF_8);
+                else if (type == HEADER_LONG) value = in.readZigzag();
+                else if (type == HEADER_BYTES) value = readBytes(in);
+                else break;   // Unknown type: later entries cannot be located
+                if (KEY_NAME.equals(key) && value instanceof String) header.projectName = (String) value;
+                else if (KEY_ID.equals(key) && value instanceof String) header.projectId = (String) value;
+                else if (KEY_MODIFIED.equals(key) && value instanceof Long) header.modified = (Long) value;
+                else if (KEY_MARK_COUNT.equals(key) && value instanceof Long) header.markCount = (int) (long) (Long) value;
+                else if (KEY_THUMBNAIL.equals(key) && value instanceof byte[]) header.thumbnailPng = (byte[]) value;
+            }
+            return header;
+        }
+
+        private static void writeBytes(Buffer out, byte[] bytes) {
+            out.writeVarint(bytes.length);
+            out.write(bytes, 0, bytes.length);
+        }
+
+        private static byte[] readBytes(Buffer in) throws IOException {
+            int length = (int) in.readVarint();
+            int start = in.take(length);
+            return Arrays.copyOfRange(in.array(), start, start + length);
+        }
+    }
+
+    /** Offsets of the sections of an encoded project. */
+    private static class Frame {
+        int version;
+        int flags;
+        int headerStart;
+        int headerLength;
+        int payloadLength;
+        int payloadStart;
+
+        static Frame parse(byte[] bytes) throws IOException {
+            if (!isBinaryProject(bytes)) throw new IOException("Not a binary project file");
+            Buffer in = new Buffer(bytes, MAGIC.length, bytes.length);
+            Frame frame = new Frame();
+            frame.version = (int) in.readVarint();
+            if (frame.version > SCHEMA_VERSION) {
+                throw new IOException("Project was saved by a newer version (schema " + frame.version
+                    + ", supported " + SCHEMA_VERSION + ")");
+            }
+            frame.flags = in.read();
+            if (frame.version >= FIRST_HEADER_VERSION) {
+                frame.headerLength = (int) in.readVarint();
+                frame.headerStart = in.take(frame.headerLength);
+            }
+            long payloadLength = in.readVarint();
+            frame.payloadStart = in.position();
+            int stored = bytes.length - frame.payloadStart;
+            boolean deflated = (frame.flags & FLAG_DEFLATE) != 0;
+            if (payloadLength < 0 || payloadLength > Integer.MAX_VALUE
+                || (!deflated && payloadLength > stored)
+                || (deflated && payloadLength > stored * MAX_DEFLATE_RATIO + 64)) {
+                throw new IOException("Corrupt project payload length " + payloadLength);
+            }
+            frame.payloadLength = (int) payloadLength;
+            return frame;
+        }
+
+        byte[] header(byte[] bytes) {
+            return Arrays.copyOfRange(bytes, headerStart, headerStart + headerLength);
+        }
+    }
+
+    private static class Writer {
+        final Buffer body = new Buffer(8192);
+        final Map<String, Integer> strings = new LinkedHashMap<>();
+        final Map<Class<?>, Integer> layouts = new LinkedHashMap<>();
+        final Map<Class<?>, Object[]> previous = new HashMap<>();
+
+        int stringId(String s) {
+            Integer id = strings.get(s);
+            if (id == null) {
+                id = strings.size();
+                strings.put(s, id);
+            }
+            return id;
+        }
+
+        void writeRecord(Object obj) throws IOException {
+            Integer layout = layouts.get(obj.getClass());
+            if (layout == null) {
+                layout = layouts.size();
+                layouts.put(obj.getClass(), layout);
+            }
+            body.writeVarint(layout);
+            Field[] fields = fieldsOf(obj.getClass());
+            Object[] last = previous.get(obj.getClass());
+            Object[] current = new Object[fields.length];
+            for (int i = 0; i < fields.length; i++) {
+                try {
+                    current[i] = fields[i].get(obj);
+                } catch (IllegalAccessException e) {
+                    current[i] = null;
+                }
+                if (last != null && Objects.deepEquals(last[i], current[i])) {
+                    body.write(TAG_REPEAT);
+                } else {
+                    writeValue(current[i]);
+                }
+            }
+            previous.put(obj.getClass(), current);
+        }
+
+        void writeValue(Object value) throws IOException {
+            if (value == null) {
+                body.write(TAG_NULL);
+            } else if (value instanceof Boolean) {
+                body.write((Boolean) value ? TAG_TRUE : TAG_FALSE);
+            } else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+                body.write(TAG_INT);
+                body.writeZigzag(((Number) value).longValue());
+            } else if (value instanceof Long) {
+                body.write(TAG_LONG);
+                body.writeZigzag((Long) value);
+            } else if (value instanceof Float) {
+                body.write(TAG_FLOAT);
+                body.writeInt(Float.floatToIntBits((Float) value));
+            } else if (value instanceof Double && isWhole((Double) value)) {
+                body.write(TAG_WHOLE_DOUBLE);
+                body.writeZigzag(((Double) value).longValue());
+            } else if (value instanceof Double) {
+                body.write(TAG_DOUBLE);
+                body.writeLong(Double.doubleToLongBits((Double) value));
+            } else if (value instanceof String) {
+                body.write(TAG_STRING);
+                body.writeVarint(stringId((String) value));
+            } else if (value instanceof Enum) {
+                body.write(TAG_ENUM);
+                body.writeVarint(stringId(((Enum<?>) value).name()));
+            } else if (value instanceof Color) {
+                body.write(TAG_COLOR);
+                body.writeInt(((Color) value).getRGB());
+            } else if (value instanceof Font) {
+                Font font = (Font) value;
+                body.write(TAG_FONT);
+                body.writeVarint(stringId(font.getName()));
+                body.writeVarint(font.getStyle());
+                body.writeInt(Float.floatToIntBits(font.getSize2D()));
+            } else if (value instanceof Point) {
+                body.write(TAG_POINT);
+                body.writeZigzag(((Point) value).x);
+                body.writeZigzag(((Point) value).y);
+            } else if (value instanceof Point2D.Double) {
+                body.write(TAG_POINT2D);
+                body.writeLong(Double.doubleToLongBits(((Point2D.Double) value).x));
+                body.writeLong(Double.doubleToLongBits(((Point2D.Double) value).y));
+            } else if (value instanceof boolean[][]) {
+                boolean[][] matrix = (boolean[][]) value;
+                int columns = matrix.length > 0 && matrix[0] != null ? matrix[0].length : 0;
+                body.write(TAG_BOOL_MATRIX);
+                body.writeVarint(matrix.length);
+                body.writeVarint(columns);
+                int bits = 0, filled = 0;
+                for (boolean[] row : matrix) {
+                    for (int c = 0; c < columns; c++) {
+                        if (row != null && c < row.length && row[c]) bits |= 1 << filled;
+                        if (++filled == 8) {
+                            body.write(bits);
+                            bits = 0;
+                            filled = 0;
+                        }
+                    }
+                }
+                if (filled > 0) body.write(bits);
+            } else if (value instanceof BufferedImage) {
+                byte[] png = toPng((BufferedImage) value);
+                body.write(TAG_IMAGE);
+                body.writeVarint(png.length);
+                body.write(png, 0, png.length);
+            } else if (value instanceof Date) {
+                body.write(TAG_DATE);
+                body.writeZigzag(((Date) value).getTime());
+            } else {
+                throw new IOException("Unsupported value type: " + value.getClass().getName());
+            }
+        }
+    }
+
+    private static boolean isWhole(double value) {
+        return value == Math.rint(value) && Math.abs(value) < 1e15
+            && !(value == 0 && Double.doubleToRawLongBits(value) != 0);   // Keep -0.0 exact
+    }
+
+    private static boolean isSupportedValue(Object value) {
+        return value == null || value instanceof Boolean || value instanceof Integer || value instanceof Short
+            || value instanceof Byte || value instanceof Long || value instanceof Float || value instanceof Double
+            || value instanceof String || value instanceof Enum || value instanceof Color || value instanceof Font
+            || value instanceof Point || value instanceof Point2D.Double || value instanceof boolean[][]
+            || value instanceof BufferedImage || value instanceof Date;
+    }
+
+    private static byte[] deflate(byte[] data, int length) {
+        Deflater deflater = new Deflater(DEFLATE_LEVEL);
+        try {
+            deflater.setInput(data, 0, length);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, length / 3));
+            byte[] chunk = new byte[16384];
+            while (!deflater.finished()) {
+                int n = deflater.deflate(chunk);
+                out.write(chunk, 0, n);
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    // ==================== DECODING ====================
+
+    public static ProjectState decode(byte[] bytes) throws IOException {
+        Frame frame = Frame.parse(bytes);
+        byte[] payload;
+        if ((frame.flags & FLAG_DEFLATE) != 0) {
+            payload = inflate(bytes, frame.payloadStart, bytes.length - frame.payloadStart, frame.payloadLength);
+        } else {
+            payload = Arrays.copyOfRange(bytes, frame.payloadStart, frame.payloadStart + frame.payloadLength);
+        }
+
+        Reader reader = new Reader(new Buffer(payload, 0, payload.length));
+        ProjectState state = new ProjectState();
+        reader.readRecord(state);
+
+        int markCount = reader.in.readCount(1);
+        List<Mark> marks = new ArrayList<>(markCount);
+        List<Mark> byIndex = new ArrayList<>(markCount);
+        for (int i = 0; i < markCount; i++) {
+            Mark mark = reader.readMark();
+            byIndex.add(mark);
+            if (mark != null) marks.add(mark);
+        }
+
+        int textCount = reader.in.readCount(1);
+        List<TextMark> textMarks = new ArrayList<>(textCount);
+        for (int i = 0; i < textCount; i++) {
+            long ref = reader.in.readVarint();
+            if (ref != TEXT_MARK_INLINE && (ref < 1 || ref > byIndex.size())) {
+                throw new IOException("Bad text mark reference " + ref);
+            }
+            Mark mark = ref == TEXT_MARK_INLINE ? reader.readMark() : byIndex.get((int) ref - 1);
+            if (mark instanceof TextMark) textMarks.add((TextMark) mark);
+        }
+
+        Mark clipboard = reader.in.read() != 0 ? reader.readMark() : null;
+
+        Map<String, Object> settings = new HashMap<>();
+        int settingCount = reader.in.readCount(2);
+        for (int i = 0; i < settingCount; i++) {
+            String key = reader.string();
+            settings.put(key, reader.readValue(reader.in.read()));
+        }
+
+        // Image assets (absent in files written before the asset section)
+        if (reader.in.position() < payload.length) {
+            int assetCount = reader.in.readCount(2);
+            for (int i = 0; i < assetCount; i++) {
+                String id = reader.string();
+                int length = reader.in.readCount(1);
+                int start = reader.in.take(length);
+                ImageAssetStore.restore(id, Arrays.copyOfRange(payload, start, start + length));
+            }
+        }
+
+        // Selection indices refer to the saved list; shift them past marks that could not be read
+        state.selectedMarkIndex = remapIndex(state.selectedMarkIndex, byIndex, marks);
+        state.activeMarkIndex = remapIndex(state.activeMarkIndex, byIndex, marks);
+        state.marks = marks;
+        state.textMarks = textMarks;
+        state.clipboardMark = clipboard;
+        state.propertyStripSettings = settings;
+        state.undoStates = new ArrayList<>();
+        state.redoStates = new ArrayList<>();
+
+        if (reader.skippedMarks > 0 || reader.skippedFields > 0) {
+            System.out.println("⚠️ Project loaded with " + reader.skippedMarks + " unknown marks and "
+                + reader.skippedFields + " unknown or incompatible fields skipped");
+        }
+        return state;
+    }
+
+    private static int remapIndex(int index, List<Mark> byIndex, List<Mark> marks) {
+        if (index < 0 || index >= byIndex.size() || byIndex.get(index) == null) return -1;
+        return marks.indexOf(byIndex.get(index));
+    }
+
+    private static byte[] inflate(byte[] data, int offset, int length, int expected) throws IOException {
+        Inflater inflater = new Inflater();
+        if (expected < 0 || expected > length * MAX_DEFLATE_RATIO + 64) {
+            throw new IOException("Corrupt project payload length " + expected);
+        }
+        try {
+            inflater.setInput(data, offset, length);
+            byte[] out = new byte[expected];
+            int filled = 0;
+            while (filled < expected) {
+                int n = inflater.inflate(out, filled, expected - filled);
+                if (n == 0 && (inflater.finished() || inflater.needsInput())) break;
+                filled += n;
+            }
+            if (filled != expected) {
+                throw new IOException("Truncated project payload (" + filled + " of " + expected + " bytes)");
+            }
+            return out;
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt project payload: " + e.getMessage(), e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static class Reader {
+        final Buffer in;
+        final String[] strings;
+        final String[] layoutClasses;
+        final Field[][] layoutFields;   // Null entries for fields this version does not have
+        final Object[][] previous;      // Last decoded values per layout, for TAG_REPEAT
+        int skippedMarks = 0;
+        int skippedFields = 0;
+
+        Reader(Buffer in) throws IOException {
+            this.in = in;
+            int count = in.readCount(1);
+            strings = new String[count];
+            for (int i = 0; i < count; i++) {
+                int length = in.readCount(1);
+                strings[i] = new String(in.array(), in.take(length), length, java.nio.charset.StandardCharsets.UTF_8);
+            }
+            int layouts = in.readCount(2);
+            layoutClasses = new String[layouts];
+            layoutFields = new Field[layouts][];
+            previous = new Object[layouts][];
+            for (int i = 0; i < layouts; i++) {
+                layoutClasses[i] = string();
+                Map<String, Field> known = fieldMapOf(layoutClasses[i]);
+                layoutFields[i] = new Field[in.readCount(1)];
+                previous[i] = new Object[layoutFields[i].length];
+                for (int f = 0; f < layoutFields[i].length; f++) {
+                    layoutFields[i][f] = known.get(string());
+                    if (layoutFields[i][f] == null && !known.isEmpty()) skippedFields++;
+                }
+            }
+        }
+
+        String string() throws IOException {
+            int id = (int) in.readVarint();
+            if (id < 0 || id >= strings.length) throw new IOException("Bad string id " + id);
+            return strings[id];
+        }
+
+        int layout() throws IOException {
+            int id = (int) in.readVarint();
+            if (id < 0 || id >= layoutFields.length) throw new IOException("Bad layout id " + id);
+            return id;
+        }
+
+        /**
+         * Returns null (after consuming the record) when the mark class is unknown.
+         */
+        Mark readMark() throws IOException {
+            int layout = layout();
+            Mark mark = instantiate(layoutClasses[layout]);
+            if (mark == null) skippedMarks++;
+            readValues(mark, layout);
+            return mark;
+        }
+
+        void readRecord(Object target) throws IOException {
+            int layout = layout();
+            readValues(target.getClass().getName().equals(layoutClasses[layout]) ? target : null, layout);
+        }
+
+        private void readValues(Object target, int layout) throws IOException {
+            Field[] fields = layoutFields[layout];
+            Object[] last = previous[layout];
+            for (int i = 0; i < fields.length; i++) {
+                int tag = in.read();
+                Object value = tag == TAG_REPEAT ? copyMutable(last[i]) : readValue(tag);
+                last[i] = value;
+                if (target != null && fields[i] != null && !assign(target, fields[i], value)) {
+                    skippedFields++;
+                } else if (target instanceof GraphMark && fields[i] == null && value instanceof BufferedImage) {
+                    // Image stored inline by files written before image assets
+                    ((GraphMark) target).restoreLegacyImage((BufferedImage) value);
+                }
+            }
+        }
+
+        Object readValue(int tag) throws IOException {
+            switch (tag) {
+                case TAG_NULL: return null;
+                case TAG_FALSE: return Boolean.FALSE;
+                case TAG_TRUE: return Boolean.TRUE;
+                case TAG_INT: return (int) in.readZigzag();
+                case TAG_LONG: return in.readZigzag();
+                case TAG_FLOAT: return Float.intBitsToFloat(in.readInt());
+                case TAG_DOUBLE: return Double.longBitsToDouble(in.readLong());
+                case TAG_WHOLE_DOUBLE: return (double) in.readZigzag();
+                case TAG_STRING: return string();
+                case TAG_ENUM: return new EnumName(string());
+                case TAG_COLOR: return new Color(in.readInt(), true);
+                case TAG_FONT: {
+                    String name = string();
+                    int style = (int) in.readVarint();
+                    float size = Float.intBitsToFloat(in.readInt());
+                    return new Font(name, style, 1).deriveFont(size);
+                }
+                case TAG_POINT: return new Point((int) in.readZigzag(), (int) in.readZigzag());
+                case TAG_POINT2D: return new Point2D.Double(Double.longBitsToDouble(in.readLong()),
+                                                            Double.longBitsToDouble(in.readLong()));
+                case TAG_BOOL_MATRIX: {
+                    int rows = in.readCount(0);
+                    int columns = in.readCount(0);
+                    if ((long) rows * Math.max(1, columns) > 8L * in.remaining()) {
+                        throw new IOException("Corrupt matrix size " + rows + " x " + columns);
+                    }
+                    boolean[][] matrix = new boolean[rows][columns];
+                    int bits = 0, available = 0;
+                    for (int r = 0; r < rows; r++) {
+                        for (int c = 0; c < columns; c++) {
+                            if (available == 0) {
+                                bits = in.read();
+                                available = 8;
+                            }
+                            matrix[r][c] = (bits & 1) != 0;
+                            bits >>= 1;
+                            available--;
+                        }
+                    }
+                    return matrix;
+                }
+                case TAG_IMAGE: {
+                    int length = in.readCount(1);
+                    int start = in.take(length);
+                    return ImageIO.read(new ByteArrayInputStream(in.array(), start, length));
+                }
+                case TAG_DATE: return new Date(in.readZigzag());
+                default:
+                    // Tags are not length-prefixed, so an unknown tag cannot be skipped safely
+                    throw new IOException("Unknown value tag " + tag + " - file needs a newer version");
+            }
+        }
+    }
+
+    /** Repeated values must not share mutable objects between marks. */
+    private static Object copyMutable(Object value) {
+        if (value instanceof boolean[][]) {
+            boolean[][] matrix = ((boolean[][]) value).clone();
+            for (int r = 0; r < matrix.length; r++) matrix[r] = matrix[r].clone();
+            return matrix;
+        }
+        if (value instanceof Point) return new Point((Point) value);
+        if (value instanceof Point2D.Double) return ((Point2D.Double) value).clone();
+        return value;
+    }
+
+    /** Enum constant read by name; resolved against the field's enum type on assignment. */
+    private static class EnumName {
+        final String name;
+
+        EnumName(String name) {
+            this.name = name;
+        }
+    }
+
+    /**
+     * Store a decoded value, converting between numeric types when a field was retyped.
+     * Returns false when the value does not fit the field (the field keeps its default).
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static boolean assign(Object target, Field field, Object value) {
+        if (target == null) return false;
+        Class<?> type = field.getType();
+        try {
+            if (value == null) {
+                if (type.isPrimitive()) return false;
+                field.set(target, null);
+            } else if (value instanceof EnumName) {
+                if (!type.isEnum()) return false;
+                field.set(target, Enum.valueOf((Class<? extends Enum>) type, ((EnumName) value).name));
+            } else if (value instanceof Number && type.isPrimitive() && type != boolean.class) {
+                Number number = (Number) value;
+                if (type == int.class) field.setInt(target, number.intValue());
+                else if (type == double.class) field.setDouble(target, number.doubleValue());
+                else if (type == float.class) field.setFloat(target, number.floatValue());
+                else if (type == long.class) field.setLong(target, number.longValue());
+                else if (type == short.class) field.setShort(target, number.shortValue());
+                else if (type == byte.class) field.setByte(target, number.byteValue());
+                else return false;
+            } else if (value instanceof Boolean && type == boolean.class) {
+                field.setBoolean(target, (Boolean) value);
+            } else if (type.isInstance(value)) {
+                field.set(target, value);
+            } else {
+                return false;
+            }
+            return true;
+        } catch (IllegalAccessException | IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    // ==================== MARK TYPES ====================
+
+    private static final Map<String, Constructor<?>> CONSTRUCTOR_CACHE = new ConcurrentHashMap<>();
+
+    /**
+     * Create a mark with its constructor defaults; fields are then overwritten from the file.
+     * Uses the shortest (int x, int y, String...) constructor every mark type provides.
+     */
+    private static Mark instantiate(String className) {
+        try {
+            Constructor<?> constructor = CONSTRUCTOR_CACHE.get(className);
+            if (constructor == null) {
+                // Not initialised: a class named in the file runs no code unless it is a Mark
+                Class<?> type = Class.forName(className, false, ProjectBinaryCodec.class.getClassLoader());
+                if (!Mark.class.isAssignableFrom(type) || Modifier.isAbstract(type.getModifiers())) return null;
+                for (Constructor<?> candidate : type.getConstructors()) {
+                    if (isPositionConstructor(candidate)
+                        && (constructor == null || candidate.getParameterCount() < constructor.getParameterCount())) {
+                        constructor = candidate;
+                    }
+                }
+                if (constructor == null) return null;
+                CONSTRUCTOR_CACHE.put(className, constructor);
+            }
+            Object[] args = new Object[constructor.getParameterCount()];
+            args[0] = 0;
+            args[1] = 0;
+            for (int i = 2; i < args.length; i++) args[i] = "";
+            return (Mark) constructor.newInstance(args);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            System.err.println("⚠️ Cannot restore mark type " + className + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static boolean isPositionConstructor(Constructor<?> constructor) {
+        Class<?>[] params = constructor.getParameterTypes();
+        if (params.length < 2 || params[0] != int.class || params[1] != int.class) return false;
+        for (int i = 2; i < params.length; i++) {
+            if (params[i] != String.class) return false;
+        }
+        return true;
+    }
+
+    // ==================== FIELD LISTS ====================
+
+    private static final Map<Class<?>, Field[]> FIELD_CACHE = new ConcurrentHashMap<>();
+
+    /**
+     * Persistent fields: instance state of a storable type except transient, final and (for marks)
+     * mouse-interaction fields. Collections (marks, history, settings) are written as their own sections.
+     * When a subclass shadows a field name the most derived field wins.
+     */
+    private static Field[] fieldsOf(Class<?> type) {
+        return FIELD_CACHE.computeIfAbsent(type, t -> {
+            Map<String, Field> fields = new LinkedHashMap<>();
+            for (Class<?> c = t; c != null && c != Object.class; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    int modifiers = field.getModifiers();
+                    if (Modifier.isStatic(modifiers) || Modifier.isFinal(modifiers)
+                        || Modifier.isTransient(modifiers) || field.isSynthetic()
+                        || (Mark.class.isAssignableFrom(t) && UndoJournal.isInteractionField(field.getName()))
+                        || !isSupportedType(field.getType())
+                        || fields.containsKey(field.getName())) continue;
+                    try {
+                        field.setAccessible(true);
+                        fields.put(field.getName(), field);
+                    } catch (RuntimeException e) {
+                        // Inaccessible field: not persisted
+                    }
+                }
+            }
+            return fields.values().toArray(new Field[0]);
+        });
+    }
+
+    /** Persisted fields of a class by name; empty when the class no longer exists. */
+    private static Map<String, Field> fieldMapOf(String className) {
+        Map<String, Field> map = new HashMap<>();
+        try {
+            for (Field field : fieldsOf(Class.forName(className, false, ProjectBinaryCodec.class.getClassLoader()))) map.put(field.getName(), field);
+        } catch (ClassNotFoundException | LinkageError e) {
+            // Unknown type: records using it are skipped
+        }
+        return map;
+    }
+
+    private static boolean isSupportedType(Class<?> type) {
+        return type.isPrimitive() || type == String.class || type.isEnum() || type == Color.class
+            || type == Font.class || type == Point.class || type == Point2D.Double.class
+            || type == boolean[][].class || type == BufferedImage.class || type == Date.class;
+    }
+
+    // ==================== BYTE BUFFER ====================
+
+    /**
+     * Growable byte array with varint helpers; used for both writing and reading.
+     */
+    private static class Buffer {
+        private byte[] data;
+        private int position;
+        private int limit;
+
+        Buffer(int capacity) {
+            this.data = new byte[Math.max(16, capacity)];
+        }
+
+        Buffer(byte[] data, int offset, int limit) {
+            this.data = data;
+            this.position = offset;
+            this.limit = limit;
+        }
+
+        byte[] array() { return data; }
+        int size() { return position; }
+        int position() { return position; }
+
+        private void ensure(int extra) {
+            if (position + extra > data.length) {
+                data = Arrays.copyOf(data, Math.max(data.length * 2, position + extra));
+            }
+        }
+
+        void write(int b) {
+            ensure(1);
+            data[position++] = (byte) b;
+        }
+
+        void write(byte[] bytes, int offset, int length) {
+            ensure(length);
+            System.arraycopy(bytes, offset, data, position, length);
+            position += length;
+        }
+
+        void writeVarint(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                data[position++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            data[position++] = (byte) value;
+        }
+
+        void writeZigzag(long value) {
+            writeVarint((value << 1) ^ (value >> 63));
+        }
+
+        void writeInt(int value) {
+            ensure(4);
+            data[position++] = (byte) (value >>> 24);
+            data[position++] = (byte) (value >>> 16);
+            data[position++] = (byte) (value >>> 8);
+            data[position++] = (byte) value;
+        }
+
+        void writeLong(long value) {
+            writeInt((int) (value >>> 32));
+            writeInt((int) value);
+        }
+
+        int read() throws IOException {
+            if (position >= limit) throw new EOFException("Unexpected end of project data");
+            return data[position++] & 0xFF;
+        }
+
+        /** Reserve length bytes for the caller; returns their start offset. */
+        int take(int length) throws IOException {
+            if (length < 0 || position + length > limit) throw new EOFException("Unexpected end of project data");
+            int start = position;
+            position += length;
+            return start;
+        }
+
+        long readVarint() throws IOException {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = read();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) return value;
+            }
+            throw new IOException("Malformed varint");
+        }
+
+        /**
+         * A count or length of items that take at least bytesPerItem bytes each; a count the
+         * remaining bytes cannot hold means the data is corrupt.
+         */
+        int readCount(int bytesPerItem) throws IOException {
+            long count = readVarint();
+            if (count < 0 || count > Integer.MAX_VALUE || count * bytesPerItem > remaining()) {
+                throw new IOException("Corrupt project data: count " + count + " at offset " + position);
+            }
+            return (int) count;
+        }
+
+        int remaining() {
+            return limit - position;
+        }
+
+        long readZigzag() throws IOException {
+            long raw = readVarint();
+            return (raw >>> 1) ^ -(raw & 1);
+        }
+
+        int readInt() throws IOException {
+            return (read() << 24) | (read() << 16) | (read() << 8) | read();
+        }
+
+        long readLong() throws IOException {
+            return ((long) readInt() << 32) | (readInt() & 0xFFFFFFFFL);
+        }
+    }
+}
@@ -0,0 +1,212 @@
+// ProjectBinaryCodec Test Program - Verify round trips and benchmark against Java serialization
+// Checks field-exact restore, legacy file fallback, tolerance of unknown marks/fields and size/speed
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.GZIPOutputStream;
+
+public class ProjectBinaryCodecTest {
+    public static void main(String[] args) throws Exception {
+        System.setProperty("java.awt.headless", "true");
+        System.out.println("Testing ProjectBinaryCodec...");
+
+        ProjectState state = createProject(5000);
+
+        // Round trip restores every persisted field
+        ProjectState loaded = ProjectBinaryCodec.decode(ProjectBinaryCodec.encode(state, true));
+        check(loaded.marks.size() == state.marks.size(), "all " + state.marks.size() + " marks restored");
+        boolean identical = true;
+        for (int i = 0; i < state.marks.size(); i++) {
+            Mark a = state.marks.get(i), b = loaded.marks.get(i);
+            if (a.getClass() != b.getClass() || !Arrays.equals(ProjectBinaryCodec.encodeMark(a), ProjectBinaryCodec.encodeMark(b))) {
+                System.out.println("Mismatch at mark " + i + " (" + a.getClass().getSimpleName() + ")");
+                identical = false;
+                break;
+            }
+        }
+        check(identical, "mark fields identical after round trip");
+        check(loaded.textMarks.size() == state.textMarks.size() && loaded.textMarks.get(0) == loaded.marks.get(0),
+              "text marks restored as references into the mark list");
+        check(loaded.projectName.equals(state.projectName) && loaded.zoomLevel == state.zoomLevel
+              && loaded.selectedMarkIndex == state.selectedMarkIndex
+              && loaded.lastModified.equals(state.lastModified), "project fields restored");
+        check("Metric".equals(loaded.propertyStripSettings.get("units")), "property strip settings restored");
+
+        // Images are stored once as assets (Java serialization cannot store them at all)
+        GraphMark graph = new GraphMark(10, 10);
+        BufferedImage image = new BufferedImage(8, 8, BufferedImage.TYPE_INT_RGB);
+        image.setRGB(3, 3, Color.RED.getRGB());
+        graph.setAssignedImage(image, "dot");
+        ProjectState withImage = new ProjectState("Image", "IMG-1");
+        withImage.marks.add(graph);
+        GraphMark graphCopy = (GraphMark) ProjectBinaryCodec.decode(ProjectBinaryCodec.encode(withImage, true)).marks.get(0);
+        check(graphCopy.hasAssignedImage()
+              && graphCopy.getAssignedImage().getRGB(3, 3) == Color.RED.getRGB(),
+              "assigned image survives round trip");
+
+        // Legacy ObjectOutputStream files (plain and GZIP) still open
+        ProjectState small = createProject(50);
+        File legacy = File.createTempFile("legacy", ".rugrel");
+        File legacyGzip = File.createTempFile("legacy-gzip", ".rugrel");
+        legacy.deleteOnExit();
+        legacyGzip.deleteOnExit();
+        java.nio.file.Files.write(legacy.toPath(), javaSerialize(small, false));
+        java.nio.file.Files.write(legacyGzip.toPath(), javaSerialize(small, true));
+        check(ProjectBinaryCodec.load(legacy).marks.size() == 50, "legacy serialized file loads");
+        check(ProjectBinaryCodec.load(legacyGzip).marks.size() == 50, "legacy GZIP file loads");
+
+        // Schema evolution: unknown mark types and fields are skipped, not fatal
+        byte[] raw = ProjectBinaryCodec.encode(small, false);
+        byte[] renamedClass = replace(raw, "RectangleMark", "RectangleMarX");
+        byte[] renamedField = replace(raw, "mirror", "mirrox");
+        int rectangles = 0;
+        for (Mark mark : small.marks) if (mark instanceof RectangleMark) rectangles++;
+        check(ProjectBinaryCodec.decode(renamedClass).marks.size() == 50 - rectangles,
+              "unknown mark type skipped (" + rectangles + " dropped, others kept)");
+        check(ProjectBinaryCodec.decode(renamedField).marks.size() == 50, "unknown field skipped");
+
+        // Corrupt payload lengths are rejected with IOException, not allocated
+        check(rejects(frameWithPayloadLength(1L << 40, false)) && rejects(frameWithPayloadLength(500_000_000L, true))
+              && rejects(frameWithPayloadLength(100, false)), "implausible payload lengths rejected");
+
+        // Counts and lengths inside the payload are checked against the bytes left
+        byte[] negativeCount = {'R', 'G', 'R', 'L', 2, 0, 0, 5, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x0F};
+        byte[] hugeCount = negativeCount.clone();
+        hugeCount[12] = 0x07;
+        check(rejects(negativeCount) && rejects(hugeCount), "string table counts beyond the payload rejected");
+        Random random = new Random(11);
+        int fuzzed = 0;
+        for (int i = 0; i < 2000; i++) {
+            byte[] damaged = raw.clone();
+            int at = 8 + random.nextInt(damaged.length - 8);
+            damaged[at] = (byte) random.nextInt(256);
+            try {
+                ProjectBinaryCodec.decode(Arrays.copyOf(damaged, random.nextBoolean() ? damaged.length : at + 1));
+            } catch (IOException e) {
+                fuzzed++;
+            }
+        }
+        check(true, "2000 damaged files decoded or rejected with IOException (" + fuzzed + " rejected)");
+
+        // Benchmark against Java serialization (+GZIP, as the project save used)
+        int rounds = 10;
+        byte[] legacyBytes = null, codecBytes = null;
+        for (int i = 0; i < 3; i++) {   // Warm up
+            javaDeserialize(javaSerialize(state, true));
+            ProjectBinaryCodec.decode(ProjectBinaryCodec.encode(state, true));
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) legacyBytes = javaSerialize(state, true);
+        long legacySave = (System.nanoTime() - start) / rounds / 1000;
+        start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) javaDeserialize(legacyBytes);
+        long legacyLoad = (System.nanoTime() - start) / rounds / 1000;
+        start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) codecBytes = ProjectBinaryCodec.encode(state, true);
+        long codecSave = (System.nanoTime() - start) / rounds / 1000;
+        start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) ProjectBinaryCodec.decode(codecBytes);
+        long codecLoad = (System.nanoTime() - start) / rounds / 1000;
+        System.out.println(state.marks.size() + " marks:");
+        System.out.println("  Java serialization + GZIP: " + legacyBytes.length + " bytes, save " + legacySave + " us, load " + legacyLoad + " us");
+        System.out.println("  Binary codec + Deflate:    " + codecBytes.length + " bytes, save " + codecSave + " us, load " + codecLoad + " us");
+        check(codecBytes.length < legacyBytes.length, "binary file smaller than serialized file");
+
+        System.out.println("\nAll ProjectBinaryCodec checks passed.");
+    }
+
+    /** Magic, schema 2, no header, the given payload length and 10 payload bytes. */
+    private static byte[] frameWithPayloadLength(long length, boolean deflated) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(ProjectBinaryCodec.MAGIC, 0, ProjectBinaryCodec.MAGIC.length);
+        out.write(2);
+        out.write(deflated ? ProjectBinaryCodec.FLAG_DEFLATE : 0);
+        out.write(0);
+        while ((length & ~0x7FL) != 0) {
+            out.write((int) ((length & 0x7F) | 0x80));
+            length >>>= 7;
+        }
+        out.write((int) length);
+        out.write(new byte[10], 0, 10);
+        return out.toByteArray();
+    }
+
+    private static boolean rejects(byte[] bytes) {
+        try {
+            ProjectBinaryCodec.decode(bytes);
+            return false;
+        } catch (IOException e) {
+            return true;
+        }
+    }
+
+    private static ProjectState createProject(int count) {
+        Random random = new Random(5);
+        ProjectState state = new ProjectState("Benchmark", "PRJ-42");
+        state.description = "Codec benchmark";
+        state.zoomLevel = 1.5;
+        state.viewOffsetX = -120;
+        state.selectedMarkIndex = 3;
+        state.propertyStripSettings.put("units", "Metric");
+        for (int i = 0; i < count; i++) {
+            int x = random.nextInt(2000), y = random.nextInt(1500);
+            Mark mark;
+            switch (i % 8) {
+                case 0: mark = new TextMark(x, y, "SN-" + i); break;
+                case 1: mark = new RectangleMark(x, y); break;
+                case 2: mark = new DotMatrixMark(x, y, "LOT" + i); break;
+                case 3: mark = new BarcodeMark(x, y, "Code 128", "ABC" + i); break;
+                case 4: mark = new BowTextMark(x, y, "BOW" + i); break;
+                case 5: mark = new ArcLettersMark(x, y, "ARC"); break;
+                case 6: mark = new RulerMark(x, y); break;
+                default: mark = new LineMark(x, y); break;
+            }
+            mark.width += random.nextInt(50);
+            mark.angle = random.nextInt(4) * 90;
+            mark.mirror = random.nextBoolean();
+            state.marks.add(mark);
+            if (mark instanceof TextMark) state.textMarks.add((TextMark) mark);
+        }
+        return state;
+    }
+
+    private static byte[] javaSerialize(ProjectState state, boolean gzip) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        OutputStream out = gzip ? new GZIPOutputStream(bytes) : bytes;
+        try (ObjectOutputStream oos = new ObjectOutputStream(out)) {
+            oos.writeObject(state);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static ProjectState javaDeserialize(byte[] bytes) throws Exception {
+        try (ObjectInputStream ois = new ObjectInputStream(
+                new java.util.zip.GZIPInputStream(new ByteArrayInputStream(bytes)))) {
+            return (ProjectState) ois.readObject();
+        }
+    }
+
+    private static byte[] replace(byte[] data, String from, String to) {
+        byte[] a = from.getBytes(StandardCharsets.UTF_8), b = to.getBytes(StandardCharsets.UTF_8);
+        byte[] copy = data.clone();
+        outer:
+        for (int i = 0; i + a.length <= copy.length; i++) {
+            for (int j = 0; j < a.length; j++) if (copy[i + j] != a[j]) continue outer;
+            System.arraycopy(b, 0, copy, i, b.length);
+        }
+        return copy;
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError("FAILED: " + message);
+        }
+        System.out.println("✓ " + message);
+    }
+}
@@ -0,0 +1,294 @@
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.*;
+import java.util.*;
+import java.util.List;
+import javax.imageio.ImageIO;
+
+/**
+ * ProjectIndex: cached listing of the .rugrel projects in a directory.
+ *
+ * Open and Recent dialogs need names, dates, mark counts and thumbnails, not project bodies.
+ * Each entry is read from the file's header block (ProjectBinaryCodec.readHeader) and kept
+ * until the file's size or modification time changes; the index itself is persisted as
+ * INDEX_FILE_NAME in the directory, so listing hundreds of projects costs one directory scan
+ * and a stat per file. Files without a header (schema 1, legacy serialized) are loaded in
+ * full once and then served from the cache like the rest.
+ */
+public class ProjectIndex {
+
+    // Soft coding: Index file and thumbnail size
+    public static final String INDEX_FILE_NAME = ".rugrel-index";
+    public static final int THUMBNAIL_WIDTH = 160;
+    public static final int THUMBNAIL_HEIGHT = 120;
+    private static final Color THUMBNAIL_BACKGROUND = Color.WHITE;
+    private static final int THUMBNAIL_MARGIN = 4;
+
+    private static final int INDEX_MAGIC = 0x52474958;   // "RGIX"
+    private static final int INDEX_VERSION = 1;
+
+    private static final Map<File, ProjectIndex> INSTANCES = new HashMap<>();
+
+    private final File directory;
+    private final Map<String, Entry> entries = new HashMap<>();
+    private boolean loaded = false;
+
+    /**
+     * Shared index for a directory (one per canonical path).
+     */
+    public static synchronized ProjectIndex forDirectory(File directory) {
+        File key = directory.getAbsoluteFile();
+        try {
+            key = directory.getCanonicalFile();
+        } catch (IOException e) {
+            // Absolute path is good enough as a key
+        }
+        return INSTANCES.computeIfAbsent(key, ProjectIndex::new);
+    }
+
+    ProjectIndex(File directory) {
+        this.directory = directory;
+    }
+
+    public File getDirectory() {
+        return directory;
+    }
+
+    // ==================== LISTING ====================
+
+    /**
+     * All projects in the directory, most recently modified first. Only files added or
+     * changed since the last call are read.
+     */
+    public synchronized List<Entry> list() {
+        refresh();
+        List<Entry> result = new ArrayList<>(entries.values());
+        result.sort((a, b) -> Long.compare(b.modified, a.modified));
+        return result;
+    }
+
+    /**
+     * Entry for one project file, or null when it does not exist.
+     */
+    public synchronized Entry get(File file) {
+        if (!file.isFile()) return null;
+        if (!loaded) loadIndex();
+        Entry entry = entries.get(file.getName());
+        if (entry == null || !entry.matches(file)) {
+            entry = readEntry(file);
+            entries.put(file.getName(), entry);
+            saveIndex();
+        }
+        return entry;
+    }
+
+    /**
+     * Bring the index up to date with the directory; returns the number of files read.
+     */
+    public synchronized int refresh() {
+        if (!loaded) loadIndex();
+        File[] files = directory.listFiles((dir, name) -> isProjectFileName(name));
+        if (files == null) files = new File[0];
+
+        int read = 0;
+        Set<String> present = new HashSet<>();
+        for (File file : files) {
+            present.add(file.getName());
+            Entry entry = entries.get(file.getName());
+            if (entry == null || !entry.matches(file)) {
+                entries.put(file.getName(), readEntry(file));
+                read++;
+            }
+        }
+        boolean removed = entries.keySet().retainAll(present);
+        if (read > 0 || removed) saveIndex();
+        return read;
+    }
+
+    /** Project files only: backups and autosave journals are not listed. */
+    static boolean isProjectFileName(String name) {
+        return name.endsWith(RugrelDropdownConfig.PROJECT_FILE_EXTENSION)
+            && !name.contains(ProjectAutosaveService.BACKUP_MARKER);
+    }
+
+    private Entry readEntry(File file) {
+        Entry entry = new Entry(file);
+        try {
+            ProjectBinaryCodec.Header header = ProjectBinaryCodec.readHeader(file);
+            if (header != null) {
+                entry.projectName = header.projectName;
+                entry.projectId = header.projectId;
+                entry.modified = header.modified;
+                entry.markCount = header.markCount;
+                entry.thumbnailPng = header.thumbnailPng;
+            } else {
+                // No header block: read the whole project once, the result is cached
+                ProjectState state = ProjectBinaryCodec.load(file);
+                entry.projectName = state.projectName;
+                entry.projectId = state.projectId;
+                entry.modified = state.lastModified != null ? state.lastModified.getTime() : 0;
+                entry.markCount = state.marks != null ? state.marks.size() : 0;
+                BufferedImage thumbnail = renderThumbnail(state.marks);
+                if (thumbnail != null) entry.thumbnailPng = ProjectBinaryCodec.toPng(thumbnail);
+            }
+        } catch (IOException | RuntimeException e) {
+            System.err.println("⚠️ Cannot index project " + file.getName() + ": " + e.getMessage());
+        }
+        if (entry.projectName == null || entry.projectName.isEmpty()) entry.projectName = entry.getBaseName();
+        if (entry.modified == 0) entry.modified = file.lastModified();
+        return entry;
+    }
+
+    // ==================== PERSISTENCE ====================
+
+    private void loadIndex() {
+        loaded = true;
+        File indexFile = new File(directory, INDEX_FILE_NAME);
+        if (!indexFile.isFile()) return;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile)))) {
+            if (in.readInt() != INDEX_MAGIC || in.readInt() != INDEX_VERSION) return;
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                Entry entry = new Entry(new File(directory, in.readUTF()));
+                entry.fileLength = in.readLong();
+                entry.fileModified = in.readLong();
+                entry.projectName = in.readUTF();
+                entry.projectId = in.readBoolean() ? in.readUTF() : null;
+                entry.modified = in.readLong();
+                entry.markCount = in.readInt();
+                int thumbnailLength = in.readInt();
+                if (thumbnailLength > 0) {
+                    entry.thumbnailPng = new byte[thumbnailLength];
+                    in.readFully(entry.thumbnailPng);
+                }
+                entries.put(entry.file.getName(), entry);
+            }
+        } catch (IOException e) {
+            // Stale or damaged index: rebuilt from the project headers
+            entries.clear();
+        }
+    }
+
+    private void saveIndex() {
+        if (!directory.isDirectory()) return;
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (DataOutputStream out = new DataOutputStream(bytes)) {
+                out.writeInt(INDEX_MAGIC);
+                out.writeInt(INDEX_VERSION);
+                out.writeInt(entries.size());
+                for (Entry entry : entries.values()) {
+                    out.writeUTF(entry.file.getName());
+                    out.writeLong(entry.fileLength);
+                    out.writeLong(entry.fileModified);
+                    out.writeUTF(entry.projectName);
+                    out.writeBoolean(entry.projectId != null);
+                    if (entry.projectId != null) out.writeUTF(entry.projectId);
+                    out.writeLong(entry.modified);
+                    out.writeInt(entry.markCount);
+                    out.writeInt(entry.thumbnailPng != null ? entry.thumbnailPng.length : 0);
+                    if (entry.thumbnailPng != null) out.write(entry.thumbnailPng);
+                }
+            }
+            ProjectAutosaveService.writeAtomically(new File(directory, INDEX_FILE_NAME), bytes.toByteArray());
+        } catch (IOException e) {
+            System.err.println("⚠️ Could not write project index: " + e.getMessage());
+        }
+    }
+
+    // ==================== THUMBNAILS ====================
+
+    /**
+     * Draw the marks scaled to fit THUMBNAIL_WIDTH x THUMBNAIL_HEIGHT; null when there is
+     * nothing to draw. Call on the thread that owns the marks (EDT, or a decoded copy).
+     */
+    public static BufferedImage renderThumbnail(List<Mark> marks) {
+        if (marks == null || marks.isEmpty()) return null;
+        Rectangle bounds = null;
+        for (Mark mark : marks) {
+            Rectangle r = new Rectangle(mark.x, mark.y, Math.max(1, mark.width), Math.max(1, mark.height));
+            bounds = bounds == null ? r : bounds.union(r);
+        }
+        BufferedImage image = new BufferedImage(THUMBNAIL_WIDTH, THUMBNAIL_HEIGHT, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        try {
+            g.setColor(THUMBNAIL_BACKGROUND);
+            g.fillRect(0, 0, THUMBNAIL_WIDTH, THUMBNAIL_HEIGHT);
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            double scale = Math.min((THUMBNAIL_WIDTH - 2.0 * THUMBNAIL_MARGIN) / bounds.width,
+                                    (THUMBNAIL_HEIGHT - 2.0 * THUMBNAIL_MARGIN) / bounds.height);
+            scale = Math.min(scale, 1.0);
+            g.translate((THUMBNAIL_WIDTH - bounds.width * scale) / 2, (THUMBNAIL_HEIGHT - bounds.height * scale) / 2);
+            g.scale(scale, scale);
+            g.translate(-bounds.x, -bounds.y);
+            for (Mark mark : marks) {
+                Graphics2D markGraphics = (Graphics2D) g.create();
+                try {
+                    mark.draw(markGraphics, false);
+                } catch (RuntimeException e) {
+                    // A mark that cannot draw off-canvas is left out of the thumbnail
+                } finally {
+                    markGraphics.dispose();
+                }
+            }
+        } finally {
+            g.dispose();
+        }
+        return image;
+    }
+
+    // ==================== ENTRY ====================
+
+    /**
+     * One indexed project: list information plus the file stamp it was read from.
+     */
+    public static class Entry {
+        public final File file;
+        public long fileLength;
+        public long fileModified;
+        public String projectName;
+        public String projectId;
+        public long modified;
+        public int markCount = -1;
+        byte[] thumbnailPng;
+        private transient BufferedImage thumbnail;
+
+        Entry(File file) {
+            this.file = file;
+            this.fileLength = file.length();
+            this.fileModified = file.lastModified();
+        }
+
+        boolean matches(File current) {
+            return current.length() == fileLength && current.lastModified() == fileModified;
+        }
+
+        /** File name without the project extension (what the load paths expect). */
+        public String getBaseName() {
+            String name = file.getName();
+            return name.endsWith(RugrelDropdownConfig.PROJECT_FILE_EXTENSION)
+                ? name.substring(0, name.length() - RugrelDropdownConfig.PROJECT_FILE_EXTENSION.length())
+                : name;
+        }
+
+        public Date getModifiedDate() {
+            return new Date(modified);
+        }
+
+        public synchronized BufferedImage getThumbnail() {
+            if (thumbnail == null && thumbnailPng != null) {
+                try {
+                    thumbnail = ImageIO.read(new ByteArrayInputStream(thumbnailPng));
+                } catch (IOException e) {
+                    thumbnailPng = null;
+                }
+            }
+            return thumbnail;
+        }
+
+        @Override
+        public String toString() {
+            return projectName + (markCount >= 0 ? " (" + markCount + " marks)" : "");
+        }
+    }
+}
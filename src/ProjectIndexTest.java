@@ -0,0 +1,102 @@
+// ProjectIndex Test Program - Verify header-only project listing and the persisted directory index
+// Lists a directory of projects without decoding bodies and re-reads only files that changed
+
+import java.io.*;
+import java.util.List;
+
+public class ProjectIndexTest {
+    public static void main(String[] args) throws Exception {
+        System.setProperty("java.awt.headless", "true");
+        System.out.println("Testing ProjectIndex...");
+
+        File directory = java.nio.file.Files.createTempDirectory("project-index").toFile();
+        int projects = 300;
+        for (int i = 0; i < projects; i++) {
+            ProjectState state = createProject("Project " + i, 200 + i);
+            state.lastModified = new java.util.Date(1_700_000_000_000L + i * 60_000L);
+            ProjectBinaryCodec.save(state, new File(directory, "project" + i + ".rugrel"), true);
+        }
+
+        // Header block: list information without inflating the payload
+        File first = new File(directory, "project7.rugrel");
+        ProjectBinaryCodec.Header header = ProjectBinaryCodec.readHeader(first);
+        check(header != null && "Project 7".equals(header.projectName) && "ID-207".equals(header.projectId)
+              && header.markCount == 207, "header holds name, id and mark count");
+        check(header.thumbnailPng != null && header.thumbnailPng.length > 0, "header holds a thumbnail ("
+              + header.thumbnailPng.length + " bytes)");
+        check(ProjectBinaryCodec.load(first).marks.size() == 207, "body still decodes after the header");
+
+        // Compression and thumbnail replacement keep header and payload intact
+        ProjectState small = createProject("Small", 20);
+        byte[] raw = ProjectBinaryCodec.encode(small, false);
+        byte[] withThumbnail = ProjectBinaryCodec.compress(
+            ProjectBinaryCodec.withThumbnail(raw, ProjectIndex.renderThumbnail(small.marks)));
+        check(ProjectBinaryCodec.decode(withThumbnail).marks.size() == 20, "thumbnail splice + compress decodes");
+
+        // Legacy serialized files have no header: loaded once, then served from the index
+        try (ObjectOutputStream out = new ObjectOutputStream(new FileOutputStream(new File(directory, "legacy.rugrel")))) {
+            ProjectState old = createProject("Legacy", 12);
+            old.lastModified = new java.util.Date(1_600_000_000_000L);
+            out.writeObject(old);
+        }
+        check(ProjectBinaryCodec.readHeader(new File(directory, "legacy.rugrel")) == null, "legacy file has no header");
+        new File(directory, "project1" + ProjectAutosaveService.BACKUP_MARKER + "123.rugrel").createNewFile();
+
+        // Cold listing reads headers only
+        long start = System.nanoTime();
+        List<ProjectIndex.Entry> entries = new ProjectIndex(directory).list();
+        long coldMicros = (System.nanoTime() - start) / 1000;
+        check(entries.size() == projects + 1, "all projects listed, backups skipped (" + entries.size() + ")");
+        check("Project 299".equals(entries.get(0).projectName), "sorted by modified date, newest first");
+        ProjectIndex.Entry legacy = null;
+        for (ProjectIndex.Entry entry : entries) if ("Legacy".equals(entry.projectName)) legacy = entry;
+        check(legacy != null && legacy.markCount == 12 && legacy.getThumbnail() != null, "legacy project indexed with thumbnail");
+
+        start = System.nanoTime();
+        for (int i = 0; i < projects; i++) ProjectBinaryCodec.load(new File(directory, "project" + i + ".rugrel"));
+        long fullMicros = (System.nanoTime() - start) / 1000;
+
+        // Warm listing from the persisted index: no project file is opened
+        ProjectIndex reopened = new ProjectIndex(directory);
+        start = System.nanoTime();
+        int read = reopened.refresh();
+        long warmMicros = (System.nanoTime() - start) / 1000;
+        check(read == 0, "persisted index reused, no project files read");
+        check(reopened.list().get(0).getThumbnail() != null, "thumbnail served from the index");
+        System.out.println("  " + (projects + 1) + " projects: full load " + fullMicros + " us, cold index "
+            + coldMicros + " us, warm index " + warmMicros + " us");
+        check(warmMicros < fullMicros && coldMicros < fullMicros, "index listing faster than loading projects");
+
+        // Only changed files are re-read; deleted files drop out
+        ProjectState changed = createProject("Renamed", 3);
+        changed.lastModified = new java.util.Date(1_800_000_000_000L);
+        ProjectBinaryCodec.save(changed, new File(directory, "project5.rugrel"), true);
+        new File(directory, "project6.rugrel").delete();
+        check(reopened.refresh() == 1, "only the changed file is re-read");
+        entries = reopened.list();
+        check(entries.size() == projects && "Renamed".equals(entries.get(0).projectName)
+              && entries.get(0).markCount == 3, "changed project updated, deleted project removed");
+
+        for (File file : directory.listFiles()) file.delete();
+        directory.delete();
+        System.out.println("\nAll ProjectIndex checks passed.");
+    }
+
+    private static ProjectState createProject(String name, int marks) {
+        ProjectState state = new ProjectState(name, "ID-" + marks);
+        for (int i = 0; i < marks; i++) {
+            Mark mark = i % 3 == 0 ? new TextMark(i * 7 % 700, i * 13 % 500, "T" + i)
+                      : i % 3 == 1 ? new RectangleMark(i * 11 % 700, i * 5 % 500) : new LineMark(i % 600, i % 400);
+            state.marks.add(mark);
+            if (mark instanceof TextMark) state.textMarks.add((TextMark) mark);
+        }
+        return state;
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError("FAILED: " + message);
+        }
+        System.out.println("✓ " + message);
+    }
+}
@@ -142,6 +142,9 @@ public class ProjectStateManager {
                 System.out.println("✅ Applied " + state.marks.size() + " marks to canvas");
             }
             
+            // Release image assets left over from the previous project
+            canvas.pruneImageAssets();
+            
             // Apply text marks collection
             if (ENABLE_TEXT_MARKS_SERIALIZATION && state.textMarks != null) {
                 setCanvasTextMarks(canvas, state.textMarks);
@@ -477,14 +480,9 @@ public class ProjectStateManager {
     }
     
     private static void createBackup(String originalFilePath) {
-        try {
-            File original = new File(originalFilePath);
-            File backup = new File(originalFilePath + ".backup");
-            java.nio.file.Files.copy(original.toPath(), backup.toPath(), java.nio.file.StandardCopyOption.REPLACE_EXISTING);
-            System.out.println("✅ Created backup: " + backup.getName());
-        } catch (Exception e) {
-            System.err.println("⚠️ Could not create backup: " + e.getMessage());
-        }
+        // Hard link instead of a full copy; old backups beyond the retention limit are pruned
+        ProjectAutosaveService.createBackup(new File(originalFilePath));
+        System.out.println("✅ Created backup of: " + new File(originalFilePath).getName());
     }
     
     // ==================== SERIALIZATION FORMAT METHODS ====================
@@ -561,8 +559,8 @@ public class ProjectStateManager {
     }
     
     private static boolean saveAsBinary(ProjectState state, String filePath) {
-        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(filePath))) {
-            oos.writeObject(state);
+        try {
+            ProjectBinaryCodec.save(state, new File(filePath), ENABLE_PROJECT_COMPRESSION);
             System.out.println("✅ Project saved as binary: " + filePath);
             return true;
         } catch (Exception e) {
@@ -572,8 +570,9 @@ public class ProjectStateManager {
     }
     
     private static ProjectState loadFromBinary(String filePath) {
-        try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(filePath))) {
-            ProjectState state = (ProjectState) ois.readObject();
+        try {
+            // Reads the tagged binary format and falls back to legacy serialized files
+            ProjectState state = ProjectBinaryCodec.load(new File(filePath));
             System.out.println("✅ Project loaded from binary: " + filePath);
             return state;
         } catch (Exception e) {
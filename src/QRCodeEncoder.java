@@ -0,0 +1,963 @@
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * QRCodeEncoder: QR Code model 2 (versions 1-40) and Micro QR (M1-M4) symbols per ISO/IEC 18004.
+ *
+ * Data is split into numeric, alphanumeric and byte segments by a shortest-bit-stream search
+ * over the character modes, placed in the smallest version that holds it at the requested
+ * error correction level, padded, protected with interleaved Reed-Solomon blocks over GF(256)
+ * and laid out with finder, timing, alignment, format and version patterns. All masks are
+ * scored (8 for QR, 4 for Micro QR); the QR penalty rules run on rows and columns packed into
+ * 64-bit words, so a 177x177 symbol costs a few thousand word operations per mask.
+ *
+ * The result is an immutable Symbol holding a packed long[] module bitmap. Symbols are kept
+ * in an LRU cache keyed by data, level and symbol family, so repeated marking of the same
+ * part number or serial run never re-encodes on the paint path.
+ *
+ * Kanji mode and ECI are not used: characters above 255 are encoded as UTF-8 bytes, which
+ * most readers detect and display correctly.
+ */
+public final class QRCodeEncoder {
+
+    // Soft coding: Cache size and quiet zones (in modules)
+    public static final int CACHE_SIZE = 512;                 // Distinct (data, level, family) symbols kept
+    public static final int QUIET_ZONE = 4;
+    public static final int MICRO_QUIET_ZONE = 2;
+
+    // Error correction levels (index order) and their format information bits
+    public static final char[] LEVELS = {'L', 'M', 'Q', 'H'};
+    private static final int[] LEVEL_FORMAT_BITS = {1, 0, 3, 2};
+
+    // Error correction codewords per block and number of blocks, by level and version (ISO/IEC 18004 Table 9)
+    private static final int[][] ECC_CODEWORDS_PER_BLOCK = {
+        {-1, 7, 10, 15, 20, 26, 18, 20, 24, 30, 18, 20, 24, 26, 30, 22, 24, 28, 30, 28, 28, 28, 28, 30, 30, 26, 28, 30, 30, 30, 30, 30, 30, 30, 30, 30, 30, 30, 30, 30, 30},
+        {-1, 10, 16, 26, 18, 24, 16, 18, 22, 22, 26, 30, 22, 22, 24, 24, 28, 28, 26, 26, 26, 26, 28, 28, 28, 28, 28, 28, 28, 28, 28, 28, 28, 28, 28, 28, 28, 28, 28, 28, 28},
+        {-1, 13, 22, 18, 26, 18, 24, 18, 22, 20, 24, 28, 26, 24, 20, 30, 24, 28, 28, 26, 30, 28, 30, 30, 30, 30, 28, 30, 30, 30, 30, 30, 30, 30, 30, 30, 30, 30, 30, 30, 30},
+        {-1, 17, 28, 22, 16, 22, 28, 26, 26, 24, 28, 24, 28, 22, 24, 24, 30, 28, 28, 26, 28, 30, 24, 30, 30, 30, 30, 30, 30, 30, 30, 30, 30, 30, 30, 30, 30, 30, 30, 30, 30}
+    };
+    private static final int[][] ERROR_CORRECTION_BLOCKS = {
+        {-1, 1, 1, 1, 1, 1, 2, 2, 2, 2, 4, 4, 4, 4, 4, 6, 6, 6, 6, 7, 8, 8, 9, 9, 10, 12, 12, 12, 13, 14, 15, 16, 17, 18, 19, 19, 20, 21, 22, 24, 25},
+        {-1, 1, 1, 1, 2, 2, 4, 4, 4, 5, 5, 5, 8, 9, 9, 10, 10, 11, 13, 14, 16, 17, 17, 18, 20, 21, 23, 25, 26, 28, 29, 31, 33, 35, 37, 38, 40, 43, 45, 47, 49},
+        {-1, 1, 1, 2, 2, 4, 4, 6, 6, 8, 8, 8, 10, 12, 16, 12, 17, 16, 18, 21, 20, 23, 23, 25, 27, 29, 34, 34, 35, 38, 40, 43, 45, 48, 51, 53, 56, 59, 62, 65, 68},
+        {-1, 1, 1, 2, 4, 4, 4, 5, 6, 8, 8, 11, 11, 16, 16, 18, 16, 19, 21, 25, 25, 25, 34, 30, 32, 35, 37, 40, 42, 45, 48, 51, 54, 57, 60, 63, 66, 70, 74, 77, 81}
+    };
+
+    // Micro QR M1-M4 (ISO/IEC 18004 Table 9): total codewords, data codewords by level (0 = level not available)
+    private static final int[] MICRO_TOTAL_CODEWORDS = {0, 5, 10, 17, 24};
+    private static final int[][] MICRO_DATA_CODEWORDS = {
+        {0, 3, 5, 11, 16},    // L (M1 is error detection only)
+        {0, 0, 4, 9, 14},     // M
+        {0, 0, 0, 0, 10},     // Q
+        {0, 0, 0, 0, 0}       // H
+    };
+    private static final int[][] MICRO_SYMBOL_NUMBERS = {
+        {-1, 0, 1, 3, 5},
+        {-1, -1, 2, 4, 6},
+        {-1, -1, -1, -1, 7},
+        {-1, -1, -1, -1, -1}
+    };
+    private static final int[] MICRO_MASKS = {1, 4, 6, 7};    // Micro mask pattern reference -> QR mask
+
+    // Modes
+    private static final int NUMERIC = 0, ALPHANUMERIC = 1, BYTE = 2;
+    private static final int[] MODE_INDICATORS = {1, 2, 4};
+    private static final int[][] CHARACTER_COUNT_BITS = {{10, 12, 14}, {9, 11, 13}, {8, 16, 16}};   // By version range 1-9, 10-26, 27-40
+    private static final int[][] MICRO_CHARACTER_COUNT_BITS = {{0, 3, 4, 5, 6}, {0, 0, 3, 4, 5}, {0, 0, 0, 4, 5}};
+    private static final String ALPHANUMERIC_CHARSET = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ $%*+-./:";
+    private static final int PAD_1 = 0xEC, PAD_2 = 0x11;
+
+    // Penalty weights (ISO/IEC 18004 Table 11)
+    private static final int PENALTY_N1 = 3, PENALTY_N2 = 3, PENALTY_N3 = 40, PENALTY_N4 = 10;
+
+    // BCH generators and masks for format and version information
+    private static final int FORMAT_GENERATOR = 0x537;
+    private static final int FORMAT_MASK = 0x5412;
+    private static final int MICRO_FORMAT_MASK = 0x4445;
+    private static final int VERSION_GENERATOR = 0x1F25;
+
+    // GF(256) with the QR field polynomial x^8 + x^4 + x^3 + x^2 + 1
+    private static final int FIELD_POLYNOMIAL = 0x11D;
+    private static final int[] EXP = new int[512];
+    private static final int[] LOG = new int[256];
+    private static final int[][] GENERATORS = new int[31][];   // By error codewords per block (max 30)
+
+    static {
+        int value = 1;
+        for (int i = 0; i < 255; i++) {
+            EXP[i] = value;
+            LOG[value] = i;
+            value <<= 1;
+            if (value >= 256) value ^= FIELD_POLYNOMIAL;
+        }
+        for (int i = 255; i < EXP.length; i++) EXP[i] = EXP[i - 255];
+    }
+
+    private static final Map<String, Symbol> CACHE = new LinkedHashMap<String, Symbol>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Symbol> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    private QRCodeEncoder() {
+    }
+
+    // ==================== PUBLIC API ====================
+
+    /**
+     * Encode data as a QR Code (micro = false) or Micro QR symbol at the given level
+     * ('L', 'M', 'Q' or 'H'). Returns a shared immutable symbol.
+     *
+     * @throws IllegalArgumentException when the data does not fit any symbol of the family
+     *         at that level (Micro QR has no level H, and only M4 has Q)
+     */
+    public static Symbol encode(String data, char level, boolean micro) {
+        if (data == null) data = "";
+        int levelIndex = levelIndex(level);
+        String key = (micro ? "M" : "Q") + LEVELS[levelIndex] + ':' + data;
+        synchronized (CACHE) {
+            Symbol cached = CACHE.get(key);
+            if (cached != null) return cached;
+        }
+        Symbol symbol = encodeUncached(data, levelIndex, micro);
+        synchronized (CACHE) {
+            CACHE.put(key, symbol);
+        }
+        return symbol;
+    }
+
+    /**
+     * Map the barcode panel's error correction names (Low, Medium, High, Maximum) or a
+     * level letter to 'L', 'M', 'Q' or 'H'. Unknown names give 'M'.
+     */
+    public static char levelFor(String errorCorrection) {
+        if (errorCorrection == null || errorCorrection.isEmpty()) return 'M';
+        switch (errorCorrection.trim().toUpperCase()) {
+            case "L": case "LOW":
+                return 'L';
+            case "Q": case "HIGH": case "QUARTILE":
+                return 'Q';
+            case "H": case "MAXIMUM":
+                return 'H';
+            default:
+                return 'M';
+        }
+    }
+
+    static Symbol encodeUncached(String data, int levelIndex, boolean micro) {
+        Segmenter segmenter = new Segmenter(data);
+        int lastVersion = micro ? 4 : 40;
+        for (int version = 1; version <= lastVersion; version++) {
+            int dataCodewords = micro ? MICRO_DATA_CODEWORDS[levelIndex][version] : dataCodewords(version, levelIndex);
+            if (dataCodewords == 0) continue;
+            int dataBits = micro && (version == 1 || version == 3) ? dataCodewords * 8 - 4 : dataCodewords * 8;
+            BitBuffer bits = segmenter.encode(micro, version, dataBits);
+            if (bits == null) continue;
+
+            int[] codewords = finishDataCodewords(bits, micro, version, dataBits, dataCodewords);
+            Builder builder = new Builder(micro, version, levelIndex);
+            int[] stream = micro ? builder.appendMicroErrorCorrection(codewords)
+                                 : builder.addErrorCorrection(codewords);
+            builder.placeData(stream, micro ? dataBits + (MICRO_TOTAL_CODEWORDS[version] - dataCodewords) * 8
+                                            : stream.length * 8);
+            return builder.applyBestMask();
+        }
+        throw new IllegalArgumentException("Data too long for " + (micro ? "Micro QR" : "QR Code")
+            + " at level " + LEVELS[levelIndex] + " (" + data.length() + " characters)");
+    }
+
+    /**
+     * Data plus error correction codewords in placement order (for tests against the
+     * ISO/IEC 18004 Annex I example); the half codeword of M1/M3 is kept in the high nibble.
+     */
+    static int[] encodeCodewords(String data, char level, boolean micro, int version) {
+        int levelIndex = levelIndex(level);
+        int dataCodewords = micro ? MICRO_DATA_CODEWORDS[levelIndex][version] : dataCodewords(version, levelIndex);
+        int dataBits = micro && (version == 1 || version == 3) ? dataCodewords * 8 - 4 : dataCodewords * 8;
+        BitBuffer bits = new Segmenter(data).encode(micro, version, dataBits);
+        if (bits == null) throw new IllegalArgumentException("Data does not fit version " + version);
+        int[] codewords = finishDataCodewords(bits, micro, version, dataBits, dataCodewords);
+        Builder builder = new Builder(micro, version, levelIndex);
+        return micro ? builder.appendMicroErrorCorrection(codewords) : builder.addErrorCorrection(codewords);
+    }
+
+    private static int levelIndex(char level) {
+        for (int i = 0; i < LEVELS.length; i++) {
+            if (LEVELS[i] == Character.toUpperCase(level)) return i;
+        }
+        throw new IllegalArgumentException("Unknown error correction level: " + level);
+    }
+
+    // ==================== SYMBOL ====================
+
+    /**
+     * An encoded symbol: size x size modules packed row by row, wordsPerRow longs per row,
+     * column c of a row in bit (c & 63) of word (c >>> 6).
+     */
+    public static final class Symbol {
+        public final int size;
+        public final int version;                 // 1-40, or 1-4 for M1-M4
+        public final boolean micro;
+        public final char errorCorrection;
+        public final int mask;                    // Mask pattern reference as written in the format information
+        public final int wordsPerRow;
+        private final long[] modules;
+
+        Symbol(int size, int version, boolean micro, char errorCorrection, int mask, long[] modules) {
+            this.size = size;
+            this.version = version;
+            this.micro = micro;
+            this.errorCorrection = errorCorrection;
+            this.mask = mask;
+            this.wordsPerRow = wordCount(size);
+            this.modules = modules;
+        }
+
+        public boolean isDark(int row, int column) {
+            return (modules[row * wordsPerRow + (column >>> 6)] >>> (column & 63) & 1L) != 0;
+        }
+
+        /** Copy of the packed module bitmap. */
+        public long[] getModules() {
+            return modules.clone();
+        }
+
+        public int getQuietZone() {
+            return micro ? MICRO_QUIET_ZONE : QUIET_ZONE;
+        }
+
+        /** "3-M" or "M2-L" */
+        public String getVersionName() {
+            return (micro ? "M" + version : String.valueOf(version)) + "-" + errorCorrection;
+        }
+
+        @Override
+        public String toString() {
+            return (micro ? "Micro QR " : "QR Code ") + getVersionName() + " (" + size + "x" + size + ", mask " + mask + ")";
+        }
+    }
+
+    // ==================== CAPACITY ====================
+
+    static int symbolSize(int version, boolean micro) {
+        return micro ? 9 + 2 * version : 17 + 4 * version;
+    }
+
+    private static int rawDataModules(int version) {
+        int result = (16 * version + 128) * version + 64;
+        if (version >= 2) {
+            int alignments = version / 7 + 2;
+            result -= (25 * alignments - 10) * alignments - 55;
+            if (version >= 7) result -= 36;
+        }
+        return result;
+    }
+
+    private static int dataCodewords(int version, int levelIndex) {
+        return rawDataModules(version) / 8
+            - ECC_CODEWORDS_PER_BLOCK[levelIndex][version] * ERROR_CORRECTION_BLOCKS[levelIndex][version];
+    }
+
+    static int[] alignmentPositions(int version) {
+        if (version == 1) return new int[0];
+        int count = version / 7 + 2;
+        int step = version == 32 ? 26 : (version * 4 + count * 2 + 1) / (count * 2 - 2) * 2;
+        int[] positions = new int[count];
+        positions[0] = 6;
+        for (int i = count - 1, position = version * 4 + 10; i >= 1; i--, position -= step) {
+            positions[i] = position;
+        }
+        return positions;
+    }
+
+    // ==================== SEGMENTATION ====================
+
+    /**
+     * Chooses a mode per character that minimises the bit stream for a given set of
+     * character count widths (dynamic programming in 1/6 bit units, so numeric digits cost
+     * 20 and alphanumeric characters 33), then writes the segments.
+     */
+    private static final class Segmenter {
+        private final int[] codePoints;
+        private final byte[][] characterBytes;
+        private final Map<String, int[]> modesByLayout = new LinkedHashMap<>();
+
+        Segmenter(String data) {
+            codePoints = data.codePoints().toArray();
+            Charset charset = StandardCharsets.ISO_8859_1;
+            for (int c : codePoints) {
+                if (c > 255) {
+                    charset = StandardCharsets.UTF_8;
+                    break;
+                }
+            }
+            characterBytes = new byte[codePoints.length][];
+            for (int i = 0; i < codePoints.length; i++) {
+                characterBytes[i] = new String(Character.toChars(codePoints[i])).getBytes(charset);
+            }
+        }
+
+        /** Bit stream (before terminator) for the version, or null when it exceeds dataBits. */
+        BitBuffer encode(boolean micro, int version, int dataBits) {
+            int[] countBits = new int[3];
+            for (int mode = NUMERIC; mode <= BYTE; mode++) countBits[mode] = countBits(micro, version, mode);
+            int indicatorBits = micro ? version - 1 : 4;
+
+            String layout = indicatorBits + ":" + countBits[0] + "," + countBits[1] + "," + countBits[2];
+            int[] modes = modesByLayout.get(layout);
+            if (modes == null) {
+                modes = chooseModes(indicatorBits, countBits);
+                modesByLayout.put(layout, modes);
+            }
+            if (modes == null) return null;
+
+            BitBuffer bits = new BitBuffer();
+            int start = 0;
+            while (start < codePoints.length) {
+                int mode = modes[start];
+                int end = start;
+                while (end < codePoints.length && modes[end] == mode) end++;
+                writeSegment(bits, mode, start, end, micro, indicatorBits, countBits[mode]);
+                if (bits.length > dataBits) return null;
+                start = end;
+            }
+            return bits;
+        }
+
+        private int[] chooseModes(int indicatorBits, int[] countBits) {
+            int n = codePoints.length;
+            int[] modes = new int[n];
+            if (n == 0) return modes;
+
+            final int unreachable = Integer.MAX_VALUE / 4;
+            int[] headCosts = new int[3];
+            for (int mode = 0; mode < 3; mode++) {
+                headCosts[mode] = countBits[mode] == 0 ? unreachable : (indicatorBits + countBits[mode]) * 6;
+            }
+            // from[i][m]: mode of character i on the cheapest path that is in state m after it
+            int[][] from = new int[n][3];
+            int[] previous = headCosts.clone();
+            for (int i = 0; i < n; i++) {
+                int c = codePoints[i];
+                int[] current = {unreachable, unreachable, unreachable};
+                int[] fromHere = from[i];
+                fromHere[0] = fromHere[1] = fromHere[2] = -1;
+                if (countBits[BYTE] != 0) {
+                    current[BYTE] = previous[BYTE] + characterBytes[i].length * 48;
+                    fromHere[BYTE] = BYTE;
+                }
+                if (countBits[ALPHANUMERIC] != 0 && ALPHANUMERIC_CHARSET.indexOf(c) >= 0) {
+                    current[ALPHANUMERIC] = previous[ALPHANUMERIC] + 33;
+                    fromHere[ALPHANUMERIC] = ALPHANUMERIC;
+                }
+                if (c >= '0' && c <= '9') {
+                    current[NUMERIC] = previous[NUMERIC] + 20;
+                    fromHere[NUMERIC] = NUMERIC;
+                }
+                // Switching after this character: finish the segment (round up) and pay the next header
+                int[] ended = current.clone();
+                for (int next = 0; next < 3; next++) {
+                    if (headCosts[next] >= unreachable) continue;
+                    for (int mode = 0; mode < 3; mode++) {
+                        if (ended[mode] >= unreachable) continue;
+                        int cost = (ended[mode] + 5) / 6 * 6 + headCosts[next];
+                        if (fromHere[next] < 0 || cost < current[next]) {
+                            current[next] = cost;
+                            fromHere[next] = mode;
+                        }
+                    }
+                }
+                previous = current;
+            }
+
+            int state = -1;
+            for (int mode = 0; mode < 3; mode++) {
+                if (from[n - 1][mode] >= 0 && (state < 0 || previous[mode] < previous[state])) state = mode;
+            }
+            if (state < 0) return null;   // A character has no mode in this symbol (e.g. letters in M1)
+            for (int i = n - 1; i >= 0; i--) {
+                int mode = from[i][state];
+                if (mode < 0) return null;
+                modes[i] = mode;
+                state = mode;
+            }
+            return modes;
+        }
+
+        private void writeSegment(BitBuffer bits, int mode, int start, int end, boolean micro, int indicatorBits, int countBits) {
+            int maxCount = (1 << countBits) - 1;
+            int indicator = micro ? mode : MODE_INDICATORS[mode];
+            if (mode == BYTE) {
+                int byteCount = 0;
+                for (int i = start; i < end; i++) byteCount += characterBytes[i].length;
+                byte[] bytes = new byte[byteCount];
+                int offset = 0;
+                for (int i = start; i < end; i++) {
+                    System.arraycopy(characterBytes[i], 0, bytes, offset, characterBytes[i].length);
+                    offset += characterBytes[i].length;
+                }
+                for (int from = 0; from < bytes.length; from += maxCount) {
+                    int count = Math.min(maxCount, bytes.length - from);
+                    bits.append(indicator, indicatorBits);
+                    bits.append(count, countBits);
+                    for (int i = from; i < from + count; i++) bits.append(bytes[i] & 0xFF, 8);
+                }
+                return;
+            }
+            for (int from = start; from < end; from += maxCount) {
+                int to = Math.min(end, from + maxCount);
+                bits.append(indicator, indicatorBits);
+                bits.append(to - from, countBits);
+                if (mode == NUMERIC) {
+                    for (int i = from; i < to; i += 3) {
+                        int digits = Math.min(3, to - i);
+                        int value = 0;
+                        for (int j = i; j < i + digits; j++) value = value * 10 + (codePoints[j] - '0');
+                        bits.append(value, digits * 3 + 1);
+                    }
+                } else {
+                    for (int i = from; i < to; i += 2) {
+                        int value = ALPHANUMERIC_CHARSET.indexOf(codePoints[i]);
+                        if (i + 1 < to) {
+                            bits.append(value * 45 + ALPHANUMERIC_CHARSET.indexOf(codePoints[i + 1]), 11);
+                        } else {
+                            bits.append(value, 6);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /** Character count width; 0 when the mode is not available in the symbol. */
+    private static int countBits(boolean micro, int version, int mode) {
+        if (micro) return MICRO_CHARACTER_COUNT_BITS[mode][version];
+        return CHARACTER_COUNT_BITS[mode][version <= 9 ? 0 : version <= 26 ? 1 : 2];
+    }
+
+    /** Terminator, bit padding and pad codewords; M1/M3 end with a 4-bit codeword kept in the high nibble. */
+    private static int[] finishDataCodewords(BitBuffer bits, boolean micro, int version, int dataBits, int dataCodewords) {
+        int terminator = micro ? 2 * version + 1 : 4;
+        bits.append(0, Math.min(terminator, dataBits - bits.length));
+        bits.append(0, Math.min((8 - bits.length % 8) % 8, dataBits - bits.length));
+        for (int pad = PAD_1; bits.length + 8 <= dataBits; pad ^= PAD_1 ^ PAD_2) bits.append(pad, 8);
+        bits.append(0, dataBits - bits.length);
+
+        int[] codewords = new int[dataCodewords];
+        for (int i = 0; i < dataCodewords; i++) {
+            int value = 0;
+            for (int bit = 0; bit < 8; bit++) {
+                int index = i * 8 + bit;
+                value = value << 1 | (index < bits.length ? bits.get(index) : 0);
+            }
+            codewords[i] = value;
+        }
+        return codewords;
+    }
+
+    // ==================== SYMBOL CONSTRUCTION ====================
+
+    private static final class Builder {
+        final boolean micro;
+        final int version;
+        final int levelIndex;
+        final int size;
+        final boolean[][] dark;
+        final boolean[][] function;
+
+        Builder(boolean micro, int version, int levelIndex) {
+            this.micro = micro;
+            this.version = version;
+            this.levelIndex = levelIndex;
+            this.size = symbolSize(version, micro);
+            this.dark = new boolean[size][size];
+            this.function = new boolean[size][size];
+            if (micro) {
+                drawMicroFunctionPatterns();
+            } else {
+                drawFunctionPatterns();
+            }
+        }
+
+        // ---------- Error correction ----------
+
+        int[] addErrorCorrection(int[] data) {
+            int blocks = ERROR_CORRECTION_BLOCKS[levelIndex][version];
+            int eccLength = ECC_CODEWORDS_PER_BLOCK[levelIndex][version];
+            int rawCodewords = rawDataModules(version) / 8;
+            int shortBlocks = blocks - rawCodewords % blocks;
+            int shortDataLength = rawCodewords / blocks - eccLength;
+            int[] generator = generator(eccLength);
+
+            int[][] blockData = new int[blocks][];
+            int[][] blockEcc = new int[blocks][];
+            for (int b = 0, offset = 0; b < blocks; b++) {
+                int length = shortDataLength + (b < shortBlocks ? 0 : 1);
+                blockData[b] = new int[length];
+                System.arraycopy(data, offset, blockData[b], 0, length);
+                blockEcc[b] = remainder(blockData[b], generator);
+                offset += length;
+            }
+
+            int[] result = new int[rawCodewords];
+            int index = 0;
+            for (int i = 0; i <= shortDataLength; i++) {
+                for (int b = 0; b < blocks; b++) {
+                    if (i < blockData[b].length) result[index++] = blockData[b][i];
+                }
+            }
+            for (int i = 0; i < eccLength; i++) {
+                for (int b = 0; b < blocks; b++) result[index++] = blockEcc[b][i];
+            }
+            return result;
+        }
+
+        int[] appendMicroErrorCorrection(int[] data) {
+            int eccLength = MICRO_TOTAL_CODEWORDS[version] - data.length;
+            int[] ecc = remainder(data, generator(eccLength));
+            int[] result = new int[data.length + eccLength];
+            System.arraycopy(data, 0, result, 0, data.length);
+            System.arraycopy(ecc, 0, result, data.length, eccLength);
+            return result;
+        }
+
+        // ---------- Function patterns ----------
+
+        private void drawFunctionPatterns() {
+            for (int i = 0; i < size; i++) {
+                setFunction(6, i, i % 2 == 0);
+                setFunction(i, 6, i % 2 == 0);
+            }
+            drawFinder(3, 3);
+            drawFinder(size - 4, 3);
+            drawFinder(3, size - 4);
+
+            int[] positions = alignmentPositions(version);
+            int last = positions.length - 1;
+            for (int i = 0; i < positions.length; i++) {
+                for (int j = 0; j < positions.length; j++) {
+                    if ((i == 0 && j == 0) || (i == 0 && j == last) || (i == last && j == 0)) continue;
+                    for (int dy = -2; dy <= 2; dy++) {
+                        for (int dx = -2; dx <= 2; dx++) {
+                            setFunction(positions[i] + dx, positions[j] + dy, Math.max(Math.abs(dx), Math.abs(dy)) != 1);
+                        }
+                    }
+                }
+            }
+
+            // Reserve the format areas (written per mask) and the dark module
+            for (int[] position : formatPositions(size)) setFunction(position[0], position[1], false);
+            setFunction(8, size - 8, true);
+
+            if (version >= 7) {
+                int bits = versionBits(version);
+                for (int i = 0; i < 18; i++) {
+                    boolean bit = (bits >>> i & 1) != 0;
+                    int a = size - 11 + i % 3;
+                    int b = i / 3;
+                    setFunction(a, b, bit);
+                    setFunction(b, a, bit);
+                }
+            }
+        }
+
+        private void drawMicroFunctionPatterns() {
+            for (int i = 1; i < size; i++) {
+                setFunction(i, 0, i % 2 == 0);
+                setFunction(0, i, i % 2 == 0);
+            }
+            drawFinder(3, 3);
+            for (int[] position : microFormatPositions()) setFunction(position[0], position[1], false);
+        }
+
+        /** 7x7 finder centred at (x, y) with its light separator, clipped to the symbol. */
+        private void drawFinder(int x, int y) {
+            for (int dy = -4; dy <= 4; dy++) {
+                for (int dx = -4; dx <= 4; dx++) {
+                    int distance = Math.max(Math.abs(dx), Math.abs(dy));
+                    int column = x + dx, row = y + dy;
+                    if (column >= 0 && column < size && row >= 0 && row < size) {
+                        setFunction(column, row, distance != 2 && distance != 4);
+                    }
+                }
+            }
+        }
+
+        private void setFunction(int column, int row, boolean isDark) {
+            dark[row][column] = isDark;
+            function[row][column] = true;
+        }
+
+        // ---------- Data placement ----------
+
+        /** Two-module-wide columns zig-zag from the bottom right, skipping the vertical timing pattern. */
+        void placeData(int[] codewords, int bitCount) {
+            int[] bitSource = codewordBits(codewords, bitCount);
+            int index = 0;
+            for (int right = size - 1; right >= 1; right -= 2) {
+                if (!micro && right == 6) right = 5;
+                boolean upward = ((size - 1 - right) & 2) == 0;
+                for (int vertical = 0; vertical < size; vertical++) {
+                    int row = upward ? size - 1 - vertical : vertical;
+                    for (int j = 0; j < 2; j++) {
+                        int column = right - j;
+                        if (!function[row][column] && index < bitSource.length) {
+                            dark[row][column] = bitSource[index++] != 0;
+                        }
+                    }
+                }
+            }
+        }
+
+        /** Bits in placement order; the M1/M3 half codeword contributes only its high nibble. */
+        private int[] codewordBits(int[] codewords, int bitCount) {
+            int[] bits = new int[bitCount];
+            int halfCodeword = micro && (version == 1 || version == 3) ? MICRO_DATA_CODEWORDS[levelIndex][version] - 1 : -1;
+            int index = 0;
+            for (int i = 0; i < codewords.length && index < bitCount; i++) {
+                int width = i == halfCodeword ? 4 : 8;
+                for (int bit = 7; bit >= 8 - width && index < bitCount; bit--) {
+                    bits[index++] = codewords[i] >>> bit & 1;
+                }
+            }
+            return bits;
+        }
+
+        // ---------- Masking ----------
+
+        Symbol applyBestMask() {
+            int words = wordCount(size);
+            long[] base = new long[size * words];
+            long[] free = new long[size * words];
+            for (int row = 0; row < size; row++) {
+                for (int column = 0; column < size; column++) {
+                    if (dark[row][column]) base[row * words + (column >>> 6)] |= 1L << (column & 63);
+                    if (!function[row][column]) free[row * words + (column >>> 6)] |= 1L << (column & 63);
+                }
+            }
+
+            int masks = micro ? MICRO_MASKS.length : 8;
+            long[] best = null;
+            int bestMask = 0;
+            long bestScore = 0;
+            for (int reference = 0; reference < masks; reference++) {
+                int pattern = micro ? MICRO_MASKS[reference] : reference;
+                long[] modules = base.clone();
+                for (int row = 0; row < size; row++) {
+                    for (int w = 0; w < words; w++) {
+                        modules[row * words + w] ^= maskWord(pattern, row, w) & free[row * words + w];
+                    }
+                }
+                writeFormat(modules, words, reference);
+                // QR: lowest penalty wins; Micro QR: highest edge score wins
+                long score = micro ? -microScore(modules, size) : penalty(modules, size);
+                if (best == null || score < bestScore) {
+                    best = modules;
+                    bestMask = reference;
+                    bestScore = score;
+                }
+            }
+            return new Symbol(size, version, micro, LEVELS[levelIndex], bestMask, best);
+        }
+
+        private void writeFormat(long[] modules, int words, int mask) {
+            int bits;
+            int[][] positions;
+            if (micro) {
+                bits = microFormatBits(MICRO_SYMBOL_NUMBERS[levelIndex][version], mask);
+                positions = microFormatPositions();
+            } else {
+                bits = formatBits(levelIndex, mask);
+                positions = formatPositions(size);
+            }
+            for (int i = 0; i < positions.length; i++) {
+                int column = positions[i][0], row = positions[i][1];
+                long bit = 1L << (column & 63);
+                int word = row * words + (column >>> 6);
+                if ((bits >>> (i % 15) & 1) != 0) {
+                    modules[word] |= bit;
+                } else {
+                    modules[word] &= ~bit;
+                }
+            }
+        }
+    }
+
+    /** Word w of row `row` of mask pattern `pattern` (bit set = invert). */
+    private static long maskWord(int pattern, int row, int word) {
+        long result = 0;
+        for (int bit = 0; bit < 64; bit++) {
+            int column = word * 64 + bit;
+            boolean invert;
+            switch (pattern) {
+                case 0: invert = (row + column) % 2 == 0; break;
+                case 1: invert = row % 2 == 0; break;
+                case 2: invert = column % 3 == 0; break;
+                case 3: invert = (row + column) % 3 == 0; break;
+                case 4: invert = (row / 2 + column / 3) % 2 == 0; break;
+                case 5: invert = row * column % 2 + row * column % 3 == 0; break;
+                case 6: invert = (row * column % 2 + row * column % 3) % 2 == 0; break;
+                default: invert = ((row + column) % 2 + row * column % 3) % 2 == 0; break;
+            }
+            if (invert) result |= 1L << bit;
+        }
+        return result;
+    }
+
+    // ==================== FORMAT AND VERSION INFORMATION ====================
+
+    /** Positions (column, row) of format bits 0-14 in both copies, in bit order. */
+    static int[][] formatPositions(int size) {
+        int[][] positions = new int[30][];
+        for (int i = 0; i < 15; i++) {
+            if (i < 6) positions[i] = new int[] {8, i};
+            else if (i < 8) positions[i] = new int[] {8, i + 1};
+            else if (i == 8) positions[i] = new int[] {7, 8};
+            else positions[i] = new int[] {14 - i, 8};
+
+            positions[15 + i] = i < 8 ? new int[] {size - 1 - i, 8} : new int[] {8, size - 15 + i};
+        }
+        return positions;
+    }
+
+    /** Micro QR: bits 0-7 down column 8 from row 1, bits 8-14 along row 8 from column 7 to 1. */
+    static int[][] microFormatPositions() {
+        int[][] positions = new int[15][];
+        for (int i = 0; i < 15; i++) {
+            positions[i] = i < 8 ? new int[] {8, i + 1} : new int[] {15 - i, 8};
+        }
+        return positions;
+    }
+
+    static int formatBits(int levelIndex, int mask) {
+        int data = LEVEL_FORMAT_BITS[levelIndex] << 3 | mask;
+        return (data << 10 | bchRemainder(data, 10, FORMAT_GENERATOR)) ^ FORMAT_MASK;
+    }
+
+    static int microFormatBits(int symbolNumber, int mask) {
+        int data = symbolNumber << 2 | mask;
+        return (data << 10 | bchRemainder(data, 10, FORMAT_GENERATOR)) ^ MICRO_FORMAT_MASK;
+    }
+
+    static int versionBits(int version) {
+        return version << 12 | bchRemainder(version, 12, VERSION_GENERATOR);
+    }
+
+    private static int bchRemainder(int data, int degree, int generator) {
+        int remainder = data;
+        for (int i = 0; i < degree; i++) {
+            remainder = (remainder << 1) ^ ((remainder >>> (degree - 1)) * generator);
+        }
+        return remainder;
+    }
+
+    // ==================== MASK EVALUATION ====================
+
+    /**
+     * QR penalty score (rules N1-N4) of a packed module bitmap. Each row and column is
+     * evaluated as a bit vector: runs, 2x2 blocks and 1:1:3:1:1 finder-like patterns are
+     * found with shifts and ANDs, counted with bitCount. Modules outside the symbol count as
+     * light for the finder-like rule.
+     */
+    static int penalty(long[] modules, int size) {
+        int words = wordCount(size);
+        long[][] rows = new long[size][];
+        long[][] columns = new long[size][words];
+        int darkCount = 0;
+        for (int row = 0; row < size; row++) {
+            rows[row] = new long[words];
+            System.arraycopy(modules, row * words, rows[row], 0, words);
+            for (int w = 0; w < words; w++) {
+                long word = rows[row][w];
+                darkCount += Long.bitCount(word);
+                while (word != 0) {
+                    int column = w * 64 + Long.numberOfTrailingZeros(word);
+                    columns[column][row >>> 6] |= 1L << (row & 63);
+                    word &= word - 1;
+                }
+            }
+        }
+
+        int result = 0;
+        long[] lineMask = widthMask(size, words);
+        long[] pairMask = widthMask(size - 1, words);
+        int paddedWords = wordCount(size + 8);
+        long[] paddedMask = widthMask(size + 8, paddedWords);
+        for (int i = 0; i < size; i++) {
+            result += runPenalty(rows[i], pairMask) + runPenalty(columns[i], pairMask);
+            result += finderPenalty(rows[i], paddedWords, paddedMask) + finderPenalty(columns[i], paddedWords, paddedMask);
+            if (i + 1 < size) {
+                result += PENALTY_N2 * blockCount(rows[i], rows[i + 1], pairMask);
+            }
+        }
+
+        int total = size * size;
+        int k = (Math.abs(darkCount * 20 - total * 10) + total - 1) / total - 1;
+        result += k * PENALTY_N4;
+        return result;
+    }
+
+    /** N1: a run of n >= 5 same-colour modules costs n - 2. */
+    private static int runPenalty(long[] line, long[] pairMask) {
+        long[] same = and(not(xor(line, shiftDown(line, 1)), pairMask), pairMask);
+        long[] fives = and(and(same, shiftDown(same, 1)), and(shiftDown(same, 2), shiftDown(same, 3)));
+        long[] starts = and(fives, not(shiftUp(fives, 1), pairMask));
+        return bitCount(fives) + (PENALTY_N1 - 1) * bitCount(starts);
+    }
+
+    /** N2: 2x2 blocks of one colour between two adjacent rows. */
+    private static int blockCount(long[] upper, long[] lower, long[] pairMask) {
+        long[] same = and(not(xor(upper, lower), pairMask),
+                          and(not(xor(upper, shiftDown(upper, 1)), pairMask), not(xor(lower, shiftDown(lower, 1)), pairMask)));
+        return bitCount(same);
+    }
+
+    /** N3: dark-light-dark-dark-dark-light-dark with four light modules before or after. */
+    private static int finderPenalty(long[] line, int paddedWords, long[] paddedMask) {
+        long[] padded = new long[paddedWords];
+        System.arraycopy(line, 0, padded, 0, line.length);
+        padded = shiftUp(padded, 4);
+        long[] light = not(padded, paddedMask);
+        long[] before = paddedMask.clone();
+        long[] after = paddedMask.clone();
+        final int pattern = 0b10111010000;   // Bit 10 first: 1011101 then 0000
+        for (int k = 0; k < 11; k++) {
+            boolean afterDark = (pattern >>> (10 - k) & 1) != 0;
+            boolean beforeDark = k >= 4 && (pattern >>> (14 - k) & 1) != 0;
+            after = and(after, shiftDown(afterDark ? padded : light, k));
+            before = and(before, shiftDown(beforeDark ? padded : light, k));
+        }
+        return PENALTY_N3 * (bitCount(after) + bitCount(before));
+    }
+
+    /** Micro QR: dark modules on the right and bottom edges, SUM1 <= SUM2 ? SUM1 * 16 + SUM2 : SUM2 * 16 + SUM1. */
+    static int microScore(long[] modules, int size) {
+        int words = wordCount(size);
+        int right = 0, bottom = 0;
+        for (int i = 1; i < size; i++) {
+            if ((modules[i * words + ((size - 1) >>> 6)] >>> ((size - 1) & 63) & 1L) != 0) right++;
+            if ((modules[(size - 1) * words + (i >>> 6)] >>> (i & 63) & 1L) != 0) bottom++;
+        }
+        return right <= bottom ? right * 16 + bottom : bottom * 16 + right;
+    }
+
+    // ---------- Multi-word bit vectors (bit i in word i >>> 6) ----------
+
+    private static int wordCount(int bits) {
+        return (bits + 63) >>> 6;
+    }
+
+    private static long[] widthMask(int width, int words) {
+        long[] mask = new long[words];
+        for (int w = 0; w < words; w++) {
+            int bits = width - w * 64;
+            mask[w] = bits >= 64 ? -1L : bits <= 0 ? 0 : (1L << bits) - 1;
+        }
+        return mask;
+    }
+
+    /** bit i of the result = bit i + k of v */
+    private static long[] shiftDown(long[] v, int k) {
+        long[] out = new long[v.length];
+        int wordShift = k >>> 6, bitShift = k & 63;
+        for (int i = 0; i + wordShift < v.length; i++) {
+            int j = i + wordShift;
+            out[i] = v[j] >>> bitShift;
+            if (bitShift != 0 && j + 1 < v.length) out[i] |= v[j + 1] << (64 - bitShift);
+        }
+        return out;
+    }
+
+    /** bit i of the result = bit i - k of v */
+    private static long[] shiftUp(long[] v, int k) {
+        long[] out = new long[v.length];
+        int wordShift = k >>> 6, bitShift = k & 63;
+        for (int i = v.length - 1; i - wordShift >= 0; i--) {
+            int j = i - wordShift;
+            out[i] = v[j] << bitShift;
+            if (bitShift != 0 && j - 1 >= 0) out[i] |= v[j - 1] >>> (64 - bitShift);
+        }
+        return out;
+    }
+
+    private static long[] and(long[] a, long[] b) {
+        long[] out = new long[a.length];
+        for (int i = 0; i < a.length; i++) out[i] = a[i] & b[i];
+        return out;
+    }
+
+    private static long[] xor(long[] a, long[] b) {
+        long[] out = new long[a.length];
+        for (int i = 0; i < a.length; i++) out[i] = a[i] ^ b[i];
+        return out;
+    }
+
+    private static long[] not(long[] a, long[] mask) {
+        long[] out = new long[a.length];
+        for (int i = 0; i < a.length; i++) out[i] = ~a[i] & mask[i];
+        return out;
+    }
+
+    private static int bitCount(long[] v) {
+        int count = 0;
+        for (long word : v) count += Long.bitCount(word);
+        return count;
+    }
+
+    // ==================== REED-SOLOMON ====================
+
+    private static int[] generator(int degree) {
+        synchronized (GENERATORS) {
+            if (GENERATORS[degree] == null) {
+                // Roots a^0 .. a^(degree-1); coefficients highest power first, leading 1 dropped
+                int[] poly = new int[degree];
+                poly[degree - 1] = 1;
+                int root = 1;
+                for (int i = 0; i < degree; i++) {
+                    for (int j = 0; j < degree; j++) {
+                        poly[j] = multiply(poly[j], root);
+                        if (j + 1 < degree) poly[j] ^= poly[j + 1];
+                    }
+                    root = multiply(root, 2);
+                }
+                GENERATORS[degree] = poly;
+            }
+            return GENERATORS[degree];
+        }
+    }
+
+    private static int[] remainder(int[] data, int[] generator) {
+        int[] result = new int[generator.length];
+        for (int value : data) {
+            int factor = value ^ result[0];
+            System.arraycopy(result, 1, result, 0, result.length - 1);
+            result[result.length - 1] = 0;
+            for (int i = 0; i < result.length; i++) result[i] ^= multiply(generator[i], factor);
+        }
+        return result;
+    }
+
+    static int multiply(int a, int b) {
+        if (a == 0 || b == 0) return 0;
+        return EXP[LOG[a] + LOG[b]];
+    }
+
+    // ==================== BIT BUFFER ====================
+
+    private static final class BitBuffer {
+        private byte[] bits = new byte[256];
+        int length;
+
+        void append(int value, int count) {
+            if (length + count > bits.length) bits = java.util.Arrays.copyOf(bits, Math.max(bits.length * 2, length + count));
+            for (int i = count - 1; i >= 0; i--) bits[length++] = (byte) (value >>> i & 1);
+        }
+
+        int get(int index) {
+            return bits[index];
+        }
+    }
+}
@@ -0,0 +1,572 @@
+// QRCodeEncoder Test Program - Verify QR Code and Micro QR symbols against ISO/IEC 18004 reference data
+// Reads every generated symbol back (format, function patterns, masking, Reed-Solomon, segments)
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+public class QRCodeEncoderTest {
+
+    // ISO/IEC 18004 Table 9, copied for the reader (index = version)
+    private static final int[][] ECC_PER_BLOCK = {
+        {-1, 7, 10, 15, 20, 26, 18, 20, 24, 30, 18, 20, 24, 26, 30, 22, 24, 28, 30, 28, 28, 28, 28, 30, 30, 26, 28, 30, 30, 30, 30, 30, 30, 30, 30, 30, 30, 30, 30, 30, 30},
+        {-1, 10, 16, 26, 18, 24, 16, 18, 22, 22, 26, 30, 22, 22, 24, 24, 28, 28, 26, 26, 26, 26, 28, 28, 28, 28, 28, 28, 28, 28, 28, 28, 28, 28, 28, 28, 28, 28, 28, 28, 28},
+        {-1, 13, 22, 18, 26, 18, 24, 18, 22, 20, 24, 28, 26, 24, 20, 30, 24, 28, 28, 26, 30, 28, 30, 30, 30, 30, 28, 30, 30, 30, 30, 30, 30, 30, 30, 30, 30, 30, 30, 30, 30},
+        {-1, 17, 28, 22, 16, 22, 28, 26, 26, 24, 28, 24, 28, 22, 24, 24, 30, 28, 28, 26, 28, 30, 24, 30, 30, 30, 30, 30, 30, 30, 30, 30, 30, 30, 30, 30, 30, 30, 30, 30, 30}
+    };
+    private static final int[][] BLOCKS = {
+        {-1, 1, 1, 1, 1, 1, 2, 2, 2, 2, 4, 4, 4, 4, 4, 6, 6, 6, 6, 7, 8, 8, 9, 9, 10, 12, 12, 12, 13, 14, 15, 16, 17, 18, 19, 19, 20, 21, 22, 24, 25},
+        {-1, 1, 1, 1, 2, 2, 4, 4, 4, 5, 5, 5, 8, 9, 9, 10, 10, 11, 13, 14, 16, 17, 17, 18, 20, 21, 23, 25, 26, 28, 29, 31, 33, 35, 37, 38, 40, 43, 45, 47, 49},
+        {-1, 1, 1, 2, 2, 4, 4, 6, 6, 8, 8, 8, 10, 12, 16, 12, 17, 16, 18, 21, 20, 23, 23, 25, 27, 29, 34, 34, 35, 38, 40, 43, 45, 48, 51, 53, 56, 59, 62, 65, 68},
+        {-1, 1, 1, 2, 4, 4, 4, 5, 6, 8, 8, 11, 11, 16, 16, 18, 16, 19, 21, 25, 25, 25, 34, 30, 32, 35, 37, 40, 42, 45, 48, 51, 54, 57, 60, 63, 66, 70, 74, 77, 81}
+    };
+    private static final String ALPHANUMERIC = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ $%*+-./:";
+    private static final int[] QR_LEVEL_BITS = {1, 0, 3, 2};   // L M Q H
+    // Micro symbol number -> version, level index
+    private static final int[][] MICRO_SYMBOLS = {{1, 0}, {2, 0}, {2, 1}, {3, 0}, {3, 1}, {4, 0}, {4, 1}, {4, 2}};
+    private static final int[][] MICRO_DATA = {{0, 3, 5, 11, 16}, {0, 0, 4, 9, 14}, {0, 0, 0, 0, 10}};
+    private static final int[] MICRO_TOTAL = {0, 5, 10, 17, 24};
+
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+        System.out.println("Testing QRCodeEncoder...");
+
+        // ISO/IEC 18004 Annex I: "01234567" as 1-M
+        check(Arrays.equals(QRCodeEncoder.encodeCodewords("01234567", 'M', false, 1), new int[] {
+            0x10, 0x20, 0x0C, 0x56, 0x61, 0x80, 0xEC, 0x11, 0xEC, 0x11, 0xEC, 0x11, 0xEC, 0x11, 0xEC, 0x11,
+            0xA5, 0x24, 0xD4, 0xC1, 0xED, 0x36, 0xC7, 0x87, 0x2C, 0x55}), "Annex I numeric 1-M codewords");
+        check(Arrays.equals(QRCodeEncoder.encodeCodewords("HELLO WORLD", 'M', false, 1), new int[] {
+            0x20, 0x5B, 0x0B, 0x78, 0xD1, 0x72, 0xDC, 0x4D, 0x43, 0x40, 0xEC, 0x11, 0xEC, 0x11, 0xEC, 0x11,
+            0xC4, 0x23, 0x27, 0x77, 0xEB, 0xD7, 0xE7, 0xE2, 0x5D, 0x17}), "alphanumeric 1-M codewords");
+        // Annex I: "01234567" as Micro QR M2-L
+        check(Arrays.equals(QRCodeEncoder.encodeCodewords("01234567", 'L', true, 2), new int[] {
+            0x40, 0x18, 0xAC, 0xC3, 0x00, 0x86, 0x0D, 0x22, 0xAE, 0x30}), "Annex I Micro QR M2-L codewords");
+
+        // Format and version information
+        check(QRCodeEncoder.formatBits(1, 0) == 0b101010000010010, "format information M, mask 0");
+        check(QRCodeEncoder.formatBits(0, 4) == 0b110011000101111, "format information L, mask 4");
+        check(QRCodeEncoder.versionBits(7) == 0x07C94, "version information 7");
+        check(QRCodeEncoder.microFormatBits(0, 1) == 0x4172, "Micro QR format information M1, mask 1");
+
+        // Capacity limits (ISO/IEC 18004 Table 7)
+        check(QRCodeEncoder.encode(repeat("7", 7089), 'L', false).version == 40, "7089 digits fit 40-L");
+        check(fails(repeat("7", 7090), 'L', false), "7090 digits rejected at L");
+        check(QRCodeEncoder.encode(repeat("A", 1852), 'H', false).version == 40, "1852 alphanumerics fit 40-H");
+        check(QRCodeEncoder.encode(repeat("x", 2331), 'M', false).version == 40, "2331 bytes fit 40-M");
+        check(QRCodeEncoder.encode(repeat("9", 17), 'H', false).version == 1
+              && QRCodeEncoder.encode(repeat("9", 18), 'H', false).version == 2, "17 digits fit 1-H, 18 need 2-H");
+        check(QRCodeEncoder.encode(repeat("9", 35), 'L', true).version == 4
+              && fails(repeat("9", 36), 'L', true), "35 digits fit M4-L, 36 rejected");
+        check(QRCodeEncoder.encode("12345", 'L', true).version == 1, "5 digits fit M1");
+        check(fails("1", 'H', true), "Micro QR has no level H");
+
+        // Mode segmentation: digits inside text stay numeric when that is shorter
+        QRCodeEncoder.Symbol mixed = QRCodeEncoder.encode("Part 1234567890123456 lot a", 'M', false);
+        QRCodeEncoder.Symbol allBytes = QRCodeEncoder.encode("Part abcdefghijklmnop lot a", 'M', false);
+        check(mixed.version < allBytes.version, "numeric run segmented out of byte data ("
+              + mixed.getVersionName() + " vs " + allBytes.getVersionName() + ")");
+
+        // Round trips through the reader: every level, both families, all modes, up to version 40
+        String[] samples = {
+            "", "0", "01234567", "HELLO WORLD", "https://example.com/parts?id=PN-88213&lot=42",
+            "MFR:ACME SN:000042 DATE:2026-10-17", "Ünïcödé ✓ 部品番号 42", repeat("0123456789", 40),
+            repeat("ABC-123/", 60), repeat("Serial 00001234 / ", 90), repeat("x", 2000)
+        };
+        int symbols = 0;
+        int largest = 0;
+        for (String sample : samples) {
+            for (char level : QRCodeEncoder.LEVELS) {
+                QRCodeEncoder.Symbol symbol;
+                try {
+                    symbol = QRCodeEncoder.encode(sample, level, false);
+                } catch (IllegalArgumentException e) {
+                    continue;   // 2000 bytes do not fit at Q/H
+                }
+                assertRoundTrip(sample, symbol);
+                largest = Math.max(largest, symbol.size);
+                symbols++;
+            }
+        }
+        check(symbols >= 40, symbols + " QR symbols read back exactly (up to " + largest + "x" + largest + ")");
+
+        String[] microSamples = {"1", "12345", "A1", "HELLO", "0123456789", "SN-4711", "lot 7b", "ABCDEFGH1234", repeat("9", 35)};
+        int microSymbols = 0;
+        for (String sample : microSamples) {
+            for (char level : new char[] {'L', 'M', 'Q'}) {
+                QRCodeEncoder.Symbol symbol;
+                try {
+                    symbol = QRCodeEncoder.encode(sample, level, true);
+                } catch (IllegalArgumentException e) {
+                    continue;
+                }
+                assertRoundTrip(sample, symbol);
+                microSymbols++;
+            }
+        }
+        check(microSymbols >= 15, microSymbols + " Micro QR symbols read back exactly");
+
+        // Bit-parallel penalty matches a module-by-module evaluation
+        Random random = new Random(18004);
+        boolean penaltiesMatch = true;
+        for (int trial = 0; trial < 40; trial++) {
+            int size = 21 + 4 * random.nextInt(40);
+            int words = (size + 63) / 64;
+            long[] modules = new long[size * words];
+            boolean[][] matrix = new boolean[size][size];
+            double density = 0.2 + 0.6 * random.nextDouble();
+            for (int r = 0; r < size; r++) {
+                for (int c = 0; c < size; c++) {
+                    matrix[r][c] = random.nextDouble() < density;
+                    if (matrix[r][c]) modules[r * words + (c >>> 6)] |= 1L << (c & 63);
+                }
+            }
+            penaltiesMatch &= QRCodeEncoder.penalty(modules, size) == naivePenalty(matrix);
+        }
+        for (String sample : samples) {
+            QRCodeEncoder.Symbol symbol = QRCodeEncoder.encode(sample, 'L', false);
+            penaltiesMatch &= QRCodeEncoder.penalty(symbol.getModules(), symbol.size) == naivePenalty(toMatrix(symbol));
+        }
+        check(penaltiesMatch, "bit-parallel penalty equals module-by-module penalty");
+
+        // The chosen mask has the lowest penalty of the eight
+        QRCodeEncoder.Symbol chosen = QRCodeEncoder.encode("MASK SELECTION 0123456789", 'Q', false);
+        boolean[][] unmasked = toMatrix(chosen);
+        boolean[][] function = functionModules(chosen.size, chosen.version);
+        applyMask(unmasked, function, chosen.mask);
+        int chosenPenalty = naivePenalty(toMatrix(chosen));
+        boolean lowest = true;
+        for (int mask = 0; mask < 8; mask++) {
+            boolean[][] candidate = copy(unmasked);
+            applyMask(candidate, function, mask);
+            writeFormat(candidate, QRCodeEncoder.formatBits(2, mask));
+            lowest &= naivePenalty(candidate) >= chosenPenalty;
+        }
+        check(lowest, "mask " + chosen.mask + " has the lowest penalty");
+
+        // Cache: re-marking the same data does not re-encode
+        String serial = "PN-88213-SN-" + repeat("0", 30) + "42";
+        long start = System.nanoTime();
+        for (int i = 0; i < 200; i++) QRCodeEncoder.encodeUncached(serial + i, 1, false);
+        long encodeMicros = (System.nanoTime() - start) / 200 / 1000;
+        QRCodeEncoder.Symbol first = QRCodeEncoder.encode(serial, 'M', false);
+        start = System.nanoTime();
+        for (int i = 0; i < 10000; i++) QRCodeEncoder.encode(serial, 'M', false);
+        long cachedNanos = (System.nanoTime() - start) / 10000;
+        check(QRCodeEncoder.encode(serial, 'M', false) == first, "same data returns the cached symbol");
+        System.out.println("  encode " + encodeMicros + " us, cached lookup " + cachedNanos + " ns");
+
+        // BarcodeMark draws from the cached symbol
+        BarcodeMark mark = new BarcodeMark(0, 0, "QR Code", serial);
+        mark.setErrorCorrection("Maximum");
+        check(mark.getQRSymbol() != null && mark.getQRSymbol().errorCorrection == 'H', "Maximum maps to level H");
+        check(mark.getQRSymbol() == mark.getQRSymbol(), "mark reuses its symbol between paints");
+        mark.setData("SN-4711");
+        mark.setBarcodeType("Micro QR");
+        check(mark.getQRSymbol() != null && mark.getQRSymbol().micro, "Micro QR type encodes Micro QR");
+        java.awt.image.BufferedImage image = new java.awt.image.BufferedImage(200, 200, java.awt.image.BufferedImage.TYPE_INT_RGB);
+        java.awt.Graphics2D g = image.createGraphics();
+        mark.draw(g, false);
+        g.dispose();
+
+        System.out.println("\nAll QRCodeEncoder checks passed.");
+    }
+
+    // ==================== READER ====================
+
+    private static void assertRoundTrip(String expected, QRCodeEncoder.Symbol symbol) {
+        String decoded = symbol.micro ? readMicro(toMatrix(symbol)) : read(toMatrix(symbol));
+        if (!expected.equals(decoded)) {
+            throw new AssertionError("FAILED: round trip of '" + abbreviate(expected) + "' (" + symbol
+                + ") read '" + abbreviate(decoded) + "'");
+        }
+    }
+
+    private static String read(boolean[][] matrix) {
+        int size = matrix.length;
+        int version = (size - 17) / 4;
+
+        // Format information (first copy), matched against all 32 codes
+        int format = 0;
+        for (int i = 0; i < 15; i++) {
+            int[] p = formatPosition(i);
+            if (matrix[p[1]][p[0]]) format |= 1 << i;
+        }
+        int level = -1, mask = -1;
+        for (int l = 0; l < 4; l++) {
+            for (int m = 0; m < 8; m++) {
+                if ((bch(QR_LEVEL_BITS[l] << 3 | m, 0x537, 10) ^ 0x5412) != format) continue;
+                level = l;
+                mask = m;
+            }
+        }
+        if (level < 0) return "<bad format " + Integer.toBinaryString(format) + ">";
+
+        boolean[][] function = functionModules(size, version);
+        boolean[][] data = copy(matrix);
+        applyMask(data, function, mask);
+        int[] raw = readCodewords(data, function, false, rawModules(version) / 8 * 8);
+
+        // De-interleave and check every block's syndromes
+        int blocks = BLOCKS[level][version];
+        int ecc = ECC_PER_BLOCK[level][version];
+        int total = raw.length;
+        int shortBlocks = blocks - total % blocks;
+        int shortData = total / blocks - ecc;
+        int[][] blockCodewords = new int[blocks][];
+        for (int b = 0; b < blocks; b++) blockCodewords[b] = new int[shortData + (b < shortBlocks ? 0 : 1) + ecc];
+        int index = 0;
+        for (int i = 0; i <= shortData; i++) {
+            for (int b = 0; b < blocks; b++) {
+                if (i < shortData || b >= shortBlocks) blockCodewords[b][i] = raw[index++];
+            }
+        }
+        for (int i = 0; i < ecc; i++) {
+            for (int b = 0; b < blocks; b++) blockCodewords[b][blockCodewords[b].length - ecc + i] = raw[index++];
+        }
+        ByteArrayOutputStream dataCodewords = new ByteArrayOutputStream();
+        for (int[] block : blockCodewords) {
+            if (!syndromesZero(block, ecc)) return "<Reed-Solomon error>";
+            for (int i = 0; i < block.length - ecc; i++) dataCodewords.write(block[i]);
+        }
+        return parseSegments(dataCodewords.toByteArray(), false, version);
+    }
+
+    private static String readMicro(boolean[][] matrix) {
+        int size = matrix.length;
+        int format = 0;
+        for (int i = 0; i < 15; i++) {
+            int column = i < 8 ? 8 : 15 - i;
+            int row = i < 8 ? i + 1 : 8;
+            if (matrix[row][column]) format |= 1 << i;
+        }
+        int symbolNumber = -1, mask = -1;
+        for (int s = 0; s < 8; s++) {
+            for (int m = 0; m < 4; m++) {
+                if ((bch(s << 2 | m, 0x537, 10) ^ 0x4445) == format) {
+                    symbolNumber = s;
+                    mask = m;
+                }
+            }
+        }
+        if (symbolNumber < 0) return "<bad format>";
+        int version = MICRO_SYMBOLS[symbolNumber][0];
+        int level = MICRO_SYMBOLS[symbolNumber][1];
+        if (size != 9 + 2 * version) return "<size mismatch>";
+
+        boolean[][] function = new boolean[size][size];
+        for (int r = 0; r < size; r++) {
+            for (int c = 0; c < size; c++) function[r][c] = (r < 9 && c < 9) || r == 0 || c == 0;
+        }
+        boolean[][] data = copy(matrix);
+        int[] microMasks = {1, 4, 6, 7};
+        applyMask(data, function, microMasks[mask]);
+
+        int dataCount = MICRO_DATA[level][version];
+        boolean half = version == 1 || version == 3;
+        int eccCount = MICRO_TOTAL[version] - dataCount;
+        int[] bits = readBits(data, function, true);
+        int[] codewords = new int[dataCount + eccCount];
+        int position = 0;
+        for (int i = 0; i < codewords.length; i++) {
+            int width = half && i == dataCount - 1 ? 4 : 8;
+            int value = 0;
+            for (int b = 0; b < width; b++) value = value << 1 | bits[position++];
+            codewords[i] = value << (8 - width);
+        }
+        if (!syndromesZero(codewords, eccCount)) return "<Reed-Solomon error>";
+        byte[] dataBytes = new byte[dataCount];
+        for (int i = 0; i < dataCount; i++) dataBytes[i] = (byte) codewords[i];
+        return parseSegments(dataBytes, true, version);
+    }
+
+    private static String parseSegments(byte[] bytes, boolean micro, int version) {
+        int totalBits = bytes.length * 8;
+        int[] position = {0};
+        StringBuilder text = new StringBuilder();
+        int indicatorBits = micro ? version - 1 : 4;
+        int terminator = micro ? 2 * version + 1 : 4;
+        while (totalBits - position[0] >= Math.max(indicatorBits, 1)) {
+            if (totalBits - position[0] < terminator || peek(bytes, position[0], terminator) == 0) break;
+            int indicator = readBits(bytes, position, indicatorBits);
+            int mode = micro ? indicator : indicator == 1 ? 0 : indicator == 2 ? 1 : indicator == 4 ? 2 : -1;
+            if (mode < 0) return text + "<mode " + indicator + ">";
+            int range = version <= 9 ? 0 : version <= 26 ? 1 : 2;
+            int countBits = micro ? new int[][] {{0, 3, 4, 5, 6}, {0, 0, 3, 4, 5}, {0, 0, 0, 4, 5}}[mode][version]
+                                  : new int[][] {{10, 12, 14}, {9, 11, 13}, {8, 16, 16}}[mode][range];
+            int count = readBits(bytes, position, countBits);
+            if (mode == 0) {
+                for (int i = 0; i < count; i += 3) {
+                    int digits = Math.min(3, count - i);
+                    String value = String.valueOf(readBits(bytes, position, digits * 3 + 1));
+                    while (value.length() < digits) value = "0" + value;
+                    text.append(value);
+                }
+            } else if (mode == 1) {
+                for (int i = 0; i < count; i += 2) {
+                    if (i + 1 < count) {
+                        int value = readBits(bytes, position, 11);
+                        text.append(ALPHANUMERIC.charAt(value / 45)).append(ALPHANUMERIC.charAt(value % 45));
+                    } else {
+                        text.append(ALPHANUMERIC.charAt(readBits(bytes, position, 6)));
+                    }
+                }
+            } else {
+                byte[] segment = new byte[count];
+                for (int i = 0; i < count; i++) segment[i] = (byte) readBits(bytes, position, 8);
+                text.append(decodeBytes(segment));
+            }
+        }
+        return text.toString();
+    }
+
+    /** UTF-8 when the bytes are valid UTF-8 with a multi-byte sequence, ISO-8859-1 otherwise. */
+    private static String decodeBytes(byte[] segment) {
+        String utf8 = new String(segment, StandardCharsets.UTF_8);
+        boolean multiByte = false;
+        for (byte b : segment) multiByte |= b < 0;
+        if (multiByte && !utf8.contains("�")) return utf8;
+        return new String(segment, StandardCharsets.ISO_8859_1);
+    }
+
+    private static int[] readCodewords(boolean[][] data, boolean[][] function, boolean micro, int bitCount) {
+        int[] bits = readBits(data, function, micro);
+        int[] codewords = new int[bitCount / 8];
+        for (int i = 0; i < codewords.length; i++) {
+            for (int b = 0; b < 8; b++) codewords[i] = codewords[i] << 1 | bits[i * 8 + b];
+        }
+        return codewords;
+    }
+
+    private static int[] readBits(boolean[][] data, boolean[][] function, boolean micro) {
+        int size = data.length;
+        int[] bits = new int[size * size];
+        int count = 0;
+        boolean upward = true;
+        for (int right = size - 1; right >= 1; right -= 2) {
+            if (!micro && right == 6) right = 5;
+            for (int v = 0; v < size; v++) {
+                int row = upward ? size - 1 - v : v;
+                for (int column = right; column > right - 2; column--) {
+                    if (!function[row][column]) bits[count++] = data[row][column] ? 1 : 0;
+                }
+            }
+            upward = !upward;
+        }
+        return Arrays.copyOf(bits, count);
+    }
+
+    private static boolean[][] functionModules(int size, int version) {
+        boolean[][] function = new boolean[size][size];
+        for (int r = 0; r < size; r++) {
+            for (int c = 0; c < size; c++) {
+                function[r][c] = (r < 9 && c < 9) || (r < 9 && c >= size - 8) || (r >= size - 8 && c < 9)
+                                 || r == 6 || c == 6
+                                 || (version >= 7 && ((r < 6 && c >= size - 11 && c < size - 8)
+                                                      || (c < 6 && r >= size - 11 && r < size - 8)));
+            }
+        }
+        if (version > 1) {
+            int count = version / 7 + 2;
+            int step = version == 32 ? 26 : (version * 4 + count * 2 + 1) / (count * 2 - 2) * 2;
+            int[] positions = new int[count];
+            positions[0] = 6;
+            for (int i = count - 1; i >= 1; i--) positions[i] = size - 7 - (count - 1 - i) * step;
+            for (int a : positions) {
+                for (int b : positions) {
+                    if ((a == 6 && b == 6) || (a == 6 && b == size - 7) || (a == size - 7 && b == 6)) continue;
+                    for (int r = a - 2; r <= a + 2; r++) {
+                        for (int c = b - 2; c <= b + 2; c++) function[r][c] = true;
+                    }
+                }
+            }
+        }
+        return function;
+    }
+
+    private static void applyMask(boolean[][] matrix, boolean[][] function, int mask) {
+        for (int r = 0; r < matrix.length; r++) {
+            for (int c = 0; c < matrix.length; c++) {
+                if (function[r][c]) continue;
+                boolean invert;
+                switch (mask) {
+                    case 0: invert = (r + c) % 2 == 0; break;
+                    case 1: invert = r % 2 == 0; break;
+                    case 2: invert = c % 3 == 0; break;
+                    case 3: invert = (r + c) % 3 == 0; break;
+                    case 4: invert = (r / 2 + c / 3) % 2 == 0; break;
+                    case 5: invert = (r * c) % 2 + (r * c) % 3 == 0; break;
+                    case 6: invert = ((r * c) % 2 + (r * c) % 3) % 2 == 0; break;
+                    default: invert = ((r + c) % 2 + (r * c) % 3) % 2 == 0; break;
+                }
+                if (invert) matrix[r][c] = !matrix[r][c];
+            }
+        }
+    }
+
+    private static int[] formatPosition(int i) {
+        if (i < 6) return new int[] {8, i};
+        if (i < 8) return new int[] {8, i + 1};
+        if (i == 8) return new int[] {7, 8};
+        return new int[] {14 - i, 8};
+    }
+
+    private static void writeFormat(boolean[][] matrix, int bits) {
+        int size = matrix.length;
+        for (int i = 0; i < 15; i++) {
+            boolean bit = (bits >>> i & 1) != 0;
+            int[] p = formatPosition(i);
+            matrix[p[1]][p[0]] = bit;
+            if (i < 8) matrix[8][size - 1 - i] = bit;
+            else matrix[size - 15 + i][8] = bit;
+        }
+    }
+
+    private static int naivePenalty(boolean[][] m) {
+        int size = m.length;
+        int penalty = 0;
+        for (int pass = 0; pass < 2; pass++) {
+            for (int i = 0; i < size; i++) {
+                boolean[] line = new boolean[size];
+                for (int j = 0; j < size; j++) line[j] = pass == 0 ? m[i][j] : m[j][i];
+                int run = 1;
+                for (int j = 1; j <= size; j++) {
+                    if (j < size && line[j] == line[j - 1]) {
+                        run++;
+                    } else {
+                        if (run >= 5) penalty += run - 2;
+                        run = 1;
+                    }
+                }
+                boolean[] padded = new boolean[size + 8];
+                System.arraycopy(line, 0, padded, 4, size);
+                String text = toBits(padded);
+                for (int p = 0; p + 11 <= text.length(); p++) {
+                    String window = text.substring(p, p + 11);
+                    if (window.equals("10111010000")) penalty += 40;
+                    if (window.equals("00001011101")) penalty += 40;
+                }
+            }
+        }
+        for (int r = 0; r + 1 < size; r++) {
+            for (int c = 0; c + 1 < size; c++) {
+                boolean v = m[r][c];
+                if (m[r][c + 1] == v && m[r + 1][c] == v && m[r + 1][c + 1] == v) penalty += 3;
+            }
+        }
+        int dark = 0;
+        for (boolean[] row : m) for (boolean b : row) if (b) dark++;
+        int total = size * size;
+        penalty += ((Math.abs(dark * 20 - total * 10) + total - 1) / total - 1) * 10;
+        return penalty;
+    }
+
+    // ==================== HELPERS ====================
+
+    private static boolean syndromesZero(int[] codewords, int ecc) {
+        for (int j = 0; j < ecc; j++) {
+            int syndrome = 0;
+            int alpha = gfPow(j);
+            for (int c : codewords) syndrome = gfMultiply(syndrome, alpha) ^ c;
+            if (syndrome != 0) return false;
+        }
+        return true;
+    }
+
+    private static int gfPow(int exponent) {
+        int value = 1;
+        for (int i = 0; i < exponent; i++) value = gfMultiply(value, 2);
+        return value;
+    }
+
+    private static int gfMultiply(int a, int b) {
+        int result = 0;
+        while (b != 0) {
+            if ((b & 1) != 0) result ^= a;
+            a <<= 1;
+            if (a >= 256) a ^= 0x11D;
+            b >>= 1;
+        }
+        return result;
+    }
+
+    private static int bch(int data, int generator, int degree) {
+        int value = data << degree;
+        for (int bit = 14 + (degree - 10); bit >= degree; bit--) {
+            if ((value >>> bit & 1) != 0) value ^= generator << (bit - degree);
+        }
+        return data << degree | value;
+    }
+
+    private static int rawModules(int version) {
+        int result = (16 * version + 128) * version + 64;
+        if (version >= 2) {
+            int count = version / 7 + 2;
+            result -= (25 * count - 10) * count - 55;
+            if (version >= 7) result -= 36;
+        }
+        return result;
+    }
+
+    private static int readBits(byte[] bytes, int[] position, int count) {
+        int value = peek(bytes, position[0], count);
+        position[0] += count;
+        return value;
+    }
+
+    private static int peek(byte[] bytes, int position, int count) {
+        int value = 0;
+        for (int i = 0; i < count; i++) {
+            int index = position + i;
+            int bit = index < bytes.length * 8 ? (bytes[index >>> 3] >>> (7 - (index & 7))) & 1 : 0;
+            value = value << 1 | bit;
+        }
+        return value;
+    }
+
+    private static boolean[][] toMatrix(QRCodeEncoder.Symbol symbol) {
+        boolean[][] matrix = new boolean[symbol.size][symbol.size];
+        for (int r = 0; r < symbol.size; r++) {
+            for (int c = 0; c < symbol.size; c++) matrix[r][c] = symbol.isDark(r, c);
+        }
+        return matrix;
+    }
+
+    private static boolean[][] copy(boolean[][] matrix) {
+        boolean[][] result = new boolean[matrix.length][];
+        for (int i = 0; i < matrix.length; i++) result[i] = matrix[i].clone();
+        return result;
+    }
+
+    private static String toBits(boolean[] line) {
+        StringBuilder builder = new StringBuilder(line.length);
+        for (boolean b : line) builder.append(b ? '1' : '0');
+        return builder.toString();
+    }
+
+    private static boolean fails(String data, char level, boolean micro) {
+        try {
+            QRCodeEncoder.encode(data, level, micro);
+            return false;
+        } catch (IllegalArgumentException e) {
+            return true;
+        }
+    }
+
+    private static String abbreviate(String text) {
+        return text.length() > 40 ? text.substring(0, 40) + "..." : text;
+    }
+
+    private static String repeat(String text, int count) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < count; i++) builder.append(text);
+        return builder.toString();
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError("FAILED: " + message);
+        }
+        System.out.println("✓ " + message);
+    }
+}
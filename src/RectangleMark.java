@@ -34,10 +34,12 @@ public class RectangleMark extends Mark {
     }
     
     public void setFillColor(Color color) {
+        markChanged();
         this.fillColor = color;
     }
     
     public void setBorderColor(Color color) {
+        markChanged();
         this.borderColor = color;
     }
 }
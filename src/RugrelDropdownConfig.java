@@ -34,12 +34,15 @@ public class RugrelDropdownConfig {
     public static final String LOCAL_SAVE_DIRECTORY = "projects";        // Default directory for local saves
     public static final boolean ENABLE_SAVE_FILE_CHOOSER = true;         // ENABLE file chooser for save location
     public static final boolean AUTO_CREATE_SAVE_DIRECTORY = true;       // ENABLE auto-create save directory if missing
+    public static final boolean ENABLE_LOCAL_AUTOSAVE = true;            // ENABLE background autosave journal for local projects
     
     // Open Destination Configuration (Soft Coded) - NEW
     public static final boolean OPEN_FROM_LOCAL_MACHINE = true;          // ENABLE local file loading (false = database loading)
     public static final boolean ENABLE_OPEN_FILE_CHOOSER = true;         // ENABLE file chooser for open dialog
     public static final String LOCAL_OPEN_DIRECTORY = "projects";        // Default directory for local opens
     public static final boolean SHOW_RECENT_LOCAL_FILES = true;          // ENABLE recent local files in Open dialog
+    public static final int RECENT_LOCAL_FILES_LIMIT = 10;               // Projects listed in the Recent Files dialog
+    public static final boolean ENABLE_PROJECT_PREVIEW = true;           // ENABLE thumbnail/info preview in open dialogs (from the project index)
     
     // New Project Destination Configuration (Soft Coded) - NEW
     public static final boolean NEW_PROJECT_TO_LOCAL_MACHINE = true;     // ENABLE new projects on local machine (false = database)
@@ -1087,6 +1090,7 @@ public class RugrelDropdownConfig {
     private static void createNewProjectAtLocation(File projectFile, String projectName) {
         try {
             System.out.println("📄 Creating new project at: " + projectFile.getAbsolutePath());
+            stopAutosaveTracking();
             
             // Clear canvas for new project (soft-coded)
             if (CLEAR_CANVAS_ON_NEW_PROJECT) {
@@ -1099,26 +1103,26 @@ public class RugrelDropdownConfig {
             
             // Auto-save new project if enabled (soft-coded)
             if (AUTO_SAVE_NEW_PROJECT) {
-                boolean success = createNewProjectFile(projectFile, projectName);
-                
-                if (success) {
-                    System.out.println("✅ New project created and saved: " + projectFile.getName());
-                    System.out.println("📊 Project creation summary:");
-                    System.out.println("   • Name: " + projectName);
-                    System.out.println("   • Location: " + projectFile.getAbsolutePath());
-                    System.out.println("   • Directory: " + projectFile.getParent());
-                    System.out.println("   • Canvas: Clean slate ready");
+                createNewProjectFile(projectFile, projectName, success -> {
+                    if (success) {
+                        System.out.println("✅ New project created and saved: " + projectFile.getName());
+                        System.out.println("📊 Project creation summary:");
+                        System.out.println("   • Name: " + projectName);
+                        System.out.println("   • Location: " + projectFile.getAbsolutePath());
+                        System.out.println("   • Directory: " + projectFile.getParent());
+                        System.out.println("   • Canvas: Clean slate ready");
                     
-                    showEnhancedDialog("Project Created", 
-                        "New project created successfully!\n\n" +
-                        "• Project: " + projectName + "\n" +
-                        "• Location: " + projectFile.getAbsolutePath() + "\n" +
-                        "• Canvas: Clean slate ready for work\n" +
-                        "• Auto-saved: Ready for immediate use", "success");
-                } else {
-                    System.err.println("❌ Failed to save new project: " + projectFile.getName());
-                    showEnhancedDialog("Error", "Failed to save new project to selected location", "error");
-                }
+                        showEnhancedDialog("Project Created", 
+                            "New project created successfully!\n\n" +
+                            "• Project: " + projectName + "\n" +
+                            "• Location: " + projectFile.getAbsolutePath() + "\n" +
+                            "• Canvas: Clean slate ready for work\n" +
+                            "• Auto-saved: Ready for immediate use", "success");
+                    } else {
+                        System.err.println("❌ Failed to save new project: " + projectFile.getName());
+                        showEnhancedDialog("Error", "Failed to save new project to selected location", "error");
+                    }
+                });
             } else {
                 // Just create the project in memory without saving
                 System.out.println("✅ New project created in memory: " + projectName);
@@ -1184,6 +1188,9 @@ public class RugrelDropdownConfig {
                 boolean success = saveProjectToDatabase(projectId, trimmedName, description);
                 
                 if (success) {
+                    // The canvas now belongs to a database project, not the tracked local file
+                    stopAutosaveTracking();
+                    
                     // Set current project name for tracking
                     setCurrentProjectName(trimmedName);
                     
@@ -1248,6 +1255,9 @@ public class RugrelDropdownConfig {
                 fileChooser.setFileFilter(new javax.swing.filechooser.FileNameExtensionFilter(
                     "RUGREL Project Files (*" + PROJECT_FILE_EXTENSION + ")", 
                     PROJECT_FILE_EXTENSION.replace(".", "")));
+                if (ENABLE_PROJECT_PREVIEW) {
+                    fileChooser.setAccessory(createProjectPreviewAccessory(fileChooser));
+                }
                 
                 int result = fileChooser.showOpenDialog(null);
                 if (result == JFileChooser.APPROVE_OPTION) {
@@ -1279,27 +1289,20 @@ public class RugrelDropdownConfig {
                     return;
                 }
                 
-                // Find all .rugrel files
-                File[] rugrelFiles = projectsDir.listFiles((dir, name) -> name.endsWith(PROJECT_FILE_EXTENSION));
+                // Indexed .rugrel files: headers only, cached between opens
+                java.util.List<ProjectIndex.Entry> projects = ProjectIndex.forDirectory(projectsDir).list();
                 
-                if (rugrelFiles == null || rugrelFiles.length == 0) {
+                if (projects.isEmpty()) {
                     showEnhancedDialog("Open Project", "No project files found in:\n" + projectsDir.getAbsolutePath() + "\n\nSave a project first.", "info");
                     return;
                 }
                 
-                // Create file selection list
-                String[] fileNames = new String[rugrelFiles.length];
-                for (int i = 0; i < rugrelFiles.length; i++) {
-                    fileNames[i] = rugrelFiles[i].getName();
-                }
-                
-                // Show file selection dialog
-                String selectedFileName = (String) JOptionPane.showInputDialog(null,
-                    "Select project file to open:", "Open Project", JOptionPane.QUESTION_MESSAGE,
-                    null, fileNames, fileNames[0]);
+                // Show project selection dialog
+                ProjectIndex.Entry selected = showProjectPicker("Open Project", "Select project file to open:", projects);
                 
-                if (selectedFileName != null) {
-                    File selectedFile = new File(projectsDir, selectedFileName);
+                if (selected != null) {
+                    File selectedFile = selected.file;
+                    String selectedFileName = selectedFile.getName();
                     
                     // Load project from selected local file
                     boolean success = loadProjectFromLocalFile(selectedFile);
@@ -1405,16 +1408,24 @@ public class RugrelDropdownConfig {
             String fileName = currentProject + PROJECT_FILE_EXTENSION;
             File saveFile = new File(LOCAL_SAVE_DIRECTORY, fileName);
             
-            // Save complete project state to local file
-            boolean success = saveProjectToLocalFile(saveFile, currentProject);
-            
-            if (success) {
-                System.out.println("✅ Project saved to local file: " + saveFile.getAbsolutePath());
-                showEnhancedDialog("Save Complete", "Project saved to:\n" + saveFile.getAbsolutePath(), "success");
-            } else {
-                System.err.println("❌ Failed to save project to local file: " + saveFile.getAbsolutePath());
+            DrawingCanvas canvas = getDrawingCanvasReference();
+            if (canvas == null) {
+                System.err.println("❌ Cannot access DrawingCanvas for local file save");
                 showEnhancedDialog("Error", "Failed to save project to local file", "error");
+                return;
             }
+            
+            // Capture on the EDT, compress and write on the autosave thread
+            ProjectAutosaveService.getInstance().saveNow(saveFile,
+                () -> captureLocalProjectState(canvas, currentProject), success -> {
+                if (success) {
+                    System.out.println("✅ Project saved to local file: " + saveFile.getAbsolutePath());
+                    showEnhancedDialog("Save Complete", "Project saved to:\n" + saveFile.getAbsolutePath(), "success");
+                } else {
+                    System.err.println("❌ Failed to save project to local file: " + saveFile.getAbsolutePath());
+                    showEnhancedDialog("Error", "Failed to save project to local file", "error");
+                }
+            });
         } catch (Exception e) {
             System.err.println("❌ Error saving project to local: " + e.getMessage());
             showEnhancedDialog("Error", "Failed to save project: " + e.getMessage(), "error");
@@ -1453,16 +1464,17 @@ public class RugrelDropdownConfig {
                     String projectName = selectedFile.getName().replace(PROJECT_FILE_EXTENSION, "");
                     
                     // Save complete project state to selected local file
-                    boolean success = saveProjectToLocalFile(selectedFile, projectName);
-                    
-                    if (success) {
-                        setCurrentProjectName(projectName);
-                        System.out.println("✅ Project saved as: " + selectedFile.getAbsolutePath());
-                        showEnhancedDialog("Save As Complete", "Project saved as:\n" + selectedFile.getAbsolutePath(), "success");
-                    } else {
-                        System.err.println("❌ Failed to save project as: " + selectedFile.getAbsolutePath());
-                        showEnhancedDialog("Error", "Failed to save project to local file", "error");
-                    }
+                    File saveFile = selectedFile;
+                    saveProjectToLocalFile(saveFile, projectName, success -> {
+                        if (success) {
+                            setCurrentProjectName(projectName);
+                            System.out.println("✅ Project saved as: " + saveFile.getAbsolutePath());
+                            showEnhancedDialog("Save As Complete", "Project saved as:\n" + saveFile.getAbsolutePath(), "success");
+                        } else {
+                            System.err.println("❌ Failed to save project as: " + saveFile.getAbsolutePath());
+                            showEnhancedDialog("Error", "Failed to save project to local file", "error");
+                        }
+                    });
                 }
             } else {
                 // Simple input dialog method
@@ -1482,16 +1494,16 @@ public class RugrelDropdownConfig {
                     File saveFile = new File(LOCAL_SAVE_DIRECTORY, fileName);
                     
                     // Save complete project state to local file
-                    boolean success = saveProjectToLocalFile(saveFile, projectName.trim());
-                    
-                    if (success) {
-                        setCurrentProjectName(projectName.trim());
-                        System.out.println("✅ Project saved as: " + saveFile.getAbsolutePath());
-                        showEnhancedDialog("Save As Complete", "Project saved as:\n" + saveFile.getAbsolutePath(), "success");
-                    } else {
-                        System.err.println("❌ Failed to save project as: " + saveFile.getAbsolutePath());
-                        showEnhancedDialog("Error", "Failed to save project to local file", "error");
-                    }
+                    saveProjectToLocalFile(saveFile, projectName.trim(), success -> {
+                        if (success) {
+                            setCurrentProjectName(projectName.trim());
+                            System.out.println("✅ Project saved as: " + saveFile.getAbsolutePath());
+                            showEnhancedDialog("Save As Complete", "Project saved as:\n" + saveFile.getAbsolutePath(), "success");
+                        } else {
+                            System.err.println("❌ Failed to save project as: " + saveFile.getAbsolutePath());
+                            showEnhancedDialog("Error", "Failed to save project to local file", "error");
+                        }
+                    });
                 }
             }
         } catch (Exception e) {
@@ -1633,6 +1645,10 @@ public class RugrelDropdownConfig {
         System.out.println("📋 Showing recent files from database...");
         
         try {
+            if (SHOW_RECENT_LOCAL_FILES && showRecentLocalProjects()) {
+                return;
+            }
+            
             java.util.List<String> recentFiles = getRecentFilesFromDatabase();
             
             if (recentFiles.isEmpty()) {
@@ -1965,7 +1981,8 @@ public class RugrelDropdownConfig {
                 return false;
             }
             
-            // Apply complete project state to canvas
+            // Apply complete project state to canvas (no longer the tracked local file)
+            stopAutosaveTracking();
             boolean stateApplied = ProjectStateManager.applyProjectState(canvas, projectState);
             
             if (!stateApplied) {
@@ -2225,6 +2242,97 @@ public class RugrelDropdownConfig {
         }
     }
     
+    /**
+     * Recent local projects from the project index (no project bodies are read).
+     * Returns false when there are none, so the caller falls back to the database list.
+     */
+    private static boolean showRecentLocalProjects() {
+        File projectsDir = new File(LOCAL_OPEN_DIRECTORY);
+        if (!projectsDir.isDirectory()) return false;
+        java.util.List<ProjectIndex.Entry> projects = ProjectIndex.forDirectory(projectsDir).list();
+        if (projects.isEmpty()) return false;
+        if (projects.size() > RECENT_LOCAL_FILES_LIMIT) {
+            projects = projects.subList(0, RECENT_LOCAL_FILES_LIMIT);
+        }
+        
+        ProjectIndex.Entry selected = showProjectPicker("Recent Files", "Select recent file to open:", projects);
+        if (selected != null) {
+            if (loadProjectFromLocalFile(selected.file)) {
+                setCurrentProjectName(selected.getBaseName());
+                System.out.println("✅ Recent file opened: " + selected.file.getName());
+                showEnhancedDialog("Recent Files", "Project '" + selected.projectName + "' opened successfully!", "success");
+            } else {
+                showEnhancedDialog("Error", "Failed to load project from local file", "error");
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Project list with thumbnails, mark counts and dates. Fixed cell sizes mean only the
+     * visible rows are rendered, and thumbnails are decoded as rows come into view.
+     */
+    private static ProjectIndex.Entry showProjectPicker(String title, String prompt, java.util.List<ProjectIndex.Entry> projects) {
+        JList<ProjectIndex.Entry> list = new JList<>(projects.toArray(new ProjectIndex.Entry[0]));
+        list.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        list.setSelectedIndex(0);
+        list.setFixedCellHeight(ProjectIndex.THUMBNAIL_HEIGHT / 2 + 8);
+        list.setFixedCellWidth(420);
+        list.setVisibleRowCount(Math.min(6, projects.size()));
+        java.util.Map<ProjectIndex.Entry, Icon> icons = new java.util.IdentityHashMap<>();
+        list.setCellRenderer(new DefaultListCellRenderer() {
+            @Override
+            public Component getListCellRendererComponent(JList<?> l, Object value, int index, boolean selected, boolean focus) {
+                ProjectIndex.Entry entry = (ProjectIndex.Entry) value;
+                JLabel label = (JLabel) super.getListCellRendererComponent(l, describeProject(entry), index, selected, focus);
+                label.setIcon(icons.computeIfAbsent(entry, e -> {
+                    java.awt.image.BufferedImage thumbnail = e.getThumbnail();
+                    return thumbnail == null ? null : new ImageIcon(thumbnail.getScaledInstance(
+                        ProjectIndex.THUMBNAIL_WIDTH / 2, ProjectIndex.THUMBNAIL_HEIGHT / 2, Image.SCALE_SMOOTH));
+                }));
+                label.setIconTextGap(10);
+                return label;
+            }
+        });
+        
+        JPanel panel = new JPanel(new BorderLayout(0, 6));
+        panel.add(new JLabel(prompt), BorderLayout.NORTH);
+        panel.add(new JScrollPane(list), BorderLayout.CENTER);
+        int result = JOptionPane.showConfirmDialog(null, panel, title, JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE);
+        return result == JOptionPane.OK_OPTION ? list.getSelectedValue() : null;
+    }
+    
+    private static String describeProject(ProjectIndex.Entry entry) {
+        String marks = entry.markCount >= 0 ? entry.markCount + " marks" : "unreadable";
+        return "<html><b>" + entry.projectName + "</b><br>" + entry.file.getName() + " &middot; " + marks
+            + " &middot; " + new java.text.SimpleDateFormat("yyyy-MM-dd HH:mm").format(entry.getModifiedDate()) + "</html>";
+    }
+    
+    /**
+     * File chooser accessory showing the selected project's thumbnail and header info.
+     */
+    private static JComponent createProjectPreviewAccessory(JFileChooser fileChooser) {
+        JLabel preview = new JLabel("", SwingConstants.CENTER);
+        preview.setVerticalTextPosition(SwingConstants.BOTTOM);
+        preview.setHorizontalTextPosition(SwingConstants.CENTER);
+        preview.setPreferredSize(new Dimension(ProjectIndex.THUMBNAIL_WIDTH + 20, ProjectIndex.THUMBNAIL_HEIGHT + 70));
+        preview.setBorder(BorderFactory.createEmptyBorder(0, 10, 0, 0));
+        fileChooser.addPropertyChangeListener(JFileChooser.SELECTED_FILE_CHANGED_PROPERTY, e -> {
+            File file = (File) e.getNewValue();
+            ProjectIndex.Entry entry = file != null && ProjectIndex.isProjectFileName(file.getName())
+                ? ProjectIndex.forDirectory(file.getAbsoluteFile().getParentFile()).get(file) : null;
+            if (entry == null) {
+                preview.setIcon(null);
+                preview.setText("");
+            } else {
+                java.awt.image.BufferedImage thumbnail = entry.getThumbnail();
+                preview.setIcon(thumbnail != null ? new ImageIcon(thumbnail) : null);
+                preview.setText(describeProject(entry));
+            }
+        });
+        return preview;
+    }
+    
     /**
      * Get Recent Files from Real Database (Enhanced Integration)
      */
@@ -2356,6 +2464,7 @@ public class RugrelDropdownConfig {
      */
     private static void clearCanvasForNewProject() {
         System.out.println("🆕 Clearing canvas for new project...");
+        stopAutosaveTracking();
         
         try {
             DrawingCanvas canvas = MarkingInterfaceApp.getDrawingCanvas();
@@ -2379,15 +2488,7 @@ public class RugrelDropdownConfig {
                 // Clear undo/redo stacks if enabled
                 if (ENABLE_UNDO_STACK_CLEAR) {
                     try {
-                        java.lang.reflect.Field undoStackField = canvas.getClass().getDeclaredField("undoStack");
-                        undoStackField.setAccessible(true);
-                        java.util.Stack<?> undoStack = (java.util.Stack<?>) undoStackField.get(canvas);
-                        undoStack.clear();
-                        
-                        java.lang.reflect.Field redoStackField = canvas.getClass().getDeclaredField("redoStack");
-                        redoStackField.setAccessible(true);
-                        java.util.Stack<?> redoStack = (java.util.Stack<?>) redoStackField.get(canvas);
-                        redoStack.clear();
+                        canvas.clearUndoHistory();
                         
                         System.out.println("🔄 Undo/Redo stacks cleared");
                     } catch (Exception e) {
@@ -2747,10 +2848,70 @@ public class RugrelDropdownConfig {
         }
     }
     
+    /**
+     * Build the project state for a local save from the canvas (call on the EDT)
+     */
+    private static ProjectState captureLocalProjectState(DrawingCanvas canvas, String projectName) {
+        // Create project state container
+        ProjectState projectState = new ProjectState();
+        projectState.projectName = projectName;
+        projectState.projectId = generateProjectId();
+        
+        // Serialize canvas state if enabled (matching existing pattern)
+        if (ENABLE_CANVAS_STATE_SERIALIZATION) {
+            if (ENABLE_MARKS_SERIALIZATION) {
+                projectState.marks = getCanvasMarks(canvas);
+            }
+            
+            if (ENABLE_TEXT_MARKS_SERIALIZATION) {
+                projectState.textMarks = getCanvasTextMarks(canvas);
+            }
+            
+            if (ENABLE_ZOOM_STATE_SERIALIZATION) {
+                projectState.zoomLevel = getCanvasZoomLevel(canvas);
+            }
+            
+            if (ENABLE_VIEW_POSITION_SERIALIZATION) {
+                projectState.viewOffsetX = getCanvasViewOffsetX(canvas);
+                projectState.viewOffsetY = getCanvasViewOffsetY(canvas);
+            }
+        }
+        
+        // Additional canvas visual settings (matching existing method names)
+        projectState.gridVisible = getCanvasGridVisible(canvas);
+        projectState.materialBoundaryVisible = getCanvasMaterialBoundaryVisible(canvas);
+        projectState.dotPreviewEnabled = getCanvasDotPreviewEnabled(canvas);
+        return projectState;
+    }
+    
+    /**
+     * Stop autosaving into the tracked project file; call before the canvas is cleared or
+     * filled from anything other than that file, so it is never overwritten with another project.
+     */
+    private static void stopAutosaveTracking() {
+        if (!ENABLE_LOCAL_AUTOSAVE) return;
+        ProjectAutosaveService.getInstance().stopTracking();
+    }
+    
+    /**
+     * Autosave the canvas into a local project file from now on (background journal + compaction)
+     */
+    private static void trackProjectForAutosave(File projectFile, String projectName, boolean compactNow) {
+        if (!ENABLE_LOCAL_AUTOSAVE) return;
+        DrawingCanvas canvas = getDrawingCanvasReference();
+        if (canvas == null) return;
+        ProjectAutosaveService.getInstance().track(projectFile,
+            () -> captureLocalProjectState(canvas, projectName), compactNow);
+    }
+    
     /**
      * Save Project to Local File (Soft Coded Alternative to Database)
+     *
+     * Captures the canvas on the EDT; compression, thumbnail and the atomic write run on the
+     * autosave thread, which keeps autosaving into the file afterwards. onDone gets the
+     * result on the EDT.
      */
-    public static boolean saveProjectToLocalFile(File saveFile, String projectName) {
+    public static void saveProjectToLocalFile(File saveFile, String projectName, java.util.function.Consumer<Boolean> onDone) {
         try {
             System.out.println("💾 Saving project to local file: " + saveFile.getAbsolutePath());
             
@@ -2758,66 +2919,37 @@ public class RugrelDropdownConfig {
             DrawingCanvas canvas = getDrawingCanvasReference();
             if (canvas == null) {
                 System.err.println("❌ Cannot access DrawingCanvas for local file save");
-                return false;
+                onDone.accept(false);
+                return;
             }
             
-            // Create project state container
-            ProjectState projectState = new ProjectState();
-            projectState.projectName = projectName;
-            projectState.projectId = generateProjectId();
+            ProjectState projectState = captureLocalProjectState(canvas, projectName);
+            System.out.println("📝 Serialized " + projectState.marks.size() + " marks for local save");
             
-            // Serialize canvas state if enabled (matching existing pattern)
-            if (ENABLE_CANVAS_STATE_SERIALIZATION) {
-                if (ENABLE_MARKS_SERIALIZATION) {
-                    projectState.marks = getCanvasMarks(canvas);
-                    System.out.println("📝 Serialized " + projectState.marks.size() + " marks for local save");
-                }
-                
-                if (ENABLE_TEXT_MARKS_SERIALIZATION) {
-                    projectState.textMarks = getCanvasTextMarks(canvas);
-                }
-                
-                if (ENABLE_ZOOM_STATE_SERIALIZATION) {
-                    projectState.zoomLevel = getCanvasZoomLevel(canvas);
-                }
-                
-                if (ENABLE_VIEW_POSITION_SERIALIZATION) {
-                    projectState.viewOffsetX = getCanvasViewOffsetX(canvas);
-                    projectState.viewOffsetY = getCanvasViewOffsetY(canvas);
+            // Write in the background (BINARY format for complete preservation)
+            ProjectAutosaveService.getInstance().saveNow(saveFile, projectState,
+                () -> captureLocalProjectState(canvas, projectName), success -> {
+                if (success) {
+                    System.out.println("✅ Project saved to local file: " + saveFile.getName());
+                    System.out.println("📊 Local save details:");
+                    System.out.println("   • File: " + saveFile.getAbsolutePath());
+                    System.out.println("   • Marks: " + (projectState.marks != null ? projectState.marks.size() : 0));
+                    System.out.println("   • Zoom: " + String.format("%.0f%%", projectState.zoomLevel * 100));
+                    System.out.println("   • Format: Binary (complete preservation)");
                 }
-            }
-            
-            // Additional canvas visual settings (matching existing method names)
-            projectState.gridVisible = getCanvasGridVisible(canvas);
-            projectState.materialBoundaryVisible = getCanvasMaterialBoundaryVisible(canvas);
-            projectState.dotPreviewEnabled = getCanvasDotPreviewEnabled(canvas);
-            
-            // Save project state directly to local file (BINARY format for complete preservation)
-            boolean success = saveProjectStateToLocalFile(projectState, saveFile);
-            
-            if (success) {
-                System.out.println("✅ Project saved to local file: " + saveFile.getName());
-                System.out.println("📊 Local save details:");
-                System.out.println("   • File: " + saveFile.getAbsolutePath());
-                System.out.println("   • Marks: " + (projectState.marks != null ? projectState.marks.size() : 0));
-                System.out.println("   • Zoom: " + String.format("%.0f%%", projectState.zoomLevel * 100));
-                System.out.println("   • Format: Binary (complete preservation)");
-                return true;
-            }
-            
-            return false;
-            
+                onDone.accept(success);
+            });
         } catch (Exception e) {
             System.err.println("❌ Error saving project to local file: " + e.getMessage());
             e.printStackTrace();
-            return false;
+            onDone.accept(false);
         }
     }
     
     /**
-     * Create New Project File (Local Machine)
+     * Create New Project File (Local Machine) - written on the autosave thread, onDone on the EDT
      */
-    private static boolean createNewProjectFile(File projectFile, String projectName) {
+    private static void createNewProjectFile(File projectFile, String projectName, java.util.function.Consumer<Boolean> onDone) {
         try {
             System.out.println("📄 Creating new project file: " + projectFile.getName());
             
@@ -2838,53 +2970,33 @@ public class RugrelDropdownConfig {
             projectState.materialBoundaryVisible = false;
             projectState.dotPreviewEnabled = false;
             
-            // Save new project state to file
-            boolean success = saveProjectStateToLocalFile(projectState, projectFile);
-            
-            if (success) {
-                System.out.println("✅ New project file created: " + projectFile.getName());
-                System.out.println("📊 New project details:");
-                System.out.println("   • Name: " + projectName);
-                System.out.println("   • File: " + projectFile.getAbsolutePath());
-                System.out.println("   • Marks: 0 (clean slate)");
-                System.out.println("   • Zoom: 100%");
-                System.out.println("   • Grid: Enabled");
-                return true;
-            } else {
-                System.err.println("❌ Failed to create new project file");
-                return false;
-            }
-        } catch (Exception e) {
-            System.err.println("❌ Error creating new project file: " + e.getMessage());
-            e.printStackTrace();
-            return false;
-        }
-    }
-
-    /**
-     * Save Project State to Local File (Binary Format)
-     */
-    private static boolean saveProjectStateToLocalFile(ProjectState projectState, File saveFile) {
-        try {
-            // Ensure parent directory exists
-            File parentDir = saveFile.getParentFile();
-            if (parentDir != null && !parentDir.exists()) {
-                parentDir.mkdirs();
+            DrawingCanvas canvas = getDrawingCanvasReference();
+            if (canvas == null) {
+                System.err.println("❌ Cannot access DrawingCanvas for new project file");
+                onDone.accept(false);
+                return;
             }
             
-            // Save using Java serialization for complete object preservation
-            try (java.io.FileOutputStream fos = new java.io.FileOutputStream(saveFile);
-                 java.io.ObjectOutputStream oos = new java.io.ObjectOutputStream(fos)) {
-                
-                oos.writeObject(projectState);
-                oos.flush();
-                System.out.println("💾 Project state written to local file: " + saveFile.getName());
-                return true;
-            }
+            // Save new project state to file, then autosave the canvas into it
+            ProjectAutosaveService.getInstance().saveNow(projectFile, projectState,
+                () -> captureLocalProjectState(canvas, projectName), success -> {
+                if (success) {
+                    System.out.println("✅ New project file created: " + projectFile.getName());
+                    System.out.println("📊 New project details:");
+                    System.out.println("   • Name: " + projectName);
+                    System.out.println("   • File: " + projectFile.getAbsolutePath());
+                    System.out.println("   • Marks: 0 (clean slate)");
+                    System.out.println("   • Zoom: 100%");
+                    System.out.println("   • Grid: Enabled");
+                } else {
+                    System.err.println("❌ Failed to create new project file");
+                }
+                onDone.accept(success);
+            });
         } catch (Exception e) {
-            System.err.println("❌ Error writing project state to local file: " + e.getMessage());
+            System.err.println("❌ Error creating new project file: " + e.getMessage());
             e.printStackTrace();
-            return false;
+            onDone.accept(false);
         }
     }
 
@@ -2900,8 +3012,12 @@ public class RugrelDropdownConfig {
                 return false;
             }
             
-            // Load project state from local file
+            // Load project state from local file, replaying autosaved changes not yet compacted
+            boolean recovered = ENABLE_LOCAL_AUTOSAVE && ProjectAutosaveService.hasRecoverableChanges(projectFile);
             ProjectState projectState = loadProjectStateFromLocalFile(projectFile);
+            if (recovered) {
+                projectState = ProjectAutosaveService.recover(projectFile, projectState);
+            }
             if (projectState == null) {
                 System.err.println("❌ Failed to load project state from file: " + projectFile.getName());
                 return false;
@@ -2919,6 +3035,9 @@ public class RugrelDropdownConfig {
                 return false;
             }
             
+            // Tracking resumes for this file once it is restored
+            stopAutosaveTracking();
+            
             // Restore complete canvas state if serialization is enabled
             if (ENABLE_CANVAS_STATE_SERIALIZATION) {
                 if (ENABLE_MARKS_SERIALIZATION && projectState.marks != null) {
@@ -2947,6 +3066,8 @@ public class RugrelDropdownConfig {
             // Force canvas repaint to show loaded state
             canvas.repaint();
             
+            trackProjectForAutosave(projectFile, projectFile.getName().replace(PROJECT_FILE_EXTENSION, ""), recovered);
+            
             System.out.println("✅ Complete project state restored from local file: " + projectFile.getName());
             return true;
             
@@ -2964,22 +3085,12 @@ public class RugrelDropdownConfig {
         try {
             System.out.println("📂 Reading project state from: " + projectFile.getName());
             
-            // Load using Java serialization for complete object restoration
-            try (java.io.FileInputStream fis = new java.io.FileInputStream(projectFile);
-                 java.io.ObjectInputStream ois = new java.io.ObjectInputStream(fis)) {
-                
-                Object obj = ois.readObject();
-                if (obj instanceof ProjectState) {
-                    ProjectState projectState = (ProjectState) obj;
-                    System.out.println("📊 Local file project state loaded:");
-                    System.out.println("   • Project: " + projectState.projectName);
-                    System.out.println("   • Format: Binary (complete preservation)");
-                    return projectState;
-                } else {
-                    System.err.println("❌ Invalid project file format: " + projectFile.getName());
-                    return null;
-                }
-            }
+            // Binary project format, with fallback for files saved by Java serialization
+            ProjectState projectState = ProjectBinaryCodec.load(projectFile);
+            System.out.println("📊 Local file project state loaded:");
+            System.out.println("   • Project: " + projectState.projectName);
+            System.out.println("   • Format: Binary (complete preservation)");
+            return projectState;
         } catch (Exception e) {
             System.err.println("❌ Error reading project state from local file: " + e.getMessage());
             e.printStackTrace();
@@ -3013,7 +3124,8 @@ public class RugrelDropdownConfig {
                 return false;
             }
             
-            // Clear current canvas state
+            // Clear current canvas state (no longer the tracked local file)
+            stopAutosaveTracking();
             clearCanvasForRestore(canvas);
             
             // Restore canvas state
@@ -3022,6 +3134,9 @@ public class RugrelDropdownConfig {
                 System.out.println("✅ Restored " + projectState.marks.size() + " marks");
             }
             
+            // Release image assets left over from the previous project
+            canvas.pruneImageAssets();
+            
             if (ENABLE_TEXT_MARKS_SERIALIZATION && projectState.textMarks != null) {
                 restoreCanvasTextMarks(canvas, projectState.textMarks);
                 System.out.println("✅ Restored " + projectState.textMarks.size() + " text marks");
@@ -3328,21 +3443,16 @@ public class RugrelDropdownConfig {
             java.io.File projectFile = new java.io.File(projectDir, fileName);
             
             // Save with compression
-            try (java.io.FileOutputStream fos = new java.io.FileOutputStream(projectFile);
-                 java.util.zip.GZIPOutputStream gzos = new java.util.zip.GZIPOutputStream(fos);
-                 java.io.ObjectOutputStream oos = new java.io.ObjectOutputStream(gzos)) {
-                
-                oos.writeObject(projectState);
-                System.out.println("✅ Project state saved with compression: " + projectFile.getAbsolutePath());
-                
-                // Create backup if enabled
-                if (ENABLE_AUTO_PROJECT_BACKUP) {
-                    createProjectBackup(projectFile, projectName);
-                }
-                
-                return true;
+            ProjectBinaryCodec.save(projectState, projectFile, true);
+            System.out.println("✅ Project state saved with compression: " + projectFile.getAbsolutePath());
+            
+            // Create backup if enabled
+            if (ENABLE_AUTO_PROJECT_BACKUP) {
+                createProjectBackup(projectFile, projectName);
             }
             
+            return true;
+            
         } catch (Exception e) {
             System.err.println("❌ Error saving project state to file: " + e.getMessage());
             return false;
@@ -3366,14 +3476,10 @@ public class RugrelDropdownConfig {
             java.io.File projectFile = new java.io.File(projectDir, fileName);
             
             // Save without compression
-            try (java.io.FileOutputStream fos = new java.io.FileOutputStream(projectFile);
-                 java.io.ObjectOutputStream oos = new java.io.ObjectOutputStream(fos)) {
-                
-                oos.writeObject(projectState);
-                System.out.println("✅ Project state saved uncompressed: " + projectFile.getAbsolutePath());
-                
-                return true;
-            }
+            ProjectBinaryCodec.save(projectState, projectFile, false);
+            System.out.println("✅ Project state saved uncompressed: " + projectFile.getAbsolutePath());
+            
+            return true;
             
         } catch (Exception e) {
             System.err.println("❌ Error saving project state to file: " + e.getMessage());
@@ -3490,17 +3596,9 @@ public class RugrelDropdownConfig {
      * Create project backup
      */
     private static void createProjectBackup(java.io.File projectFile, String projectName) {
-        try {
-            String backupFileName = projectName.replaceAll("[^a-zA-Z0-9._-]", "_") + "_backup_" + 
-                                    System.currentTimeMillis() + PROJECT_FILE_EXTENSION;
-            java.io.File backupFile = new java.io.File(PROJECT_DATA_DIRECTORY, backupFileName);
-            
-            java.nio.file.Files.copy(projectFile.toPath(), backupFile.toPath());
-            System.out.println("💾 Project backup created: " + backupFile.getAbsolutePath());
-            
-        } catch (Exception e) {
-            System.err.println("⚠️ Warning: Could not create project backup: " + e.getMessage());
-        }
+        // Hard-linked, retention-bounded backups (see ProjectAutosaveService.MAX_BACKUPS)
+        ProjectAutosaveService.createBackup(projectFile);
+        System.out.println("💾 Project backup created for: " + projectName);
     }
     
     /**
@@ -637,6 +637,7 @@ public class RulerMark extends Mark {
     
     @Override
     public void resizeTo(int newWidth, int newHeight) {
+        markChanged();
         // Check lock size flag before allowing resize
         if (lockSize && RugrelDropdownConfig.ENABLE_LOCK_SIZE_FUNCTIONALITY) {
             if (RugrelDropdownConfig.SHOW_SIZE_LOCK_FEEDBACK) {
@@ -665,6 +666,7 @@ public class RulerMark extends Mark {
     // Core dimension properties
     public int getRulerLength() { return rulerLength; }
     public void setRulerLength(int length) { 
+        markChanged();
         this.rulerLength = Math.max(50, length);
         this.width = this.rulerLength;
         updateScaleHeights();
@@ -672,61 +674,66 @@ public class RulerMark extends Mark {
     
     public int getRulerHeight() { return rulerHeight; }
     public void setRulerHeight(int height) { 
+        markChanged();
         this.rulerHeight = Math.max(20, height);
         this.height = this.rulerHeight;
         updateScaleHeights();
     }
     
     public int getScaleSize() { return scaleSize; }
-    public void setScaleSize(int scaleSize) { this.scaleSize = Math.max(1, scaleSize); }
+    public void setScaleSize(int scaleSize) { this.scaleSize = Math.max(1, scaleSize); markChanged(); }
     
     public int getScaleValue() { return scaleValue; }
-    public void setScaleValue(int scaleValue) { this.scaleValue = Math.max(1, scaleValue); }
+    public void setScaleValue(int scaleValue) { this.scaleValue = Math.max(1, scaleValue); markChanged(); }
     
     public int getStartValue() { return startValue; }
-    public void setStartValue(int startValue) { this.startValue = startValue; }
+    public void setStartValue(int startValue) { this.startValue = startValue; markChanged(); }
     
     public double getRadius() { return radius; }
-    public void setRadius(double radius) { this.radius = Math.max(0, Math.min(height/2, radius)); }
+    public void setRadius(double radius) { this.radius = Math.max(0, Math.min(height/2, radius)); markChanged(); }
     
     public int getSpanLength() { return spanLength; }
-    public void setSpanLength(int spanLength) { this.spanLength = Math.max(10, spanLength); }
+    public void setSpanLength(int spanLength) { this.spanLength = Math.max(10, spanLength); markChanged(); }
     
     // Scale line height properties
     public int getMajorScaleHeight() { return majorScaleHeight; }
     public void setMajorScaleHeight(int height) { 
+        markChanged();
         this.majorScaleHeight = Math.max(5, Math.min(rulerHeight, height));
     }
     
     public int getMiddleScaleHeight() { return middleScaleHeight; }
     public void setMiddleScaleHeight(int height) { 
+        markChanged();
         this.middleScaleHeight = Math.max(5, Math.min(rulerHeight, height));
     }
     
     public int getShortScaleHeight() { return shortScaleHeight; }
     public void setShortScaleHeight(int height) { 
+        markChanged();
         this.shortScaleHeight = Math.max(3, Math.min(rulerHeight, height));
     }
     
     // Display option properties
     public boolean isShowNumbers() { return showNumbers; }
-    public void setShowNumbers(boolean showNumbers) { this.showNumbers = showNumbers; }
+    public void setShowNumbers(boolean showNumbers) { this.showNumbers = showNumbers; markChanged(); }
     
     public boolean isShowMiddleNumbers() { return showMiddleNumbers; }
-    public void setShowMiddleNumbers(boolean showMiddleNumbers) { this.showMiddleNumbers = showMiddleNumbers; }
+    public void setShowMiddleNumbers(boolean showMiddleNumbers) { this.showMiddleNumbers = showMiddleNumbers; markChanged(); }
     
     public boolean isShowMinorMarks() { return showMinorMarks; }
-    public void setShowMinorMarks(boolean showMinorMarks) { this.showMinorMarks = showMinorMarks; }
+    public void setShowMinorMarks(boolean showMinorMarks) { this.showMinorMarks = showMinorMarks; markChanged(); }
     
     public boolean isShowMiddleMarks() { return showMiddleMarks; }
-    public void setShowMiddleMarks(boolean showMiddleMarks) { this.showMiddleMarks = showMiddleMarks; }
+    public void setShowMiddleMarks(boolean showMiddleMarks) { this.showMiddleMarks = showMiddleMarks; markChanged(); }
     
     public boolean isShowMajorMarks() { return showMajorMarks; }
-    public void setShowMajorMarks(boolean showMajorMarks) { this.showMajorMarks = showMajorMarks; }
+    public void setShowMajorMarks(boolean showMajorMarks) { this.showMajorMarks = showMajorMarks; markChanged(); }
     
     // Orientation and styling
     public boolean isVertical() { return isVertical; }
     public void setVertical(boolean vertical) { 
+        markChanged();
         this.isVertical = vertical;
         if (vertical) {
             // Swap dimensions for vertical orientation
@@ -737,32 +744,33 @@ public class RulerMark extends Mark {
     }
     
     public Color getRulerColor() { return rulerColor; }
-    public void setRulerColor(Color rulerColor) { this.rulerColor = rulerColor; }
+    public void setRulerColor(Color rulerColor) { this.rulerColor = rulerColor; markChanged(); }
     
     public Color getTextColor() { return textColor; }
-    public void setTextColor(Color textColor) { this.textColor = textColor; }
+    public void setTextColor(Color textColor) { this.textColor = textColor; markChanged(); }
     
     public Color getBackgroundColor() { return backgroundColor; }
-    public void setBackgroundColor(Color backgroundColor) { this.backgroundColor = backgroundColor; }
+    public void setBackgroundColor(Color backgroundColor) { this.backgroundColor = backgroundColor; markChanged(); }
     
     public int getTextSize() { return textSize; }
-    public void setTextSize(int textSize) { this.textSize = Math.max(6, Math.min(24, textSize)); }
+    public void setTextSize(int textSize) { this.textSize = Math.max(6, Math.min(24, textSize)); markChanged(); }
     
     public boolean isShowBackground() { return showBackground; }
-    public void setShowBackground(boolean showBackground) { this.showBackground = showBackground; }
+    public void setShowBackground(boolean showBackground) { this.showBackground = showBackground; markChanged(); }
     
     // Advanced properties
     public String getUnitSuffix() { return unitSuffix; }
-    public void setUnitSuffix(String unitSuffix) { this.unitSuffix = unitSuffix != null ? unitSuffix : ""; }
+    public void setUnitSuffix(String unitSuffix) { this.unitSuffix = unitSuffix != null ? unitSuffix : ""; markChanged(); }
     
     public boolean isReverseNumbers() { return reverseNumbers; }
-    public void setReverseNumbers(boolean reverseNumbers) { this.reverseNumbers = reverseNumbers; }
+    public void setReverseNumbers(boolean reverseNumbers) { this.reverseNumbers = reverseNumbers; markChanged(); }
     
     public int getNumberOffset() { return numberOffset; }
-    public void setNumberOffset(int numberOffset) { this.numberOffset = numberOffset; }
+    public void setNumberOffset(int numberOffset) { this.numberOffset = numberOffset; markChanged(); }
     
     public double getLineThickness() { return lineThickness; }
     public void setLineThickness(double lineThickness) { 
+        markChanged();
         this.lineThickness = Math.max(0.5, Math.min(5.0, lineThickness));
     }
     
@@ -773,6 +781,7 @@ public class RulerMark extends Mark {
     // Font properties
     public Font getNumberFont() { return numberFont; }
     public void setNumberFont(Font font) { 
+        markChanged();
         this.numberFont = font != null ? font : new Font("Arial", Font.BOLD, DEFAULT_TEXT_SIZE);
         this.fontFamily = numberFont.getFontName();
         this.fontSize = numberFont.getSize();
@@ -781,18 +790,21 @@ public class RulerMark extends Mark {
     
     public String getFontFamily() { return fontFamily; }
     public void setFontFamily(String fontFamily) {
+        markChanged();
         this.fontFamily = fontFamily != null ? fontFamily : "Arial";
         updateNumberFont();
     }
     
     public int getFontSize() { return fontSize; }
     public void setFontSize(int fontSize) {
+        markChanged();
         this.fontSize = Math.max(6, Math.min(72, fontSize));
         updateNumberFont();
     }
     
     public int getFontStyle() { return fontStyle; }
     public void setFontStyle(int fontStyle) {
+        markChanged();
         this.fontStyle = fontStyle;
         updateNumberFont();
     }
@@ -805,52 +817,58 @@ public class RulerMark extends Mark {
     // Text spacing and positioning
     public double getCharacterWidth() { return characterWidth; }
     public void setCharacterWidth(double characterWidth) {
+        markChanged();
         this.characterWidth = Math.max(0.5, Math.min(3.0, characterWidth));
     }
     
     public double getLineSpacing() { return lineSpacing; }
     public void setLineSpacing(double lineSpacing) {
+        markChanged();
         this.lineSpacing = Math.max(0.5, Math.min(3.0, lineSpacing));
     }
     
     public int getTextOffsetX() { return textOffsetX; }
-    public void setTextOffsetX(int textOffsetX) { this.textOffsetX = textOffsetX; }
+    public void setTextOffsetX(int textOffsetX) { this.textOffsetX = textOffsetX; markChanged(); }
     
     public int getTextOffsetY() { return textOffsetY; }
-    public void setTextOffsetY(int textOffsetY) { this.textOffsetY = textOffsetY; }
+    public void setTextOffsetY(int textOffsetY) { this.textOffsetY = textOffsetY; markChanged(); }
     
     // Text alignment
     public TextAlignment getHorizontalAlignment() { return horizontalAlignment; }
     public void setHorizontalAlignment(TextAlignment alignment) {
+        markChanged();
         this.horizontalAlignment = alignment != null ? alignment : TextAlignment.CENTER;
     }
     
     public TextAlignment getVerticalAlignment() { return verticalAlignment; }
     public void setVerticalAlignment(TextAlignment alignment) {
+        markChanged();
         this.verticalAlignment = alignment != null ? alignment : TextAlignment.BOTTOM;
     }
     
     // Text appearance
     public Color getTextBackgroundColor() { return textBackgroundColor; }
-    public void setTextBackgroundColor(Color color) { this.textBackgroundColor = color; }
+    public void setTextBackgroundColor(Color color) { this.textBackgroundColor = color; markChanged(); }
     
     public boolean isShowTextBackground() { return showTextBackground; }
-    public void setShowTextBackground(boolean show) { this.showTextBackground = show; }
+    public void setShowTextBackground(boolean show) { this.showTextBackground = show; markChanged(); }
     
     public boolean isTextBold() { return textBold; }
     public void setTextBold(boolean bold) {
+        markChanged();
         this.textBold = bold;
         updateFontStyle();
     }
     
     public boolean isTextItalic() { return textItalic; }
     public void setTextItalic(boolean italic) {
+        markChanged();
         this.textItalic = italic;
         updateFontStyle();
     }
     
     public boolean isTextUnderline() { return textUnderline; }
-    public void setTextUnderline(boolean underline) { this.textUnderline = underline; }
+    public void setTextUnderline(boolean underline) { this.textUnderline = underline; markChanged(); }
     
     // Helper method to update font style based on bold/italic flags
     private void updateFontStyle() {
@@ -863,19 +881,22 @@ public class RulerMark extends Mark {
     // Advanced text options
     public double getTextRotation() { return textRotation; }
     public void setTextRotation(double rotation) {
+        markChanged();
         this.textRotation = rotation % 360.0;  // Normalize to 0-360 degrees
     }
     
     public boolean isAntiAliasText() { return antiAliasText; }
-    public void setAntiAliasText(boolean antiAlias) { this.antiAliasText = antiAlias; }
+    public void setAntiAliasText(boolean antiAlias) { this.antiAliasText = antiAlias; markChanged(); }
     
     public int getTextShadowOffset() { return textShadowOffset; }
     public void setTextShadowOffset(int offset) {
+        markChanged();
         this.textShadowOffset = Math.max(0, Math.min(10, offset));
     }
     
     public Color getTextShadowColor() { return textShadowColor; }
     public void setTextShadowColor(Color color) {
+        markChanged();
         this.textShadowColor = color != null ? color : Color.GRAY;
     }
     
@@ -1046,6 +1067,7 @@ public class RulerMark extends Mark {
      * Process drag operation with intelligent property adjustment
      */
     public void processDrag(int mouseX, int mouseY) {
+        markChanged();
         if (!isIntelligentDragging || activeDragType == null) return;
         
         int deltaX = mouseX - dragStartX;
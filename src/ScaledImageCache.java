@@ -0,0 +1,243 @@
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import javax.swing.SwingUtilities;
+
+/**
+ * ScaledImageCache: device-resolution copies of large images (GraphMark photos and logos).
+ *
+ * drawImage(source, x, y, w, h) rescales the full-resolution source on every paint. Instead,
+ * draw() blits a copy that already has the device size (and opacity) at 1:1. Copies are
+ * built on a background thread by successive halving from a per-image mipmap chain, so a
+ * zoom change scales from the nearest level rather than from the original. Until the copy
+ * is ready the nearest mipmap level (or the source) is drawn scaled, and ready listeners
+ * are told on the EDT so the canvas can repaint. A size that fails to scale (for example
+ * out of memory) is remembered and keeps the scaled fallback instead of being retried on
+ * every repaint.
+ */
+public final class ScaledImageCache {
+
+    // Soft coding: Cache limits
+    private static final int MAX_SIZES_PER_IMAGE = 4;       // Device sizes kept per source image (LRU)
+    private static final int MIN_MIPMAP_SIZE = 32;          // Smallest mipmap edge in pixels
+    private static final long SYNC_SCALE_PIXELS = 64 * 64;  // Tiny targets are scaled on the spot
+
+    private static final Map<BufferedImage, Entry> ENTRIES = Collections.synchronizedMap(new WeakHashMap<>());
+    private static final List<Consumer<BufferedImage>> READY_LISTENERS = new CopyOnWriteArrayList<>();
+    private static final ExecutorService SCALER = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "Image Scaler");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.NORM_PRIORITY - 1);
+        return thread;
+    });
+
+    private ScaledImageCache() {
+    }
+
+    private static final class Entry {
+        List<BufferedImage> mipmaps;                         // Halvings of the source, largest first
+        final Map<Long, BufferedImage> sizes = new LinkedHashMap<>(8, 0.75f, true);
+        final Map<Long, Boolean> pending = new java.util.HashMap<>();
+        final java.util.Set<Long> failed = new java.util.HashSet<>();   // Sizes that could not be scaled
+    }
+
+    /**
+     * Draw source into the world rectangle (x, y, width, height) of g with the given opacity.
+     */
+    public static void draw(Graphics2D g, BufferedImage source, int x, int y, int width, int height, float opacity) {
+        if (source == null || width <= 0 || height <= 0) return;
+        AffineTransform transform = g.getTransform();
+        boolean axisAligned = (transform.getType() & ~(AffineTransform.TYPE_TRANSLATION
+            | AffineTransform.TYPE_UNIFORM_SCALE | AffineTransform.TYPE_GENERAL_SCALE)) == 0
+            && transform.getScaleX() > 0 && transform.getScaleY() > 0;
+        if (!axisAligned) {
+            drawScaled(g, source, x, y, width, height, opacity);
+            return;
+        }
+        double deviceX = transform.getTranslateX() + x * transform.getScaleX();
+        double deviceY = transform.getTranslateY() + y * transform.getScaleY();
+        int deviceWidth = (int) Math.round(width * transform.getScaleX());
+        int deviceHeight = (int) Math.round(height * transform.getScaleY());
+        if (deviceWidth <= 0 || deviceHeight <= 0) return;
+
+        BufferedImage scaled = get(source, deviceWidth, deviceHeight, opacity);
+        if (scaled == null) {
+            drawScaled(g, nearestLevel(source, deviceWidth, deviceHeight), x, y, width, height, opacity);
+            return;
+        }
+        g.setTransform(AffineTransform.getTranslateInstance(Math.round(deviceX), Math.round(deviceY)));
+        try {
+            g.drawImage(scaled, 0, 0, null);
+        } finally {
+            g.setTransform(transform);
+        }
+    }
+
+    /**
+     * The source at exactly deviceWidth x deviceHeight with opacity baked in, or null while
+     * it is being built in the background or if building it failed.
+     */
+    public static BufferedImage get(BufferedImage source, int deviceWidth, int deviceHeight, float opacity) {
+        long key = key(deviceWidth, deviceHeight, opacity);
+        Entry entry = entry(source);
+        synchronized (entry) {
+            BufferedImage scaled = entry.sizes.get(key);
+            if (scaled != null) return scaled;
+            if (entry.failed.contains(key)) return null;
+            if ((long) deviceWidth * deviceHeight <= SYNC_SCALE_PIXELS && entry.mipmaps != null) {
+                scaled = scale(entry.mipmaps, source, deviceWidth, deviceHeight, opacity);
+                store(entry, key, scaled);
+                return scaled;
+            }
+            if (entry.pending.put(key, Boolean.TRUE) != null) return null;
+        }
+        SCALER.execute(() -> build(source, entry, key, deviceWidth, deviceHeight, opacity));
+        return null;
+    }
+
+    /** Called on the EDT with the source image whenever a scaled copy of it becomes ready. */
+    public static void addReadyListener(Consumer<BufferedImage> listener) {
+        READY_LISTENERS.add(listener);
+    }
+
+    public static void removeReadyListener(Consumer<BufferedImage> listener) {
+        READY_LISTENERS.remove(listener);
+    }
+
+    /** Number of scaled copies held for source (for tests and diagnostics). */
+    public static int getCachedSizeCount(BufferedImage source) {
+        Entry entry = ENTRIES.get(source);
+        if (entry == null) return 0;
+        synchronized (entry) {
+            return entry.sizes.size();
+        }
+    }
+
+    public static void clear() {
+        ENTRIES.clear();
+    }
+
+    // ==================== BUILDING ====================
+
+    private static void build(BufferedImage source, Entry entry, long key, int width, int height, float opacity) {
+        boolean ready = false;
+        try {
+            List<BufferedImage> mipmaps;
+            synchronized (entry) {
+                mipmaps = entry.mipmaps;
+            }
+            if (mipmaps == null) {
+                mipmaps = buildMipmaps(source);
+                synchronized (entry) {
+                    entry.mipmaps = mipmaps;
+                }
+            }
+            BufferedImage scaled = scale(mipmaps, source, width, height, opacity);
+            synchronized (entry) {
+                store(entry, key, scaled);
+            }
+            ready = true;
+        } catch (RuntimeException | OutOfMemoryError e) {
+            System.err.println("❌ Error scaling image: " + e.getMessage());
+            synchronized (entry) {
+                entry.failed.add(key);
+            }
+        } finally {
+            synchronized (entry) {
+                entry.pending.remove(key);
+            }
+        }
+        // Only a finished copy is announced; a repaint after a failure would just ask again
+        if (ready && !READY_LISTENERS.isEmpty()) {
+            SwingUtilities.invokeLater(() -> {
+                for (Consumer<BufferedImage> listener : READY_LISTENERS) listener.accept(source);
+            });
+        }
+    }
+
+    private static void store(Entry entry, long key, BufferedImage scaled) {
+        entry.sizes.put(key, scaled);
+        Iterator<Long> eldest = entry.sizes.keySet().iterator();
+        while (entry.sizes.size() > MAX_SIZES_PER_IMAGE && eldest.hasNext()) {
+            eldest.next();
+            eldest.remove();
+        }
+    }
+
+    /** Successive halvings of source with bilinear filtering, down to MIN_MIPMAP_SIZE. */
+    private static List<BufferedImage> buildMipmaps(BufferedImage source) {
+        List<BufferedImage> levels = new ArrayList<>();
+        BufferedImage level = source;
+        while (level.getWidth() / 2 >= MIN_MIPMAP_SIZE && level.getHeight() / 2 >= MIN_MIPMAP_SIZE) {
+            level = resize(level, level.getWidth() / 2, level.getHeight() / 2, 1f);
+            levels.add(level);
+        }
+        return levels;
+    }
+
+    /** Smallest of source and its mipmaps that is still at least width x height. */
+    private static BufferedImage pickLevel(List<BufferedImage> mipmaps, BufferedImage source, int width, int height) {
+        BufferedImage best = source;
+        for (BufferedImage level : mipmaps) {
+            if (level.getWidth() < width || level.getHeight() < height) break;
+            best = level;
+        }
+        return best;
+    }
+
+    private static BufferedImage nearestLevel(BufferedImage source, int width, int height) {
+        Entry entry = ENTRIES.get(source);
+        if (entry == null) return source;
+        synchronized (entry) {
+            return entry.mipmaps != null ? pickLevel(entry.mipmaps, source, width, height) : source;
+        }
+    }
+
+    private static BufferedImage scale(List<BufferedImage> mipmaps, BufferedImage source, int width, int height, float opacity) {
+        return resize(pickLevel(mipmaps, source, width, height), width, height, opacity);
+    }
+
+    private static BufferedImage resize(BufferedImage image, int width, int height, float opacity) {
+        BufferedImage result = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB_PRE);
+        Graphics2D g = result.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            if (opacity < 1f) g.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, opacity));
+            g.drawImage(image, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        return result;
+    }
+
+    private static void drawScaled(Graphics2D g, BufferedImage image, int x, int y, int width, int height, float opacity) {
+        java.awt.Composite original = g.getComposite();
+        if (opacity < 1f) g.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, opacity));
+        g.drawImage(image, x, y, width, height, null);
+        g.setComposite(original);
+    }
+
+    private static Entry entry(BufferedImage source) {
+        synchronized (ENTRIES) {
+            return ENTRIES.computeIfAbsent(source, s -> new Entry());
+        }
+    }
+
+    private static long key(int width, int height, float opacity) {
+        return ((long) width << 40) ^ ((long) height << 16) ^ Math.round(opacity * 255);
+    }
+}
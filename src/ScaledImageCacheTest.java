@@ -0,0 +1,159 @@
+// ScaledImageCache Test Program - Verify pre-scaled GraphMark images
+// Covers background scaling, 1:1 blits, opacity, per-size eviction, failed sizes and repaint cost
+
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+public class ScaledImageCacheTest {
+
+    public static void main(String[] args) throws Exception {
+        System.setProperty("java.awt.headless", "true");
+        System.out.println("Testing ScaledImageCache...");
+        testScaledCopies();
+        testFailedSizeIsNotRetried();
+        testGraphMarkRepaint();
+        System.out.println("\nAll ScaledImageCache checks passed.");
+    }
+
+    private static void testScaledCopies() throws Exception {
+        BufferedImage photo = photo(4000, 3000);
+        check(ScaledImageCache.get(photo, 400, 300, 0.8f) == null, "first request is scaled in the background");
+        BufferedImage scaled = await(photo, 400, 300, 0.8f);
+        check(scaled.getWidth() == 400 && scaled.getHeight() == 300, "copy has the device size");
+        int alpha = scaled.getRGB(200, 150) >>> 24;
+        check(Math.abs(alpha - 204) <= 1, "opacity is baked in (alpha " + alpha + ")");
+        check(ScaledImageCache.get(photo, 400, 300, 0.8f) == scaled, "same size and opacity reuse the copy");
+
+        for (int i = 1; i <= 5; i++) await(photo, 100 * i + 7, 75 * i + 5, 0.8f);
+        check(ScaledImageCache.getCachedSizeCount(photo) == 4, "only the most recent sizes are kept");
+
+        // Zoomed drawing blits the copy 1:1 at the device position
+        BufferedImage surface = new BufferedImage(600, 500, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = surface.createGraphics();
+        g.translate(10, 20);
+        g.scale(2, 2);
+        await(photo, 400, 300, 1f);
+        ScaledImageCache.draw(g, photo, 5, 5, 200, 150, 1f);
+        g.dispose();
+        check(surface.getRGB(19, 29) == 0 && surface.getRGB(20, 30) != 0 && surface.getRGB(419, 329) != 0
+              && surface.getRGB(420, 330) == 0, "zoomed image lands on the device rectangle");
+    }
+
+    private static void testGraphMarkRepaint() throws Exception {
+        GraphMark graph = new GraphMark(0, 0);
+        graph.width = 800;
+        graph.height = 600;
+        BufferedImage photo = photo(5000, 4000);
+        graph.setAssignedImage(photo, "photo");
+        BufferedImage surface = new BufferedImage(900, 700, BufferedImage.TYPE_INT_RGB);   // Like a back buffer
+        for (int i = 0; i < 5; i++) drawFullScale(surface, photo, graph);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 10; i++) drawFullScale(surface, photo, graph);
+        long direct = (System.nanoTime() - start) / 10;
+
+        draw(surface, graph);
+        java.awt.Rectangle bounds = graph.getImageBounds();
+        await(photo, bounds.width, bounds.height, 0.8f);
+        for (int i = 0; i < 5; i++) drawPreScaled(surface, photo, graph);
+        start = System.nanoTime();
+        for (int i = 0; i < 10; i++) drawPreScaled(surface, photo, graph);
+        long cached = (System.nanoTime() - start) / 10;
+        System.out.println("  20 MP image repaint: bilinear rescale " + direct / 1000 + " us, pre-scaled " + cached / 1000 + " us");
+
+        // Repaints blit the one device-size copy instead of rescaling the source
+        BufferedImage scaled = ScaledImageCache.get(photo, bounds.width, bounds.height, 0.8f);
+        BufferedImage clean = new BufferedImage(900, 700, BufferedImage.TYPE_INT_ARGB_PRE);
+        drawPreScaled(clean, photo, graph);
+        boolean same = true;
+        for (int y = 0; y < bounds.height; y += 37) {
+            for (int x = 0; x < bounds.width; x += 37) {
+                same &= clean.getRGB(bounds.x + x, bounds.y + y) == scaled.getRGB(x, y);
+            }
+        }
+        check(same, "repaint copies the pre-scaled pixels 1:1");
+        check(ScaledImageCache.get(photo, bounds.width, bounds.height, 0.8f) == scaled
+              && ScaledImageCache.getCachedSizeCount(photo) == 1, "repeated repaints reuse a single scaled copy");
+    }
+
+    private static void testFailedSizeIsNotRetried() throws Exception {
+        java.util.concurrent.atomic.AtomicInteger attempts = new java.util.concurrent.atomic.AtomicInteger();
+        BufferedImage broken = new BufferedImage(8, 8, BufferedImage.TYPE_INT_RGB) {
+            @Override
+            public int getWidth() {
+                attempts.incrementAndGet();
+                throw new IllegalStateException("unreadable");
+            }
+        };
+        java.util.concurrent.atomic.AtomicInteger notified = new java.util.concurrent.atomic.AtomicInteger();
+        java.util.function.Consumer<BufferedImage> listener = image -> {
+            if (image == broken) notified.incrementAndGet();
+        };
+        ScaledImageCache.addReadyListener(listener);
+        try {
+            check(ScaledImageCache.get(broken, 300, 200, 1f) == null, "broken source is queued like any other");
+            for (int i = 0; i < 500 && attempts.get() == 0; i++) Thread.sleep(10);
+            Thread.sleep(50);
+            javax.swing.SwingUtilities.invokeAndWait(() -> { });
+            int tried = attempts.get();
+            for (int i = 0; i < 5; i++) {
+                check(ScaledImageCache.get(broken, 300, 200, 1f) == null, "failed size stays unscaled (" + i + ")");
+            }
+            Thread.sleep(50);
+            javax.swing.SwingUtilities.invokeAndWait(() -> { });
+            check(tried > 0 && attempts.get() == tried, "failed size is not rebuilt on the next paint");
+            check(notified.get() == 0, "failure does not wake the canvas for another repaint");
+        } finally {
+            ScaledImageCache.removeReadyListener(listener);
+        }
+    }
+
+    private static void drawFullScale(BufferedImage surface, BufferedImage photo, GraphMark graph) {
+        java.awt.Rectangle bounds = graph.getImageBounds();
+        Graphics2D g = surface.createGraphics();
+        g.setRenderingHint(java.awt.RenderingHints.KEY_INTERPOLATION, java.awt.RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g.setComposite(java.awt.AlphaComposite.getInstance(java.awt.AlphaComposite.SRC_OVER, 0.8f));
+        g.drawImage(photo, bounds.x, bounds.y, bounds.width, bounds.height, null);
+        g.dispose();
+    }
+
+    private static void drawPreScaled(BufferedImage surface, BufferedImage photo, GraphMark graph) {
+        java.awt.Rectangle bounds = graph.getImageBounds();
+        Graphics2D g = surface.createGraphics();
+        ScaledImageCache.draw(g, photo, bounds.x, bounds.y, bounds.width, bounds.height, 0.8f);
+        g.dispose();
+    }
+
+    private static void draw(BufferedImage surface, GraphMark graph) {
+        Graphics2D g = surface.createGraphics();
+        graph.draw(g, false);
+        g.dispose();
+    }
+
+    private static BufferedImage await(BufferedImage source, int width, int height, float opacity) throws InterruptedException {
+        for (int i = 0; i < 500; i++) {
+            BufferedImage scaled = ScaledImageCache.get(source, width, height, opacity);
+            if (scaled != null) return scaled;
+            Thread.sleep(10);
+        }
+        throw new AssertionError("FAILED: scaled copy never became ready");
+    }
+
+    private static BufferedImage photo(int width, int height) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.setPaint(new GradientPaint(0, 0, Color.ORANGE, width, height, Color.BLUE));
+        g.fillRect(0, 0, width, height);
+        g.dispose();
+        return image;
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError("FAILED: " + message);
+        }
+        System.out.println("✓ " + message);
+    }
+}
@@ -0,0 +1,315 @@
+import javax.swing.*;
+import javax.swing.event.ChangeListener;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import java.awt.*;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Serial Number Coder - Auto-incrementing numbers with full configuration
+ *
+ * Codes come from a SerialSequence: the n-th code is start + step * (n / repeatCount),
+ * wrapped or held at max. The sequence is journalled under SERIAL_DIRECTORY (or the
+ * "journalFile" configuration, e.g. on a share used by several stations), so concurrent
+ * batch jobs and restarts after a crash never repeat a serial. Only Reset Counter or a new
+ * start value rewinds it; restoring an older configuration only moves it forward.
+ *
+ * Changing step, repeat count or range while codes are being issued moves the sequence past
+ * every ordinal whose value under the new settings could repeat the last value issued.
+ */
+class SerialNumberCoder extends ThorX6CoderTypeSystem.BaseCoderType {
+    // Soft coding: Where serial journals live unless configured otherwise
+    public static final String SERIAL_DIRECTORY = "serials";
+    public static final String DEFAULT_TEMPLATE = "{serial:5}";    // Code format, see CodeTemplate
+    
+    private volatile int startValue = 1000;
+    private volatile int stepValue = 1;
+    private volatile int maxValue = 99999;
+    private volatile int repeatCount = 1;
+    private volatile boolean resetOnMax = true;
+    private volatile CodeTemplate template = CodeTemplate.compile(DEFAULT_TEMPLATE);
+    private SerialSequence sequence;
+    private volatile boolean issued = false;   // Codes handed out under the current settings
+    private final ReadWriteLock settingsLock = new ReentrantReadWriteLock();   // Codes share, changes exclude
+    
+    // GUI Components
+    private JSpinner startSpinner;
+    private JSpinner stepSpinner;
+    private JSpinner maxSpinner;
+    private JSpinner repeatSpinner;
+    private JCheckBox resetCheckBox;
+    private JTextField templateField;
+    private boolean updatingGui = false;   // GUI synced from a configuration: listeners ignore it
+    
+    public SerialNumberCoder() {
+        super("Serial Number");
+    }
+    
+    @Override
+    public String generateCode() {
+        settingsLock.readLock().lock();
+        try {
+            issued = true;
+            return template.generate(valueAt(getSequence().next()));
+        } finally {
+            settingsLock.readLock().unlock();
+        }
+    }
+    
+    @Override
+    public String getPreview() {
+        long ordinal = getSequence().peek();
+        return template.generate(valueAt(ordinal)) + " (Next: " + template.generate(valueAt(ordinal + 1)) + ")";
+    }
+    
+    /** Set the code format, e.g. "SN{serial:6}-{date:yyMMdd}"; IllegalArgumentException when malformed. */
+    void setTemplate(String source) {
+        template = CodeTemplate.compile(source);
+    }
+    
+    String getTemplate() {
+        return template.getSource();
+    }
+    
+    /** Serial value of the ordinal-th code under the current start/step/max/repeat settings. */
+    long valueAt(long ordinal) {
+        int step = Math.max(1, stepValue);
+        long index = ordinal / Math.max(1, repeatCount);
+        long count = Math.max(1, ((long) maxValue - startValue) / step + 1);
+        index = resetOnMax ? index % count : Math.min(index, count - 1);
+        return startValue + index * step;
+    }
+    
+    /**
+     * Apply new range and repeat settings. When codes were issued under the old settings the
+     * sequence moves forward to the first ordinal whose value lies past the last one issued.
+     */
+    void configure(int start, int step, int max, int repeat, boolean reset) {
+        settingsLock.writeLock().lock();
+        try {
+            long ordinal = getSequence().peek();
+            long last = issued && ordinal > 0 ? valueAt(ordinal - 1) : Long.MIN_VALUE;
+            startValue = start;
+            stepValue = step;
+            maxValue = max;
+            repeatCount = repeat;
+            resetOnMax = reset;
+            if (last != Long.MIN_VALUE) getSequence().advanceTo(firstOrdinalAfter(last, ordinal));
+        } finally {
+            settingsLock.writeLock().unlock();
+        }
+    }
+    
+    /** First ordinal from `from` on whose value lies past `last`; `from` when the range cannot get there. */
+    private long firstOrdinalAfter(long last, long from) {
+        int step = Math.max(1, stepValue);
+        int repeat = Math.max(1, repeatCount);
+        long count = Math.max(1, ((long) maxValue - startValue) / step + 1);
+        long index = last < startValue ? 0 : (last - startValue) / step + 1;
+        if (index >= count) return from;   // Past max: wraps or holds by design
+        long cycle = count * repeat;
+        long ordinal = index * repeat;
+        if (resetOnMax && ordinal < from) ordinal += (from - ordinal + cycle - 1) / cycle * cycle;
+        return Math.max(ordinal, from);
+    }
+    
+    /** The sequence codes are drawn from, opened on first use. */
+    synchronized SerialSequence getSequence() {
+        if (sequence == null) {
+            Path journal = SerialSequence.journalFor(new File(SERIAL_DIRECTORY), typeName);
+            try {
+                sequence = SerialSequence.open(journal);
+            } catch (IOException | RuntimeException e) {
+                System.err.println("⚠️ Serial journal " + journal + " unavailable, serials will not survive a restart: " + e.getMessage());
+                sequence = SerialSequence.inMemory();
+            }
+        }
+        return sequence;
+    }
+    
+    /** Draw codes from another sequence (e.g. one journal shared by several stations). */
+    synchronized void useSequence(SerialSequence newSequence) {
+        if (sequence != null && sequence != newSequence) sequence.close();
+        sequence = newSequence;
+        issued = false;   // Nothing issued from the new sequence yet
+    }
+    
+    @Override
+    public boolean requiresConfiguration() {
+        return true;
+    }
+    
+    @Override
+    public JPanel getConfigurationPanel() {
+        if (configPanel == null) {
+            configPanel = new JPanel();
+            configPanel.setLayout(new BoxLayout(configPanel, BoxLayout.Y_AXIS));
+            
+            // Create spinners
+            startSpinner = new JSpinner(new SpinnerNumberModel(startValue, 0, 999999, 1));
+            stepSpinner = new JSpinner(new SpinnerNumberModel(stepValue, 1, 1000, 1));
+            maxSpinner = new JSpinner(new SpinnerNumberModel(maxValue, 1, 999999, 1));
+            repeatSpinner = new JSpinner(new SpinnerNumberModel(repeatCount, 1, 100, 1));
+            resetCheckBox = new JCheckBox("Reset to start when max reached", resetOnMax);
+            templateField = new JTextField(template.getSource(), 20);
+            templateField.setToolTipText("Fields: {serial:N} {date:yyMMdd} {random:N} {vin.check}");
+            templateField.getDocument().addDocumentListener(new DocumentListener() {
+                @Override
+                public void insertUpdate(DocumentEvent e) { updateTemplate(); }
+                
+                @Override
+                public void removeUpdate(DocumentEvent e) { updateTemplate(); }
+                
+                @Override
+                public void changedUpdate(DocumentEvent e) { updateTemplate(); }
+                
+                private void updateTemplate() {
+                    if (updatingGui) return;
+                    try {
+                        setTemplate(templateField.getText());
+                        templateField.setForeground(UIManager.getColor("TextField.foreground"));
+                        notifyConfigurationChanged();
+                    } catch (IllegalArgumentException ex) {
+                        // Keep the last valid template while the user is typing
+                        templateField.setForeground(Color.RED);
+                    }
+                }
+            });
+            
+            // Add change listeners
+            ChangeListener updateListener = e -> {
+                if (updatingGui) return;
+                configure((Integer) startSpinner.getValue(), (Integer) stepSpinner.getValue(),
+                          (Integer) maxSpinner.getValue(), (Integer) repeatSpinner.getValue(),
+                          resetCheckBox.isSelected());
+                
+                // Restart the sequence if start changed
+                if (e.getSource() == startSpinner) {
+                    reset();
+                }
+                
+                notifyConfigurationChanged();
+            };
+            
+            startSpinner.addChangeListener(updateListener);
+            stepSpinner.addChangeListener(updateListener);
+            maxSpinner.addChangeListener(updateListener);
+            repeatSpinner.addChangeListener(updateListener);
+            resetCheckBox.addActionListener(e -> {
+                if (updatingGui) return;
+                configure(startValue, stepValue, maxValue, repeatCount, resetCheckBox.isSelected());
+                notifyConfigurationChanged();
+            });
+            
+            // Layout
+            JPanel rangePanel = createLabeledComponent("Start Value", startSpinner);
+            rangePanel.add(createLabeledComponent("Step", stepSpinner));
+            rangePanel.add(createLabeledComponent("Max Value", maxSpinner));
+            
+            JPanel behaviorPanel = createLabeledComponent("Repeat Count", repeatSpinner);
+            behaviorPanel.add(resetCheckBox);
+            
+            // Reset button
+            JButton resetButton = new JButton("Reset Counter");
+            resetButton.addActionListener(e -> {
+                reset();
+                notifyConfigurationChanged();
+            });
+            
+            configPanel.add(createTitledSection("Range Configuration", rangePanel));
+            configPanel.add(createTitledSection("Behavior Configuration", behaviorPanel));
+            configPanel.add(createTitledSection("Code Format", createLabeledComponent("Template", templateField)));
+            configPanel.add(createTitledSection("Reset", resetButton));
+        }
+        return configPanel;
+    }
+    
+    @Override
+    public void reset() {
+        settingsLock.writeLock().lock();
+        try {
+            getSequence().reset(0);
+            issued = false;
+        } finally {
+            settingsLock.writeLock().unlock();
+        }
+    }
+    
+    @Override
+    public Map<String, Object> getConfiguration() {
+        long ordinal = getSequence().peek();
+        Map<String, Object> config = new HashMap<>();
+        config.put("startValue", startValue);
+        config.put("stepValue", stepValue);
+        config.put("maxValue", maxValue);
+        config.put("repeatCount", repeatCount);
+        config.put("resetOnMax", resetOnMax);
+        config.put("template", template.getSource());
+        config.put("currentValue", (int) valueAt(ordinal));
+        config.put("currentRepeat", (int) (ordinal % Math.max(1, repeatCount)));
+        config.put("sequenceOrdinal", ordinal);
+        if (getSequence().isPersistent()) config.put("journalFile", getSequence().getJournal().toString());
+        return config;
+    }
+    
+    @Override
+    public void setConfiguration(Map<String, Object> config) {
+        configure(config.containsKey("startValue") ? (Integer) config.get("startValue") : startValue,
+                  config.containsKey("stepValue") ? (Integer) config.get("stepValue") : stepValue,
+                  config.containsKey("maxValue") ? (Integer) config.get("maxValue") : maxValue,
+                  config.containsKey("repeatCount") ? (Integer) config.get("repeatCount") : repeatCount,
+                  config.containsKey("resetOnMax") ? (Boolean) config.get("resetOnMax") : resetOnMax);
+        if (config.containsKey("template")) {
+            try {
+                setTemplate((String) config.get("template"));
+            } catch (IllegalArgumentException e) {
+                System.err.println("⚠️ Ignoring invalid serial template: " + e.getMessage());
+            }
+        }
+        if (config.containsKey("journalFile")) {
+            Path journal = Paths.get((String) config.get("journalFile"));
+            SerialSequence current;
+            synchronized (this) {
+                current = sequence;
+            }
+            if (current == null || !current.isPersistent()
+                || !journal.toAbsolutePath().normalize().equals(current.getJournal())) {
+                try {
+                    useSequence(SerialSequence.open(journal));
+                } catch (IOException e) {
+                    System.err.println("⚠️ Cannot open serial journal " + journal + ": " + e.getMessage());
+                }
+            }
+        }
+        
+        // Saved position only ever moves the sequence forward
+        if (config.containsKey("sequenceOrdinal")) {
+            getSequence().advanceTo(((Number) config.get("sequenceOrdinal")).longValue());
+        } else if (config.containsKey("currentValue")) {
+            long index = Math.max(0, ((Integer) config.get("currentValue") - startValue) / Math.max(1, stepValue));
+            int repeat = config.containsKey("currentRepeat") ? (Integer) config.get("currentRepeat") : 0;
+            getSequence().advanceTo(index * Math.max(1, repeatCount) + repeat);
+        }
+        
+        // Update GUI if it exists; listeners must not reset the restored sequence position
+        if (startSpinner != null) {
+            updatingGui = true;
+            try {
+                startSpinner.setValue(startValue);
+                stepSpinner.setValue(stepValue);
+                maxSpinner.setValue(maxValue);
+                repeatSpinner.setValue(repeatCount);
+                resetCheckBox.setSelected(resetOnMax);
+                if (!templateField.getText().equals(template.getSource())) templateField.setText(template.getSource());
+            } finally {
+                updatingGui = false;
+            }
+        }
+    }
+}
@@ -0,0 +1,284 @@
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+/**
+ * SerialSequence: duplicate-free sequence numbers (0, 1, 2, ...) that survive crashes and
+ * can be shared by several stations through one journal file.
+ *
+ * Numbers are handed out lock-free from an AtomicLong cursor inside a reserved block.
+ * Reserving a block takes the journal's file lock, reads the high-water mark, appends the
+ * new block end and fsyncs before any number of the block is used. After a crash the
+ * sequence resumes at the last recorded block end, so at most one unused block per station
+ * is skipped and nothing is repeated. close() hands the unused rest of the block back when
+ * no other station has reserved since.
+ *
+ * Journal: magic "SERJ" | int version, then fixed 13-byte records
+ *   int CRC32 | byte type | long high-water mark
+ * The last record with a valid CRC wins; a torn last record is ignored and cut off.
+ */
+public final class SerialSequence implements Closeable {
+
+    // Soft coding: Reservation and journal size
+    public static final int DEFAULT_BLOCK_SIZE = 1000;       // Numbers reserved per journal write
+    public static final int COMPACT_AFTER_RECORDS = 1024;    // Journal rewritten to one record after this many
+
+    private static final byte[] MAGIC = {'S', 'E', 'R', 'J'};
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 8;
+    private static final int RECORD_BYTES = 13;
+    private static final byte RECORD_RESERVE = 1;
+    private static final byte RECORD_RESET = 2;
+    private static final byte RECORD_RELEASE = 3;
+
+    // One monitor per journal file: FileChannel locks are per JVM, not per thread
+    private static final Map<Path, Object> JOURNAL_MONITORS = new ConcurrentHashMap<>();
+
+    private final Path journal;           // Null for an in-memory sequence
+    private final Object journalMonitor;
+    private final int blockSize;
+    private volatile Block block;
+    private long memoryHighWater;         // In-memory sequences only
+    private volatile boolean closed;
+
+    private static final class Block {
+        final AtomicLong cursor;
+        final long end;
+
+        Block(long start, long end) {
+            this.cursor = new AtomicLong(start);
+            this.end = end;
+        }
+    }
+
+    private SerialSequence(Path journal, int blockSize) {
+        this.journal = journal;
+        this.journalMonitor = journal != null ? JOURNAL_MONITORS.computeIfAbsent(journal, p -> new Object()) : null;
+        this.blockSize = Math.max(1, blockSize);
+        this.block = new Block(0, 0);
+    }
+
+    /** Sequence kept in memory only, starting at 0. */
+    public static SerialSequence inMemory() {
+        return new SerialSequence(null, DEFAULT_BLOCK_SIZE);
+    }
+
+    public static SerialSequence open(Path journal) throws IOException {
+        return open(journal, DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * Open (or create) the sequence stored in a journal file. The first number handed out is
+     * the journal's high-water mark, reserved on the first next() call.
+     */
+    public static SerialSequence open(Path journal, int blockSize) throws IOException {
+        Path path = journal.toAbsolutePath().normalize();
+        Path parent = path.getParent();
+        if (parent != null) Files.createDirectories(parent);
+        SerialSequence sequence = new SerialSequence(path, blockSize);
+        long highWater = sequence.withJournal(channel -> readHighWater(channel));
+        sequence.block = new Block(highWater, highWater);
+        return sequence;
+    }
+
+    public boolean isPersistent() {
+        return journal != null;
+    }
+
+    public Path getJournal() {
+        return journal;
+    }
+
+    /** Next number; lock-free unless the current block is used up. */
+    public long next() {
+        while (true) {
+            Block current = block;
+            long value = current.cursor.getAndIncrement();
+            if (value < current.end) return value;
+            refill(current, 0);
+        }
+    }
+
+    /** Number the next call to next() returns (when no other thread or station gets there first). */
+    public long peek() {
+        Block current = block;
+        return Math.min(current.cursor.get(), current.end);
+    }
+
+    /**
+     * Restart at value. This is the only operation that can repeat numbers, so it is meant
+     * for an explicit user reset.
+     */
+    public synchronized void reset(long value) {
+        checkOpen();
+        if (journal != null) {
+            try {
+                withJournal(channel -> {
+                    appendRecord(channel, RECORD_RESET, value);
+                    return null;
+                });
+            } catch (IOException e) {
+                throw new IllegalStateException("Serial journal not writable: " + e.getMessage(), e);
+            }
+        } else {
+            memoryHighWater = value;
+        }
+        block = new Block(value, value);
+    }
+
+    /** Move forward to value when the sequence is behind it; never moves back. */
+    public synchronized void advanceTo(long value) {
+        Block current = block;
+        if (value < current.end) {
+            current.cursor.accumulateAndGet(value, Math::max);   // Stay inside the reserved block
+        } else if (value > peek()) {
+            refill(current, value);
+        }
+    }
+
+    /** Give back the unused rest of the current block (if no other station reserved after it). */
+    @Override
+    public synchronized void close() {
+        if (closed) return;
+        closed = true;
+        Block current = block;
+        block = new Block(0, 0);
+        // Moving the cursor to the end fences off next(): later calls find the block used up
+        // and fail in refill(), so no number at or past the release point is handed out
+        long cursor = Math.min(current.cursor.getAndSet(current.end), current.end);
+        if (journal == null || cursor >= current.end) return;
+        try {
+            withJournal(channel -> {
+                if (readHighWater(channel) == current.end) appendRecord(channel, RECORD_RELEASE, cursor);
+                return null;
+            });
+        } catch (IOException e) {
+            System.err.println("⚠️ Could not release serial block: " + e.getMessage());
+        }
+    }
+
+    private synchronized void refill(Block exhausted, long minimumStart) {
+        checkOpen();
+        if (block != exhausted) return;   // Another thread already refilled
+        if (journal == null) {
+            long start = Math.max(memoryHighWater, minimumStart);
+            memoryHighWater = start + blockSize;
+            block = new Block(start, memoryHighWater);
+            return;
+        }
+        try {
+            block = withJournal(channel -> {
+                long start = Math.max(readHighWater(channel), minimumStart);
+                appendRecord(channel, RECORD_RESERVE, start + blockSize);
+                return new Block(start, start + blockSize);
+            });
+        } catch (IOException e) {
+            throw new IllegalStateException("Serial journal not writable: " + e.getMessage(), e);
+        }
+    }
+
+    private void checkOpen() {
+        if (closed) throw new IllegalStateException("Serial sequence is closed");
+    }
+
+    // ==================== JOURNAL ====================
+
+    private interface JournalAction<T> {
+        T run(FileChannel channel) throws IOException;
+    }
+
+    /** Run with the journal open and locked against other threads and processes. */
+    private <T> T withJournal(JournalAction<T> action) throws IOException {
+        synchronized (journalMonitor) {
+            try (FileChannel channel = FileChannel.open(journal, StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                FileLock lock = channel.lock();
+                try {
+                    if (channel.size() < HEADER_BYTES) {
+                        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).put(MAGIC).putInt(VERSION);
+                        header.flip();
+                        channel.truncate(0);
+                        channel.write(header, 0);
+                        channel.force(false);
+                    }
+                    return action.run(channel);
+                } finally {
+                    lock.release();
+                }
+            }
+        }
+    }
+
+    /** High-water mark of the last valid record (0 for a new journal); cuts off a torn tail. */
+    private static long readHighWater(FileChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        channel.read(header, 0);
+        header.flip();
+        for (byte b : MAGIC) {
+            if (header.get() != b) throw new IOException("Not a serial journal");
+        }
+        if (header.getInt() > VERSION) throw new IOException("Serial journal from a newer version");
+
+        long size = channel.size();
+        int records = (int) ((size - HEADER_BYTES) / RECORD_BYTES);
+        ByteBuffer bytes = ByteBuffer.allocate(records * RECORD_BYTES);
+        channel.read(bytes, HEADER_BYTES);
+        bytes.flip();
+        long highWater = 0;
+        long validEnd = HEADER_BYTES;
+        for (int r = 0; r < records; r++) {
+            int crc = bytes.getInt();
+            byte type = bytes.get();
+            long value = bytes.getLong();
+            if (crc == recordCrc(type, value)) {
+                highWater = value;
+                validEnd = HEADER_BYTES + (long) (r + 1) * RECORD_BYTES;
+            }
+        }
+        if (validEnd < size) channel.truncate(validEnd);
+        return highWater;
+    }
+
+    private static void appendRecord(FileChannel channel, byte type, long value) throws IOException {
+        long size = channel.size();
+        if ((size - HEADER_BYTES) / RECORD_BYTES >= COMPACT_AFTER_RECORDS) {
+            // Overwrite the first record, then cut the rest: a crash in between leaves the
+            // previous last record in force, as if this append never happened
+            channel.write(record(type, value), HEADER_BYTES);
+            channel.force(false);
+            channel.truncate(HEADER_BYTES + RECORD_BYTES);
+        } else {
+            channel.write(record(type, value), size);
+        }
+        channel.force(false);
+    }
+
+    private static ByteBuffer record(byte type, long value) {
+        ByteBuffer buffer = ByteBuffer.allocate(RECORD_BYTES);
+        buffer.putInt(recordCrc(type, value)).put(type).putLong(value);
+        buffer.flip();
+        return buffer;
+    }
+
+    private static int recordCrc(byte type, long value) {
+        CRC32 crc = new CRC32();
+        crc.update(type);
+        for (int shift = 56; shift >= 0; shift -= 8) crc.update((int) (value >>> shift));
+        return (int) crc.getValue();
+    }
+
+    /** Default journal for a named sequence inside a directory (shared folders work across stations). */
+    public static Path journalFor(File directory, String name) {
+        return new File(directory, name.replaceAll("[^A-Za-z0-9._-]", "_") + ".serial").toPath();
+    }
+}
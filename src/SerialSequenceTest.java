@@ -0,0 +1,272 @@
+// SerialSequence Test Program - Verify crash-safe, duplicate-free serial allocation
+// Covers recovery, torn journals, compaction, concurrent threads, several processes and SerialNumberCoder
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class SerialSequenceTest {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 3 && args[0].equals("station")) {
+            runStation(Path.of(args[1]), Integer.parseInt(args[2]));
+            return;
+        }
+        System.setProperty("java.awt.headless", "true");
+        System.out.println("Testing SerialSequence...");
+        Path directory = Files.createTempDirectory("serials");
+        try {
+            testSequence(directory);
+            testConcurrency(directory);
+            testStations(directory);
+            testSerialNumberCoder(directory);
+        } finally {
+            for (File file : directory.toFile().listFiles()) file.delete();
+            directory.toFile().delete();
+        }
+        System.out.println("\nAll SerialSequence checks passed.");
+    }
+
+    private static void testSequence(Path directory) throws Exception {
+        SerialSequence memory = SerialSequence.inMemory();
+        boolean ordered = true;
+        for (int i = 0; i < 2500; i++) ordered &= memory.next() == i;
+        check(ordered && !memory.isPersistent(), "in-memory sequence counts 0, 1, 2, ...");
+
+        Path journal = directory.resolve("basic.serial");
+        SerialSequence sequence = SerialSequence.open(journal, 100);
+        for (int i = 0; i < 10; i++) sequence.next();
+        sequence.close();
+        SerialSequence reopened = SerialSequence.open(journal, 100);
+        check(reopened.next() == 10, "clean close hands the unused block back");
+
+        // Crash: the process dies holding a reserved block
+        for (int i = 0; i < 20; i++) reopened.next();   // 11..30, block ends at 110
+        SerialSequence afterCrash = SerialSequence.open(journal, 100);
+        check(afterCrash.next() == 110, "after a crash the sequence resumes past the reserved block");
+
+        // Torn last record is ignored and cut off
+        long validLength = Files.size(journal);
+        try (RandomAccessFile file = new RandomAccessFile(journal.toFile(), "rw")) {
+            file.seek(validLength);
+            file.write(new byte[] {2, 0, 0, 0, 0, 0, 1});
+        }
+        SerialSequence afterTear = SerialSequence.open(journal, 100);
+        check(Files.size(journal) == validLength && afterTear.next() == 210, "torn journal tail ignored and truncated");
+
+        // Corrupt record in the middle is skipped
+        try (RandomAccessFile file = new RandomAccessFile(journal.toFile(), "rw")) {
+            file.seek(8 + 13 + 5);
+            file.write(0x7F);
+        }
+        check(SerialSequence.open(journal, 100).next() == 310, "corrupt middle record skipped, last valid record wins");
+
+        // Compaction keeps the journal small
+        SerialSequence tiny = SerialSequence.open(directory.resolve("tiny.serial"), 1);
+        boolean sequential = true;
+        for (int i = 0; i < 3000; i++) sequential &= tiny.next() == i;
+        long size = Files.size(directory.resolve("tiny.serial"));
+        check(sequential && size <= 8 + 13L * SerialSequence.COMPACT_AFTER_RECORDS, "3000 one-number blocks, journal " + size + " bytes");
+        check(SerialSequence.open(directory.resolve("tiny.serial"), 1).next() == 3000, "compacted journal keeps the mark");
+
+        // Reset is explicit, advanceTo only moves forward
+        afterTear.reset(0);
+        check(afterTear.next() == 0 && SerialSequence.open(journal, 100).peek() == 100, "reset restarts the journal");
+        afterTear.advanceTo(5000);
+        check(afterTear.next() == 5000, "advanceTo moves forward");
+        afterTear.advanceTo(10);
+        check(afterTear.next() == 5001, "advanceTo never moves back");
+        afterTear.close();
+        try {
+            afterTear.next();
+            throw new AssertionError("FAILED: closed sequence handed out a number");
+        } catch (IllegalStateException e) {
+            check(true, "closed sequence refuses next()");
+        }
+    }
+
+    private static void testConcurrency(Path directory) throws Exception {
+        SerialSequence sequence = SerialSequence.open(directory.resolve("threads.serial"));
+        int threads = 8;
+        int perThread = 100_000;
+        long[][] taken = new long[threads][perThread];
+        List<Thread> workers = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            final int index = t;
+            Thread worker = new Thread(() -> {
+                for (int i = 0; i < perThread; i++) taken[index][i] = sequence.next();
+            });
+            workers.add(worker);
+            worker.start();
+        }
+        for (Thread worker : workers) worker.join();
+        long nanos = System.nanoTime() - start;
+        Set<Long> unique = new HashSet<>();
+        for (long[] row : taken) for (long value : row) unique.add(value);
+        long perSecond = (long) (threads * (double) perThread / (nanos / 1e9));
+        System.out.println("  " + threads * perThread + " serials on " + threads + " threads: " + perSecond + "/s");
+        check(unique.size() == threads * perThread, "no duplicates across " + threads + " threads");
+        check(perSecond > 10_000, "thousands of serials per second with fsync'd reservations");
+        sequence.close();
+
+        // Closing while other threads still draw numbers must not release any of theirs
+        Path racing = directory.resolve("close.serial");
+        for (int round = 0; round < 20; round++) {
+            SerialSequence open = SerialSequence.open(racing, 1000);
+            Set<Long> drawn = ConcurrentHashMap.newKeySet();
+            List<Thread> drawers = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                Thread drawer = new Thread(() -> {
+                    try {
+                        while (true) drawn.add(open.next());
+                    } catch (IllegalStateException closed) {
+                        // Sequence closed under us
+                    }
+                });
+                drawers.add(drawer);
+                drawer.start();
+            }
+            while (drawn.size() < 200) Thread.onSpinWait();
+            open.close();
+            for (Thread drawer : drawers) drawer.join();
+            long next = SerialSequence.open(racing, 1000).peek();
+            for (long value : drawn) {
+                if (value >= next) throw new AssertionError("FAILED: " + value + " handed out after the release point " + next);
+            }
+        }
+        check(true, "close() releases only numbers no thread has taken");
+    }
+
+    /** Two other JVMs and this one share a journal; the file lock keeps their blocks apart. */
+    private static void testStations(Path directory) throws Exception {
+        Path journal = directory.resolve("shared.serial");
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        List<Process> stations = new ArrayList<>();
+        for (int s = 0; s < 2; s++) {
+            stations.add(new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"), "SerialSequenceTest",
+                                            "station", journal.toString(), "20000").redirectErrorStream(true).start());
+        }
+        Set<Long> all = ConcurrentHashMap.newKeySet();
+        AtomicReference<String> duplicate = new AtomicReference<>();
+        List<Thread> readers = new ArrayList<>();
+        for (Process station : stations) {
+            Thread reader = new Thread(() -> {
+                try (BufferedReader in = new BufferedReader(new InputStreamReader(station.getInputStream()))) {
+                    for (String line; (line = in.readLine()) != null; ) {
+                        if (!all.add(Long.parseLong(line.trim()))) duplicate.set(line);
+                    }
+                } catch (Exception e) {
+                    duplicate.set("reader: " + e);
+                }
+            });
+            readers.add(reader);
+            reader.start();
+        }
+        SerialSequence local = SerialSequence.open(journal, 100);
+        for (int i = 0; i < 20000; i++) {
+            if (!all.add(local.next())) duplicate.set("local");
+        }
+        local.close();
+        for (Process station : stations) station.waitFor();
+        for (Thread reader : readers) reader.join();
+        check(duplicate.get() == null && all.size() == 60000, "3 processes drew 60000 distinct serials from one journal");
+    }
+
+    private static void runStation(Path journal, int count) throws Exception {
+        SerialSequence sequence = SerialSequence.open(journal, 100);
+        StringBuilder out = new StringBuilder();
+        for (int i = 0; i < count; i++) out.append(sequence.next()).append('\n');
+        sequence.close();
+        System.out.print(out);
+    }
+
+    private static void testSerialNumberCoder(Path directory) throws Exception {
+        SerialNumberCoder coder = new SerialNumberCoder();
+        Path journal = directory.resolve("coder.serial");
+        coder.useSequence(SerialSequence.open(journal));
+        check(coder.generateCode().equals("01000") && coder.generateCode().equals("01001"), "coder counts from start value");
+
+        Map<String, Object> config = new HashMap<>();
+        config.put("repeatCount", 2);
+        config.put("currentValue", 1000);   // Older saved position: must not rewind
+        coder.setConfiguration(config);
+        check(coder.generateCode().equals("01002") && coder.generateCode().equals("01002")
+              && coder.generateCode().equals("01003"), "repeat count 2, older configuration does not rewind");
+
+        // Shut down cleanly and restore from the saved configuration
+        Map<String, Object> saved = coder.getConfiguration();
+        coder.getSequence().close();
+        SerialNumberCoder restarted = new SerialNumberCoder();
+        restarted.setConfiguration(saved);
+        check(journal.toAbsolutePath().toString().equals(saved.get("journalFile"))
+              && restarted.generateCode().equals("01003"), "restored coder continues from the journal");
+        restarted.getSequence().close();
+        coder.useSequence(SerialSequence.open(journal));
+
+        coder.reset();
+        config.clear();
+        config.put("startValue", 1);
+        config.put("maxValue", 3);
+        config.put("repeatCount", 1);
+        coder.setConfiguration(config);
+        StringBuilder wrapped = new StringBuilder();
+        for (int i = 0; i < 5; i++) wrapped.append(coder.generateCode()).append(' ');
+        check(wrapped.toString().equals("00001 00002 00003 00001 00002 "), "wraps at max value");
+
+        // Changing repeat count or step mid-run never hands out a serial again
+        SerialNumberCoder running = new SerialNumberCoder();
+        running.useSequence(SerialSequence.inMemory());
+        Set<String> printed = new HashSet<>();
+        boolean fresh = true;
+        for (int i = 0; i < 5; i++) fresh &= printed.add(running.generateCode());   // 01000..01004
+        running.configure(1000, 1, 99999, 2, true);
+        String first = running.generateCode();
+        String second = running.generateCode();
+        fresh &= printed.add(first) && first.equals(second) && first.equals("01005");
+        fresh &= printed.add(running.generateCode());                                  // 01006
+        running.configure(1000, 1, 99999, 2, true);                                    // Half-used pair not reused
+        running.configure(1000, 3, 99999, 1, true);
+        for (int i = 0; i < 3; i++) fresh &= printed.add(running.generateCode());
+        running.configure(1000, 1, 99999, 1, true);
+        for (int i = 0; i < 3; i++) fresh &= printed.add(running.generateCode());
+        check(fresh, "repeat count 1 -> 2 and step changes mid-run issue only new serials " + printed);
+
+        // Syncing the panel from a restored configuration must not reset the sequence
+        coder.getConfigurationPanel();
+        Map<String, Object> restored = coder.getConfiguration();
+        restored.put("startValue", 7);
+        coder.setConfiguration(restored);
+        check(coder.getSequence().peek() == 5 && coder.generateCode().equals("00007"),
+              "restoring a configuration with the panel open keeps the sequence position");
+
+        // One registry instance even under concurrent lookups
+        Set<Object> instances = ConcurrentHashMap.newKeySet();
+        List<Thread> lookups = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            Thread lookup = new Thread(() -> instances.add(ThorX6CoderTypeSystem.CoderTypeRegistry.getCoderType("VIN")));
+            lookups.add(lookup);
+            lookup.start();
+        }
+        for (Thread lookup : lookups) lookup.join();
+        check(instances.size() == 1, "registry creates one coder per type under concurrency");
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError("FAILED: " + message);
+        }
+        System.out.println("✓ " + message);
+    }
+}
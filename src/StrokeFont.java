@@ -0,0 +1,307 @@
+import java.awt.geom.Path2D;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * StrokeFont: single-line (Hershey-style) fonts for dot-pin marking.
+ *
+ * A pin strikes one row of dots along each stroke, so a glyph is a few polylines through
+ * the middle of the letter instead of an outline traced on both sides. Glyph points sit
+ * on a small integer grid (cell width x cell height, origin at the left of the baseline,
+ * y up) and are already straight segments, so no curve flattening is needed.
+ *
+ * Binary format (.stf):
+ *   magic "STRK" | version byte | name (modified UTF-8) | cell width byte | cell height byte
+ *   | glyph count (unsigned short)
+ *   | per glyph: char (unsigned short) | stroke count byte
+ *     | per stroke: point count byte | x, y signed bytes per point
+ * A font of 60 glyphs takes well under 1 KB.
+ *
+ * Fonts are registered by name; the built-in "Simplex" font covers A-Z, 0-9 and the
+ * punctuation used in part codes. Lower case is drawn with the upper case glyphs.
+ */
+public final class StrokeFont {
+
+    // Soft coding: Format identification
+    public static final byte[] MAGIC = {'S', 'T', 'R', 'K'};
+    public static final int FORMAT_VERSION = 1;
+    public static final String DEFAULT_NAME = "Simplex";
+    private static final char FALLBACK_CHAR = '?';     // Drawn for characters the font lacks
+
+    private static final Map<String, StrokeFont> FONTS = new ConcurrentHashMap<>();
+
+    private final String name;
+    private final int cellWidth;
+    private final int cellHeight;
+    private final Map<Character, byte[][]> glyphs;     // Strokes as x, y pairs in grid units
+
+    private StrokeFont(String name, int cellWidth, int cellHeight, Map<Character, byte[][]> glyphs) {
+        this.name = name;
+        this.cellWidth = cellWidth;
+        this.cellHeight = cellHeight;
+        this.glyphs = glyphs;
+    }
+
+    // ==================== REGISTRY ====================
+
+    /** Font registered under name, or the built-in font when there is none. */
+    public static StrokeFont forName(String name) {
+        StrokeFont font = name != null ? FONTS.get(name) : null;
+        return font != null ? font : builtIn();
+    }
+
+    public static void register(StrokeFont font) {
+        FONTS.put(font.getName(), font);
+    }
+
+    public static List<String> getFontNames() {
+        builtIn();
+        List<String> names = new ArrayList<>(FONTS.keySet());
+        names.sort(null);
+        return names;
+    }
+
+    public static StrokeFont builtIn() {
+        return FONTS.computeIfAbsent(DEFAULT_NAME, n -> parse(n, SIMPLEX_CELL_WIDTH, SIMPLEX_CELL_HEIGHT, SIMPLEX));
+    }
+
+    // ==================== GLYPHS ====================
+
+    public String getName() {
+        return name;
+    }
+
+    public int getCellWidth() {
+        return cellWidth;
+    }
+
+    public int getCellHeight() {
+        return cellHeight;
+    }
+
+    public int getGlyphCount() {
+        return glyphs.size();
+    }
+
+    public boolean hasGlyph(char c) {
+        return glyphs.containsKey(c) || glyphs.containsKey(Character.toUpperCase(c));
+    }
+
+    private byte[][] glyph(char c) {
+        byte[][] strokes = glyphs.get(c);
+        if (strokes == null) strokes = glyphs.get(Character.toUpperCase(c));
+        if (strokes == null) strokes = glyphs.get(FALLBACK_CHAR);
+        return strokes != null ? strokes : new byte[0][];
+    }
+
+    /**
+     * Strokes of c scaled so the cell is width x height, as polylines {x0, y0, x1, y1, ...}
+     * with the origin at the left of the baseline and y pointing down (canvas coordinates).
+     * A stroke of one point is a single dot.
+     */
+    public float[][] strokes(char c, double width, double height) {
+        byte[][] strokes = glyph(c);
+        float sx = (float) (width / cellWidth);
+        float sy = (float) (-height / cellHeight);
+        float[][] result = new float[strokes.length][];
+        for (int s = 0; s < strokes.length; s++) {
+            byte[] points = strokes[s];
+            float[] scaled = new float[points.length];
+            for (int i = 0; i < points.length; i += 2) {
+                scaled[i] = points[i] * sx;
+                scaled[i + 1] = points[i + 1] * sy;
+            }
+            result[s] = scaled;
+        }
+        return result;
+    }
+
+    /**
+     * Strokes of c as a path (same coordinates as strokes()). Single dots become zero-length
+     * lines so they show with a round-capped pen and compile to one dot.
+     */
+    public Path2D.Double glyphPath(char c, double width, double height) {
+        Path2D.Double path = new Path2D.Double();
+        for (float[] stroke : strokes(c, width, height)) {
+            path.moveTo(stroke[0], stroke[1]);
+            if (stroke.length == 2) path.lineTo(stroke[0], stroke[1]);
+            for (int i = 2; i < stroke.length; i += 2) path.lineTo(stroke[i], stroke[i + 1]);
+        }
+        return path;
+    }
+
+    /** Total stroke length of c in grid units (for comparing dot counts). */
+    public double strokeLength(char c) {
+        double length = 0;
+        for (byte[] points : glyph(c)) {
+            for (int i = 2; i < points.length; i += 2) {
+                length += Math.hypot(points[i] - points[i - 2], points[i + 1] - points[i - 1]);
+            }
+        }
+        return length;
+    }
+
+    // ==================== BINARY FORMAT ====================
+
+    public static StrokeFont load(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            return read(in);
+        }
+    }
+
+    public static StrokeFont read(InputStream input) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(input));
+        for (byte expected : MAGIC) {
+            if (in.readByte() != expected) throw new IOException("Not a stroke font file");
+        }
+        int version = in.readUnsignedByte();
+        if (version > FORMAT_VERSION) throw new IOException("Stroke font version " + version + " is newer than " + FORMAT_VERSION);
+        String name = in.readUTF();
+        int cellWidth = in.readUnsignedByte();
+        int cellHeight = in.readUnsignedByte();
+        if (cellWidth == 0 || cellHeight == 0) throw new IOException("Stroke font " + name + " has an empty cell");
+        int count = in.readUnsignedShort();
+        Map<Character, byte[][]> glyphs = new ConcurrentHashMap<>();
+        for (int g = 0; g < count; g++) {
+            char c = in.readChar();
+            byte[][] strokes = new byte[in.readUnsignedByte()][];
+            for (int s = 0; s < strokes.length; s++) {
+                int points = in.readUnsignedByte();
+                if (points == 0) throw new IOException("Stroke font " + name + ": empty stroke in '" + c + "'");
+                strokes[s] = new byte[points * 2];
+                in.readFully(strokes[s]);
+            }
+            glyphs.put(c, strokes);
+        }
+        return new StrokeFont(name, cellWidth, cellHeight, glyphs);
+    }
+
+    public void save(Path file) throws IOException {
+        try (OutputStream out = Files.newOutputStream(file)) {
+            write(out);
+        }
+    }
+
+    public void write(OutputStream output) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(output));
+        out.write(MAGIC);
+        out.writeByte(FORMAT_VERSION);
+        out.writeUTF(name);
+        out.writeByte(cellWidth);
+        out.writeByte(cellHeight);
+        List<Character> chars = new ArrayList<>(glyphs.keySet());
+        chars.sort(null);
+        out.writeShort(chars.size());
+        for (char c : chars) {
+            byte[][] strokes = glyphs.get(c);
+            out.writeChar(c);
+            out.writeByte(strokes.length);
+            for (byte[] points : strokes) {
+                out.writeByte(points.length / 2);
+                out.write(points);
+            }
+        }
+        out.flush();
+    }
+
+    // ==================== TEXT TABLES ====================
+
+    /**
+     * Build a font from a text table: one entry per glyph, "c=x,y x,y|x,y", strokes separated
+     * by '|', points by spaces. Handy for writing new fonts before saving them as .stf.
+     */
+    public static StrokeFont parse(String name, int cellWidth, int cellHeight, String[] table) {
+        Map<Character, byte[][]> glyphs = new ConcurrentHashMap<>();
+        for (String entry : table) {
+            if (entry.length() < 3 || entry.charAt(1) != '=') {
+                throw new IllegalArgumentException("Stroke glyph entry must look like c=x,y x,y|...: " + entry);
+            }
+            String[] strokeTexts = entry.substring(2).split("\\|");
+            byte[][] strokes = new byte[strokeTexts.length][];
+            for (int s = 0; s < strokeTexts.length; s++) {
+                String[] points = strokeTexts[s].trim().split(" +");
+                byte[] coords = new byte[points.length * 2];
+                for (int p = 0; p < points.length; p++) {
+                    int comma = points[p].indexOf(',');
+                    coords[p * 2] = (byte) Integer.parseInt(points[p].substring(0, comma));
+                    coords[p * 2 + 1] = (byte) Integer.parseInt(points[p].substring(comma + 1));
+                }
+                strokes[s] = coords;
+            }
+            glyphs.put(entry.charAt(0), strokes);
+        }
+        return new StrokeFont(name, cellWidth, cellHeight, glyphs);
+    }
+
+    // Built-in single-line font: 8 x 12 grid, baseline at y = 0, caps 12 high
+    private static final int SIMPLEX_CELL_WIDTH = 8;
+    private static final int SIMPLEX_CELL_HEIGHT = 12;
+    private static final String[] SIMPLEX = {
+        "A=0,0 4,12 8,0|1,3 7,3",
+        "B=0,0 0,12 5,12 7,11 7,7 5,6 0,6|5,6 7,5 8,3 7,1 5,0 0,0",
+        "C=8,10 6,12 2,12 0,10 0,2 2,0 6,0 8,2",
+        "D=0,0 0,12 5,12 8,9 8,3 5,0 0,0",
+        "E=8,12 0,12 0,0 8,0|0,6 5,6",
+        "F=8,12 0,12 0,0|0,6 5,6",
+        "G=8,10 6,12 2,12 0,10 0,2 2,0 6,0 8,2 8,5 4,5",
+        "H=0,0 0,12|8,0 8,12|0,6 8,6",
+        "I=2,12 6,12|4,12 4,0|2,0 6,0",
+        "J=8,12 8,2 6,0 2,0 0,2",
+        "K=0,0 0,12|8,12 0,4|3,7 8,0",
+        "L=0,12 0,0 8,0",
+        "M=0,0 0,12 4,6 8,12 8,0",
+        "N=0,0 0,12 8,0 8,12",
+        "O=2,0 0,2 0,10 2,12 6,12 8,10 8,2 6,0 2,0",
+        "P=0,0 0,12 6,12 8,10 8,8 6,6 0,6",
+        "Q=2,0 0,2 0,10 2,12 6,12 8,10 8,2 6,0 2,0|5,3 8,0",
+        "R=0,0 0,12 6,12 8,10 8,8 6,6 0,6|4,6 8,0",
+        "S=8,10 6,12 2,12 0,10 0,8 2,6 6,6 8,4 8,2 6,0 2,0 0,2",
+        "T=0,12 8,12|4,12 4,0",
+        "U=0,12 0,2 2,0 6,0 8,2 8,12",
+        "V=0,12 4,0 8,12",
+        "W=0,12 2,0 4,8 6,0 8,12",
+        "X=0,12 8,0|0,0 8,12",
+        "Y=0,12 4,6 8,12|4,6 4,0",
+        "Z=0,12 8,12 0,0 8,0",
+        "0=2,0 0,2 0,10 2,12 6,12 8,10 8,2 6,0 2,0|1,1 7,11",
+        "1=2,10 4,12 4,0|2,0 6,0",
+        "2=0,10 2,12 6,12 8,10 8,8 0,0 8,0",
+        "3=0,10 2,12 6,12 8,10 8,8 6,6 3,6|6,6 8,4 8,2 6,0 2,0 0,2",
+        "4=6,0 6,12 0,4 8,4",
+        "5=8,12 0,12 0,7 6,7 8,5 8,2 6,0 2,0 0,2",
+        "6=7,12 3,12 0,9 0,2 2,0 6,0 8,2 8,5 6,7 0,7",
+        "7=0,12 8,12 3,0",
+        "8=2,6 0,8 0,10 2,12 6,12 8,10 8,8 6,6 2,6 0,4 0,2 2,0 6,0 8,2 8,4 6,6",
+        "9=8,5 2,5 0,7 0,10 2,12 6,12 8,10 8,3 5,0 1,0",
+        "-=1,6 7,6",
+        "_=0,0 8,0",
+        ".=4,0",
+        ",=4,1 4,0 3,-2",
+        ":=4,8|4,2",
+        ";=4,8|4,2 4,1 3,-1",
+        "/=0,0 8,12",
+        "\\=0,12 8,0",
+        "+=4,2 4,10|0,6 8,6",
+        "==1,4 7,4|1,8 7,8",
+        "*=4,3 4,9|1,4 7,8|1,8 7,4",
+        "#=2,0 3,12|5,0 6,12|0,4 8,4|0,8 8,8",
+        "(=6,12 4,10 3,7 3,5 4,2 6,0",
+        ")=2,12 4,10 5,7 5,5 4,2 2,0",
+        "'=4,12 4,9",
+        "!=4,12 4,3|4,0",
+        "?=0,10 2,12 6,12 8,10 8,8 4,5 4,3|4,0",
+        "%=0,0 8,12|1,12 0,11 1,10 2,11 1,12|7,2 6,1 7,0 8,1 7,2",
+        "&=8,0 1,8 1,11 2,12 4,12 5,11 5,9 0,4 0,2 2,0 4,0 8,5",
+    };
+}
@@ -0,0 +1,123 @@
+// StrokeFont Test Program - Verify single-line fonts for dot-pin marking
+// Covers the built-in font, scaling, the binary format, FarziMark strokes and dot counts
+
+import java.awt.Font;
+import java.awt.geom.Rectangle2D;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+public class StrokeFontTest {
+
+    public static void main(String[] args) throws Exception {
+        System.setProperty("java.awt.headless", "true");
+        System.out.println("Testing StrokeFont...");
+        testBuiltIn();
+        testBinaryFormat();
+        testMarks();
+        System.out.println("\nAll StrokeFont checks passed.");
+    }
+
+    private static void testBuiltIn() {
+        StrokeFont font = StrokeFont.builtIn();
+        boolean complete = true;
+        for (char c = 'A'; c <= 'Z'; c++) complete &= font.hasGlyph(c);
+        for (char c = '0'; c <= '9'; c++) complete &= font.hasGlyph(c);
+        check(complete && font.hasGlyph('-') && font.hasGlyph('/') && font.hasGlyph('a'), "letters, digits, punctuation and lower case covered");
+        check(StrokeFont.forName("No such font") == font && StrokeFont.getFontNames().contains(StrokeFont.DEFAULT_NAME),
+              "unknown names fall back to the built-in font");
+
+        float[][] strokes = font.strokes('T', 16, 24);
+        check(strokes.length == 2 && Arrays.equals(strokes[0], new float[] {0, -24, 16, -24}),
+              "strokes scaled to the cell, y down from the baseline");
+        check(font.strokes('.', 8, 12)[0].length == 2, "a one-point stroke is a single dot");
+        check(Arrays.deepEquals(font.strokes('~', 8, 12), font.strokes('?', 8, 12)), "missing glyphs drawn as '?'");
+        Rectangle2D bounds = font.glyphPath('H', 30, 40).getBounds2D();
+        check(bounds.getWidth() == 30 && bounds.getMinY() == -40 && bounds.getMaxY() == 0, "glyph path fills the cell");
+    }
+
+    private static void testBinaryFormat() throws Exception {
+        StrokeFont font = StrokeFont.builtIn();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        font.write(bytes);
+        check(bytes.size() < 1500, "built-in font is " + bytes.size() + " bytes in binary form");
+
+        StrokeFont copy = StrokeFont.read(new ByteArrayInputStream(bytes.toByteArray()));
+        boolean same = copy.getName().equals(font.getName()) && copy.getGlyphCount() == font.getGlyphCount();
+        for (char c : "AZ09-#&%".toCharArray()) same &= Arrays.deepEquals(copy.strokes(c, 10, 10), font.strokes(c, 10, 10));
+        check(same, "binary round trip keeps every stroke");
+
+        StrokeFont custom = StrokeFont.parse("Tiny", 4, 4, new String[] {"L=0,4 0,0 4,0", "X=0,0 4,4|0,4 4,0"});
+        ByteArrayOutputStream customBytes = new ByteArrayOutputStream();
+        custom.write(customBytes);
+        StrokeFont.register(StrokeFont.read(new ByteArrayInputStream(customBytes.toByteArray())));
+        check(StrokeFont.forName("Tiny").getGlyphCount() == 2 && StrokeFont.forName("Tiny").strokeLength('L') == 8,
+              "custom fonts load and register by name");
+
+        byte[] broken = Arrays.copyOf(bytes.toByteArray(), bytes.size());
+        broken[0] = 'X';
+        try {
+            StrokeFont.read(new ByteArrayInputStream(broken));
+            throw new AssertionError("FAILED: bad magic accepted");
+        } catch (IOException e) {
+            check(true, "bad magic reported: " + e.getMessage());
+        }
+        try {
+            StrokeFont.read(new ByteArrayInputStream(Arrays.copyOf(bytes.toByteArray(), bytes.size() / 2)));
+            throw new AssertionError("FAILED: truncated font accepted");
+        } catch (IOException e) {
+            check(true, "truncated font reported");
+        }
+    }
+
+    private static void testMarks() {
+        FarziMark farzi = new FarziMark(20, 20, "AB-1234");
+        Rectangle2D strokes = farzi.getEngravedStrokePath().getBounds2D();
+        check(strokes.getMinX() >= farzi.x && strokes.getMaxX() <= farzi.x + farzi.width + farzi.getCharHeight(),
+              "FarziMark strokes stay inside the mark");
+
+        FarziMark unslanted = new FarziMark(20, 20, "AB-1234");
+        unslanted.setScriptSlant(0);
+        int strokeDots = DotPathCompiler.compileMarks(List.of(unslanted)).size();
+        // Same text with an outline font of the same cap height
+        double capHeight = unslanted.getCharHeight() * 0.7;
+        Font outlineFont = GlyphCache.font("Arial", Font.BOLD, (float) (capHeight / 0.716));
+        TextMark outline = new TextMark(20, 60, "AB-1234");
+        outline.setFont(outlineFont);
+        int outlineDots = DotPathCompiler.compileMarks(List.of(outline)).size();
+        System.out.println("  AB-1234: " + strokeDots + " centre-line dots, " + outlineDots + " outline dots");
+        check(strokeDots < outlineDots, "single-line strokes need fewer dots than outlines");
+
+        ArcLettersMark arc = new ArcLettersMark(100, 100, "ARC");
+        List<java.awt.geom.Point2D.Double> points = arc.generatePathPoints(2.0);
+        check(points.size() > 20, "arc letters follow the stroke font (" + points.size() + " points)");
+
+        DotPath arcDots = DotPathCompiler.compileMarks(List.of(arc));
+        Rectangle2D arcStrokes = arc.getEngravedStrokePath().getBounds2D();
+        boolean onStrokes = !arcDots.isEmpty();
+        for (int i = 0; i < arcDots.size(); i++) {
+            onStrokes &= arcStrokes.getMinX() - 1 <= arcDots.getX(i) && arcDots.getX(i) <= arcStrokes.getMaxX() + 1
+                      && arcStrokes.getMinY() - 1 <= arcDots.getY(i) && arcDots.getY(i) <= arcStrokes.getMaxY() + 1;
+        }
+        check(onStrokes, "arc letters compile from their stroke centre lines (" + arcDots.size() + " dots)");
+
+        ArcLettersMark tiny = new ArcLettersMark(100, 100, "LX");
+        DotPath builtInDots = DotPathCompiler.compileMarks(List.of(tiny));
+        tiny.setStrokeFontName("Tiny");
+        DotPath tinyDots = DotPathCompiler.compileMarks(List.of(tiny));
+        check(!tinyDots.isEmpty() && !Arrays.equals(Arrays.copyOf(tinyDots.getCoords(), tinyDots.size() * 2),
+                                                    Arrays.copyOf(builtInDots.getCoords(), builtInDots.size() * 2)),
+              "arc letters use the selected stroke font");
+        tiny.setStrokeFontName(null);
+        check(StrokeFont.DEFAULT_NAME.equals(tiny.getStrokeFontName()), "blank stroke font name falls back to the default");
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError("FAILED: " + message);
+        }
+        System.out.println("✓ " + message);
+    }
+}
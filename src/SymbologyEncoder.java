@@ -0,0 +1,18 @@
+/**
+ * SymbologyEncoder: turns barcode data into the bar/space runs of one linear or stacked
+ * symbology. Implementations are stateless and registered by type name in
+ * SymbologyEncoders, so BarcodeMark (and anything else that needs bars) looks the encoder
+ * up instead of switching on the type.
+ */
+public interface SymbologyEncoder {
+
+    /** Type name as shown in the barcode type lists, e.g. "Code 128". */
+    String getName();
+
+    /**
+     * Encode data, adding mandatory check characters.
+     *
+     * @throws IllegalArgumentException when the data cannot be represented in this symbology
+     */
+    BarcodeModel encode(String data);
+}
@@ -0,0 +1,474 @@
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * SymbologyEncoders: registry of the linear and stacked barcode encoders by type name.
+ *
+ * Every built-in encoder is table driven: character patterns are static arrays and the
+ * encoders only look them up and append runs to a BarcodeModel.Builder. Code 128 lives in
+ * Code128Encoder and PDF417 in Pdf417Encoder; the others are small enough to sit here. Further symbologies plug in
+ * through register(), and BarcodeMark draws any registered type from its model.
+ */
+public final class SymbologyEncoders {
+
+    // Soft coding: Wide-to-narrow ratio for Code 39, ITF and Codabar
+    public static final int WIDE_RATIO = 3;
+
+    private static final Map<String, SymbologyEncoder> ENCODERS = new LinkedHashMap<>();
+
+    static {
+        register(new Code128Encoder());
+        register(new Code128Encoder(true));
+        register(new Ean13Encoder());
+        register(new Ean8Encoder());
+        register(new UpcAEncoder());
+        register(new UpcEEncoder());
+        register(new Code39Encoder());
+        register(new Code93Encoder());
+        register(new ItfEncoder());
+        register(new CodabarEncoder());
+        register(new MsiEncoder("MSI"));
+        register(new MsiEncoder("MSI Plessey"));
+        register(new PharmacodeEncoder());
+        register(new Pdf417Encoder());
+    }
+
+    private SymbologyEncoders() {
+    }
+
+    /** Add or replace the encoder for its type name. */
+    public static synchronized void register(SymbologyEncoder encoder) {
+        ENCODERS.put(encoder.getName(), encoder);
+    }
+
+    /** Encoder for a type name, or null when the type has no linear/stacked encoder. */
+    public static synchronized SymbologyEncoder get(String type) {
+        return type != null ? ENCODERS.get(type) : null;
+    }
+
+    public static synchronized List<String> getNames() {
+        return new ArrayList<>(ENCODERS.keySet());
+    }
+
+    // ==================== EAN / UPC ====================
+
+    private static final String START_GUARD = "101";
+    private static final String CENTER_GUARD = "01010";
+    private static final String END_GUARD = "101";
+    private static final String UPCE_END_GUARD = "010101";
+
+    // Soft coding: Data used when the input holds no digits
+    private static final String DEFAULT_EAN13 = "123456789012";
+    private static final String DEFAULT_EAN8 = "9638507";
+    private static final String DEFAULT_UPCA = "012345678905";
+    private static final String DEFAULT_UPCE = "123456";
+
+    private static final String[] EAN_L_PATTERNS = {   // Left-hand odd parity
+        "0001101", "0011001", "0010011", "0111101", "0100011", "0110001", "0101111", "0111011", "0110111", "0001011"
+    };
+    private static final String[] EAN_G_PATTERNS = {   // Left-hand even parity
+        "0100111", "0110011", "0011011", "0100001", "0011101", "0111001", "0000101", "0010001", "0001001", "0010111"
+    };
+    private static final String[] EAN_R_PATTERNS = {   // Right-hand
+        "1110010", "1100110", "1101100", "1000010", "1011100", "1001110", "1010000", "1000100", "1001000", "1110100"
+    };
+    private static final String[] EAN13_PARITY_PATTERNS = {   // L/G usage for digits 2-7 by first digit
+        "LLLLLL", "LLGLGG", "LLGGLG", "LLGGGL", "LGLLGG", "LGGLLG", "LGGGLL", "LGLGLG", "LGLGGL", "LGGLGL"
+    };
+    private static final String[] UPCE_PARITY_PATTERNS = {    // L/G usage by check digit, number system 0
+        "GGGLLL", "GGLGLL", "GGLLGL", "GGLLLG", "GLGGLL", "GLLGGL", "GLLLGG", "GLGLGL", "GLGLLG", "GLLGLG"
+    };
+
+    /**
+     * Mod 10 check digit with weight 3 on the rightmost digit, alternating 3 and 1 leftwards
+     * (EAN-13, EAN-8, UPC-A and ITF).
+     */
+    static int mod10CheckDigit(String digits) {
+        int sum = 0;
+        for (int i = digits.length() - 1, weight = 3; i >= 0; i--, weight = 4 - weight) {
+            sum += (digits.charAt(i) - '0') * weight;
+        }
+        return (10 - sum % 10) % 10;
+    }
+
+    /**
+     * Digits of input with the check digit appended: shorter input is zero padded, longer
+     * input truncated, and a supplied check digit kept only when it is correct.
+     */
+    private static String withCheckDigit(String input, int dataDigits, String defaultDigits) {
+        String digits = input.replaceAll("[^0-9]", "");
+        if (digits.isEmpty()) digits = defaultDigits;
+        if (digits.length() == dataDigits + 1) {
+            String body = digits.substring(0, dataDigits);
+            if (digits.charAt(dataDigits) - '0' == mod10CheckDigit(body)) return digits;
+            digits = body;
+        }
+        StringBuilder padded = new StringBuilder();
+        for (int i = digits.length(); i < dataDigits; i++) padded.append('0');
+        padded.append(digits.length() > dataDigits ? digits.substring(0, dataDigits) : digits);
+        return padded.toString() + mod10CheckDigit(padded.toString());
+    }
+
+    static final class Ean13Encoder implements SymbologyEncoder {
+        @Override
+        public String getName() {
+            return "EAN-13";
+        }
+
+        @Override
+        public BarcodeModel encode(String data) {
+            String ean = withCheckDigit(data, 12, DEFAULT_EAN13);
+            String parity = EAN13_PARITY_PATTERNS[ean.charAt(0) - '0'];
+            BarcodeModel.Builder builder = new BarcodeModel.Builder().addModules(START_GUARD);
+            for (int i = 1; i <= 6; i++) {
+                int digit = ean.charAt(i) - '0';
+                builder.addModules(parity.charAt(i - 1) == 'L' ? EAN_L_PATTERNS[digit] : EAN_G_PATTERNS[digit]);
+            }
+            builder.addModules(CENTER_GUARD);
+            for (int i = 7; i <= 12; i++) {
+                builder.addModules(EAN_R_PATTERNS[ean.charAt(i) - '0']);
+            }
+            return builder.addModules(END_GUARD).build(getName(), ean);
+        }
+    }
+
+    static final class Ean8Encoder implements SymbologyEncoder {
+        @Override
+        public String getName() {
+            return "EAN-8";
+        }
+
+        @Override
+        public BarcodeModel encode(String data) {
+            String ean = withCheckDigit(data, 7, DEFAULT_EAN8);
+            BarcodeModel.Builder builder = new BarcodeModel.Builder().addModules(START_GUARD);
+            for (int i = 0; i < 4; i++) builder.addModules(EAN_L_PATTERNS[ean.charAt(i) - '0']);
+            builder.addModules(CENTER_GUARD);
+            for (int i = 4; i < 8; i++) builder.addModules(EAN_R_PATTERNS[ean.charAt(i) - '0']);
+            return builder.addModules(END_GUARD).build(getName(), ean);
+        }
+    }
+
+    static final class UpcAEncoder implements SymbologyEncoder {
+        @Override
+        public String getName() {
+            return "UPC-A";
+        }
+
+        @Override
+        public BarcodeModel encode(String data) {
+            String upc = withCheckDigit(data, 11, DEFAULT_UPCA.substring(0, 11));
+            BarcodeModel.Builder builder = new BarcodeModel.Builder().addModules(START_GUARD);
+            for (int i = 0; i < 6; i++) builder.addModules(EAN_L_PATTERNS[upc.charAt(i) - '0']);
+            builder.addModules(CENTER_GUARD);
+            for (int i = 6; i < 12; i++) builder.addModules(EAN_R_PATTERNS[upc.charAt(i) - '0']);
+            return builder.addModules(END_GUARD).build(getName(), upc);
+        }
+    }
+
+    /**
+     * UPC-E: six digits (number system 0), or number system 0/1 followed by six digits and an
+     * optional check digit. The check digit is that of the expanded UPC-A number and is
+     * carried by the odd/even parity of the six digit characters.
+     */
+    static final class UpcEEncoder implements SymbologyEncoder {
+        @Override
+        public String getName() {
+            return "UPC-E";
+        }
+
+        @Override
+        public BarcodeModel encode(String data) {
+            String digits = data.replaceAll("[^0-9]", "");
+            if (digits.isEmpty()) digits = DEFAULT_UPCE;
+            if (digits.length() < 6) digits = String.format("%6s", digits).replace(' ', '0');
+            if (digits.length() == 6) digits = "0" + digits;
+            if (digits.length() > 7) digits = digits.substring(0, 7);   // Supplied check digit is recomputed
+            int numberSystem = digits.charAt(0) - '0';
+            if (numberSystem > 1) {
+                throw new IllegalArgumentException("UPC-E number system must be 0 or 1");
+            }
+            int check = mod10CheckDigit(expandToUpcA(digits));
+            String parity = UPCE_PARITY_PATTERNS[check];
+
+            BarcodeModel.Builder builder = new BarcodeModel.Builder().addModules(START_GUARD);
+            for (int i = 0; i < 6; i++) {
+                int digit = digits.charAt(i + 1) - '0';
+                boolean even = (parity.charAt(i) == 'G') == (numberSystem == 0);
+                builder.addModules(even ? EAN_G_PATTERNS[digit] : EAN_L_PATTERNS[digit]);
+            }
+            return builder.addModules(UPCE_END_GUARD).build(getName(), digits + check);
+        }
+
+        /** Eleven UPC-A digits (without check digit) for a number system digit plus six UPC-E digits. */
+        static String expandToUpcA(String upce) {
+            char ns = upce.charAt(0);
+            String d = upce.substring(1);
+            char last = d.charAt(5);
+            switch (last) {
+                case '0':
+                case '1':
+                case '2':
+                    return ns + d.substring(0, 2) + last + "0000" + d.substring(2, 5);
+                case '3':
+                    return ns + d.substring(0, 3) + "00000" + d.substring(3, 5);
+                case '4':
+                    return ns + d.substring(0, 4) + "00000" + d.charAt(4);
+                default:
+                    return ns + d.substring(0, 5) + "0000" + last;
+            }
+        }
+    }
+
+    // ==================== CODE 39 / CODE 93 ====================
+
+    // Code 39: 9 elements (bar first), bit set = wide
+    private static final String CODE39_ALPHABET = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ-. $/+%";
+    private static final int[] CODE39_PATTERNS = {
+        0x034, 0x121, 0x061, 0x160, 0x031, 0x130, 0x070, 0x025, 0x124, 0x064,
+        0x109, 0x049, 0x148, 0x019, 0x118, 0x058, 0x00D, 0x10C, 0x04C, 0x01C,
+        0x103, 0x043, 0x142, 0x013, 0x112, 0x052, 0x007, 0x106, 0x046, 0x016,
+        0x181, 0x0C1, 0x1C0, 0x091, 0x190, 0x0D0, 0x085, 0x184, 0x0C4, 0x0A8,
+        0x0A2, 0x08A, 0x02A
+    };
+    private static final int CODE39_START_STOP = 0x094;
+
+    // Code 93: 9 modules per character; the last four values are the shift characters ($) (%) (/) (+)
+    private static final String CODE93_ALPHABET = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ-. $/+%";
+    private static final int[] CODE93_PATTERNS = {
+        0x114, 0x148, 0x144, 0x142, 0x128, 0x124, 0x122, 0x150, 0x112, 0x10A,
+        0x1A8, 0x1A4, 0x1A2, 0x194, 0x192, 0x18A, 0x168, 0x164, 0x162, 0x134,
+        0x11A, 0x158, 0x14C, 0x146, 0x12C, 0x116, 0x1B4, 0x1B2, 0x1AC, 0x1A6,
+        0x196, 0x19A, 0x16C, 0x166, 0x136, 0x13A, 0x12E, 0x1D4, 0x1D2, 0x1CA,
+        0x16E, 0x176, 0x1AE, 0x126, 0x1DA, 0x1D6, 0x132
+    };
+    private static final int CODE93_START_STOP = 0x15E;
+
+    static final class Code39Encoder implements SymbologyEncoder {
+        @Override
+        public String getName() {
+            return "Code 39";
+        }
+
+        @Override
+        public BarcodeModel encode(String data) {
+            // Start/stop '*', one narrow space between characters
+            BarcodeModel.Builder builder = new BarcodeModel.Builder();
+            builder.addWideNarrow(CODE39_START_STOP, 9, 1, WIDE_RATIO, true).add(false, 1);
+            StringBuilder encoded = new StringBuilder();
+            for (char c : data.toUpperCase().toCharArray()) {
+                int index = CODE39_ALPHABET.indexOf(c);
+                if (index < 0) {
+                    throw new IllegalArgumentException("Code 39 cannot encode '" + c + "'");
+                }
+                builder.addWideNarrow(CODE39_PATTERNS[index], 9, 1, WIDE_RATIO, true).add(false, 1);
+                encoded.append(c);
+            }
+            builder.addWideNarrow(CODE39_START_STOP, 9, 1, WIDE_RATIO, true);
+            return builder.build(getName(), encoded.toString());
+        }
+    }
+
+    static final class Code93Encoder implements SymbologyEncoder {
+        @Override
+        public String getName() {
+            return "Code 93";
+        }
+
+        @Override
+        public BarcodeModel encode(String data) {
+            // Start, data, check characters C and K, stop and termination bar
+            String code93Data = data.toUpperCase();
+            int[] values = new int[code93Data.length() + 2];
+            for (int i = 0; i < code93Data.length(); i++) {
+                values[i] = CODE93_ALPHABET.indexOf(code93Data.charAt(i));
+                if (values[i] < 0) {
+                    throw new IllegalArgumentException("Code 93 cannot encode '" + code93Data.charAt(i) + "'");
+                }
+            }
+            values[code93Data.length()] = checkCharacter(values, code93Data.length(), 20);
+            values[code93Data.length() + 1] = checkCharacter(values, code93Data.length() + 1, 15);
+
+            BarcodeModel.Builder builder = new BarcodeModel.Builder();
+            builder.addBits(CODE93_START_STOP, 9);
+            for (int value : values) {
+                builder.addBits(CODE93_PATTERNS[value], 9);
+            }
+            builder.addBits(CODE93_START_STOP, 9).add(true, 1);
+            return builder.build(getName(), code93Data);
+        }
+
+        /** Weights 1..maxWeight cycling from the rightmost value, modulo 47. */
+        private static int checkCharacter(int[] values, int count, int maxWeight) {
+            int sum = 0;
+            for (int i = count - 1, weight = 1; i >= 0; i--) {
+                sum += values[i] * weight;
+                weight = weight == maxWeight ? 1 : weight + 1;
+            }
+            return sum % 47;
+        }
+    }
+
+    // ==================== ITF / CODABAR ====================
+
+    // Interleaved 2 of 5: 5 elements per digit, bit set = wide (most significant first)
+    private static final int[] ITF_PATTERNS = {0x06, 0x11, 0x09, 0x18, 0x05, 0x14, 0x0C, 0x03, 0x12, 0x0A};
+
+    // Codabar: 7 elements (bar first), bit set = wide
+    private static final String CODABAR_ALPHABET = "0123456789-$:/.+ABCD";
+    private static final int[] CODABAR_PATTERNS = {
+        0x003, 0x006, 0x009, 0x060, 0x012, 0x042, 0x021, 0x024, 0x030, 0x048,
+        0x00C, 0x018, 0x045, 0x051, 0x054, 0x015, 0x01A, 0x029, 0x00B, 0x00E
+    };
+    private static final String CODABAR_START_STOP = "ABCD";
+    private static final char CODABAR_DEFAULT_START_STOP = 'A';
+
+    /** Interleaved 2 of 5: digit pairs, first digit in the bars and second in the spaces. */
+    static final class ItfEncoder implements SymbologyEncoder {
+        @Override
+        public String getName() {
+            return "ITF";
+        }
+
+        @Override
+        public BarcodeModel encode(String data) {
+            String digits = data.replaceAll("[^0-9]", "");
+            if (digits.isEmpty()) {
+                throw new IllegalArgumentException("ITF data must contain digits");
+            }
+            if (digits.length() % 2 != 0) digits = "0" + digits;
+
+            BarcodeModel.Builder builder = new BarcodeModel.Builder();
+            builder.addWidths(new int[] {1, 1, 1, 1});
+            for (int i = 0; i < digits.length(); i += 2) {
+                int bars = ITF_PATTERNS[digits.charAt(i) - '0'];
+                int spaces = ITF_PATTERNS[digits.charAt(i + 1) - '0'];
+                for (int e = 4; e >= 0; e--) {
+                    builder.add(true, (bars >>> e & 1) != 0 ? WIDE_RATIO : 1);
+                    builder.add(false, (spaces >>> e & 1) != 0 ? WIDE_RATIO : 1);
+                }
+            }
+            builder.addWidths(new int[] {WIDE_RATIO, 1, 1});
+            return builder.build(getName(), digits);
+        }
+    }
+
+    /** Codabar: start/stop A-D taken from the data when present, otherwise A...A. */
+    static final class CodabarEncoder implements SymbologyEncoder {
+        @Override
+        public String getName() {
+            return "Codabar";
+        }
+
+        @Override
+        public BarcodeModel encode(String data) {
+            String text = data.toUpperCase();
+            if (text.length() < 2 || CODABAR_START_STOP.indexOf(text.charAt(0)) < 0
+                || CODABAR_START_STOP.indexOf(text.charAt(text.length() - 1)) < 0) {
+                text = CODABAR_DEFAULT_START_STOP + text + CODABAR_DEFAULT_START_STOP;
+            }
+            BarcodeModel.Builder builder = new BarcodeModel.Builder();
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                int index = CODABAR_ALPHABET.indexOf(c);
+                boolean startStop = i == 0 || i == text.length() - 1;
+                if (index < 0 || (!startStop && CODABAR_START_STOP.indexOf(c) >= 0)) {
+                    throw new IllegalArgumentException("Codabar cannot encode '" + c + "'");
+                }
+                if (i > 0) builder.add(false, 1);
+                builder.addWideNarrow(CODABAR_PATTERNS[index], 7, 1, WIDE_RATIO, true);
+            }
+            return builder.build(getName(), text.substring(1, text.length() - 1));
+        }
+    }
+
+    // ==================== MSI / PHARMACODE ====================
+
+    // Soft coding: Pharmacode bar and gap widths in modules
+    private static final int PHARMA_NARROW = 1;
+    private static final int PHARMA_WIDE = 3;
+    private static final int PHARMA_GAP = 2;
+    private static final int PHARMA_MIN = 3;
+    private static final int PHARMA_MAX = 131070;
+
+    /** MSI (Modified Plessey) with a Luhn mod 10 check digit. */
+    static final class MsiEncoder implements SymbologyEncoder {
+        private final String name;
+
+        MsiEncoder(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public BarcodeModel encode(String data) {
+            String digits = data.replaceAll("[^0-9]", "");
+            if (digits.isEmpty()) {
+                throw new IllegalArgumentException("MSI data must contain digits");
+            }
+            digits += luhnCheckDigit(digits);
+            BarcodeModel.Builder builder = new BarcodeModel.Builder().addModules("110");
+            for (int i = 0; i < digits.length(); i++) {
+                int digit = digits.charAt(i) - '0';
+                for (int bit = 3; bit >= 0; bit--) {
+                    builder.addModules((digit >>> bit & 1) != 0 ? "110" : "100");
+                }
+            }
+            return builder.addModules("1001").build(getName(), digits);
+        }
+
+        static int luhnCheckDigit(String digits) {
+            int sum = 0;
+            for (int i = digits.length() - 1, twice = 1; i >= 0; i--, twice ^= 1) {
+                int value = (digits.charAt(i) - '0') << twice;
+                sum += value > 9 ? value - 9 : value;
+            }
+            return (10 - sum % 10) % 10;
+        }
+    }
+
+    /** Laetus Pharmacode (one track): narrow bar = 2^k, wide bar = 2^(k+1), read right to left. */
+    static final class PharmacodeEncoder implements SymbologyEncoder {
+        @Override
+        public String getName() {
+            return "Pharma Code";
+        }
+
+        @Override
+        public BarcodeModel encode(String data) {
+            int value;
+            try {
+                value = Integer.parseInt(data.trim());
+            } catch (NumberFormatException e) {
+                value = -1;
+            }
+            if (value < PHARMA_MIN || value > PHARMA_MAX) {
+                throw new IllegalArgumentException("Pharmacode needs a number from " + PHARMA_MIN + " to " + PHARMA_MAX);
+            }
+            // Bars come out rightmost first
+            int[] bars = new int[17];
+            int count = 0;
+            for (int n = value; n > 0; ) {
+                if (n % 2 == 0) {
+                    bars[count++] = PHARMA_WIDE;
+                    n = (n - 2) / 2;
+                } else {
+                    bars[count++] = PHARMA_NARROW;
+                    n = (n - 1) / 2;
+                }
+            }
+            BarcodeModel.Builder builder = new BarcodeModel.Builder();
+            for (int i = count - 1; i >= 0; i--) {
+                builder.add(true, bars[i]);
+                if (i > 0) builder.add(false, PHARMA_GAP);
+            }
+            return builder.build(getName(), String.valueOf(value));
+        }
+    }
+}
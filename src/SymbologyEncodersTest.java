@@ -0,0 +1,353 @@
+// SymbologyEncoders Test Program - Verify the table-driven linear barcode encoders
+// Reference encodings, decode round trips and Code 128 shortest-subset selection
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+public class SymbologyEncodersTest {
+    private static final String[] EAN_L = {
+        "0001101", "0011001", "0010011", "0111101", "0100011", "0110001", "0101111", "0111011", "0110111", "0001011"
+    };
+
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+        System.out.println("Testing SymbologyEncoders...");
+
+        // Registry
+        List<String> names = SymbologyEncoders.getNames();
+        check(names.containsAll(Arrays.asList("Code 128", "GS1-128", "EAN-13", "EAN-8", "UPC-A", "UPC-E", "Code 39",
+              "Code 93", "ITF", "Codabar", "MSI", "MSI Plessey", "Pharma Code", "PDF417")), "registry holds " + names.size() + " encoders");
+        check(SymbologyEncoders.get("QR Code") == null && SymbologyEncoders.get(null) == null, "2D types not registered");
+
+        testCode128();
+        testUpcEan();
+        testItfAndCodabar();
+        testMsiAndPharmacode();
+        testPdf417();
+        testBarcodeMarkIntegration();
+
+        System.out.println("\nAll SymbologyEncoders checks passed.");
+    }
+
+    private static void testCode128() {
+        // Table: 11 modules per symbol, even bar modules, odd space modules, all distinct
+        boolean wellFormed = Code128Encoder.PATTERNS.length == 107;
+        List<String> seen = new ArrayList<>();
+        for (int v = 0; v < 106; v++) {
+            int[] p = Code128Encoder.PATTERNS[v];
+            wellFormed &= p.length == 6 && p[0] + p[1] + p[2] + p[3] + p[4] + p[5] == 11 && (p[0] + p[2] + p[4]) % 2 == 0;
+            wellFormed &= !seen.contains(Arrays.toString(p));
+            seen.add(Arrays.toString(p));
+        }
+        check(wellFormed && Arrays.stream(Code128Encoder.PATTERNS[106]).sum() == 13, "Code 128 pattern table well formed");
+
+        // Reference symbol values (start ... check)
+        check(Arrays.equals(Code128Encoder.encodeValues("123456"), new int[] {105, 12, 34, 56, 44}), "123456 in subset C, check 44");
+        check(Arrays.equals(Code128Encoder.encodeValues("ABC123456"), new int[] {104, 33, 34, 35, 99, 12, 34, 56, 23}),
+              "ABC123456 switches B to C, check 23");
+        check(Code128Encoder.encodeValues("A\tB")[0] == 103 && Code128Encoder.encodeValues("A\tB").length == 5,
+              "control character starts in subset A");
+        int[] shifted = Code128Encoder.encodeValues("ab\tcd");
+        check(shifted[0] == 104 && shifted[3] == 98 && shifted.length == 8, "single control character uses a shift from B");
+        check(Code128Encoder.encodeValues("12345").length == 6, "odd digit count costs one switch");
+
+        // Decode round trip and minimality against exhaustive search
+        Random random = new Random(128);
+        String alphabet = "0123456789AZaz \t\n_~";
+        int trials = 0;
+        for (int t = 0; t < 400; t++) {
+            StringBuilder data = new StringBuilder();
+            int length = 1 + random.nextInt(9);
+            for (int i = 0; i < length; i++) data.append(alphabet.charAt(random.nextInt(random.nextBoolean() ? 10 : alphabet.length())));
+            String text = data.toString();
+            BarcodeModel model = new Code128Encoder().encode(text);
+            int[] values = valuesFromRuns(model.getRuns(0));
+            int[] expected = Code128Encoder.encodeValues(text);
+            check(Arrays.equals(values, expected), null);
+            check(decode128(values).equals(text), null);
+            int best = Integer.MAX_VALUE;
+            for (int start = 0; start < 3; start++) best = Math.min(best, 1 + exhaustive(text, 0, start, false));
+            check(values.length - 1 == best, null);
+            trials++;
+        }
+        check(trials == 400, "400 random strings decode and use the fewest symbols");
+
+        // GS1-128: leading FNC1, parentheses dropped
+        int[] gs1 = valuesFromRuns(SymbologyEncoders.get("GS1-128").encode("(01)09501101530003").getRuns(0));
+        check(gs1[0] == 105 && gs1[1] == Code128Encoder.FNC1 && gs1[2] == 1 && gs1.length == 11, "GS1-128 FNC1 + (01) in subset C");
+        expectRejected("Code 128", "€");
+
+        // Shorter symbols for numeric data
+        BarcodeModel numeric = new Code128Encoder().encode("0123456789012345");
+        BarcodeModel code39 = SymbologyEncoders.get("Code 39").encode("0123456789012345");
+        check(numeric.getModuleCount() == 10 * 11 + 13 && numeric.getBarCount() < code39.getBarCount(),
+              "16 digits: Code 128 " + numeric.getBarCount() + " bars vs Code 39 " + code39.getBarCount());
+    }
+
+    private static void testUpcEan() {
+        BarcodeModel ean8 = SymbologyEncoders.get("EAN-8").encode("9638507");
+        check("96385074".equals(ean8.humanReadable) && ean8.getModuleCount() == 67, "EAN-8 96385074, 67 modules");
+        String modules = ean8.toModuleString(0);
+        check(modules.substring(3, 10).equals(EAN_L[9]) && modules.substring(31, 36).equals("01010"), "EAN-8 left digits and centre guard");
+
+        BarcodeModel upce = SymbologyEncoders.get("UPC-E").encode("0123456");
+        check("01234565".equals(upce.humanReadable) && upce.getModuleCount() == 51, "UPC-E 0123456 -> check 5, 51 modules");
+        check(SymbologyEncoders.UpcEEncoder.expandToUpcA("0123456").equals("01234500006")
+              && SymbologyEncoders.UpcEEncoder.expandToUpcA("0123453").equals("01230000045")
+              && SymbologyEncoders.UpcEEncoder.expandToUpcA("1123451").equals("11210000345"), "UPC-E zero-suppression expansion");
+        StringBuilder parity = new StringBuilder();
+        String upceModules = upce.toModuleString(0);
+        for (int i = 0; i < 6; i++) {
+            String digit = upceModules.substring(3 + i * 7, 10 + i * 7);
+            parity.append(EAN_L[upce.humanReadable.charAt(i + 1) - '0'].equals(digit) ? 'O' : 'E');
+        }
+        check(parity.toString().equals("EOOEEO") && upceModules.endsWith("010101"), "UPC-E parity carries check digit 5");
+        expectRejected("UPC-E", "2123456");
+
+        check(SymbologyEncoders.mod10CheckDigit("03600029145") == 2 && SymbologyEncoders.mod10CheckDigit("400638133393") == 1,
+              "shared mod 10 check digit");
+    }
+
+    private static void testItfAndCodabar() {
+        BarcodeModel itf = SymbologyEncoders.get("ITF").encode("1234567");
+        int[] runs = itf.getRuns(0);
+        check("01234567".equals(itf.humanReadable) && itf.getModuleCount() == 4 + 4 * 18 + 5, "ITF pads to even digits, 81 modules");
+        // First pair "01": bars NNWWN (0), spaces WNNNW (1)
+        int[] firstPair = Arrays.copyOfRange(runs, 4, 14);
+        check(Arrays.equals(firstPair, new int[] {1, 3, 1, 1, 3, 1, 3, 1, 1, 3}), "ITF interleaves digit pair 01");
+        expectRejected("ITF", "ABC");
+
+        BarcodeModel codabar = SymbologyEncoders.get("Codabar").encode("A40156B");
+        check("40156".equals(codabar.humanReadable) && codabar.getRuns(0).length == 7 * 8 - 1, "Codabar keeps given start/stop");
+        check(SymbologyEncoders.get("Codabar").encode("123").toModuleString(0)
+              .equals(SymbologyEncoders.get("Codabar").encode("A123A").toModuleString(0)), "Codabar defaults to A...A");
+        int[] widths = SymbologyEncoders.get("Codabar").encode("A0123456789-$:/.+A").getRuns(0);
+        boolean wideCounts = true;
+        for (int c = 0; c < 18; c++) {
+            int wide = 0;
+            for (int e = 0; e < 7; e++) if (widths[c * 8 + e] == SymbologyEncoders.WIDE_RATIO) wide++;
+            wideCounts &= wide == (c >= 1 && c <= 12 ? 2 : 3);
+        }
+        check(wideCounts, "Codabar digits and -$ have 2 wide elements, others 3");
+        expectRejected("Codabar", "12A3");
+        expectRejected("Code 39", "AB_123");
+    }
+
+    private static void testMsiAndPharmacode() {
+        BarcodeModel msi = SymbologyEncoders.get("MSI").encode("1234");
+        check("12344".equals(msi.humanReadable) && msi.getModuleCount() == 3 + 5 * 12 + 4, "MSI 1234 -> Luhn check 4");
+
+        boolean decoded = true;
+        for (int value = 3; value <= 131070; value += 997) {
+            int[] runs = SymbologyEncoders.get("Pharma Code").encode(String.valueOf(value)).getRuns(0);
+            int sum = 0;
+            for (int i = runs.length - 1, weight = 1; i >= 0; i -= 2, weight <<= 1) {
+                sum += runs[i] == 1 ? weight : 2 * weight;
+            }
+            decoded &= sum == value;
+        }
+        check(decoded, "Pharmacode bars decode back to their value");
+        expectRejected("Pharma Code", "2");
+        expectRejected("Pharma Code", "131071");
+    }
+
+    private static void testPdf417() {
+        // Compaction: text pairs, submode switches, numeric and byte groups
+        check(Arrays.equals(Pdf417Encoder.compact("ABC"), new int[] {1, 2 * 30 + 29}), "ABC in alpha pairs, odd count padded");
+        check(Arrays.equals(Pdf417Encoder.compact("abc"), new int[] {27 * 30, 1 * 30 + 2}), "lower case latches from alpha");
+        check(Arrays.equals(Pdf417Encoder.compact("A1"), new int[] {28, 1 * 30 + 29}), "digit latches to mixed");
+        check(Arrays.equals(Pdf417Encoder.compact("1234567890123"), new int[] {902, 17, 110, 836, 811, 223}),
+              "13 digits in numeric compaction");
+        check(Arrays.equals(Pdf417Encoder.compact("\u00e9"), new int[] {901, 0xE9}), "single byte in byte compaction");
+        check(Arrays.equals(Pdf417Encoder.compact("\u00e9\u00e9\u00e9\u00e9\u00e9\u00e9"), new int[] {924, 391, 899, 481, 514, 273}),
+              "six bytes in five codewords");
+        int[] mixed = Pdf417Encoder.compact("\u00e9\u00e9LOT 12345678901234");
+        check(mixed[0] == 901 && mixed[3] == 900 && Arrays.stream(mixed).filter(c -> c == 902).count() == 1,
+              "byte, text and numeric runs latch between modes");
+        expectPdf417Rejected("\u20ac", "non-Latin-1 character");
+
+        // Reed-Solomon over GF(929): ISO/IEC 15438 generator coefficients, zero syndromes
+        check(Arrays.equals(Pdf417Encoder.generator(0), new int[] {27, 917, 1})
+              && Arrays.equals(Pdf417Encoder.generator(1), new int[] {522, 568, 723, 809, 1}), "generator polynomials");
+        Random random = new Random(417);
+        boolean syndromesZero = true;
+        for (int level = 0; level <= 8; level++) {
+            int k = 2 << level;
+            int[] codewords = new int[20 + k];
+            for (int i = 0; i < 20; i++) codewords[i] = random.nextInt(929);
+            System.arraycopy(Pdf417Encoder.errorCorrection(codewords, 20, level), 0, codewords, 20, k);
+            for (int i = 1, root = 3; i <= k; i++, root = root * 3 % 929) {
+                long value = 0;
+                for (int c : codewords) value = (value * root + c) % 929;
+                syndromesZero &= value == 0;
+            }
+        }
+        check(syndromesZero, "error correction codewords leave zero syndromes at every level");
+
+        // Symbol: length descriptor, padding and row indicators
+        Pdf417Encoder.Symbol symbol = Pdf417Encoder.encodeCodewords("SERIAL 0042-A");
+        int[][] m = symbol.codewords;
+        int rows = symbol.rows, columns = symbol.columns, level = symbol.errorCorrectionLevel;
+        check(level == 2 && m[0][1] == rows * columns - 8 && m[0].length == columns + 2, "length descriptor counts data and padding");
+        boolean indicators = true;
+        for (int row = 0; row < rows; row++) {
+            int base = 30 * (row / 3);
+            int[] expected = {(rows - 1) / 3, level * 3 + (rows - 1) % 3, columns - 1};
+            indicators &= m[row][0] == base + expected[row % 3] && m[row][columns + 1] == base + expected[(row + 2) % 3];
+        }
+        check(indicators, rows + " x " + columns + " symbol row indicators");
+        expectPdf417Rejected("\u00e9".repeat(1200), "1200 bytes");
+
+        // Cluster tables: rule check and layout with a structurally valid stand-in table
+        check(Pdf417Encoder.clusterOf(0x1d5c0) == 0 && Pdf417Encoder.clusterOf(0x1ae40) == 3
+              && Pdf417Encoder.clusterOf(0x0a840) == -1 && Pdf417Encoder.clusterOf(0x1ffff) == -1, "cluster of a pattern");
+        StringBuilder table = new StringBuilder();
+        for (int cluster = 0; cluster <= 6; cluster += 3) {
+            int count = 0;
+            for (int pattern = 1 << 16; pattern < 1 << 17 && count < 929; pattern++) {
+                if (Pdf417Encoder.clusterOf(pattern) == cluster) {
+                    table.append(Integer.toHexString(pattern)).append(count % 10 == 9 ? '\n' : ' ');
+                    count++;
+                }
+            }
+        }
+        int[][] clusters = Pdf417Encoder.parseClusters(table.toString());
+        BarcodeModel model = Pdf417Encoder.toModel(symbol, clusters);
+        String top = model.toModuleString(0), second = model.toModuleString(1);
+        check(model.getRowCount() == rows && model.getModuleCount() == 17 * (columns + 4) + 1
+              && top.startsWith(Pdf417Encoder.START_PATTERN) && top.endsWith(Pdf417Encoder.STOP_PATTERN),
+              "rows of start, indicators, data and stop");
+        check(top.substring(17, 34).equals(Integer.toBinaryString(clusters[0][m[0][0]]))
+              && second.substring(17, 34).equals(Integer.toBinaryString(clusters[1][m[1][0]])), "row r uses cluster (r mod 3) * 3");
+        String[] tokens = table.toString().trim().split("\\s+");
+        String swapped = table.toString().replaceFirst(tokens[929] + "\\s", tokens[0] + " ");
+        boolean rejected = false;
+        try {
+            Pdf417Encoder.parseClusters(swapped);
+        } catch (IllegalArgumentException e) {
+            rejected = true;
+        }
+        check(rejected, "a pattern in the wrong cluster is rejected");
+
+        BarcodeMark mark = new BarcodeMark(0, 0, "PDF417", "DOC-ID-2025-001");
+        check(mark.getBarcodeModel() != null && mark.getBarcodeModel().getRowCount()
+                  == (Pdf417Encoder.isAvailable() ? Pdf417Encoder.encodeCodewords("DOC-ID-2025-001").rows : Pdf417Encoder.LEGACY_ROWS),
+              "PDF417 marks draw with or without the standard tables");
+        BarcodeModel legacy = Pdf417Encoder.legacyModel("DOC-ID-2025-001");
+        check(legacy.getRowCount() == 6 && legacy.getModuleCount() == 17 * 9 + 18, "legacy PDF417 layout of 6 rows x 171 modules");
+    }
+
+    private static void testBarcodeMarkIntegration() {
+        BarcodeMark mark = new BarcodeMark(0, 0, "Code 128", "PART-0042");
+        check(mark.getBarcodeModel() != null && !mark.getBarRectangles().isEmpty(), "Code 128 mark draws from its model");
+        mark.setBarcodeType("Pharma Code");
+        check(mark.getBarcodeModel() == null, "unencodable data leaves no model");
+        java.awt.image.BufferedImage image = new java.awt.image.BufferedImage(200, 120, java.awt.image.BufferedImage.TYPE_INT_RGB);
+        java.awt.Graphics2D g = image.createGraphics();
+        mark.draw(g, false);   // Draws the error text instead of bars
+        g.dispose();
+        for (String type : new String[] {"EAN-8", "UPC-E", "ITF", "Codabar", "MSI Plessey", "GS1-128"}) {
+            check(new BarcodeMark(0, 0, type, "12345670").getBarcodeModel() != null, type + " mark encodes");
+        }
+        check(new DotPathCompiler(1.0).compile(new BarcodeMark(0, 0, "ITF", "12345670")).size() > 0, "ITF mark compiles to dots");
+    }
+
+    // ==================== Test-side Code 128 reader ====================
+
+    private static int[] valuesFromRuns(int[] runs) {
+        int symbols = (runs.length - 7) / 6;
+        int[] values = new int[symbols];
+        for (int s = 0; s < symbols; s++) {
+            int[] widths = Arrays.copyOfRange(runs, s * 6, s * 6 + 6);
+            values[s] = -1;
+            for (int v = 0; v < 106; v++) {
+                if (Arrays.equals(widths, Code128Encoder.PATTERNS[v])) values[s] = v;
+            }
+        }
+        check(Arrays.equals(Arrays.copyOfRange(runs, runs.length - 7, runs.length), Code128Encoder.PATTERNS[106]), null);
+        return values;
+    }
+
+    /** Interpret symbol values after the start character; verifies the check character. */
+    private static String decode128(int[] values) {
+        int sum = values[0];
+        for (int k = 1; k < values.length - 1; k++) sum += k * values[k];
+        check(sum % 103 == values[values.length - 1], null);
+        int set = values[0] - 103;
+        StringBuilder out = new StringBuilder();
+        for (int k = 1; k < values.length - 1; k++) {
+            int v = values[k];
+            if (set == 2 && v < 100) {
+                out.append(v < 10 ? "0" : "").append(v);
+            } else if (v == 99) {
+                set = 2;
+            } else if (v == 100 && set != 1) {
+                set = 1;
+            } else if (v == 101 && set != 0) {
+                set = 0;
+            } else if (v == 98) {
+                k++;
+                out.append(charIn(values[k], 1 - set));
+            } else {
+                out.append(charIn(v, set));
+            }
+        }
+        return out.toString();
+    }
+
+    private static char charIn(int value, int set) {
+        if (set == 0 && value >= 64) return (char) (value - 64);
+        return (char) (value + 32);
+    }
+
+    /** Fewest symbols for text[i..] in subset set, trying every switch (never two in a row). */
+    private static int exhaustive(String text, int i, int set, boolean justSwitched) {
+        if (i == text.length()) return 0;
+        int best = Integer.MAX_VALUE / 2;
+        char c = text.charAt(i);
+        if (set == 2) {
+            if (i + 1 < text.length() && Character.isDigit(c) && Character.isDigit(text.charAt(i + 1))) {
+                best = 1 + exhaustive(text, i + 2, 2, false);
+            }
+        } else {
+            boolean inSet = set == 0 ? c < 96 : c >= 32;
+            best = (inSet ? 1 : 2) + exhaustive(text, i + 1, set, false);
+        }
+        if (!justSwitched) {
+            for (int t = 0; t < 3; t++) {
+                if (t != set) best = Math.min(best, 1 + exhaustive(text, i, t, true));
+            }
+        }
+        return best;
+    }
+
+    private static void expectPdf417Rejected(String data, String description) {
+        try {
+            Pdf417Encoder.encodeCodewords(data);
+        } catch (IllegalArgumentException e) {
+            check(true, "PDF417 rejects " + description + ": " + e.getMessage());
+            return;
+        }
+        throw new AssertionError("FAILED: PDF417 accepted " + description);
+    }
+
+    private static void expectRejected(String type, String data) {
+        try {
+            SymbologyEncoders.get(type).encode(data);
+        } catch (IllegalArgumentException e) {
+            check(true, type + " rejects \"" + data.replace("\t", "\\t") + "\": " + e.getMessage());
+            return;
+        }
+        throw new AssertionError("FAILED: " + type + " accepted \"" + data + "\"");
+    }
+
+    /** Null message: silent check inside loops. */
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError("FAILED: " + (message != null ? message : "check inside loop"));
+        }
+        if (message != null) System.out.println("✓ " + message);
+    }
+}
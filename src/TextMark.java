@@ -17,6 +17,7 @@ public class TextMark extends Mark {
     
     private String text = "ABC123";
     private Font font = new Font("Arial", Font.BOLD, 14);
+    private GlyphDotRasterizer.Mode dotMode = GlyphDotRasterizer.Mode.OUTLINE;   // How glyphs become pin dots
     
     // Soft coding: Configurable text formatting parameters
     private double characterWidth = 1.0;    // Width multiplier for character spacing
@@ -61,6 +62,7 @@ public class TextMark extends Mark {
     }
     
     public void setText(String text) {
+        markChanged();
         // Soft coding: Null-safe text setting with validation
         this.text = (text != null) ? text : "ABC123";
         updateDimensions();
@@ -80,6 +82,7 @@ public class TextMark extends Mark {
     }
     
     public void setFont(Font font) {
+        markChanged();
         this.font = font;
         updateDimensions();
     }
@@ -88,8 +91,18 @@ public class TextMark extends Mark {
         return font;
     }
     
+    public void setDotMode(GlyphDotRasterizer.Mode dotMode) {
+        markChanged();
+        this.dotMode = (dotMode != null) ? dotMode : GlyphDotRasterizer.Mode.OUTLINE;
+    }
+    
+    public GlyphDotRasterizer.Mode getDotMode() {
+        return dotMode;
+    }
+    
     // Soft coding: Configurable width and spacing methods
     public void setCharacterWidth(double characterWidth) {
+        markChanged();
         this.characterWidth = Math.max(0.5, Math.min(3.0, characterWidth)); // Limit range
         updateDimensions();
     }
@@ -99,6 +112,7 @@ public class TextMark extends Mark {
     }
     
     public void setLineSpacing(double lineSpacing) {
+        markChanged();
         this.lineSpacing = Math.max(0.5, Math.min(3.0, lineSpacing)); // Limit range
         updateDimensions();
     }
@@ -107,6 +121,10 @@ public class TextMark extends Mark {
         return lineSpacing;
     }
     
+    public int getPadding() {
+        return padding;
+    }
+    
     // Soft coding: Update dimensions based on configurable parameters
     private void updateDimensions() {
         if (text == null || text.isEmpty()) {
@@ -115,7 +133,7 @@ public class TextMark extends Mark {
             return;
         }
         
-        FontMetrics fm = new Canvas().getFontMetrics(font);
+        FontMetrics fm = GlyphCache.metrics(font);
         
         // Calculate width with character width multiplier
         int baseWidth = fm.stringWidth(text);
@@ -200,7 +218,7 @@ public class TextMark extends Mark {
         g.fillOval(fontTopX - 4, fontTopY - 4, 8, 8);
         g.fillOval(fontBottomX - 4, fontBottomY - 4, 8, 8);
         g.setColor(Color.BLACK);
-        g.setFont(new Font("Arial", Font.BOLD, 8));
+        g.setFont(GlyphCache.font("Arial", Font.BOLD, 8));
         g.drawString("+", fontTopX - 2, fontTopY + 2);
         g.drawString("-", fontBottomX - 2, fontBottomY + 2);
         
@@ -212,7 +230,7 @@ public class TextMark extends Mark {
         g.fillRect(spacingLeftX - 6, midY - 6, 12, 12);
         g.fillRect(spacingRightX - 6, midY - 6, 12, 12);
         g.setColor(Color.WHITE);
-        g.setFont(new Font("Arial", Font.BOLD, 8));
+        g.setFont(GlyphCache.font("Arial", Font.BOLD, 8));
         g.drawString("◄", spacingLeftX - 3, midY + 2);
         g.drawString("►", spacingRightX - 3, midY + 2);
         
@@ -240,7 +258,7 @@ public class TextMark extends Mark {
         
         // 5. Font information display
         g.setColor(new Color(80, 80, 80, 200));
-        g.setFont(new Font("Arial", Font.PLAIN, 10));
+        g.setFont(GlyphCache.font("Arial", Font.PLAIN, 10));
         g.drawString("Font: " + font.getSize() + "pt", x + 5, y - 12);
         g.drawString("Spacing: " + String.format("%.1f", characterWidth), x + 5, y + height + 15);
     }
@@ -292,7 +310,7 @@ public class TextMark extends Mark {
             // Lock indicator text
             if (RugrelDropdownConfig.DEBUG_POSITION_LOCKING) {
                 g.setColor(Color.BLACK);
-                g.setFont(new Font("Arial", Font.BOLD, 8));
+                g.setFont(GlyphCache.font("Arial", Font.BOLD, 8));
                 g.drawString("LOCKED", lockX - 5, lockY + lockSize + 12);
             }
         }
@@ -300,7 +318,7 @@ public class TextMark extends Mark {
         // Draw lock status tooltip near object
         if (RugrelDropdownConfig.SHOW_LOCK_STATUS_IN_TOOLTIP) {
             g.setColor(new Color(0, 0, 0, 180));
-            g.setFont(new Font("Arial", Font.PLAIN, 10));
+            g.setFont(GlyphCache.font("Arial", Font.PLAIN, 10));
             String lockInfo = getPositionLockInfo();
             FontMetrics fm = g.getFontMetrics();
             int textWidth = fm.stringWidth(lockInfo);
@@ -536,6 +554,7 @@ public class TextMark extends Mark {
     
     // Enhanced Smart TextMark control system with dynamic directional locking
     public void resizeText(int deltaX, int deltaY, TextResizeHandle handle) {
+        markChanged();
         // Check if multi-directional resize is enabled via soft coding
         if (!RugrelDropdownConfig.ENABLE_TEXTMARK_MULTI_DIRECTIONAL_RESIZE) {
             if (RugrelDropdownConfig.LOG_TEXTMARK_RESIZE_OPERATIONS) {
@@ -583,7 +602,7 @@ public class TextMark extends Mark {
                 double fontIncrease = -filteredDeltaY * FONTSIZE_SENSITIVITY;  // Negative because up is negative
                 float newTopSize = Math.max(MIN_FONT_SIZE, Math.min(MAX_FONT_SIZE, 
                     font.getSize() + (float)fontIncrease));
-                font = font.deriveFont(newTopSize);
+                font = GlyphCache.derive(font, newTopSize);
                 
                 // Soft coding: Only allow horizontal effects if specifically enabled AND filtered delta allows it
                 if (!RugrelDropdownConfig.TEXTMARK_VERTICAL_ONLY_FONT_HANDLES && 
@@ -607,7 +626,7 @@ public class TextMark extends Mark {
                 double fontDecrease = filteredDeltaY * FONTSIZE_SENSITIVITY;
                 float newBottomSize = Math.max(MIN_FONT_SIZE, Math.min(MAX_FONT_SIZE, 
                     font.getSize() + (float)fontDecrease));
-                font = font.deriveFont(newBottomSize);
+                font = GlyphCache.derive(font, newBottomSize);
                 
                 // Soft coding: Only allow horizontal effects if specifically enabled AND filtered delta allows it
                 if (!RugrelDropdownConfig.TEXTMARK_VERTICAL_ONLY_FONT_HANDLES && 
@@ -683,7 +702,7 @@ public class TextMark extends Mark {
                     characterWidth + tlSpacingDelta));
                 float tlNewSize = Math.max(MIN_FONT_SIZE, Math.min(MAX_FONT_SIZE, 
                     font.getSize() + (float)tlFontDelta));
-                font = font.deriveFont(tlNewSize);
+                font = GlyphCache.derive(font, tlNewSize);
                 
                 System.out.println("   🔧 Top-Left Combo - Font: " + font.getSize() + 
                                  "pt, Spacing: " + String.format("%.2f", characterWidth) +
@@ -700,7 +719,7 @@ public class TextMark extends Mark {
                     characterWidth + trSpacingDelta));
                 float trNewSize = Math.max(MIN_FONT_SIZE, Math.min(MAX_FONT_SIZE, 
                     font.getSize() + (float)trFontDelta));
-                font = font.deriveFont(trNewSize);
+                font = GlyphCache.derive(font, trNewSize);
                 
                 System.out.println("   🔧 Top-Right Combo - Font: " + font.getSize() + 
                                  "pt, Spacing: " + String.format("%.2f", characterWidth) +
@@ -717,7 +736,7 @@ public class TextMark extends Mark {
                     characterWidth + blSpacingDelta));
                 float blNewSize = Math.max(MIN_FONT_SIZE, Math.min(MAX_FONT_SIZE, 
                     font.getSize() + (float)blFontDelta));
-                font = font.deriveFont(blNewSize);
+                font = GlyphCache.derive(font, blNewSize);
                 
                 System.out.println("   🔧 Bottom-Left Combo - Font: " + font.getSize() + 
                                  "pt, Spacing: " + String.format("%.2f", characterWidth) +
@@ -744,7 +763,7 @@ public class TextMark extends Mark {
                         double brFontDelta = filteredDeltaY * FONTSIZE_SENSITIVITY;
                         float brNewSize = Math.max(MIN_FONT_SIZE, Math.min(MAX_FONT_SIZE, 
                             font.getSize() + (float)brFontDelta));
-                        font = font.deriveFont(brNewSize);
+                        font = GlyphCache.derive(font, brNewSize);
                         System.out.println("   🔧 Bottom-Right Vertical - Font: " + font.getSize() + "pt" +
                                          " (V:" + filteredDeltaY + "→font) [V-DOMINANT FILTERED]");
                     } else {
@@ -756,7 +775,7 @@ public class TextMark extends Mark {
                             characterWidth + brSpacingDelta));
                         float brNewSize = Math.max(MIN_FONT_SIZE, Math.min(MAX_FONT_SIZE, 
                             font.getSize() + (float)brFontDelta));
-                        font = font.deriveFont(brNewSize);
+                        font = GlyphCache.derive(font, brNewSize);
                         
                         System.out.println("   🔧 Bottom-Right Combo - Font: " + font.getSize() + 
                                          "pt, Spacing: " + String.format("%.2f", characterWidth) +
@@ -771,7 +790,7 @@ public class TextMark extends Mark {
                         characterWidth + brSpacingDelta));
                     float brNewSize = Math.max(MIN_FONT_SIZE, Math.min(MAX_FONT_SIZE, 
                         font.getSize() + (float)brFontDelta));
-                    font = font.deriveFont(brNewSize);
+                    font = GlyphCache.derive(font, brNewSize);
                     
                     System.out.println("   🔧 Bottom-Right Combo - Font: " + font.getSize() + 
                                      "pt, Spacing: " + String.format("%.2f", characterWidth) +
@@ -790,6 +809,7 @@ public class TextMark extends Mark {
 
     @Override
     public void resizeTo(int mx, int my) {
+        markChanged();
         // Soft coding: Check Lock Size flag before any resize operation
         if (RugrelDropdownConfig.ENABLE_LOCK_SIZE_FUNCTIONALITY && 
             RugrelDropdownConfig.ENABLE_INTELLIGENT_LOCK_SIZE && 
@@ -825,7 +845,7 @@ public class TextMark extends Mark {
         float newSize = Math.max(MIN_FONT_SIZE, Math.min(MAX_FONT_SIZE, originalFontSize * scaleFactor));
         
         // Always update font if size changed
-        font = font.deriveFont(newSize);
+        font = GlyphCache.derive(font, newSize);
         updateDimensions(); // Recalculate text box after font change
     }
     
@@ -2,6 +2,7 @@ import javax.swing.*;
 import java.awt.*;
 import java.util.Map;
 import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * ThorX6 Coder Type System - Modular Implementation
@@ -153,8 +154,9 @@ public class ThorX6CoderTypeSystem {
      * This makes it easy to add new coder types in the future.
      */
     public static class CoderTypeRegistry {
-        private static final Map<String, Class<? extends CoderType>> registeredTypes = new HashMap<>();
-        private static final Map<String, CoderType> instances = new HashMap<>();
+        // Concurrent maps: batch jobs look coders up from worker threads
+        private static final Map<String, Class<? extends CoderType>> registeredTypes = new ConcurrentHashMap<>();
+        private static final Map<String, CoderType> instances = new ConcurrentHashMap<>();
         
         static {
             // Register all built-in coder types
@@ -183,18 +185,17 @@ public class ThorX6CoderTypeSystem {
          * Get a coder type instance by name
          */
         public static CoderType getCoderType(String typeName) {
-            if (!instances.containsKey(typeName)) {
+            if (typeName == null) return null;
+            // One instance per type even when several threads ask at once
+            return instances.computeIfAbsent(typeName, name -> {
                 try {
-                    Class<? extends CoderType> coderClass = registeredTypes.get(typeName);
-                    if (coderClass != null) {
-                        instances.put(typeName, coderClass.getDeclaredConstructor().newInstance());
-                    }
+                    Class<? extends CoderType> coderClass = registeredTypes.get(name);
+                    return coderClass != null ? coderClass.getDeclaredConstructor().newInstance() : null;
                 } catch (Exception e) {
-                    System.err.println("Error creating coder type: " + typeName + " - " + e.getMessage());
+                    System.err.println("Error creating coder type: " + name + " - " + e.getMessage());
                     return null;
                 }
-            }
-            return instances.get(typeName);
+            });
         }
     }
     
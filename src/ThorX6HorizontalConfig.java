@@ -50,6 +50,8 @@ public class ThorX6HorizontalConfig {
     public static final int SERIAL_START_NUMBER = 1;                    // Soft-coded starting number
     public static final int SERIAL_PADDING_ZEROS = 3;                   // Soft-coded padding (e.g., SN001, SN002)
     private static int currentSerialNumber = SERIAL_START_NUMBER;       // Current serial counter
+    private static final CodeTemplate SERIAL_TEMPLATE =                 // Prefix and padding compiled once
+        CodeTemplate.compile(SERIAL_PREFIX.replace("{", "{{").replace("}", "}}") + "{serial:" + SERIAL_PADDING_ZEROS + "}");
 
     // VIN Configuration (Soft-coded third option)
     public static final boolean ENABLE_VIN_OPTION = true;               // ENABLE "VIN" as third cell
@@ -2522,15 +2524,15 @@ public class ThorX6HorizontalConfig {
      */
     private static String generateNextSerialNumber() {
         if (!ENABLE_AUTO_INCREMENT) {
-            return SERIAL_PREFIX + String.format("%0" + SERIAL_PADDING_ZEROS + "d", SERIAL_START_NUMBER);
+            return SERIAL_TEMPLATE.generate(SERIAL_START_NUMBER);
         }
         
         // Auto-increment serial number
-        String serialNumber = SERIAL_PREFIX + String.format("%0" + SERIAL_PADDING_ZEROS + "d", currentSerialNumber);
+        String serialNumber = SERIAL_TEMPLATE.generate(currentSerialNumber);
         currentSerialNumber++; // Increment for next use
         
         System.out.println("🔢 Generated serial: " + serialNumber + " (next will be: " + 
-            SERIAL_PREFIX + String.format("%0" + SERIAL_PADDING_ZEROS + "d", currentSerialNumber) + ")");
+            SERIAL_TEMPLATE.generate(currentSerialNumber) + ")");
         
         return serialNumber;
     }
@@ -2618,7 +2620,7 @@ public class ThorX6HorizontalConfig {
         try {
             // Use soft-coded date/time formatting
             java.time.LocalDateTime now = java.time.LocalDateTime.now();
-            java.time.format.DateTimeFormatter formatter = java.time.format.DateTimeFormatter.ofPattern(DATETIME_DEFAULT_FORMAT);
+            java.time.format.DateTimeFormatter formatter = CodeTemplate.formatter(DATETIME_DEFAULT_FORMAT);
             
             String dateTimeStamp = now.format(formatter);
             
@@ -3149,6 +3151,7 @@ public class ThorX6HorizontalConfig {
         contentPanel.add(boldCheck);
         contentPanel.add(italicCheck);
         contentPanel.add(underlineCheck);
+        contentPanel.add(createDotModeCombo(textMark.getDotMode(), textMark::setDotMode, canvas));
         
         panel.add(titleLabel, BorderLayout.NORTH);
         panel.add(contentPanel, BorderLayout.CENTER);
@@ -3419,6 +3422,16 @@ public class ThorX6HorizontalConfig {
         stylePanel.add(underlineCheck);
         
         contentPanel.add(stylePanel, gbc);
+        
+        // Pin dots: how the glyphs are turned into strikes
+        gbc.gridx = 0; gbc.gridy = 2; gbc.weightx = 0.0; gbc.fill = GridBagConstraints.NONE;
+        JLabel dotsLabel = new JLabel("Pin Dots:");
+        dotsLabel.setFont(new Font("Segoe UI", Font.BOLD, 12));
+        dotsLabel.setForeground(new Color(52, 73, 94));
+        contentPanel.add(dotsLabel, gbc);
+        
+        gbc.gridx = 1; gbc.weightx = 1.0; gbc.fill = GridBagConstraints.HORIZONTAL;
+        contentPanel.add(createDotModeCombo(textMark.getDotMode(), textMark::setDotMode, canvas), gbc);
         panel.add(contentPanel, BorderLayout.CENTER);
         
         return panel;
@@ -3669,7 +3682,7 @@ public class ThorX6HorizontalConfig {
      * Create BowText font section
      */
     private static JPanel createBowTextFontSection(BowTextMark bowTextMark, DrawingCanvas canvas) {
-        JPanel section = new JPanel(new GridLayout(2, 2, 5, 5));
+        JPanel section = new JPanel(new GridLayout(3, 2, 5, 5));
         section.setBorder(BorderFactory.createTitledBorder("🔤 Font Properties"));
         
         // Font family
@@ -3701,10 +3714,31 @@ public class ThorX6HorizontalConfig {
         section.add(fontCombo);
         section.add(new JLabel("Size:"));
         section.add(sizeSpinner);
+        section.add(new JLabel("Dots:"));
+        section.add(createDotModeCombo(bowTextMark.getDotMode(), bowTextMark::setDotMode, canvas));
         
         return section;
     }
     
+    /**
+     * Pin dot mode selector shared by the text property panels:
+     * glyph outlines, filled glyphs or glyph centre lines
+     */
+    private static JComboBox<GlyphDotRasterizer.Mode> createDotModeCombo(GlyphDotRasterizer.Mode current,
+            java.util.function.Consumer<GlyphDotRasterizer.Mode> apply, DrawingCanvas canvas) {
+        JComboBox<GlyphDotRasterizer.Mode> dotModeCombo = new JComboBox<>(GlyphDotRasterizer.Mode.values());
+        dotModeCombo.setFont(new Font("Segoe UI", Font.PLAIN, 10));
+        dotModeCombo.setToolTipText("Outline: glyph edges, Fill: solid glyphs, Centerline: one stroke per line");
+        dotModeCombo.setSelectedItem(current);
+        dotModeCombo.addActionListener(e -> {
+            GlyphDotRasterizer.Mode mode = (GlyphDotRasterizer.Mode) dotModeCombo.getSelectedItem();
+            apply.accept(mode);
+            canvas.repaint();
+            System.out.println("🔤 Pin dot mode changed to: " + mode);
+        });
+        return dotModeCombo;
+    }
+    
     /**
      * Create bow-specific properties section (curvature and direction)
      */
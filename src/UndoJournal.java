@@ -0,0 +1,427 @@
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * UndoJournal: command-based undo/redo history for the drawing canvas.
+ *
+ * Instead of deep-copying the whole canvas per edit, each edit records only what
+ * changed:
+ * - MarkAdded / MarkRemoved - the mark reference and its list position
+ * - PropertyChange - before/after values of the fields that actually changed
+ *   (a move or resize is just x/y/width/height)
+ * - MarksReplaced - bulk operations such as clearing the canvas
+ *
+ * Records live in a ring buffer bounded by entry count and an estimated memory
+ * budget; the oldest records are dropped first.
+ */
+public class UndoJournal {
+
+    // Soft coding: History limits
+    public static final int DEFAULT_MAX_ENTRIES = 500;
+    public static final long DEFAULT_MEMORY_BUDGET = 8L * 1024 * 1024;   // Estimated bytes of history
+    private static final int RECORD_OVERHEAD = 48;                       // Estimated bytes per record
+    private static final int VALUE_SIZE = 16;                            // Estimated bytes per stored value
+
+    // Soft coding: Transient mouse-interaction fields that are never journaled
+    private static final String[] INTERACTION_FIELD_PREFIXES = {"drag", "lastMouse", "active", "original", "resizeStart"};
+    private static final Set<String> INTERACTION_FIELDS = new HashSet<>(Arrays.asList(
+        "resizing", "dragging", "dynamicResizing", "isIntelligentDragging"));
+    private static final String IMAGE_ASSET_FIELD = "imageAssetId";   // GraphMark's ImageAssetStore id
+
+    /**
+     * One undoable change to the mark list.
+     */
+    public interface Edit {
+        void undo(List<Mark> marks);
+        void redo(List<Mark> marks);
+        long estimatedBytes();
+        String getDescription();
+
+        /** Add the image assets this edit can bring back to ids. */
+        default void collectImageAssetIds(Set<String> ids) {
+        }
+    }
+
+    private final Edit[] ring;
+    private final long memoryBudget;
+    private int head = 0;        // Ring index of the oldest record
+    private int undoCount = 0;   // Records that can be undone
+    private int redoCount = 0;   // Records after the cursor that can be redone
+    private long bytes = 0;
+
+    public UndoJournal() {
+        this(DEFAULT_MAX_ENTRIES, DEFAULT_MEMORY_BUDGET);
+    }
+
+    public UndoJournal(int maxEntries, long memoryBudget) {
+        this.ring = new Edit[Math.max(1, maxEntries)];
+        this.memoryBudget = Math.max(0, memoryBudget);
+    }
+
+    // ==================== HISTORY ====================
+
+    /**
+     * Append an already applied edit; discards anything that could be redone.
+     */
+    public void record(Edit edit) {
+        if (edit == null) return;
+        for (int i = 0; i < redoCount; i++) {
+            int index = slot(undoCount + i);
+            bytes -= ring[index].estimatedBytes();
+            ring[index] = null;
+        }
+        redoCount = 0;
+        if (undoCount == ring.length) {
+            dropOldest();
+        }
+        ring[slot(undoCount)] = edit;
+        undoCount++;
+        bytes += edit.estimatedBytes();
+        while (bytes > memoryBudget && undoCount > 1) {
+            dropOldest();
+        }
+    }
+
+    /**
+     * Undo the latest edit; returns it, or null when there is nothing to undo.
+     */
+    public Edit undo(List<Mark> marks) {
+        if (undoCount == 0) return null;
+        Edit edit = ring[slot(undoCount - 1)];
+        edit.undo(marks);
+        undoCount--;
+        redoCount++;
+        return edit;
+    }
+
+    public Edit redo(List<Mark> marks) {
+        if (redoCount == 0) return null;
+        Edit edit = ring[slot(undoCount)];
+        edit.redo(marks);
+        undoCount++;
+        redoCount--;
+        return edit;
+    }
+
+    public boolean canUndo() { return undoCount > 0; }
+    public boolean canRedo() { return redoCount > 0; }
+    public int getUndoCount() { return undoCount; }
+    public int getRedoCount() { return redoCount; }
+    public long getEstimatedBytes() { return bytes; }
+
+    public void clear() {
+        Arrays.fill(ring, null);
+        head = 0;
+        undoCount = 0;
+        redoCount = 0;
+        bytes = 0;
+    }
+
+    /**
+     * Image asset ids that undo or redo could restore (see ImageAssetStore.releaseUnreferenced).
+     */
+    public void collectImageAssetIds(Set<String> ids) {
+        for (int i = 0; i < undoCount + redoCount; i++) {
+            ring[slot(i)].collectImageAssetIds(ids);
+        }
+    }
+
+    private void dropOldest() {
+        bytes -= ring[head].estimatedBytes();
+        ring[head] = null;
+        head = (head + 1) % ring.length;
+        undoCount--;
+    }
+
+    private int slot(int offset) {
+        return (head + offset) % ring.length;
+    }
+
+    // ==================== RECORDS ====================
+
+    public static class MarkAdded implements Edit {
+        private final Mark mark;
+        private final int index;
+
+        public MarkAdded(Mark mark, int index) {
+            this.mark = mark;
+            this.index = index;
+        }
+
+        public void undo(List<Mark> marks) { marks.remove(mark); }
+        public void redo(List<Mark> marks) { marks.add(Math.min(index, marks.size()), mark); }
+        public long estimatedBytes() { return RECORD_OVERHEAD; }
+        public String getDescription() { return "Add " + mark.getClass().getSimpleName(); }
+        public void collectImageAssetIds(Set<String> ids) { addImageAssetId(ids, mark); }
+    }
+
+    public static class MarkRemoved implements Edit {
+        private final Mark mark;
+        private final int index;
+
+        public MarkRemoved(Mark mark, int index) {
+            this.mark = mark;
+            this.index = index;
+        }
+
+        public void undo(List<Mark> marks) { marks.add(Math.min(index, marks.size()), mark); }
+        public void redo(List<Mark> marks) { marks.remove(mark); }
+        public long estimatedBytes() { return RECORD_OVERHEAD; }
+        public String getDescription() { return "Delete " + mark.getClass().getSimpleName(); }
+        public void collectImageAssetIds(Set<String> ids) { addImageAssetId(ids, mark); }
+    }
+
+    /**
+     * Whole-list change for bulk operations (clear canvas); stores references only.
+     */
+    public static class MarksReplaced implements Edit {
+        private final Mark[] before;
+        private final Mark[] after;
+
+        public MarksReplaced(List<Mark> before, List<Mark> after) {
+            this.before = before.toArray(new Mark[0]);
+            this.after = after.toArray(new Mark[0]);
+        }
+
+        public void undo(List<Mark> marks) { marks.clear(); marks.addAll(Arrays.asList(before)); }
+        public void redo(List<Mark> marks) { marks.clear(); marks.addAll(Arrays.asList(after)); }
+        public long estimatedBytes() { return RECORD_OVERHEAD + 8L * (before.length + after.length); }
+        public String getDescription() { return "Replace " + before.length + " marks"; }
+
+        public void collectImageAssetIds(Set<String> ids) {
+            for (Mark mark : before) addImageAssetId(ids, mark);
+            for (Mark mark : after) addImageAssetId(ids, mark);
+        }
+    }
+
+    /**
+     * Field-level change of one mark: only fields that differ are stored.
+     */
+    public static class PropertyChange implements Edit {
+        private final Mark mark;
+        private final Field[] fields;
+        private final Object[] before;
+        private final Object[] after;
+
+        PropertyChange(Mark mark, Field[] fields, Object[] before, Object[] after) {
+            this.mark = mark;
+            this.fields = fields;
+            this.before = before;
+            this.after = after;
+        }
+
+        public void undo(List<Mark> marks) { apply(before); }
+        public void redo(List<Mark> marks) { apply(after); }
+
+        /**
+         * Restore through the mark's setters where it has one, so derived state (barcode
+         * encodings, text dimensions) is rebuilt; plain fields are written directly.
+         */
+        private void apply(Object[] values) {
+            for (int i = 0; i < fields.length; i++) {
+                Object value = copyValue(values[i]);
+                Method setter = setterOf(mark.getClass(), fields[i]);
+                try {
+                    if (setter != null) {
+                        try {
+                            setter.invoke(mark, value);
+                            continue;
+                        } catch (InvocationTargetException e) {
+                            // Setter rejected the old value: fall back to the raw field
+                        }
+                    }
+                    fields[i].set(mark, value);
+                } catch (IllegalAccessException e) {
+                    System.err.println("Undo could not restore " + fields[i].getName() + ": " + e.getMessage());
+                }
+            }
+            mark.markChanged();
+        }
+
+        public long estimatedBytes() {
+            long size = RECORD_OVERHEAD;
+            for (int i = 0; i < fields.length; i++) {
+                size += estimateValue(before[i]) + estimateValue(after[i]);
+            }
+            return size;
+        }
+
+        public String getDescription() {
+            boolean position = false, size = false, other = false;
+            for (Field field : fields) {
+                String name = field.getName();
+                if (name.equals("x") || name.equals("y")) position = true;
+                else if (name.equals("width") || name.equals("height")) size = true;
+                else other = true;
+            }
+            String kind = other ? "Edit" : size ? "Resize" : position ? "Move" : "Edit";
+            return kind + " " + mark.getClass().getSimpleName();
+        }
+
+        public void collectImageAssetIds(Set<String> ids) {
+            addImageAssetId(ids, mark);
+            for (int i = 0; i < fields.length; i++) {
+                if (!fields[i].getName().equals(IMAGE_ASSET_FIELD)) continue;
+                if (before[i] instanceof String) ids.add((String) before[i]);
+                if (after[i] instanceof String) ids.add((String) after[i]);
+            }
+        }
+    }
+
+    private static void addImageAssetId(Set<String> ids, Mark mark) {
+        if (mark instanceof GraphMark) {
+            String id = ((GraphMark) mark).getImageAssetId();
+            if (id != null) ids.add(id);
+        }
+    }
+
+    // ==================== PROPERTY SNAPSHOTS ====================
+
+    /**
+     * Field values of a mark taken before an edit; commit() after the edit turns
+     * the difference into a PropertyChange (or null if nothing changed).
+     */
+    public static class Snapshot {
+        private final Mark mark;
+        private final Field[] fields;
+        private final Object[] values;
+
+        public Snapshot(Mark mark) {
+            this.mark = mark;
+            this.fields = fieldsOf(mark.getClass());
+            this.values = readValues(mark, fields);
+        }
+
+        public Mark getMark() {
+            return mark;
+        }
+
+        public PropertyChange commit() {
+            Object[] current = readValues(mark, fields);
+            List<Integer> changed = new ArrayList<>();
+            for (int i = 0; i < fields.length; i++) {
+                if (!Objects.deepEquals(values[i], current[i])) {
+                    changed.add(i);
+                }
+            }
+            if (changed.isEmpty()) return null;
+            Field[] changedFields = new Field[changed.size()];
+            Object[] before = new Object[changed.size()];
+            Object[] after = new Object[changed.size()];
+            for (int i = 0; i < changed.size(); i++) {
+                int f = changed.get(i);
+                changedFields[i] = fields[f];
+                before[i] = values[f];
+                after[i] = current[f];
+            }
+            return new PropertyChange(mark, changedFields, before, after);
+        }
+    }
+
+    private static final Map<Class<?>, Field[]> FIELD_CACHE = new ConcurrentHashMap<>();
+
+    private static Field[] fieldsOf(Class<?> type) {
+        return FIELD_CACHE.computeIfAbsent(type, t -> {
+            List<Field> fields = new ArrayList<>();
+            for (Class<?> c = t; c != null && c != Object.class; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    int modifiers = field.getModifiers();
+                    if (Modifier.isStatic(modifiers) || Modifier.isFinal(modifiers)
+                        || Modifier.isTransient(modifiers) || field.isSynthetic()
+                        || isInteractionField(field.getName())) continue;
+                    try {
+                        field.setAccessible(true);
+                        fields.add(field);
+                    } catch (RuntimeException e) {
+                        // Inaccessible field: not journaled
+                    }
+                }
+            }
+            return fields.toArray(new Field[0]);
+        });
+    }
+
+    private static final Map<String, Optional<Method>> SETTER_CACHE = new ConcurrentHashMap<>();
+
+    /** Public setXxx(type) of the mark class for a field, or null when there is none. */
+    private static Method setterOf(Class<?> type, Field field) {
+        String name = field.getName();
+        String setterName = "set" + Character.toUpperCase(name.charAt(0)) + name.substring(1);
+        return SETTER_CACHE.computeIfAbsent(type.getName() + '#' + name, key -> {
+            try {
+                return Optional.of(type.getMethod(setterName, field.getType()));
+            } catch (NoSuchMethodException | SecurityException e) {
+                return Optional.empty();
+            }
+        }).orElse(null);
+    }
+
+    static boolean isInteractionField(String name) {
+        if (INTERACTION_FIELDS.contains(name)) return true;
+        for (String prefix : INTERACTION_FIELD_PREFIXES) {
+            if (name.startsWith(prefix)) return true;
+        }
+        return false;
+    }
+
+    private static Object[] readValues(Mark mark, Field[] fields) {
+        Object[] values = new Object[fields.length];
+        for (int i = 0; i < fields.length; i++) {
+            try {
+                values[i] = copyValue(fields[i].get(mark));
+            } catch (IllegalAccessException e) {
+                values[i] = null;
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Arrays and lists are copied so later in-place edits cannot alter history;
+     * everything else (strings, boxed values, fonts, colors, images) is immutable
+     * or replaced rather than edited.
+     */
+    private static Object copyValue(Object value) {
+        if (value == null) return null;
+        if (value.getClass().isArray()) {
+            int length = Array.getLength(value);
+            Object copy = Array.newInstance(value.getClass().getComponentType(), length);
+            for (int i = 0; i < length; i++) {
+                Array.set(copy, i, copyValue(Array.get(value, i)));
+            }
+            return copy;
+        }
+        if (value instanceof ArrayList) {
+            return new ArrayList<>((ArrayList<?>) value);
+        }
+        return value;
+    }
+
+    private static long estimateValue(Object value) {
+        if (value == null) return 8;
+        if (value instanceof String) return 40 + 2L * ((String) value).length();
+        if (value.getClass().isArray()) {
+            long size = 16;
+            int length = Array.getLength(value);
+            if (value.getClass().getComponentType().isPrimitive()) {
+                return size + 8L * length;
+            }
+            for (int i = 0; i < length; i++) size += estimateValue(Array.get(value, i));
+            return size;
+        }
+        if (value instanceof List) return 24 + VALUE_SIZE * ((List<?>) value).size();
+        return VALUE_SIZE;
+    }
+}
@@ -0,0 +1,92 @@
+// UndoJournal Test Program - Verify command-based undo/redo
+// Checks per-edit records, ring buffer eviction and the memory budget
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class UndoJournalTest {
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+        System.out.println("Testing UndoJournal...");
+
+        List<Mark> marks = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            marks.add(new RectangleMark(i, i));
+        }
+        UndoJournal journal = new UndoJournal();
+
+        // Move: only the changed fields are stored, independent of canvas size
+        Mark moved = marks.get(500);
+        UndoJournal.Snapshot snapshot = new UndoJournal.Snapshot(moved);
+        moved.startDrag(510, 510);
+        moved.dragTo(600, 700);
+        moved.stopDrag();
+        UndoJournal.PropertyChange change = snapshot.commit();
+        journal.record(change);
+        check(change.getDescription().equals("Move RectangleMark"), "drag recorded as move (" + change.getDescription() + ")");
+        check(journal.getEstimatedBytes() < 256, "move costs " + journal.getEstimatedBytes() + " bytes with 1000 marks");
+        journal.undo(marks);
+        check(moved.x == 500 && moved.y == 500, "undo restores position");
+        journal.redo(marks);
+        check(moved.x != 500 && moved.y != 500, "redo reapplies move");
+
+        // No-op edits are not journaled
+        check(new UndoJournal.Snapshot(moved).commit() == null, "unchanged mark records nothing");
+
+        // Property edit through a setter
+        TextMark text = new TextMark(10, 10, "OLD");
+        marks.add(text);
+        journal.record(new UndoJournal.MarkAdded(text, marks.size() - 1));
+        UndoJournal.Snapshot textSnapshot = new UndoJournal.Snapshot(text);
+        text.setText("NEW");
+        journal.record(textSnapshot.commit());
+        long editedKey = text.getStateKey();
+        journal.undo(marks);
+        check("OLD".equals(text.getText()), "undo restores text");
+        check(text.getStateKey() != editedKey, "undo invalidates the mark's cached rasters and dots");
+        journal.undo(marks);
+        check(!marks.contains(text), "undo removes added mark");
+        journal.redo(marks);
+        journal.redo(marks);
+        check(marks.contains(text) && "NEW".equals(text.getText()), "redo re-adds and re-edits");
+
+        // Delete and restore at the original position
+        Mark removed = marks.remove(3);
+        journal.record(new UndoJournal.MarkRemoved(removed, 3));
+        journal.undo(marks);
+        check(marks.get(3) == removed, "undo reinserts deleted mark in place");
+
+        // New edit after undo discards redo history
+        journal.record(new UndoJournal.MarkAdded(new LineMark(0, 0), 0));
+        check(!journal.canRedo(), "new edit clears redo");
+
+        // Ring buffer keeps only the newest entries
+        UndoJournal small = new UndoJournal(10, Long.MAX_VALUE);
+        for (int i = 0; i < 25; i++) {
+            Mark mark = marks.get(i);
+            UndoJournal.Snapshot s = new UndoJournal.Snapshot(mark);
+            mark.x += 1000;
+            small.record(s.commit());
+        }
+        check(small.getUndoCount() == 10, "ring buffer capped at 10 entries");
+        while (small.undo(marks) != null) { }
+        check(marks.get(24).x == 24 && marks.get(14).x == 1014, "oldest entries evicted first");
+
+        // Memory budget evicts old entries
+        UndoJournal budgeted = new UndoJournal(1000, 4096);
+        for (int i = 0; i < 200; i++) {
+            budgeted.record(new UndoJournal.MarksReplaced(marks.subList(0, 20), marks.subList(0, 10)));
+        }
+        check(budgeted.getEstimatedBytes() <= 4096, "memory budget respected (" + budgeted.getEstimatedBytes() + " bytes, "
+            + budgeted.getUndoCount() + " entries)");
+
+        System.out.println("\nAll UndoJournal checks passed.");
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError("FAILED: " + message);
+        }
+        System.out.println("✓ " + message);
+    }
+}
@@ -0,0 +1,148 @@
+import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import java.awt.*;
+import java.util.*;
+
+/**
+ * VIN Coder - Generates VIN-compliant 17-character codes
+ */
+class VINCoder extends ThorX6CoderTypeSystem.BaseCoderType {
+    private static final String VIN_CHARS = "ABCDEFGHJKLMNPRSTUVWXYZ0123456789"; // No I, O, Q
+    private static final String VIN_NUMBERS = "0123456789";
+    private Random random = new Random();
+    
+    // VIN Configuration
+    private String wmiPrefix = "1HG"; // World Manufacturer Identifier (first 3 chars)
+    private boolean useSequential = false;
+    private int sequentialCounter = 100000;
+    
+    private JTextField wmiField;
+    private JCheckBox sequentialCheckBox;
+    private JSpinner counterSpinner;
+    
+    public VINCoder() {
+        super("VIN");
+    }
+    
+    @Override
+    public String generateCode() {
+        StringBuilder vin = new StringBuilder();
+        
+        // WMI (positions 1-3)
+        vin.append(wmiPrefix.length() >= 3 ? wmiPrefix.substring(0, 3) : String.format("%-3s", wmiPrefix).replace(' ', 'A'));
+        
+        // VDS (positions 4-8) - Vehicle Descriptor Section
+        for (int i = 0; i < 5; i++) {
+            vin.append(VIN_CHARS.charAt(random.nextInt(VIN_CHARS.length())));
+        }
+        
+        // Check digit (position 9), filled in once the VIN is complete
+        vin.append('0');
+        
+        // Model year (position 10)
+        vin.append(VIN_CHARS.charAt(random.nextInt(VIN_CHARS.length())));
+        
+        // Plant code (position 11)
+        vin.append(VIN_CHARS.charAt(random.nextInt(VIN_CHARS.length())));
+        
+        // Sequential number (positions 12-17)
+        if (useSequential) {
+            CodeTemplate.appendPadded(vin, sequentialCounter++, 6);
+        } else {
+            for (int i = 0; i < 6; i++) {
+                vin.append(VIN_NUMBERS.charAt(random.nextInt(VIN_NUMBERS.length())));
+            }
+        }
+        
+        vin.setCharAt(8, CodeTemplate.vinCheckDigit(vin));
+        return vin.toString();
+    }
+    
+    @Override
+    public String getPreview() {
+        return generateCode() + " (Sample VIN)";
+    }
+    
+    @Override
+    public boolean requiresConfiguration() {
+        return true;
+    }
+    
+    @Override
+    public JPanel getConfigurationPanel() {
+        if (configPanel == null) {
+            configPanel = new JPanel();
+            configPanel.setLayout(new BoxLayout(configPanel, BoxLayout.Y_AXIS));
+            
+            wmiField = new JTextField(wmiPrefix, 10);
+            wmiField.getDocument().addDocumentListener(new DocumentListener() {
+                @Override
+                public void insertUpdate(DocumentEvent e) { updateWMI(); }
+                @Override
+                public void removeUpdate(DocumentEvent e) { updateWMI(); }
+                @Override
+                public void changedUpdate(DocumentEvent e) { updateWMI(); }
+                
+                private void updateWMI() {
+                    wmiPrefix = wmiField.getText().toUpperCase();
+                    notifyConfigurationChanged();
+                }
+            });
+            
+            sequentialCheckBox = new JCheckBox("Use Sequential Numbers", useSequential);
+            counterSpinner = new JSpinner(new SpinnerNumberModel(sequentialCounter, 100000, 999999, 1));
+            
+            sequentialCheckBox.addActionListener(e -> {
+                useSequential = sequentialCheckBox.isSelected();
+                counterSpinner.setEnabled(useSequential);
+                notifyConfigurationChanged();
+            });
+            
+            counterSpinner.addChangeListener(e -> {
+                sequentialCounter = (Integer) counterSpinner.getValue();
+                notifyConfigurationChanged();
+            });
+            
+            counterSpinner.setEnabled(useSequential);
+            
+            JPanel wmiPanel = createLabeledComponent("WMI Prefix (3 chars)", wmiField);
+            JPanel seqPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+            seqPanel.add(sequentialCheckBox);
+            seqPanel.add(new JLabel("Counter:"));
+            seqPanel.add(counterSpinner);
+            
+            configPanel.add(createTitledSection("VIN Configuration", wmiPanel, seqPanel));
+            
+            // Info panel
+            JTextArea infoArea = new JTextArea("VIN Format: WMI(3) + VDS(5) + Check(1) + Year(1) + Plant(1) + Serial(6)\nExcludes: I, O, Q characters");
+            infoArea.setEditable(false);
+            infoArea.setBackground(configPanel.getBackground());
+            configPanel.add(createTitledSection("VIN Information", infoArea));
+        }
+        return configPanel;
+    }
+    
+    @Override
+    public Map<String, Object> getConfiguration() {
+        Map<String, Object> config = new HashMap<>();
+        config.put("wmiPrefix", wmiPrefix);
+        config.put("useSequential", useSequential);
+        config.put("sequentialCounter", sequentialCounter);
+        return config;
+    }
+    
+    @Override
+    public void setConfiguration(Map<String, Object> config) {
+        if (config.containsKey("wmiPrefix")) wmiPrefix = (String) config.get("wmiPrefix");
+        if (config.containsKey("useSequential")) useSequential = (Boolean) config.get("useSequential");
+        if (config.containsKey("sequentialCounter")) sequentialCounter = (Integer) config.get("sequentialCounter");
+        
+        if (wmiField != null) {
+            wmiField.setText(wmiPrefix);
+            sequentialCheckBox.setSelected(useSequential);
+            counterSpinner.setValue(sequentialCounter);
+            counterSpinner.setEnabled(useSequential);
+        }
+    }
+}